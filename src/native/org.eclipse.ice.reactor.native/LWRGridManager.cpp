@@ -61,6 +61,7 @@ LWRGridManager::LWRGridManager(LWRGridManager & arg) :
 	this->dataH5GroupName = "Positions";
 	this->headTableString = " headTable";
 	this->dataTableString = " dataTable";
+	this->indexTableString = " indexTable";
 	this->HDF5LWRTag = LWRGRIDMANAGER;
 
 }
@@ -97,6 +98,7 @@ LWRGridManager::LWRGridManager(int size) {
 	this->dataH5GroupName = "Positions";
 	this->headTableString = " headTable";
 	this->dataTableString = " dataTable";
+	this->indexTableString = " indexTable";
 
 	//end-user-code
 
@@ -747,6 +749,17 @@ bool LWRGridManager::readDatasets(std::shared_ptr<H5::Group> h5Group) {
 		return false;
 	}
 
+	// Files with a version attribute use the table layout written by the Java LWRGridManager.  Older files store each
+	// location in its own group.
+	if (H5Aexists(dataH5Group.get()->getId(), "version") > 0) {
+		int version = ICE_IO::HdfReaderFactory::readIntegerAttribute(dataH5Group, "version");
+		if (version > 2) {
+			std::cout << "LWRGridManager:  Unknown data layout version " << version << ".  Returning" << std::endl;
+			return false;
+		}
+		return LWRGridManager::readFeatureTables(dataH5Group, arrayStrings, arrayPositionNames);
+	}
+
 	//Get the list of groups
 	std::vector<std::shared_ptr<H5::Group> > positions = ICE_IO::HdfReaderFactory::getChildH5Groups(dataH5Group);
 
@@ -910,6 +923,172 @@ bool LWRGridManager::readTimeStepsAtFeature(std::shared_ptr<LWRDataProvider> pro
 
 }
 
+/**
+ * Reads the locations and the data at every location from the tables written by the Java LWRGridManager in version 2 of the
+ * layout of the Positions group.  Returns true if the operation was successful, false otherwise.
+ *
+ * @param dataH5Group The main data group
+ * @param arrayStrings  An array of strings used to specify the unit list.
+ * @param arrayPositionNames An array of the names at the positions.
+ * @return True if the operation was successful, false otherwise.
+ */
+bool LWRGridManager::readFeatureTables(std::shared_ptr<H5::Group> dataH5Group, std::vector< std::string > arrayStrings, std::vector< std::string > arrayPositionNames) {
+
+	//Local Declarations
+	std::vector<std::shared_ptr<LWRDataProvider> > providers;
+	std::vector<double> times;
+	std::vector<std::string> features;
+	hid_t groupId = dataH5Group.get()->getId();
+
+	try {
+
+		// Read the locations and put them in the tree.  Each row contains the row, the column and the index of the name.
+		if (H5Lexists(groupId, "Position Table", H5P_DEFAULT) <= 0) {
+			std::cout << "LWRGridManager:  Can't find dataset for reading the positions.  Returning" << std::endl;
+			return false;
+		}
+		H5::DataSet positionSet = dataH5Group.get()->openDataSet("Position Table");
+		hsize_t positionDims[2] = {0, 0};
+		positionSet.getSpace().getSimpleExtentDims(positionDims, NULL);
+		std::vector<int> positionData(positionDims[0] * 3);
+		if (!positionData.empty()) {
+			positionSet.read(&positionData[0], H5::PredType::NATIVE_INT);
+		}
+		positionSet.close();
+		for (size_t i = 0; i + 2 < positionData.size(); i += 3) {
+			std::shared_ptr<GridLocation> location (new GridLocation(positionData[i], positionData[i + 1]));
+			this->lWRComponents.insert(std::pair<std::shared_ptr<GridLocation>, std::string>(location, arrayPositionNames.at(positionData[i + 2])));
+			providers.push_back(location.get()->getLWRDataProvider());
+		}
+
+		// Return if there is no data at the locations
+		if (H5Lexists(groupId, "Feature Names Table", H5P_DEFAULT) <= 0 || H5Lexists(groupId, "Times Table", H5P_DEFAULT) <= 0) {
+			return true;
+		}
+		// There must be units if there is data
+		if (arrayStrings.size() == 0) return false;
+
+		// Read the features and the times
+		if (!LWRGridManager::readStringTable(dataH5Group, "Feature Names Table", features)) return false;
+		H5::DataSet timesSet = dataH5Group.get()->openDataSet("Times Table");
+		hsize_t timesDims[1] = {0};
+		timesSet.getSpace().getSimpleExtentDims(timesDims, NULL);
+		times.resize(timesDims[0]);
+		if (!times.empty()) {
+			timesSet.read(&times[0], H5::PredType::NATIVE_DOUBLE);
+		}
+		timesSet.close();
+
+		// Read each feature.  The index table holds the number of values at each time and location, the data table holds
+		// the value, uncertainty and position of each value in time and then location order and the head table holds the
+		// index of the units of each value.
+		size_t numLocations = providers.size();
+		for (size_t f = 0; f < features.size(); f++) {
+
+			std::string feature = features.at(f);
+			H5::DataSet countsSet = dataH5Group.get()->openDataSet(feature + this->indexTableString);
+			H5::DataSet dataSet = dataH5Group.get()->openDataSet(feature + this->dataTableString);
+			H5::DataSet headSet = dataH5Group.get()->openDataSet(feature + this->headTableString);
+
+			// Get the dimensions
+			hsize_t countsDims[2] = {0, 0}, dataDims[2] = {0, 0}, headDims[1] = {0};
+			countsSet.getSpace().getSimpleExtentDims(countsDims, NULL);
+			dataSet.getSpace().getSimpleExtentDims(dataDims, NULL);
+			headSet.getSpace().getSimpleExtentDims(headDims, NULL);
+
+			// Check the sizes of the tables
+			if (countsDims[0] != times.size() || countsDims[1] != numLocations || dataDims[0] != headDims[0]) {
+				std::cout << "LWRGridManager:  The datasets for feature " << feature << " have the wrong size.  Returning" << std::endl;
+				return false;
+			}
+
+			// Read the tables in bulk
+			std::vector<int> counts(countsDims[0] * countsDims[1]);
+			std::vector<double> dataArray(dataDims[0] * 5);
+			std::vector<int> headArray(headDims[0]);
+			if (!counts.empty()) countsSet.read(&counts[0], H5::PredType::NATIVE_INT);
+			if (!dataArray.empty()) dataSet.read(&dataArray[0], H5::PredType::NATIVE_DOUBLE);
+			if (!headArray.empty()) headSet.read(&headArray[0], H5::PredType::NATIVE_INT);
+			countsSet.close();
+			dataSet.close();
+			headSet.close();
+
+			// Add the values at each time and location
+			size_t offset = 0;
+			for (size_t t = 0; t < times.size(); t++) {
+				for (size_t l = 0; l < numLocations; l++) {
+					int count = counts.at(t * numLocations + l);
+					for (int j = 0; j < count; j++, offset++) {
+						if (offset >= headArray.size()) return false;
+
+						// Create the data and setup basic attributes
+						std::shared_ptr<LWRData> lwrdata (new LWRData(feature));
+						lwrdata.get()->setValue(dataArray[5 * offset]);
+						lwrdata.get()->setUncertainty(dataArray[5 * offset + 1]);
+						lwrdata.get()->setUnits(arrayStrings.at(headArray[offset]));
+
+						// Setup position
+						std::vector<double> positions;
+						positions.push_back(dataArray[5 * offset + 2]);
+						positions.push_back(dataArray[5 * offset + 3]);
+						positions.push_back(dataArray[5 * offset + 4]);
+						lwrdata.get()->setPosition(positions);
+
+						// Add the lwrdata to the location
+						providers.at(l).get()->addData(lwrdata, times.at(t));
+					}
+				}
+			}
+		}
+
+	} catch (...) {
+		std::cout << "LWRGridManager:  Unable to read the feature tables.  Returning" << std::endl;
+		return false;
+	}
+
+	return true;
+
+}
+
+/**
+ * Reads a table of fixed length strings from a group.  Returns true if the operation was successful, false otherwise.
+ *
+ * @param h5Group The group
+ * @param name The name of the table
+ * @param strings The vector to which the strings are added
+ * @return True if the operation was successful, false otherwise.
+ */
+bool LWRGridManager::readStringTable(std::shared_ptr<H5::Group> h5Group, const std::string name, std::vector< std::string > & strings) {
+
+	try {
+		std::shared_ptr<H5::DataSet> dset = ICE_IO::HdfReaderFactory::getDataset(h5Group, name);
+		if (dset.get() == NULL) return false;
+
+		//Get the info in order to read the data correctly
+		hid_t type = H5Dget_type(dset.get()->getId());
+		hid_t space = H5Dget_space(dset.get()->getId());
+		hsize_t ndims[1];
+		H5Sget_simple_extent_dims(space, ndims, NULL);
+		size_t rowSize = H5Tget_size(type);
+
+		//Read the data and convert each row to a string
+		std::vector<char> rData(ndims[0] * rowSize + 1, '\0');
+		H5Dread(dset.get()->getId(), type, H5S_ALL, H5S_ALL, H5P_DEFAULT, &rData[0]);
+		for (hsize_t i = 0; i < ndims[0]; i++) {
+			std::string str (&rData[i * rowSize], strnlen(&rData[i * rowSize], rowSize));
+			strings.push_back(str);
+		}
+
+		H5Tclose(type);
+		H5Sclose(space);
+	} catch (...) {
+		return false;
+	}
+
+	return true;
+
+}
+
 /**
  * This operation reads Attributes from h5Group and assigns their values to class variables. If h5Group is null, false is returned. If any Attribute values are null, false is returned. Otherwise, true is returned.
  *
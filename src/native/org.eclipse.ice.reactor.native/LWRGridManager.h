@@ -59,6 +59,7 @@ protected:
     std::string dataH5GroupName;
     std::string headTableString;
     std::string dataTableString;
+    std::string indexTableString;
 
 public:
 
@@ -219,6 +220,27 @@ private:
 	 */
 	bool readTimeStepsAtFeature(std::shared_ptr<LWRDataProvider> provider, std::vector<std::shared_ptr < H5::Group > > timeGroups, std::vector< std::string > arrayStrings);
 
+	/**
+	 * Reads the locations and the data at every location from the tables written by the Java LWRGridManager in version 2 of the
+	 * layout of the Positions group.  Returns true if the operation was successful, false otherwise.
+	 *
+	 * @param dataH5Group The main data group
+	 * @param arrayStrings  An array of strings used to specify the unit list.
+	 * @param arrayPositionNames An array of the names at the positions.
+	 * @return True if the operation was successful, false otherwise.
+	 */
+	bool readFeatureTables(std::shared_ptr<H5::Group> dataH5Group, std::vector< std::string > arrayStrings, std::vector< std::string > arrayPositionNames);
+
+	/**
+	 * Reads a table of fixed length strings from a group.  Returns true if the operation was successful, false otherwise.
+	 *
+	 * @param h5Group The group
+	 * @param name The name of the table
+	 * @param strings The vector to which the strings are added
+	 * @return True if the operation was successful, false otherwise.
+	 */
+	bool readStringTable(std::shared_ptr<H5::Group> h5Group, const std::string name, std::vector< std::string > & strings);
+
 };
 
 }
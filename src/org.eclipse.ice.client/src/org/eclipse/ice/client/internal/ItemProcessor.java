@@ -17,10 +17,12 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.ice.core.iCore.ICore;
+import org.eclipse.ice.core.iCore.IItemStatusListener;
 import org.eclipse.ice.datastructures.form.Form;
 import org.eclipse.ice.datastructures.form.FormStatus;
 import org.eclipse.ice.iclient.uiwidgets.IExtraInfoWidget;
@@ -45,6 +47,12 @@ import org.eclipse.ice.iclient.uiwidgets.IWidgetClosedListener;
  * the label of the widget.
  * </p>
  * <p>
+ * The ItemProcessor subscribes to the ICore for the status and the output of
+ * the Item while it is processed, so it waits for the ICore to push changes
+ * instead of asking for them. It only polls the ICore if the ICore does not
+ * support subscriptions.
+ * </p>
+ * <p>
  * All of the set operations, with the exception of setPollTime() and
  * setStreamingOutputWidget(), must be called before the processor can be
  * launched. There is a default polling time configured in the processor (100ms)
@@ -54,7 +62,8 @@ import org.eclipse.ice.iclient.uiwidgets.IWidgetClosedListener;
  * 
  * @author Jay Jay Billings
  */
-public class ItemProcessor implements IWidgetClosedListener, Runnable {
+public class ItemProcessor implements IWidgetClosedListener,
+		IItemStatusListener, Runnable {
 	/**
 	 * <p>
 	 * A reference to an IExtraInfoWidget that can be used to gather extra
@@ -96,7 +105,7 @@ public class ItemProcessor implements IWidgetClosedListener, Runnable {
 	 * <p>
 	 * The period for which the ItemProcessor should poll the Core for updates
 	 * in units of milliseconds. The default value is 100 milliseconds, 0.1
-	 * seconds.
+	 * seconds. It is only used if the Core does not support subscriptions.
 	 * </p>
 	 * 
 	 */
@@ -128,6 +137,36 @@ public class ItemProcessor implements IWidgetClosedListener, Runnable {
 	 */
 	private IStreamingTextWidget streamingTextWidget;
 
+	/**
+	 * <p>
+	 * The lines of output that the ICore pushed and that have not been posted
+	 * to the IStreamingTextWidget yet. This list is also the lock that guards
+	 * the pushed events and that the processing thread waits on.
+	 * </p>
+	 * 
+	 */
+	private final ArrayList<String> pushedOutput = new ArrayList<String>();
+
+	/**
+	 * <p>
+	 * The most recent status that the ICore pushed and that has not been
+	 * handled yet or null if there is none. It is guarded by pushedOutput.
+	 * </p>
+	 * 
+	 */
+	private FormStatus pushedStatus;
+
+	/**
+	 * <p>
+	 * The longest time in milliseconds that the processing thread waits for
+	 * the ICore to push something before it asks the ICore for the status. The
+	 * ICore only checks the status periodically, so it may miss short changes
+	 * of the status and never push them.
+	 * </p>
+	 * 
+	 */
+	private static final long eventTimeout = 1000;
+
 	/**
 	 * <p>
 	 * The constructor
@@ -424,13 +463,37 @@ public class ItemProcessor implements IWidgetClosedListener, Runnable {
 				"The Form requires additional information before "
 						+ "it can be processed.");
 		statusMessageMap.put(FormStatus.InReview, "In review...");
+		statusMessageMap.put(FormStatus.Unacceptable,
+				"The Item can no longer be processed.");
 
 		// Set the initial status
 		formWidget.updateStatus(statusMessageMap.get(FormStatus.Processing));
 
+		// Clear anything left over from a previous run
+		synchronized (pushedOutput) {
+			pushedOutput.clear();
+			pushedStatus = null;
+		}
+
 		// Try processing the Item - FIXME - client id is hardwired
 		status = iceCore.processItem(itemId, actionName, 1);
 
+		// Let the Core push the updates if it can instead of polling it
+		if ((status.equals(FormStatus.NeedsInfo) || status
+				.equals(FormStatus.Processing))
+				&& iceCore.subscribe(itemId, this)) {
+			try {
+				status = waitForEvents(status, statusMessageMap);
+			} finally {
+				iceCore.unsubscribe(itemId, this);
+			}
+			// Update the IFormWidget's status one final time
+			formWidget.updateStatus(statusMessageMap.get(status));
+			System.out.println("IClient ItemProcessor Message: Status = "
+					+ status);
+			return;
+		}
+
 		// Grab the output file handle
 		outputFile = iceCore.getItemOutputFile(itemId);
 		// Open the file if it is available
@@ -556,6 +619,113 @@ public class ItemProcessor implements IWidgetClosedListener, Runnable {
 
 	}
 
+	/**
+	 * <p>
+	 * This operation is the event loop that is used when the ICore pushes the
+	 * updates of the Item. It does the same work as the polling loop in run(),
+	 * but it sleeps until the ICore pushes a new status or new output or the
+	 * IExtraInfoWidget is closed instead of reading the output file on every
+	 * pass. It still asks the ICore for the status whenever it wakes up, and
+	 * at least once every eventTimeout milliseconds, because a pushed status
+	 * may already be out of date.
+	 * </p>
+	 * 
+	 * @param status
+	 *            The status returned when the Item was processed
+	 * @param statusMessageMap
+	 *            The messages that are posted to the IFormWidget for each
+	 *            status
+	 * @return The final status of the Item
+	 */
+	private FormStatus waitForEvents(FormStatus status,
+			HashMap<FormStatus, String> statusMessageMap) {
+
+		// Local Declarations
+		Form form = null;
+		boolean posted = false;
+		boolean streaming = false;
+		long deadline = 0;
+		ArrayList<String> lines = new ArrayList<String>();
+
+		while (status.equals(FormStatus.NeedsInfo)
+				|| status.equals(FormStatus.Processing)) {
+
+			// Throw up the extra info widget if more information is needed
+			if (status.equals(FormStatus.NeedsInfo)) {
+				if (!posted) {
+					// Set the Form for the InfoWidget, register as a listener
+					// and display it
+					form = iceCore.getItem(itemId);
+					infoWidget.setForm(form);
+					infoWidget.setCloseListener(this);
+					infoWidget.display();
+					posted = true;
+				} else if (widgetClosedOK.get()) {
+					// Return the extra information - FIXME - hardwired client
+					// id!
+					iceCore.updateItem(form, 1);
+					// Reset the flags so that the widget can be shown again
+					posted = false;
+					widgetClosedOK.set(false);
+					// Update the status so that the widget is not displayed
+					// again before the Core has handled the update
+					status = iceCore.getItemStatus(itemId);
+					formWidget.updateStatus(statusMessageMap.get(status));
+				} else if (widgetCancelled.get()) {
+					// If the widget was cancelled, try to kill the task
+					iceCore.cancelItemProcess(itemId, actionName);
+					return iceCore.getItemStatus(itemId);
+				}
+			}
+
+			// Wait for the Core to push something or for the widget to close
+			// or until it is time to check the status again
+			deadline = System.currentTimeMillis() + eventTimeout;
+			synchronized (pushedOutput) {
+				while (pushedStatus == null
+						&& pushedOutput.isEmpty()
+						&& !(posted && (widgetClosedOK.get() || widgetCancelled
+								.get()))
+						&& System.currentTimeMillis() < deadline) {
+					try {
+						pushedOutput.wait(Math.max(1L,
+								deadline - System.currentTimeMillis()));
+					} catch (InterruptedException e) {
+						// Give up on the Item if the thread is stopped
+						e.printStackTrace();
+						Thread.currentThread().interrupt();
+						return status;
+					}
+				}
+				pushedStatus = null;
+				lines.addAll(pushedOutput);
+				pushedOutput.clear();
+			}
+
+			// Post the new output, opening the widget on the first line
+			if (streamingTextWidget != null && !lines.isEmpty()) {
+				if (!streaming) {
+					streamingTextWidget.setLabel(formWidget.getForm().getName()
+							+ " " + formWidget.getForm().getId()
+							+ " Live Output");
+					streamingTextWidget.display();
+					streaming = true;
+				}
+				for (String line : lines) {
+					streamingTextWidget.postText(line);
+				}
+			}
+			lines.clear();
+
+			// Update the status. The pushed status only wakes the thread up
+			// since the Core may have moved on since it was pushed.
+			status = iceCore.getItemStatus(itemId);
+			formWidget.updateStatus(statusMessageMap.get(status));
+		}
+
+		return status;
+	}
+
 	/**
 	 * (non-Javadoc)
 	 * 
@@ -564,8 +734,11 @@ public class ItemProcessor implements IWidgetClosedListener, Runnable {
 	@Override
 	public void closedOK() {
 
-		// Set the flag
-		widgetClosedOK.set(true);
+		// Set the flag and wake the processing thread
+		synchronized (pushedOutput) {
+			widgetClosedOK.set(true);
+			pushedOutput.notifyAll();
+		}
 
 		return;
 	}
@@ -578,8 +751,45 @@ public class ItemProcessor implements IWidgetClosedListener, Runnable {
 	@Override
 	public void cancelled() {
 
-		// Set the flag
-		widgetCancelled.set(true);
+		// Set the flag and wake the processing thread
+		synchronized (pushedOutput) {
+			widgetCancelled.set(true);
+			pushedOutput.notifyAll();
+		}
+
+		return;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see IItemStatusListener#statusChanged(int, FormStatus)
+	 */
+	@Override
+	public void statusChanged(int itemId, FormStatus status) {
+
+		// Keep the status and wake the processing thread
+		synchronized (pushedOutput) {
+			pushedStatus = status;
+			pushedOutput.notifyAll();
+		}
+
+		return;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see IItemStatusListener#outputPosted(int, String)
+	 */
+	@Override
+	public void outputPosted(int itemId, String line) {
+
+		// Keep the line and wake the processing thread
+		synchronized (pushedOutput) {
+			pushedOutput.add(line);
+			pushedOutput.notifyAll();
+		}
 
 		return;
 	}
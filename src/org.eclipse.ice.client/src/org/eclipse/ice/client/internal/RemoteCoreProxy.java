@@ -15,18 +15,28 @@ package org.eclipse.ice.client.internal;
 import java.io.File;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import javax.ws.rs.core.MediaType;
 
 import org.eclipse.ice.core.iCore.ICore;
+import org.eclipse.ice.core.iCore.IItemStatusListener;
 import org.eclipse.ice.datastructures.ICEObject.ICEList;
 import org.eclipse.ice.datastructures.ICEObject.Identifiable;
 import org.eclipse.ice.datastructures.form.Form;
+import org.eclipse.ice.datastructures.form.FormPatch;
 import org.eclipse.ice.datastructures.form.FormStatus;
 import org.eclipse.ice.item.ICompositeItemBuilder;
 import org.eclipse.ice.item.ItemBuilder;
 
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientResponse;
 import com.sun.jersey.api.client.WebResource;
 import com.sun.jersey.api.client.filter.HTTPBasicAuthFilter;
 
@@ -103,6 +113,25 @@ public class RemoteCoreProxy implements ICore {
 
 	/** ----- **/
 
+	/**
+	 * The time in milliseconds that the server may hold a request for the
+	 * events of an Item open before it answers that there are none.
+	 */
+	private static final int eventTimeout = 30000;
+
+	/**
+	 * The time in milliseconds to wait before asking for the events of an
+	 * Item again after a request failed.
+	 */
+	private static final int eventRetryTime = 5000;
+
+	/**
+	 * The subscriptions to the events of Items on the server, keyed by the ids
+	 * of the Items. There is one open request per Item no matter how many
+	 * listeners it has.
+	 */
+	private final HashMap<Integer, RemoteSubscription> subscriptions = new HashMap<Integer, RemoteSubscription>();
+
 	/**
 	 * <p>
 	 * The Constructor.
@@ -404,6 +433,54 @@ public class RemoteCoreProxy implements ICore {
 		return null;
 	}
 
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see ICore#patchItem(FormPatch patch)
+	 */
+	@Override
+	public FormPatch patchItem(FormPatch patch) {
+
+		// Local Declarations
+		FormPatch changes = null;
+		WebResource resource = null;
+
+		// Only post the patch if the hostname is valid
+		if (host != null && patch != null) {
+			resource = baseResource.path("/items/changes");
+			// Post the patch and get the changes back
+			changes = resource.type(MediaType.APPLICATION_XML)
+					.accept(MediaType.APPLICATION_XML)
+					.header("X-FOO", "BAR").post(FormPatch.class, patch);
+		}
+
+		return changes;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see ICore#getItemChanges(int itemId, long revision)
+	 */
+	@Override
+	public FormPatch getItemChanges(int itemId, long revision) {
+
+		// Local Declarations
+		FormPatch changes = null;
+		WebResource resource = null;
+
+		// Only load the resource if the hostname is valid
+		if (host != null) {
+			resource = baseResource.path("/items/" + itemId + "/changes");
+			// Get the changes since the revision
+			changes = resource.queryParam("since", String.valueOf(revision))
+					.accept(MediaType.APPLICATION_XML)
+					.header("X-FOO", "BAR").get(FormPatch.class);
+		}
+
+		return changes;
+	}
+
 	/**
 	 * (non-Javadoc)
 	 * 
@@ -471,4 +548,246 @@ public class RemoteCoreProxy implements ICore {
 		// TODO Auto-generated method stub
 		return null;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see ICore#getItemUpdates(int itemId, String type, int count)
+	 */
+	@Override
+	public String getItemUpdates(int itemId, String type, int count) {
+
+		// Local Declarations
+		String updates = null;
+		WebResource resource = null;
+
+		// Only load the resource if the hostname is valid
+		if (baseResource != null) {
+			resource = baseResource.path("/items/" + itemId + "/updates")
+					.queryParam("count", String.valueOf(count));
+			// Leave the type out to get the updates of every type
+			if (type != null && !type.isEmpty()) {
+				resource = resource.queryParam("type", type);
+			}
+			ClientResponse response = resource
+					.accept(MediaType.APPLICATION_JSON)
+					.header("X-FOO", "BAR").get(ClientResponse.class);
+			// The server answers with no content if the Item does not exist
+			if (response.getStatus() == ClientResponse.Status.OK
+					.getStatusCode()) {
+				updates = response.getEntity(String.class);
+			}
+		}
+
+		return updates;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see ICore#subscribe(int itemId, IItemStatusListener listener)
+	 */
+	@Override
+	public boolean subscribe(int itemId, IItemStatusListener listener) {
+
+		// Local Declarations
+		RemoteSubscription subscription = null;
+
+		// Only subscribe if the proxy is connected
+		if (baseResource == null || listener == null) {
+			return false;
+		}
+
+		synchronized (subscriptions) {
+			subscription = subscriptions.get(itemId);
+			// Start waiting for the events of the Item if nobody else is
+			if (subscription == null) {
+				subscription = new RemoteSubscription(itemId);
+				subscriptions.put(itemId, subscription);
+				Thread thread = new Thread(subscription,
+						"ICE Remote Item Subscription " + itemId);
+				thread.setDaemon(true);
+				thread.start();
+			}
+			subscription.addListener(listener);
+		}
+
+		return true;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see ICore#unsubscribe(int itemId, IItemStatusListener listener)
+	 */
+	@Override
+	public void unsubscribe(int itemId, IItemStatusListener listener) {
+
+		synchronized (subscriptions) {
+			RemoteSubscription subscription = subscriptions.get(itemId);
+			if (subscription != null) {
+				subscription.listeners.remove(listener);
+				// The thread stops when its current request returns
+				if (subscription.listeners.isEmpty()) {
+					subscriptions.remove(itemId);
+				}
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see ICore#getItemEvents(int itemId, long since, int timeout)
+	 */
+	@Override
+	public String getItemEvents(int itemId, long since, int timeout) {
+
+		// Local Declarations
+		String events = null;
+
+		// Only load the resource if the hostname is valid
+		if (baseResource != null) {
+			ClientResponse response = baseResource
+					.path("/items/" + itemId + "/events")
+					.queryParam("since", String.valueOf(since))
+					.queryParam("timeout", String.valueOf(timeout))
+					.accept(MediaType.APPLICATION_JSON)
+					.get(ClientResponse.class);
+			// The server answers with no content if the Item does not exist
+			if (response.getStatus() == ClientResponse.Status.OK
+					.getStatusCode()) {
+				events = response.getEntity(String.class);
+			}
+		}
+
+		return events;
+	}
+
+	/**
+	 * This class waits for the events of one Item on the server with
+	 * getItemEvents() and passes them to the listeners that subscribed to the
+	 * Item. It stops when the Item has no more listeners or no longer exists.
+	 * 
+	 * @author Jay Jay Billings
+	 */
+	private class RemoteSubscription implements Runnable {
+
+		/**
+		 * The id of the Item
+		 */
+		private final int itemId;
+
+		/**
+		 * The listeners of the Item
+		 */
+		private final CopyOnWriteArrayList<IItemStatusListener> listeners;
+
+		/**
+		 * The last status of the Item or null if it is not known yet. It is
+		 * guarded by the subscriptions map.
+		 */
+		private FormStatus status;
+
+		/**
+		 * The constructor
+		 * 
+		 * @param itemId
+		 *            The id of the Item
+		 */
+		public RemoteSubscription(int itemId) {
+			this.itemId = itemId;
+			listeners = new CopyOnWriteArrayList<IItemStatusListener>();
+			status = null;
+		}
+
+		/**
+		 * This operation adds a listener and passes it the last status of the
+		 * Item if it is known. The caller must hold the lock of the
+		 * subscriptions map.
+		 * 
+		 * @param listener
+		 *            The listener
+		 */
+		public void addListener(IItemStatusListener listener) {
+			listeners.add(listener);
+			if (status != null) {
+				listener.statusChanged(itemId, status);
+			}
+		}
+
+		/**
+		 * (non-Javadoc)
+		 * 
+		 * @see Runnable#run()
+		 */
+		@Override
+		public void run() {
+
+			// Local Declarations
+			long since = 0;
+			JsonParser parser = new JsonParser();
+
+			while (!listeners.isEmpty()) {
+				try {
+					// Wait for the next events
+					String response = getItemEvents(itemId, since,
+							eventTimeout);
+					if (response == null) {
+						System.err.println("RemoteCoreProxy Message: Item "
+								+ itemId + " is no longer available.");
+						for (IItemStatusListener listener : listeners) {
+							listener.statusChanged(itemId,
+									FormStatus.Unacceptable);
+						}
+						break;
+					}
+					JsonObject events = parser.parse(response)
+							.getAsJsonObject();
+					since = events.get("next").getAsLong();
+					// Pass them on
+					for (JsonElement element : events.getAsJsonArray("events")) {
+						JsonObject event = element.getAsJsonObject();
+						if (event.has("output")) {
+							String line = event.get("output").getAsString();
+							for (IItemStatusListener listener : listeners) {
+								listener.outputPosted(itemId, line);
+							}
+						} else if (event.has("status")) {
+							FormStatus newStatus = FormStatus.valueOf(event
+									.get("status").getAsString());
+							synchronized (subscriptions) {
+								status = newStatus;
+							}
+							for (IItemStatusListener listener : listeners) {
+								listener.statusChanged(itemId, newStatus);
+							}
+						}
+					}
+				} catch (ClientHandlerException | JsonParseException
+						| IllegalStateException | IllegalArgumentException e) {
+					// Complain and try again later
+					System.err.println("RemoteCoreProxy Message: Unable to "
+							+ "get the events of Item " + itemId + ".");
+					e.printStackTrace();
+					try {
+						Thread.sleep(eventRetryTime);
+					} catch (InterruptedException interrupted) {
+						break;
+					}
+				}
+			}
+
+			// Make sure that a dead subscription is not reused
+			synchronized (subscriptions) {
+				if (subscriptions.get(itemId) == this) {
+					subscriptions.remove(itemId);
+				}
+			}
+
+			return;
+		}
+	}
+}
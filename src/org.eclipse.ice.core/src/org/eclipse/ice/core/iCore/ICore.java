@@ -22,10 +22,12 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 
 import org.eclipse.ice.datastructures.ICEObject.ICEList;
 import org.eclipse.ice.datastructures.ICEObject.Identifiable;
 import org.eclipse.ice.datastructures.form.Form;
+import org.eclipse.ice.datastructures.form.FormPatch;
 import org.eclipse.ice.datastructures.form.FormStatus;
 import org.eclipse.ice.item.ICompositeItemBuilder;
 import org.eclipse.ice.item.ItemBuilder;
@@ -202,6 +204,50 @@ public interface ICore {
 	 */
 	public FormStatus updateItem(Form form, int uniqueClientId);
 
+	/**
+	 * This operation posts the changes to some of the Entries on the Form of
+	 * an Item to the Core instead of the whole Form. The Core applies them to
+	 * the Form in place and reviews it just like a Form sent with
+	 * updateItem(). Patches can only be applied to the Item's own Form, so
+	 * updateItem() must still be used for the Forms of Items that need more
+	 * information.
+	 * 
+	 * @param patch
+	 *            The changes, keyed by the ids of the DataComponents and the
+	 *            names of the Entries, and the revision of the Form on which
+	 *            they are based.
+	 * @return The Entries that changed after the base revision of the patch,
+	 *         including those in the patch, and the status of the Item, or
+	 *         null if the Item does not exist. The status is
+	 *         FormStatus.Unacceptable and nothing is changed if another client
+	 *         changed one of the Entries after the base revision.
+	 */
+	@POST
+	@Path("items/changes")
+	@Consumes("application/xml")
+	@Produces("application/xml")
+	public FormPatch patchItem(FormPatch patch);
+
+	/**
+	 * This operation returns the Entries on the Form of an Item that changed
+	 * after a revision of the Form so that clients can bring their copy of the
+	 * Form up to date without retrieving all of it with getItem().
+	 * 
+	 * @param itemId
+	 *            The id of the Item
+	 * @param revision
+	 *            The revision of the Form after which the changes should be
+	 *            returned. It is the revision of the patch returned by the
+	 *            last call to this operation or to patchItem().
+	 * @return The changes and the status of the Item, or null if the Item does
+	 *         not exist.
+	 */
+	@GET
+	@Path("items/{id}/changes")
+	@Produces("application/xml")
+	public FormPatch getItemChanges(@PathParam("id") int itemId,
+			@QueryParam("since") long revision);
+
 	/**
 	 * This operation directs the Core to process the Item with the specified id
 	 * by performing the specific action. The action name must be one of the set
@@ -309,11 +355,93 @@ public interface ICore {
 	 *            This string must be in JSON and conform to the message format
 	 *            of the ICE Updater.
 	 * @return "OK" if the post was successful, null if not to conform to JAX-RS
-	 *         HTTP 200/204 return code conversion.
+	 *         HTTP 200/204 return code conversion. Null is also returned if
+	 *         the Item is receiving messages faster than it can handle them,
+	 *         in which case none of the messages in the body were posted and
+	 *         the client should wait and post the whole body again.
 	 */
 	@POST
 	@Path("update")
 	@Consumes("application/x-www-form-urlencoded")
 	@Produces("text/plain")
 	public String postUpdateMessage(String message);
-}
\ No newline at end of file
+
+	/**
+	 * This operation returns the most recent updates that were posted to an
+	 * Item with postUpdateMessage(), such as the progress or convergence of a
+	 * running job, so that clients do not have to poll its output files.
+	 * 
+	 * @param itemId
+	 *            The id of the Item
+	 * @param type
+	 *            The type of the updates, such as PROGRESS_UPDATED, or null for
+	 *            updates of every type
+	 * @param count
+	 *            The maximum number of updates of the type, or zero for all of
+	 *            the updates that the Item keeps
+	 * @return The updates in the same JSON format in which they are posted,
+	 *         ordered from oldest to newest, or null if the Item does not
+	 *         exist.
+	 */
+	@GET
+	@Path("items/{id}/updates")
+	@Produces("application/json")
+	public String getItemUpdates(@PathParam("id") int itemId,
+			@QueryParam("type") String type, @QueryParam("count") int count);
+
+	/**
+	 * This operation subscribes a listener to the changes in the status of an
+	 * Item and to the new lines in its output file. The listener is notified
+	 * of the current status of the Item immediately and then of every change
+	 * until it is unsubscribed, so clients do not need to poll
+	 * getItemStatus() or read the output file themselves.
+	 *
+	 * @param itemId
+	 *            The id of the Item
+	 * @param listener
+	 *            The listener
+	 * @return True if the listener was subscribed, false if the Item does not
+	 *         exist or if this ICore does not support subscriptions, in which
+	 *         case clients should fall back to polling.
+	 */
+	public boolean subscribe(int itemId, IItemStatusListener listener);
+
+	/**
+	 * This operation unsubscribes a listener from an Item.
+	 *
+	 * @param itemId
+	 *            The id of the Item
+	 * @param listener
+	 *            The listener that was passed to subscribe()
+	 */
+	public void unsubscribe(int itemId, IItemStatusListener listener);
+
+	/**
+	 * This operation is the remote form of subscribe(). It returns the changes
+	 * in the status of an Item and the new lines in its output file that
+	 * happened since a given event, waiting for up to the timeout if there are
+	 * none yet. Clients should call it again immediately with the "next"
+	 * sequence number from the response, which keeps one request open per
+	 * Item instead of polling.
+	 *
+	 * @param itemId
+	 *            The id of the Item
+	 * @param since
+	 *            The sequence number of the first event that should be
+	 *            returned. It is zero on the first request and the "next"
+	 *            value of the previous response afterwards.
+	 * @param timeout
+	 *            The maximum time to wait for an event in milliseconds. The
+	 *            operation returns immediately if it is zero or less.
+	 * @return The events in JSON, of the form {"item_id":1,"status":
+	 *         "Processing","next":3,"events":[{"sequence":1,"status":
+	 *         "Processing"},{"sequence":2,"output":"A line"}]}, or null if the
+	 *         Item does not exist. The events array is empty if the timeout
+	 *         expired first.
+	 */
+	@GET
+	@Path("items/{id}/events")
+	@Produces("application/json")
+	public String getItemEvents(@PathParam("id") int itemId,
+			@QueryParam("since") long since, @QueryParam("timeout") int timeout);
+}
@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.core.iCore;
+
+import org.eclipse.ice.datastructures.form.FormStatus;
+
+/**
+ * <p>
+ * This interface is realized by clients that subscribe to an ICore for the
+ * changes in the status of an Item and the new lines in its output file
+ * instead of polling the ICore for them. Subscriptions are made with
+ * ICore.subscribe().
+ * </p>
+ * <p>
+ * The operations on this interface are called from a thread that belongs to
+ * the ICore, so realizations should return quickly and must not block.
+ * </p>
+ *
+ * @author Jay Jay Billings
+ */
+public interface IItemStatusListener {
+
+	/**
+	 * <p>
+	 * This operation is called when the status of the Item changes. It is also
+	 * called once with the current status of the Item when the listener
+	 * subscribes and with FormStatus.Unacceptable if the Item is deleted or
+	 * can no longer be reached.
+	 * </p>
+	 *
+	 * @param itemId
+	 *            The id of the Item
+	 * @param status
+	 *            The new status of the Item
+	 */
+	public void statusChanged(int itemId, FormStatus status);
+
+	/**
+	 * <p>
+	 * This operation is called for each new line that is written to the output
+	 * file of the Item.
+	 * </p>
+	 *
+	 * @param itemId
+	 *            The id of the Item
+	 * @param line
+	 *            The line of output, without the line terminator
+	 */
+	public void outputPosted(int itemId, String line);
+
+}
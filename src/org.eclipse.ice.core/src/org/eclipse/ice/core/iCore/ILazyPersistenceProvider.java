@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.core.iCore;
+
+import java.util.ArrayList;
+
+/**
+ * <p>
+ * An IPersistenceProvider that can list the Items it has persisted without
+ * loading them. The Core uses loadItemHeaders() instead of loadItems() at
+ * start up when the provider implements this interface and only calls
+ * loadItem() for an Item when that Item is first used.
+ * </p>
+ * 
+ * @author Jay Jay Billings
+ */
+public interface ILazyPersistenceProvider extends IPersistenceProvider {
+
+	/**
+	 * <p>
+	 * Returns lightweight headers for all of the Items in the persistence
+	 * piece. Implementations should read as little of each Item as possible.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The list of headers.
+	 *         </p>
+	 */
+	public ArrayList<ItemHeader> loadItemHeaders();
+
+}
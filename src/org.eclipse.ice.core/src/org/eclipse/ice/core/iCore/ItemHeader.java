@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.core.iCore;
+
+import org.eclipse.ice.datastructures.ICEObject.ICEObject;
+import org.eclipse.ice.datastructures.form.FormStatus;
+
+/**
+ * <p>
+ * An ItemHeader is a lightweight description of a persisted Item. It carries
+ * the id, name and description of the Item along with the name of the builder
+ * that created it and its last known status, but not its Form. Persistence
+ * providers that implement {@link ILazyPersistenceProvider} return headers so
+ * that the Core can list the Items in the workspace without loading them.
+ * </p>
+ * 
+ * @author Jay Jay Billings
+ */
+public class ItemHeader extends ICEObject {
+
+	/**
+	 * The name of the ItemBuilder that created the Item.
+	 */
+	private String itemBuilderName;
+
+	/**
+	 * The status of the Item when it was persisted.
+	 */
+	private FormStatus status;
+
+	/**
+	 * The constructor.
+	 */
+	public ItemHeader() {
+		super();
+		itemBuilderName = null;
+		status = FormStatus.InfoError;
+	}
+
+	/**
+	 * This operation returns the name of the ItemBuilder that created the Item.
+	 * 
+	 * @return The builder name or null if it is not known.
+	 */
+	public String getItemBuilderName() {
+		return itemBuilderName;
+	}
+
+	/**
+	 * This operation sets the name of the ItemBuilder that created the Item.
+	 * 
+	 * @param builderName
+	 *            The builder name.
+	 */
+	public void setItemBuilderName(String builderName) {
+		itemBuilderName = builderName;
+	}
+
+	/**
+	 * This operation returns the status of the Item when it was persisted.
+	 * 
+	 * @return The status.
+	 */
+	public FormStatus getStatus() {
+		return status;
+	}
+
+	/**
+	 * This operation sets the status of the Item. Null values are ignored.
+	 * 
+	 * @param status
+	 *            The status.
+	 */
+	public void setStatus(FormStatus status) {
+		if (status != null) {
+			this.status = status;
+		}
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.ice.datastructures.ICEObject.ICEObject#clone()
+	 */
+	@Override
+	public Object clone() {
+
+		// Create a new header and copy the contents into it
+		ItemHeader header = new ItemHeader();
+		header.copy(this);
+		header.itemBuilderName = itemBuilderName;
+		header.status = status;
+
+		return header;
+	}
+}
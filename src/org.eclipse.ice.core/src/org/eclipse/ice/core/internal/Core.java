@@ -23,7 +23,6 @@ import java.util.Dictionary;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.servlet.ServletException;
 import javax.ws.rs.ApplicationPath;
@@ -41,11 +40,14 @@ import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.ice.core.iCore.ICore;
+import org.eclipse.ice.core.iCore.IItemStatusListener;
 import org.eclipse.ice.core.iCore.IPersistenceProvider;
 import org.eclipse.ice.core.internal.itemmanager.ItemManager;
+import org.eclipse.ice.core.internal.itemmanager.ItemStatusMonitor;
 import org.eclipse.ice.datastructures.ICEObject.ICEList;
 import org.eclipse.ice.datastructures.ICEObject.Identifiable;
 import org.eclipse.ice.datastructures.form.Form;
+import org.eclipse.ice.datastructures.form.FormPatch;
 import org.eclipse.ice.datastructures.form.FormStatus;
 import org.eclipse.ice.item.ICompositeItemBuilder;
 import org.eclipse.ice.item.ItemBuilder;
@@ -84,6 +86,12 @@ public class Core extends Application implements ICore {
 	 */
 	private ItemManager itemManager;
 
+	/**
+	 * The monitor that pushes the status and output of Items to the clients
+	 * that subscribe to them.
+	 */
+	private ItemStatusMonitor statusMonitor;
+
 	/**
 	 * The component context for the ICE Core OSGi component.
 	 * 
@@ -115,10 +123,17 @@ public class Core extends Application implements ICore {
 	private boolean debuggingEnabled = false;
 
 	/**
-	 * An AtomicBoolean to lock and unlock the update operation with hardware.
-	 * True if locked, false if not.
+	 * The JSON parser for update messages. It does not have any state, so it
+	 * is shared by all of the threads that post updates.
 	 */
-	private AtomicBoolean updateLock;
+	private static final JsonParser parser = new JsonParser();
+
+	/**
+	 * The Gson utility that converts JSON to and from Messages. It is thread
+	 * safe and caches its type adapters, so it is shared by all of the threads
+	 * that post or request updates.
+	 */
+	private static final Gson gson = new GsonBuilder().create();
 
 	/**
 	 * An alternative constructor that allows the Core to be constructed with a
@@ -131,6 +146,7 @@ public class Core extends Application implements ICore {
 
 		// Setup the ItemManager and the project table
 		itemManager = manager;
+		statusMonitor = new ItemStatusMonitor(itemManager);
 		projectTable = new Hashtable<String, IProject>();
 
 		// Set the project location
@@ -143,9 +159,6 @@ public class Core extends Application implements ICore {
 			debuggingEnabled = true;
 		}
 
-		// Set the update lock
-		updateLock = new AtomicBoolean(false);
-
 		return;
 	}
 
@@ -183,6 +196,8 @@ public class Core extends Application implements ICore {
 	 * 
 	 */
 	public void stop() {
+		// Stop pushing updates to the clients
+		statusMonitor.stop();
 		// Update everything in the ItemManager that requires it
 		itemManager.persistItems();
 	}
@@ -195,6 +210,7 @@ public class Core extends Application implements ICore {
 
 		// Setup the ItemManager and the project table
 		itemManager = new ItemManager();
+		statusMonitor = new ItemStatusMonitor(itemManager);
 		projectTable = new Hashtable<String, IProject>();
 
 		// Set the project location
@@ -207,9 +223,6 @@ public class Core extends Application implements ICore {
 			debuggingEnabled = true;
 		}
 
-		// Set the update lock
-		updateLock = new AtomicBoolean(false);
-
 		return;
 	}
 
@@ -366,6 +379,26 @@ public class Core extends Application implements ICore {
 		return status;
 	}
 
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see ICore#patchItem(FormPatch patch)
+	 */
+	@Override
+	public FormPatch patchItem(FormPatch patch) {
+		return itemManager.patchItem(patch);
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see ICore#getItemChanges(int itemId, long revision)
+	 */
+	@Override
+	public FormPatch getItemChanges(int itemId, long revision) {
+		return itemManager.getItemChanges(itemId, revision);
+	}
+
 	/**
 	 * (non-Javadoc)
 	 * 
@@ -774,7 +807,8 @@ public class Core extends Application implements ICore {
 	 * This private operation creates an instance of the Message class from a
 	 * string using a JSON parser.
 	 * 
-	 * This operation is synchronized so that the core can't be overloaded.
+	 * The parser and Gson utility are shared, so this operation can be called
+	 * by many threads at once.
 	 * 
 	 * @param messageString
 	 *            The original message, as a string
@@ -785,11 +819,6 @@ public class Core extends Application implements ICore {
 		// Create the ArrayList of messages
 		ArrayList<Message> messages = new ArrayList<Message>();
 
-		// Create the parser and gson utility
-		JsonParser parser = new JsonParser();
-		GsonBuilder builder = new GsonBuilder();
-		Gson gson = builder.create();
-
 		// Catch any exceptions and return the empty list
 		try {
 
@@ -835,39 +864,110 @@ public class Core extends Application implements ICore {
 	@Override
 	public String postUpdateMessage(String message) {
 
-		// Lock the operation
-		updateLock.set(true);
-
 		// Local Declarations
 		String retVal = null;
 
 		// Print the message if debugging is enabled
-		// if (debuggingEnabled) {
-		System.out.println("Core Message: " + "Update received with message: "
-				+ message);
-		// }
+		if (debuggingEnabled) {
+			System.out.println("Core Message: "
+					+ "Update received with message: " + message);
+		}
 
 		// Only process the message if it exists and is not empty
 		if (message != null && !message.isEmpty() && message.contains("=")) {
-			// Split the message on "=" since it is
+			// Split the message on the first "=" since it is
 			// application/x-www-form-encoded
-			String[] messageParts = message.split("=");
-			if (messageParts.length > 1) {
+			String content = message.substring(message.indexOf('=') + 1);
+			if (!content.isEmpty()) {
 				// Get the message object.
-				ArrayList<Message> msgList = buildMessagesFromString(messageParts[1]);
+				ArrayList<Message> msgList = buildMessagesFromString(content);
 				// Post the messages if there are any. Fail otherwise.
 				if (!msgList.isEmpty()) {
-					for (int i = 0; i < msgList.size(); i++) {
-						Message msg = msgList.get(i);
-						itemManager.postUpdateMessage(msg);
+					// Set the return value. If the Item's queue does not have
+					// room for all of the messages, none of them are posted so
+					// that the client can back off and post the whole body
+					// again without duplicating any of them.
+					if (itemManager.postUpdateMessages(msgList)) {
+						retVal = "OK";
 					}
-					// Set the return value
-					retVal = "OK";
 				}
 			}
 		}
 
-		// Unlock the operation and return safely
-		return (updateLock.getAndSet(false)) ? retVal : null;
+		return retVal;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see ICore#getItemUpdates(int itemId, String type, int count)
+	 */
+	@Override
+	public String getItemUpdates(int itemId, String type, int count) {
+
+		// Local Declarations
+		String retVal = null;
+
+		// Get the messages and convert them to the same JSON format in which
+		// they are posted
+		ArrayList<Message> messages = itemManager.getItemUpdates(itemId,
+				(type == null || type.isEmpty()) ? null : type, count);
+		if (messages != null) {
+			JsonObject updates = new JsonObject();
+			updates.addProperty("item_id", itemId);
+			updates.add("posts", gson.toJsonTree(messages));
+			retVal = gson.toJson(updates);
+		}
+
+		return retVal;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see ICore#subscribe(int itemId, IItemStatusListener listener)
+	 */
+	@Override
+	public boolean subscribe(int itemId, IItemStatusListener listener) {
+		return statusMonitor.addListener(itemId, listener);
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see ICore#unsubscribe(int itemId, IItemStatusListener listener)
+	 */
+	@Override
+	public void unsubscribe(int itemId, IItemStatusListener listener) {
+		statusMonitor.removeListener(itemId, listener);
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see ICore#getItemEvents(int itemId, long since, int timeout)
+	 */
+	@Override
+	public String getItemEvents(int itemId, long since, int timeout) {
+
+		// Local Declarations
+		String retVal = null;
+		ArrayList<ItemStatusMonitor.Event> events = new ArrayList<ItemStatusMonitor.Event>();
+
+		// Wait for the events and convert them to JSON
+		long next = statusMonitor.getEvents(itemId, since, timeout, events);
+		if (next > 0) {
+			JsonObject response = new JsonObject();
+			response.addProperty("item_id", itemId);
+			FormStatus status = itemManager.getItemStatus(itemId);
+			if (status != null) {
+				response.addProperty("status", status.name());
+			}
+			response.addProperty("next", next);
+			response.add("events", gson.toJsonTree(events));
+			retVal = gson.toJson(response);
+		}
+
+		return retVal;
 	}
 }
@@ -15,12 +15,17 @@ package org.eclipse.ice.core.internal.itemmanager;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.resources.IProject;
+import org.eclipse.ice.core.iCore.ILazyPersistenceProvider;
 import org.eclipse.ice.core.iCore.IPersistenceProvider;
+import org.eclipse.ice.core.iCore.ItemHeader;
 import org.eclipse.ice.datastructures.ICEObject.Identifiable;
 import org.eclipse.ice.datastructures.form.Form;
+import org.eclipse.ice.datastructures.form.FormPatch;
 import org.eclipse.ice.datastructures.form.FormStatus;
 import org.eclipse.ice.item.ICompositeItemBuilder;
 import org.eclipse.ice.item.Item;
@@ -46,6 +51,11 @@ import org.eclipse.ice.item.messaging.Message;
  * persists all currently active Items by calling persistItems().
  * </p>
  * <p>
+ * If the provider is an ILazyPersistenceProvider, loadItems() only reads the
+ * headers of the persisted Items. Each Item is then loaded from the provider
+ * the first time it is used, for example when its Form is retrieved.
+ * </p>
+ * <p>
  * The process output file of an Item can be retrieved by calling
  * getOutputFile() and passing the id of the Item as an argument. Retrieving an
  * output file and retrieving a Form are separated because they are treated as
@@ -58,11 +68,13 @@ public class ItemManager implements ItemListener {
 	/**
 	 * <p>
 	 * This is a list of all of the items that are managed by the ItemManger.
-	 * The key is the Item Id and the value is a reference to the Item.
+	 * The key is the Item Id and the value is a reference to the Item. It is
+	 * concurrent because Items that are loaded lazily are added to it while
+	 * other threads read it.
 	 * </p>
 	 * 
 	 */
-	private HashMap<Integer, Item> itemList;
+	private ConcurrentHashMap<Integer, Item> itemList;
 
 	/**
 	 * <p>
@@ -117,6 +129,32 @@ public class ItemManager implements ItemListener {
 	 */
 	private IProject loadedProject = null;
 
+	/**
+	 * The headers of the Items that are known to the persistence provider but
+	 * have not been loaded yet. The key is the Item id. Items are moved from
+	 * this map to itemList the first time they are used. This map is also the
+	 * lock for moving them between the two maps, but not for loading them.
+	 */
+	private HashMap<Integer, ItemHeader> unloadedItems;
+
+	/**
+	 * The locks for loading the Items in unloadedItems, keyed by the Item id.
+	 * Each Item is loaded under its own lock so that loading one Item does not
+	 * wait on the loading of any other. The lock is dropped once the Item has
+	 * been loaded.
+	 */
+	private ConcurrentHashMap<Integer, Object> loadLocks;
+
+	/**
+	 * <p>
+	 * The queues of the Messages posted to each Item, keyed by the Item id.
+	 * The queues are created the first time that a Message is posted to an
+	 * Item.
+	 * </p>
+	 * 
+	 */
+	private ConcurrentHashMap<Integer, ItemMessageQueue> messageQueues;
+
 	/**
 	 * <p>
 	 * The constructor.
@@ -132,7 +170,10 @@ public class ItemManager implements ItemListener {
 		// Setup the lists
 		itemBuilderList = new HashMap<String, ItemBuilder>();
 		compositeBuilders = new ArrayList<ICompositeItemBuilder>();
-		itemList = new HashMap<Integer, Item>();
+		itemList = new ConcurrentHashMap<Integer, Item>();
+		unloadedItems = new HashMap<Integer, ItemHeader>();
+		loadLocks = new ConcurrentHashMap<Integer, Object>();
+		messageQueues = new ConcurrentHashMap<Integer, ItemMessageQueue>();
 
 	}
 
@@ -300,11 +341,13 @@ public class ItemManager implements ItemListener {
 
 		// Local Declarations
 		Form form = null;
+		Item item = null;
 
 		// Retrieve the Form if and only if the Item id is greater than zero and
-		// is also in the list of Items.
-		if (itemID > 0 && this.itemList.containsKey(itemID)) {
-			form = this.itemList.get(itemID).getForm();
+		// is also in the list of Items. This loads the Item if it was not
+		// loaded yet.
+		if (itemID > 0 && (item = getItem(itemID)) != null) {
+			form = item.getForm();
 		}
 
 		return form;
@@ -337,8 +380,7 @@ public class ItemManager implements ItemListener {
 			}
 			// Get the list of Items and see if any disabled ones can be
 			// re-enabled because this builder is their parent.
-			for (int i = 0; i < itemList.values().size(); i++) {
-				Item item = (Item) itemList.values().toArray()[i];
+			for (Item item : new ArrayList<Item>(itemList.values())) {
 				if (!item.isEnabled()
 						&& item.getItemBuilderName().equals(
 								builder.getItemName())) {
@@ -493,6 +535,22 @@ public class ItemManager implements ItemListener {
 			if (item != null) {
 				// Set the status if the Item is actually in the map
 				status = item.getStatus();
+			} else {
+				// Otherwise use the persisted status if it hasn't been loaded.
+				// There is no need to load the whole Item for this.
+				synchronized (unloadedItems) {
+					// Check the list again in case another thread just loaded
+					// it
+					item = itemList.get(itemId);
+					ItemHeader header = unloadedItems.get(itemId);
+					if (item != null) {
+						status = item.getStatus();
+					} else if (header != null) {
+						status = itemBuilderList.containsKey(header
+								.getItemBuilderName()) ? header.getStatus()
+								: FormStatus.Unacceptable;
+					}
+				}
 			}
 		}
 
@@ -519,6 +577,100 @@ public class ItemManager implements ItemListener {
 
 	}
 
+	/**
+	 * This operation returns the Item with the specified id, loading it from
+	 * the persistence provider first if only its header has been loaded. The
+	 * header is only dropped once the Item has been loaded and restored, so an
+	 * Item that fails to load stays in the list and is tried again the next
+	 * time it is used.
+	 * 
+	 * @param itemId
+	 *            The id of the Item
+	 * @return The Item or null if there is no Item with that id or it could
+	 *         not be loaded.
+	 */
+	private Item getItem(int itemId) {
+
+		// Local Declarations
+		Item item = itemList.get(itemId);
+		ItemHeader header = null;
+
+		// Load the Item if it is still waiting
+		if (item == null && provider != null) {
+			// Get the lock for this Item
+			Object lock = loadLocks.get(itemId);
+			if (lock == null) {
+				Object newLock = new Object();
+				lock = loadLocks.putIfAbsent(itemId, newLock);
+				if (lock == null) {
+					lock = newLock;
+				}
+			}
+			synchronized (lock) {
+				// Check the list again in case another thread just loaded it
+				synchronized (unloadedItems) {
+					item = itemList.get(itemId);
+					header = unloadedItems.get(itemId);
+				}
+				if (item == null && header != null) {
+					try {
+						Item loadedItem = provider.loadItem(itemId);
+						if (loadedItem != null) {
+							restoreItem(loadedItem, loadedProject);
+							item = itemList.get(itemId);
+						}
+					} catch (RuntimeException e) {
+						// Complain, but keep the header so that the load can
+						// be tried again.
+						e.printStackTrace();
+					}
+					if (item == null) {
+						System.out.println("ItemManager Message: "
+								+ "Unable to load " + header.getName() + " "
+								+ itemId + " from the provider.");
+					}
+				}
+				// The lock is not needed once the Item is in the list
+				if (item != null) {
+					loadLocks.remove(itemId);
+				}
+			}
+		}
+
+		return item;
+	}
+
+	/**
+	 * This operation puts an Item from the persistence provider into the list
+	 * of Items. It reconstructs the Item to use the proper subclass by
+	 * searching the builders for the builder with the appropriate name or
+	 * disables it if the builder is not available.
+	 * 
+	 * @param item
+	 *            The Item from the persistence provider
+	 * @param projectSpace
+	 *            The project space that the Item should use for its work
+	 */
+	private void restoreItem(Item item, IProject projectSpace) {
+
+		if (itemBuilderList.containsKey(item.getItemBuilderName())) {
+			ItemBuilder builder = itemBuilderList.get(item
+					.getItemBuilderName());
+			rebuildItem(builder, item, projectSpace);
+		} else {
+			System.out.println("ItemManager Message: "
+					+ "Builder not found for " + item.getName() + " "
+					+ item.getId() + " with builder "
+					+ item.getItemBuilderName() + ". It will be disabled.");
+			// Otherwise just put the Item in the list, but disable it. It can
+			// still be read, just not processed.
+			item.disable(true);
+			addRestoredItem(item);
+		}
+
+		return;
+	}
+
 	/**
 	 * This operation rebuilds an Item from its builder and the current project
 	 * space.
@@ -540,7 +692,22 @@ public class ItemManager implements ItemListener {
 		// Register as a observer of the Item
 		rebuiltItem.addListener(this);
 		// Load the Item into the list
-		itemList.put(rebuiltItem.getId(), rebuiltItem);
+		addRestoredItem(rebuiltItem);
+	}
+
+	/**
+	 * This operation puts a restored Item into the list of Items and drops its
+	 * header, if any, in one step so that the Item is always in exactly one of
+	 * the two maps.
+	 * 
+	 * @param item
+	 *            The restored Item
+	 */
+	private void addRestoredItem(Item item) {
+		synchronized (unloadedItems) {
+			itemList.put(item.getId(), item);
+			unloadedItems.remove(item.getId());
+		}
 	}
 
 	/**
@@ -560,6 +727,10 @@ public class ItemManager implements ItemListener {
 	 * (No one wants to have five Items spread across three orders of magnitude
 	 * in ids!)
 	 * </p>
+	 * <p>
+	 * If the provider is an ILazyPersistenceProvider, only the Item headers are
+	 * loaded here. The Items themselves are loaded when they are first used.
+	 * </p>
 	 * 
 	 * @param projectSpace
 	 *            <p>
@@ -572,34 +743,43 @@ public class ItemManager implements ItemListener {
 		// Make sure the persistence provider is available before requesting
 		// information from it.
 		if (provider != null) {
-			// Get all of the Items
-			ArrayList<Item> oldItems = provider.loadItems();
+			// Local Declarations
+			ArrayList<Item> oldItems = null;
+			ArrayList<ItemHeader> headers = null;
+			// Save the project space first so that lazily loaded Items can use
+			// it.
+			loadedProject = projectSpace;
+			// Get the headers or all of the Items, depending on the provider
+			if (provider instanceof ILazyPersistenceProvider) {
+				headers = ((ILazyPersistenceProvider) provider)
+						.loadItemHeaders();
+			} else {
+				oldItems = provider.loadItems();
+			}
 			// Put all of the Items in to the list if the provider was able to
 			// load anything.
-			if (oldItems != null && !(oldItems.isEmpty())) {
-				// Loop over each Item and load it up
-				for (Item item : oldItems) {
-					// Reconstruct the Item to use the proper subclass by
-					// searching the builders for the builder with the
-					// appropriate name.
-					if (itemBuilderList.containsKey(item.getItemBuilderName())) {
-						ItemBuilder builder = itemBuilderList.get(item
-								.getItemBuilderName());
-						rebuildItem(builder, item, projectSpace);
-					} else {
-						System.out.println("ItemManager Message: "
-								+ "Builder not found for " + item.getName()
-								+ " " + item.getId() + " with builder "
-								+ item.getItemBuilderName()
-								+ ". It will be disabled.");
-						// Otherwise just put the Item in the list, but disable
-						// it. It can still be read, just not processed.
-						item.disable(true);
-						itemList.put(item.getId(), item);
+			if ((oldItems != null && !(oldItems.isEmpty()))
+					|| (headers != null && !(headers.isEmpty()))) {
+				if (oldItems != null) {
+					// Loop over each Item and load it up
+					for (Item item : oldItems) {
+						restoreItem(item, projectSpace);
+					}
+				} else {
+					// Or just hold on to the headers until the Items are used
+					synchronized (unloadedItems) {
+						for (ItemHeader header : headers) {
+							if (!itemList.containsKey(header.getId())) {
+								unloadedItems.put(header.getId(), header);
+							}
+						}
 					}
 				}
-				// Get the keys from the map and sort them
+				// Get the keys from the maps and sort them
 				TreeSet<Integer> keys = new TreeSet<Integer>(itemList.keySet());
+				synchronized (unloadedItems) {
+					keys.addAll(unloadedItems.keySet());
+				}
 				// Set the next sequential id such that it is equal to one plus
 				// the last id in the set of Items from the provider. This will
 				// keep any new items from possibly colliding with old ones in
@@ -619,8 +799,6 @@ public class ItemManager implements ItemListener {
 				System.out.println("Unable to load items in bulk from "
 						+ "the IPersistenceProvider.");
 			}
-			// Save the project space
-			loadedProject = projectSpace;
 
 		}
 
@@ -689,8 +867,9 @@ public class ItemManager implements ItemListener {
 		// Local Declarations
 		File outputFile = null;
 
-		if (itemList.containsKey(id)) {
-			outputFile = itemList.get(id).getOutputFile();
+		Item item = getItem(id);
+		if (item != null) {
+			outputFile = item.getOutputFile();
 		}
 
 		return outputFile;
@@ -721,8 +900,8 @@ public class ItemManager implements ItemListener {
 		FormStatus status = FormStatus.InfoError;
 
 		// Find the item if the id is valid
-		if (itemList.keySet().contains(itemId)) {
-			Item item = itemList.get(itemId);
+		Item item = getItem(itemId);
+		if (item != null) {
 			// Try to cancel the task. This kills all processes regardless of
 			// name for now.
 			status = item.cancelProcess();
@@ -754,33 +933,111 @@ public class ItemManager implements ItemListener {
 	 * that a particular event has occurred in an ICE subsystem, remote ICE
 	 * subsystem or external third-party process.
 	 * </p>
+	 * <p>
+	 * The Message is added to the queue of the Item and this operation never
+	 * blocks on other threads that post to the same Item. The queued Messages
+	 * are delivered to the Item in order, one at a time, either by this thread
+	 * or by the thread that is already delivering them.
+	 * </p>
 	 * 
 	 * @param msg
 	 *            <p>
 	 *            The incoming Message.
 	 *            </p>
 	 * @return <p>
-	 *         True if the ItemManager was able to forward the Message and if
-	 *         the Item was able to respond to the Message, false otherwise.
+	 *         True if the ItemManager was able to queue the Message for the
+	 *         Item, false if the Item does not exist or if its queue is full.
 	 *         </p>
 	 */
 	public boolean postUpdateMessage(Message msg) {
+		ArrayList<Message> msgs = new ArrayList<Message>(1);
+		msgs.add(msg);
+		return postUpdateMessages(msgs);
+	}
+
+	/**
+	 * <p>
+	 * This operation queues a batch of Messages for one Item in the same way
+	 * as postUpdateMessage(). The batch is queued whole or not at all, so a
+	 * client whose batch was rejected can post all of it again without any
+	 * Message being delivered twice.
+	 * </p>
+	 * 
+	 * @param msgs
+	 *            <p>
+	 *            The incoming Messages. They must all be for the same Item.
+	 *            </p>
+	 * @return <p>
+	 *         True if the ItemManager was able to queue all of the Messages
+	 *         for the Item, false if the list is empty, the Item does not
+	 *         exist or there is not enough room in its queue for all of them.
+	 *         </p>
+	 */
+	public boolean postUpdateMessages(List<Message> msgs) {
 
 		// Local Declarations
 		boolean retVal = false;
-		int itemId = msg.getItemId();
-
-		// Push the message if possible
-		if (itemList.containsKey(itemId)) {
-			// Grab the Item
-			Item messagedItem = itemList.get(itemId);
-			// Post the message
-			retVal = messagedItem.update(msg);
+
+		// Grab the Item
+		if (msgs != null && !msgs.isEmpty()) {
+			int itemId = msgs.get(0).getItemId();
+			Item messagedItem = getItem(itemId);
+
+			// Queue the messages and deliver them if possible
+			if (messagedItem != null) {
+				ItemMessageQueue queue = messageQueues.get(itemId);
+				if (queue == null) {
+					ItemMessageQueue newQueue = new ItemMessageQueue(
+							ItemMessageQueue.defaultCapacity);
+					queue = messageQueues.putIfAbsent(itemId, newQueue);
+					if (queue == null) {
+						queue = newQueue;
+					}
+				}
+				retVal = queue.offerAll(msgs);
+				queue.deliver(messagedItem);
+			}
 		}
 
 		return retVal;
 	}
 
+	/**
+	 * <p>
+	 * This operation returns the most recent Messages that were posted to an
+	 * Item.
+	 * </p>
+	 * 
+	 * @param itemId
+	 *            <p>
+	 *            The id of the Item.
+	 *            </p>
+	 * @param type
+	 *            <p>
+	 *            The type of the Messages, such as PROGRESS_UPDATED, or null
+	 *            for Messages of every type.
+	 *            </p>
+	 * @param count
+	 *            <p>
+	 *            The maximum number of Messages of the type. If it is less
+	 *            than one, all of the Messages in the history of the Item are
+	 *            returned.
+	 *            </p>
+	 * @return <p>
+	 *         The Messages from oldest to newest, or null if the Item does not
+	 *         exist.
+	 *         </p>
+	 */
+	public ArrayList<Message> getItemUpdates(int itemId, String type,
+			int count) {
+
+		// Grab the Item
+		Item item = getItem(itemId);
+
+		return (item != null) ? item.getMessageHistory()
+				.getRecent(type, count) : null;
+	}
+
 	/**
 	 * (non-Javadoc)
 	 * 
@@ -817,9 +1074,16 @@ public class ItemManager implements ItemListener {
 		// Local Declarations
 		ArrayList<Identifiable> items = new ArrayList<Identifiable>();
 
-		// Retrieve the list
-		for (Identifiable i : this.itemList.values()) {
-			items.add(i);
+		// Retrieve the list. Items that have not been loaded are represented
+		// by their headers. The lock keeps an Item that is being loaded from
+		// being missed by both lists.
+		synchronized (unloadedItems) {
+			for (Identifiable i : this.itemList.values()) {
+				items.add(i);
+			}
+			for (Identifiable i : unloadedItems.values()) {
+				items.add(i);
+			}
 		}
 
 		return items;
@@ -858,8 +1122,8 @@ public class ItemManager implements ItemListener {
 		id = form.getItemID();
 
 		// Make sure the Id is valid and then find its parent
-		if (itemList.containsKey(id)) {
-			currentItem = itemList.get(id);
+		currentItem = getItem(id);
+		if (currentItem != null) {
 			status = currentItem.submitForm(form);
 		}
 
@@ -873,6 +1137,88 @@ public class ItemManager implements ItemListener {
 		return status;
 	}
 
+	/**
+	 * <p>
+	 * This operation applies a FormPatch to the Form of an Item that is
+	 * managed by the ItemManager, instead of replacing the whole Form like
+	 * updateItem(), and returns the Entries that changed since the revision on
+	 * which the patch was based. This includes the changes in the patch and
+	 * any changes made by other clients, so the caller can bring its copy of
+	 * the Form up to date without retrieving it again.
+	 * </p>
+	 * <p>
+	 * The ItemManager will call the persistence provider to update the Item
+	 * when this operation is called.
+	 * </p>
+	 * 
+	 * @param patch
+	 *            <p>
+	 *            The patch for the Form of the Item.
+	 *            </p>
+	 * @return <p>
+	 *         The changes since the base revision of the patch, with the status
+	 *         of the Item after the patch was applied, or null if the Item
+	 *         does not exist. The status is FormStatus.Unacceptable if the
+	 *         patch conflicts with changes that the caller has not seen.
+	 *         </p>
+	 */
+	public FormPatch patchItem(FormPatch patch) {
+
+		// Local Declarations
+		FormStatus status = FormStatus.InfoError;
+		FormPatch changes = null;
+		Item currentItem = null;
+
+		// Find the Item to which the patch belongs and apply it
+		if (patch != null && (currentItem = getItem(patch.getItemID())) != null) {
+			status = currentItem.patchForm(patch);
+			changes = currentItem.getForm().getChanges(
+					patch.getBaseRevision());
+			changes.setStatus(status);
+			// Write to the database if it is enabled
+			if ((status.equals(FormStatus.Processed) || status
+					.equals(FormStatus.ReadyToProcess)) && provider != null) {
+				provider.updateItem(currentItem);
+			}
+		}
+
+		return changes;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the Entries of the Form of an Item that changed
+	 * after a revision of that Form.
+	 * </p>
+	 * 
+	 * @param itemId
+	 *            <p>
+	 *            The id of the Item.
+	 *            </p>
+	 * @param revision
+	 *            <p>
+	 *            The revision of the Form after which changes should be
+	 *            returned.
+	 *            </p>
+	 * @return <p>
+	 *         The changes with the current status of the Item, or null if the
+	 *         Item does not exist.
+	 *         </p>
+	 */
+	public FormPatch getItemChanges(int itemId, long revision) {
+
+		// Local Declarations
+		FormPatch changes = null;
+		Item item = null;
+
+		if (itemId > 0 && (item = getItem(itemId)) != null) {
+			changes = item.getForm().getChanges(revision);
+			changes.setStatus(item.getStatus());
+		}
+
+		return changes;
+	}
+
 	/**
 	 * <p>
 	 * This operation processes the Item with the specified id and action. The
@@ -918,7 +1264,7 @@ public class ItemManager implements ItemListener {
 		// Check the Item id and actionName for validity
 		if (itemId > 0 && actionName != null) {
 			// Retrieve the Item from the map if it exists
-			tmpItem = itemList.get(itemId);
+			tmpItem = getItem(itemId);
 			if (tmpItem != null) {
 				status = tmpItem.process(actionName);
 			}
@@ -948,20 +1294,22 @@ public class ItemManager implements ItemListener {
 
 		// Local Declarations
 		boolean retVal = false;
+		Item item = null;
 
 		// Try to delete the Item if and only if the Item's id is greater than
 		// zero and it is in the list of Items and set the return value.
-		if (itemID > 0 && this.itemList.containsKey(itemID)) {
+		if (itemID > 0 && (item = getItem(itemID)) != null) {
 			// If the provider exists, delete the Item from the provider
 			if (this.provider != null) {
-				Item item = itemList.get(itemID);
 				System.out.println("ItemManager Message: Deleting Item "
 						+ item.getName() + " " + item.getId()
 						+ " from provider");
-				provider.deleteItem(itemList.get(itemID));
+				provider.deleteItem(item);
 			}
 			// Remove the Item from the list
 			retVal = (this.itemList.remove(itemID) != null || false);
+			// Drop any Messages that were waiting for it
+			messageQueues.remove(itemID);
 			// Add the id to the list so that it can be reused
 			reusableIds.add(itemID);
 		}
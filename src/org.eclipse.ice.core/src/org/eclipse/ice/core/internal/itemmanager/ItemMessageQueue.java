@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.core.internal.itemmanager;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.ice.item.Item;
+import org.eclipse.ice.item.messaging.Message;
+
+/**
+ * <p>
+ * This class queues the Messages posted to a single Item so that many threads
+ * can post Messages at once without blocking each other or losing any
+ * Messages. The queue is lock-free: a thread that posts a Message adds it to
+ * the queue and then tries to become the thread that delivers the queued
+ * Messages to the Item. Only one thread delivers at a time, so the Item
+ * receives the Messages one at a time and in the order that they were queued,
+ * and the other threads return immediately.
+ * </p>
+ * <p>
+ * The queue has a fixed capacity. Messages that are offered when it is full
+ * are rejected so that the posting clients can slow down and try again
+ * instead of letting the queue grow without bound. A batch of Messages is
+ * either queued whole or rejected whole, so a client that posts the batch
+ * again never delivers any of its Messages twice.
+ * </p>
+ *
+ * @author Jay Jay Billings
+ */
+class ItemMessageQueue {
+
+	/**
+	 * <p>
+	 * The default maximum number of Messages that may wait in the queue.
+	 * </p>
+	 */
+	static final int defaultCapacity = 1024;
+
+	/**
+	 * <p>
+	 * The Messages waiting to be delivered.
+	 * </p>
+	 */
+	private final ConcurrentLinkedQueue<Message> messages;
+
+	/**
+	 * <p>
+	 * The number of Messages in the queue. It is tracked separately because
+	 * the size of a ConcurrentLinkedQueue is not a constant time operation.
+	 * </p>
+	 */
+	private final AtomicInteger size;
+
+	/**
+	 * <p>
+	 * True while a thread is delivering Messages to the Item.
+	 * </p>
+	 */
+	private final AtomicBoolean delivering;
+
+	/**
+	 * <p>
+	 * The maximum number of Messages that may wait in the queue.
+	 * </p>
+	 */
+	private final int capacity;
+
+	/**
+	 * <p>
+	 * The constructor.
+	 * </p>
+	 *
+	 * @param capacity
+	 *            The maximum number of Messages that may wait in the queue.
+	 */
+	ItemMessageQueue(int capacity) {
+		this.capacity = capacity;
+		messages = new ConcurrentLinkedQueue<Message>();
+		size = new AtomicInteger(0);
+		delivering = new AtomicBoolean(false);
+	}
+
+	/**
+	 * <p>
+	 * This operation adds a Message to the queue if there is room for it.
+	 * </p>
+	 *
+	 * @param msg
+	 *            The Message
+	 * @return True if the Message was queued, false if the queue is full.
+	 */
+	boolean offer(Message msg) {
+
+		// Reserve a place in the queue and give it back if it is full
+		if (size.incrementAndGet() > capacity) {
+			size.decrementAndGet();
+			return false;
+		}
+		messages.offer(msg);
+
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * This operation adds a batch of Messages to the queue if there is room
+	 * for all of them. Either every Message in the batch is queued, in order,
+	 * or none of them are.
+	 * </p>
+	 *
+	 * @param msgs
+	 *            The Messages
+	 * @return True if the Messages were queued, false if there is not enough
+	 *         room in the queue for all of them.
+	 */
+	boolean offerAll(List<Message> msgs) {
+
+		// Reserve places for the whole batch and give them back if it does not
+		// fit
+		int numMessages = msgs.size();
+		if (size.addAndGet(numMessages) > capacity) {
+			size.addAndGet(-numMessages);
+			return false;
+		}
+		messages.addAll(msgs);
+
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * This operation delivers the queued Messages to the Item unless another
+	 * thread is already delivering them. In that case the other thread will
+	 * also deliver the Messages queued by this thread.
+	 * </p>
+	 *
+	 * @param item
+	 *            The Item that receives the Messages
+	 */
+	void deliver(Item item) {
+
+		// Keep going as long as there are Messages that no other thread will
+		// deliver. The check after the loop catches Messages that were queued
+		// after the last poll but before the flag was cleared.
+		while (!messages.isEmpty() && delivering.compareAndSet(false, true)) {
+			try {
+				Message msg;
+				while ((msg = messages.poll()) != null) {
+					size.decrementAndGet();
+					// One bad Message must not stop the rest of the queue
+					try {
+						item.update(msg);
+					} catch (RuntimeException e) {
+						System.err.println("ItemManager Message: Item "
+								+ item.getId() + " failed to handle a "
+								+ msg.getType() + " message.");
+						e.printStackTrace();
+					}
+				}
+			} finally {
+				delivering.set(false);
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the number of Messages waiting in the queue.
+	 * </p>
+	 *
+	 * @return The number of Messages
+	 */
+	int size() {
+		return size.get();
+	}
+}
@@ -0,0 +1,993 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.core.internal.itemmanager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.ice.core.iCore.IItemStatusListener;
+import org.eclipse.ice.datastructures.form.FormStatus;
+
+/**
+ * <p>
+ * This class watches the status and the output files of Items on behalf of
+ * the clients that subscribe to them so that the clients do not have to poll
+ * the Core. The status of an Item is dictated by its Action and the output is
+ * written by external processes, so neither can notify anyone when they
+ * change. Instead, a single thread checks every watched Item in the Core,
+ * where it is cheap, and turns the changes into events that are pushed to the
+ * local listeners and kept in a short log for remote clients that wait for
+ * them with getEvents().
+ * </p>
+ * <p>
+ * An Item is watched while it has listeners or while a remote client has
+ * asked for its events recently. The thread stops when no Items are watched.
+ * The state of an Item that is no longer watched is kept for a while, so if
+ * it is watched again its output is read from where it stopped and its events
+ * continue from the sequence numbers that the clients have already seen.
+ * </p>
+ * <p>
+ * The Core and the output files are never read while the lock of the monitor
+ * is held, and the listeners are never called while the lock of an Item is
+ * held, so a slow Item or a listener that calls back into the Core does not
+ * hold up the other Items.
+ * </p>
+ * <p>
+ * The output file is read from the offset where the last check stopped, and
+ * text after the last newline is held back until its line is complete. The
+ * JobLauncher truncates the file when an Item is processed again, so a file
+ * that is shorter than the offset or whose first bytes changed starts a new
+ * run: it is read from the start again and new listeners are only caught up
+ * with the output of the new run.
+ * </p>
+ *
+ * @author Jay Jay Billings
+ */
+public class ItemStatusMonitor {
+
+	/**
+	 * <p>
+	 * The default time between checks of the watched Items in milliseconds.
+	 * </p>
+	 */
+	public static final int defaultPeriod = 50;
+
+	/**
+	 * <p>
+	 * The longest time that getEvents() will wait for an event in
+	 * milliseconds.
+	 * </p>
+	 */
+	public static final int maxTimeout = 30000;
+
+	/**
+	 * <p>
+	 * The number of events that are kept for each Item.
+	 * </p>
+	 */
+	static final int maxEvents = 1024;
+
+	/**
+	 * <p>
+	 * The time in milliseconds after which an Item without listeners is no
+	 * longer watched if no remote client has asked for its events. It must be
+	 * longer than maxTimeout.
+	 * </p>
+	 */
+	static final long maxIdleTime = 2 * maxTimeout;
+
+	/**
+	 * <p>
+	 * The number of bytes at the start of an output file that are compared to
+	 * tell whether the file was rewritten.
+	 * </p>
+	 */
+	static final int headLength = 64;
+
+	/**
+	 * <p>
+	 * The number of Items that are no longer watched whose state is kept.
+	 * </p>
+	 */
+	static final int maxIdleItems = 64;
+
+	/**
+	 * <p>
+	 * The ItemManager that owns the watched Items.
+	 * </p>
+	 */
+	private final ItemManager itemManager;
+
+	/**
+	 * <p>
+	 * The time between checks of the watched Items in milliseconds.
+	 * </p>
+	 */
+	private final int period;
+
+	/**
+	 * <p>
+	 * The watched Items, keyed by their ids. It is guarded by this monitor.
+	 * </p>
+	 */
+	private final HashMap<Integer, WatchedItem> watchedItems;
+
+	/**
+	 * <p>
+	 * The Items that are no longer watched, keyed by their ids and oldest
+	 * first. It is guarded by this monitor.
+	 * </p>
+	 */
+	private final LinkedHashMap<Integer, WatchedItem> idleItems;
+
+	/**
+	 * <p>
+	 * The sequence number of the next event. It is shared by all of the Items
+	 * so that an Item that is watched again never repeats the sequence numbers
+	 * that a client has already seen.
+	 * </p>
+	 */
+	private final AtomicLong nextSequence;
+
+	/**
+	 * <p>
+	 * The thread that checks the watched Items or null if it is not running.
+	 * It is guarded by this monitor.
+	 * </p>
+	 */
+	private Thread watcher;
+
+	/**
+	 * <p>
+	 * The constructor.
+	 * </p>
+	 *
+	 * @param manager
+	 *            The ItemManager that owns the watched Items
+	 */
+	public ItemStatusMonitor(ItemManager manager) {
+		this(manager, defaultPeriod);
+	}
+
+	/**
+	 * <p>
+	 * The constructor.
+	 * </p>
+	 *
+	 * @param manager
+	 *            The ItemManager that owns the watched Items
+	 * @param period
+	 *            The time between checks of the watched Items in milliseconds.
+	 *            It must be greater than zero.
+	 */
+	public ItemStatusMonitor(ItemManager manager, int period) {
+		if (period < 1) {
+			throw new IllegalArgumentException("ItemStatusMonitor Error: "
+					+ "The period must be greater than zero.");
+		}
+		itemManager = manager;
+		this.period = period;
+		watchedItems = new HashMap<Integer, WatchedItem>();
+		idleItems = new LinkedHashMap<Integer, WatchedItem>();
+		nextSequence = new AtomicLong(1);
+	}
+
+	/**
+	 * <p>
+	 * This operation subscribes a listener to an Item. The listener first
+	 * receives the output of the current run that is still in the log of the
+	 * Item and its current status and then every change until it is removed.
+	 * </p>
+	 *
+	 * @param itemId
+	 *            The id of the Item
+	 * @param listener
+	 *            The listener
+	 * @return True if the listener was added, false if it is null or the Item
+	 *         does not exist
+	 */
+	public boolean addListener(int itemId, IItemStatusListener listener) {
+
+		// Local Declarations
+		WatchedItem item = null;
+		ArrayList<Event> pastEvents = new ArrayList<Event>();
+
+		if (listener != null && (item = watch(itemId, true)) != null) {
+			// Catch the listener up under the dispatch lock of the Item so
+			// that no events are dispatched in between. The events are copied
+			// so that the listener is not called under the lock of the Item.
+			synchronized (item.dispatchLock) {
+				synchronized (item) {
+					item.listeners.add(listener);
+					for (Event event : item.events) {
+						if (event.output != null
+								&& event.sequence >= item.runStart) {
+							pastEvents.add(event);
+						}
+					}
+					pastEvents.add(new Event(0, item.status, null));
+				}
+				for (Event event : pastEvents) {
+					dispatch(item, listener, event);
+				}
+			}
+			synchronized (this) {
+				item.pendingListeners--;
+			}
+		}
+
+		return item != null;
+	}
+
+	/**
+	 * <p>
+	 * This operation unsubscribes a listener from an Item. The Item is no
+	 * longer watched once it has no listeners and no remote clients.
+	 * </p>
+	 *
+	 * @param itemId
+	 *            The id of the Item
+	 * @param listener
+	 *            The listener
+	 */
+	public void removeListener(int itemId, IItemStatusListener listener) {
+
+		// Local Declarations
+		WatchedItem item = null;
+
+		synchronized (this) {
+			item = watchedItems.get(itemId);
+		}
+		if (item != null) {
+			item.listeners.remove(listener);
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the events of an Item with sequence numbers
+	 * greater than or equal to since, waiting for up to the timeout if there
+	 * are none yet. The first request for an Item starts watching it and
+	 * returns its current status at once.
+	 * </p>
+	 *
+	 * @param itemId
+	 *            The id of the Item
+	 * @param since
+	 *            The sequence number of the first event to return
+	 * @param timeout
+	 *            The maximum time to wait in milliseconds. It is limited to
+	 *            maxTimeout.
+	 * @param events
+	 *            The list to which the events are added, oldest first
+	 * @return The sequence number that should be passed as since in the next
+	 *         request, or -1 if the Item does not exist
+	 */
+	public long getEvents(int itemId, long since, int timeout,
+			ArrayList<Event> events) {
+
+		// Local Declarations
+		WatchedItem item = watch(itemId, false);
+		long next = -1;
+
+		if (item != null) {
+			long deadline = System.currentTimeMillis()
+					+ Math.min(Math.max(timeout, 0), maxTimeout);
+			synchronized (item) {
+				// Wait until there is a new event, the Item is no longer
+				// watched or the time is up
+				long remaining = deadline - System.currentTimeMillis();
+				while (!item.closed && item.lastSequence < since
+						&& remaining > 0) {
+					try {
+						item.wait(remaining);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						break;
+					}
+					remaining = deadline - System.currentTimeMillis();
+				}
+				// Copy the new events
+				for (Event event : item.events) {
+					if (event.sequence >= since) {
+						events.add(event);
+					}
+				}
+				next = Math.max(since, item.lastSequence + 1);
+			}
+			item.lastRequest = System.currentTimeMillis();
+		}
+
+		return next;
+	}
+
+	/**
+	 * <p>
+	 * This operation stops watching every Item. Listeners are not notified.
+	 * </p>
+	 */
+	public void stop() {
+
+		// Local Declarations
+		ArrayList<WatchedItem> items = null;
+
+		synchronized (this) {
+			items = new ArrayList<WatchedItem>(watchedItems.values());
+			watchedItems.clear();
+			idleItems.clear();
+			if (watcher != null) {
+				watcher.interrupt();
+				watcher = null;
+			}
+		}
+		for (WatchedItem item : items) {
+			close(item);
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the watched Item with the id, starting to watch
+	 * it and the thread that checks it if needed. The Item is marked so that
+	 * it is not dropped before the caller is done with it. A new Item is
+	 * checked once before it is returned. Its status is read outside of the
+	 * lock of the monitor because the Item may have to be loaded first.
+	 * </p>
+	 *
+	 * @param itemId
+	 *            The id of the Item
+	 * @param forListener
+	 *            True if a listener is about to be added, false if the Item is
+	 *            watched for a remote request
+	 * @return The watched Item or null if the Item does not exist
+	 */
+	private WatchedItem watch(int itemId, boolean forListener) {
+
+		// Local Declarations
+		WatchedItem item = null;
+		FormStatus status = null;
+
+		// Use the Item if it is already watched
+		synchronized (this) {
+			item = watchedItems.get(itemId);
+			if (item != null) {
+				mark(item, forListener);
+			}
+		}
+
+		// Otherwise make sure that it exists and start watching it
+		if (item == null) {
+			status = itemManager.getItemStatus(itemId);
+			if (status == null) {
+				return null;
+			}
+			synchronized (this) {
+				item = watchedItems.get(itemId);
+				if (item == null) {
+					// Pick up where the Item left off if it was watched
+					// before so that its output is not sent twice
+					item = idleItems.remove(itemId);
+					if (item != null) {
+						synchronized (item) {
+							item.closed = false;
+						}
+					} else {
+						item = new WatchedItem(itemId);
+					}
+					watchedItems.put(itemId, item);
+					if (watcher == null) {
+						watcher = new Thread(new Runnable() {
+							@Override
+							public void run() {
+								watchItems();
+							}
+						}, "ICE Item Status Monitor");
+						watcher.setDaemon(true);
+						watcher.start();
+					}
+				}
+				mark(item, forListener);
+			}
+		}
+
+		// Read any output that is already there and log the status if the
+		// Item has never been checked. The watcher thread skips such Items.
+		if (item.status == null) {
+			if (status == null) {
+				status = itemManager.getItemStatus(itemId);
+			}
+			check(item, (status != null) ? status : FormStatus.Unacceptable,
+					true);
+		}
+
+		return item;
+	}
+
+	/**
+	 * <p>
+	 * This operation marks a watched Item so that it is not dropped before the
+	 * caller is done with it. The caller must hold the lock of the monitor.
+	 * </p>
+	 *
+	 * @param item
+	 *            The watched Item
+	 * @param forListener
+	 *            True if a listener is about to be added, false if the Item is
+	 *            watched for a remote request
+	 */
+	private void mark(WatchedItem item, boolean forListener) {
+		if (forListener) {
+			item.pendingListeners++;
+		} else {
+			item.lastRequest = System.currentTimeMillis();
+		}
+	}
+
+	/**
+	 * <p>
+	 * This operation checks an Item and dispatches the new events to its
+	 * listeners. The events are logged under the lock of the Item and
+	 * dispatched after it is released, but under the dispatch lock of the Item
+	 * so that every listener receives them in order.
+	 * </p>
+	 *
+	 * @param item
+	 *            The watched Item
+	 * @param status
+	 *            The current status of the Item
+	 * @param firstCheck
+	 *            True if the Item should only be checked if it has never been
+	 *            checked before
+	 */
+	private void check(WatchedItem item, FormStatus status, boolean firstCheck) {
+
+		// Local Declarations
+		ArrayList<Event> newEvents = new ArrayList<Event>();
+
+		synchronized (item.dispatchLock) {
+			synchronized (item) {
+				if (!firstCheck || item.status == null) {
+					update(item, status, newEvents);
+				}
+			}
+			for (IItemStatusListener listener : item.listeners) {
+				for (Event event : newEvents) {
+					dispatch(item, listener, event);
+				}
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation is run by the watcher thread. It checks every watched
+	 * Item once per period and stops when no Items are left.
+	 * </p>
+	 */
+	private void watchItems() {
+
+		// Local Declarations
+		ArrayList<WatchedItem> items = new ArrayList<WatchedItem>();
+		ArrayList<WatchedItem> expired = new ArrayList<WatchedItem>();
+
+		while (!Thread.currentThread().isInterrupted()) {
+			items.clear();
+			expired.clear();
+			synchronized (this) {
+				// Stop watching the Items that nobody is interested in
+				long now = System.currentTimeMillis();
+				Iterator<WatchedItem> iterator = watchedItems.values()
+						.iterator();
+				while (iterator.hasNext()) {
+					WatchedItem item = iterator.next();
+					if (item.listeners.isEmpty() && item.pendingListeners == 0
+							&& now - item.lastRequest > maxIdleTime) {
+						iterator.remove();
+						expired.add(item);
+						// Keep its state in case it is watched again
+						idleItems.put(item.itemId, item);
+						if (idleItems.size() > maxIdleItems) {
+							Iterator<Integer> oldest = idleItems.keySet()
+									.iterator();
+							oldest.next();
+							oldest.remove();
+						}
+					}
+				}
+				if (watchedItems.isEmpty()) {
+					if (watcher == Thread.currentThread()) {
+						watcher = null;
+					}
+					break;
+				}
+				items.addAll(watchedItems.values());
+			}
+
+			// Close the expired Items and check the others
+			for (WatchedItem item : expired) {
+				close(item);
+			}
+			for (WatchedItem item : items) {
+				// Skip the Items that watch() has not checked yet
+				if (item.status == null) {
+					continue;
+				}
+				FormStatus status = itemManager.getItemStatus(item.itemId);
+				if (status != null) {
+					check(item, status, false);
+				} else {
+					// The Item was deleted, so tell the listeners that it can
+					// not be processed any more and stop watching it
+					check(item, FormStatus.Unacceptable, false);
+					synchronized (this) {
+						watchedItems.remove(item.itemId);
+					}
+					close(item);
+				}
+			}
+
+			// Wait for the next check
+			try {
+				Thread.sleep(period);
+			} catch (InterruptedException e) {
+				break;
+			}
+		}
+
+		// Close whatever is left if the thread was stopped
+		for (WatchedItem item : expired) {
+			close(item);
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation logs the new output and the status of an Item if it
+	 * changed and wakes the remote clients. The output is read before the
+	 * status is logged so that all of the output of a finished process comes
+	 * before the status that says it finished. The caller must hold the lock
+	 * of the Item and dispatch the new events to the listeners.
+	 * </p>
+	 *
+	 * @param item
+	 *            The watched Item
+	 * @param status
+	 *            The current status of the Item
+	 * @param newEvents
+	 *            The list to which the new events are added
+	 */
+	private void update(WatchedItem item, FormStatus status,
+			ArrayList<Event> newEvents) {
+
+		// Read the new lines
+		readOutput(item, newEvents);
+
+		// A process that is done will not finish its last line, so post it
+		if (status != item.status && status != FormStatus.Processing
+				&& item.partialLine.size() > 0) {
+			newEvents.add(log(item, null, takeLine(item)));
+		}
+
+		// Log the status if it changed
+		if (status != item.status) {
+			item.status = status;
+			newEvents.add(log(item, status, null));
+		}
+
+		// Wake the remote clients
+		if (!newEvents.isEmpty()) {
+			item.notifyAll();
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation reads the bytes that were added to the output file of an
+	 * Item since the last check and logs every complete line. The caller must
+	 * hold the lock of the Item.
+	 * </p>
+	 *
+	 * @param item
+	 *            The watched Item
+	 * @param newEvents
+	 *            The list to which the new events are added
+	 */
+	private void readOutput(WatchedItem item, ArrayList<Event> newEvents) {
+
+		// Local Declarations
+		File outputFile = itemManager.getOutputFile(item.itemId);
+		RandomAccessFile file = null;
+		byte[] buffer = null;
+		int count = 0;
+
+		// Skip the file if it does not exist yet or did not change size
+		if (outputFile == null || !outputFile.exists()
+				|| (outputFile.equals(item.outputFile)
+						&& outputFile.length() == item.offset)) {
+			return;
+		}
+
+		try {
+			file = new RandomAccessFile(outputFile, "r");
+			// Start over if the file is new, shorter than what was read or
+			// starts differently, which means it was rewritten
+			if (!outputFile.equals(item.outputFile)
+					|| file.length() < item.offset
+					|| !startsWith(file, item.head)) {
+				startRun(item, outputFile, newEvents);
+			}
+			// Read the new bytes and log the complete lines
+			file.seek(item.offset);
+			buffer = new byte[8192];
+			while ((count = file.read(buffer)) > 0) {
+				// Keep the start of the file to check it next time
+				if (item.offset < headLength) {
+					int headCount = (int) Math.min(count, headLength
+							- item.offset);
+					byte[] head = Arrays.copyOf(item.head, item.head.length
+							+ headCount);
+					System.arraycopy(buffer, 0, head, item.head.length,
+							headCount);
+					item.head = head;
+				}
+				item.offset += count;
+				int start = 0;
+				for (int i = 0; i < count; i++) {
+					if (buffer[i] == '\n') {
+						item.partialLine.write(buffer, start, i - start);
+						newEvents.add(log(item, null, takeLine(item)));
+						start = i + 1;
+					}
+				}
+				// Hold the rest back until its line is complete
+				item.partialLine.write(buffer, start, count - start);
+			}
+		} catch (IOException e) {
+			System.err.println("ItemStatusMonitor Message: Unable to "
+					+ "read the output file of Item " + item.itemId);
+			e.printStackTrace();
+		} finally {
+			if (file != null) {
+				try {
+					file.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation starts a new run of an Item when its output file is new
+	 * or was rewritten. The unfinished line of the last run is logged and the
+	 * file will be read from the start. The caller must hold the lock of the
+	 * Item.
+	 * </p>
+	 *
+	 * @param item
+	 *            The watched Item
+	 * @param outputFile
+	 *            The output file of the new run
+	 * @param newEvents
+	 *            The list to which the last line of the old run is added
+	 */
+	private void startRun(WatchedItem item, File outputFile,
+			ArrayList<Event> newEvents) {
+
+		if (item.partialLine.size() > 0) {
+			newEvents.add(log(item, null, takeLine(item)));
+		}
+		item.outputFile = outputFile;
+		item.offset = 0;
+		item.head = new byte[0];
+		item.runStart = nextSequence.get();
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns true if a file starts with the bytes.
+	 * </p>
+	 *
+	 * @param file
+	 *            The file
+	 * @param head
+	 *            The bytes
+	 * @return True if the first bytes of the file are the same
+	 * @throws IOException
+	 *             An exception thrown if the file can not be read
+	 */
+	private boolean startsWith(RandomAccessFile file, byte[] head)
+			throws IOException {
+
+		// Local Declarations
+		byte[] bytes = new byte[head.length];
+
+		if (file.length() < head.length) {
+			return false;
+		}
+		file.seek(0);
+		file.readFully(bytes);
+
+		return Arrays.equals(bytes, head);
+	}
+
+	/**
+	 * <p>
+	 * This operation decodes and clears the unfinished line of an Item. A
+	 * carriage return at its end is dropped. The caller must hold the lock of
+	 * the Item.
+	 * </p>
+	 *
+	 * @param item
+	 *            The watched Item
+	 * @return The line
+	 */
+	private String takeLine(WatchedItem item) {
+
+		// Local Declarations
+		String line = new String(item.partialLine.toByteArray(),
+				Charset.defaultCharset());
+
+		item.partialLine.reset();
+		if (line.endsWith("\r")) {
+			line = line.substring(0, line.length() - 1);
+		}
+
+		return line;
+	}
+
+	/**
+	 * <p>
+	 * This operation adds an event to the log of an Item, dropping the oldest
+	 * event if the log is full. The caller must hold the lock of the Item.
+	 * </p>
+	 *
+	 * @param item
+	 *            The watched Item
+	 * @param status
+	 *            The new status or null if the event is output
+	 * @param output
+	 *            The new line of output or null if the event is a status
+	 * @return The event
+	 */
+	private Event log(WatchedItem item, FormStatus status, String output) {
+
+		Event event = new Event(nextSequence.getAndIncrement(), status,
+				output);
+		if (item.events.size() == maxEvents) {
+			item.events.removeFirst();
+		}
+		item.events.addLast(event);
+		item.lastSequence = event.sequence;
+
+		return event;
+	}
+
+	/**
+	 * <p>
+	 * This operation passes an event to a listener. One bad listener must not
+	 * stop the others or the watcher thread.
+	 * </p>
+	 *
+	 * @param item
+	 *            The watched Item
+	 * @param listener
+	 *            The listener
+	 * @param event
+	 *            The event
+	 */
+	private void dispatch(WatchedItem item, IItemStatusListener listener,
+			Event event) {
+		try {
+			if (event.output != null) {
+				listener.outputPosted(item.itemId, event.output);
+			} else {
+				listener.statusChanged(item.itemId, event.status);
+			}
+		} catch (RuntimeException e) {
+			System.err.println("ItemStatusMonitor Message: A listener of "
+					+ "Item " + item.itemId + " failed to handle an event.");
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * <p>
+	 * This operation marks an Item that is no longer watched as closed and
+	 * wakes the remote clients that are waiting for it.
+	 * </p>
+	 *
+	 * @param item
+	 *            The Item
+	 */
+	private void close(WatchedItem item) {
+		synchronized (item) {
+			item.closed = true;
+			item.notifyAll();
+		}
+	}
+
+	/**
+	 * <p>
+	 * This class is a change in the status of an Item or a new line in its
+	 * output file. Exactly one of status and output is not null. It is
+	 * converted to JSON directly for remote clients.
+	 * </p>
+	 *
+	 * @author Jay Jay Billings
+	 */
+	public static class Event {
+
+		/**
+		 * The sequence number of the event
+		 */
+		public final long sequence;
+
+		/**
+		 * The new status of the Item or null if the event is output
+		 */
+		public final FormStatus status;
+
+		/**
+		 * The new line of output or null if the event is a status
+		 */
+		public final String output;
+
+		/**
+		 * The constructor
+		 *
+		 * @param sequence
+		 *            The sequence number
+		 * @param status
+		 *            The new status
+		 * @param output
+		 *            The new line of output
+		 */
+		public Event(long sequence, FormStatus status, String output) {
+			this.sequence = sequence;
+			this.status = status;
+			this.output = output;
+		}
+	}
+
+	/**
+	 * <p>
+	 * This class holds the state of a watched Item. Everything except the
+	 * listeners and the time of the last request is guarded by its own lock.
+	 * Events are only dispatched to the listeners under its dispatch lock.
+	 * </p>
+	 *
+	 * @author Jay Jay Billings
+	 */
+	private static class WatchedItem {
+
+		/**
+		 * The id of the Item
+		 */
+		private final int itemId;
+
+		/**
+		 * The listeners of the Item
+		 */
+		private final CopyOnWriteArrayList<IItemStatusListener> listeners;
+
+		/**
+		 * The lock that is held while events are dispatched to the listeners
+		 */
+		private final Object dispatchLock;
+
+		/**
+		 * The most recent events of the Item, oldest first
+		 */
+		private final ArrayDeque<Event> events;
+
+		/**
+		 * The last status of the Item that was logged or null if the Item has
+		 * not been checked yet
+		 */
+		private volatile FormStatus status;
+
+		/**
+		 * The sequence number of the last event or zero if there are none
+		 */
+		private long lastSequence;
+
+		/**
+		 * The output file that is being read or null if it does not exist yet
+		 */
+		private File outputFile;
+
+		/**
+		 * The number of bytes of the output file that have been read
+		 */
+		private long offset;
+
+		/**
+		 * The first bytes of the output file, up to headLength of them
+		 */
+		private byte[] head;
+
+		/**
+		 * The bytes of the line that is still being written
+		 */
+		private final ByteArrayOutputStream partialLine;
+
+		/**
+		 * The sequence number of the first event of the current run
+		 */
+		private long runStart;
+
+		/**
+		 * True once the Item is no longer watched
+		 */
+		private boolean closed;
+
+		/**
+		 * The number of listeners that are being added. It is guarded by the
+		 * lock of the monitor.
+		 */
+		private int pendingListeners;
+
+		/**
+		 * The time of the last remote request for the events of the Item
+		 */
+		private volatile long lastRequest;
+
+		/**
+		 * The constructor
+		 *
+		 * @param itemId
+		 *            The id of the Item
+		 */
+		public WatchedItem(int itemId) {
+			this.itemId = itemId;
+			listeners = new CopyOnWriteArrayList<IItemStatusListener>();
+			dispatchLock = new Object();
+			events = new ArrayDeque<Event>();
+			lastSequence = 0;
+			offset = 0;
+			head = new byte[0];
+			partialLine = new ByteArrayOutputStream();
+			runStart = 0;
+			closed = false;
+			pendingListeners = 0;
+			lastRequest = 0;
+		}
+	}
+}
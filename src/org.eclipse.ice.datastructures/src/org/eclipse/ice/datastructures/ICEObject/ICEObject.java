@@ -13,6 +13,8 @@
 package org.eclipse.ice.datastructures.ICEObject;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlRootElement;
@@ -90,6 +92,16 @@ public class ICEObject implements IUpdateable {
 	@XmlTransient
 	protected ArrayList<IUpdateableListener> listeners;
 
+	/**
+	 * <p>
+	 * The IIdentifiableListeners that are told right away when the id or name
+	 * of the ICEObject changes, or null if there are none.
+	 * </p>
+	 * 
+	 */
+	@XmlTransient
+	private ArrayList<IIdentifiableListener> identifiableListeners;
+
 	/**
 	 * <p>
 	 * The Constructor
@@ -116,7 +128,12 @@ public class ICEObject implements IUpdateable {
 	public void setId(int id) {
 
 		if (id >= 0) {
+			int oldId = uniqueId;
 			uniqueId = id;
+			// Tell the indexes about the new id before anything else
+			if (oldId != id) {
+				notifyIdChanged(oldId);
+			}
 			// Notify the listeners that the object has changed.
 			notifyListeners();
 		}
@@ -143,7 +160,12 @@ public class ICEObject implements IUpdateable {
 	public void setName(String name) {
 
 		if (name != null) {
+			String oldName = objectName;
 			objectName = name;
+			// Tell the indexes about the new name before anything else
+			if (!name.equals(oldName)) {
+				notifyNameChanged(oldName);
+			}
 			// Notify the listeners that the object has changed.
 			notifyListeners();
 		}
@@ -201,11 +223,115 @@ public class ICEObject implements IUpdateable {
 		if (entity == null) {
 			return;
 		}
+		// Local Declarations
+		int oldId = this.uniqueId;
+		String oldName = this.objectName;
+
 		// Copy contents of entity to this ICEObject.
 		this.objectDescription = entity.objectDescription;
 		this.objectName = entity.objectName;
 		this.uniqueId = entity.uniqueId;
 
+		// Tell the indexes if the id or name changed
+		if (oldId != uniqueId) {
+			notifyIdChanged(oldId);
+		}
+		if (objectName != null && !objectName.equals(oldName)) {
+			notifyNameChanged(oldName);
+		}
+
+	}
+
+	/**
+	 * <p>
+	 * This operation registers an IIdentifiableListener with the ICEObject. It
+	 * is only registered once, no matter how many times this operation is
+	 * called.
+	 * </p>
+	 * 
+	 * @param listener
+	 *            The listener
+	 */
+	public void registerIdentifiableListener(
+			IIdentifiableListener listener) {
+
+		// Register the listener if it is not null or already registered
+		if (listener != null) {
+			if (identifiableListeners == null) {
+				identifiableListeners = new ArrayList<IIdentifiableListener>(1);
+			}
+			if (!identifiableListeners.contains(listener)) {
+				identifiableListeners.add(listener);
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation unregisters an IIdentifiableListener from the ICEObject.
+	 * </p>
+	 * 
+	 * @param listener
+	 *            The listener
+	 */
+	public void unregisterIdentifiableListener(
+			IIdentifiableListener listener) {
+
+		// Unregister the listener if it is registered
+		if (identifiableListeners != null) {
+			identifiableListeners.remove(listener);
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the IIdentifiableListeners of the ICEObject so
+	 * that subclasses can tell them about other changes that they track.
+	 * </p>
+	 * 
+	 * @return The listeners. The list is empty if there are none.
+	 */
+	protected List<IIdentifiableListener> getIdentifiableListeners() {
+		if (identifiableListeners == null) {
+			return Collections.emptyList();
+		}
+		return identifiableListeners;
+	}
+
+	/**
+	 * <p>
+	 * This operation tells the IIdentifiableListeners that the id changed.
+	 * </p>
+	 * 
+	 * @param oldId
+	 *            The previous id
+	 */
+	private void notifyIdChanged(int oldId) {
+		if (identifiableListeners != null) {
+			for (int i = 0; i < identifiableListeners.size(); i++) {
+				identifiableListeners.get(i).idChanged(this, oldId);
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * This operation tells the IIdentifiableListeners that the name changed.
+	 * </p>
+	 * 
+	 * @param oldName
+	 *            The previous name
+	 */
+	private void notifyNameChanged(String oldName) {
+		if (identifiableListeners != null) {
+			for (int i = 0; i < identifiableListeners.size(); i++) {
+				identifiableListeners.get(i).nameChanged(this, oldName);
+			}
+		}
 	}
 
 	/**
@@ -219,8 +345,9 @@ public class ICEObject implements IUpdateable {
 
 		// Only process the update if there are listeners
 		if (listeners != null && !listeners.isEmpty()) {
-			// Create a thread on which to notify the listeners.
-			Thread notifierThread = new Thread() {
+			// Post the notification to the shared dispatcher, which merges it
+			// with any pending notification from this object.
+			NotificationDispatcher.getDefault().coalesce(this, new Runnable() {
 				@Override
 				public void run() {
 					// Loop over all listeners and update them
@@ -229,10 +356,7 @@ public class ICEObject implements IUpdateable {
 					}
 					return;
 				}
-			};
-
-			// Launch the thread and do the notifications
-			notifierThread.start();
+			});
 		}
 
 		return;
@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.ICEObject;
+
+/**
+ * <p>
+ * The IIdentifiableListener interface specifies the operations that must be
+ * realized by classes that index ICEObjects by id or name, such as Forms and
+ * DataComponents, so that they can update their indexes when an id or name
+ * changes. Unlike IUpdateableListeners, which are notified on another thread,
+ * IIdentifiableListeners are notified before setId(), setName() or copy()
+ * returns.
+ * </p>
+ *
+ * @author Jay Jay Billings
+ */
+public interface IIdentifiableListener {
+
+	/**
+	 * <p>
+	 * This operation notifies the listener that the id of an ICEObject
+	 * changed.
+	 * </p>
+	 *
+	 * @param object
+	 *            The ICEObject whose id changed
+	 * @param oldId
+	 *            The id that it had before
+	 */
+	public void idChanged(Identifiable object, int oldId);
+
+	/**
+	 * <p>
+	 * This operation notifies the listener that the name of an ICEObject
+	 * changed.
+	 * </p>
+	 *
+	 * @param object
+	 *            The ICEObject whose name changed
+	 * @param oldName
+	 *            The name that it had before
+	 */
+	public void nameChanged(Identifiable object, String oldName);
+}
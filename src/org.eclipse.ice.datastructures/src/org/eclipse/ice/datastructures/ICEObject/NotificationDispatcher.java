@@ -0,0 +1,468 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.ICEObject;
+
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * The NotificationDispatcher delivers listener notifications for ICEObjects
+ * and the other data structures in ICE that notify their listeners
+ * asynchronously. It replaces the previous practice of starting a new Thread
+ * for every notification.
+ * </p>
+ * <p>
+ * Notifications are posted against a source object. Notifications from the
+ * same source are always delivered in the order in which they were posted and
+ * never concurrently, while notifications from different sources are
+ * delivered in parallel on a small, bounded pool of worker threads. Sources
+ * are compared by reference, not by equals(), since ICEObjects have mutable,
+ * value-based equality.
+ * </p>
+ * <p>
+ * Notifications posted with {@link #coalesce(Object, Runnable)} only state
+ * that the source changed. If such a notification is still waiting to be
+ * delivered when another one arrives from the same source within the
+ * coalescing window, the two are merged and the listeners are only updated
+ * once. Notifications posted with {@link #dispatch(Object, Runnable)} carry
+ * their own data and are never merged.
+ * </p>
+ * <p>
+ * If all of the workers are busy and too many sources are waiting for them,
+ * the thread that posts a notification delivers it itself, which slows down
+ * the producers. The timer thread never delivers notifications, so a slow
+ * listener can not hold up the coalescing window of the other sources. It
+ * tries the hand-off again later instead.
+ * </p>
+ *
+ * @author Jay Jay Billings
+ */
+public class NotificationDispatcher {
+
+	/**
+	 * The shared instance used by ICEObject and its relatives.
+	 */
+	private static final NotificationDispatcher defaultDispatcher = new NotificationDispatcher(
+			Math.max(2, Runtime.getRuntime().availableProcessors()), 1024, 5);
+
+	/**
+	 * The pool of worker threads that delivers the notifications.
+	 */
+	private final ThreadPoolExecutor workers;
+
+	/**
+	 * The single thread that holds notifications during the coalescing window
+	 * before they are handed to the workers.
+	 */
+	private final ScheduledExecutorService timer;
+
+	/**
+	 * The thread of the timer. Hand-offs that the workers reject on this
+	 * thread are retried instead of being run by it.
+	 */
+	private volatile Thread timerThread;
+
+	/**
+	 * The coalescing window in milliseconds.
+	 */
+	private final long window;
+
+	/**
+	 * The queues of pending notifications, keyed by source. A source only has
+	 * a queue while it has notifications that have not been delivered. This
+	 * map is also the lock that guards all of the queues.
+	 */
+	private final Map<Object, SourceQueue> queues;
+
+	/**
+	 * The number of notifications that have been posted.
+	 */
+	private final AtomicLong queuedCount = new AtomicLong();
+
+	/**
+	 * The number of notifications that were merged into an earlier, pending
+	 * notification from the same source.
+	 */
+	private final AtomicLong coalescedCount = new AtomicLong();
+
+	/**
+	 * The number of notifications that have been delivered.
+	 */
+	private final AtomicLong deliveredCount = new AtomicLong();
+
+	/**
+	 * The constructor.
+	 *
+	 * @param threads
+	 *            The maximum number of worker threads.
+	 * @param capacity
+	 *            The number of sources that may be waiting for a worker
+	 *            thread. Once it is reached, the posting thread delivers the
+	 *            notifications itself and the timer retries its hand-offs
+	 *            later.
+	 * @param window
+	 *            The coalescing window in milliseconds. Zero disables the
+	 *            window, but notifications that are still queued will still be
+	 *            merged.
+	 */
+	public NotificationDispatcher(int threads, int capacity, long window) {
+
+		final ThreadFactory factory = new DaemonThreadFactory();
+
+		workers = new ThreadPoolExecutor(threads, threads, 30L,
+				TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(capacity),
+				factory, new ProducerRunsPolicy());
+		workers.allowCoreThreadTimeOut(true);
+		timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = factory.newThread(runnable);
+				thread.setName("ICE Notifier Timer");
+				timerThread = thread;
+				return thread;
+			}
+		});
+		this.window = Math.max(0L, window);
+		queues = new IdentityHashMap<Object, SourceQueue>();
+
+		return;
+	}
+
+	/**
+	 * This operation returns the shared NotificationDispatcher.
+	 *
+	 * @return The shared dispatcher.
+	 */
+	public static NotificationDispatcher getDefault() {
+		return defaultDispatcher;
+	}
+
+	/**
+	 * This operation shuts the dispatcher down. Notifications that are
+	 * already being delivered are finished, but pending and new notifications
+	 * are dropped. It should not be called on the shared dispatcher.
+	 */
+	public void shutdown() {
+		timer.shutdownNow();
+		workers.shutdown();
+	}
+
+	/**
+	 * This operation posts a notification that only signals that the source
+	 * has changed. It will be merged with a pending notification from the
+	 * same source if one is still waiting to be delivered.
+	 *
+	 * @param source
+	 *            The object whose listeners will be notified.
+	 * @param notification
+	 *            The task that notifies the listeners.
+	 */
+	public void coalesce(Object source, Runnable notification) {
+		post(source, notification, true);
+	}
+
+	/**
+	 * This operation posts a notification that carries its own data. It is
+	 * delivered in order with the other notifications from the same source,
+	 * but it is never merged.
+	 *
+	 * @param source
+	 *            The object whose listeners will be notified.
+	 * @param notification
+	 *            The task that notifies the listeners.
+	 */
+	public void dispatch(Object source, Runnable notification) {
+		post(source, notification, false);
+	}
+
+	/**
+	 * This operation queues a notification for the source and schedules its
+	 * delivery if nothing is already scheduled for that source.
+	 *
+	 * @param source
+	 *            The object whose listeners will be notified.
+	 * @param notification
+	 *            The task that notifies the listeners.
+	 * @param mergeable
+	 *            True if the notification may be merged with a pending one.
+	 */
+	private void post(Object source, Runnable notification, boolean mergeable) {
+
+		// Local Declarations
+		SourceQueue queue = null;
+		boolean schedule = false;
+
+		// Ignore bad input
+		if (source == null || notification == null) {
+			return;
+		}
+
+		queuedCount.incrementAndGet();
+
+		synchronized (queues) {
+			queue = queues.get(source);
+			if (queue == null) {
+				queue = new SourceQueue(source);
+				queues.put(source, queue);
+			}
+			// Merge with the last pending notification if both only say that
+			// the source changed. Merging with an earlier one would reorder
+			// the notifications.
+			if (mergeable && queue.tailMergeable) {
+				coalescedCount.incrementAndGet();
+				return;
+			}
+			queue.pending.add(notification);
+			queue.tailMergeable = mergeable;
+			if (!queue.scheduled) {
+				queue.scheduled = true;
+				schedule = true;
+			}
+		}
+
+		// Hand the queue to the workers, holding it for the window first so
+		// that bursts of updates can be merged.
+		if (schedule) {
+			if (window > 0L) {
+				try {
+					timer.schedule(new Handoff(queue), window,
+							TimeUnit.MILLISECONDS);
+				} catch (RejectedExecutionException e) {
+					// The dispatcher was shut down, so drop the notification
+				}
+			} else {
+				workers.execute(queue);
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation returns the number of notifications that have been
+	 * posted to the dispatcher.
+	 *
+	 * @return The number of posted notifications.
+	 */
+	public long getQueuedCount() {
+		return queuedCount.get();
+	}
+
+	/**
+	 * This operation returns the number of notifications that were merged
+	 * into another notification instead of being delivered separately.
+	 *
+	 * @return The number of merged notifications.
+	 */
+	public long getCoalescedCount() {
+		return coalescedCount.get();
+	}
+
+	/**
+	 * This operation returns the number of notifications that have been
+	 * delivered to listeners.
+	 *
+	 * @return The number of delivered notifications.
+	 */
+	public long getDeliveredCount() {
+		return deliveredCount.get();
+	}
+
+	/**
+	 * This class holds the pending notifications for one source. Running it
+	 * delivers the notifications in order until the queue is empty.
+	 *
+	 * @author Jay Jay Billings
+	 */
+	private class SourceQueue implements Runnable {
+
+		/**
+		 * The source whose notifications are held in this queue.
+		 */
+		private final Object source;
+
+		/**
+		 * The notifications that have not been delivered.
+		 */
+		private final ArrayDeque<Runnable> pending = new ArrayDeque<Runnable>();
+
+		/**
+		 * True if the last pending notification may be merged.
+		 */
+		private boolean tailMergeable = false;
+
+		/**
+		 * True if the queue has been handed to the timer or the workers and
+		 * has not finished draining.
+		 */
+		private boolean scheduled = false;
+
+		/**
+		 * The constructor.
+		 *
+		 * @param source
+		 *            The source of the notifications.
+		 */
+		public SourceQueue(Object source) {
+			this.source = source;
+		}
+
+		/**
+		 * (non-Javadoc)
+		 *
+		 * @see java.lang.Runnable#run()
+		 */
+		@Override
+		public void run() {
+
+			Runnable notification = null;
+
+			while (true) {
+				// Take the next notification or release the queue
+				synchronized (queues) {
+					notification = pending.poll();
+					if (notification == null) {
+						scheduled = false;
+						queues.remove(source);
+						return;
+					}
+					// Once the last notification is taken, new ones must be
+					// delivered after it rather than merged into it.
+					if (pending.isEmpty()) {
+						tailMergeable = false;
+					}
+				}
+				// Deliver it. A misbehaving listener must not stop the other
+				// notifications from this source.
+				try {
+					notification.run();
+				} catch (RuntimeException e) {
+					e.printStackTrace();
+				}
+				deliveredCount.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * This class hands a SourceQueue to the workers once the coalescing
+	 * window has passed.
+	 *
+	 * @author Jay Jay Billings
+	 */
+	private class Handoff implements Runnable {
+
+		/**
+		 * The queue to hand off.
+		 */
+		private final SourceQueue queue;
+
+		/**
+		 * The constructor.
+		 *
+		 * @param queue
+		 *            The queue to hand off.
+		 */
+		public Handoff(SourceQueue queue) {
+			this.queue = queue;
+		}
+
+		/**
+		 * (non-Javadoc)
+		 *
+		 * @see java.lang.Runnable#run()
+		 */
+		@Override
+		public void run() {
+			try {
+				workers.execute(queue);
+			} catch (RejectedExecutionException e) {
+				// The workers are saturated, so try again after another
+				// window. New notifications from the source are still merged
+				// into the queue in the meantime.
+				if (!workers.isShutdown() && !timer.isShutdown()) {
+					timer.schedule(this, Math.max(1L, window),
+							TimeUnit.MILLISECONDS);
+				}
+			}
+		}
+	}
+
+	/**
+	 * This class handles queues that the workers can not take. Posting
+	 * threads deliver the notifications themselves, which applies back
+	 * pressure to them, but the timer thread is refused so that it can retry
+	 * the hand-off. Nothing is delivered once the dispatcher is shut down.
+	 *
+	 * @author Jay Jay Billings
+	 */
+	private class ProducerRunsPolicy implements RejectedExecutionHandler {
+
+		/**
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.concurrent.RejectedExecutionHandler#rejectedExecution(java.lang.Runnable,
+		 *      java.util.concurrent.ThreadPoolExecutor)
+		 */
+		@Override
+		public void rejectedExecution(Runnable runnable,
+				ThreadPoolExecutor executor) {
+			if (executor.isShutdown()) {
+				return;
+			} else if (Thread.currentThread() == timerThread) {
+				throw new RejectedExecutionException("Notification workers "
+						+ "are saturated.");
+			}
+			runnable.run();
+		}
+	}
+
+	/**
+	 * This class creates the daemon threads used by the dispatcher so that
+	 * pending notifications never keep the JVM alive.
+	 *
+	 * @author Jay Jay Billings
+	 */
+	private static class DaemonThreadFactory implements ThreadFactory {
+
+		/**
+		 * The number of threads created so far, used to name them.
+		 */
+		private final AtomicInteger count = new AtomicInteger();
+
+		/**
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.concurrent.ThreadFactory#newThread(java.lang.Runnable)
+		 */
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "ICE Notifier "
+					+ count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,781 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.form;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+import org.eclipse.ice.datastructures.ICEObject.Component;
+
+/**
+ * <p>
+ * The BinaryFormHandler writes Forms and their Components to a compact binary
+ * stream and reads them back. It is much smaller and faster than the XML
+ * written by JAXB for Forms that contain many Entries, TableComponents or
+ * MatrixComponents.
+ * </p>
+ * <p>
+ * Forms, DataComponents, TableComponents, MatrixComponents and Entries are
+ * written field by field. Integers are written as variable length integers,
+ * matrix elements as raw doubles and every string is written only once per
+ * stream; repeated strings, such as the parent, allowed values and tags of
+ * the Entries in a table, are written as references to the first occurrence.
+ * Any other type of Component, including subclasses of the types above, is
+ * marshalled with JAXB and embedded in the stream so that nothing is lost.
+ * </p>
+ * <p>
+ * The handler keeps the string table of the stream that it is reading or
+ * writing, so reset() must be called before each new stream. It is not thread
+ * safe.
+ * </p>
+ *
+ * @author Jay Jay Billings
+ */
+public class BinaryFormHandler {
+
+	/**
+	 * The tag that marks a Component that was embedded as JAXB XML.
+	 */
+	private static final int EMBEDDED_TAG = 0;
+
+	/**
+	 * The tag that marks a Form or DataComponent.
+	 */
+	private static final int DATA_TAG = 1;
+
+	/**
+	 * The tag that marks a TableComponent.
+	 */
+	private static final int TABLE_TAG = 2;
+
+	/**
+	 * The tag that marks a MatrixComponent.
+	 */
+	private static final int MATRIX_TAG = 3;
+
+	/**
+	 * The charset used for all strings.
+	 */
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * The JAXBContext used to embed Components that are not written natively.
+	 * It may be null, in which case such Components can not be written.
+	 */
+	private final JAXBContext context;
+
+	/**
+	 * The Marshaller for embedded Components, created when it is first needed.
+	 */
+	private Marshaller marshaller;
+
+	/**
+	 * The Unmarshaller for embedded Components, created when it is first
+	 * needed.
+	 */
+	private Unmarshaller unmarshaller;
+
+	/**
+	 * The strings that have been written to the current stream and their
+	 * positions in the string table.
+	 */
+	private final HashMap<String, Integer> writtenStrings = new HashMap<String, Integer>();
+
+	/**
+	 * The strings that have been read from the current stream in the order of
+	 * the string table.
+	 */
+	private final ArrayList<String> readStrings = new ArrayList<String>();
+
+	/**
+	 * True if enumeration literals in the current stream are stored as
+	 * ordinals instead of names.
+	 */
+	private boolean enumOrdinals = false;
+
+	/**
+	 * The constructor.
+	 *
+	 * @param context
+	 *            The JAXBContext used to embed Components that are not written
+	 *            natively. It should know about every type of Component that
+	 *            may be found in the Forms.
+	 */
+	public BinaryFormHandler(JAXBContext context) {
+		this.context = context;
+	}
+
+	/**
+	 * This operation clears the string table. It must be called before a new
+	 * stream is read or written.
+	 */
+	public void reset() {
+		writtenStrings.clear();
+		readStrings.clear();
+		enumOrdinals = false;
+	}
+
+	/**
+	 * This operation sets whether the enumeration literals of the stream that
+	 * is being read are stored as single byte ordinals, as they were in
+	 * streams written before literals were written by name. It is cleared by
+	 * reset().
+	 *
+	 * @param ordinals
+	 *            True if the literals are stored as ordinals
+	 */
+	public void setEnumOrdinals(boolean ordinals) {
+		enumOrdinals = ordinals;
+	}
+
+	/**
+	 * This operation writes a Form to the stream.
+	 *
+	 * @param form
+	 *            The Form to write. It may not be null.
+	 * @param out
+	 *            The stream
+	 * @throws IOException
+	 *             An exception thrown if the stream can not be written or the
+	 *             Form contains a Component that can not be embedded.
+	 */
+	public void writeForm(Form form, DataOutput out) throws IOException {
+
+		// Subclasses of Form may carry more data, so let JAXB handle them.
+		if (form.getClass() != Form.class) {
+			out.writeByte(EMBEDDED_TAG);
+			writeEmbedded(form, out);
+			return;
+		}
+
+		out.writeByte(DATA_TAG);
+		writeVarInt(form.getId(), out);
+		writeString(form.getName(), out);
+		writeString(form.getDescription(), out);
+		writeVarInt(form.getItemID(), out);
+		out.writeBoolean(form.canProcess);
+		writeStringList(form.actionList, out);
+		ArrayList<Component> components = form.getComponents();
+		writeVarInt(components.size(), out);
+		for (Component component : components) {
+			writeComponent(component, out);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation reads a Form from the stream.
+	 *
+	 * @param in
+	 *            The stream
+	 * @return The Form
+	 * @throws IOException
+	 *             An exception thrown if the stream can not be read or it is
+	 *             not valid.
+	 */
+	public Form readForm(DataInput in) throws IOException {
+
+		// Local Declarations
+		int tag = in.readUnsignedByte();
+		Form form = null;
+
+		if (tag == EMBEDDED_TAG) {
+			form = (Form) readEmbedded(in);
+		} else if (tag == DATA_TAG) {
+			form = new Form();
+			form.setId(readVarInt(in));
+			form.setName(readString(in));
+			form.setDescription(readString(in));
+			form.setItemID(readVarInt(in));
+			form.canProcess = in.readBoolean();
+			form.actionList = readStringList(in);
+			int count = readVarInt(in);
+			for (int i = 0; i < count; i++) {
+				form.addComponent(readComponent(in));
+			}
+		} else {
+			throw new IOException("BinaryFormHandler Message: "
+					+ "Unknown Form tag " + tag + ".");
+		}
+
+		return form;
+	}
+
+	/**
+	 * This operation writes a Component to the stream.
+	 *
+	 * @param component
+	 *            The Component
+	 * @param out
+	 *            The stream
+	 * @throws IOException
+	 *             An exception thrown if the stream can not be written or the
+	 *             Component can not be embedded.
+	 */
+	private void writeComponent(Component component, DataOutput out)
+			throws IOException {
+
+		// Only exact types are written natively because subclasses may have
+		// more state.
+		Class<?> type = component.getClass();
+		if (type == DataComponent.class) {
+			out.writeByte(DATA_TAG);
+			writeDataComponent((DataComponent) component, out);
+		} else if (type == TableComponent.class) {
+			TableComponent table = (TableComponent) component;
+			out.writeByte(TABLE_TAG);
+			writeVarInt(table.getId(), out);
+			writeString(table.getName(), out);
+			writeString(table.getDescription(), out);
+			writeStringList(table.getColumnNames(), out);
+			ArrayList<DataComponent> rows = table.getRowComponents();
+			writeVarInt(rows.size(), out);
+			for (DataComponent row : rows) {
+				writeDataComponent(row, out);
+			}
+			ArrayList<Integer> selected = table.getSelectedRows();
+			writeVarInt((selected != null) ? selected.size() : 0, out);
+			if (selected != null) {
+				for (int rowId : selected) {
+					writeVarInt(rowId, out);
+				}
+			}
+		} else if (type == MatrixComponent.class) {
+			MatrixComponent matrix = (MatrixComponent) component;
+			out.writeByte(MATRIX_TAG);
+			writeVarInt(matrix.getId(), out);
+			writeString(matrix.getName(), out);
+			writeString(matrix.getDescription(), out);
+			out.writeBoolean(matrix.isSquare());
+			out.writeBoolean(matrix.isResizable());
+			writeEnum(matrix.getAllowedValueType(), out);
+			ArrayList<Double> allowed = matrix.getAllowedValues();
+			writeVarInt((allowed != null) ? allowed.size() + 1 : 0, out);
+			if (allowed != null) {
+				for (double value : allowed) {
+					out.writeDouble(value);
+				}
+			}
+			writeVarInt(matrix.numberOfRows(), out);
+			writeVarInt(matrix.numberOfColumns(), out);
+			double[] values = matrix.getElementArray();
+			writeVarInt(values.length, out);
+			for (double value : values) {
+				out.writeDouble(value);
+			}
+		} else {
+			out.writeByte(EMBEDDED_TAG);
+			writeEmbedded(component, out);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation reads a Component from the stream.
+	 *
+	 * @param in
+	 *            The stream
+	 * @return The Component
+	 * @throws IOException
+	 *             An exception thrown if the stream can not be read or it is
+	 *             not valid.
+	 */
+	private Component readComponent(DataInput in) throws IOException {
+
+		// Local Declarations
+		int tag = in.readUnsignedByte();
+		Component component = null;
+
+		if (tag == DATA_TAG) {
+			component = readDataComponent(in);
+		} else if (tag == TABLE_TAG) {
+			TableComponent table = new TableComponent();
+			table.setId(readVarInt(in));
+			table.setName(readString(in));
+			table.setDescription(readString(in));
+			ArrayList<String> names = readStringList(in);
+			int count = readVarInt(in);
+			ArrayList<DataComponent> rows = new ArrayList<DataComponent>(count);
+			for (int i = 0; i < count; i++) {
+				rows.add(readDataComponent(in));
+			}
+			count = readVarInt(in);
+			ArrayList<Integer> selected = new ArrayList<Integer>(count);
+			for (int i = 0; i < count; i++) {
+				selected.add(readVarInt(in));
+			}
+			table.restoreRows((names != null) ? names
+					: new ArrayList<String>(), rows, selected);
+			component = table;
+		} else if (tag == MATRIX_TAG) {
+			int id = readVarInt(in);
+			String name = readString(in);
+			String description = readString(in);
+			boolean square = in.readBoolean();
+			boolean resizable = in.readBoolean();
+			AllowedValueType valueType = readEnum(AllowedValueType.values(),
+					in);
+			MatrixComponent matrix = new MatrixComponent(square, valueType);
+			matrix.setId(id);
+			matrix.setName(name);
+			matrix.setDescription(description);
+			matrix.setResizable(resizable);
+			ArrayList<Double> allowed = null;
+			int count = readVarInt(in);
+			if (count > 0) {
+				allowed = new ArrayList<Double>(count - 1);
+				for (int i = 0; i < count - 1; i++) {
+					allowed.add(in.readDouble());
+				}
+			}
+			int rows = readVarInt(in);
+			int cols = readVarInt(in);
+			double[] values = new double[readVarInt(in)];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = in.readDouble();
+			}
+			matrix.restoreElements(rows, cols, values, allowed);
+			component = matrix;
+		} else if (tag == EMBEDDED_TAG) {
+			component = (Component) readEmbedded(in);
+		} else {
+			throw new IOException("BinaryFormHandler Message: "
+					+ "Unknown Component tag " + tag + ".");
+		}
+
+		return component;
+	}
+
+	/**
+	 * This operation writes a DataComponent, which may be a row of a table,
+	 * without its tag.
+	 *
+	 * @param component
+	 *            The DataComponent
+	 * @param out
+	 *            The stream
+	 * @throws IOException
+	 *             An exception thrown if the stream can not be written.
+	 */
+	private void writeDataComponent(DataComponent component, DataOutput out)
+			throws IOException {
+
+		ArrayList<Entry> entries = component.retrieveAllEntries();
+
+		writeVarInt(component.getId(), out);
+		writeString(component.getName(), out);
+		writeString(component.getDescription(), out);
+		writeVarInt(entries.size(), out);
+		for (Entry entry : entries) {
+			writeEntry(entry, out);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation reads a DataComponent without its tag.
+	 *
+	 * @param in
+	 *            The stream
+	 * @return The DataComponent
+	 * @throws IOException
+	 *             An exception thrown if the stream can not be read.
+	 */
+	private DataComponent readDataComponent(DataInput in) throws IOException {
+
+		DataComponent component = new DataComponent();
+
+		component.setId(readVarInt(in));
+		component.setName(readString(in));
+		component.setDescription(readString(in));
+		int count = readVarInt(in);
+		for (int i = 0; i < count; i++) {
+			component.addEntry(readEntry(in));
+		}
+
+		return component;
+	}
+
+	/**
+	 * This operation writes an Entry. Like JAXB, it writes the content
+	 * provider as a BasicEntryContentProvider.
+	 *
+	 * @param entry
+	 *            The Entry
+	 * @param out
+	 *            The stream
+	 * @throws IOException
+	 *             An exception thrown if the stream can not be written.
+	 */
+	private void writeEntry(Entry entry, DataOutput out) throws IOException {
+
+		IEntryContentProvider provider = entry.iEntryContentProvider;
+		int flags = (entry.ready ? 1 : 0) | (entry.changeState ? 2 : 0)
+				| (entry.secretFlag ? 4 : 0) | (entry.required ? 8 : 0)
+				| (provider != null ? 16 : 0);
+
+		writeVarInt(entry.getId(), out);
+		writeString(entry.getName(), out);
+		writeString(entry.getDescription(), out);
+		out.writeByte(flags);
+		writeString(entry.value, out);
+		writeString(entry.defaultValue, out);
+		writeString(entry.comment, out);
+		writeString(entry.parent, out);
+		writeString(entry.tag, out);
+		writeString(entry.errorMessage, out);
+		writeEnum(entry.allowedValueType, out);
+		writeStringList(entry.allowedValues, out);
+		if (provider != null) {
+			writeString(provider.getDefaultValue(), out);
+			writeString(provider.getParent(), out);
+			writeString(provider.getTag(), out);
+			writeEnum(provider.getAllowedValueType(), out);
+			writeStringList(provider.getAllowedValues(), out);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation reads an Entry.
+	 *
+	 * @param in
+	 *            The stream
+	 * @return The Entry
+	 * @throws IOException
+	 *             An exception thrown if the stream can not be read.
+	 */
+	private Entry readEntry(DataInput in) throws IOException {
+
+		Entry entry = new Entry();
+
+		entry.setId(readVarInt(in));
+		entry.setName(readString(in));
+		entry.setDescription(readString(in));
+		int flags = in.readUnsignedByte();
+		entry.ready = (flags & 1) != 0;
+		entry.changeState = (flags & 2) != 0;
+		entry.secretFlag = (flags & 4) != 0;
+		entry.required = (flags & 8) != 0;
+		entry.value = readString(in);
+		entry.defaultValue = readString(in);
+		entry.comment = readString(in);
+		entry.parent = readString(in);
+		entry.tag = readString(in);
+		entry.errorMessage = readString(in);
+		entry.allowedValueType = readEnum(AllowedValueType.values(), in);
+		ArrayList<String> allowedValues = readStringList(in);
+		entry.allowedValues = (allowedValues != null) ? allowedValues
+				: new ArrayList<String>();
+		if ((flags & 16) != 0) {
+			BasicEntryContentProvider provider = new BasicEntryContentProvider();
+			provider.setDefaultValue(readString(in));
+			provider.setParent(readString(in));
+			provider.setTag(readString(in));
+			provider.setAllowedValueType(readEnum(AllowedValueType.values(),
+					in));
+			provider.setAllowedValues(readStringList(in));
+			entry.iEntryContentProvider = provider;
+		}
+
+		return entry;
+	}
+
+	/**
+	 * This operation marshals an object with JAXB and writes the XML to the
+	 * stream, preceded by its length.
+	 *
+	 * @param object
+	 *            The object
+	 * @param out
+	 *            The stream
+	 * @throws IOException
+	 *             An exception thrown if the object can not be marshalled.
+	 */
+	private void writeEmbedded(Object object, DataOutput out)
+			throws IOException {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+
+		try {
+			if (marshaller == null) {
+				if (context == null) {
+					throw new JAXBException("No JAXBContext is available for "
+							+ object.getClass().getName() + ".");
+				}
+				marshaller = context.createMarshaller();
+			}
+			marshaller.marshal(object, bytes);
+		} catch (JAXBException e) {
+			throw new IOException(e);
+		}
+		writeVarInt(bytes.size(), out);
+		out.write(bytes.toByteArray());
+
+		return;
+	}
+
+	/**
+	 * This operation reads an object that was embedded as JAXB XML.
+	 *
+	 * @param in
+	 *            The stream
+	 * @return The object
+	 * @throws IOException
+	 *             An exception thrown if the object can not be unmarshalled.
+	 */
+	private Object readEmbedded(DataInput in) throws IOException {
+
+		byte[] bytes = new byte[readVarInt(in)];
+		in.readFully(bytes);
+
+		try {
+			if (unmarshaller == null) {
+				if (context == null) {
+					throw new JAXBException("No JAXBContext is available to "
+							+ "read an embedded Component.");
+				}
+				unmarshaller = context.createUnmarshaller();
+			}
+			return unmarshaller.unmarshal(new ByteArrayInputStream(bytes));
+		} catch (JAXBException e) {
+			throw new IOException(e);
+		}
+	}
+
+	/**
+	 * This operation writes a string. New strings are written in full and
+	 * added to the string table while strings that are already in the table
+	 * are written as their position in it.
+	 *
+	 * @param value
+	 *            The string, which may be null
+	 * @param out
+	 *            The stream
+	 * @throws IOException
+	 *             An exception thrown if the stream can not be written.
+	 */
+	public void writeString(String value, DataOutput out) throws IOException {
+
+		if (value == null) {
+			writeVarInt(0, out);
+		} else {
+			Integer index = writtenStrings.get(value);
+			if (index != null) {
+				writeVarInt(index + 2, out);
+			} else {
+				byte[] bytes = value.getBytes(UTF8);
+				writtenStrings.put(value, writtenStrings.size());
+				writeVarInt(1, out);
+				writeVarInt(bytes.length, out);
+				out.write(bytes);
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation reads a string written by writeString().
+	 *
+	 * @param in
+	 *            The stream
+	 * @return The string, which may be null
+	 * @throws IOException
+	 *             An exception thrown if the stream can not be read or the
+	 *             string refers to a position that is not in the table.
+	 */
+	public String readString(DataInput in) throws IOException {
+
+		// Local Declarations
+		int code = readVarInt(in);
+		String value = null;
+
+		if (code == 1) {
+			byte[] bytes = new byte[readVarInt(in)];
+			in.readFully(bytes);
+			value = new String(bytes, UTF8);
+			readStrings.add(value);
+		} else if (code > 1) {
+			if (code - 2 >= readStrings.size()) {
+				throw new IOException("BinaryFormHandler Message: "
+						+ "Invalid string reference " + code + ".");
+			}
+			value = readStrings.get(code - 2);
+		}
+
+		return value;
+	}
+
+	/**
+	 * This operation writes a list of strings or null.
+	 *
+	 * @param values
+	 *            The list, which may be null
+	 * @param out
+	 *            The stream
+	 * @throws IOException
+	 *             An exception thrown if the stream can not be written.
+	 */
+	public void writeStringList(ArrayList<String> values, DataOutput out)
+			throws IOException {
+		writeVarInt((values != null) ? values.size() + 1 : 0, out);
+		if (values != null) {
+			for (String value : values) {
+				writeString(value, out);
+			}
+		}
+	}
+
+	/**
+	 * This operation reads a list of strings written by writeStringList().
+	 *
+	 * @param in
+	 *            The stream
+	 * @return The list, which may be null
+	 * @throws IOException
+	 *             An exception thrown if the stream can not be read.
+	 */
+	public ArrayList<String> readStringList(DataInput in) throws IOException {
+
+		ArrayList<String> values = null;
+		int count = readVarInt(in);
+
+		if (count > 0) {
+			values = new ArrayList<String>(count - 1);
+			for (int i = 0; i < count - 1; i++) {
+				values.add(readString(in));
+			}
+		}
+
+		return values;
+	}
+
+	/**
+	 * This operation writes an enumeration literal or null. The literal is
+	 * written by name with writeString() so that reordering or adding
+	 * literals does not change the meaning of existing streams.
+	 *
+	 * @param value
+	 *            The literal, which may be null
+	 * @param out
+	 *            The stream
+	 * @throws IOException
+	 *             An exception thrown if the stream can not be written.
+	 */
+	public void writeEnum(Enum<?> value, DataOutput out) throws IOException {
+		writeString((value != null) ? value.name() : null, out);
+	}
+
+	/**
+	 * This operation reads an enumeration literal written by writeEnum(). If
+	 * setEnumOrdinals() was called with true, the literal is read as the
+	 * single byte ordinal used by older streams instead.
+	 *
+	 * @param values
+	 *            The literals of the enumeration
+	 * @param in
+	 *            The stream
+	 * @return The literal, which may be null
+	 * @throws IOException
+	 *             An exception thrown if the stream can not be read or the
+	 *             literal does not exist.
+	 */
+	public <T extends Enum<T>> T readEnum(T[] values, DataInput in)
+			throws IOException {
+
+		// Read the single byte ordinals of old streams
+		if (enumOrdinals) {
+			int code = in.readUnsignedByte();
+			if (code > values.length) {
+				throw new IOException("BinaryFormHandler Message: "
+						+ "Invalid enumeration value " + code + ".");
+			}
+			return (code > 0) ? values[code - 1] : null;
+		}
+
+		// Otherwise look the literal up by name
+		String name = readString(in);
+		if (name == null) {
+			return null;
+		}
+		for (T value : values) {
+			if (value.name().equals(name)) {
+				return value;
+			}
+		}
+
+		throw new IOException("BinaryFormHandler Message: "
+				+ "Invalid enumeration value " + name + ".");
+	}
+
+	/**
+	 * This operation writes an integer in one to five bytes. Small values,
+	 * positive or negative, take the fewest bytes.
+	 *
+	 * @param value
+	 *            The integer
+	 * @param out
+	 *            The stream
+	 * @throws IOException
+	 *             An exception thrown if the stream can not be written.
+	 */
+	public static void writeVarInt(int value, DataOutput out)
+			throws IOException {
+		// Move the sign to the lowest bit so that -1 is as short as 1
+		int bits = (value << 1) ^ (value >> 31);
+		while ((bits & ~0x7F) != 0) {
+			out.writeByte((bits & 0x7F) | 0x80);
+			bits >>>= 7;
+		}
+		out.writeByte(bits);
+	}
+
+	/**
+	 * This operation reads an integer written by writeVarInt().
+	 *
+	 * @param in
+	 *            The stream
+	 * @return The integer
+	 * @throws IOException
+	 *             An exception thrown if the stream can not be read or the
+	 *             integer is too long.
+	 */
+	public static int readVarInt(DataInput in) throws IOException {
+		int bits = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int b = in.readUnsignedByte();
+			bits |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return (bits >>> 1) ^ -(bits & 1);
+			}
+		}
+		throw new IOException("BinaryFormHandler Message: "
+				+ "Malformed integer.");
+	}
+}
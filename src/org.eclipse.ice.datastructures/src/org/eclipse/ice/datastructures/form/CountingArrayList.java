@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.form;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * <p>
+ * This class is an ArrayList that counts how many times it has been changed.
+ * DataComponents and Forms hand out their lists, so they compare the count
+ * with the count at which they last updated their indexes to find out whether
+ * a list was changed through the reference that they handed out.
+ * </p>
+ *
+ * @author Jay Jay Billings
+ */
+class CountingArrayList<E> extends ArrayList<E> {
+
+	/**
+	 * The serial version id.
+	 */
+	private static final long serialVersionUID = 4207936458013457201L;
+
+	/**
+	 * The number of elements that have been replaced with set(), which does
+	 * not count as a structural modification of an ArrayList.
+	 */
+	private int replacements = 0;
+
+	/**
+	 * The constructor.
+	 */
+	CountingArrayList() {
+		super();
+	}
+
+	/**
+	 * The constructor that fills the list with the elements of a collection.
+	 *
+	 * @param elements
+	 *            The elements
+	 */
+	CountingArrayList(Collection<? extends E> elements) {
+		super(elements);
+	}
+
+	/**
+	 * This operation returns the number of times that the list has been
+	 * changed.
+	 *
+	 * @return The number of changes
+	 */
+	int getChangeCount() {
+		return modCount + replacements;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see ArrayList#set(int, Object)
+	 */
+	@Override
+	public E set(int index, E element) {
+		E previous = super.set(index, element);
+		replacements++;
+		return previous;
+	}
+
+}
@@ -13,14 +13,19 @@
 package org.eclipse.ice.datastructures.form;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
 
 import org.eclipse.ice.datastructures.ICEObject.Component;
 import org.eclipse.ice.datastructures.ICEObject.ICEObject;
+import org.eclipse.ice.datastructures.ICEObject.IIdentifiableListener;
 import org.eclipse.ice.datastructures.ICEObject.IUpdateable;
 import org.eclipse.ice.datastructures.ICEObject.IUpdateableListener;
+import org.eclipse.ice.datastructures.ICEObject.Identifiable;
 import org.eclipse.ice.datastructures.componentVisitor.IComponentVisitor;
 
 /**
@@ -30,17 +35,60 @@ import org.eclipse.ice.datastructures.componentVisitor.IComponentVisitor;
  * Entries that are related to each other in some way and to accept updates from
  * dispatched from the Registry.
  * </p>
+ * <p>
+ * The Entries are indexed by name. The index is updated by the operations
+ * that add, delete or rename Entries, so several threads may look up Entries
+ * at the same time as long as none of them changes the DataComponent. If the
+ * list from retrieveAllEntries() is changed directly, Entries are found by
+ * searching the list until the DataComponent is changed again.
+ * </p>
  * 
  * @author Jay Jay Billings
  */
 @XmlRootElement(name = "DataComponent")
 public class DataComponent extends ICEObject implements Component,
-		IUpdateableListener {
+		IUpdateableListener, IIdentifiableListener {
 	/**
 	 */
 	@XmlElement(name = "Entry")
 	private ArrayList<Entry> entries;
 
+	/**
+	 * <p>
+	 * The revision of the Form in which the value of one of the Entries last
+	 * changed, or zero if none have.
+	 * </p>
+	 */
+	@XmlAttribute()
+	private long revision = 0;
+
+	/**
+	 * <p>
+	 * An index of the Entries by name. Each name maps to the first Entry with
+	 * that name, which is the Entry that a linear search would find.
+	 * </p>
+	 */
+	private HashMap<String, Entry> entryIndex;
+
+	/**
+	 * <p>
+	 * The change count of the list of Entries when the index was last
+	 * updated. If it differs from the current count, the list was changed
+	 * through the reference returned by retrieveAllEntries().
+	 * </p>
+	 */
+	private int indexedChangeCount = 0;
+
+	/**
+	 * <p>
+	 * The number of times that an Entry in the DataComponent was renamed or
+	 * given a different parent. Together with the change count of the list of
+	 * Entries, it tells clients such as Items whether the dependencies between
+	 * the Entries may have changed.
+	 * </p>
+	 */
+	private int entryChangeCount = 0;
+
 	/**
 	 * <p>
 	 * The Constructor
@@ -49,8 +97,9 @@ public class DataComponent extends ICEObject implements Component,
 	 */
 	public DataComponent() {
 
-		// Setup the list of Entries
-		entries = new ArrayList<Entry>();
+		// Setup the list of Entries and its index
+		entries = new CountingArrayList<Entry>();
+		entryIndex = new HashMap<String, Entry>();
 
 	}
 
@@ -68,9 +117,16 @@ public class DataComponent extends ICEObject implements Component,
 
 		// Add the Entry if it is not null
 		if (newEntry != null) {
+			updateIndex();
 			entries.add(newEntry);
+			// Index it unless an earlier Entry has the same name
+			if (!entryIndex.containsKey(newEntry.getName())) {
+				entryIndex.put(newEntry.getName(), newEntry);
+			}
+			indexedChangeCount = getChangeCount();
 			// Register the data component as a listener of the Entry
 			newEntry.register(this);
+			newEntry.registerIdentifiableListener(this);
 			// Notify the listeners that the component has changed
 			notifyListeners();
 		}
@@ -110,7 +166,13 @@ public class DataComponent extends ICEObject implements Component,
 
 		// Clear the list of Entries if it is not already empty
 		if (!entries.isEmpty()) {
+			for (Entry entry : entries) {
+				entry.unregister(this);
+				entry.unregisterIdentifiableListener(this);
+			}
 			entries.clear();
+			entryIndex.clear();
+			indexedChangeCount = getChangeCount();
 			notifyListeners();
 		}
 
@@ -131,17 +193,21 @@ public class DataComponent extends ICEObject implements Component,
 
 		// FIXME - Entry names are not necessarily unique!
 
-		// Local Declarations
-		int i = 0;
-
 		// Make sure the entryName is not null
 		if (entryName != null) {
-			// Find and delete the Entry or Entries with this name. A linear
-			// search is OK since the list should be small
-			for (i = 0; i < entries.size(); i++) {
-				if (entries.get(i).getName().equals(entryName)) {
-					entries.remove(i);
+			// Find and delete the Entry or Entries with this name. The list
+			// is only searched if the index has an Entry with the name.
+			updateIndex();
+			if (entryIndex.containsKey(entryName)) {
+				for (int i = entries.size() - 1; i >= 0; i--) {
+					if (entries.get(i).getName().equals(entryName)) {
+						Entry entry = entries.remove(i);
+						entry.unregister(this);
+						entry.unregisterIdentifiableListener(this);
+					}
 				}
+				entryIndex.remove(entryName);
+				indexedChangeCount = getChangeCount();
 			}
 
 			// Notify the listeners
@@ -165,14 +231,7 @@ public class DataComponent extends ICEObject implements Component,
 	 *         </p>
 	 */
 	public Entry retrieveEntry(String entryName) {
-
-		for (Entry j : entries) {
-			if (j.getName().equals(entryName)) {
-				return j;
-			}
-		}
-
-		return null;
+		return getIndexedEntry(entryName);
 	}
 
 	/**
@@ -235,14 +294,226 @@ public class DataComponent extends ICEObject implements Component,
 	 *         </p>
 	 */
 	public boolean contains(String entryName) {
+		return getIndexedEntry(entryName) != null;
+	}
 
-		for (Entry i : entries) {
-			if (i.getName().equals(entryName)) {
-				return true;
+	/**
+	 * <p>
+	 * This operation returns the first Entry with a name. It does not change
+	 * the index, so it is safe to call from several threads at once.
+	 * </p>
+	 * 
+	 * @param entryName
+	 *            <p>
+	 *            The name of the Entry.
+	 *            </p>
+	 * @return <p>
+	 *         The Entry or null if there is no Entry with that name.
+	 *         </p>
+	 */
+	private Entry getIndexedEntry(String entryName) {
+
+		// Local Declarations
+		Entry entry = null;
+
+		if (entryName != null) {
+			if (indexedChangeCount == getChangeCount()) {
+				entry = entryIndex.get(entryName);
+			} else {
+				// Search the list if it was changed directly
+				entry = findEntry(entryName);
+			}
+		}
+
+		return entry;
+	}
+
+	/**
+	 * <p>
+	 * This operation searches the list for the first Entry with a name.
+	 * </p>
+	 * 
+	 * @param entryName
+	 *            <p>
+	 *            The name of the Entry.
+	 *            </p>
+	 * @return <p>
+	 *         The Entry or null if there is no Entry with that name.
+	 *         </p>
+	 */
+	private Entry findEntry(String entryName) {
+
+		for (int i = 0; i < entries.size(); i++) {
+			if (entryName.equals(entries.get(i).getName())) {
+				return entries.get(i);
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the change count of the list of Entries.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The change count
+	 *         </p>
+	 */
+	private int getChangeCount() {
+		return ((CountingArrayList<Entry>) entries).getChangeCount();
+	}
+
+	/**
+	 * <p>
+	 * This operation rebuilds the index if the list of Entries was changed
+	 * directly since the index was last updated. It must only be called by
+	 * operations that change the DataComponent.
+	 * </p>
+	 */
+	private void updateIndex() {
+
+		if (indexedChangeCount != getChangeCount()) {
+			entryIndex.clear();
+			for (Entry entry : entries) {
+				if (!entryIndex.containsKey(entry.getName())) {
+					entryIndex.put(entry.getName(), entry);
+				}
+				// Entries added to the list directly must report new names
+				entry.registerIdentifiableListener(this);
 			}
+			indexedChangeCount = getChangeCount();
 		}
 
-		return false;
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation is called by the Entries of the DataComponent when they
+	 * are renamed. It moves the Entry in the index, and indexes the next
+	 * Entry with the old name if there is one.
+	 * </p>
+	 * 
+	 * @see IIdentifiableListener#nameChanged(Identifiable, String)
+	 */
+	@Override
+	public void nameChanged(Identifiable object, String oldName) {
+
+		// Local Declarations
+		String name = object.getName();
+
+		// Dependencies are declared by name, so a rename changes them
+		entryChangeCount++;
+
+		if (indexedChangeCount != getChangeCount()) {
+			updateIndex();
+		} else {
+			for (String key : new String[] { oldName, name }) {
+				Entry entry = (key != null) ? findEntry(key) : null;
+				if (entry != null) {
+					entryIndex.put(key, entry);
+				} else {
+					entryIndex.remove(key);
+				}
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation is called by the Entries of the DataComponent when their
+	 * parents change.
+	 * </p>
+	 * 
+	 * @param entry
+	 *            <p>
+	 *            The Entry whose parent changed
+	 *            </p>
+	 */
+	void parentChanged(Entry entry) {
+		entryChangeCount++;
+	}
+
+	/**
+	 * <p>
+	 * This operation is called by the Entries of the DataComponent when their
+	 * values change. It passes the change on to the Forms that hold the
+	 * DataComponent so that they can mark the Entry with a new revision.
+	 * </p>
+	 * 
+	 * @param entry
+	 *            <p>
+	 *            The Entry whose value changed
+	 *            </p>
+	 */
+	void valueChanged(Entry entry) {
+		for (IIdentifiableListener listener : getIdentifiableListeners()) {
+			if (listener instanceof Form) {
+				((Form) listener).entryChanged(this, entry);
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * This operation returns a count that changes every time that an Entry is
+	 * added to, removed from or replaced in the DataComponent, or one of its
+	 * Entries is renamed or given a different parent. It does not change when
+	 * only the values of the Entries change. Clients that depend on the
+	 * structure of the Entries can compare it with the count at which they
+	 * last looked at them instead of walking the Entries again.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The structure change count
+	 *         </p>
+	 */
+	public int getStructureChangeCount() {
+		return getChangeCount() + entryChangeCount;
+	}
+
+	/**
+	 * <p>
+	 * Entries are not indexed by id, so this operation does nothing.
+	 * </p>
+	 * 
+	 * @see IIdentifiableListener#idChanged(Identifiable, int)
+	 */
+	@Override
+	public void idChanged(Identifiable object, int oldId) {
+		// Nothing to do
+	}
+
+	/**
+	 * <p>
+	 * This operation is called by JAXB after the DataComponent is
+	 * unmarshalled. It registers the DataComponent with the Entries that JAXB
+	 * read, like addEntry() does, and indexes them.
+	 * </p>
+	 * 
+	 * @param unmarshaller
+	 *            <p>
+	 *            The Unmarshaller
+	 *            </p>
+	 * @param parent
+	 *            <p>
+	 *            The parent of the DataComponent in the document
+	 *            </p>
+	 */
+	private void afterUnmarshal(Unmarshaller unmarshaller, Object parent) {
+		if (!(entries instanceof CountingArrayList)) {
+			entries = new CountingArrayList<Entry>(entries);
+		}
+		for (Entry entry : entries) {
+			entry.register(this);
+			entry.registerIdentifiableListener(this);
+		}
+		indexedChangeCount = -1;
+		updateIndex();
 	}
 
 	/**
@@ -338,12 +609,21 @@ public class DataComponent extends ICEObject implements Component,
 			super.copy((ICEObject) otherDataComponent);
 
 			// reset entries
+			for (Entry entry : entries) {
+				entry.unregister(this);
+				entry.unregisterIdentifiableListener(this);
+			}
 			entries.clear();
+			revision = otherDataComponent.revision;
 
 			// Copy entries
 			for (int i = 0; i < otherDataComponent.entries.size(); i++) {
-				entries.add((Entry) otherDataComponent.entries.get(i).clone());
+				Entry entry = (Entry) otherDataComponent.entries.get(i).clone();
+				entries.add(entry);
+				entry.register(this);
 			}
+			indexedChangeCount = -1;
+			updateIndex();
 
 			notifyListeners();
 		}
@@ -411,4 +691,34 @@ public class DataComponent extends ICEObject implements Component,
 
 	}
 
+	/**
+	 * <p>
+	 * This operation returns the revision of the Form in which the value of
+	 * one of the Entries last changed. Forms use it to skip DataComponents
+	 * that have not changed.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The revision, or zero if no Entries have changed.
+	 *         </p>
+	 */
+	public long getRevision() {
+		return revision;
+	}
+
+	/**
+	 * <p>
+	 * This operation sets the revision of the Form in which the value of one
+	 * of the Entries last changed. It is only called by the Form.
+	 * </p>
+	 * 
+	 * @param newRevision
+	 *            <p>
+	 *            The revision
+	 *            </p>
+	 */
+	void setRevision(long newRevision) {
+		revision = newRevision;
+	}
+
 }
\ No newline at end of file
@@ -26,6 +26,7 @@ import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.XmlTransient;
 
 import org.eclipse.ice.datastructures.ICEObject.ICEObject;
+import org.eclipse.ice.datastructures.ICEObject.IIdentifiableListener;
 import org.eclipse.ice.datastructures.ICEObject.IUpdateable;
 import org.eclipse.ice.datastructures.ICEObject.IUpdateableListener;
 
@@ -224,6 +225,13 @@ public class Entry extends ICEObject implements IUpdateable {
 	 */
 	protected boolean required = false;
 
+	/**
+	 * The revision of the Form in which the value of the Entry last changed,
+	 * or zero if it has not changed since the Form was created.
+	 */
+	@XmlAttribute()
+	protected long revision = 0;
+
 	/**
 	 * A constructor that will create an Entry with only a unique ID and a name.
 	 * Default values are set:
@@ -435,7 +443,45 @@ public class Entry extends ICEObject implements IUpdateable {
 
 		// Take the parent name so long as it is not null
 		if (parentName != null) {
+			String oldParent = getParent();
 			this.iEntryContentProvider.setParent(parentName);
+			notifyParentChanged(oldParent);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation tells the DataComponents that hold this Entry that its
+	 * value changed so that the Form that holds them can mark the Entry with a
+	 * new revision.
+	 */
+	private void notifyValueChanged() {
+		for (IIdentifiableListener listener : getIdentifiableListeners()) {
+			if (listener instanceof DataComponent) {
+				((DataComponent) listener).valueChanged(this);
+			}
+		}
+	}
+
+	/**
+	 * This operation tells the DataComponents that hold this Entry that its
+	 * parent changed, if it did, so that they can report it as a change to
+	 * the structure of their Entries.
+	 * 
+	 * @param oldParent
+	 *            The name of the parent before the change
+	 */
+	private void notifyParentChanged(String oldParent) {
+
+		String newParent = getParent();
+		if (oldParent == null ? newParent != null : !oldParent
+				.equals(newParent)) {
+			for (IIdentifiableListener listener : getIdentifiableListeners()) {
+				if (listener instanceof DataComponent) {
+					((DataComponent) listener).parentChanged(this);
+				}
+			}
 		}
 
 		return;
@@ -597,6 +643,7 @@ public class Entry extends ICEObject implements IUpdateable {
 
 		// Notify the listeners of the change if the value was correctly set
 		if (returnCode) {
+			notifyValueChanged();
 			notifyListeners();
 		}
 		return returnCode;
@@ -780,6 +827,9 @@ public class Entry extends ICEObject implements IUpdateable {
 			return;
 		}
 
+		// Remember the parent so that a change can be reported
+		String oldParent = getParent();
+
 		// copy from super class
 		super.copy((ICEObject) otherEntry);
 
@@ -794,6 +844,7 @@ public class Entry extends ICEObject implements IUpdateable {
 		this.parent = otherEntry.parent;
 		this.tag = otherEntry.tag;
 		this.required = otherEntry.required;
+		this.revision = otherEntry.revision;
 		this.iEntryContentProvider = (IEntryContentProvider) otherEntry.iEntryContentProvider
 				.clone();
 		// Deep copy allowed Values
@@ -803,6 +854,7 @@ public class Entry extends ICEObject implements IUpdateable {
 		}
 
 		// Notify all of the people watching this Entry
+		notifyParentChanged(oldParent);
 		notifyListeners();
 
 		return;
@@ -899,7 +951,9 @@ public class Entry extends ICEObject implements IUpdateable {
 	public void setContentProvider(IEntryContentProvider contentProvider) {
 
 		if (contentProvider != null) {
+			String oldParent = getParent();
 			this.iEntryContentProvider = contentProvider;
+			notifyParentChanged(oldParent);
 		}
 
 		return;
@@ -927,4 +981,26 @@ public class Entry extends ICEObject implements IUpdateable {
 		required = entryRequired;
 		return;
 	}
+
+	/**
+	 * This operation returns the revision of the Form in which the value of
+	 * the Entry last changed.
+	 * 
+	 * @return The revision, or zero if it has not changed since the Form was
+	 *         created.
+	 */
+	public long getRevision() {
+		return revision;
+	}
+
+	/**
+	 * This operation sets the revision of the Form in which the value of the
+	 * Entry last changed. It is only called by the Form.
+	 * 
+	 * @param newRevision
+	 *            The revision
+	 */
+	void setRevision(long newRevision) {
+		revision = newRevision;
+	}
 }
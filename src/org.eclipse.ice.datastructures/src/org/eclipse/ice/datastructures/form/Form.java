@@ -13,7 +13,9 @@
 package org.eclipse.ice.datastructures.form;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 
+import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.XmlAnyElement;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
@@ -23,6 +25,7 @@ import javax.xml.bind.annotation.XmlRootElement;
 import org.eclipse.ice.datastructures.ICEObject.Component;
 import org.eclipse.ice.datastructures.ICEObject.Composite;
 import org.eclipse.ice.datastructures.ICEObject.ICEObject;
+import org.eclipse.ice.datastructures.ICEObject.IIdentifiableListener;
 import org.eclipse.ice.datastructures.ICEObject.IUpdateableListener;
 import org.eclipse.ice.datastructures.ICEObject.Identifiable;
 import org.eclipse.ice.datastructures.componentVisitor.IComponentVisitor;
@@ -43,11 +46,20 @@ import org.eclipse.ice.datastructures.componentVisitor.IComponentVisitor;
  * information provided so that a task can be performed with no modification.
  * isReady() should always return true for such a Form, newly created.
  * </p>
+ * <p>
+ * The Components are indexed by id. The index is updated by the operations
+ * that add or remove Components and when the id of a Component that is an
+ * ICEObject changes, so several threads may look up Components at the same
+ * time as long as none of them changes the Form. If the list from
+ * getComponents() is changed directly, Components are found by searching the
+ * list until the Form is changed again.
+ * </p>
  * 
  * @author Jay Jay Billings
  */
 @XmlRootElement(name = "Form")
-public class Form extends ICEObject implements Composite {
+public class Form extends ICEObject implements Composite,
+		IIdentifiableListener {
 	/**
 	 * <p>
 	 * The unique ID of the Item that is represented by this Form.
@@ -66,6 +78,34 @@ public class Form extends ICEObject implements Composite {
 	@XmlAnyElement(lax=true)
 	private ArrayList<Component> componentList;
 
+	/**
+	 * <p>
+	 * An index of the Components by id. Each id maps to the first Component
+	 * in the list with that id.
+	 * </p>
+	 * 
+	 */
+	private HashMap<Integer, Component> componentIndex;
+
+	/**
+	 * <p>
+	 * The change count of the list of Components when the index was last
+	 * updated. If it differs from the current count, the list was changed
+	 * through the reference returned by getComponents().
+	 * </p>
+	 * 
+	 */
+	private int indexedChangeCount = 0;
+
+	/**
+	 * <p>
+	 * The number of indexed Components that are not ICEObjects. These
+	 * Components do not report new ids, so the index may miss them.
+	 * </p>
+	 * 
+	 */
+	private int untrackedComponentCount = 0;
+
 	/**
 	 * <p>
 	 * The list of Actions that can be performed for this Form when it is
@@ -85,6 +125,26 @@ public class Form extends ICEObject implements Composite {
 	 */
 	protected boolean canProcess = true;
 
+	/**
+	 * <p>
+	 * The revision of the Form. It is incremented each time a FormPatch is
+	 * applied to the Form and each time the value of an Entry in one of its
+	 * DataComponents is set directly.
+	 * </p>
+	 * 
+	 */
+	@XmlAttribute()
+	private long revision = 0;
+
+	/**
+	 * <p>
+	 * True while a FormPatch is being applied, which marks the Entries that
+	 * it changes itself.
+	 * </p>
+	 * 
+	 */
+	private boolean patching = false;
+
 	/**
 	 * <p>
 	 * The constructor. This constructor requires a list of Actions for which
@@ -98,8 +158,9 @@ public class Form extends ICEObject implements Composite {
 		// Setup the Form ID
 		this.itemID = 0;
 
-		// Setup the list of Components
-		this.componentList = new ArrayList<Component>();
+		// Setup the list of Components and its index
+		this.componentList = new CountingArrayList<Component>();
+		this.componentIndex = new HashMap<Integer, Component>();
 
 		// Setup the list of Listeners
 		listeners = new ArrayList<IUpdateableListener>();
@@ -367,16 +428,24 @@ public class Form extends ICEObject implements Composite {
 		}
 
 		// Copy components - Deep copy
+		for (Component comp : this.componentList) {
+			if (comp instanceof ICEObject) {
+				((ICEObject) comp).unregisterIdentifiableListener(this);
+			}
+		}
 		this.componentList.clear();
 		for (int i = 0; i < otherForm.componentList.size(); i++) {
 			Identifiable compWithId = (Identifiable) otherForm.componentList
 					.get(i).clone();
 			this.componentList.add((Component) compWithId);
 		}
+		this.indexedChangeCount = -1;
+		updateIndex();
 
 		// Copy the Item information
 		this.itemID = otherForm.itemID;
 		this.canProcess = otherForm.canProcess;
+		this.revision = otherForm.revision;
 
 		// Throw up a flare
 		this.notifyListeners();
@@ -418,7 +487,20 @@ public class Form extends ICEObject implements Composite {
 
 		// Add the child component if it is not null and update listeners
 		if (child != null) {
+			updateIndex();
 			componentList.add(child);
+			// Index it unless an earlier Component has the same id
+			Integer childId = ((Identifiable) child).getId();
+			if (!componentIndex.containsKey(childId)) {
+				componentIndex.put(childId, child);
+			}
+			indexedChangeCount = getChangeCount();
+			// Listen for changes to its id
+			if (child instanceof ICEObject) {
+				((ICEObject) child).registerIdentifiableListener(this);
+			} else {
+				untrackedComponentCount++;
+			}
 			notifyListeners();
 		} else {
 			// Otherwise throw an error exception
@@ -438,14 +520,26 @@ public class Form extends ICEObject implements Composite {
 	public void removeComponent(int childId) {
 
 		// Local Declarations
-		Identifiable comp = null; // FIXME - might not be an ICEObject!
-
-		for (int i = 0; i < componentList.size(); i++) {
-			comp = (Identifiable) componentList.get(i);
-			if (comp.getId() == childId) {
-				componentList.remove(i);
-				break;
+		Component comp = null;
+
+		// Remove the Component if it exists and index the next Component with
+		// the same id, which may have been shadowed by it
+		updateIndex();
+		comp = getComponent(childId);
+		if (comp != null) {
+			for (int i = 0; i < componentList.size(); i++) {
+				if (componentList.get(i) == comp) {
+					componentList.remove(i);
+					break;
+				}
+			}
+			if (!(comp instanceof ICEObject)) {
+				untrackedComponentCount--;
+			} else if (findComponent(comp) < 0) {
+				((ICEObject) comp).unregisterIdentifiableListener(this);
 			}
+			indexId(childId);
+			indexedChangeCount = getChangeCount();
 		}
 
 		return;
@@ -461,11 +555,42 @@ public class Form extends ICEObject implements Composite {
 	public Component getComponent(int childId) {
 
 		// Local Declarations
-		Identifiable comp = null;
+		Component comp = null;
+
+		// Use the index unless the list was changed directly. The index is
+		// never changed here, so this is safe to call from several threads.
+		if (indexedChangeCount == getChangeCount()) {
+			comp = componentIndex.get(childId);
+			// Components that are not ICEObjects do not report new ids, so
+			// the index may be stale or miss them altogether
+			if ((comp != null && ((Identifiable) comp).getId() != childId)
+					|| (comp == null && untrackedComponentCount > 0)) {
+				comp = searchComponents(childId);
+			}
+		} else {
+			comp = searchComponents(childId);
+		}
+
+		return comp;
+	}
+
+	/**
+	 * <p>
+	 * This operation searches the list for the first Component with an id.
+	 * </p>
+	 * 
+	 * @param childId
+	 *            <p>
+	 *            The id
+	 *            </p>
+	 * @return <p>
+	 *         The Component or null if there is no Component with the id
+	 *         </p>
+	 */
+	private Component searchComponents(int childId) {
 
 		for (int i = 0; i < componentList.size(); i++) {
-			comp = (Identifiable) componentList.get(i);
-			if (comp.getId() == childId) {
+			if (((Identifiable) componentList.get(i)).getId() == childId) {
 				return componentList.get(i);
 			}
 		}
@@ -473,6 +598,176 @@ public class Form extends ICEObject implements Composite {
 		return null;
 	}
 
+	/**
+	 * <p>
+	 * This operation returns the position of a Component in the list.
+	 * </p>
+	 * 
+	 * @param comp
+	 *            <p>
+	 *            The Component
+	 *            </p>
+	 * @return <p>
+	 *         The index of the Component or -1 if it is not in the list
+	 *         </p>
+	 */
+	private int findComponent(Component comp) {
+
+		for (int i = 0; i < componentList.size(); i++) {
+			if (componentList.get(i) == comp) {
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * <p>
+	 * This operation indexes the first Component with an id, or removes the
+	 * id from the index if there is no such Component.
+	 * </p>
+	 * 
+	 * @param childId
+	 *            <p>
+	 *            The id
+	 *            </p>
+	 */
+	private void indexId(int childId) {
+
+		// Local Declarations
+		Component comp = searchComponents(childId);
+
+		if (comp != null) {
+			componentIndex.put(childId, comp);
+		} else {
+			componentIndex.remove(childId);
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the change count of the list of Components.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The change count
+	 *         </p>
+	 */
+	private int getChangeCount() {
+		return ((CountingArrayList<Component>) componentList).getChangeCount();
+	}
+
+	/**
+	 * <p>
+	 * This operation returns a count that changes every time that a Component
+	 * is added to, removed from or replaced in the Form, including changes
+	 * made through the list returned by getComponents(). Clients that depend
+	 * on the structure of the Form can compare it with the count at which they
+	 * last looked at it instead of walking the Components again.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The structure change count
+	 *         </p>
+	 */
+	public int getStructureChangeCount() {
+		return getChangeCount();
+	}
+
+	/**
+	 * <p>
+	 * This operation rebuilds the index if the list of Components was changed
+	 * directly since the index was last updated. It must only be called by
+	 * operations that change the Form.
+	 * </p>
+	 * 
+	 */
+	private void updateIndex() {
+
+		// Local Declarations
+		Integer id = null;
+
+		if (indexedChangeCount != getChangeCount()) {
+			componentIndex.clear();
+			untrackedComponentCount = 0;
+			for (Component comp : componentList) {
+				id = ((Identifiable) comp).getId();
+				if (!componentIndex.containsKey(id)) {
+					componentIndex.put(id, comp);
+				}
+				// Components added to the list directly must report new ids
+				if (comp instanceof ICEObject) {
+					((ICEObject) comp).registerIdentifiableListener(this);
+				} else {
+					untrackedComponentCount++;
+				}
+			}
+			indexedChangeCount = getChangeCount();
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation is called by the Components of the Form when their ids
+	 * change. It moves the Component in the index, and indexes the next
+	 * Component with the old id if there is one.
+	 * </p>
+	 * 
+	 * @see IIdentifiableListener#idChanged(Identifiable, int)
+	 */
+	@Override
+	public void idChanged(Identifiable object, int oldId) {
+
+		if (indexedChangeCount != getChangeCount()) {
+			updateIndex();
+		} else {
+			indexId(oldId);
+			indexId(object.getId());
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Components are not indexed by name, so this operation does nothing.
+	 * </p>
+	 * 
+	 * @see IIdentifiableListener#nameChanged(Identifiable, String)
+	 */
+	@Override
+	public void nameChanged(Identifiable object, String oldName) {
+		// Nothing to do
+	}
+
+	/**
+	 * <p>
+	 * This operation is called by JAXB after the Form is unmarshalled. It
+	 * indexes the Components that JAXB read.
+	 * </p>
+	 * 
+	 * @param unmarshaller
+	 *            <p>
+	 *            The Unmarshaller
+	 *            </p>
+	 * @param parent
+	 *            <p>
+	 *            The parent of the Form in the document
+	 *            </p>
+	 */
+	private void afterUnmarshal(Unmarshaller unmarshaller, Object parent) {
+		if (!(componentList instanceof CountingArrayList)) {
+			componentList = new CountingArrayList<Component>(componentList);
+		}
+		indexedChangeCount = -1;
+		updateIndex();
+	}
+
 	/**
 	 * (non-Javadoc)
 	 * 
@@ -492,4 +787,255 @@ public class Form extends ICEObject implements Composite {
 	public ArrayList<Component> getComponents() {
 		return this.componentList;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * <p>
+	 * This operation returns the revision of the Form, which is incremented
+	 * each time a FormPatch is applied to it or the value of one of its
+	 * Entries is set.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The revision
+	 *         </p>
+	 */
+	public long getRevision() {
+		return revision;
+	}
+
+	/**
+	 * <p>
+	 * This operation sets the revision of the Form and marks every Entry in its
+	 * DataComponents as changed in that revision. It is used when a Form is
+	 * replaced outright instead of patched, so that clients that ask for the
+	 * changes since an earlier revision get every Entry.
+	 * </p>
+	 * 
+	 * @param newRevision
+	 *            <p>
+	 *            The new revision of the Form
+	 *            </p>
+	 */
+	public synchronized void markChanged(long newRevision) {
+
+		revision = newRevision;
+		for (Component component : componentList) {
+			if (component instanceof DataComponent) {
+				DataComponent dataComponent = (DataComponent) component;
+				dataComponent.setRevision(newRevision);
+				for (Entry entry : dataComponent.retrieveAllEntries()) {
+					entry.setRevision(newRevision);
+				}
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns a FormPatch with the current value of every
+	 * Entry that changed after a revision of the Form. DataComponents that
+	 * have not changed since then are skipped without looking at their
+	 * Entries.
+	 * </p>
+	 * 
+	 * @param sinceRevision
+	 *            <p>
+	 *            The revision after which the changes should be returned. It
+	 *            is zero for every Entry that was ever patched.
+	 *            </p>
+	 * @return <p>
+	 *         The patch. Its base revision is sinceRevision and its revision is
+	 *         the current revision of the Form.
+	 *         </p>
+	 */
+	public synchronized FormPatch getChanges(long sinceRevision) {
+
+		// Local Declarations
+		FormPatch patch = new FormPatch(this);
+
+		patch.setBaseRevision(sinceRevision);
+		for (Component component : componentList) {
+			if (component instanceof DataComponent
+					&& ((DataComponent) component).getRevision() > sinceRevision) {
+				DataComponent dataComponent = (DataComponent) component;
+				for (Entry entry : dataComponent.retrieveAllEntries()) {
+					if (entry.getRevision() > sinceRevision) {
+						patch.addAppliedChange(dataComponent.getId(),
+								entry.getName(), entry.getValue(),
+								entry.getRevision());
+					}
+				}
+			}
+		}
+
+		return patch;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns true if a FormPatch changes an Entry that was
+	 * changed after the revision on which the patch is based, which means that
+	 * the patch would overwrite a change that its author has not seen.
+	 * </p>
+	 * 
+	 * @param patch
+	 *            <p>
+	 *            The patch
+	 *            </p>
+	 * @return <p>
+	 *         True if the patch conflicts with the Form, false otherwise.
+	 *         </p>
+	 */
+	public synchronized boolean hasConflicts(FormPatch patch) {
+
+		for (FormPatch.EntryChange change : patch.getChanges()) {
+			Entry entry = getEntry(change);
+			if (entry != null && entry.getRevision() > patch.getBaseRevision()) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * <p>
+	 * This operation applies a FormPatch to the Form in place. Either all of
+	 * the changes are applied or none are: the patch is rejected if it belongs
+	 * to another Form, if an Entry does not exist, if it conflicts with the
+	 * Form (c.f. hasConflicts()) or if an Entry rejects its new value.
+	 * </p>
+	 * <p>
+	 * If the patch is applied, the revision of the Form is incremented, or set
+	 * to the revision of the patch if that is greater, and the changed Entries
+	 * and their DataComponents are marked with it.
+	 * </p>
+	 * 
+	 * @param patch
+	 *            <p>
+	 *            The patch
+	 *            </p>
+	 * @return <p>
+	 *         A patch that restores the previous values of the changed
+	 *         Entries, or null if the patch was rejected.
+	 *         </p>
+	 */
+	public synchronized FormPatch applyPatch(FormPatch patch) {
+
+		// Local Declarations
+		ArrayList<FormPatch.EntryChange> changes = null;
+		Entry[] entries = null;
+		String[] oldValues = null;
+		FormPatch undo = null;
+		long newRevision = 0;
+
+		// Make sure the patch is for this Form
+		if (patch == null || patch.getFormId() != getId()
+				|| patch.getItemID() != itemID) {
+			return null;
+		}
+
+		// Find every Entry and check for conflicts before changing anything
+		changes = patch.getChanges();
+		entries = new Entry[changes.size()];
+		oldValues = new String[changes.size()];
+		for (int i = 0; i < entries.length; i++) {
+			entries[i] = getEntry(changes.get(i));
+			if (entries[i] == null
+					|| entries[i].getRevision() > patch.getBaseRevision()) {
+				return null;
+			}
+		}
+
+		// Set the values, restoring the earlier ones in reverse order if one
+		// is rejected. The Entries are marked below, not by entryChanged().
+		patching = true;
+		try {
+			for (int i = 0; i < entries.length; i++) {
+				oldValues[i] = entries[i].getValue();
+				if (!entries[i].setValue(changes.get(i).getValue())) {
+					for (int j = i - 1; j >= 0; j--) {
+						entries[j].setValue(oldValues[j]);
+					}
+					return null;
+				}
+			}
+		} finally {
+			patching = false;
+		}
+
+		// Mark the changes with the new revision
+		newRevision = entries.length > 0 ? Math.max(revision + 1,
+				patch.getRevision()) : Math.max(revision, patch.getRevision());
+		revision = newRevision;
+		undo = new FormPatch(this);
+		for (int i = 0; i < entries.length; i++) {
+			FormPatch.EntryChange change = changes.get(i);
+			entries[i].setRevision(newRevision);
+			((DataComponent) getComponent(change.getComponentId()))
+					.setRevision(newRevision);
+			undo.addChange(change.getComponentId(), change.getEntryName(),
+					oldValues[i]);
+		}
+
+		return undo;
+	}
+
+	/**
+	 * <p>
+	 * This operation is called by the DataComponents of the Form when the
+	 * value of one of their Entries is set outside of applyPatch(), for
+	 * example by an editor. It increments the revision of the Form and marks
+	 * the Entry and the DataComponent with it so that getChanges() and
+	 * hasConflicts() see the change.
+	 * </p>
+	 * 
+	 * @param component
+	 *            <p>
+	 *            The DataComponent that holds the Entry
+	 *            </p>
+	 * @param entry
+	 *            <p>
+	 *            The Entry whose value changed
+	 *            </p>
+	 */
+	synchronized void entryChanged(DataComponent component, Entry entry) {
+
+		if (!patching) {
+			revision++;
+			entry.setRevision(revision);
+			component.setRevision(revision);
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the Entry that is changed by an EntryChange.
+	 * </p>
+	 * 
+	 * @param change
+	 *            <p>
+	 *            The change
+	 *            </p>
+	 * @return <p>
+	 *         The Entry or null if the DataComponent or the Entry does not
+	 *         exist.
+	 *         </p>
+	 */
+	private Entry getEntry(FormPatch.EntryChange change) {
+
+		// Local Declarations
+		Component component = getComponent(change.getComponentId());
+
+		if (component instanceof DataComponent) {
+			return ((DataComponent) component).retrieveEntry(change
+					.getEntryName());
+		}
+
+		return null;
+	}
+}
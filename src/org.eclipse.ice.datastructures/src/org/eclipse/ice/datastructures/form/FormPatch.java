@@ -0,0 +1,388 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.form;
+
+import java.util.ArrayList;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * <p>
+ * A FormPatch carries the changes to the values of some of the Entries in a
+ * Form so that clients and the Core can exchange only what changed instead of
+ * the whole Form. Each change is keyed by the id of the DataComponent that
+ * holds the Entry and the name of the Entry.
+ * </p>
+ * <p>
+ * Every Form has a revision that is incremented each time a patch is applied
+ * to it, and every DataComponent and Entry records the revision in which it
+ * last changed. A patch records the revision of the Form on which its changes
+ * were based. Form.applyPatch() rejects a patch that changes an Entry that was
+ * changed after that revision, so two clients can edit different Entries of
+ * the same Form at the same time, but one cannot silently overwrite the other.
+ * </p>
+ * <p>
+ * Form.getChanges() creates a patch with every Entry that changed after a
+ * given revision, which clients use to catch up with the Core.
+ * </p>
+ *
+ * @author Jay Jay Billings
+ */
+@XmlRootElement(name = "FormPatch")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class FormPatch {
+
+	/**
+	 * The id of the Item that is represented by the Form.
+	 */
+	@XmlAttribute()
+	private int itemID;
+
+	/**
+	 * The id of the Form.
+	 */
+	@XmlAttribute()
+	private int formId;
+
+	/**
+	 * The revision of the Form on which the changes are based.
+	 */
+	@XmlAttribute()
+	private long baseRevision;
+
+	/**
+	 * The revision of the Form when the patch was created.
+	 */
+	@XmlAttribute()
+	private long revision;
+
+	/**
+	 * The status of the Item after the patch was applied. It is only set in
+	 * the patches that the Core returns to clients.
+	 */
+	@XmlElement(name = "Status")
+	private FormStatus status;
+
+	/**
+	 * The changes to the Entries.
+	 */
+	@XmlElement(name = "Change")
+	private ArrayList<EntryChange> changes;
+
+	/**
+	 * The nullary constructor. It is required for persistence.
+	 */
+	public FormPatch() {
+		changes = new ArrayList<EntryChange>();
+	}
+
+	/**
+	 * This constructor creates an empty patch for changes to a Form, based on
+	 * its current revision.
+	 *
+	 * @param form
+	 *            The Form that will be changed
+	 */
+	public FormPatch(Form form) {
+		this();
+		itemID = form.getItemID();
+		formId = form.getId();
+		baseRevision = form.getRevision();
+		revision = baseRevision;
+	}
+
+	/**
+	 * This operation returns the id of the Item that is represented by the
+	 * Form.
+	 *
+	 * @return The id of the Item
+	 */
+	public int getItemID() {
+		return itemID;
+	}
+
+	/**
+	 * This operation sets the id of the Item that is represented by the Form.
+	 *
+	 * @param itemID
+	 *            The id of the Item
+	 */
+	public void setItemID(int itemID) {
+		this.itemID = itemID;
+	}
+
+	/**
+	 * This operation returns the id of the Form.
+	 *
+	 * @return The id of the Form
+	 */
+	public int getFormId() {
+		return formId;
+	}
+
+	/**
+	 * This operation sets the id of the Form.
+	 *
+	 * @param formId
+	 *            The id of the Form
+	 */
+	public void setFormId(int formId) {
+		this.formId = formId;
+	}
+
+	/**
+	 * This operation returns the revision of the Form on which the changes are
+	 * based.
+	 *
+	 * @return The base revision
+	 */
+	public long getBaseRevision() {
+		return baseRevision;
+	}
+
+	/**
+	 * This operation sets the revision of the Form on which the changes are
+	 * based.
+	 *
+	 * @param baseRevision
+	 *            The base revision
+	 */
+	public void setBaseRevision(long baseRevision) {
+		this.baseRevision = baseRevision;
+	}
+
+	/**
+	 * This operation returns the revision of the Form when the patch was
+	 * created. It is the same as the base revision for patches created by
+	 * clients.
+	 *
+	 * @return The revision
+	 */
+	public long getRevision() {
+		return revision;
+	}
+
+	/**
+	 * This operation sets the revision of the Form when the patch was created.
+	 *
+	 * @param revision
+	 *            The revision
+	 */
+	public void setRevision(long revision) {
+		this.revision = revision;
+	}
+
+	/**
+	 * This operation returns the status of the Item after the patch was
+	 * applied.
+	 *
+	 * @return The status or null if it was not set
+	 */
+	public FormStatus getStatus() {
+		return status;
+	}
+
+	/**
+	 * This operation sets the status of the Item after the patch was applied.
+	 *
+	 * @param status
+	 *            The status
+	 */
+	public void setStatus(FormStatus status) {
+		this.status = status;
+	}
+
+	/**
+	 * This operation adds a change to the value of an Entry. A later change to
+	 * the same Entry replaces an earlier one.
+	 *
+	 * @param componentId
+	 *            The id of the DataComponent that holds the Entry
+	 * @param entryName
+	 *            The name of the Entry
+	 * @param value
+	 *            The new value of the Entry
+	 */
+	public void addChange(int componentId, String entryName, String value) {
+		addChange(componentId, entryName, value, 0);
+	}
+
+	/**
+	 * This operation adds a change to the value of an Entry along with the
+	 * revision in which it was made.
+	 *
+	 * @param componentId
+	 *            The id of the DataComponent that holds the Entry
+	 * @param entryName
+	 *            The name of the Entry
+	 * @param value
+	 *            The new value of the Entry
+	 * @param entryRevision
+	 *            The revision of the Form in which the Entry changed
+	 */
+	void addChange(int componentId, String entryName, String value,
+			long entryRevision) {
+
+		// Replace an earlier change to the same Entry
+		for (int i = 0; i < changes.size(); i++) {
+			EntryChange change = changes.get(i);
+			if (change.componentId == componentId
+					&& change.entryName.equals(entryName)) {
+				changes.remove(i);
+				break;
+			}
+		}
+		addAppliedChange(componentId, entryName, value, entryRevision);
+
+		return;
+	}
+
+	/**
+	 * This operation adds a change that the Form already knows to be unique,
+	 * without looking for an earlier change to the same Entry.
+	 *
+	 * @param componentId
+	 *            The id of the DataComponent that holds the Entry
+	 * @param entryName
+	 *            The name of the Entry
+	 * @param value
+	 *            The value of the Entry
+	 * @param entryRevision
+	 *            The revision of the Form in which the Entry changed
+	 */
+	void addAppliedChange(int componentId, String entryName, String value,
+			long entryRevision) {
+		changes.add(new EntryChange(componentId, entryName, value,
+				entryRevision));
+	}
+
+	/**
+	 * This operation returns the changes in the patch.
+	 *
+	 * @return The changes in the order in which they were added
+	 */
+	public ArrayList<EntryChange> getChanges() {
+		return changes;
+	}
+
+	/**
+	 * This operation returns true if the patch has no changes.
+	 *
+	 * @return True if there are no changes, false otherwise
+	 */
+	public boolean isEmpty() {
+		return changes.isEmpty();
+	}
+
+	/**
+	 * An EntryChange is the new value of a single Entry.
+	 *
+	 * @author Jay Jay Billings
+	 */
+	@XmlAccessorType(XmlAccessType.FIELD)
+	public static class EntryChange {
+
+		/**
+		 * The id of the DataComponent that holds the Entry
+		 */
+		@XmlAttribute()
+		private int componentId;
+
+		/**
+		 * The name of the Entry
+		 */
+		@XmlAttribute()
+		private String entryName;
+
+		/**
+		 * The new value of the Entry
+		 */
+		@XmlElement(name = "Value")
+		private String value;
+
+		/**
+		 * The revision of the Form in which the Entry changed, or zero if the
+		 * change has not been applied yet
+		 */
+		@XmlAttribute()
+		private long revision;
+
+		/**
+		 * The nullary constructor. It is required for persistence.
+		 */
+		public EntryChange() {
+		}
+
+		/**
+		 * The constructor
+		 *
+		 * @param componentId
+		 *            The id of the DataComponent that holds the Entry
+		 * @param entryName
+		 *            The name of the Entry
+		 * @param value
+		 *            The new value of the Entry
+		 * @param revision
+		 *            The revision of the Form in which the Entry changed
+		 */
+		public EntryChange(int componentId, String entryName, String value,
+				long revision) {
+			this.componentId = componentId;
+			this.entryName = entryName;
+			this.value = value;
+			this.revision = revision;
+		}
+
+		/**
+		 * This operation returns the id of the DataComponent that holds the
+		 * Entry.
+		 *
+		 * @return The id of the DataComponent
+		 */
+		public int getComponentId() {
+			return componentId;
+		}
+
+		/**
+		 * This operation returns the name of the Entry.
+		 *
+		 * @return The name of the Entry
+		 */
+		public String getEntryName() {
+			return entryName;
+		}
+
+		/**
+		 * This operation returns the new value of the Entry.
+		 *
+		 * @return The value
+		 */
+		public String getValue() {
+			return value;
+		}
+
+		/**
+		 * This operation returns the revision of the Form in which the Entry
+		 * changed.
+		 *
+		 * @return The revision or zero if the change has not been applied
+		 */
+		public long getRevision() {
+			return revision;
+		}
+	}
+}
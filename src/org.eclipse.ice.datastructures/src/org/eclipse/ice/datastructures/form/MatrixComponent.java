@@ -13,7 +13,10 @@
 package org.eclipse.ice.datastructures.form;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
@@ -39,6 +42,13 @@ import org.eclipse.ice.datastructures.componentVisitor.IComponentVisitor;
  * an element of a desired set of elements, or the matrix elements must exist
  * within a given range of values.
  * </p>
+ * <p>
+ * The elements are stored in a single double array in row-major order. The
+ * array grows by half of its size when the matrix needs more room, so adding
+ * rows and columns does not reallocate it every time. The getRow(), getColumn()
+ * and getBlock() operations that take an array copy values into the array that
+ * is passed in without boxing them.
+ * </p>
  * 
  * @author Jay Jay Billings
  */
@@ -56,13 +66,24 @@ public class MatrixComponent extends ICEObject implements Component {
 
 	/**
 	 * <p>
-	 * The individual elements of this matrix. This is a list of n*m double
-	 * values for a given matrix of size nxm.
+	 * The individual elements of this matrix. The first n*m values of this
+	 * array are the elements of a matrix of size nxm in row-major order. The
+	 * array may be longer than that so that the matrix can grow.
 	 * </p>
 	 * 
 	 */
-	@XmlElement
-	private ArrayList<Double> elements;
+	@XmlTransient
+	private double[] elements;
+
+	/**
+	 * <p>
+	 * The elements of this matrix as a list of n*m values. It is only used to
+	 * read and write the elements with JAXB and it is null otherwise.
+	 * </p>
+	 * 
+	 */
+	@XmlElement(name = "elements")
+	private ArrayList<Double> elementList;
 	/**
 	 * <p>
 	 * Reference to the current number of rows in this matrix.
@@ -185,8 +206,7 @@ public class MatrixComponent extends ICEObject implements Component {
 		this.valueType = allowedValueType;
 
 		// Setup a 1x1 matrix.
-		this.elements = new ArrayList<Double>();
-		elements.add(0.0);
+		this.elements = new double[1];
 		this.nCols = 1;
 		this.nRows = 1;
 
@@ -228,21 +248,19 @@ public class MatrixComponent extends ICEObject implements Component {
 
 		// If there is only 1 element in the list and its not default, delete
 		// the whole entity and reset
-		if (elements.size() == 1 && elements.get(0) != defaultValue) {
-			this.elements = new ArrayList<Double>();
-			this.elements.add(defaultValue);
+		if (size() == 1 && elements[0] != defaultValue) {
+			this.elements = new double[] { defaultValue };
 			return true; // Return
-		} else if (elements.size() == 1 && elements.get(0) == defaultValue) {
+		} else if (size() == 1 && elements[0] == defaultValue) {
 			return false; // Nothing to delete, return
 		}
 
 		// If there is only one row, delete whole row, reset to 1x1 matrix, and
 		// return true
-		if (elements.size() == this.nCols) {
+		if (size() == this.nCols) {
 			this.nCols = 1;
 			this.nRows = 1;
-			this.elements = new ArrayList<Double>();
-			this.elements.add(defaultValue);
+			this.elements = new double[] { defaultValue };
 			return true; // Return
 		}
 
@@ -321,10 +339,8 @@ public class MatrixComponent extends ICEObject implements Component {
 		if (otherMatrixComponent.elements == null) {
 			this.elements = otherMatrixComponent.elements;
 		} else {
-			this.elements = new ArrayList<Double>();
-			for (int i = 0; i < otherMatrixComponent.elements.size(); i++) {
-				this.elements.add(otherMatrixComponent.elements.get(i));
-			}
+			this.elements = Arrays.copyOf(otherMatrixComponent.elements,
+					otherMatrixComponent.size());
 		}
 
 		// get other attributes
@@ -396,10 +412,12 @@ public class MatrixComponent extends ICEObject implements Component {
 
 		retVal = (this.isSquare == castedComponent.isSquare)
 				&& (this.resizable == castedComponent.resizable)
-				&& (this.allowedValues.equals(castedComponent.allowedValues))
-				&& (this.elements.equals(castedComponent.elements))
+				&& (this.allowedValues == null ? castedComponent.allowedValues == null
+						: this.allowedValues
+								.equals(castedComponent.allowedValues))
 				&& (this.nCols == castedComponent.nCols)
 				&& (this.nRows == castedComponent.nRows)
+				&& elementsEqual(castedComponent)
 				&& (this.valueType == castedComponent.valueType);
 		return retVal;
 
@@ -435,9 +453,15 @@ public class MatrixComponent extends ICEObject implements Component {
 			hash = 31 * hash + this.allowedValues.hashCode();
 		}
 
-		// if elements are not null
+		// if elements are not null. This is the same hash as a list of the
+		// elements.
 		if (this.elements != null) {
-			hash = 31 * hash + this.elements.hashCode();
+			int elementHash = 1;
+			for (int i = 0; i < size(); i++) {
+				long bits = Double.doubleToLongBits(elements[i]);
+				elementHash = 31 * elementHash + (int) (bits ^ (bits >>> 32));
+			}
+			hash = 31 * hash + elementHash;
 		}
 
 		// Value type
@@ -531,21 +555,19 @@ public class MatrixComponent extends ICEObject implements Component {
 
 		// If there is only 1 element in the list and its not default, delete
 		// the whole entity and reset
-		if (elements.size() == 1 && elements.get(0) != defaultValue) {
-			this.elements = new ArrayList<Double>();
-			this.elements.add(defaultValue);
+		if (size() == 1 && elements[0] != defaultValue) {
+			this.elements = new double[] { defaultValue };
 			return true; // Return
-		} else if (elements.size() == 1 && elements.get(0) == defaultValue) {
+		} else if (size() == 1 && elements[0] == defaultValue) {
 			return false; // Nothing to delete, return
 		}
 
 		// If there is only one col, delete whole col, reset to 1x1 matrix, and
 		// return true
-		if (elements.size() == this.nRows) {
+		if (size() == this.nRows) {
 			this.nCols = 1;
 			this.nRows = 1;
-			this.elements = new ArrayList<Double>();
-			this.elements.add(defaultValue);
+			this.elements = new double[] { defaultValue };
 			return true; // Return
 		}
 
@@ -621,7 +643,7 @@ public class MatrixComponent extends ICEObject implements Component {
 			return false;
 		}
 
-		elements.set(nCols * rowIndex + colIndex, value);
+		elements[nCols * rowIndex + colIndex] = value;
 
 		// notify listeners
 		this.notifyListeners();
@@ -666,7 +688,7 @@ public class MatrixComponent extends ICEObject implements Component {
 			return null;
 		}
 
-		return this.elements.get(nCols * rowIndex + colIndex);
+		return this.elements[nCols * rowIndex + colIndex];
 
 	}
 
@@ -707,11 +729,11 @@ public class MatrixComponent extends ICEObject implements Component {
 		// This should not happen, but this is a safety feature. Values can only
 		// be set IFF there is
 		// only a fresh matrix
-		if (this.elements.size() > 1 || this.elements.isEmpty()) {
+		if (size() != 1) {
 			return;
 		}
 
-		elements.set(0, values.get(0));
+		elements[0] = values.get(0);
 
 		// Set values - Do a copy
 		this.allowedValues = new ArrayList<Double>();
@@ -735,8 +757,7 @@ public class MatrixComponent extends ICEObject implements Component {
 		this.valueType = AllowedValueType.Undefined;
 
 		// Setup a 1x1 matrix.
-		this.elements = new ArrayList<Double>();
-		elements.add(0.0);
+		this.elements = new double[1];
 		this.nCols = 1;
 		this.nRows = 1;
 
@@ -759,8 +780,7 @@ public class MatrixComponent extends ICEObject implements Component {
 		this.valueType = AllowedValueType.Undefined;
 
 		// Setup a 1x1 matrix.
-		this.elements = new ArrayList<Double>();
-		elements.add(0.0);
+		this.elements = new double[1];
 		this.nCols = 1;
 		this.nRows = 1;
 
@@ -790,14 +810,14 @@ public class MatrixComponent extends ICEObject implements Component {
 		}
 
 		// create a new double array
-		rowArray = new ArrayList<Double>();
+		rowArray = new ArrayList<Double>(this.nCols);
 
 		// Figure out where in the elements list the item is
 		placeInElements = this.nCols * index;
 
 		// copy contents of row
 		for (int i = placeInElements; i < this.nCols * (index + 1); i++) {
-			rowArray.add(this.elements.get(i));
+			rowArray.add(this.elements[i]);
 		}
 
 		// return array
@@ -820,7 +840,6 @@ public class MatrixComponent extends ICEObject implements Component {
 	public ArrayList<Double> getColumn(int index) {
 		// Local declarations
 		ArrayList<Double> colArray;
-		int placeInElements = -1;
 
 		// If the index is negative or out of range, return null
 		if (index < 0 || index >= nCols) {
@@ -828,20 +847,135 @@ public class MatrixComponent extends ICEObject implements Component {
 		}
 
 		// create a new double array
-		colArray = new ArrayList<Double>();
+		colArray = new ArrayList<Double>(this.nRows);
 
-		// Figure out where in the elements list the item is
-		placeInElements = this.nRows * index;
-
-		// copy contents of row
-		for (int i = placeInElements; i < this.nRows * (index + 1); i++) {
-			colArray.add(this.elements.get(i));
+		// copy contents of the column, which is every nCols-th element
+		for (int i = index; i < size(); i += this.nCols) {
+			colArray.add(this.elements[i]);
 		}
 
 		// return array
 		return colArray;
 	}
 
+	/**
+	 * <p>
+	 * Copy a row of values at the given index into an array. The array must
+	 * have room for at least numberOfColumns() values.
+	 * </p>
+	 * 
+	 * @param index
+	 *            <p>
+	 *            The index of the row.
+	 *            </p>
+	 * @param row
+	 *            <p>
+	 *            The array that will hold the row.
+	 *            </p>
+	 * @return <p>
+	 *         True if the row was copied, false if the index was out of range
+	 *         or the array was too small.
+	 *         </p>
+	 */
+	public boolean getRow(int index, double[] row) {
+
+		// Check the index and the array
+		if (index < 0 || index >= nRows || row == null || row.length < nCols) {
+			return false;
+		}
+
+		// Rows are contiguous, so just copy it
+		System.arraycopy(elements, nCols * index, row, 0, nCols);
+
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * Copy a column of values at the given index into an array. The array must
+	 * have room for at least numberOfRows() values.
+	 * </p>
+	 * 
+	 * @param index
+	 *            <p>
+	 *            The index of the column.
+	 *            </p>
+	 * @param column
+	 *            <p>
+	 *            The array that will hold the column.
+	 *            </p>
+	 * @return <p>
+	 *         True if the column was copied, false if the index was out of
+	 *         range or the array was too small.
+	 *         </p>
+	 */
+	public boolean getColumn(int index, double[] column) {
+
+		// Check the index and the array
+		if (index < 0 || index >= nCols || column == null
+				|| column.length < nRows) {
+			return false;
+		}
+
+		// Copy every nCols-th element
+		for (int i = 0, j = index; i < nRows; i++, j += nCols) {
+			column[i] = elements[j];
+		}
+
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * Copy a block of the matrix into an array in row-major order. The block
+	 * starts at the given row and column and must fit in the matrix. The
+	 * array must have room for at least numRows*numCols values.
+	 * </p>
+	 * 
+	 * @param rowIndex
+	 *            <p>
+	 *            The row of the first element of the block.
+	 *            </p>
+	 * @param colIndex
+	 *            <p>
+	 *            The column of the first element of the block.
+	 *            </p>
+	 * @param numRows
+	 *            <p>
+	 *            The number of rows in the block.
+	 *            </p>
+	 * @param numCols
+	 *            <p>
+	 *            The number of columns in the block.
+	 *            </p>
+	 * @param block
+	 *            <p>
+	 *            The array that will hold the block.
+	 *            </p>
+	 * @return <p>
+	 *         True if the block was copied, false if it does not fit in the
+	 *         matrix or the array was too small.
+	 *         </p>
+	 */
+	public boolean getBlock(int rowIndex, int colIndex, int numRows,
+			int numCols, double[] block) {
+
+		// Check the bounds of the block and the array
+		if (rowIndex < 0 || colIndex < 0 || numRows < 0 || numCols < 0
+				|| rowIndex + numRows > nRows || colIndex + numCols > nCols
+				|| block == null || block.length < numRows * numCols) {
+			return false;
+		}
+
+		// Copy each row of the block
+		for (int i = 0; i < numRows; i++) {
+			System.arraycopy(elements, nCols * (rowIndex + i) + colIndex,
+					block, numCols * i, numCols);
+		}
+
+		return true;
+	}
+
 	/**
 	 * <p>
 	 * Private operation to add or remove a row to the array of double valued
@@ -866,21 +1000,17 @@ public class MatrixComponent extends ICEObject implements Component {
 			defaultValue = this.allowedValues.get(0);
 		}
 
-		// If true, add to the arraylist
+		// If true, add to the array
 		if (addOrRemove) {
 
-			// Add for the number of columns
-			for (i = 0; i < this.nCols; i++) {
-				this.elements.add(defaultValue);
-			}
+			// Add for the number of columns at the end
+			i = size();
+			ensureCapacity(i + this.nCols);
+			Arrays.fill(this.elements, i, i + this.nCols, defaultValue);
 			// Add to the row
 			this.nRows += 1;
 		} else {
-			// Remove for the number of columns
-			for (i = 0; i < this.nCols; i++) {
-				this.elements.remove(this.elements.size() - 1);
-			}
-			// Remove a row
+			// Just drop the last row. The array keeps its size.
 			this.nRows -= 1;
 		}
 
@@ -909,22 +1039,30 @@ public class MatrixComponent extends ICEObject implements Component {
 			defaultValue = this.allowedValues.get(0);
 		}
 
-		// If true, add to the arraylist
+		// If true, add to the array
 		if (addOrRemove) {
 
-			// Add for the number of rows
-			for (i = 0; i < this.nRows; i++) {
-				this.elements.add(((i + 1) * this.nCols) + i, defaultValue);
+			// Move each row to its new place, starting from the last one so
+			// that no row is overwritten, and add the new element at its end
+			j = this.nCols + 1;
+			ensureCapacity(this.nRows * j);
+			for (i = this.nRows - 1; i >= 0; i--) {
+				System.arraycopy(this.elements, i * this.nCols, this.elements,
+						i * j, this.nCols);
+				this.elements[i * j + this.nCols] = defaultValue;
 			}
 			// Add to the cols
-			this.nCols += 1;
+			this.nCols = j;
 		} else {
-			// Remove for the number of rows
-			for (i = 0; i < this.nRows; i++) {
-				this.elements.remove(((i + 1) * this.nCols) - i - 1);
+			// Move each row down over the last element of the previous row,
+			// starting from the first one
+			j = this.nCols - 1;
+			for (i = 1; i < this.nRows; i++) {
+				System.arraycopy(this.elements, i * this.nCols, this.elements,
+						i * j, j);
 			}
 			// Remove a Column
-			this.nCols -= 1;
+			this.nCols = j;
 		}
 
 	}
@@ -1029,6 +1167,174 @@ public class MatrixComponent extends ICEObject implements Component {
 		return tempDoubles;
 	}
 
+	/**
+	 * <p>
+	 * This operation returns a copy of the elements of the matrix as a flat
+	 * array in row-major order. It is used by the BinaryFormHandler to write
+	 * the matrix without boxing every element.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The elements of the matrix.
+	 *         </p>
+	 */
+	double[] getElementArray() {
+		return Arrays.copyOf(elements, size());
+	}
+
+	/**
+	 * <p>
+	 * This operation replaces the elements and allowed values of the matrix
+	 * without any of the checks performed by the public operations. It is
+	 * used by the BinaryFormHandler to restore a matrix that was previously
+	 * written and does not notify the listeners.
+	 * </p>
+	 * 
+	 * @param rows
+	 *            <p>
+	 *            The number of rows.
+	 *            </p>
+	 * @param cols
+	 *            <p>
+	 *            The number of columns.
+	 *            </p>
+	 * @param values
+	 *            <p>
+	 *            The rows*cols elements in row-major order.
+	 *            </p>
+	 * @param allowed
+	 *            <p>
+	 *            The allowed values or null if they were never set.
+	 *            </p>
+	 */
+	void restoreElements(int rows, int cols, double[] values,
+			ArrayList<Double> allowed) {
+		this.nRows = rows;
+		this.nCols = cols;
+		this.elements = values;
+		this.allowedValues = allowed;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the number of elements in the matrix, which may
+	 * be less than the length of the array that stores them.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The number of elements.
+	 *         </p>
+	 */
+	private int size() {
+		return nRows * nCols;
+	}
+
+	/**
+	 * <p>
+	 * This operation makes sure that the array of elements can hold at least
+	 * the given number of elements. If it is too small, it is replaced with
+	 * one that is half again as large, or exactly large enough if that is
+	 * still too small.
+	 * </p>
+	 * 
+	 * @param capacity
+	 *            <p>
+	 *            The number of elements that the array must hold.
+	 *            </p>
+	 */
+	private void ensureCapacity(int capacity) {
+		if (elements.length < capacity) {
+			int newCapacity = elements.length + (elements.length >> 1) + 1;
+			elements = Arrays.copyOf(elements,
+					Math.max(capacity, newCapacity));
+		}
+	}
+
+	/**
+	 * <p>
+	 * This operation checks that the elements of this matrix and another
+	 * matrix of the same size are equal. Elements are compared like Doubles.
+	 * </p>
+	 * 
+	 * @param other
+	 *            <p>
+	 *            The other matrix.
+	 *            </p>
+	 * @return <p>
+	 *         True if the elements are equal, false otherwise.
+	 *         </p>
+	 */
+	private boolean elementsEqual(MatrixComponent other) {
+		if (elements == null || other.elements == null) {
+			return elements == other.elements;
+		}
+		for (int i = 0; i < size(); i++) {
+			if (Double.doubleToLongBits(elements[i]) != Double
+					.doubleToLongBits(other.elements[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * This operation is called by JAXB before the matrix is marshalled. It
+	 * fills the list of elements that JAXB writes.
+	 * </p>
+	 * 
+	 * @param marshaller
+	 *            <p>
+	 *            The Marshaller
+	 *            </p>
+	 */
+	private void beforeMarshal(Marshaller marshaller) {
+		elementList = new ArrayList<Double>(size());
+		for (int i = 0; i < size(); i++) {
+			elementList.add(elements[i]);
+		}
+	}
+
+	/**
+	 * <p>
+	 * This operation is called by JAXB after the matrix is marshalled. It
+	 * drops the list of elements.
+	 * </p>
+	 * 
+	 * @param marshaller
+	 *            <p>
+	 *            The Marshaller
+	 *            </p>
+	 */
+	private void afterMarshal(Marshaller marshaller) {
+		elementList = null;
+	}
+
+	/**
+	 * <p>
+	 * This operation is called by JAXB after the matrix is unmarshalled. It
+	 * moves the elements that JAXB read into the array.
+	 * </p>
+	 * 
+	 * @param unmarshaller
+	 *            <p>
+	 *            The Unmarshaller
+	 *            </p>
+	 * @param parent
+	 *            <p>
+	 *            The parent of the matrix in the document
+	 *            </p>
+	 */
+	private void afterUnmarshal(Unmarshaller unmarshaller, Object parent) {
+		if (elementList != null) {
+			elements = new double[Math.max(elementList.size(), size())];
+			for (int i = 0; i < elementList.size(); i++) {
+				elements[i] = elementList.get(i);
+			}
+			elementList = null;
+		}
+	}
+
 	/*
 	 * Overrides a super class method.
 	 */
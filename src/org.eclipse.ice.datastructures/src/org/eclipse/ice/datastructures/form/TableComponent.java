@@ -588,6 +588,37 @@ public class TableComponent extends ICEObject implements Component {
 		return;
 	}
 
+	/**
+	 * This operation returns the DataComponents that hold the rows of the
+	 * table, starting with the row template at index zero. The list is not
+	 * copied. It is used by the BinaryFormHandler.
+	 * 
+	 * @return The row template followed by the rows of the table.
+	 */
+	ArrayList<DataComponent> getRowComponents() {
+		return rowComponents;
+	}
+
+	/**
+	 * This operation replaces the contents of the table with rows that were
+	 * previously written by the BinaryFormHandler. The row template must be
+	 * the first DataComponent in the list. Listeners are not notified.
+	 * 
+	 * @param names
+	 *            The names of the columns
+	 * @param rows
+	 *            The row template followed by the rows of the table
+	 * @param selected
+	 *            The ids of the selected rows or null if none were selected
+	 */
+	void restoreRows(ArrayList<String> names, ArrayList<DataComponent> rows,
+			ArrayList<Integer> selected) {
+		columnNames = names;
+		rowComponents = rows;
+		selectedRows = (selected != null) ? selected
+				: new ArrayList<Integer>();
+	}
+
 	/**
 	 * (non-Javadoc)
 	 * 
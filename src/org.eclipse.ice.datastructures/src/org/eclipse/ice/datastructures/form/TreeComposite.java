@@ -15,6 +15,7 @@ package org.eclipse.ice.datastructures.form;
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.xml.bind.Marshaller;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAnyElement;
@@ -127,6 +128,25 @@ import org.eclipse.ice.datastructures.form.mesh.MeshComponent;
  * the list returned by getChildExemplars() is submitted. Special care should be
  * taken that children from this list are added to the TreeComposite *before*
  * they themselves are modified.
+ * </p>
+ * <p>
+ * Copies of a TreeComposite, made with copy() or clone(), share the children,
+ * data nodes and exemplars of each node with the original until they are
+ * needed. A node keeps a list of shared templates for each of these three
+ * parts and only creates its own copies from the templates the first time
+ * that the part is retrieved or modified, so many copies of one large tree are
+ * cheap to make and only use memory for the nodes that are actually visited.
+ * The templates are never handed out or modified. Subclasses that work with
+ * the children directly can disable this by overriding isCopyOnWrite().
+ * </p>
+ * <p>
+ * A TreeComposite may be read by several threads at once even though reading
+ * a shared part creates its copies. The copies are created while holding the
+ * lock of the TreeComposite and published in a single step, so other readers
+ * see either the shared templates or all of the copies, and every reader gets
+ * the same copies. Threads that modify a TreeComposite must still coordinate
+ * with the threads that read it, as for any other Component.
+ * </p>
  * 
  * @author Jay Jay Billings
  */
@@ -241,6 +261,33 @@ public class TreeComposite extends ICEObject implements Composite,
 	@XmlAttribute
 	private boolean active = false;
 
+	/**
+	 * The children that this TreeComposite shares with the TreeComposite from
+	 * which it was copied, or null if it has its own children. The children
+	 * list is empty while this is set. It is cleared only after the copies of
+	 * the children have been published.
+	 */
+	@XmlTransient
+	private volatile ArrayList<TreeComposite> sharedChildren = null;
+
+	/**
+	 * The data nodes that this TreeComposite shares with the TreeComposite
+	 * from which it was copied, or null if it has its own data nodes. The list
+	 * of data nodes is empty while this is set. It is cleared only after the
+	 * copies of the data nodes have been published.
+	 */
+	@XmlTransient
+	private volatile SharedDataNodes sharedDataNodes = null;
+
+	/**
+	 * The exemplars that this TreeComposite shares with the TreeComposite from
+	 * which it was copied, or null if it has its own exemplars. The list of
+	 * exemplars is empty while this is set. It is cleared only after the
+	 * copies of the exemplars have been published.
+	 */
+	@XmlTransient
+	private volatile ArrayList<TreeComposite> sharedExemplars = null;
+
 	/**
 	 * <p>
 	 * The constructor.
@@ -333,6 +380,8 @@ public class TreeComposite extends ICEObject implements Composite,
 		// Local Declarations
 		TreeComposite currentChild = null;
 
+		unshareChildren();
+
 		// Get the next child if we haven't reached the end of the list
 		if (currentChildIndex < children.size()) {
 			// Return the next child.
@@ -362,7 +411,7 @@ public class TreeComposite extends ICEObject implements Composite,
 		// If there is a list of child exemplars, a check needs to be performed.
 		if (hasChildExemplars()) {
 			// Make sure the new child matches one of the exemplars.
-			canAdd = childExemplars.contains(cNode);
+			canAdd = getExemplarList().contains(cNode);
 		}
 		return canAdd;
 	}
@@ -386,6 +435,8 @@ public class TreeComposite extends ICEObject implements Composite,
 		// Local Declarations
 		TreeComposite lastChild = null;
 
+		unshareChildren();
+
 		// Only add the child if it is not null and already in this tree. Also
 		// make sure that it is part of the exemplar list, if required.
 		if (cNode != null && !children.contains(cNode) && cNode != this
@@ -435,6 +486,8 @@ public class TreeComposite extends ICEObject implements Composite,
 		// Local Declarations
 		TreeComposite currentChild = null;
 
+		unshareChildren();
+
 		// Get the next child if we haven't reached the end of the list
 		if (currentChildIndex > 0) {
 			// Decrement the counter
@@ -461,6 +514,8 @@ public class TreeComposite extends ICEObject implements Composite,
 	 */
 	public void removeChild(TreeComposite cNode) {
 
+		unshareChildren();
+
 		// Try to remove the child if it is not null, and make sure the child
 		// belongs to the set for this tree
 		if (cNode != null && children.contains(cNode)) {
@@ -503,7 +558,7 @@ public class TreeComposite extends ICEObject implements Composite,
 	 * @return
 	 */
 	public int getNumberOfChildren() {
-		return children.size();
+		return getChildList().size();
 	}
 
 	/**
@@ -537,6 +592,8 @@ public class TreeComposite extends ICEObject implements Composite,
 	 */
 	public TreeComposite getChildAtIndex(int index) {
 
+		unshareChildren();
+
 		// Check the bounds
 		if (index > -1 && index < children.size()) {
 			return children.get(index);
@@ -586,6 +643,7 @@ public class TreeComposite extends ICEObject implements Composite,
 	 *         </p>
 	 */
 	public ArrayList<Component> getDataNodes() {
+		unshareDataNodes();
 		return dataNodes;
 	}
 
@@ -597,7 +655,7 @@ public class TreeComposite extends ICEObject implements Composite,
 	 * @return
 	 */
 	public int getNumberOfDataNodes() {
-		return dataNodes.size();
+		return getDataNodeList().size();
 	}
 
 	/**
@@ -615,6 +673,7 @@ public class TreeComposite extends ICEObject implements Composite,
 
 		// Make sure active nodes are allowed
 		if (allowActiveDataNodes) {
+			unshareDataNodes();
 			return activeDataNode;
 		}
 
@@ -640,6 +699,8 @@ public class TreeComposite extends ICEObject implements Composite,
 	 */
 	public void setActiveDataNode(Component node) {
 
+		unshareDataNodes();
+
 		// Make sure active nodes are allowed, that the node is not null and
 		// that it is in the set.
 		if (allowActiveDataNodes && node != null && dataNodes.contains(node)) {
@@ -712,14 +773,14 @@ public class TreeComposite extends ICEObject implements Composite,
 						&& this.objectName.equals(tree.objectName)
 						&& this.objectDescription
 								.equals(tree.objectDescription)
-						&& children.equals(tree.children)
-						&& dataNodes.equals(tree.dataNodes)
-						&& ((activeDataNode != null) ? activeDataNode
-								.equals(tree.activeDataNode)
-								: tree.activeDataNode == null)
+						&& getChildList().equals(tree.getChildList())
+						&& getDataNodeList().equals(tree.getDataNodeList())
+						&& ((getActiveDataNodeInList() != null) ? getActiveDataNodeInList()
+								.equals(tree.getActiveDataNodeInList())
+								: tree.getActiveDataNodeInList() == null)
 						&& allowActiveDataNodes == tree.allowActiveDataNodes
 						&& currentChildIndex == tree.currentChildIndex
-						&& childExemplars.equals(tree.childExemplars);
+						&& getExemplarList().equals(tree.getExemplarList());
 			}
 		}
 
@@ -745,13 +806,15 @@ public class TreeComposite extends ICEObject implements Composite,
 
 		// Compute the hashcode
 		hash = 31 * super.hashCode();
-		hash = 31 * hash + children.hashCode();
-		hash = 31 * hash + dataNodes.hashCode();
-		hash = 31 * hash
-				+ ((activeDataNode != null) ? activeDataNode.hashCode() : 0);
+		hash = 31 * hash + getChildList().hashCode();
+		hash = 31 * hash + getDataNodeList().hashCode();
+		hash = 31
+				* hash
+				+ ((getActiveDataNodeInList() != null) ? getActiveDataNodeInList()
+						.hashCode() : 0);
 		hash = 31 * hash + (allowActiveDataNodes ? 1 : 0);
 		hash = 31 * hash + currentChildIndex;
-		hash = 31 * hash + childExemplars.hashCode();
+		hash = 31 * hash + getExemplarList().hashCode();
 
 		return hash;
 	}
@@ -777,7 +840,9 @@ public class TreeComposite extends ICEObject implements Composite,
 	 * <p>
 	 * This operation performs a deep copy of the attributes of another
 	 * TreeComposite into the current TreeComposite. It copies ALL of the
-	 * children of the TreeComposite, data and child nodes alike.
+	 * children of the TreeComposite, data and child nodes alike. The copies of
+	 * the children, data nodes and exemplars are shared with the other
+	 * TreeComposite until they are needed if isCopyOnWrite() is true.
 	 * 
 	 * This version of the copy method is tailored specifically for instances
 	 * of TreeComposites that can be "copied in place" in a TreeComposite
@@ -833,57 +898,70 @@ public class TreeComposite extends ICEObject implements Composite,
 			this.previousSibling = null;
 		}
 
-		// Clear the list of children to prepare for a deep copy
+		// Clear the children, data nodes and exemplars to prepare for a deep
+		// copy
 		this.children.clear();
-
-		// Performs a deep copy. Please note that children's parents are reset!
-		for (int i = 0; i < otherTreeComposite.children.size(); i++) {
-
-			this.children.add((TreeComposite) otherTreeComposite.children
-					.get(i).clone());
-			// Reset parent
-			this.children.get(i).setParent(this);
-		}
-
-		// Reset links for siblings
-		for (int j = 0; j < otherTreeComposite.children.size() - 1; j++) {
-			this.children.get(j).nextSibling = this.children.get(j + 1);
-		}
-		for (int j = otherTreeComposite.children.size() - 1; j > 0; j--) {
-			this.children.get(j).previousSibling = this.children.get(j - 1);
-		}
+		this.dataNodes.clear();
+		this.activeDataNode = null;
+		this.childExemplars.clear();
+		this.sharedChildren = null;
+		this.sharedDataNodes = null;
+		this.sharedExemplars = null;
 
 		// This is numerical and acceptable
 		this.currentChildIndex = otherTreeComposite.currentChildIndex;
-
-		// Deep copy dataNodes
-		this.dataNodes.clear();
-		this.activeDataNode = null;
 		this.allowActiveDataNodes = otherTreeComposite.allowActiveDataNodes;
-		for (int i = 0; i < otherTreeComposite.dataNodes.size(); i++) {
-			// Get the next data node and a clone of it to go in this tree.
-			Component dataNode = otherTreeComposite.dataNodes.get(i);
-			Component clone = (Component) ((ICEObject) dataNode).clone();
-			// Add the clone to this tree's set of data nodes.
-			this.dataNodes.add(clone);
-			// Synchronize the active data node with the other tree's active
-			// data node if the cloned data node is the active one.
-			if (dataNode == otherTreeComposite.activeDataNode) {
-				this.activeDataNode = clone;
+
+		if (isCopyOnWrite()) {
+			// Share the parts of the other tree. Parts that it already shares
+			// are shared as they are, but parts that it owns have to be
+			// copied once because the other tree may still change them. Each
+			// shared part of the other tree is read only once because another
+			// thread may copy it at the same time.
+			ArrayList<TreeComposite> otherChildren = otherTreeComposite.sharedChildren;
+			if (otherChildren != null) {
+				this.sharedChildren = otherChildren;
+			} else if (!otherTreeComposite.children.isEmpty()) {
+				this.sharedChildren = cloneTrees(otherTreeComposite.children);
+			}
+			SharedDataNodes otherDataNodes = otherTreeComposite.sharedDataNodes;
+			if (otherDataNodes != null) {
+				this.sharedDataNodes = otherDataNodes;
+			} else if (!otherTreeComposite.dataNodes.isEmpty()) {
+				ArrayList<Component> clones = new ArrayList<Component>();
+				Component activeClone = null;
+				for (Component dataNode : otherTreeComposite.dataNodes) {
+					Component clone = (Component) ((ICEObject) dataNode)
+							.clone();
+					clones.add(clone);
+					if (dataNode == otherTreeComposite.activeDataNode) {
+						activeClone = clone;
+					}
+				}
+				this.sharedDataNodes = new SharedDataNodes(clones, activeClone);
+			}
+			ArrayList<TreeComposite> otherExemplars = otherTreeComposite.sharedExemplars;
+			if (otherExemplars != null) {
+				this.sharedExemplars = otherExemplars;
+			} else if (!otherTreeComposite.childExemplars.isEmpty()) {
+				this.sharedExemplars = cloneTrees(otherTreeComposite.childExemplars);
 			}
+		} else {
+			// Performs a deep copy. Please note that children's parents are
+			// reset!
+			addChildCopies(this.children, otherTreeComposite.getChildList());
+			// Deep copy dataNodes
+			this.activeDataNode = addDataNodeCopies(this.dataNodes,
+					otherTreeComposite.getDataNodeList(),
+					otherTreeComposite.getActiveDataNodeInList());
+			// Copy the exemplars
+			this.childExemplars.addAll(cloneTrees(otherTreeComposite
+					.getExemplarList()));
 		}
 
 		// Copy activity marker
 		this.active = otherTreeComposite.active;
 
-		// Copy the exemplars
-		this.childExemplars.clear();
-		for (int i = 0; i < otherTreeComposite.childExemplars.size(); i++) {
-			this.childExemplars
-					.add((TreeComposite) otherTreeComposite.childExemplars.get(
-							i).clone());
-		}
-
 		// Re-register with all of the listeners.
 		for (IUpdateableListener listener : listenersCopy) {
 			register(listener);
@@ -935,6 +1013,7 @@ public class TreeComposite extends ICEObject implements Composite,
 		// Check that the incoming list is valid
 		if (exemplars != null) {
 			childExemplars = (ArrayList<TreeComposite>) exemplars.clone();
+			sharedExemplars = null;
 		}
 
 		return;
@@ -956,6 +1035,8 @@ public class TreeComposite extends ICEObject implements Composite,
 		// Check the input Tree is valid
 		if (exemplar != null) {
 
+			unshareExemplars();
+
 			// Check if there already is a child exemplar of the same name
 			for (int i = 0; i < childExemplars.size(); i++) {
 				currExemplar = childExemplars.get(i);
@@ -988,6 +1069,7 @@ public class TreeComposite extends ICEObject implements Composite,
 	 *         </p>
 	 */
 	public ArrayList<TreeComposite> getChildExemplars() {
+		unshareExemplars();
 		return (ArrayList<TreeComposite>) childExemplars.clone();
 	}
 
@@ -1005,7 +1087,7 @@ public class TreeComposite extends ICEObject implements Composite,
 	 *         </p>
 	 */
 	public boolean hasChildExemplars() {
-		return !childExemplars.isEmpty();
+		return !getExemplarList().isEmpty();
 	}
 
 	/**
@@ -1052,6 +1134,8 @@ public class TreeComposite extends ICEObject implements Composite,
 	 */
 	private void addDataNodeToList(Component comp) {
 
+		unshareDataNodes();
+
 		// Add the component to the list
 		dataNodes.add(comp);
 		// Register the listeners
@@ -1106,6 +1190,8 @@ public class TreeComposite extends ICEObject implements Composite,
 		// Linear searches are fine for this operation because both the number
 		// of children and the number of data components should be very low. In
 		// both loops we return early to avoid searching everything.
+		unshareDataNodes();
+		unshareChildren();
 
 		// Search the data nodes first.
 		for (int i = 0; i < dataNodes.size(); i++) {
@@ -1149,6 +1235,9 @@ public class TreeComposite extends ICEObject implements Composite,
 		if (childId < 1) {
 			return null;
 		}
+		unshareDataNodes();
+		unshareChildren();
+
 		// Linearly search the data nodes
 		for (Component comp : dataNodes) {
 			if (comp.getId() == childId) {
@@ -1173,7 +1262,7 @@ public class TreeComposite extends ICEObject implements Composite,
 	 */
 	@Override
 	public int getNumberOfComponents() {
-		return dataNodes.size() + children.size();
+		return getDataNodeList().size() + getChildList().size();
 	}
 
 	/**
@@ -1184,6 +1273,9 @@ public class TreeComposite extends ICEObject implements Composite,
 	@Override
 	public ArrayList<Component> getComponents() {
 
+		unshareDataNodes();
+		unshareChildren();
+
 		// Create a new list that contains the data nodes.
 		ArrayList<Component> componentList = new ArrayList<Component>(dataNodes);
 		// Add all of the TreeComposite children.
@@ -1395,7 +1487,7 @@ public class TreeComposite extends ICEObject implements Composite,
 	 * @see IUpdateable#register(IUpdateableListener listener)
 	 */
 	@Override
-	public void register(IUpdateableListener listener) {
+	public synchronized void register(IUpdateableListener listener) {
 
 		// Register the listener if it is not null
 		if (listener != null) {
@@ -1420,7 +1512,7 @@ public class TreeComposite extends ICEObject implements Composite,
 	 * @see IUpdateable#unregister(IUpdateableListener listener)
 	 */
 	@Override
-	public void unregister(IUpdateableListener listener) {
+	public synchronized void unregister(IUpdateableListener listener) {
 
 		// Unregister the listener if it is not null and in the list
 		if (listener != null && listeners.contains(listener)) {
@@ -1438,6 +1530,262 @@ public class TreeComposite extends ICEObject implements Composite,
 		return;
 	}
 
+	/**
+	 * This operation returns true if copies of this TreeComposite share the
+	 * children, data nodes and exemplars of the TreeComposite from which they
+	 * were copied until they are needed and false if they are copied right
+	 * away. It is true by default, so subclasses that work with the list of
+	 * children directly should override it to return false.
+	 * 
+	 * @return True if the copies are made when the parts are first needed,
+	 *         false otherwise.
+	 */
+	protected boolean isCopyOnWrite() {
+		return true;
+	}
+
+	/**
+	 * This operation returns the shared children if they have not been copied
+	 * yet or the children otherwise. It must only be used to read them.
+	 * 
+	 * @return The list of children
+	 */
+	private List<TreeComposite> getChildList() {
+		List<TreeComposite> templates = sharedChildren;
+		return (templates != null) ? templates : children;
+	}
+
+	/**
+	 * This operation returns the shared data nodes if they have not been
+	 * copied yet or the data nodes otherwise. It must only be used to read
+	 * them.
+	 * 
+	 * @return The list of data nodes
+	 */
+	private List<Component> getDataNodeList() {
+		SharedDataNodes templates = sharedDataNodes;
+		return (templates != null) ? templates.nodes : dataNodes;
+	}
+
+	/**
+	 * This operation returns the member of getDataNodeList() that is the
+	 * active data node.
+	 * 
+	 * @return The active data node or null if it has not been specified
+	 */
+	private Component getActiveDataNodeInList() {
+		SharedDataNodes templates = sharedDataNodes;
+		return (templates != null) ? templates.activeNode : activeDataNode;
+	}
+
+	/**
+	 * This operation returns the shared exemplars if they have not been
+	 * copied yet or the exemplars otherwise. It must only be used to read
+	 * them.
+	 * 
+	 * @return The list of exemplars
+	 */
+	private List<TreeComposite> getExemplarList() {
+		List<TreeComposite> templates = sharedExemplars;
+		return (templates != null) ? templates : childExemplars;
+	}
+
+	/**
+	 * This operation creates the children of this TreeComposite from the
+	 * shared children if it does not have its own yet. The copies are made in
+	 * a new list that replaces the children before the shared children are
+	 * released, so threads that read the tree at the same time never see a
+	 * partial list.
+	 */
+	private void unshareChildren() {
+		if (sharedChildren != null) {
+			synchronized (this) {
+				List<TreeComposite> templates = sharedChildren;
+				if (templates != null) {
+					ArrayList<TreeComposite> copies = new ArrayList<TreeComposite>(
+							templates.size());
+					addChildCopies(copies, templates);
+					children = copies;
+					sharedChildren = null;
+				}
+			}
+		}
+	}
+
+	/**
+	 * This operation creates the data nodes of this TreeComposite from the
+	 * shared data nodes if it does not have its own yet, in the same way as
+	 * unshareChildren().
+	 */
+	private void unshareDataNodes() {
+		if (sharedDataNodes != null) {
+			synchronized (this) {
+				SharedDataNodes templates = sharedDataNodes;
+				if (templates != null) {
+					ArrayList<Component> copies = new ArrayList<Component>(
+							templates.nodes.size());
+					activeDataNode = addDataNodeCopies(copies,
+							templates.nodes, templates.activeNode);
+					dataNodes = copies;
+					sharedDataNodes = null;
+				}
+			}
+		}
+	}
+
+	/**
+	 * This operation creates the exemplars of this TreeComposite from the
+	 * shared exemplars if it does not have its own yet, in the same way as
+	 * unshareChildren().
+	 */
+	private void unshareExemplars() {
+		if (sharedExemplars != null) {
+			synchronized (this) {
+				List<TreeComposite> templates = sharedExemplars;
+				if (templates != null) {
+					childExemplars = cloneTrees(templates);
+					sharedExemplars = null;
+				}
+			}
+		}
+	}
+
+	/**
+	 * This operation adds copies of TreeComposites to the end of a list of
+	 * children of this tree and links them to this tree and to their
+	 * siblings. It does not check the exemplars or notify the listeners.
+	 * 
+	 * @param list
+	 *            The list of children to which the copies should be added
+	 * @param trees
+	 *            The TreeComposites that should be copied
+	 */
+	private void addChildCopies(List<TreeComposite> list,
+			List<TreeComposite> trees) {
+
+		// Local Declarations
+		TreeComposite lastChild = null;
+
+		if (!list.isEmpty()) {
+			lastChild = list.get(list.size() - 1);
+		}
+		for (TreeComposite tree : trees) {
+			TreeComposite child = (TreeComposite) tree.clone();
+			// Link the copy to its parent and siblings
+			child.parent = this;
+			child.previousSibling = lastChild;
+			if (lastChild != null) {
+				lastChild.nextSibling = child;
+			}
+			list.add(child);
+			// Register the listeners with the copy
+			for (IUpdateableListener listener : listeners) {
+				child.register(listener);
+			}
+			lastChild = child;
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation adds copies of data nodes to a list of data nodes of this
+	 * TreeComposite. It does not notify the listeners.
+	 * 
+	 * @param list
+	 *            The list of data nodes to which the copies should be added
+	 * @param nodes
+	 *            The data nodes that should be copied
+	 * @param activeNode
+	 *            The member of the nodes whose copy should be the active data
+	 *            node or null if there is not one
+	 * @return The copy of the active node or null if it was not copied
+	 */
+	private Component addDataNodeCopies(List<Component> list,
+			List<Component> nodes, Component activeNode) {
+
+		// Local Declarations
+		Component activeCopy = null;
+
+		for (Component dataNode : nodes) {
+			// Get a clone of the data node to go in this tree
+			Component clone = (Component) ((ICEObject) dataNode).clone();
+			list.add(clone);
+			// Register the listeners with the clone
+			for (IUpdateableListener listener : listeners) {
+				clone.register(listener);
+			}
+			// Synchronize the active data node
+			if (dataNode == activeNode) {
+				activeCopy = clone;
+			}
+		}
+
+		return activeCopy;
+	}
+
+	/**
+	 * This operation clones a list of TreeComposites.
+	 * 
+	 * @param trees
+	 *            The TreeComposites
+	 * @return A new list with clones of the TreeComposites
+	 */
+	private static ArrayList<TreeComposite> cloneTrees(List<TreeComposite> trees) {
+		ArrayList<TreeComposite> clones = new ArrayList<TreeComposite>(
+				trees.size());
+		for (TreeComposite tree : trees) {
+			clones.add((TreeComposite) tree.clone());
+		}
+		return clones;
+	}
+
+	/**
+	 * This operation is called by JAXB before this TreeComposite is
+	 * marshalled. It creates all of the shared parts of the tree so that they
+	 * are written.
+	 * 
+	 * @param marshaller
+	 *            The Marshaller
+	 */
+	private void beforeMarshal(Marshaller marshaller) {
+		unshareChildren();
+		unshareDataNodes();
+		unshareExemplars();
+	}
+
+	/**
+	 * This class holds the data nodes that a TreeComposite shares with the
+	 * TreeComposite from which it was copied together with the active one so
+	 * that both are always read together.
+	 */
+	private static final class SharedDataNodes {
+
+		/**
+		 * The shared data nodes.
+		 */
+		private final List<Component> nodes;
+
+		/**
+		 * The member of the shared data nodes that is the active data node or
+		 * null if there is not one.
+		 */
+		private final Component activeNode;
+
+		/**
+		 * The constructor.
+		 * 
+		 * @param nodes
+		 *            The shared data nodes
+		 * @param activeNode
+		 *            The active data node
+		 */
+		private SharedDataNodes(List<Component> nodes, Component activeNode) {
+			this.nodes = nodes;
+			this.activeNode = activeNode;
+		}
+	}
+
 	@Override
 	public void visit(EMFComponent component) {
 		// TODO Auto-generated method stub
@@ -469,4 +469,13 @@ public class EMFTreeComposite extends TreeComposite {
 		return emfTreeComposite;
 	}
 
+	/**
+	 * EMFTreeComposites keep their children synchronized with the Ecore node
+	 * through the list of children, so they are always copied right away.
+	 */
+	@Override
+	protected boolean isCopyOnWrite() {
+		return false;
+	}
+
 }
@@ -26,6 +26,7 @@ import org.eclipse.ice.datastructures.ICEObject.Component;
 import org.eclipse.ice.datastructures.ICEObject.ICEObject;
 import org.eclipse.ice.datastructures.ICEObject.IUpdateable;
 import org.eclipse.ice.datastructures.ICEObject.IUpdateableListener;
+import org.eclipse.ice.datastructures.ICEObject.NotificationDispatcher;
 import org.eclipse.ice.datastructures.componentVisitor.IComponentVisitor;
 
 /**
@@ -360,9 +361,9 @@ public class GeometryComponent extends ICEObject implements Component,
 		if (this.listeners == null || this.listeners.isEmpty()) {
 			return;
 		}
-		// Create a thread object that notifies all listeners
-
-		Thread notifyThread = new Thread() {
+		// Post the notification to the shared dispatcher, which merges it
+		// with any pending notification from this component.
+		NotificationDispatcher.getDefault().coalesce(this, new Runnable() {
 
 			@Override
 			public void run() {
@@ -371,10 +372,7 @@ public class GeometryComponent extends ICEObject implements Component,
 					listeners.get(i).update(geometryComponent);
 				}
 			}
-		};
-
-		// Start the thread
-		notifyThread.start();
+		});
 
 	}
 
@@ -54,6 +54,7 @@ import org.eclipse.ice.datastructures.form.AdaptiveTreeComposite;
 import org.eclipse.ice.datastructures.form.DataComponent;
 import org.eclipse.ice.datastructures.form.Entry;
 import org.eclipse.ice.datastructures.form.Form;
+import org.eclipse.ice.datastructures.form.FormPatch;
 import org.eclipse.ice.datastructures.form.FormStatus;
 import org.eclipse.ice.datastructures.form.MasterDetailsComponent;
 import org.eclipse.ice.datastructures.form.MatrixComponent;
@@ -76,6 +77,7 @@ import org.eclipse.ice.item.action.Action;
 import org.eclipse.ice.item.action.TaggedOutputWriterAction;
 import org.eclipse.ice.item.jobLauncher.JobLauncherForm;
 import org.eclipse.ice.item.messaging.Message;
+import org.eclipse.ice.item.messaging.MessageHistory;
 
 /**
  * The Item class is responsible for carrying out activities necessary to
@@ -336,6 +338,37 @@ public class Item implements IComponentVisitor, Identifiable,
 	 */
 	protected ArrayList<Entry> entryList;
 
+	/**
+	 * The Entries whose names are keys that other Entries depend on, stored by
+	 * name. It is built in registerUpdateables() so that reviewEntries() only
+	 * needs to look at the parents of other Entries.
+	 */
+	@XmlTransient()
+	private HashMap<String, Entry> parentEntries = new HashMap<String, Entry>();
+
+	/**
+	 * The Form whose Entries are registered in the Registry.
+	 */
+	@XmlTransient()
+	private Form registeredForm;
+
+	/**
+	 * The structure change count of the Form when its Entries were registered
+	 * in the Registry. It is used to detect Components that were added,
+	 * removed or replaced.
+	 */
+	@XmlTransient()
+	private int registeredFormCount = -1;
+
+	/**
+	 * The structure change counts of the DataComponents in the "data" list of
+	 * the component map when their Entries were registered in the Registry.
+	 * They are used to detect Entries that were added, removed, replaced,
+	 * renamed or given a different parent.
+	 */
+	@XmlTransient()
+	private int[] registeredDataCounts = new int[0];
+
 	/**
 	 * The string that is used to describe the process by which the Item class
 	 * writes the Form in ICE's native XML format.
@@ -446,6 +479,13 @@ public class Item implements IComponentVisitor, Identifiable,
 	@XmlTransient()
 	private IActionFactory actionFactory;
 
+	/**
+	 * The most recent Messages that were posted to this Item, such as the
+	 * progress and convergence of a job.
+	 */
+	@XmlTransient()
+	protected MessageHistory messageHistory;
+
 	/**
 	 * The constructor. Subclasses of Item should implement their own
 	 * constructor, but creating the Form should be done in the setupForm()
@@ -483,6 +523,9 @@ public class Item implements IComponentVisitor, Identifiable,
 		// Setup the listener list
 		listeners = new ArrayList<ItemListener>();
 
+		// Setup the history of posted Messages
+		messageHistory = new MessageHistory();
+
 		// Set the status
 		status = FormStatus.ReadyToProcess;
 
@@ -835,6 +878,11 @@ public class Item implements IComponentVisitor, Identifiable,
 				retVal = reviewEntries(preparedForm);
 				// Overwrite the current Form if the review passed
 				if (retVal != FormStatus.InfoError) {
+					// Mark every Entry as changed so that clients that follow
+					// the Form with patches pick up the whole new Form
+					if (preparedForm != form) {
+						preparedForm.markChanged(form.getRevision() + 1);
+					}
 					form = preparedForm;
 				}
 				// If the review passed and the Form is ready to process, mark
@@ -865,6 +913,72 @@ public class Item implements IComponentVisitor, Identifiable,
 		return retVal;
 	}
 
+	/**
+	 * This operation applies a FormPatch, which holds new values for some of
+	 * the Entries on the Item's Form, to the Form in place instead of
+	 * replacing the whole Form like submitForm(). The patched Form is reviewed
+	 * with reviewEntries() just like a submitted Form and the patch is undone
+	 * if the review fails.
+	 * 
+	 * Patches can only be applied to the Item's own Form, not to the Form of
+	 * an Action that needs information.
+	 * 
+	 * @param patch
+	 *            The patch
+	 * @return The status of the Item after the patch was applied.
+	 *         FormStatus.Unacceptable is returned if the patch conflicts with
+	 *         changes that were made after the revision on which it was based
+	 *         or if the Item is disabled. FormStatus.InfoError is returned if
+	 *         the patch does not belong to the Form or if an Entry rejects its
+	 *         new value.
+	 */
+	public FormStatus patchForm(FormPatch patch) {
+
+		// Local Declarations
+		FormStatus retVal = FormStatus.InfoError;
+		FormPatch undo = null;
+
+		// Only accept the patch if the Item is enabled
+		if (!enabled) {
+			return FormStatus.Unacceptable;
+		}
+		// The Action's Form can not be patched
+		if (patch == null || status.equals(FormStatus.NeedsInfo)
+				|| patch.getFormId() != form.getId()
+				|| patch.getItemID() != form.getItemID()) {
+			System.out.println("Item " + getId() + " Message: Something is "
+					+ "wrong with the submitted patch.");
+			return FormStatus.InfoError;
+		}
+		// Refuse to overwrite changes that the client has not seen
+		if (form.hasConflicts(patch)) {
+			System.out.println("Item " + getId() + " Message: Patch based on "
+					+ "revision " + patch.getBaseRevision()
+					+ " conflicts with revision " + form.getRevision() + ".");
+			return FormStatus.Unacceptable;
+		}
+
+		System.out.println("Item Message: Form patch submitted for review.");
+
+		// Mark the Item's status as "In Review" and apply the patch
+		status = FormStatus.InReview;
+		undo = form.applyPatch(patch);
+		if (undo != null) {
+			// Review the Entries and undo the patch if the review failed
+			retVal = reviewEntries(form);
+			if (retVal == FormStatus.InfoError) {
+				form.applyPatch(undo);
+			} else if (retVal == FormStatus.ReadyToProcess) {
+				form.markReady(true);
+			}
+		}
+
+		// Set the status
+		status = retVal;
+
+		return retVal;
+	}
+
 	/**
 	 * The process operation processes the data in the Form to perform a certain
 	 * action. The action name must be one of the set of actions from the Form
@@ -1120,13 +1234,19 @@ public class Item implements IComponentVisitor, Identifiable,
 		FormStatus retStatus = FormStatus.InfoError;
 		boolean updateStatus = true;
 
-		registerUpdateables();
-
-		// Update the values of the Entries in the Registry
-		for (Entry entry : entryList) {
-			if (registry.containsKey(entry.getName())) {
-				updateStatus = registry.updateValue(entry.getName(),
-						entry.getValue());
+		// Only rebuild the dependencies if the structure of the Form changed
+		// since they were registered.
+		if (!isRegistrationCurrent()) {
+			registerUpdateables();
+		} else {
+			// Update the values of the parent Entries in the Registry. Only
+			// the values that actually changed will be dispatched.
+			for (String key : registry.getDependencyKeys()) {
+				Entry parent = parentEntries.get(key);
+				if (parent != null) {
+					updateStatus &= registry.updateValue(key,
+							parent.getValue());
+				}
 			}
 		}
 
@@ -1177,22 +1297,71 @@ public class Item implements IComponentVisitor, Identifiable,
 		for (Component component : componentMap.get("data")) {
 			entryList.addAll(((DataComponent) component).retrieveAllEntries());
 		}
-		// Register the Entries
+		// Register parent dependencies so that the Entries can be notified
+		// when their parents change
 		for (Entry entry : entryList) {
-			// Register the Entry name and its default value
-			registry.setValue(entry.getName(), entry.getDefaultValue());
-			// Register parent dependencies so that they can be notified
-			// when the parent changes
 			if (entry.getParent() != null) {
 				registry.register(entry, entry.getParent());
 			}
 		}
+		// Store the parent Entries and register their current values
+		parentEntries.clear();
+		for (Entry entry : entryList) {
+			if (registry.getDependencyKeys().contains(entry.getName())) {
+				parentEntries.put(entry.getName(), entry);
+				registry.setValue(entry.getName(), entry.getValue());
+			}
+		}
+		// Remember what was registered
+		registeredForm = form;
+		registeredFormCount = form.getStructureChangeCount();
+		ArrayList<Component> dataComponents = componentMap.get("data");
+		registeredDataCounts = new int[dataComponents.size()];
+		for (int i = 0; i < registeredDataCounts.length; i++) {
+			registeredDataCounts[i] = ((DataComponent) dataComponents.get(i))
+					.getStructureChangeCount();
+		}
 		// Dispatch the values the first time around so that children
 		// can mark themselves ready.
-		registry.dispatch();
+		registry.dispatchAll();
 
 	}
 
+	/**
+	 * This operation checks whether the Entries registered in the Registry
+	 * still match the structure of the Form. It only compares the structure
+	 * change counts of the Form and of the registered DataComponents, so it
+	 * does not need to walk the Entries.
+	 * 
+	 * @return True if the Registry is current, false if the Entries must be
+	 *         registered again
+	 */
+	private boolean isRegistrationCurrent() {
+
+		// Local Declarations
+		ArrayList<Component> dataComponents = componentMap.get("data");
+
+		// Check the Form first. There is nothing to register without one.
+		if (registeredForm != form) {
+			return false;
+		} else if (form == null) {
+			return true;
+		} else if (registeredFormCount != form.getStructureChangeCount()
+				|| dataComponents == null
+				|| dataComponents.size() != registeredDataCounts.length) {
+			return false;
+		}
+		// Then each DataComponent
+		for (int i = 0; i < registeredDataCounts.length; i++) {
+			if (registeredDataCounts[i] != ((DataComponent) dataComponents
+					.get(i)).getStructureChangeCount()) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
 	/**
 	 * This operation returns the hashcode value of the Item.
 	 * 
@@ -1981,11 +2150,24 @@ public class Item implements IComponentVisitor, Identifiable,
 			System.out.println("Item Message: Type = " + msg.getType());
 		}
 
+		// Keep the message so that clients can query the recent updates
+		messageHistory.add(msg);
+
 		// Just return true for now until the logging functionality can be moved
 		// from JobLauncher to Item.
 		return true;
 	}
 
+	/**
+	 * This operation returns the history of the Messages that were posted to
+	 * the Item with update().
+	 * 
+	 * @return The history of the Messages
+	 */
+	public MessageHistory getMessageHistory() {
+		return messageHistory;
+	}
+
 	/**
 	 * This operation sets the Item's builderName. This operation can only be
 	 * called once. Although this operation is public, it should only be called
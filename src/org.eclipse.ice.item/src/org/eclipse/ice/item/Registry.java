@@ -12,8 +12,10 @@
  *******************************************************************************/
 package org.eclipse.ice.item;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 import org.eclipse.ice.datastructures.ICEObject.IUpdateable;
 
@@ -24,28 +26,35 @@ import org.eclipse.ice.datastructures.ICEObject.IUpdateable;
  * Registry and it will call their update method when the value of a key is
  * initially set or changed.
  * </p>
+ * <p>
+ * The Registry keeps an index from each key to the IUpdateables that depend on
+ * it and tracks which keys have changed since the last dispatch. Only the
+ * registrants of changed keys are updated by dispatch(), so the cost of a
+ * dispatch follows the number of changed values instead of the number of
+ * registered keys. dispatchAll() updates every registrant.
+ * </p>
  * 
  * @author Jay Jay Billings
  */
 public class Registry {
 
 	/**
-	 * <p>
-	 * The set of IUpdateable objects that are registered for updates.
-	 * </p>
-	 * 
+	 * The map for mapping keys to things that should be updated. Each
+	 * registrant is only stored once per key.
 	 */
-	private ArrayList<IUpdateable> updateables;
+	private HashMap<String, LinkedHashSet<IUpdateable>> keysAndComponents;
 
 	/**
-	 * The map for mapping keys to things that should be updated.
+	 * The map for storing keys and values
 	 */
-	private HashMap<String, ArrayList<IUpdateable>> keysAndComponents;
+	private HashMap<String, String> keysAndValues;
 
 	/**
-	 * The map for storing keys and values
+	 * The keys whose values have been set or changed, or that have new
+	 * registrants, since the last dispatch. They are kept in the order in which
+	 * they changed.
 	 */
-	private HashMap<String, String> keysAndValues;
+	private LinkedHashSet<String> changedKeys;
 
 	/**
 	 * <p>
@@ -54,7 +63,8 @@ public class Registry {
 	 */
 	public Registry() {
 		keysAndValues = new HashMap<String, String>();
-		keysAndComponents = new HashMap<String, ArrayList<IUpdateable>>();
+		keysAndComponents = new HashMap<String, LinkedHashSet<IUpdateable>>();
+		changedKeys = new LinkedHashSet<String>();
 	}
 
 	/**
@@ -84,22 +94,51 @@ public class Registry {
 
 		// Local Declarations
 		boolean retVal = false;
+		LinkedHashSet<IUpdateable> registrants = keysAndComponents.get(key);
 
-		// Check the maps to see if they contain the key
-		if (keysAndComponents.containsKey(key)
-				&& keysAndValues.containsKey(key)) {
-			// Just push the registrant onto the list, set the return value
-			retVal = keysAndComponents.get(key).add(registrant);
-		} else {
-			// Create a a dummy list for the Entries
-			ArrayList<IUpdateable> dummyList = new ArrayList<IUpdateable>();
-			dummyList.add(registrant);
-			// Put the key and the list into the map
-			keysAndComponents.put(key, dummyList);
+		// Create the list of registrants if the key does not have one yet
+		if (registrants == null) {
+			registrants = new LinkedHashSet<IUpdateable>();
+			keysAndComponents.put(key, registrants);
+		}
+		// Add the key without a value if it is not in the Registry
+		if (!keysAndValues.containsKey(key)) {
 			keysAndValues.put(key, null);
-			// Set the return value by checking for the keys
-			retVal = keysAndComponents.containsKey(key)
-					|| keysAndValues.containsKey(key);
+		}
+		// Add the registrant. The key is marked as changed so that the new
+		// registrant receives the value in the next dispatch.
+		registrants.add(registrant);
+		changedKeys.add(key);
+		// Set the return value by checking for the keys
+		retVal = keysAndComponents.containsKey(key)
+				&& keysAndValues.containsKey(key);
+
+		return retVal;
+	}
+
+	/**
+	 * This operation removes a registrant from the set of IUpdateables that
+	 * depend on a key. The key and its value remain in the Registry.
+	 * 
+	 * @param registrant
+	 *            The IUpdateable that should no longer be notified of changes.
+	 * @param key
+	 *            The key against which the registrant was registered.
+	 * @return True if the registrant was registered against the key and has
+	 *         been removed, false otherwise.
+	 */
+	public boolean unregister(IUpdateable registrant, String key) {
+
+		// Local Declarations
+		boolean retVal = false;
+		LinkedHashSet<IUpdateable> registrants = keysAndComponents.get(key);
+
+		// Remove the registrant and drop the list if it is empty
+		if (registrants != null) {
+			retVal = registrants.remove(registrant);
+			if (registrants.isEmpty()) {
+				keysAndComponents.remove(key);
+			}
 		}
 
 		return retVal;
@@ -109,25 +148,70 @@ public class Registry {
 	 * <p>
 	 * The dispatch operation directs the Registry to call the update operation
 	 * on all of the Entries that are registered against keys with updated
-	 * values.
+	 * values. Keys that have not changed since the last dispatch are skipped.
 	 * </p>
 	 */
 	public void dispatch() {
 
-		// Loop over all the keys and update the ones that need it.
-		for (String aKey : keysAndValues.keySet()) {
-			// Debug info
-			// Only do the update for keys that have registrants
-			if (keysAndComponents.containsKey(aKey)) {
-				for (IUpdateable registrant : keysAndComponents.get(aKey)) {
-					registrant.update(aKey, keysAndValues.get(aKey));
-					// Debug information
-				}
-			}
+		// Nothing to do if nothing changed
+		if (changedKeys.isEmpty()) {
+			return;
 		}
 
-		// This is debug information only - print the registered keys and the
-		// hashcodes
+		// Copy and clear the changed keys first so that registrants may change
+		// values during their updates without disturbing the loop. Those
+		// changes will go out in the next dispatch.
+		String[] keys = changedKeys.toArray(new String[changedKeys.size()]);
+		changedKeys.clear();
+
+		// Update the registrants of the changed keys
+		for (String aKey : keys) {
+			update(aKey);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation directs the Registry to call the update operation on all
+	 * of the registrants of every key, whether or not the values of the keys
+	 * have changed. It clears the set of changed keys.
+	 */
+	public void dispatchAll() {
+
+		// Clear the changed keys since everything will be updated
+		changedKeys.clear();
+
+		// Loop over all the keys and update their registrants
+		String[] keys = keysAndComponents.keySet().toArray(
+				new String[keysAndComponents.size()]);
+		for (String aKey : keys) {
+			update(aKey);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation calls the update operation of every registrant of a key
+	 * with the current value of the key.
+	 * 
+	 * @param key
+	 *            The key whose registrants should be updated.
+	 */
+	private void update(String key) {
+
+		// Local Declarations
+		LinkedHashSet<IUpdateable> registrants = keysAndComponents.get(key);
+		String value = keysAndValues.get(key);
+
+		// Only do the update for keys that have registrants
+		if (registrants != null) {
+			for (IUpdateable registrant : registrants
+					.toArray(new IUpdateable[registrants.size()])) {
+				registrant.update(key, value);
+			}
+		}
 
 		return;
 	}
@@ -152,7 +236,11 @@ public class Registry {
 	public boolean setValue(String key, String value) {
 		boolean retVal = false;
 
-		// Set the value against the key
+		// Set the value against the key and mark it if it changed
+		if (!keysAndValues.containsKey(key)
+				|| !equal(keysAndValues.get(key), value)) {
+			changedKeys.add(key);
+		}
 		keysAndValues.put(key, value);
 		// Set the return value by making sure it actually made it into the map
 		retVal = keysAndValues.containsKey(key);
@@ -206,9 +294,12 @@ public class Registry {
 		// Local Declarations
 		boolean retVal = false;
 
-		// Update the value if it is in the map
+		// Update the value if it is in the map and mark it if it changed
 		if (keysAndValues.containsKey(key)) {
-			keysAndValues.put(key, value);
+			if (!equal(keysAndValues.get(key), value)) {
+				keysAndValues.put(key, value);
+				changedKeys.add(key);
+			}
 			retVal = true;
 		}
 
@@ -231,4 +322,38 @@ public class Registry {
 	public boolean containsKey(String keyToCheck) {
 		return keysAndValues.containsKey(keyToCheck);
 	}
-}
\ No newline at end of file
+
+	/**
+	 * This operation returns the keys that have at least one registrant. These
+	 * are the only keys whose values can affect the result of a dispatch.
+	 * 
+	 * @return An unmodifiable view of the keys with registrants.
+	 */
+	public Set<String> getDependencyKeys() {
+		return Collections.unmodifiableSet(keysAndComponents.keySet());
+	}
+
+	/**
+	 * This operation checks to see if any keys have been set, changed or
+	 * given new registrants since the last dispatch.
+	 * 
+	 * @return True if the next call to dispatch() will update registrants,
+	 *         false otherwise.
+	 */
+	public boolean hasChanges() {
+		return !changedKeys.isEmpty();
+	}
+
+	/**
+	 * This operation compares two values, either of which may be null.
+	 * 
+	 * @param first
+	 *            The first value
+	 * @param second
+	 *            The second value
+	 * @return True if the values are equal or both null, false otherwise.
+	 */
+	private static boolean equal(String first, String second) {
+		return (first == null) ? second == null : first.equals(second);
+	}
+}
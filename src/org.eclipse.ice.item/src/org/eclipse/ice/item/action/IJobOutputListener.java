@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.action;
+
+import org.eclipse.ice.datastructures.form.FormStatus;
+
+/**
+ * This interface is realized by classes that want to receive the output of a
+ * job as it is written by the JobLaunchAction instead of reading it back from
+ * the log files. The standard output and standard error streams are read on
+ * separate threads, so outputReceived() may be called from more than one
+ * thread at the same time.
+ *
+ * @author Jay Jay Billings
+ */
+public interface IJobOutputListener {
+
+	/**
+	 * This operation is called with new output from the job. The output
+	 * contains one or more complete lines, each of which ends with a line
+	 * break.
+	 *
+	 * @param output
+	 *            The new output
+	 * @param isError
+	 *            True if the output was written to standard error, false if
+	 *            it was written to standard output
+	 */
+	public void outputReceived(String output, boolean isError);
+
+	/**
+	 * This operation is called once after the job is finished and all of its
+	 * output has been written.
+	 *
+	 * @param status
+	 *            The final status of the action
+	 */
+	public void outputFinished(FormStatus status);
+
+}
@@ -12,13 +12,11 @@
  *******************************************************************************/
 package org.eclipse.ice.item.action;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.InetAddress;
 import java.net.URI;
 import java.net.UnknownHostException;
@@ -31,6 +29,7 @@ import java.util.Date;
 import java.util.Dictionary;
 import java.util.Enumeration;
 import java.util.Hashtable;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -386,6 +385,28 @@ public class JobLaunchAction extends Action implements Runnable {
 	 */
 	BufferedWriter stdOut = null, stdErr = null;
 
+	/**
+	 * The listeners that receive the output of the job as it is written.
+	 */
+	private CopyOnWriteArrayList<IJobOutputListener> outputListeners;
+
+	/**
+	 * The most recent output of the job from both stdout and stderr in the
+	 * order that it was received. It is trimmed to maxTailSize characters.
+	 */
+	private StringBuilder outputTail;
+
+	/**
+	 * The maximum number of characters kept in the output tail.
+	 */
+	private static final int maxTailSize = 65536;
+
+	/**
+	 * The listener that is given to the JobOutputLoggers. It adds the output
+	 * to the tail and passes it to the output listeners.
+	 */
+	private IJobOutputListener outputDispatcher;
+
 	/**
 	 * A process for storing the process information from the launch.
 	 */
@@ -463,6 +484,37 @@ public class JobLaunchAction extends Action implements Runnable {
 		fileMap = new Hashtable<String, String>();
 		cancelled = new AtomicBoolean(false);
 
+		// Setup the output listeners and the tail
+		outputListeners = new CopyOnWriteArrayList<IJobOutputListener>();
+		outputTail = new StringBuilder();
+		outputDispatcher = new IJobOutputListener() {
+			@Override
+			public void outputReceived(String output, boolean isError) {
+				// Add the output to the tail
+				synchronized (outputTail) {
+					outputTail.append(output);
+					if (outputTail.length() > maxTailSize) {
+						// Drop the oldest output, but keep whole lines
+						int start = outputTail.length() - maxTailSize;
+						int lineEnd = outputTail.indexOf("\n", start);
+						outputTail.delete(0, (lineEnd < 0) ? start
+								: lineEnd + 1);
+					}
+				}
+				// Pass it on
+				for (IJobOutputListener listener : outputListeners) {
+					listener.outputReceived(output, isError);
+				}
+			}
+
+			@Override
+			public void outputFinished(FormStatus status) {
+				for (IJobOutputListener listener : outputListeners) {
+					listener.outputFinished(status);
+				}
+			}
+		};
+
 		// Get the maxFileSize from the system properties
 		String fileSize = System.getProperty("max_download_size");
 		if (fileSize != null) {
@@ -805,7 +857,7 @@ public class JobLaunchAction extends Action implements Runnable {
 		if (errMsg != null) {
 			try {
 				// Write the message
-				stdErr.write(errMsg);
+				writeOutput(errMsg, true);
 				// Close the streams
 				stdOut.close();
 				stdErr.close();
@@ -822,7 +874,6 @@ public class JobLaunchAction extends Action implements Runnable {
 		// Log the output
 		stdOutStream = job.getInputStream();
 		stdErrStream = job.getErrorStream();
-		logOutput(stdOutStream, stdErrStream);
 		if (logOutput(stdOutStream, stdErrStream).equals(FormStatus.InfoError)) {
 			// Throw an error if the streaming fails
 			return FormStatus.InfoError;
@@ -885,7 +936,11 @@ public class JobLaunchAction extends Action implements Runnable {
 	}
 
 	/**
-	 * This operation logs the content of the output and error streams
+	 * This operation logs the content of the output and error streams. Both
+	 * streams are read at the same time, stdout on the calling thread and
+	 * stderr on a new thread, so that the job can not stall by filling one
+	 * of them while the other is being read. It returns when both streams are
+	 * closed.
 	 * 
 	 * @param output
 	 *            The output stream from the code
@@ -896,44 +951,92 @@ public class JobLaunchAction extends Action implements Runnable {
 	protected FormStatus logOutput(InputStream output, InputStream errors) {
 
 		// Local Declarations
-		InputStreamReader stdOutStreamReader, stdErrStreamReader;
-		BufferedReader stdOutReader, stdErrReader;
-		String nextLine;
-
-		// Setup the BufferedReader that will get stdout from the process.
-		stdOutStreamReader = new InputStreamReader(output);
-		stdOutReader = new BufferedReader(stdOutStreamReader);
-		// Setup the BufferedReader that will get stderr from the process.
-		stdErrStreamReader = new InputStreamReader(errors);
-		stdErrReader = new BufferedReader(stdErrStreamReader);
+		JobOutputLogger stdOutLogger = new JobOutputLogger(output, stdOut,
+				false, outputDispatcher);
+		JobOutputLogger stdErrLogger = new JobOutputLogger(errors, stdErr,
+				true, outputDispatcher);
+		Thread stdErrThread = new Thread(stdErrLogger);
 
 		// Catch the stdout and stderr output
+		stdErrThread.start();
+		stdOutLogger.run();
 		try {
-			// Write to the stdOut file
-			while ((nextLine = stdOutReader.readLine()) != null) {
-				stdOut.write(nextLine);
-				// MUST put a new line for this type of writer. "\r\n" works on
-				// Windows and Unix-based systems.
-				stdOut.write("\r\n");
-				stdOut.flush();
-			}
-			// Write to the stdErr file
-			while ((nextLine = stdErrReader.readLine()) != null) {
-				stdErr.write(nextLine);
-				// MUST put a new line for this type of writer. "\r\n" works on
-				// Windows and Unix-based systems.
-				stdErr.write("\r\n");
-				stdErr.flush();
-			}
-		} catch (IOException e) {
+			stdErrThread.join();
+		} catch (InterruptedException e) {
 			// Or fail and complain about it.
 			e.printStackTrace();
 			return FormStatus.InfoError;
 		}
 
+		// Check the loggers
+		if (stdOutLogger.hasFailed() || stdErrLogger.hasFailed()) {
+			return FormStatus.InfoError;
+		}
+
 		return FormStatus.Processing;
 	}
 
+	/**
+	 * This operation writes a message to the stdout or stderr file and passes
+	 * it to the output listeners.
+	 * 
+	 * @param output
+	 *            The message
+	 * @param isError
+	 *            True if the message should be written to stderr, false if it
+	 *            should be written to stdout
+	 * @throws IOException
+	 */
+	private void writeOutput(String output, boolean isError)
+			throws IOException {
+
+		// Write the message
+		BufferedWriter writer = (isError) ? stdErr : stdOut;
+		writer.write(output);
+		writer.flush();
+
+		// Pass it on
+		outputDispatcher.outputReceived(output, isError);
+
+		return;
+	}
+
+	/**
+	 * This operation registers a listener that will receive the output of the
+	 * job as it is written to the stdout and stderr files.
+	 * 
+	 * @param listener
+	 *            The listener
+	 */
+	public void addOutputListener(IJobOutputListener listener) {
+		if (listener != null) {
+			outputListeners.addIfAbsent(listener);
+		}
+	}
+
+	/**
+	 * This operation unregisters a listener from the output of the job.
+	 * 
+	 * @param listener
+	 *            The listener
+	 */
+	public void removeOutputListener(IJobOutputListener listener) {
+		outputListeners.remove(listener);
+	}
+
+	/**
+	 * This operation returns the most recent output of the job from both
+	 * stdout and stderr in the order that it was received. Only the last
+	 * 64 kB or so are kept.
+	 * 
+	 * @return The most recent output
+	 */
+	public String getOutputTail() {
+		synchronized (outputTail) {
+			return outputTail.toString();
+		}
+	}
+
 	/**
 	 * This operation launches the job on a remote machine.
 	 */
@@ -1183,7 +1286,7 @@ public class JobLaunchAction extends Action implements Runnable {
 							String msg = "JobLaunchAction Message: " + "Downloading " + fileInfo.getName()
 									+ " with length " + fileInfo.getLength() + ".";
 							System.out.println(msg);
-							stdOut.write(msg + "\n");
+							writeOutput(msg + "\n", false);
 							// Get a handle to the local file. Note that it may
 							// not
 							// exist yet.
@@ -1201,10 +1304,8 @@ public class JobLaunchAction extends Action implements Runnable {
 									+ "File with size " + fileInfo.getLength() + " is " + sizeDiff + " bytes over the "
 									+ maxFileSize + " byte limit.";
 							System.out.println(msg);
-							stdOut.write(msg + "\n");
+							writeOutput(msg + "\n", false);
 						}
-						// Flush the messages so that clients can be updated.
-						stdOut.flush();
 					}
 				} catch (CoreException e) {
 					// TODO Auto-generated catch block
@@ -1449,6 +1550,7 @@ public class JobLaunchAction extends Action implements Runnable {
 		if (executable == null || (uploadInput && inputFile == null) || stdOutFileName == null || stdErrFileName == null
 				|| hostname == null) {
 			status = FormStatus.InfoError;
+			outputDispatcher.outputFinished(status);
 			return;
 		}
 
@@ -1477,8 +1579,8 @@ public class JobLaunchAction extends Action implements Runnable {
 		stdErrHeader = createOutputHeader("standard error");
 		// And write them
 		try {
-			stdOut.write(stdOutHeader);
-			stdErr.write(stdErrHeader);
+			writeOutput(stdOutHeader, false);
+			writeOutput(stdErrHeader, true);
 		} catch (IOException e) {
 			// Complain
 			e.printStackTrace();
@@ -1501,9 +1603,11 @@ public class JobLaunchAction extends Action implements Runnable {
 			// Complain
 			e.printStackTrace();
 			status = FormStatus.InfoError;
-			return;
 		}
 
+		// Let the listeners know that the job is done
+		outputDispatcher.outputFinished(status);
+
 		return;
 	}
 
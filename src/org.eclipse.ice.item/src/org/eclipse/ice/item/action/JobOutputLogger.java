@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.action;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+
+/**
+ * This class copies one output stream of a job, such as standard output or
+ * standard error, to a log and to a listener. It is a Runnable so that both
+ * streams of a job can be read at the same time, which keeps the job from
+ * stalling when it fills the pipe of the stream that is not being read.
+ *
+ * Lines are collected and written to the log in batches instead of one at a
+ * time. A batch is written and flushed when it is larger than the flush size,
+ * when the flush interval has passed since the last write or when no more
+ * output is waiting to be read. Each batch is also passed to the listener, so
+ * listeners see the same output as the log at the same time.
+ *
+ * @author Jay Jay Billings
+ */
+public class JobOutputLogger implements Runnable {
+
+	/**
+	 * The number of characters that are collected before they are written to
+	 * the log.
+	 */
+	public static final int flushSize = 8192;
+
+	/**
+	 * The longest time in milliseconds that output is held before it is
+	 * written to the log.
+	 */
+	public static final long flushInterval = 250;
+
+	/**
+	 * The stream that is read.
+	 */
+	private final InputStream input;
+
+	/**
+	 * The log to which the output is written. It may be null.
+	 */
+	private final Writer log;
+
+	/**
+	 * True if the stream is the standard error stream of the job.
+	 */
+	private final boolean isError;
+
+	/**
+	 * The listener that receives each batch of output. It may be null.
+	 */
+	private final IJobOutputListener listener;
+
+	/**
+	 * True if the stream could not be read or the log could not be written.
+	 */
+	private volatile boolean failed = false;
+
+	/**
+	 * The constructor.
+	 *
+	 * @param input
+	 *            The stream to read
+	 * @param log
+	 *            The log to which the output should be written or null if it
+	 *            should not be written to a log
+	 * @param isError
+	 *            True if the stream is the standard error stream of the job
+	 * @param listener
+	 *            The listener that should receive the output or null if there
+	 *            is none
+	 */
+	public JobOutputLogger(InputStream input, Writer log, boolean isError,
+			IJobOutputListener listener) {
+		this.input = input;
+		this.log = log;
+		this.isError = isError;
+		this.listener = listener;
+	}
+
+	/**
+	 * This operation reads the stream until it is closed.
+	 *
+	 * @see Runnable#run()
+	 */
+	@Override
+	public void run() {
+
+		// Local Declarations
+		BufferedReader reader = new BufferedReader(new InputStreamReader(
+				input));
+		StringBuilder batch = new StringBuilder();
+		long lastWrite = System.currentTimeMillis();
+		String nextLine;
+
+		try {
+			while ((nextLine = reader.readLine()) != null) {
+				batch.append(nextLine);
+				// MUST put a new line for this type of writer. "\r\n" works on
+				// Windows and Unix-based systems.
+				batch.append("\r\n");
+				// Write the batch if it is big enough, old enough or if
+				// reading the next line would block
+				if (batch.length() >= flushSize
+						|| System.currentTimeMillis() - lastWrite >= flushInterval
+						|| !reader.ready()) {
+					write(batch);
+					lastWrite = System.currentTimeMillis();
+				}
+			}
+			// Write whatever is left
+			write(batch);
+		} catch (IOException e) {
+			// Complain
+			e.printStackTrace();
+			failed = true;
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation writes a batch of output to the log and the listener and
+	 * clears it.
+	 *
+	 * @param batch
+	 *            The batch of output
+	 * @throws IOException
+	 */
+	private void write(StringBuilder batch) throws IOException {
+
+		// Skip empty batches
+		if (batch.length() == 0) {
+			return;
+		}
+
+		String output = batch.toString();
+		batch.setLength(0);
+		if (log != null) {
+			log.write(output);
+			log.flush();
+		}
+		if (listener != null) {
+			listener.outputReceived(output, isError);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation returns true if the stream could not be read or the log
+	 * could not be written.
+	 *
+	 * @return True if logging failed, false otherwise
+	 */
+	public boolean hasFailed() {
+		return failed;
+	}
+
+}
@@ -12,11 +12,8 @@
  *******************************************************************************/
 package org.eclipse.ice.item.jobLauncher;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
-import java.io.File;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.net.InetAddress;
@@ -46,6 +43,7 @@ import org.eclipse.ice.datastructures.form.TableComponent;
 import org.eclipse.ice.datastructures.resource.ICEResource;
 import org.eclipse.ice.item.Item;
 import org.eclipse.ice.item.ItemType;
+import org.eclipse.ice.item.action.IJobOutputListener;
 import org.eclipse.ice.item.action.JobLaunchAction;
 
 /**
@@ -920,14 +918,16 @@ public class JobLauncher extends Item {
 				}
 				// Create the output files in the project space
 				createOutputFiles();
+				// Create the action and stream its output to the output file
+				// for clients before it is launched
+				JobLaunchAction launchAction = new JobLaunchAction();
+				streamOutputData(launchAction);
+				action = launchAction;
 				// Launch the action
-				action = new JobLaunchAction();
 				localStatus = action.execute(actionDataMap);
 			} else {
 				localStatus = FormStatus.InfoError;
 			}
-			// Start the thread that fills the output file to stream to clients.
-			streamOutputData();
 
 		}
 
@@ -938,84 +938,64 @@ public class JobLauncher extends Item {
 	}
 
 	/**
-	 * This operations grabs the information from the stdout and stderr files
-	 * and puts it into the output file for JobLauncher that is consumed by
-	 * clients.
+	 * This operation registers a listener with the JobLaunchAction that writes
+	 * the stdout and stderr output of the job into the output file for
+	 * JobLauncher that is consumed by clients. The output is written and
+	 * flushed as the action pushes it, so the stdout and stderr files are not
+	 * re-read.
+	 * 
+	 * @param launchAction
+	 *            The action whose output should be streamed
 	 */
-	private void streamOutputData() {
+	private void streamOutputData(JobLaunchAction launchAction) {
+
+		// Local Declarations
+		final BufferedWriter outputFileWriter;
+
+		// Open the output file for writing
+		try {
+			outputFileWriter = new BufferedWriter(new FileWriter(outputFile));
+		} catch (IOException e) {
+			// Complain and return
+			e.printStackTrace();
+			return;
+		}
 
-		// Create the thread
-		Thread streamingThread = new Thread(new Runnable() {
+		// Register the listener
+		launchAction.addOutputListener(new IJobOutputListener() {
 			@Override
-			public void run() {
-				// Local Declarations
-				File stdout = new File(actionDataMap.get("stdOutFileName")), stderr = new File(
-						actionDataMap.get("stdErrFileName"));
-				FileWriter outputFileWriter = null;
-				BufferedWriter outputFileBufferedWriter = null;
-				FileReader stdoutReader = null, stderrReader = null;
-				BufferedReader stdoutBufferredReader = null, stderrBufferredReader = null;
-				String line = null;
-
-				try {
-					// Open the output file for writing
-					outputFileWriter = new FileWriter(outputFile);
-					outputFileBufferedWriter = new BufferedWriter(
-							outputFileWriter);
-					// Open the JobLauncherAction stdout file for reading
-					stdoutReader = new FileReader(stdout);
-					stdoutBufferredReader = new BufferedReader(stdoutReader);
-					// Open the JobLauncherAction stderr file
-					stderrReader = new FileReader(stderr);
-					stderrBufferredReader = new BufferedReader(stderrReader);
-					// Run until the launcher is done processing
-					while (status.equals(FormStatus.Processing)
-							|| status.equals(FormStatus.NeedsInfo)) {
-						// Read stdout into the output file
-						while ((line = stdoutBufferredReader.readLine()) != null) {
-							outputFileBufferedWriter.write(line);
-							outputFileBufferedWriter.write("\r\n");
-						}
-						// Read stderr into the output file
-						while ((line = stderrBufferredReader.readLine()) != null) {
-							outputFileBufferedWriter.write(line);
-							outputFileBufferedWriter.write("\r\n");
-						}
-						// Flush!
-						outputFileBufferedWriter.flush();
-						// Sleep for a bit
-						Thread.currentThread();
-						Thread.sleep(100);
-						status = action.getStatus();
+			public void outputReceived(String output, boolean isError) {
+				// The stdout and stderr loggers push from different threads
+				synchronized (outputFileWriter) {
+					try {
+						outputFileWriter.write(output);
+						outputFileWriter.flush();
+					} catch (IOException e) {
+						// Complain
+						e.printStackTrace();
 					}
-					// Close stdout
-					stdoutBufferredReader.close();
-					stdoutReader.close();
-					// Close stderr
-					stderrBufferredReader.close();
-					stderrReader.close();
-					// Close the output file
-					outputFileBufferedWriter.close();
-					outputFileWriter.close();
-					// Check the project space to see if new resources were
-					// downloaded that should be added to the ICEResource.
-					updateResourceComponent();
-				} catch (IOException e) {
-					// Complain and return
-					e.printStackTrace();
-					return;
-				} catch (InterruptedException e) {
-					// Complain and return
-					e.printStackTrace();
-					return;
 				}
+			}
 
+			@Override
+			public void outputFinished(FormStatus finalStatus) {
+				// Close the output file
+				synchronized (outputFileWriter) {
+					try {
+						outputFileWriter.close();
+					} catch (IOException e) {
+						// Complain
+						e.printStackTrace();
+					}
+				}
+				status = finalStatus;
+				// Check the project space to see if new resources were
+				// downloaded that should be added to the ICEResource.
+				updateResourceComponent();
 			}
 		});
 
-		// Start the thread
 		System.out.println("JobLauncher Message: Starting output data stream.");
-		streamingThread.start();
 
 		return;
 	}
@@ -0,0 +1,324 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.messaging;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.PriorityQueue;
+
+/**
+ * The MessageHistory keeps the most recent Messages that were posted to an
+ * Item so that clients can look at the progress of a job without reading its
+ * output files.
+ *
+ * Each type of Message, such as PROGRESS_UPDATED or CONVERGENCE_UPDATED, has
+ * its own ring buffer with a fixed capacity. When a buffer is full, the oldest
+ * Message of that type is dropped, so frequent Messages of one type never push
+ * out the Messages of another type. Every Message is also numbered in the
+ * order in which it was added so that the Messages of all types can be
+ * returned in that order.
+ *
+ * The MessageHistory is thread safe.
+ *
+ * @author Jay Jay Billings
+ */
+public class MessageHistory {
+
+	/**
+	 * The default number of Messages of each type that are kept.
+	 */
+	public static final int defaultCapacity = 256;
+
+	/**
+	 * The number of Messages of each type that are kept.
+	 */
+	private final int capacity;
+
+	/**
+	 * The ring buffers, keyed by the type of the Message.
+	 */
+	private final HashMap<String, RingBuffer> buffers;
+
+	/**
+	 * The sequence number of the next Message that is added, across all types.
+	 */
+	private long nextSequence;
+
+	/**
+	 * The constructor. It keeps the default number of Messages of each type.
+	 */
+	public MessageHistory() {
+		this(defaultCapacity);
+	}
+
+	/**
+	 * The constructor.
+	 *
+	 * @param capacity
+	 *            The number of Messages of each type that should be kept. It
+	 *            must be greater than zero.
+	 */
+	public MessageHistory(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("MessageHistory Error: "
+					+ "The capacity must be greater than zero.");
+		}
+		this.capacity = capacity;
+		buffers = new HashMap<String, RingBuffer>();
+	}
+
+	/**
+	 * This operation adds a Message to the history. If the history of its type
+	 * is full, the oldest Message of that type is dropped.
+	 *
+	 * @param msg
+	 *            The Message. Null Messages are ignored.
+	 */
+	public synchronized void add(Message msg) {
+
+		if (msg != null) {
+			String type = (msg.getType() != null) ? msg.getType() : "";
+			RingBuffer buffer = buffers.get(type);
+			if (buffer == null) {
+				buffer = new RingBuffer(capacity);
+				buffers.put(type, buffer);
+			}
+			buffer.add(msg, nextSequence++);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation returns the most recent Messages of a type.
+	 *
+	 * @param type
+	 *            The type of the Messages, or null for Messages of every type.
+	 * @param count
+	 *            The maximum number of Messages to return. If it is less than
+	 *            one, every Message of the type in the history is returned.
+	 * @return The Messages, ordered from oldest to newest. If the type is
+	 *         null, the maximum applies to each type separately and the
+	 *         Messages of all types are merged in the order in which they
+	 *         were added.
+	 */
+	public synchronized ArrayList<Message> getRecent(String type, int count) {
+
+		// Local Declarations
+		ArrayList<Message> messages = new ArrayList<Message>();
+
+		if (type != null) {
+			RingBuffer buffer = buffers.get(type);
+			if (buffer != null) {
+				buffer.copyRecent(count, messages);
+			}
+		} else {
+			// Merge the buffers by sequence number. Each buffer is already in
+			// order, so only the head of each one needs to be compared.
+			PriorityQueue<Cursor> heads = new PriorityQueue<Cursor>();
+			for (RingBuffer buffer : buffers.values()) {
+				Cursor cursor = new Cursor(buffer, count);
+				if (cursor.hasNext()) {
+					heads.add(cursor);
+				}
+			}
+			Cursor cursor;
+			while ((cursor = heads.poll()) != null) {
+				messages.add(cursor.next());
+				if (cursor.hasNext()) {
+					heads.add(cursor);
+				}
+			}
+		}
+
+		return messages;
+	}
+
+	/**
+	 * This operation returns the total number of Messages of a type that were
+	 * added to the history, including those that have been dropped.
+	 *
+	 * @param type
+	 *            The type of the Messages
+	 * @return The number of Messages
+	 */
+	public synchronized long getTotalCount(String type) {
+		RingBuffer buffer = buffers.get(type);
+		return (buffer != null) ? buffer.total : 0;
+	}
+
+	/**
+	 * This operation removes every Message from the history.
+	 */
+	public synchronized void clear() {
+		buffers.clear();
+	}
+
+	/**
+	 * This class is a fixed size ring buffer of Messages.
+	 *
+	 * @author Jay Jay Billings
+	 */
+	private static class RingBuffer {
+
+		/**
+		 * The Messages
+		 */
+		private final Message[] messages;
+
+		/**
+		 * The sequence numbers of the Messages in the history
+		 */
+		private final long[] sequences;
+
+		/**
+		 * The total number of Messages that have been added. The next Message
+		 * goes to total % messages.length.
+		 */
+		private long total;
+
+		/**
+		 * The constructor
+		 *
+		 * @param capacity
+		 *            The size of the buffer
+		 */
+		public RingBuffer(int capacity) {
+			messages = new Message[capacity];
+			sequences = new long[capacity];
+			total = 0;
+		}
+
+		/**
+		 * This operation adds a Message, overwriting the oldest one if the
+		 * buffer is full.
+		 *
+		 * @param msg
+		 *            The Message
+		 * @param sequence
+		 *            The sequence number of the Message in the history
+		 */
+		public void add(Message msg, long sequence) {
+			int index = (int) (total % messages.length);
+			messages[index] = msg;
+			sequences[index] = sequence;
+			total++;
+		}
+
+		/**
+		 * This operation returns the index in the total count of the oldest of
+		 * the most recent Messages.
+		 *
+		 * @param count
+		 *            The maximum number of Messages, or less than one for all
+		 *            of them
+		 * @return The index of the first Message
+		 */
+		public long first(int count) {
+			int size = (int) Math.min(total, messages.length);
+			if (count > 0 && count < size) {
+				size = count;
+			}
+			return total - size;
+		}
+
+		/**
+		 * This operation copies the most recent Messages to a list, oldest
+		 * first.
+		 *
+		 * @param count
+		 *            The maximum number of Messages, or less than one for all
+		 *            of them
+		 * @param list
+		 *            The list
+		 */
+		public void copyRecent(int count, ArrayList<Message> list) {
+			for (long i = first(count); i < total; i++) {
+				list.add(messages[(int) (i % messages.length)]);
+			}
+		}
+	}
+
+	/**
+	 * This class walks the most recent Messages in a RingBuffer from oldest to
+	 * newest. Cursors are ordered by the sequence number of their next
+	 * Message so that several buffers can be merged.
+	 *
+	 * @author Jay Jay Billings
+	 */
+	private static class Cursor implements Comparable<Cursor> {
+
+		/**
+		 * The buffer
+		 */
+		private final RingBuffer buffer;
+
+		/**
+		 * The index in the total count of the next Message
+		 */
+		private long position;
+
+		/**
+		 * The constructor
+		 *
+		 * @param buffer
+		 *            The buffer
+		 * @param count
+		 *            The maximum number of Messages, or less than one for all
+		 *            of them
+		 */
+		public Cursor(RingBuffer buffer, int count) {
+			this.buffer = buffer;
+			position = buffer.first(count);
+		}
+
+		/**
+		 * This operation returns true if there are more Messages.
+		 *
+		 * @return True if next() will return a Message
+		 */
+		public boolean hasNext() {
+			return position < buffer.total;
+		}
+
+		/**
+		 * This operation returns the next Message and moves past it.
+		 *
+		 * @return The Message
+		 */
+		public Message next() {
+			return buffer.messages[(int) (position++ % buffer.messages.length)];
+		}
+
+		/**
+		 * This operation returns the sequence number of the next Message.
+		 *
+		 * @return The sequence number
+		 */
+		private long sequence() {
+			return buffer.sequences[(int) (position % buffer.sequences.length)];
+		}
+
+		/**
+		 * (non-Javadoc)
+		 *
+		 * @see Comparable#compareTo(Object)
+		 */
+		@Override
+		public int compareTo(Cursor other) {
+			long mine = sequence();
+			long theirs = other.sequence();
+			return (mine < theirs) ? -1 : ((mine == theirs) ? 0 : 1);
+		}
+	}
+}
@@ -0,0 +1,416 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.persistence;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+
+/**
+ * <p>
+ * This class is the work queue shared by the persistence providers. It runs
+ * tasks on a small pool of worker threads. Tasks are keyed, usually by the id
+ * of the Item that they write, and tasks for the same key are always processed
+ * in order, one at a time, while tasks for different keys are processed in
+ * parallel. If a task is submitted for a key that already has a task waiting,
+ * the new task replaces the waiting one because only the last state of an Item
+ * matters.
+ * </p>
+ * <p>
+ * It also provides the atomic file write used by the providers, which writes
+ * a temporary file and renames it over the target so that an interrupted write
+ * can not corrupt a persisted Item.
+ * </p>
+ *
+ * @author Jay Jay Billings
+ */
+public class PersistenceWorkQueue {
+
+	/**
+	 * The maximum number of tasks that may be waiting to be processed.
+	 */
+	private static final int maxPendingTasks = 1024;
+
+	/**
+	 * The name of the queue, which is used for its threads and its messages.
+	 */
+	private final String name;
+
+	/**
+	 * An atomic boolean used to manage the worker pool. It is set to true when
+	 * start is called and false when stop is called. Tasks are not accepted
+	 * while it is false.
+	 */
+	private final AtomicBoolean runFlag = new AtomicBoolean();
+
+	/**
+	 * The tasks that are waiting to be processed, keyed by their keys and
+	 * ordered by submission. A key holds at most one pending task because
+	 * later tasks for the same key replace earlier ones. This map is also the
+	 * lock for inFlightKeys.
+	 */
+	private final LinkedHashMap<String, Runnable> pendingTasks = new LinkedHashMap<String, Runnable>();
+
+	/**
+	 * The keys of the tasks that are currently being processed by a worker. A
+	 * pending task for one of these keys waits until the worker is done.
+	 */
+	private final Set<String> inFlightKeys = new HashSet<String>();
+
+	/**
+	 * The pool of worker threads. It is created when the queue is started.
+	 */
+	private volatile ExecutorService workers;
+
+	/**
+	 * The constructor.
+	 *
+	 * @param name
+	 *            The name of the queue, usually the name of the provider that
+	 *            owns it.
+	 */
+	public PersistenceWorkQueue(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * This operation starts the worker pool. Persistence tasks are CPU bound
+	 * and the writes are small, so there is no point in more threads than
+	 * cores.
+	 */
+	public void start() {
+
+		int poolSize = Math.max(2,
+				Math.min(4, Runtime.getRuntime().availableProcessors()));
+		workers = Executors.newFixedThreadPool(poolSize, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, name + " Worker");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		runFlag.set(true);
+
+		return;
+	}
+
+	/**
+	 * This operation stops the queue. It throws the run flag so that no new
+	 * tasks are accepted and waits until all of the pending tasks and
+	 * background tasks have been processed or for one minute, whichever is
+	 * sooner.
+	 */
+	public void stop() {
+
+		long deadline = System.currentTimeMillis() + 60000;
+
+		// Shut down the workers if they were started
+		if (workers != null) {
+			// Throw the flag so that new tasks are rejected
+			runFlag.set(false);
+			try {
+				// Wait for the pending tasks to drain. Workers may still
+				// schedule follow-up tasks for their keys, so the pool can only
+				// be shut down once nothing is left.
+				synchronized (pendingTasks) {
+					while ((!pendingTasks.isEmpty() || !inFlightKeys.isEmpty())
+							&& System.currentTimeMillis() < deadline) {
+						pendingTasks.wait(Math.max(1L,
+								deadline - System.currentTimeMillis()));
+					}
+				}
+				workers.shutdown();
+				workers.awaitTermination(Math.max(0L,
+						deadline - System.currentTimeMillis()),
+						TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				// Complain if something interrupts naptime!
+				e.printStackTrace();
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation returns true if the queue has been started and not
+	 * stopped.
+	 *
+	 * @return True if tasks are accepted
+	 */
+	public boolean isRunning() {
+		return runFlag.get() && workers != null;
+	}
+
+	/**
+	 * This operation queues a task. If a task for the same key is still
+	 * waiting, the new task replaces it.
+	 *
+	 * @param key
+	 *            The key of the task. Tasks with the same key are processed in
+	 *            order, one at a time.
+	 * @param task
+	 *            The task
+	 * @return True if the task was queued, false if the queue is not running
+	 *         or too many tasks are waiting.
+	 */
+	public boolean submit(String key, Runnable task) {
+
+		synchronized (pendingTasks) {
+			// Make sure the task can be accepted
+			if (!isRunning()) {
+				System.out.println(name + " Message: "
+						+ "Provider is not running. Task rejected.");
+				return false;
+			} else if (!pendingTasks.containsKey(key)
+					&& pendingTasks.size() >= maxPendingTasks) {
+				System.out.println(name + " Message: "
+						+ "Task queue is full. Task rejected.");
+				return false;
+			}
+			// Merge with or add to the pending tasks
+			pendingTasks.put(key, task);
+			// Only schedule a worker if none is working on this key. Otherwise
+			// the worker will pick the task up when it is done.
+			if (!inFlightKeys.contains(key)) {
+				scheduleTask(key);
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * This operation runs a task for a key on the calling thread, but only if
+	 * no other task for the key is waiting or being processed. Tasks that are
+	 * submitted for the key while it runs wait until it is done, just like
+	 * they wait for a worker. It is used for work that must not race the
+	 * queued tasks for the same key but must not replace them either.
+	 *
+	 * @param key
+	 *            The key of the task
+	 * @param task
+	 *            The task
+	 * @return True if the task was run, false if the key was busy
+	 */
+	public boolean runIfIdle(String key, Runnable task) {
+
+		// Claim the key if nothing else is using it
+		synchronized (pendingTasks) {
+			if (pendingTasks.containsKey(key) || inFlightKeys.contains(key)) {
+				return false;
+			}
+			inFlightKeys.add(key);
+		}
+
+		try {
+			task.run();
+		} finally {
+			// Release the key and hand anything that was submitted in the
+			// meantime to the workers
+			synchronized (pendingTasks) {
+				inFlightKeys.remove(key);
+				if (pendingTasks.containsKey(key)) {
+					scheduleTask(key);
+				}
+				pendingTasks.notifyAll();
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * This operation hands the pending task for a key to the workers. It must
+	 * be called while holding the lock on pendingTasks and only for keys that
+	 * are not in flight.
+	 *
+	 * @param key
+	 *            The key of the task that should be processed.
+	 */
+	private void scheduleTask(final String key) {
+
+		inFlightKeys.add(key);
+		workers.execute(new Runnable() {
+			@Override
+			public void run() {
+				// Local Declarations
+				Runnable currentTask = null;
+				// Keep processing the key until nothing new was submitted for
+				// it while the last task was being processed.
+				while (true) {
+					synchronized (pendingTasks) {
+						currentTask = pendingTasks.remove(key);
+						if (currentTask == null) {
+							inFlightKeys.remove(key);
+							pendingTasks.notifyAll();
+							return;
+						}
+					}
+					try {
+						currentTask.run();
+					} catch (RuntimeException e) {
+						// Complain, but don't let one bad Item stop the others
+						e.printStackTrace();
+					}
+				}
+			}
+		});
+
+		return;
+	}
+
+	/**
+	 * This operation runs a task on the worker pool without a key, for work
+	 * that should not hold up the caller, such as converting files when a
+	 * provider starts. stop() waits for it like it waits for keyed tasks.
+	 *
+	 * @param task
+	 *            The task
+	 * @return The future of the task or null if the queue is not running
+	 */
+	public Future<?> runInBackground(Runnable task) {
+		return isRunning() ? workers.submit(task) : null;
+	}
+
+	/**
+	 * This operation runs a list of tasks on the worker pool and collects
+	 * their results in order, dropping any null results. If the queue is not
+	 * running, a temporary pool is used instead. It must not be called from a
+	 * worker thread.
+	 *
+	 * @param tasks
+	 *            The tasks to run
+	 * @return The non-null results of the tasks
+	 */
+	public <T> ArrayList<T> runInParallel(List<Callable<T>> tasks) {
+
+		// Local Declarations
+		ArrayList<T> results = new ArrayList<T>();
+		ExecutorService pool = workers;
+		boolean temporaryPool = (pool == null || pool.isShutdown());
+
+		// Create a pool if the workers are not available
+		if (temporaryPool) {
+			pool = Executors.newFixedThreadPool(Math.max(1, Runtime
+					.getRuntime().availableProcessors()));
+		}
+
+		try {
+			for (Future<T> future : pool.invokeAll(tasks)) {
+				try {
+					T result = future.get();
+					if (result != null) {
+						results.add(result);
+					}
+				} catch (ExecutionException e) {
+					// Complain
+					e.printStackTrace();
+				}
+			}
+		} catch (InterruptedException e) {
+			// Complain
+			e.printStackTrace();
+		} finally {
+			if (temporaryPool) {
+				pool.shutdown();
+			}
+		}
+
+		return results;
+	}
+
+	/**
+	 * This operation writes bytes to a file. If the file is backed by the
+	 * local file system, the bytes are written to a temporary file in the same
+	 * directory which is then renamed over the target so that readers never
+	 * see a partially written file. If the write fails, the old file is left
+	 * as it was and the temporary file is removed.
+	 *
+	 * @param file
+	 *            The file that should be written
+	 * @param bytes
+	 *            The bytes
+	 * @throws CoreException
+	 *             An exception thrown if the workspace can not update the
+	 *             file.
+	 * @throws IOException
+	 *             An exception thrown if the file can not be written.
+	 */
+	public static void writeFile(IFile file, byte[] bytes)
+			throws CoreException, IOException {
+
+		File target = (file.getLocation() != null) ? file.getLocation()
+				.toFile() : null;
+		if (target != null && target.getParentFile() != null
+				&& target.getParentFile().isDirectory()) {
+			// Write the temporary file and swap it in
+			File tempFile = new File(target.getParentFile(), "."
+					+ target.getName() + ".tmp");
+			try {
+				FileOutputStream fileStream = new FileOutputStream(tempFile);
+				try {
+					fileStream.write(bytes);
+					fileStream.getFD().sync();
+				} finally {
+					fileStream.close();
+				}
+				try {
+					Files.move(tempFile.toPath(), target.toPath(),
+							StandardCopyOption.REPLACE_EXISTING,
+							StandardCopyOption.ATOMIC_MOVE);
+				} catch (AtomicMoveNotSupportedException e) {
+					Files.move(tempFile.toPath(), target.toPath(),
+							StandardCopyOption.REPLACE_EXISTING);
+				}
+			} finally {
+				// Don't leave the temporary file behind if anything failed
+				Files.deleteIfExists(tempFile.toPath());
+			}
+			// Let the workspace know that the file changed
+			file.refreshLocal(IResource.DEPTH_ZERO, null);
+		} else if (file.exists()) {
+			// Update the output file if it already exists
+			file.setContents(new ByteArrayInputStream(bytes), IResource.FORCE,
+					null);
+		} else {
+			// Or create it from scratch
+			file.create(new ByteArrayInputStream(bytes), IResource.FORCE, null);
+		}
+
+		return;
+	}
+
+}
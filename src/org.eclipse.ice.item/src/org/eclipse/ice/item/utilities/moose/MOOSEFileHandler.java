@@ -26,6 +26,7 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Stack;
 
@@ -87,6 +88,28 @@ public class MOOSEFileHandler implements IReader, IWriter {
 		}
 	}
 
+	/**
+	 * The maximum number of YAML specifications that are kept in the cache.
+	 */
+	private static final int maxCachedSpecs = 8;
+
+	/**
+	 * The cache of YAML specifications that have already been built, keyed by
+	 * the canonical path of the YAML file and shared by all handlers. The
+	 * least recently used specification is dropped when the cache is full.
+	 * The trees in the cache are never handed out directly, only copies of
+	 * them.
+	 */
+	private static final Map<String, YAMLSpec> yamlCache = new LinkedHashMap<String, YAMLSpec>(
+			16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, YAMLSpec> eldest) {
+			return size() > maxCachedSpecs;
+		}
+	};
+
 	/**
 	 * This operation writes a set of MOOSE blocks to the specified file path.
 	 * 
@@ -342,6 +365,102 @@ public class MOOSEFileHandler implements IReader, IWriter {
 	public ArrayList<TreeComposite> loadYAML(String filePath)
 			throws IOException {
 
+		// Quit if the path is boned
+		if (filePath == null || filePath.isEmpty()) {
+			return null;
+		}
+
+		// Copy the cached specification so that it is never modified
+		ArrayList<TreeComposite> spec = getYAMLSpec(filePath);
+		ArrayList<TreeComposite> trees = new ArrayList<TreeComposite>(
+				spec.size());
+		for (TreeComposite tree : spec) {
+			trees.add((TreeComposite) tree.clone());
+		}
+
+		return trees;
+	}
+
+	/**
+	 * This operation returns the YAML specification at the specified path from
+	 * the cache. It only parses the YAML file and builds the specification if
+	 * it is not in the cache or if the YAML file or its action syntax file
+	 * have changed since it was cached. The trees that it returns are shared
+	 * and must be copied before they are modified.
+	 * 
+	 * @param filePath
+	 *            The file path from which the MOOSE blocks written in YAML
+	 *            should be read.
+	 * @return The shared MOOSE input file specification
+	 * @throws IOException
+	 */
+	private ArrayList<TreeComposite> getYAMLSpec(String filePath)
+			throws IOException {
+
+		// Local Declarations
+		File yamlFile = new File(filePath);
+		String key = yamlFile.getCanonicalPath();
+		int yamlIndex = filePath.indexOf(".yaml");
+		File syntaxFile = new File((yamlIndex < 0) ? filePath : filePath
+				.substring(0, yamlIndex) + ".syntax");
+		long[] stamp = { yamlFile.length(), yamlFile.lastModified(),
+				syntaxFile.length(), syntaxFile.lastModified() };
+		YAMLSpec spec;
+
+		// Use the cached specification if the files have not changed
+		synchronized (yamlCache) {
+			spec = yamlCache.get(key);
+		}
+		if (spec != null && Arrays.equals(spec.stamp, stamp)) {
+			if (debugFlag) {
+				System.out.println("MOOSEFileHandler Message: "
+						+ "Using cached YAML specification for " + filePath);
+			}
+			return spec.trees;
+		}
+
+		// Otherwise build it and cache copies of it. The copies share all of
+		// their nodes, so copying them again only copies the nodes that are
+		// used and never modifies the cached trees. Two threads may build the
+		// same specification at once, but they will build identical trees.
+		ArrayList<TreeComposite> trees = parseYAML(filePath);
+		ArrayList<TreeComposite> sharedTrees = new ArrayList<TreeComposite>(
+				trees.size());
+		for (TreeComposite tree : trees) {
+			sharedTrees.add((TreeComposite) tree.clone());
+		}
+		spec = new YAMLSpec(stamp, sharedTrees);
+		synchronized (yamlCache) {
+			yamlCache.put(key, spec);
+		}
+
+		return spec.trees;
+	}
+
+	/**
+	 * This operation clears the cache of YAML specifications so that they are
+	 * built again the next time that they are loaded.
+	 */
+	public static void clearYAMLCache() {
+		synchronized (yamlCache) {
+			yamlCache.clear();
+		}
+		return;
+	}
+
+	/**
+	 * This operation parses a MOOSE YAML file and its action syntax file and
+	 * builds the TreeComposites of the specification.
+	 * 
+	 * @param filePath
+	 *            The file path from which the MOOSE blocks written in YAML
+	 *            should be read.
+	 * @return The MOOSE input file specification
+	 * @throws IOException
+	 */
+	private ArrayList<TreeComposite> parseYAML(String filePath)
+			throws IOException {
+
 		// Local Declarations
 		InputStream input = null;
 		String syntaxFilePath, treeName;
@@ -350,11 +469,6 @@ public class MOOSEFileHandler implements IReader, IWriter {
 		Map<String, TreeComposite> treeMap = null;
 		TreeComposite oneUpTree = null;
 
-		// Quit if the path is boned
-		if (filePath == null || filePath.isEmpty()) {
-			return null;
-		}
-
 		// Get a handle on the YAML file
 		File yamlFile = new File(filePath);
 		input = new FileInputStream(yamlFile);
@@ -772,7 +886,9 @@ public class MOOSEFileHandler implements IReader, IWriter {
 				// Parse the extension to see if we are loading
 				// YAML or input files.
 				if (fileExt.toLowerCase().equals("yaml")) {
-					blocks = loadYAML(mooseFile.getAbsolutePath());
+					// The blocks are cloned below, so the cached
+					// specification can be used directly.
+					blocks = getYAMLSpec(mooseFile.getAbsolutePath());
 				} else if (fileExt.toLowerCase().equals("i")) {
 					blocks = loadFromGetPot(mooseFile.getAbsolutePath());
 				}
@@ -936,4 +1052,38 @@ public class MOOSEFileHandler implements IReader, IWriter {
 
 		return;
 	}
+	/**
+	 * This class is an entry in the cache of YAML specifications. It holds the
+	 * built specification and the sizes and modification times of the files
+	 * that it was built from.
+	 * 
+	 * @author Jay Jay Billings
+	 */
+	private static class YAMLSpec {
+
+		/**
+		 * The lengths and modification times of the YAML file and the action
+		 * syntax file when the specification was built.
+		 */
+		private final long[] stamp;
+
+		/**
+		 * The top level trees of the specification
+		 */
+		private final ArrayList<TreeComposite> trees;
+
+		/**
+		 * The constructor
+		 * 
+		 * @param stamp
+		 *            The lengths and modification times of the files
+		 * @param trees
+		 *            The top level trees of the specification
+		 */
+		public YAMLSpec(long[] stamp, ArrayList<TreeComposite> trees) {
+			this.stamp = stamp;
+			this.trees = trees;
+		}
+	}
+
 }
@@ -13,6 +13,9 @@
 package org.eclipse.ice.kdd.kddmath;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.eclipse.ice.analysistool.IData;
 import org.eclipse.ice.analysistool.IDataProvider;
@@ -29,18 +32,24 @@ import org.eclipse.ice.analysistool.IDataProvider;
  * methods for matrix arithmetic, transposition, normalizing rows and columns,
  * and scaling by an uncertainty matrix.
  * </p>
+ * <p>
+ * The elements are stored in a flat, row major array of doubles. The
+ * arithmetic, normalization and transposition operations work directly on
+ * that array in place. Matrices with at least parallelThreshold elements are
+ * split into blocks of rows that are processed on a shared fork/join pool.
+ * </p>
  * 
  * @author Alex McCaskey
  */
 public class KDDMatrix implements IAbstractMatrix<Double> {
 	/**
 	 * <p>
-	 * The individual elements of this matrix. This is a list of n*m double
-	 * values for a given matrix of size nxm.
+	 * The individual elements of this matrix in row major order. This is an
+	 * array of exactly n*m double values for a given matrix of size nxm.
 	 * </p>
 	 * 
 	 */
-	protected ArrayList<Double> elements;
+	protected double[] elements;
 
 	/**
 	 * <p>
@@ -66,6 +75,40 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 */
 	protected IDataProvider dataProvider;
 
+	/**
+	 * <p>
+	 * The smallest number of elements for which the matrix operations are
+	 * performed in parallel. Smaller matrices are faster on the calling
+	 * thread.
+	 * </p>
+	 */
+	private static final int parallelThreshold = 1 << 16;
+
+	/**
+	 * <p>
+	 * The number of elements that a single fork/join task processes before it
+	 * stops splitting its work.
+	 * </p>
+	 */
+	private static final int taskSize = 1 << 13;
+
+	/**
+	 * <p>
+	 * The number of rows and columns in the blocks that are swapped by
+	 * transpose() so that both matrices are read and written in cache sized
+	 * pieces.
+	 * </p>
+	 */
+	private static final int blockSize = 32;
+
+	/**
+	 * <p>
+	 * The fork/join pool shared by all matrices. It is created the first time
+	 * that a large matrix is processed.
+	 * </p>
+	 */
+	private static ForkJoinPool pool;
+
 	/**
 	 * <p>
 	 * The constructor, takes a valid set of IData and constructs this matrix
@@ -77,7 +120,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	public KDDMatrix(IDataProvider data) throws IllegalArgumentException {
 
 		// Initialize the elements array
-		elements = new ArrayList<Double>();
+		elements = new double[0];
 
 		// Initialize the number of rows and columns
 		nCols = 0;
@@ -108,17 +151,13 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 
 		// Make sure the size of matToSubtract is valid
 		if (matToSubtract.numberOfColumns() != nCols
-				&& matToSubtract.numberOfRows() != nRows) {
+				|| matToSubtract.numberOfRows() != nRows) {
 			return false;
 		}
 
 		// Perform the subtraction
-		for (int i = 0; i < nRows; i++) {
-			for (int j = 0; j < nCols; j++) {
-				setElement(i, j,
-						getElement(i, j) - matToSubtract.getElement(i, j));
-			}
-		}
+		runKernel(KernelTask.SUBTRACT, elements, getElements(matToSubtract),
+				nRows, nCols);
 
 		return true;
 	}
@@ -132,18 +171,15 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * @return
 	 */
 	public boolean add(IAbstractMatrix<Double> matToAdd) {
-		// Make sure the size of matToSubtract is valid
+		// Make sure the size of matToAdd is valid
 		if (matToAdd.numberOfColumns() != nCols
-				&& matToAdd.numberOfRows() != nRows) {
+				|| matToAdd.numberOfRows() != nRows) {
 			return false;
 		}
 
 		// Perform the addition
-		for (int i = 0; i < nRows; i++) {
-			for (int j = 0; j < nCols; j++) {
-				setElement(i, j, getElement(i, j) + matToAdd.getElement(i, j));
-			}
-		}
+		runKernel(KernelTask.ADD, elements, getElements(matToAdd), nRows,
+				nCols);
 
 		return true;
 
@@ -158,31 +194,9 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 */
 	public void rowNormalize() {
 
-		// Local ArrayList to collect all row sums
-		ArrayList<Double> rowSums = new ArrayList<Double>();
-
-		// Initialize one rowSum to 0.0
-		Double rowSum = 0.0;
-
-		// Calculate the sum of each row, then add it to the
-		// array list
-		for (int i = 0; i < nRows; i++) {
-			for (int j = 0; j < nCols; j++) {
-				rowSum = rowSum + getElement(i, j);
-			}
-			// Add the sum to the list
-			rowSums.add(rowSum);
-			// Reset the sum
-			rowSum = 0.0;
-		}
-
-		// Now go through each element and divide it
-		// by its row sum
-		for (int i = 0; i < nRows; i++) {
-			for (int j = 0; j < nCols; j++) {
-				setElement(i, j, getElement(i, j) / rowSums.get(i));
-			}
-		}
+		// Each row is summed and divided on its own, so the rows can be
+		// split between tasks without any shared sums
+		runKernel(KernelTask.NORMALIZE_ROWS, elements, null, nRows, nCols);
 
 		return;
 	}
@@ -195,7 +209,24 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * 
 	 */
 	public void columnNormalize() {
-		// FIXME coming soon to a theater near you
+
+		// Local Declarations
+		double[] columnSums = new double[nCols];
+
+		// Sum the columns one row at a time so that the elements are read in
+		// the order that they are stored
+		for (int i = 0; i < nRows; i++) {
+			int offset = i * nCols;
+			for (int j = 0; j < nCols; j++) {
+				columnSums[j] += elements[offset + j];
+			}
+		}
+
+		// Now go through each element and divide it by its column sum
+		runKernel(KernelTask.DIVIDE_COLUMNS, elements, columnSums, nRows,
+				nCols);
+
+		return;
 	}
 
 	/**
@@ -208,20 +239,16 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * @return
 	 */
 	public boolean scaleByUncertainty(KDDMatrix uncertainty) {
-		// Make sure the size of matToSubtract is valid
+		// Make sure the size of the uncertainty matrix is valid
 		if (uncertainty.numberOfColumns() != nCols
-				&& uncertainty.numberOfRows() != nRows) {
+				|| uncertainty.numberOfRows() != nRows) {
 			return false;
 		}
 
 		// Divide each element by the corresponding
 		// uncertainty element
-		for (int i = 0; i < nRows; i++) {
-			for (int j = 0; j < nCols; j++) {
-				setElement(i, j,
-						getElement(i, j) / uncertainty.getElement(i, j));
-			}
-		}
+		runKernel(KernelTask.DIVIDE, elements, uncertainty.elements, nRows,
+				nCols);
 
 		return true;
 
@@ -249,7 +276,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 			return null;
 		}
 
-		return elements.get(nCols * rowIndex + colIndex);
+		return elements[nCols * rowIndex + colIndex];
 	}
 
 	/**
@@ -280,7 +307,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 		}
 
 		// Set the value
-		elements.set(nCols * rowIndex + colIndex, value);
+		elements[nCols * rowIndex + colIndex] = value;
 
 		return true;
 	}
@@ -311,7 +338,8 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 
 	/**
 	 * <p>
-	 * This method transposes this KDDMatrix.
+	 * This method transposes this KDDMatrix. Square matrices are transposed in
+	 * place. Other matrices are copied into one new array in blocks.
 	 * </p>
 	 * 
 	 */
@@ -323,40 +351,28 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 		int oldNRows = nRows;
 		int oldNCols = nCols;
 
-		// Easy bc they are just vectors
+		// Easy bc they are just vectors and the row major order of their
+		// elements does not change
 		if (nRows == 1 || nCols == 1) {
 			// Just switch them
 			nRows = oldNCols;
 			nCols = oldNRows;
+		} else if (nRows == nCols) {
+			// Swap the elements across the diagonal
+			runKernel(KernelTask.TRANSPOSE_SQUARE, elements, null, nRows,
+					nCols);
 		} else {
-
-			// This method assumes that the IDataProvider
-			// has already been validated, since the KDDMatrix wouldn't
-			// have been constructed otherwise.
-
-			// Get the IData elements
-			ArrayList<IData> dataElements = dataProvider
-					.getDataAtCurrentTime("Data");
+			// Copy the rows of this matrix into the columns of the new one
+			double[] transposed = new double[elements.length];
+			runKernel(KernelTask.TRANSPOSE, transposed, elements, oldNRows,
+					oldNCols);
+			elements = transposed;
 
 			// Transpose swaps the number of rows and cols
 			nRows = oldNCols;
 			nCols = oldNRows;
-
-			KDDMatrix oldMatrix = new KDDMatrix(
-					(ArrayList<Double>) elements.clone(), oldNRows, oldNCols);
-
-			elements.clear();
-			for (int i = 0; i < nRows * nCols; i++) {
-				elements.add(0.0);
-			}
-
-			for (int i = 0; i < nRows; i++) {
-				for (int j = 0; j < nCols; j++) {
-					setElement(i, j, oldMatrix.getElement(j, i));
-				}
-			}
-
 		}
+
 		return;
 	}
 
@@ -369,7 +385,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * 
 	 */
 	public KDDMatrix() {
-		elements = new ArrayList<Double>();
+		elements = new double[0];
 		nRows = 0;
 		nCols = 0;
 	}
@@ -403,10 +419,8 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * @return
 	 */
 	public int addRow() {
-		// Add for the number of columns
-		for (int i = 0; i < nCols; i++) {
-			elements.add(0.0);
-		}
+		// The new row is already zero at the end of the larger array
+		elements = Arrays.copyOf(elements, elements.length + nCols);
 		// Add to the row
 		nRows += 1;
 		return nRows;
@@ -421,10 +435,13 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * @return
 	 */
 	public int addColumn() {
-		// Add for the number of rows
+		// Copy each row into the larger array, leaving the new column as zero
+		double[] newElements = new double[nRows * (nCols + 1)];
 		for (int i = 0; i < nRows; i++) {
-			elements.add(((i + 1) * nCols) + i, 0.0);
+			System.arraycopy(elements, i * nCols, newElements, i
+					* (nCols + 1), nCols);
 		}
+		elements = newElements;
 		// Add to the cols
 		nCols += 1;
 
@@ -441,10 +458,12 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 */
 	@Override
 	public boolean deleteRow() {
-		// Remove for the number of columns
-		for (int i = 0; i < nCols; i++) {
-			elements.remove(elements.size() - 1);
+		// Fail if there are no rows
+		if (nRows == 0) {
+			return false;
 		}
+		// Remove for the number of columns
+		elements = Arrays.copyOf(elements, elements.length - nCols);
 		// Remove a row
 		nRows -= 1;
 		return true;
@@ -460,10 +479,17 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 */
 	@Override
 	public boolean deleteColumn() {
-		// Remove for the number of rows
-		for (int i = 0; i < nRows; i++) {
-			elements.remove(((i + 1) * nCols) - i - 1);
+		// Fail if there are no columns
+		if (nCols == 0) {
+			return false;
 		}
+		// Copy each row without its last element. The rows only move
+		// towards the front of the array, so it can be done in place.
+		for (int i = 1; i < nRows; i++) {
+			System.arraycopy(elements, i * nCols, elements, i * (nCols - 1),
+					nCols - 1);
+		}
+		elements = Arrays.copyOf(elements, nRows * (nCols - 1));
 		// Remove a Column
 		nCols -= 1;
 		return true;
@@ -530,18 +556,21 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 			throw new IllegalArgumentException(
 					"Invalid value for the number of matrix columns. Must be an integer.");
 		}
-		// Set the values
-		nRows = (int) rowValue;
-		nCols = (int) colValue;
 
 		// Make sure we have the correct number of matrix elements
-		if (dataElements.size() != nRows * nCols) {
+		if (dataElements.size() != (int) rowValue * (int) colValue) {
 			throw new IllegalArgumentException(
 					"Invalid number of data elements. Must have nRows * nCols data elements.");
 		}
+
+		// Set the values
+		nRows = (int) rowValue;
+		nCols = (int) colValue;
+
 		// Add the elements
-		for (int i = 0; i < nRows * nCols; i++) {
-			elements.add(dataElements.get(i).getValue());
+		elements = new double[nRows * nCols];
+		for (int i = 0; i < elements.length; i++) {
+			elements[i] = dataElements.get(i).getValue();
 		}
 
 		return;
@@ -569,15 +598,16 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * @return
 	 */
 	public KDDMatrix getRow(int index) {
-		KDDMatrix retVector = new KDDMatrix(1, nCols);
-		for (int i = 0; i < nCols; i++) {
-			if (!retVector.setElement(0, i, getElement(index, i))) {
-				System.out.println("THIS WQAS FALSE");
-				return null;
-			}
+		// Return null if the index is out of range
+		if (index < 0 || index >= nRows) {
+			return null;
 		}
 
-		return retVector;
+		// The row is stored contiguously, so just copy it
+		double[] row = new double[nCols];
+		System.arraycopy(elements, index * nCols, row, 0, nCols);
+
+		return new KDDMatrix(row, 1, nCols);
 	}
 
 	/**
@@ -591,8 +621,18 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * @return
 	 */
 	public KDDMatrix getColumn(int index) {
-		// TODO Auto-generated method stub
-		return null;
+		// Return null if the index is out of range
+		if (index < 0 || index >= nCols) {
+			return null;
+		}
+
+		// Gather the column from each row
+		double[] column = new double[nRows];
+		for (int i = 0; i < nRows; i++) {
+			column[i] = elements[i * nCols + index];
+		}
+
+		return new KDDMatrix(column, nRows, 1);
 	}
 
 	/**
@@ -607,10 +647,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	public KDDMatrix(int nRows, int nCols) {
 		this.nRows = nRows;
 		this.nCols = nCols;
-		elements = new ArrayList<Double>();
-		for (int i = 0; i < this.nRows * this.nCols; i++) {
-			elements.add(0.0);
-		}
+		elements = new double[this.nRows * this.nCols];
 	}
 
 	/**
@@ -624,28 +661,18 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 */
 	public boolean equals(Object matrix) {
 
-		boolean retVal = true;
-
-		if (matrix != null && matrix instanceof KDDMatrix && matrix != this) {
-			KDDMatrix otherMatrix = (KDDMatrix) matrix;
-			// First make sure the incoming matrix is the right
-			// size
-			if (otherMatrix.numberOfColumns() != nCols
-					|| otherMatrix.numberOfRows() != nRows) {
-				retVal = false;
-			}
-			// Then make sure all the elements are the same
-			for (int i = 0; i < nRows; i++) {
-				for (int j = 0; j < nCols; j++) {
-					if (!otherMatrix.getElement(i, j).equals(getElement(i, j))) {
-						retVal = false;
-					}
-				}
-			}
+		// They are equal if they are the same matrix
+		if (matrix == this) {
+			return true;
+		} else if (!(matrix instanceof KDDMatrix)) {
+			return false;
 		}
 
-		// If we make it here, they are equal
-		return retVal;
+		// Otherwise the sizes and all of the elements must be the same.
+		// Arrays.equals compares the elements the same way as Double.equals.
+		KDDMatrix otherMatrix = (KDDMatrix) matrix;
+		return otherMatrix.nCols == nCols && otherMatrix.nRows == nRows
+				&& Arrays.equals(otherMatrix.elements, elements);
 	}
 
 	/**
@@ -666,8 +693,9 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 		// Compute the hashcode
 		hash = 31 * hash + this.nCols;
 		hash = 31 * hash + this.nRows;
-		hash = 31 * hash + this.elements.hashCode();
-		hash = 31 * hash + this.dataProvider.hashCode();
+		hash = 31 * hash + Arrays.hashCode(this.elements);
+		hash = 31 * hash
+				+ ((dataProvider != null) ? this.dataProvider.hashCode() : 0);
 
 		// Done, return
 		return hash;
@@ -675,7 +703,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 
 	/**
 	 * <p>
-	 * The Constructor.
+	 * The Constructor. The elements are copied into the matrix.
 	 * </p>
 	 * 
 	 * @param elements
@@ -683,6 +711,31 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * @param nCols
 	 */
 	public KDDMatrix(ArrayList<Double> elements, int nRows, int nCols) {
+		this.nRows = nRows;
+		this.nCols = nCols;
+		this.elements = new double[nRows * nCols];
+		for (int i = 0; i < this.elements.length; i++) {
+			this.elements[i] = elements.get(i);
+		}
+	}
+
+	/**
+	 * <p>
+	 * The Constructor. The array of elements is used directly by the matrix
+	 * and is not copied.
+	 * </p>
+	 * 
+	 * @param elements
+	 *            The nRows*nCols elements in row major order
+	 * @param nRows
+	 * @param nCols
+	 */
+	public KDDMatrix(double[] elements, int nRows, int nCols) {
+		// Make sure that the array fits the size
+		if (elements.length != nRows * nCols) {
+			throw new IllegalArgumentException(
+					"Invalid number of data elements. Must have nRows * nCols data elements.");
+		}
 		this.nRows = nRows;
 		this.nCols = nCols;
 		this.elements = elements;
@@ -699,16 +752,12 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 		dataProvider = other.dataProvider;
 		nRows = other.nRows;
 		nCols = other.nCols;
-		elements = other.elements;
+		elements = other.elements.clone();
 		return;
 	}
 
 	public void zeroMatrix() {
-		for (int i = 0; i < nRows; i++) {
-			for (int j = 0; j < nCols; j++) {
-				setElement(i, j, 0.0);
-			}
-		}
+		Arrays.fill(elements, 0.0);
 	}
 
 	public void printMatrix() {
@@ -720,4 +769,282 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 		}
 	}
 
-}
\ No newline at end of file
+	/**
+	 * <p>
+	 * Returns the row major elements of another matrix. The array of a
+	 * KDDMatrix is returned directly. Any other matrix is copied once so that
+	 * the kernels never need to call getElement().
+	 * </p>
+	 * 
+	 * @param matrix
+	 *            The matrix
+	 * @return The elements
+	 */
+	private static double[] getElements(IAbstractMatrix<Double> matrix) {
+
+		// Use the array of KDDMatrices directly
+		if (matrix instanceof KDDMatrix) {
+			return ((KDDMatrix) matrix).elements;
+		}
+
+		// Copy any other matrix
+		int rows = matrix.numberOfRows(), cols = matrix.numberOfColumns();
+		double[] values = new double[rows * cols];
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < cols; j++) {
+				values[i * cols + j] = matrix.getElement(i, j);
+			}
+		}
+
+		return values;
+	}
+
+	/**
+	 * <p>
+	 * Runs one of the matrix kernels over a whole matrix. Large matrices are
+	 * processed in parallel on the shared pool and small ones on the calling
+	 * thread.
+	 * </p>
+	 * 
+	 * @param operation
+	 *            The kernel from KernelTask
+	 * @param target
+	 *            The elements that are changed
+	 * @param source
+	 *            The second operand of the kernel, or null
+	 * @param rows
+	 *            The number of rows of the matrix
+	 * @param cols
+	 *            The number of columns of the matrix
+	 */
+	private static void runKernel(int operation, double[] target,
+			double[] source, int rows, int cols) {
+
+		// Create one task for the whole matrix
+		KernelTask task = new KernelTask(operation, target, source, rows,
+				cols, 0, rows);
+
+		// Only split the task if it is large and there are processors to
+		// share it
+		if ((long) rows * cols >= parallelThreshold
+				&& Runtime.getRuntime().availableProcessors() > 1) {
+			getPool().invoke(task);
+		} else {
+			task.apply(0, rows);
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Returns the fork/join pool that is shared by all matrices, creating it
+	 * if needed. Its worker threads are daemon threads, so it never needs to be
+	 * shut down.
+	 * </p>
+	 * 
+	 * @return The pool
+	 */
+	private static synchronized ForkJoinPool getPool() {
+		if (pool == null) {
+			pool = new ForkJoinPool();
+		}
+		return pool;
+	}
+
+	/**
+	 * <p>
+	 * This class applies one of the matrix kernels to a range of rows. It
+	 * splits itself in half until each half has about taskSize elements, so
+	 * that the same code runs sequentially for small matrices and in parallel
+	 * for large ones. Tasks never write to the same rows, so no locking is
+	 * needed.
+	 * </p>
+	 */
+	private static class KernelTask extends RecursiveAction {
+
+		/**
+		 * The kernel that adds the source to the target
+		 */
+		static final int ADD = 0;
+
+		/**
+		 * The kernel that subtracts the source from the target
+		 */
+		static final int SUBTRACT = 1;
+
+		/**
+		 * The kernel that divides the target by the source
+		 */
+		static final int DIVIDE = 2;
+
+		/**
+		 * The kernel that divides each column of the target by the element of
+		 * the source at the same column index
+		 */
+		static final int DIVIDE_COLUMNS = 3;
+
+		/**
+		 * The kernel that divides each row of the target by its sum
+		 */
+		static final int NORMALIZE_ROWS = 4;
+
+		/**
+		 * The kernel that swaps the elements of a square target across its
+		 * diagonal. The range is the rows of the upper triangle.
+		 */
+		static final int TRANSPOSE_SQUARE = 5;
+
+		/**
+		 * The kernel that copies the rows of the source into the columns of
+		 * the target. The range is the rows of the source.
+		 */
+		static final int TRANSPOSE = 6;
+
+		/**
+		 * The ID used for serialization
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The kernel
+		 */
+		private final int operation;
+
+		/**
+		 * The elements that are changed
+		 */
+		private final double[] target;
+
+		/**
+		 * The second operand, or null
+		 */
+		private final double[] source;
+
+		/**
+		 * The number of rows and columns of the matrix
+		 */
+		private final int rows, cols;
+
+		/**
+		 * The first row and one past the last row of this task
+		 */
+		private final int first, last;
+
+		/**
+		 * The constructor
+		 */
+		KernelTask(int operation, double[] target, double[] source, int rows,
+				int cols, int first, int last) {
+			this.operation = operation;
+			this.target = target;
+			this.source = source;
+			this.rows = rows;
+			this.cols = cols;
+			this.first = first;
+			this.last = last;
+		}
+
+		/**
+		 * Splits the rows in half until they are small enough to apply the
+		 * kernel directly.
+		 * 
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		@Override
+		protected void compute() {
+			// Each task should have at least one row
+			int minRows = Math.max(1, taskSize / Math.max(1, cols));
+			if (last - first <= minRows) {
+				apply(first, last);
+			} else {
+				int middle = (first + last) >>> 1;
+				invokeAll(new KernelTask(operation, target, source, rows, cols,
+						first, middle), new KernelTask(operation, target,
+						source, rows, cols, middle, last));
+			}
+		}
+
+		/**
+		 * Applies the kernel to a range of rows.
+		 * 
+		 * @param start
+		 *            The first row
+		 * @param end
+		 *            One past the last row
+		 */
+		void apply(int start, int end) {
+
+			// Local Declarations
+			int begin = start * cols, finish = end * cols;
+
+			switch (operation) {
+			case ADD:
+				for (int k = begin; k < finish; k++) {
+					target[k] += source[k];
+				}
+				break;
+			case SUBTRACT:
+				for (int k = begin; k < finish; k++) {
+					target[k] -= source[k];
+				}
+				break;
+			case DIVIDE:
+				for (int k = begin; k < finish; k++) {
+					target[k] /= source[k];
+				}
+				break;
+			case DIVIDE_COLUMNS:
+				for (int i = start; i < end; i++) {
+					int offset = i * cols;
+					for (int j = 0; j < cols; j++) {
+						target[offset + j] /= source[j];
+					}
+				}
+				break;
+			case NORMALIZE_ROWS:
+				for (int i = start; i < end; i++) {
+					int offset = i * cols;
+					double rowSum = 0.0;
+					for (int j = 0; j < cols; j++) {
+						rowSum += target[offset + j];
+					}
+					for (int j = 0; j < cols; j++) {
+						target[offset + j] /= rowSum;
+					}
+				}
+				break;
+			case TRANSPOSE_SQUARE:
+				// Each element above the diagonal in these rows is swapped
+				// with the one below it in the same column
+				for (int i = start; i < end; i++) {
+					for (int j = i + 1; j < cols; j++) {
+						double temp = target[i * cols + j];
+						target[i * cols + j] = target[j * cols + i];
+						target[j * cols + i] = temp;
+					}
+				}
+				break;
+			case TRANSPOSE:
+				// Copy in blocks so that the strided writes stay in cache
+				for (int ib = start; ib < end; ib += blockSize) {
+					int iEnd = Math.min(ib + blockSize, end);
+					for (int jb = 0; jb < cols; jb += blockSize) {
+						int jEnd = Math.min(jb + blockSize, cols);
+						for (int i = ib; i < iEnd; i++) {
+							for (int j = jb; j < jEnd; j++) {
+								target[j * rows + i] = source[i * cols + j];
+							}
+						}
+					}
+				}
+				break;
+			default:
+				break;
+			}
+
+			return;
+		}
+	}
+
+}
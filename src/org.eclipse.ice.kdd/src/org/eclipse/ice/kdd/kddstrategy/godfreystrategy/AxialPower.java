@@ -130,59 +130,24 @@ public class AxialPower extends GodfreySubStrategy {
 	public boolean executeStrategy() {
 		// Local Declarations
 		int nAxial = loadedPinPowers.get(0).size();
-		int nAssemblies = loadedPinPowers.size();
-		int nRows = loadedPinPowers.get(0).get(0).numberOfRows();
-		int nCols = loadedPinPowers.get(0).get(0).numberOfColumns();
 		double sum = 0.0, weightSum = 0.0;
 		KDDMatrix axialMesh = new KDDMatrix(nAxial + 1, 1);
 		axialMesh.setElement(nAxial, 0, 0.0);
 
-		// Calculate the Axial Power
+		// Calculate the Axial Power and the Axial Power Differences. The
+		// differences are taken in the same pass over the pin powers, with
+		// the difference type of the PinPowerDifference.
+		PinPowerReduction pins = getReduction(calculateDiffs
+				&& differences.isRelative());
+		double[] power = pins.getAxialPower();
+		double[] powerDiff = pins.getAxialPowerDifference();
 		for (int k = 0; k < nAxial; k++) {
-			for (int l = 0; l < nAssemblies; l++) {
-				for (int i = 0; i < nRows; i++) {
-					for (int j = 0; j < nCols; j++) {
-						sum = sum
-								+ loadedPinPowers.get(l).get(k)
-										.getElementValue(i, j)
-								* weights.get(l).get(k).getElement(i, j);
-						weightSum = weightSum
-								+ weights.get(l).get(k).getElement(i, j);
-					}
-				}
+			axialPower.setElement(k, 0, power[k]);
+			if (calculateDiffs) {
+				axialPowerDiff.setElement(k, 0, powerDiff[k]);
 			}
-			axialPower.setElement(k, 0, Math.sqrt(Math.abs(sum / weightSum)));
-			sum = 0.0;
-			weightSum = 0.0;
-		}
-
-		// Calculate the Axial Power Differences
-		// first re-run the PinPowerDifference,
-		// just in case a property was changed
-		if (calculateDiffs && !differences.executeStrategy()) {
-			return false;
 		}
-		if (calculateDiffs) {
-			for (int k = 0; k < nAxial; k++) {
-				for (int l = 0; l < nAssemblies; l++) {
-					for (int i = 0; i < nRows; i++) {
-						for (int j = 0; j < nCols; j++) {
-							sum = sum
-									+ differences.getPinPowerDifference()
-											.get(l).get(k).getElement(i, j)
-									* weights.get(l).get(k).getElement(i, j);
-							weightSum = weightSum
-									+ weights.get(l).get(k).getElement(i, j);
-						}
-					}
-				}
-				axialPowerDiff.setElement(k, 0,
-						Math.sqrt(Math.abs(sum / weightSum)));
-				sum = 0.0;
-				weightSum = 0.0;
-			}
 
-		}
 		// This assumes the z positions are the same across all assemblies,
 		// and axial level.
 		for (int i = nAxial - 1; i >= 0; i--) {
@@ -248,6 +248,20 @@ public class GodfreyStrategy extends CompositeStrategy {
 			}
 		}
 
+		// Reduce the pin powers once for all of the sub-strategies. The
+		// differences are relative only if the PinPowerDifference will
+		// calculate relative differences.
+		PinPowerReduction reduction = new PinPowerReduction(loadedPinPowers,
+				refPinPowers, weights, "yes".equals(properties
+						.get("Pin Power Difference"))
+						&& "Relative".equals(properties.get("Difference Type")));
+		reduction.run();
+		for (KDDStrategy strategy : strategies) {
+			if (strategy instanceof GodfreySubStrategy) {
+				((GodfreySubStrategy) strategy).setReduction(reduction);
+			}
+		}
+
 		// Since this is a CompositeStrategy, loop over its children
 		// invoking executeStrategy on each
 		System.out.println("Executing sub-strategies...");
@@ -51,6 +51,16 @@ public class GodfreySubStrategy extends KDDStrategy {
 	 */
 	protected HashMap<Integer, ArrayList<IDataMatrix>> refPinPowers;
 
+	/**
+	 * <p>
+	 * Reference to the single pass over the pin powers that computes the
+	 * differences and the axial and radial power. The sub-strategies of a
+	 * GodfreyStrategy share one.
+	 * </p>
+	 * 
+	 */
+	protected PinPowerReduction reduction;
+
 	/**
 	 * 
 	 * @return
@@ -97,4 +107,39 @@ public class GodfreySubStrategy extends KDDStrategy {
 		executed = false;
 	}
 
+	/**
+	 * <p>
+	 * Set the reduction of the pin powers that this sub-strategy should use
+	 * instead of reducing them itself. It is run when it is needed if it has
+	 * not been run already.
+	 * </p>
+	 * 
+	 * @param reduction
+	 */
+	public void setReduction(PinPowerReduction reduction) {
+		this.reduction = reduction;
+	}
+
+	/**
+	 * <p>
+	 * Return the reduction of the pin powers, creating and running it if this
+	 * sub-strategy does not have one with the requested type of difference.
+	 * </p>
+	 * 
+	 * @param relative
+	 *            True if the differences should be relative
+	 * @return
+	 */
+	protected PinPowerReduction getReduction(boolean relative) {
+		if (reduction == null || reduction.isRelative() != relative
+				|| (refPinPowers != null && !reduction.hasDifferences())) {
+			reduction = new PinPowerReduction(loadedPinPowers, refPinPowers,
+					weights, relative);
+		}
+		if (!reduction.isComplete()) {
+			reduction.run();
+		}
+		return reduction;
+	}
+
 }
\ No newline at end of file
@@ -40,7 +40,8 @@ import org.eclipse.ice.kdd.kddmath.KDDMatrix;
 public class PinPowerDifference extends GodfreySubStrategy {
 	/**
 	 * <p>
-	 * Reference to the calculated pin power difference matrices.
+	 * Reference to the calculated pin power difference matrices. They are
+	 * created from the packed differences the first time they are requested.
 	 * </p>
 	 * 
 	 */
@@ -91,7 +92,7 @@ public class PinPowerDifference extends GodfreySubStrategy {
 
 		// Make sure the passed in a valid string
 		if (!("Basic").equals(differenceType)
-				|| !("Relative".equals(differenceType))) {
+				&& !("Relative".equals(differenceType))) {
 			differenceType = "Basic";
 		}
 	}
@@ -113,82 +114,12 @@ public class PinPowerDifference extends GodfreySubStrategy {
 			return false;
 		}
 
-		// Local Declarations
-		int nAssemblies = loadedPinPowers.size();
-		int nAxial = loadedPinPowers.get(0).size();
-		int nRows = loadedPinPowers.get(0).get(0).numberOfRows();
-		int nCols = loadedPinPowers.get(0).get(0).numberOfColumns();
-		KDDMatrix matrix, uncertainMatrix;
-		ArrayList<KDDMatrix> matrices;
-		ArrayList<KDDMatrix> unMatrices;
-
-		// Perform the loaded and reference differences
-		// Also, get the difference in the uncertainties.
-		for (int l = 0; l < nAssemblies; l++) {
-			matrices = new ArrayList<KDDMatrix>();
-			unMatrices = new ArrayList<KDDMatrix>();
-			for (int k = 0; k < nAxial; k++) {
-				matrix = new KDDMatrix(nRows, nCols);
-				uncertainMatrix = new KDDMatrix(nRows, nCols);
-				for (int i = 0; i < nRows; i++) {
-					for (int j = 0; j < nCols; j++) {
-						if ("Relative".equals(differenceType)) {
-
-							// Subtract the data, relative type
-							matrix.setElement(
-									i,
-									j,
-									(loadedPinPowers.get(l).get(k)
-											.getElementValue(i, j) - refPinPowers
-											.get(l).get(k)
-											.getElementValue(i, j))
-											/ refPinPowers.get(l).get(k)
-													.getElementValue(i, j));
-
-							// Subtract the uncertainties, relative type
-							uncertainMatrix
-									.setElement(
-											i,
-											j,
-											(loadedPinPowers
-													.get(l)
-													.get(k)
-													.getElementUncertainty(i, j) - refPinPowers
-													.get(l)
-													.get(k)
-													.getElementUncertainty(i, j))
-													/ refPinPowers
-															.get(l)
-															.get(k)
-															.getElementUncertainty(
-																	i, j));
-
-						} else {
-							// Subtract the data, basic type
-							matrix.setElement(i, j,
-									loadedPinPowers.get(l).get(k)
-											.getElementValue(i, j)
-											- refPinPowers.get(l).get(k)
-													.getElementValue(i, j));
-
-							// Subtract the uncertainties, basic type
-							uncertainMatrix.setElement(i, j, loadedPinPowers
-									.get(l).get(k).getElementUncertainty(i, j)
-									- refPinPowers.get(l).get(k)
-											.getElementUncertainty(i, j));
-						}
-					}
-				}
-
-				// Add them to the temp arraylists
-				matrices.add(matrix);
-				unMatrices.add(uncertainMatrix);
-			}
-
-			// Set them in the final result
-			difference.put(l, matrices);
-			uncertaintyDiff.put(l, unMatrices);
-		}
+		// Take the differences of the loaded and reference pin powers and
+		// their uncertainties. The matrices are created from the packed
+		// differences when they are requested.
+		getReduction(isRelative());
+		difference = null;
+		uncertaintyDiff = null;
 
 		// Create this Asset
 		return createAsset();
@@ -203,7 +134,7 @@ public class PinPowerDifference extends GodfreySubStrategy {
 	 */
 	private boolean createAsset() {
 		ArrayList<String> fileContents = new ArrayList<String>();
-		String line = "", contents = "";
+		String contents = "";
 		DecimalFormat formatter = new DecimalFormat("#.####");
 
 		// Get the default project, which should be
@@ -231,24 +162,28 @@ public class PinPowerDifference extends GodfreySubStrategy {
 			}
 		}
 
-		int nAssemblies = difference.size();
-		int nAxial = difference.get(0).size();
-		int nRows = difference.get(0).get(0).numberOfRows();
-		int nCols = difference.get(0).get(0).numberOfColumns();
+		int nAssemblies = reduction.getNumberOfAssemblies();
+		int nAxial = reduction.getNumberOfAxialLevels();
+		int nRows = reduction.getNumberOfRows();
+		int nCols = reduction.getNumberOfColumns();
+		double[] packedDiff = reduction.getDifference();
+		double[] packedUncertainty = reduction.getUncertaintyDifference();
+		StringBuilder builder = new StringBuilder();
+		int index;
 
 		fileContents.add("\nFuel Pin Difference");
 		for (int l = 0; l < nAssemblies; l++) {
 			fileContents.add("\nAssembly " + l);
 			for (int k = 0; k < nAxial; k++) {
 				fileContents.add("Axial Level " + k);
+				index = (k * nAssemblies + l) * nRows * nCols;
 				for (int i = 0; i < nRows; i++) {
 					for (int j = 0; j < nCols; j++) {
-						line = line
-								+ formatter.format(difference.get(l).get(k)
-										.getElement(i, j)) + " ";
+						builder.append(formatter.format(packedDiff[index++]))
+								.append(' ');
 					}
-					fileContents.add(line);
-					line = "";
+					fileContents.add(builder.toString());
+					builder.setLength(0);
 				}
 			}
 		}
@@ -259,14 +194,15 @@ public class PinPowerDifference extends GodfreySubStrategy {
 			fileContents.add("\nAssembly " + l);
 			for (int k = 0; k < nAxial; k++) {
 				fileContents.add("Axial Level " + k);
+				index = (k * nAssemblies + l) * nRows * nCols;
 				for (int i = 0; i < nRows; i++) {
 					for (int j = 0; j < nCols; j++) {
-						line = line
-								+ formatter.format(uncertaintyDiff.get(l)
-										.get(k).getElement(i, j)) + " ";
+						builder.append(
+								formatter.format(packedUncertainty[index++]))
+								.append(' ');
 					}
-					fileContents.add(line);
-					line = "";
+					fileContents.add(builder.toString());
+					builder.setLength(0);
 				}
 			}
 		}
@@ -274,8 +210,9 @@ public class PinPowerDifference extends GodfreySubStrategy {
 		// Convert the ArrayList to one string
 		// so we can use the getBytes method
 		for (String s : fileContents) {
-			contents = contents + s + "\n";
+			builder.append(s).append('\n');
 		}
+		contents = builder.toString();
 
 		// Create the IFile with a ByteArrayInputStream
 		try {
@@ -301,6 +238,9 @@ public class PinPowerDifference extends GodfreySubStrategy {
 	 * @return
 	 */
 	public HashMap<Integer, ArrayList<KDDMatrix>> getPinPowerDifference() {
+		if (difference == null) {
+			difference = createMatrices(reduction.getDifference());
+		}
 		return difference;
 	}
 
@@ -313,7 +253,47 @@ public class PinPowerDifference extends GodfreySubStrategy {
 	 * @return
 	 */
 	public HashMap<Integer, ArrayList<KDDMatrix>> getUncertaintyDifference() {
+		if (uncertaintyDiff == null) {
+			uncertaintyDiff = createMatrices(reduction
+					.getUncertaintyDifference());
+		}
 		return uncertaintyDiff;
 	}
 
+	/**
+	 * <p>
+	 * Return true if this sub strategy calculates relative differences and
+	 * false if it calculates basic differences.
+	 * </p>
+	 * 
+	 * @return
+	 */
+	public boolean isRelative() {
+		return "Relative".equals(differenceType);
+	}
+
+	/**
+	 * <p>
+	 * Create the difference matrices of each axial level of each assembly
+	 * from the packed differences.
+	 * </p>
+	 * 
+	 * @param packed
+	 * @return
+	 */
+	private HashMap<Integer, ArrayList<KDDMatrix>> createMatrices(
+			double[] packed) {
+		HashMap<Integer, ArrayList<KDDMatrix>> matrices = new HashMap<Integer, ArrayList<KDDMatrix>>();
+		int nAssemblies = reduction.getNumberOfAssemblies();
+		int nAxial = reduction.getNumberOfAxialLevels();
+		for (int l = 0; l < nAssemblies; l++) {
+			ArrayList<KDDMatrix> levels = new ArrayList<KDDMatrix>(nAxial);
+			for (int k = 0; k < nAxial; k++) {
+				levels.add(reduction.getMatrix(packed, k * nAssemblies + l));
+			}
+			matrices.put(l, levels);
+		}
+		return matrices;
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,694 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.kdd.kddstrategy.godfreystrategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.eclipse.ice.analysistool.IData;
+import org.eclipse.ice.kdd.kddmath.IDataMatrix;
+import org.eclipse.ice.kdd.kddmath.KDDMatrix;
+
+/**
+ * <p>
+ * PinPowerReduction computes everything that the Godfrey sub-strategies need
+ * from the pin powers in a single pass over the data. Each pin at each axial
+ * level of each assembly is read once from the loaded and reference pin
+ * powers, its difference is computed and its weighted power and difference
+ * are added to the sums for the axial power and the radial power. The
+ * assemblies are split between the tasks of a fork/join pool and the axial
+ * sums of the tasks are combined when they finish.
+ * </p>
+ * <p>
+ * The results are kept in dense arrays. The pin power differences are packed
+ * by axial level, then assembly, then pin, so the pin (i,j) of assembly l at
+ * axial level k is at ((k * nAssemblies + l) * nRows + i) * nCols + j. The
+ * radial results are packed by assembly, then pin. The arrays are allocated
+ * once and reused if the reduction is run again.
+ * </p>
+ *
+ * @author Alex McCaskey
+ */
+public class PinPowerReduction {
+
+	/**
+	 * <p>
+	 * The number of pin powers at and above which the assemblies are reduced
+	 * in parallel.
+	 * </p>
+	 *
+	 */
+	private static final int parallelThreshold = 1 << 16;
+
+	/**
+	 * <p>
+	 * The number of pin powers below which a task reduces its assemblies
+	 * instead of splitting them further.
+	 * </p>
+	 *
+	 */
+	private static final int taskSize = 1 << 13;
+
+	/**
+	 * <p>
+	 * The fork/join pool shared by all reductions. It is created the first
+	 * time that a reduction is large enough to be split.
+	 * </p>
+	 *
+	 */
+	private static ForkJoinPool pool;
+
+	/**
+	 * <p>
+	 * Reference to the loaded pin powers, keyed by assembly.
+	 * </p>
+	 *
+	 */
+	private final HashMap<Integer, ArrayList<IDataMatrix>> loadedPinPowers;
+
+	/**
+	 * <p>
+	 * Reference to the reference pin powers, keyed by assembly. If it is null,
+	 * no differences are computed.
+	 * </p>
+	 *
+	 */
+	private final HashMap<Integer, ArrayList<IDataMatrix>> refPinPowers;
+
+	/**
+	 * <p>
+	 * The packed weights of each axial level and assembly, at index k *
+	 * nAssemblies + l. Levels that share a weight matrix share its array and a
+	 * null array means that every pin has a weight of 1.
+	 * </p>
+	 *
+	 */
+	private final double[][] weights;
+
+	/**
+	 * <p>
+	 * True if the differences are relative to the reference pin powers, false
+	 * if they are basic differences.
+	 * </p>
+	 *
+	 */
+	private final boolean relative;
+
+	/**
+	 * <p>
+	 * The dimensions of the pin power data.
+	 * </p>
+	 *
+	 */
+	private final int nAssemblies, nAxial, nRows, nCols, nPins;
+
+	/**
+	 * <p>
+	 * The packed pin power differences and the differences of their
+	 * uncertainties.
+	 * </p>
+	 *
+	 */
+	private final double[] difference, uncertaintyDiff;
+
+	/**
+	 * <p>
+	 * The axial power and axial power difference of each axial level.
+	 * </p>
+	 *
+	 */
+	private final double[] axialPower, axialPowerDiff;
+
+	/**
+	 * <p>
+	 * The packed radial power, radial power difference and the sum of the
+	 * weights over the axial levels of each pin.
+	 * </p>
+	 *
+	 */
+	private final double[] radialPower, radialPowerDiff, radialWeights;
+
+	/**
+	 * <p>
+	 * The radial weighted sums of the pin powers, their squares, the
+	 * differences and their squares, followed by the sum of the radial
+	 * weights.
+	 * </p>
+	 *
+	 */
+	private final double[] radialSums;
+
+	/**
+	 * <p>
+	 * True once the reduction has been run.
+	 * </p>
+	 *
+	 */
+	private boolean complete;
+
+	/**
+	 * <p>
+	 * The constructor. It packs the weights, which are usually shared by many
+	 * axial levels and assemblies, but it does not read the pin powers until
+	 * the reduction is run.
+	 * </p>
+	 *
+	 * @param pinPowers
+	 *            The loaded pin powers, keyed by assembly
+	 * @param refPinPowers
+	 *            The reference pin powers, or null if differences should not
+	 *            be computed
+	 * @param weights
+	 *            The weights, or null if all of the weights are 1. Missing
+	 *            axial levels also have weights of 1.
+	 * @param relative
+	 *            True for relative differences, false for basic differences
+	 */
+	public PinPowerReduction(
+			HashMap<Integer, ArrayList<IDataMatrix>> pinPowers,
+			HashMap<Integer, ArrayList<IDataMatrix>> refPinPowers,
+			HashMap<Integer, ArrayList<KDDMatrix>> weights, boolean relative) {
+
+		// Get the dimensions from the first pin power matrix
+		loadedPinPowers = pinPowers;
+		this.refPinPowers = refPinPowers;
+		this.relative = relative;
+		nAssemblies = pinPowers.size();
+		nAxial = (nAssemblies > 0) ? pinPowers.get(0).size() : 0;
+		nRows = (nAxial > 0) ? pinPowers.get(0).get(0).numberOfRows() : 0;
+		nCols = (nAxial > 0) ? pinPowers.get(0).get(0).numberOfColumns() : 0;
+		nPins = nRows * nCols;
+
+		// Pack each distinct weight matrix once
+		this.weights = new double[nAxial * nAssemblies][];
+		if (weights != null) {
+			IdentityHashMap<KDDMatrix, double[]> packed = new IdentityHashMap<KDDMatrix, double[]>();
+			for (int l = 0; l < nAssemblies; l++) {
+				ArrayList<KDDMatrix> matrices = weights.get(l);
+				for (int k = 0; matrices != null && k < matrices.size()
+						&& k < nAxial; k++) {
+					KDDMatrix matrix = matrices.get(k);
+					if (matrix == null) {
+						continue;
+					}
+					double[] weight = packed.get(matrix);
+					if (weight == null) {
+						weight = new double[nPins];
+						for (int i = 0; i < nRows; i++) {
+							for (int j = 0; j < nCols; j++) {
+								weight[i * nCols + j] = matrix.getElement(i, j);
+							}
+						}
+						packed.put(matrix, weight);
+					}
+					this.weights[k * nAssemblies + l] = weight;
+				}
+			}
+		}
+
+		// Allocate the results
+		boolean diffs = (refPinPowers != null);
+		difference = new double[diffs ? nAxial * nAssemblies * nPins : 0];
+		uncertaintyDiff = new double[difference.length];
+		axialPower = new double[nAxial];
+		axialPowerDiff = new double[nAxial];
+		radialPower = new double[nAssemblies * nPins];
+		radialPowerDiff = new double[diffs ? radialPower.length : 0];
+		radialWeights = new double[radialPower.length];
+		radialSums = new double[5];
+		complete = false;
+	}
+
+	/**
+	 * <p>
+	 * Runs the reduction. Large data sets are split by assembly on a fork/join
+	 * pool and small ones are reduced on the calling thread.
+	 * </p>
+	 *
+	 */
+	public void run() {
+
+		// Reduce the assemblies
+		int assembliesPerTask = Math.max(1, taskSize / Math.max(1, nAxial
+				* nPins));
+		AssemblyTask task = new AssemblyTask(0, nAssemblies, assembliesPerTask);
+		if ((long) nAssemblies * nAxial * nPins >= parallelThreshold
+				&& Runtime.getRuntime().availableProcessors() > 1) {
+			getPool().invoke(task);
+		} else {
+			task.compute();
+		}
+
+		// Finish the axial power from the combined sums
+		for (int k = 0; k < nAxial; k++) {
+			double weightSum = task.axialSums[2 * nAxial + k];
+			axialPower[k] = Math.sqrt(Math.abs(task.axialSums[k] / weightSum));
+			axialPowerDiff[k] = Math.sqrt(Math.abs(task.axialSums[nAxial + k]
+					/ weightSum));
+		}
+		System.arraycopy(task.radialSums, 0, radialSums, 0, radialSums.length);
+		complete = true;
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Returns true if the reduction has been run.
+	 * </p>
+	 *
+	 * @return
+	 */
+	public boolean isComplete() {
+		return complete;
+	}
+
+	/**
+	 * <p>
+	 * Returns true if the differences are relative to the reference pin
+	 * powers.
+	 * </p>
+	 *
+	 * @return
+	 */
+	public boolean isRelative() {
+		return relative;
+	}
+
+	/**
+	 * <p>
+	 * Returns true if the pin power differences were computed.
+	 * </p>
+	 *
+	 * @return
+	 */
+	public boolean hasDifferences() {
+		return refPinPowers != null;
+	}
+
+	/**
+	 * <p>
+	 * Return the number of assemblies.
+	 * </p>
+	 *
+	 * @return
+	 */
+	public int getNumberOfAssemblies() {
+		return nAssemblies;
+	}
+
+	/**
+	 * <p>
+	 * Return the number of axial levels.
+	 * </p>
+	 *
+	 * @return
+	 */
+	public int getNumberOfAxialLevels() {
+		return nAxial;
+	}
+
+	/**
+	 * <p>
+	 * Return the number of rows of pins.
+	 * </p>
+	 *
+	 * @return
+	 */
+	public int getNumberOfRows() {
+		return nRows;
+	}
+
+	/**
+	 * <p>
+	 * Return the number of columns of pins.
+	 * </p>
+	 *
+	 * @return
+	 */
+	public int getNumberOfColumns() {
+		return nCols;
+	}
+
+	/**
+	 * <p>
+	 * Return the packed pin power differences. The array is not copied.
+	 * </p>
+	 *
+	 * @return
+	 */
+	public double[] getDifference() {
+		return difference;
+	}
+
+	/**
+	 * <p>
+	 * Return the packed differences of the uncertainties. The array is not
+	 * copied.
+	 * </p>
+	 *
+	 * @return
+	 */
+	public double[] getUncertaintyDifference() {
+		return uncertaintyDiff;
+	}
+
+	/**
+	 * <p>
+	 * Return the axial power of each axial level. The array is not copied.
+	 * </p>
+	 *
+	 * @return
+	 */
+	public double[] getAxialPower() {
+		return axialPower;
+	}
+
+	/**
+	 * <p>
+	 * Return the axial power difference of each axial level. The array is not
+	 * copied.
+	 * </p>
+	 *
+	 * @return
+	 */
+	public double[] getAxialPowerDifference() {
+		return axialPowerDiff;
+	}
+
+	/**
+	 * <p>
+	 * Return the packed radial power. The array is not copied.
+	 * </p>
+	 *
+	 * @return
+	 */
+	public double[] getRadialPower() {
+		return radialPower;
+	}
+
+	/**
+	 * <p>
+	 * Return the packed radial power difference. The array is not copied.
+	 * </p>
+	 *
+	 * @return
+	 */
+	public double[] getRadialPowerDifference() {
+		return radialPowerDiff;
+	}
+
+	/**
+	 * <p>
+	 * Return the packed sums of the weights over the axial levels of each
+	 * pin, which weight the radial averages. The array is not copied.
+	 * </p>
+	 *
+	 * @return
+	 */
+	public double[] getRadialWeights() {
+		return radialWeights;
+	}
+
+	/**
+	 * <p>
+	 * Return the average radial power.
+	 * </p>
+	 *
+	 * @return
+	 */
+	public double getRadialPowerAverage() {
+		return Math.abs(radialSums[0] / radialSums[4]);
+	}
+
+	/**
+	 * <p>
+	 * Return the RMS radial power.
+	 * </p>
+	 *
+	 * @return
+	 */
+	public double getRadialPowerRMS() {
+		return Math.sqrt(Math.abs(radialSums[1] / radialSums[4]));
+	}
+
+	/**
+	 * <p>
+	 * Return the average radial power difference.
+	 * </p>
+	 *
+	 * @return
+	 */
+	public double getRadialPowerDifferenceAverage() {
+		return Math.abs(radialSums[2] / radialSums[4]);
+	}
+
+	/**
+	 * <p>
+	 * Return the RMS radial power difference.
+	 * </p>
+	 *
+	 * @return
+	 */
+	public double getRadialPowerDifferenceRMS() {
+		return Math.sqrt(Math.abs(radialSums[3] / radialSums[4]));
+	}
+
+	/**
+	 * <p>
+	 * Copies one block of nRows x nCols values from a packed array into a new
+	 * KDDMatrix.
+	 * </p>
+	 *
+	 * @param packed
+	 *            One of the packed arrays of this reduction
+	 * @param block
+	 *            The index of the block, k * nAssemblies + l for the
+	 *            differences and l for the radial results
+	 * @return
+	 */
+	public KDDMatrix getMatrix(double[] packed, int block) {
+		return new KDDMatrix(Arrays.copyOfRange(packed, block * nPins,
+				(block + 1) * nPins), nRows, nCols);
+	}
+
+	/**
+	 * <p>
+	 * Returns the fork/join pool that is shared by all reductions, creating it
+	 * if needed.
+	 * </p>
+	 *
+	 * @return
+	 */
+	private static synchronized ForkJoinPool getPool() {
+		if (pool == null) {
+			pool = new ForkJoinPool();
+		}
+		return pool;
+	}
+
+	/**
+	 * <p>
+	 * AssemblyTask reduces a range of assemblies. Ranges that are too large
+	 * are split in half and the sums of the halves are added together.
+	 * </p>
+	 *
+	 * @author Alex McCaskey
+	 */
+	private class AssemblyTask extends RecursiveAction {
+
+		/**
+		 *
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * <p>
+		 * The first assembly and one past the last assembly of the range.
+		 * </p>
+		 *
+		 */
+		private final int first, last;
+
+		/**
+		 * <p>
+		 * The largest number of assemblies that are reduced without splitting.
+		 * </p>
+		 *
+		 */
+		private final int grain;
+
+		/**
+		 * <p>
+		 * The weighted sums of the pin powers and the differences and the sums
+		 * of the weights of each axial level, in blocks of nAxial.
+		 * </p>
+		 *
+		 */
+		private final double[] axialSums;
+
+		/**
+		 * <p>
+		 * The radial sums of the range, in the same order as radialSums.
+		 * </p>
+		 *
+		 */
+		private final double[] radialSums;
+
+		/**
+		 * <p>
+		 * The constructor.
+		 * </p>
+		 *
+		 * @param first
+		 * @param last
+		 * @param grain
+		 */
+		public AssemblyTask(int first, int last, int grain) {
+			this.first = first;
+			this.last = last;
+			this.grain = grain;
+			axialSums = new double[3 * nAxial];
+			radialSums = new double[5];
+		}
+
+		/**
+		 * <p>
+		 * Reduces the range, splitting it first if it is too large.
+		 * </p>
+		 *
+		 */
+		@Override
+		protected void compute() {
+
+			// Split the range and combine the sums of its halves
+			if (last - first > grain) {
+				int middle = (first + last) >>> 1;
+				AssemblyTask left = new AssemblyTask(first, middle, grain);
+				AssemblyTask right = new AssemblyTask(middle, last, grain);
+				invokeAll(left, right);
+				for (int i = 0; i < axialSums.length; i++) {
+					axialSums[i] = left.axialSums[i] + right.axialSums[i];
+				}
+				for (int i = 0; i < radialSums.length; i++) {
+					radialSums[i] = left.radialSums[i] + right.radialSums[i];
+				}
+				return;
+			}
+
+			// The sums of each pin over the axial levels are the weighted
+			// power, weighted difference, weight, power, power squared,
+			// difference and difference squared
+			double[] pinSums = new double[7 * nPins];
+			for (int l = first; l < last; l++) {
+				reduceAssembly(l, pinSums);
+				Arrays.fill(pinSums, 0.0);
+			}
+
+			return;
+		}
+
+		/**
+		 * <p>
+		 * Reads every pin power of one assembly, stores its differences and
+		 * adds it to the axial and radial sums.
+		 * </p>
+		 *
+		 * @param l
+		 *            The assembly
+		 * @param pinSums
+		 *            The sums of each pin, which must be zero
+		 */
+		private void reduceAssembly(int l, double[] pinSums) {
+
+			// Local Declarations
+			boolean diffs = (refPinPowers != null);
+			ArrayList<IDataMatrix> loadedLevels = loadedPinPowers.get(l);
+			ArrayList<IDataMatrix> refLevels = diffs ? refPinPowers.get(l)
+					: null;
+			int weightedDiff = nPins, weightOffset = 2 * nPins;
+			int powerOffset = 3 * nPins, powerSquared = 4 * nPins;
+			int diffOffset = 5 * nPins, diffSquared = 6 * nPins;
+
+			for (int k = 0; k < nAxial; k++) {
+				IDataMatrix loaded = loadedLevels.get(k);
+				IDataMatrix ref = diffs ? refLevels.get(k) : null;
+				double[] weight = weights[k * nAssemblies + l];
+				int offset = (k * nAssemblies + l) * nPins;
+				double powerSum = 0.0, diffSum = 0.0, weightSum = 0.0;
+				for (int i = 0; i < nRows; i++) {
+					for (int j = 0; j < nCols; j++) {
+						int p = i * nCols + j;
+						IData data = loaded.getElement(i, j);
+						double value = data.getValue();
+						double w = (weight != null) ? weight[p] : 1.0;
+
+						// Weight the pin power
+						powerSum += value * w;
+						weightSum += w;
+						pinSums[p] += value * w;
+						pinSums[weightOffset + p] += w;
+						pinSums[powerOffset + p] += value;
+						pinSums[powerSquared + p] += value * value;
+
+						// Take and weight the difference
+						if (diffs) {
+							IData refData = ref.getElement(i, j);
+							double diff = value - refData.getValue();
+							double uncertainty = data.getUncertainty()
+									- refData.getUncertainty();
+							if (relative) {
+								diff /= refData.getValue();
+								uncertainty /= refData.getUncertainty();
+							}
+							difference[offset + p] = diff;
+							uncertaintyDiff[offset + p] = uncertainty;
+							diffSum += diff * w;
+							pinSums[weightedDiff + p] += diff * w;
+							pinSums[diffOffset + p] += diff;
+							pinSums[diffSquared + p] += diff * diff;
+						}
+					}
+				}
+				axialSums[k] += powerSum;
+				axialSums[nAxial + k] += diffSum;
+				axialSums[2 * nAxial + k] += weightSum;
+			}
+
+			// Finish the radial power of each pin. The radial weight of a pin
+			// is the same at every axial level, so the sums over the levels
+			// only need to be scaled by it.
+			for (int p = 0; p < nPins; p++) {
+				int index = l * nPins + p;
+				double dr = pinSums[weightOffset + p];
+				radialPower[index] = Math.sqrt(Math.abs(pinSums[p] / dr));
+				if (diffs) {
+					radialPowerDiff[index] = Math.sqrt(Math
+							.abs(pinSums[weightedDiff + p] / dr));
+				}
+				radialWeights[index] = dr;
+				radialSums[0] += pinSums[powerOffset + p] * dr;
+				radialSums[1] += pinSums[powerSquared + p] * dr;
+				radialSums[2] += pinSums[diffOffset + p] * dr;
+				radialSums[3] += pinSums[diffSquared + p] * dr;
+				radialSums[4] += nAxial * dr;
+			}
+
+			return;
+		}
+	}
+}
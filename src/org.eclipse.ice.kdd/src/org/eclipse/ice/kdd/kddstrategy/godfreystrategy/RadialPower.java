@@ -123,97 +123,30 @@ public class RadialPower extends GodfreySubStrategy {
 	@Override
 	public boolean executeStrategy() {
 		// Local Declarations
-		int nAxial = loadedPinPowers.get(0).size();
 		int nAssemblies = loadedPinPowers.size();
-		int nRows = loadedPinPowers.get(0).get(0).numberOfRows();
-		int nCols = loadedPinPowers.get(0).get(0).numberOfColumns();
-		double sum = 0.0, weightSum = 0.0;
-		double diffSum = 0.0, rmsSum = 0.0, diffSumRms = 0.0;
-		ArrayList<KDDMatrix> dr = new ArrayList<KDDMatrix>();
-		KDDMatrix matrix, diffMat, drMat;
-
-		// Make sure we run the difference algorithm.
-		if (calculateDiffs && !differences.executeStrategy()) {
-			return false;
-		}
 
-		// Calculate the Radial Power and Radial Power Diff
+		// Calculate the Radial Power and Radial Power Diff. The differences
+		// are taken in the same pass over the pin powers, with the
+		// difference type of the PinPowerDifference.
+		PinPowerReduction pins = getReduction(calculateDiffs
+				&& differences.isRelative());
+		radialPower.clear();
+		radialPowerDiff.clear();
 		for (int l = 0; l < nAssemblies; l++) {
-			matrix = new KDDMatrix(nRows, nCols);
-			diffMat = new KDDMatrix(nRows, nCols);
-			drMat = new KDDMatrix(nRows, nCols);
-			for (int i = 0; i < nRows; i++) {
-				for (int j = 0; j < nCols; j++) {
-					for (int k = 0; k < nAxial; k++) {
-						sum = sum
-								+ loadedPinPowers.get(l).get(k)
-										.getElementValue(i, j)
-								* weights.get(l).get(k).getElement(i, j);
-						if (calculateDiffs) {
-							diffSum = diffSum
-									+ differences.getPinPowerDifference()
-											.get(l).get(k).getElement(i, j)
-									* weights.get(l).get(k).getElement(i, j);
-						}
-						weightSum = weightSum
-								+ weights.get(l).get(k).getElement(i, j);
-					}
-					matrix.setElement(i, j,
-							Math.sqrt(Math.abs(sum / weightSum)));
-					if (calculateDiffs) {
-						diffMat.setElement(i, j,
-								Math.sqrt(Math.abs(diffSum / weightSum)));
-						radialPowerDiff.add(diffMat);
-					}
-					drMat.setElement(i, j, weightSum);
-					sum = 0.0;
-					weightSum = 0.0;
-					diffSum = 0.0;
-					radialPower.add(matrix);
-					dr.add(drMat);
-				}
-			}
-
-		}
-
-		// Calculate Radial avgs and rms
-		for (int l = 0; l < nAssemblies; l++) {
-			for (int i = 0; i < nRows; i++) {
-				for (int j = 0; j < nCols; j++) {
-					for (int k = 0; k < nAxial; k++) {
-						sum = sum
-								+ loadedPinPowers.get(l).get(k)
-										.getElementValue(i, j)
-								* dr.get(l).getElement(i, j);
-
-						rmsSum = rmsSum
-								+ Math.pow(loadedPinPowers.get(l).get(k)
-										.getElementValue(i, j), 2)
-								* dr.get(l).getElement(i, j);
-						if (calculateDiffs) {
-							diffSum = diffSum
-									+ differences.getPinPowerDifference()
-											.get(l).get(k).getElement(i, j)
-									* dr.get(l).getElement(i, j);
-							diffSumRms = diffSumRms
-									+ Math.pow(differences
-											.getPinPowerDifference().get(l)
-											.get(k).getElement(i, j), 2)
-									* dr.get(l).getElement(i, j);
-						}
-						weightSum = weightSum + dr.get(l).getElement(i, j);
-					}
-				}
+			radialPower.add(pins.getMatrix(pins.getRadialPower(), l));
+			if (calculateDiffs) {
+				radialPowerDiff.add(pins.getMatrix(
+						pins.getRadialPowerDifference(), l));
 			}
 		}
 
 		// Set the averages and rms.
-		radialPowerAverage = Math.abs(sum / weightSum);
-		radialPowerRMS = Math.sqrt(Math.abs(rmsSum / weightSum));
+		radialPowerAverage = pins.getRadialPowerAverage();
+		radialPowerRMS = pins.getRadialPowerRMS();
 
 		if (calculateDiffs) {
-			radialPowerDiffAverage = Math.abs(diffSum / weightSum);
-			radialPowerDiffRMS = Math.sqrt(Math.abs(diffSumRms / weightSum));
+			radialPowerDiffAverage = pins.getRadialPowerDifferenceAverage();
+			radialPowerDiffRMS = pins.getRadialPowerDifferenceRMS();
 		}
 
 		return createAsset();
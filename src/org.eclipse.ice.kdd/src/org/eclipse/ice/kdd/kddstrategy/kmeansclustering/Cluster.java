@@ -13,7 +13,7 @@
 package org.eclipse.ice.kdd.kddstrategy.kmeansclustering;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Random;
 
 import org.eclipse.ice.kdd.kddmath.KDDMatrix;
@@ -24,6 +24,14 @@ import org.eclipse.ice.kdd.kddmath.KDDMatrix;
  * data. It has methods to add and get data vectors, as well as query the
  * cluster index and number of elements.
  * </p>
+ * <p>
+ * The vectors are the rows of a data matrix and the Cluster only stores their
+ * row indices, so clustering a large matrix does not copy any of its data. A
+ * Cluster that is created without a data matrix keeps the vectors that are
+ * added to it in a matrix of its own. A Cluster of the rows of a data matrix
+ * copies its rows into a matrix of its own the first time that a vector is
+ * added to it, so the data matrix is never changed.
+ * </p>
  * 
  * @author Alex McCaskey
  */
@@ -38,14 +46,39 @@ public class Cluster {
 	private int index;
 	/**
 	 * <p>
-	 * Reference to a mapping of N-dimensional vectors represented as
-	 * KDDMatrices each with number of columns equal to 1 and number of rows
-	 * equal to N. The keys in the mapping are simply an integer index for each
-	 * data vector.
+	 * Reference to the matrix whose rows are the N-dimensional vectors of this
+	 * Cluster, or null if no vectors have been added to a Cluster that was
+	 * created without one.
+	 * </p>
+	 * 
+	 */
+	private KDDMatrix data;
+
+	/**
+	 * <p>
+	 * True if the data matrix was created by this Cluster and vectors may be
+	 * added to it without copying it first.
+	 * </p>
+	 * 
+	 */
+	private boolean ownsData;
+
+	/**
+	 * <p>
+	 * The indices of the rows of the data matrix that are in this Cluster.
+	 * Only the first nElements are used.
+	 * </p>
+	 * 
+	 */
+	private int[] rows;
+
+	/**
+	 * <p>
+	 * The number of data elements in this Cluster.
 	 * </p>
 	 * 
 	 */
-	private HashMap<Integer, KDDMatrix> data;
+	private int nElements;
 
 	/**
 	 * <p>
@@ -56,33 +89,135 @@ public class Cluster {
 	 */
 	public Cluster(int clusterIndex) {
 		index = clusterIndex;
-		data = new HashMap<Integer, KDDMatrix>();
+		data = null;
+		ownsData = true;
+		rows = new int[0];
+		nElements = 0;
 	}
 
 	/**
 	 * <p>
-	 * Return the N-dimensional vector at the given index.
+	 * The Constructor for a Cluster of the rows of a data matrix. The matrix is
+	 * not copied or changed.
+	 * </p>
+	 * 
+	 * @param clusterIndex
+	 * @param dataMatrix
+	 *            The matrix whose rows are the vectors of this Cluster
+	 */
+	public Cluster(int clusterIndex, KDDMatrix dataMatrix) {
+		index = clusterIndex;
+		data = dataMatrix;
+		ownsData = false;
+		rows = new int[0];
+		nElements = 0;
+	}
+
+	/**
+	 * <p>
+	 * Return the N-dimensional vector at the given index as a KDDMatrix with
+	 * number of columns equal to 1 and number of rows equal to N. The vector
+	 * is a copy of the row in the data matrix.
 	 * </p>
 	 * 
 	 * @param index
 	 * @return
 	 */
 	public KDDMatrix getVector(int index) {
-		return data.get(new Integer(index));
+		// Return null if the index is out of range
+		if (index < 0 || index >= nElements) {
+			return null;
+		}
+
+		// Get the row and make it a column vector
+		KDDMatrix vector = data.getRow(rows[index]);
+		vector.transpose();
+
+		return vector;
 	}
 
 	/**
 	 * <p>
-	 * Add a new N-dimensional vector to the Cluster.
+	 * Add a new N-dimensional vector to the Cluster. The vector is copied into
+	 * a matrix that the Cluster owns. A Cluster of the rows of a data matrix
+	 * first copies its rows into a matrix of its own, after which getRows()
+	 * and addRow() refer to the rows of that matrix.
 	 * </p>
 	 * 
 	 * @param vector
 	 */
 	public void addVector(KDDMatrix vector) {
-		data.put(new Integer(data.size()), vector);
+		// Never change a matrix that belongs to someone else
+		if (!ownsData) {
+			copyData();
+		}
+
+		// Create the matrix with the length of the first vector
+		if (data == null) {
+			data = new KDDMatrix(0, vector.numberOfRows());
+		}
+
+		// Copy the vector into a new row
+		int row = data.addRow() - 1;
+		for (int i = 0; i < vector.numberOfRows(); i++) {
+			data.setElement(row, i, vector.getElement(i, 0));
+		}
+		addRow(row);
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Copy the rows of the data matrix that are in this Cluster into a matrix
+	 * that this Cluster owns.
+	 * </p>
+	 * 
+	 */
+	private void copyData() {
+		if (data != null) {
+			int nColumns = data.numberOfColumns();
+			KDDMatrix copy = new KDDMatrix(0, nColumns);
+			for (int k = 0; k < nElements; k++) {
+				int row = copy.addRow() - 1;
+				for (int i = 0; i < nColumns; i++) {
+					copy.setElement(row, i, data.getElement(rows[k], i));
+				}
+				rows[k] = row;
+			}
+			data = copy;
+		}
+		ownsData = true;
+	}
+
+	/**
+	 * <p>
+	 * Add the row of the data matrix at the given index to the Cluster.
+	 * </p>
+	 * 
+	 * @param row
+	 */
+	public void addRow(int row) {
+		// Make room for the row
+		if (nElements == rows.length) {
+			rows = Arrays.copyOf(rows, Math.max(8, 2 * rows.length));
+		}
+		rows[nElements++] = row;
 		return;
 	}
 
+	/**
+	 * <p>
+	 * Return the indices of the rows of the data matrix that are in this
+	 * Cluster.
+	 * </p>
+	 * 
+	 * @return
+	 */
+	public int[] getRows() {
+		return Arrays.copyOf(rows, nElements);
+	}
+
 	/**
 	 * <p>
 	 * Return the number of data elements in this Cluster.
@@ -91,7 +226,7 @@ public class Cluster {
 	 * @return
 	 */
 	public int numberOfElements() {
-		return data.size();
+		return nElements;
 	}
 
 	/**
@@ -115,27 +250,29 @@ public class Cluster {
 	 */
 	public KDDMatrix getClusterMean(int nRows) {
 
-		// Create a new KDDMatrix with all elements 0.0
-		KDDMatrix sumVector = new KDDMatrix(nRows, 1);
+		// Create an array with all elements 0.0
+		double[] sums = new double[nRows];
+
+		// Make sure the vectors have the right length
+		if (nElements > 0 && data.numberOfColumns() != nRows) {
+			return null;
+		}
 
 		// Add up all vectors then divide them by the size of data
-		for (KDDMatrix m : data.values()) {
-			if (!sumVector.add(m)) {
-				return null;
+		for (int k = 0; k < nElements; k++) {
+			for (int i = 0; i < nRows; i++) {
+				sums[i] += data.getElement(rows[k], i);
 			}
 		}
 
 		// Divide by the number of elements in this cluster
-		for (int i = 0; i < nRows; i++) {
-			if (!data.isEmpty()) {
-				sumVector.setElement(i, 0,
-						sumVector.getElement(i, 0) / data.size());
-			} else {
-				sumVector.setElement(i, 0, sumVector.getElement(i, 0));
+		if (nElements > 0) {
+			for (int i = 0; i < nRows; i++) {
+				sums[i] /= nElements;
 			}
 		}
 
-		return sumVector;
+		return new KDDMatrix(sums, nRows, 1);
 	}
 
 	/**
@@ -172,7 +309,11 @@ public class Cluster {
 	 * 
 	 */
 	public void clearData() {
-		data.clear();
+		// The rows of a matrix that this Cluster owns are removed too
+		if (ownsData) {
+			data = null;
+		}
+		nElements = 0;
 	}
 
 	/**
@@ -195,7 +336,7 @@ public class Cluster {
 	 * @return
 	 */
 	public boolean isEmpty() {
-		return data.isEmpty();
+		return nElements == 0;
 	}
 
 	/**
@@ -208,8 +349,8 @@ public class Cluster {
 	public ArrayList<KDDMatrix> getDataElements() {
 		ArrayList<KDDMatrix> retList = new ArrayList<KDDMatrix>();
 
-		for (KDDMatrix m : data.values()) {
-			retList.add(m);
+		for (int i = 0; i < nElements; i++) {
+			retList.add(getVector(i));
 		}
 
 		return retList;
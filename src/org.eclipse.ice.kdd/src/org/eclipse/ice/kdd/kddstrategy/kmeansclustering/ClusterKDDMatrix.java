@@ -15,7 +15,6 @@ package org.eclipse.ice.kdd.kddstrategy.kmeansclustering;
 import java.io.ByteArrayInputStream;
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.Collections;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -89,11 +88,17 @@ public class ClusterKDDMatrix extends KDDMatrix {
 	/**
 	 * <p>
 	 * This method performs a KMeans cluster algorithm on this matrix-structured
-	 * data set. It produces an ArrayList of Clusters, each holding a map of
-	 * data indices to vectors in an N-dimensional space represented as
-	 * KDDMatrices with number of columns equal to 1 and number of rows equal to
-	 * N. It takes as argument the number of cluster centroids to produce, as
-	 * well as the number of iterations to use in refining the clusters.
+	 * data set. It produces an ArrayList of Clusters, each holding the indices
+	 * of the rows of this matrix that belong to it. The rows are vectors in an
+	 * N-dimensional space, where N is the number of columns. It takes as
+	 * argument the number of cluster centroids to produce, as well as the
+	 * maximum number of iterations to use in refining the clusters. The
+	 * refinement stops early once the clusters no longer change.
+	 * </p>
+	 * <p>
+	 * The work is done by a KMeansClusterer, which seeds the centroids with
+	 * KMeans++, skips the distances that the triangle inequality rules out and
+	 * assigns the rows in parallel.
 	 * </p>
 	 * 
 	 * @param nClusters
@@ -102,71 +107,34 @@ public class ClusterKDDMatrix extends KDDMatrix {
 	public void cluster(int nClusters, int nIterations) {
 
 		// Local Declarations
-		ArrayList<KDDMatrix> centroids = new ArrayList<KDDMatrix>();
-		ArrayList<Double> distances = new ArrayList<Double>();
-		KDDMatrix vector = null;
-		Double minDistance = 0.0;
+		KMeansClusterer clusterer = new KMeansClusterer(elements, nRows, nCols);
+		int iterations = 0;
 
 		// Clear any old clusters from a previous run
 		clusters.clear();
 
-		// Create nClusters clusters, and calculate
-		// a set of random means
-		for (int i = 0; i < nClusters; i++) {
-			// Create the cluster
-			Cluster c = new Cluster(i);
-			clusters.add(c);
-
-			// Add the random center of mass vector to
-			// the centroids list
-			centroids.add(c.getRandomClusterMean(nCols, getMinMatrixElement(),
-					getMaxMatrixElement()));
+		// There is nothing to do without clusters or data
+		if (nClusters < 1 || nRows == 0) {
+			return;
 		}
 
-		// Loop over the specified number of iterations
-		// to refine the data clustering
-		for (int i = 0; i < nIterations; i++) {
-			// Clear the cluster data from the previous iteration
-			for (Cluster c : clusters) {
-				c.clearData();
-			}
-
-			// For each row vector we need to calculate its
-			// distance to each centroid
-			for (int j = 0; j < numberOfRows(); j++) {
-				// Get the jth row vector from this matrix
-				vector = getRow(j);
-
-				// Transpose it so we only work with
-				// column vectors
-				vector.transpose();
-
-				// Get a list of the distances from this row vector
-				// to this centroid
-				for (int k = 0; k < nClusters; k++) {
-					// Add the distance between the jth row vector and
-					// the kth centroid to the list of distances
-					distances.add(distanceMeasure.getDistance(centroids.get(k),
-							vector));
-				}
-
-				// Get the minimum distance
-				minDistance = Collections.min(distances);
-
-				// Find the index of the minDistance, which is also the index
-				// of the correct centroid to add this vector to
-				clusters.get(distances.indexOf(minDistance)).addVector(vector);
+		// The Euclidean distance is computed directly on the elements, but
+		// any other measure has to be used through the interface
+		if (distanceMeasure != null
+				&& distanceMeasure.getClass() != EuclideanDistanceMeasure.class) {
+			clusterer.setDistanceMeasure(distanceMeasure);
+		}
 
-				// Clear the distances array
-				distances.clear();
-			}
+		// Cluster the rows
+		iterations = clusterer.cluster(nClusters, nIterations);
 
-			// Now we can calculate more accurate
-			// cluster centroids for the next iteration
-			centroids.clear();
-			for (Cluster c : clusters) {
-				centroids.add(c.getClusterMean(nCols));
-			}
+		// Create the clusters from the assignments of the rows
+		for (int i = 0; i < nClusters; i++) {
+			clusters.add(new Cluster(i, this));
+		}
+		int[] assignments = clusterer.getAssignments();
+		for (int i = 0; i < nRows; i++) {
+			clusters.get(assignments[i]).addRow(i);
 		}
 
 		// Debug
@@ -177,34 +145,12 @@ public class ClusterKDDMatrix extends KDDMatrix {
 							+ " has "
 							+ c.numberOfElements()
 							+ " data elements after \n\tKMeans clustering algorithm with "
-							+ nIterations + " iterations.");
+							+ iterations + " iterations.");
 		}
 
 		return;
 	}
 
-	/**
-	 * <p>
-	 * Return the largest element in this matrix.
-	 * </p>
-	 * 
-	 * @return
-	 */
-	private Double getMaxMatrixElement() {
-		return Collections.max(elements);
-	}
-
-	/**
-	 * <p>
-	 * Return the smallest element in this matrix
-	 * </p>
-	 * 
-	 * @return
-	 */
-	private Double getMinMatrixElement() {
-		return Collections.min(elements);
-	}
-
 	/**
 	 * <p>
 	 * Return the number of Clusters.
@@ -32,6 +32,16 @@ import org.eclipse.ice.kdd.kddstrategy.KDDStrategy;
  * @author Alex McCaskey
  */
 public class ComparativeKMeansStrategy extends KDDStrategy {
+
+	/**
+	 * <p>
+	 * The RawKMeansStrategy that clusters the difference matrix, or null if
+	 * there is no matrix yet.
+	 * </p>
+	 * 
+	 */
+	private RawKMeansStrategy rawStrategy;
+
 	/**
 	 * <p>
 	 * The Constructor
@@ -53,7 +63,7 @@ public class ComparativeKMeansStrategy extends KDDStrategy {
 	 */
 	public ComparativeKMeansStrategy(ClusterKDDMatrix matrix) {
 		super(null, null);
-		// TODO Auto-generated constructor stub
+		rawStrategy = new RawKMeansStrategy(matrix);
 	}
 
 	/**
@@ -61,8 +71,7 @@ public class ComparativeKMeansStrategy extends KDDStrategy {
 	 * @return
 	 */
 	public int getNumberOfClusters() {
-		// TODO Auto-generated method stub
-		return 0;
+		return (rawStrategy != null) ? rawStrategy.getNumberOfClusters() : 0;
 	}
 
 	/*
@@ -164,8 +173,8 @@ public class ComparativeKMeansStrategy extends KDDStrategy {
 	 */
 	@Override
 	public boolean executeStrategy() {
-		// TODO Auto-generated method stub
-		return false;
+		// Cluster the difference matrix with the RawKMeansStrategy
+		return (rawStrategy != null) && rawStrategy.executeStrategy();
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,651 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.kdd.kddstrategy.kmeansclustering;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.eclipse.ice.kdd.kddmath.KDDMatrix;
+
+/**
+ * <p>
+ * The KMeansClusterer clusters the rows of a row major array of doubles with
+ * the KMeans algorithm. It is the engine behind ClusterKDDMatrix.cluster().
+ * </p>
+ * <p>
+ * The initial centroids are chosen with KMeans++ seeding, which picks each
+ * new centroid with a probability proportional to its squared distance from
+ * the centroids that were already picked. The clusters are then refined with
+ * Hamerly's algorithm, which keeps an upper bound on the distance of each
+ * point to its centroid and a lower bound on its distance to every other
+ * centroid. The triangle inequality shows that most points can not change
+ * clusters, so their distances are never computed. Points are assigned in
+ * parallel on a fork/join pool and the algorithm stops as soon as no point
+ * changes clusters.
+ * </p>
+ * <p>
+ * Euclidean distances are computed directly on the array. Any other
+ * DistanceMeasure may be used instead as long as it is a metric, since the
+ * pruning depends on the triangle inequality.
+ * </p>
+ *
+ * @author Alex McCaskey
+ */
+public class KMeansClusterer {
+
+	/**
+	 * <p>
+	 * The smallest number of distance terms, points times dimensions times
+	 * clusters, for which the points are assigned in parallel.
+	 * </p>
+	 */
+	private static final int parallelThreshold = 1 << 16;
+
+	/**
+	 * <p>
+	 * The fork/join pool shared by all clusterers. It is created the first
+	 * time that a large data set is clustered.
+	 * </p>
+	 */
+	private static ForkJoinPool pool;
+
+	/**
+	 * <p>
+	 * The points in row major order
+	 * </p>
+	 */
+	private final double[] data;
+
+	/**
+	 * <p>
+	 * The number of points
+	 * </p>
+	 */
+	private final int nPoints;
+
+	/**
+	 * <p>
+	 * The number of dimensions of each point
+	 * </p>
+	 */
+	private final int dimension;
+
+	/**
+	 * <p>
+	 * The distance measure, or null for the Euclidean distance
+	 * </p>
+	 */
+	private DistanceMeasure measure;
+
+	/**
+	 * <p>
+	 * The random number generator used to seed the centroids
+	 * </p>
+	 */
+	private Random random;
+
+	/**
+	 * <p>
+	 * The number of clusters
+	 * </p>
+	 */
+	private int nClusters;
+
+	/**
+	 * <p>
+	 * The centroids in row major order
+	 * </p>
+	 */
+	private double[] centroids;
+
+	/**
+	 * <p>
+	 * Half of the distance from each centroid to the closest other centroid
+	 * </p>
+	 */
+	private double[] halfSeparation;
+
+	/**
+	 * <p>
+	 * The index of the cluster of each point
+	 * </p>
+	 */
+	private int[] assignments;
+
+	/**
+	 * <p>
+	 * The upper bound on the distance of each point to its centroid
+	 * </p>
+	 */
+	private double[] upper;
+
+	/**
+	 * <p>
+	 * The lower bound on the distance of each point to every centroid except
+	 * its own
+	 * </p>
+	 */
+	private double[] lower;
+
+	/**
+	 * <p>
+	 * The Constructor
+	 * </p>
+	 *
+	 * @param data
+	 *            The points in row major order, which are not copied or
+	 *            changed
+	 * @param nPoints
+	 *            The number of points
+	 * @param dimension
+	 *            The number of dimensions of each point
+	 */
+	public KMeansClusterer(double[] data, int nPoints, int dimension) {
+		// Make sure that the array holds all of the points
+		if (nPoints < 0 || dimension < 0 || data.length < nPoints * dimension) {
+			throw new IllegalArgumentException(
+					"Invalid number of data elements. Must have nPoints * dimension data elements.");
+		}
+		this.data = data;
+		this.nPoints = nPoints;
+		this.dimension = dimension;
+		measure = null;
+		random = new Random();
+		nClusters = 0;
+		centroids = new double[0];
+		assignments = new int[0];
+	}
+
+	/**
+	 * <p>
+	 * Set the distance measure. It must be a metric. The default, null, is the
+	 * Euclidean distance.
+	 * </p>
+	 *
+	 * @param distanceMeasure
+	 */
+	public void setDistanceMeasure(DistanceMeasure distanceMeasure) {
+		measure = distanceMeasure;
+	}
+
+	/**
+	 * <p>
+	 * Set the random number generator used to seed the centroids, which makes
+	 * the clusters repeatable.
+	 * </p>
+	 *
+	 * @param generator
+	 */
+	public void setRandom(Random generator) {
+		if (generator != null) {
+			random = generator;
+		}
+	}
+
+	/**
+	 * <p>
+	 * Cluster the points. The clusters are refined until no point changes
+	 * clusters or until the maximum number of iterations is reached.
+	 * </p>
+	 *
+	 * @param numberOfClusters
+	 *            The number of clusters, which must be at least one
+	 * @param maxIterations
+	 *            The maximum number of assignments of the points to clusters
+	 * @return The number of assignments that were performed
+	 */
+	public int cluster(int numberOfClusters, int maxIterations) {
+
+		// Local Declarations
+		int iterations = 1;
+
+		// Check the number of clusters
+		if (numberOfClusters < 1) {
+			throw new IllegalArgumentException(
+					"The number of clusters must be at least one, not "
+							+ numberOfClusters);
+		}
+
+		// Initialize the state of the algorithm
+		nClusters = numberOfClusters;
+		centroids = new double[nClusters * dimension];
+		halfSeparation = new double[nClusters];
+		assignments = new int[nPoints];
+		upper = new double[nPoints];
+		lower = new double[nPoints];
+		if (nPoints == 0) {
+			return 0;
+		}
+
+		// Pick the initial centroids and assign every point to one
+		seed();
+		runTasks(PointTask.ASSIGN_ALL);
+
+		// Refine the clusters until they stop changing
+		while (iterations < maxIterations) {
+			// Move the centroids to the means of their points and stop if
+			// none of them moved
+			double[] moved = moveCentroids();
+			int farthest = 0, secondFarthest = -1;
+			for (int j = 1; j < nClusters; j++) {
+				if (moved[j] > moved[farthest]) {
+					secondFarthest = farthest;
+					farthest = j;
+				} else if (secondFarthest < 0
+						|| moved[j] > moved[secondFarthest]) {
+					secondFarthest = j;
+				}
+			}
+			if (moved[farthest] == 0.0) {
+				break;
+			}
+
+			// Each point is at most as far from its centroid as before plus
+			// the distance that the centroid moved, and at least as far from
+			// the others as before minus the farthest that any of them moved
+			double maxMove = moved[farthest];
+			double otherMove = (secondFarthest >= 0) ? moved[secondFarthest]
+					: 0.0;
+			for (int i = 0; i < nPoints; i++) {
+				upper[i] += moved[assignments[i]];
+				lower[i] -= (assignments[i] == farthest) ? otherMove : maxMove;
+			}
+
+			// Reassign the points that might be closer to another centroid
+			computeHalfSeparation();
+			int changes = runTasks(PointTask.ASSIGN_PRUNED);
+			iterations++;
+			if (changes == 0) {
+				break;
+			}
+		}
+
+		// Make sure that the centroids are the means of the final clusters
+		moveCentroids();
+
+		// Release the bounds
+		upper = null;
+		lower = null;
+		halfSeparation = null;
+
+		return iterations;
+	}
+
+	/**
+	 * <p>
+	 * Return the index of the cluster of each point.
+	 * </p>
+	 *
+	 * @return
+	 */
+	public int[] getAssignments() {
+		return assignments;
+	}
+
+	/**
+	 * <p>
+	 * Return the centroid of a cluster.
+	 * </p>
+	 *
+	 * @param cluster
+	 *            The index of the cluster
+	 * @return The centroid as a KDDMatrix with number of columns equal to 1
+	 *         and number of rows equal to the dimension of the points
+	 */
+	public KDDMatrix getCentroid(int cluster) {
+		return new KDDMatrix(Arrays.copyOfRange(centroids, cluster
+				* dimension, (cluster + 1) * dimension), dimension, 1);
+	}
+
+	/**
+	 * <p>
+	 * Pick the initial centroids with KMeans++ seeding.
+	 * </p>
+	 */
+	private void seed() {
+
+		// Local Declarations
+		double[] minDistances = new double[nPoints];
+
+		// Pick the first centroid uniformly
+		int point = random.nextInt(nPoints);
+		System.arraycopy(data, point * dimension, centroids, 0, dimension);
+		for (int i = 0; i < nPoints; i++) {
+			double distance = distance(data, i * dimension, centroids, 0);
+			minDistances[i] = distance * distance;
+		}
+
+		// Pick the others with a probability proportional to their squared
+		// distance from the closest centroid picked so far
+		for (int j = 1; j < nClusters; j++) {
+			double total = 0.0;
+			for (int i = 0; i < nPoints; i++) {
+				total += minDistances[i];
+			}
+			if (total > 0.0) {
+				double target = random.nextDouble() * total;
+				point = nPoints - 1;
+				for (int i = 0; i < nPoints; i++) {
+					target -= minDistances[i];
+					if (target < 0.0) {
+						point = i;
+						break;
+					}
+				}
+			} else {
+				// All of the points are already centroids
+				point = random.nextInt(nPoints);
+			}
+			System.arraycopy(data, point * dimension, centroids, j
+					* dimension, dimension);
+
+			// Update the distances to the closest centroid
+			for (int i = 0; i < nPoints; i++) {
+				double distance = distance(data, i * dimension, centroids, j
+						* dimension);
+				minDistances[i] = Math.min(minDistances[i], distance
+						* distance);
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Move each centroid to the mean of its points. Centroids without any
+	 * points do not move.
+	 * </p>
+	 *
+	 * @return The distance that each centroid moved
+	 */
+	private double[] moveCentroids() {
+
+		// Local Declarations
+		double[] sums = new double[nClusters * dimension];
+		int[] counts = new int[nClusters];
+		double[] moved = new double[nClusters];
+
+		// Sum the points of each cluster
+		for (int i = 0; i < nPoints; i++) {
+			int offset = assignments[i] * dimension;
+			int pointOffset = i * dimension;
+			for (int d = 0; d < dimension; d++) {
+				sums[offset + d] += data[pointOffset + d];
+			}
+			counts[assignments[i]]++;
+		}
+
+		// Compute the means and how far they are from the old centroids
+		for (int j = 0; j < nClusters; j++) {
+			if (counts[j] > 0) {
+				int offset = j * dimension;
+				for (int d = 0; d < dimension; d++) {
+					sums[offset + d] /= counts[j];
+				}
+				moved[j] = distance(sums, offset, centroids, offset);
+				System.arraycopy(sums, offset, centroids, offset, dimension);
+			}
+		}
+
+		return moved;
+	}
+
+	/**
+	 * <p>
+	 * Compute half of the distance from each centroid to the closest other
+	 * centroid. A point that is closer to its centroid than this can not be
+	 * closer to any other centroid.
+	 * </p>
+	 */
+	private void computeHalfSeparation() {
+		Arrays.fill(halfSeparation, Double.POSITIVE_INFINITY);
+		for (int j = 0; j < nClusters; j++) {
+			for (int l = j + 1; l < nClusters; l++) {
+				double half = 0.5 * distance(centroids, j * dimension,
+						centroids, l * dimension);
+				halfSeparation[j] = Math.min(halfSeparation[j], half);
+				halfSeparation[l] = Math.min(halfSeparation[l], half);
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * Assign the points in a range to their closest centroids.
+	 * </p>
+	 *
+	 * @param first
+	 *            The first point
+	 * @param last
+	 *            One past the last point
+	 * @param pruned
+	 *            True if the bounds should be used to skip points that can
+	 *            not change clusters
+	 * @return The number of points that changed clusters
+	 */
+	private int assign(int first, int last, boolean pruned) {
+
+		// Local Declarations
+		int changes = 0;
+
+		for (int i = first; i < last; i++) {
+			int offset = i * dimension;
+			int current = assignments[i];
+
+			// Skip the point if it can not be closer to another centroid.
+			// Tighten the upper bound before giving up on the point.
+			if (pruned) {
+				double bound = Math.max(halfSeparation[current], lower[i]);
+				if (upper[i] <= bound) {
+					continue;
+				}
+				upper[i] = distance(data, offset, centroids, current
+						* dimension);
+				if (upper[i] <= bound) {
+					continue;
+				}
+			}
+
+			// Find the closest and second closest centroids
+			int closest = 0;
+			double closestDistance = Double.POSITIVE_INFINITY;
+			double secondDistance = Double.POSITIVE_INFINITY;
+			for (int j = 0; j < nClusters; j++) {
+				double distance = distance(data, offset, centroids, j
+						* dimension);
+				if (distance < closestDistance) {
+					secondDistance = closestDistance;
+					closestDistance = distance;
+					closest = j;
+				} else if (distance < secondDistance) {
+					secondDistance = distance;
+				}
+			}
+
+			// Keep the new bounds
+			if (pruned && closest != current) {
+				changes++;
+			}
+			assignments[i] = closest;
+			upper[i] = closestDistance;
+			lower[i] = secondDistance;
+		}
+
+		return changes;
+	}
+
+	/**
+	 * <p>
+	 * Compute the distance between two points stored in arrays.
+	 * </p>
+	 *
+	 * @param first
+	 *            The array of the first point
+	 * @param firstOffset
+	 *            The index of the first point's first element
+	 * @param second
+	 *            The array of the second point
+	 * @param secondOffset
+	 *            The index of the second point's first element
+	 * @return The distance
+	 */
+	private double distance(double[] first, int firstOffset, double[] second,
+			int secondOffset) {
+
+		// Use the distance measure if one was set
+		if (measure != null) {
+			KDDMatrix vector1 = new KDDMatrix(Arrays.copyOfRange(first,
+					firstOffset, firstOffset + dimension), dimension, 1);
+			KDDMatrix vector2 = new KDDMatrix(Arrays.copyOfRange(second,
+					secondOffset, secondOffset + dimension), dimension, 1);
+			return measure.getDistance(vector1, vector2);
+		}
+
+		// Otherwise compute the Euclidean distance
+		double sum = 0.0;
+		for (int d = 0; d < dimension; d++) {
+			double difference = first[firstOffset + d]
+					- second[secondOffset + d];
+			sum += difference * difference;
+		}
+
+		return Math.sqrt(sum);
+	}
+
+	/**
+	 * <p>
+	 * Run an operation on all of the points. Large data sets are split into
+	 * ranges of points that are processed in parallel on the shared pool.
+	 * </p>
+	 *
+	 * @param operation
+	 *            The operation from PointTask
+	 * @return The number of points that changed clusters
+	 */
+	private int runTasks(int operation) {
+
+		// Local Declarations
+		int processors = Runtime.getRuntime().availableProcessors();
+		int changes = 0;
+
+		// Run small data sets on this thread
+		if ((long) nPoints * dimension * nClusters < parallelThreshold
+				|| processors < 2) {
+			return assign(0, nPoints, operation == PointTask.ASSIGN_PRUNED);
+		}
+
+		// Split the points into more ranges than processors so that ranges
+		// with many pruned points do not leave processors idle
+		int nTasks = Math.min(nPoints, 4 * processors);
+		final ArrayList<PointTask> tasks = new ArrayList<PointTask>(nTasks);
+		for (int t = 0; t < nTasks; t++) {
+			tasks.add(new PointTask(operation, (int) ((long) nPoints * t / nTasks),
+					(int) ((long) nPoints * (t + 1) / nTasks)));
+		}
+		getPool().invoke(new RecursiveAction() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				invokeAll(tasks);
+			}
+		});
+
+		// Add up the changes
+		for (PointTask task : tasks) {
+			changes += task.changes;
+		}
+
+		return changes;
+	}
+
+	/**
+	 * <p>
+	 * Returns the fork/join pool that is shared by all clusterers, creating it
+	 * if needed. Its worker threads are daemon threads, so it never needs to be
+	 * shut down.
+	 * </p>
+	 *
+	 * @return The pool
+	 */
+	private static synchronized ForkJoinPool getPool() {
+		if (pool == null) {
+			pool = new ForkJoinPool();
+		}
+		return pool;
+	}
+
+	/**
+	 * <p>
+	 * This class assigns a range of points to their closest centroids. Each
+	 * task only writes the assignments and bounds of its own points.
+	 * </p>
+	 */
+	private class PointTask extends RecursiveAction {
+
+		/**
+		 * The operation that computes the distances to all of the centroids
+		 */
+		static final int ASSIGN_ALL = 0;
+
+		/**
+		 * The operation that skips the points that can not change clusters
+		 */
+		static final int ASSIGN_PRUNED = 1;
+
+		/**
+		 * The ID used for serialization
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The operation
+		 */
+		private final int operation;
+
+		/**
+		 * The first point and one past the last point of this task
+		 */
+		private final int first, last;
+
+		/**
+		 * The number of points that changed clusters
+		 */
+		private int changes;
+
+		/**
+		 * The constructor
+		 */
+		PointTask(int operation, int first, int last) {
+			this.operation = operation;
+			this.first = first;
+			this.last = last;
+			changes = 0;
+		}
+
+		/**
+		 * Assigns the points.
+		 *
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		@Override
+		protected void compute() {
+			changes = assign(first, last, operation == ASSIGN_PRUNED);
+		}
+	}
+
+}
@@ -128,7 +128,7 @@ public class RawKMeansStrategy extends KDDStrategy {
 				// Set the particulars
 				this.objectName = "Number of Iteration";
 				this.uniqueId = 2;
-				this.objectDescription = "Indicate the number of iterations to use in this clustering algorithm.";
+				this.objectDescription = "Indicate the maximum number of iterations to use in this clustering algorithm. It stops early once the clusters no longer change.";
 				// Set the data sources list
 				allowedValueType = AllowedValueType.Continuous;
 			}
@@ -178,7 +178,7 @@ public class RawKMeansStrategy extends KDDStrategy {
 		oldMatrix.copy(matrixToCluster);
 
 		try {
-			// Get the NCentroids, refined over NIteratinos
+			// Get the NCentroids, refined over at most NIterations
 			matrixToCluster.cluster(
 					Integer.parseInt(properties.get("Number of Clusters")),
 					Integer.parseInt(properties.get("Number of Iterations")));
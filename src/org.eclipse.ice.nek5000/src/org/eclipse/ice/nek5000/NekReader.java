@@ -12,13 +12,13 @@
  *******************************************************************************/
 package org.eclipse.ice.nek5000;
 
+import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 
 import org.eclipse.ice.datastructures.ICEObject.Component;
 import org.eclipse.ice.datastructures.form.AllowedValueType;
@@ -107,6 +107,19 @@ public class NekReader {
 	 */
 	private ProblemProperties properties;
 
+	/**
+	 * The elements/quads of the mesh, in the order of their IDs. The boundary
+	 * conditions follow the mesh in a reafile, so the quads are kept here and
+	 * only added to the MeshComponent once all of their boundary conditions
+	 * are set.
+	 */
+	private ArrayList<Quad> quads;
+
+	/**
+	 * The size of the buffer, in characters, that is used to read reafiles.
+	 */
+	private static final int bufferSize = 1 << 16;
+
 	/**
 	 * Nullary constructor.
 	 */
@@ -121,14 +134,20 @@ public class NekReader {
 	 * Component. If the reafile is invalid, the method returns a null
 	 * ArrayList.
 	 * 
+	 * The file is read in a single pass through a buffered reader. Each
+	 * section header is handed to the loader for that section, which reads
+	 * the lines of the section directly from the file, so the file is never
+	 * held in memory. Sections that are not in the file are returned as empty
+	 * Components.
+	 * 
 	 * @param reaFile
 	 *            The Nek5000 reafile.
 	 * @return ArrayList containing all the reafile input as Components.
 	 * @throws IOException
-	 *             Thrown when readFileLines(...) fails to read or close its
-	 *             FileInputStream
+	 *             Thrown when the reafile can not be read or closed or when it
+	 *             ends in the middle of a section
 	 * @throws FileNotFoundException
-	 *             Thrown when readFileLines(...) fails to find the input file
+	 *             Thrown when the reafile can not be found
 	 */
 	public ArrayList<Component> loadREAFile(File reaFile)
 			throws FileNotFoundException, IOException {
@@ -140,23 +159,128 @@ public class NekReader {
 
 		ArrayList<Component> components = new ArrayList<Component>();
 
-		// Read lines into an ArrayList of Strings
-		ArrayList<String> lines = readFileLines(reaFile);
-
-		// Load the input components
-		DataComponent parameters = loadParameters(lines);
-		DataComponent passiveScalarData = loadPassiveScalarData(lines);
-		DataComponent switches = loadLogicalSwitches(lines);
-		DataComponent preNekAxes = loadPreNekAxes(lines);
-		MeshComponent mesh = loadMesh(lines);
-		MeshComponent curvedSideData = loadCurvedSideData(lines);
-		DataComponent presolveRestartOpts = loadPresolveRestartOpts(lines);
-		DataComponent initialConditions = loadInitialConditions(lines);
-		DataComponent driveForceData = loadDriveForceData(lines);
-		DataComponent varPropertyData = loadVarPropertyData(lines);
-		DataComponent histIntegralData = loadHistoryIntegralData(lines);
-		DataComponent outputFieldSpec = loadOutputFieldSpec(lines);
-		DataComponent objectSpec = loadObjectSpec(lines);
+		// Reset the properties of the last file
+		numDimensions = 0;
+		ifHeat = false;
+		ifFlow = false;
+		numThermalElements = 0;
+		numFluidElements = 0;
+		numPassiveScalars = 0;
+		quads = new ArrayList<Quad>();
+
+		// Create the input components
+		DataComponent parameters = createDataComponent("Parameters",
+				"Entries contained in the Parameters "
+						+ "section of a Nek5000 reafile", 2);
+		DataComponent passiveScalarData = createDataComponent(
+				"Passive Scalar Data", "Entries contained in the Passive "
+						+ "Scalar Data section of a Nek5000 reafile", 3);
+		DataComponent switches = createDataComponent("Logical Switches",
+				"Entries contained in the Logical Switches "
+						+ "section of a Nek5000 reafile", 4);
+		DataComponent preNekAxes = createDataComponent("Pre-Nek Axes",
+				"Entries contained in the Pre-Nek Axes "
+						+ "section of a Nek5000 reafile", 5);
+		MeshComponent mesh = new MeshComponent();
+		mesh.setName("Mesh Data");
+		mesh.setDescription("Elements contained in the Mesh section of a "
+				+ "Nek5000 reafile");
+		mesh.setId(6);
+		MeshComponent curvedSideData = loadCurvedSideData();
+		DataComponent presolveRestartOpts = createDataComponent(
+				"Pre-solve/Restart Options", "Entries contained in the "
+						+ "Pre-solve/Restart Options section of a Nek5000 "
+						+ "reafile", 8);
+		DataComponent initialConditions = createDataComponent(
+				"Initial Conditions", "Entries contained in the Initial "
+						+ "Conditions section of a Nek5000 reafile", 9);
+		DataComponent driveForceData = createDataComponent("Drive Force Data",
+				"Entries contained in the Drive Force "
+						+ "Data section of a Nek5000 reafile", 10);
+		DataComponent varPropertyData = createDataComponent(
+				"Variable Property Data", "Entries contained in the Variable "
+						+ "Property Data section of a Nek5000 reafile", 11);
+		DataComponent histIntegralData = createDataComponent(
+				"History and Integral Data", "Entries contained in the History "
+						+ "and Integral Data section of a Nek5000 reafile", 12);
+		DataComponent outputFieldSpec = createDataComponent(
+				"Output Field Specification", "Entries contained in the Output "
+						+ "Field Specification section of a Nek5000 reafile",
+				13);
+		DataComponent objectSpec = createDataComponent("Object Specification",
+				"Entries contained in the Object "
+						+ "Specification section of a Nek5000 reafile", 14);
+
+		// Read the file and send each section to its loader
+		ReaLineReader reader = new ReaLineReader(reaFile);
+		try {
+			String line;
+			while ((line = reader.nextLine()) != null) {
+				if (line.contains("****** PARAMETERS *****")
+						&& reader.peekContains(0, "NEKTON VERSION")
+						&& reader.peekContains(1, "DIMENSIONAL RUN")
+						&& reader.peekContains(2, "PARAMETERS FOLLOW")) {
+					reader.nextLine();
+					reader.nextLine();
+					loadParameters(reader.nextLine(), reader, parameters);
+				} else if (line.contains("Lines of passive scalar data")) {
+					loadPassiveScalarData(line, reader, passiveScalarData);
+				} else if (line.contains("LOGICAL SWITCHES FOLLOW")) {
+					loadLogicalSwitches(line, reader, switches);
+				} else if (line.contains("XFAC,YFAC,XZERO,YZERO")) {
+					loadPreNekAxes(line, preNekAxes);
+				} else if ((line.contains("**MESH DATA**") || line
+						.contains("*** MESH DATA ***"))
+						&& reader.peekContains(0, "NEL,NDIM,NELV")) {
+					loadMesh(reader.nextLine(), reader);
+				} else if (line
+						.contains("***** FLUID   BOUNDARY CONDITIONS *****")) {
+					loadBoundaryConditions(reader, numFluidElements, 0);
+				} else if (line
+						.contains("***** THERMAL BOUNDARY CONDITIONS *****")) {
+					loadBoundaryConditions(reader, numThermalElements, -1);
+				} else if (numPassiveScalars > 0
+						&& line.contains("***** PASSIVE SCALAR")
+						&& line.contains("BOUNDARY CONDITIONS *****")) {
+					loadBoundaryConditions(reader, numThermalElements,
+							getPassiveScalarNumber(line));
+				} else if (line.contains("PRESOLVE/RESTART OPTIONS")) {
+					loadPresolveRestartOpts(line, reader, presolveRestartOpts);
+				} else if (line.contains("INITIAL CONDITIONS")) {
+					loadInitialConditions(line, reader, initialConditions);
+				} else if (line.contains("***** DRIVE FORCE DATA *****")
+						&& reader.peekContains(0,
+								"Lines of Drive force data follow")) {
+					loadDriveForceData(reader.nextLine(), reader,
+							driveForceData);
+				} else if (line.contains("***** Variable Property Data ****")
+						&& reader.peekContains(0, "Lines follow")) {
+					loadVarPropertyData(reader.nextLine(), reader,
+							varPropertyData);
+				} else if (line
+						.contains("***** HISTORY AND INTEGRAL DATA *****")
+						&& reader.peekContains(0, "POINTS")) {
+					loadHistoryIntegralData(reader.nextLine(), reader,
+							histIntegralData);
+				} else if (line
+						.contains("***** OUTPUT FIELD SPECIFICATION *****")
+						&& reader.peekContains(0, "SPECIFICATIONS FOLLOW")) {
+					loadOutputFieldSpec(reader.nextLine(), reader,
+							outputFieldSpec);
+				} else if (line.contains("***** OBJECT SPECIFICATION *****")) {
+					loadObjectSpec(reader, objectSpec);
+				}
+			}
+		} finally {
+			// Close the file
+			reader.close();
+		}
+
+		// Add the quads to the mesh now that their boundary conditions are set
+		for (Quad quad : quads) {
+			mesh.addPolygon(quad);
+		}
+		quads = null;
 
 		// Add the components to the ArrayList
 		components.add(parameters);
@@ -184,7 +308,8 @@ public class NekReader {
 
 	/**
 	 * Utility class to read in a reafile and return its contents as an
-	 * ArrayList of Strings, broken at each newline character.
+	 * ArrayList of Strings, broken at each newline character. It is not used
+	 * by loadREAFile(), which reads the file one line at a time.
 	 * 
 	 * @param file
 	 *            The reafile to break up.
@@ -192,694 +317,481 @@ public class NekReader {
 	 * @throws FileNotFoundException
 	 *             Thrown when input file cannot be found
 	 * @throws IOException
-	 *             Thrown when the FileInputStream cannot be read or closed
+	 *             Thrown when the file cannot be read or closed
 	 */
 	public ArrayList<String> readFileLines(File file)
 			throws FileNotFoundException, IOException {
 
-		// Convert to FileInputStream
-		FileInputStream fileStream = null;
-		fileStream = new FileInputStream(file);
+		// Local Declarations
+		ArrayList<String> fileLines = new ArrayList<String>();
+		BufferedReader reader = new BufferedReader(new FileReader(file),
+				bufferSize);
+		String line;
 
-		// Read the FileInputStream and append to a StringBuffer
-		StringBuffer buffer = new StringBuffer();
-		int fileByte;
-		while ((fileByte = fileStream.read()) != -1) {
-			buffer.append((char) fileByte);
+		// Read the lines
+		try {
+			while ((line = reader.readLine()) != null) {
+				fileLines.add(line);
+			}
+		} finally {
+			reader.close();
 		}
 
-		// Close the stream
-		fileStream.close();
+		return fileLines;
+	}
+
+	/**
+	 * Creates an empty DataComponent for one section of a reafile.
+	 * 
+	 * @param name
+	 *            The name of the component
+	 * @param description
+	 *            The description of the component
+	 * @param id
+	 *            The id of the component
+	 * @return The DataComponent
+	 */
+	private DataComponent createDataComponent(String name, String description,
+			int id) {
 
-		// Break up the StringBuffer at each newline character
-		String[] bufferSplit = (buffer.toString()).split("\n");
-		ArrayList<String> fileLines = new ArrayList<String>(
-				Arrays.asList(bufferSplit));
+		DataComponent component = new DataComponent();
+		component.setName(name);
+		component.setDescription(description);
+		component.setId(id);
 
-		return fileLines;
+		return component;
 	}
 
 	/**
-	 * Loads the PARAMETERS section of a reafile and returns the contents as a
-	 * DataComponent of Entries. Each line is set as an Entry.
+	 * Returns the number in a section header line, such as the number of lines
+	 * that follow, which is everything on the line before the marker.
 	 * 
-	 * @param reaLines
-	 *            Lines of the reafile as an ArrayList of Strings.
-	 * @return A DataComponent of Entries representing the contents of the
-	 *         PARAMETERS section.
+	 * @param line
+	 *            The header line
+	 * @param marker
+	 *            The text that follows the number
+	 * @return The number
 	 */
-	private DataComponent loadParameters(ArrayList<String> reaLines) {
+	private int parseCount(String line, String marker) {
+		return Integer.parseInt(line.substring(0, line.indexOf(marker)).trim());
+	}
 
-		// Create a parameters component to add entries
-		DataComponent parameters = new DataComponent();
-		parameters.setName("Parameters");
-		parameters.setDescription("Entries contained in the Parameters "
-				+ "section of a Nek5000 reafile");
-		parameters.setId(2);
+	/**
+	 * Loads the PARAMETERS section of a reafile into a DataComponent of
+	 * Entries. Each line is set as an Entry.
+	 * 
+	 * @param header
+	 *            The line of the section header with the number of parameters
+	 * @param reader
+	 *            The reader, positioned at the first parameter
+	 * @param parameters
+	 *            The DataComponent to which the Entries are added
+	 * @throws IOException
+	 */
+	private void loadParameters(String header, ReaLineReader reader,
+			DataComponent parameters) throws IOException {
+
+		// Grab the number indicating the length of the parameters section
+		// (number of lines)
+		int numLines = parseCount(header, "PARAMETERS FOLLOW");
 
 		Entry entry;
-		// Begin reading in the lines
-		for (int i = 0; i < reaLines.size(); i++) {
-
-			// Search for the parameters heading and 3 lines below indicating
-			// how many lines the parameters section is
-			if (reaLines.get(i).contains("****** PARAMETERS *****")
-					&& reaLines.get(i + 1).contains("NEKTON VERSION")
-					&& reaLines.get(i + 2).contains("DIMENSIONAL RUN")
-					&& reaLines.get(i + 3).contains("PARAMETERS FOLLOW")) {
-
-				// Grab the number indicating the length of the parameters
-				// section (number of lines)
-				int strIndex = reaLines.get(i + 3).indexOf("PARAMETERS FOLLOW");
-				String numLinesStr = reaLines.get(i + 3)
-						.substring(0, strIndex - 1).trim();
-				int numLines = Integer.parseInt(numLinesStr);
-
-				// Jump the iterator 4 lines ahead (from the header) and begin
-				// reading in Entries
-				i += 4;
-				String currLine;
-				String currDesc;
-				String[] splitLine = null;
-				for (int j = 0; j < numLines; j++) {
-
-					// Grab the current line
-					currLine = reaLines.get(i + j);
-					splitLine = currLine.trim().split("\\s+");
-
-					// If the current parameter is NPSCAL, define the value of
-					// numPassiveScalars
-					if (currLine.contains("NPSCAL")) {
-						ArrayList<String> npscalArray = (ArrayList<String>) parseLine(
-								String.class, currLine);
-						numPassiveScalars = Integer.parseInt(npscalArray.get(0)
-								.substring(0, 1));
-					}
+		String currLine;
+		String currDesc;
+		String[] splitLine = null;
+		for (int j = 0; j < numLines; j++) {
+
+			// Grab the current line
+			currLine = reader.requireLine();
+			splitLine = currLine.trim().split("\\s+");
+
+			// If the current parameter is NPSCAL, define the value of
+			// numPassiveScalars
+			if (currLine.contains("NPSCAL")) {
+				ArrayList<String> npscalArray = (ArrayList<String>) parseLine(
+						String.class, currLine);
+				numPassiveScalars = Integer.parseInt(npscalArray.get(0)
+						.substring(0, 1));
+			}
 
-					// Create a Nek Entry
-					entry = makeNekEntry(false);
+			// Create a Nek Entry
+			entry = makeNekEntry(false);
 
-					// Construct the parameter description
-					currDesc = "";
-					for (int k = 2; k < splitLine.length; k++) {
-						currDesc += splitLine[k] + " ";
-					}
-
-					// Set name, description, value, and ID
-					entry.setValue(splitLine[0]);
-					if ((j + 1) < 100) {
-						entry.setName(String.format("p%02d", (j + 1)));
-					} else {
-						entry.setName(String.format("p%3d", (j + 1)));
-					}
-					entry.setDescription(currDesc);
-					entry.setId(j + 1);
+			// Construct the parameter description
+			currDesc = "";
+			for (int k = 2; k < splitLine.length; k++) {
+				currDesc += splitLine[k] + " ";
+			}
 
-					// Append to DataComponent
-					parameters.addEntry(entry);
-				}
+			// Set name, description, value, and ID
+			entry.setValue(splitLine[0]);
+			if ((j + 1) < 100) {
+				entry.setName(String.format("p%02d", (j + 1)));
+			} else {
+				entry.setName(String.format("p%3d", (j + 1)));
 			}
+			entry.setDescription(currDesc);
+			entry.setId(j + 1);
+
+			// Append to DataComponent
+			parameters.addEntry(entry);
 		}
 
-		// Return the DataComponent containing parameter entries
-		return parameters;
+		return;
 	}
 
 	/**
-	 * Loads the PASSIVE SCALAR DATA section of a reafile and returns the
-	 * contents as a DataComponent of Entries. Each line is set as an Entry. If
-	 * NPSCAL = 0, this DataComponent will have no entries.
+	 * Loads the PASSIVE SCALAR DATA section of a reafile into a DataComponent
+	 * of Entries. Each line is set as an Entry. If NPSCAL = 0, the lines are
+	 * skipped and the DataComponent will have no entries.
 	 * 
-	 * @param reaLines
-	 *            Lines of the reafile as an ArrayList of Strings.
-	 * @return A DataComponent of Entries representing the contents of the
-	 *         PASSIVE SCALAR DATA section.
+	 * @param header
+	 *            The line of the section header
+	 * @param reader
+	 *            The reader, positioned at the first line of the section
+	 * @param passiveScalarData
+	 *            The DataComponent to which the Entries are added
+	 * @throws IOException
 	 */
-	private DataComponent loadPassiveScalarData(ArrayList<String> reaLines) {
-
-		// Create a passive scalar component to add entries
-		DataComponent passiveScalarData = new DataComponent();
-		passiveScalarData.setName("Passive Scalar Data");
-		passiveScalarData.setDescription("Entries contained in the Passive "
-				+ "Scalar Data section of a Nek5000 reafile");
-		passiveScalarData.setId(3);
-
-		// Only write these entries if there are >0 passive scalars defined
-		if (numPassiveScalars > 0) {
-
-			Entry entry;
-			for (int i = 0; i < reaLines.size(); i++) {
-
-				// Search for the passive scalar heading
-				if (reaLines.get(i).contains("Lines of passive scalar data")) {
-
-					// Grab the number indicating the length of the Passive
-					// Scalar Data section (number of lines)
-					int strIndex = reaLines.get(i).indexOf(
-							"Lines of passive scalar data");
-					String numLinesStr = reaLines.get(i)
-							.substring(0, strIndex - 1).trim();
-					int numLines = Integer.parseInt(numLinesStr);
-
-					// Jump the iterator 1 line ahead (from the header) and
-					// begin
-					// reading in Entries
-					i += 1;
-					String currLine;
-					String[] splitLine;
-					String currValue;
-					for (int j = 0; j < numLines; j++) {
-
-						// Grab the current line
-						currLine = reaLines.get(i + j);
-						splitLine = currLine.trim().split("\\s+");
-
-						// Create a Nek Entry
-						entry = makeNekEntry(false);
-
-						// Construct the current value
-						currValue = "";
-						for (int k = 0; k < splitLine.length; k++) {
-							if (k != splitLine.length - 1) {
-								currValue += splitLine[k] + " ";
-							} else {
-								currValue += splitLine[k];
-							}
-						}
+	private void loadPassiveScalarData(String header, ReaLineReader reader,
+			DataComponent passiveScalarData) throws IOException {
 
-						// Set the name, description, value, and ID
-						entry.setName("Passive Scalar " + (j + 1));
-						entry.setDescription("");
-						entry.setValue(currValue);
-						entry.setId(j + 1);
+		// Grab the number indicating the length of the Passive Scalar Data
+		// section (number of lines)
+		int numLines = parseCount(header, "Lines of passive scalar data");
+
+		Entry entry;
+		String currLine;
+		String[] splitLine;
+		String currValue;
+		for (int j = 0; j < numLines; j++) {
+
+			// Grab the current line
+			currLine = reader.requireLine();
+
+			// Only write these entries if there are >0 passive scalars defined
+			if (numPassiveScalars > 0) {
+
+				splitLine = currLine.trim().split("\\s+");
 
-						// Append to the DataComponent
-						passiveScalarData.addEntry(entry);
+				// Create a Nek Entry
+				entry = makeNekEntry(false);
+
+				// Construct the current value
+				currValue = "";
+				for (int k = 0; k < splitLine.length; k++) {
+					if (k != splitLine.length - 1) {
+						currValue += splitLine[k] + " ";
+					} else {
+						currValue += splitLine[k];
 					}
 				}
+
+				// Set the name, description, value, and ID
+				entry.setName("Passive Scalar " + (j + 1));
+				entry.setDescription("");
+				entry.setValue(currValue);
+				entry.setId(j + 1);
+
+				// Append to the DataComponent
+				passiveScalarData.addEntry(entry);
 			}
 		}
 
-		return passiveScalarData;
-
+		return;
 	}
 
 	/**
-	 * Loads the LOGICAL SWITCHES section of a reafile and returns the contents
-	 * as a DataComponent of Entries. Each line is set as an Entry.
+	 * Loads the LOGICAL SWITCHES section of a reafile into a DataComponent of
+	 * Entries. Each line is set as an Entry.
 	 * 
-	 * @param reaLines
-	 *            Lines of the reafile as an ArrayList of Strings.
-	 * @return A DataComponent of Entries representing the contents of the
-	 *         LOGICAL SWITCHES section.
+	 * @param header
+	 *            The line of the section header
+	 * @param reader
+	 *            The reader, positioned at the first switch
+	 * @param switches
+	 *            The DataComponent to which the Entries are added
+	 * @throws IOException
 	 */
-	private DataComponent loadLogicalSwitches(ArrayList<String> reaLines) {
+	private void loadLogicalSwitches(String header, ReaLineReader reader,
+			DataComponent switches) throws IOException {
 
-		// Create a switches component to add entries
-		DataComponent switches = new DataComponent();
-		switches.setName("Logical Switches");
-		switches.setDescription("Entries contained in the Logical Switches "
-				+ "section of a Nek5000 reafile");
-		switches.setId(4);
+		// Grab the number indicating the length of the switches section
+		// (number of lines)
+		int numLines = parseCount(header, "LOGICAL SWITCHES");
 
 		Entry entry;
-		for (int i = 0; i < reaLines.size(); i++) {
-
-			// Search for the logical switches heading indicating how many
-			// lines follow
-			if (reaLines.get(i).contains("LOGICAL SWITCHES FOLLOW")) {
-
-				// Grab the number indicating the length of the switches
-				// section (number of lines)
-				int strIndex = reaLines.get(i).indexOf("LOGICAL SWITCHES");
-				String numLinesStr = reaLines.get(i).substring(0, strIndex - 1)
-						.trim();
-				int numLines = Integer.parseInt(numLinesStr);
-
-				// Jump the iterator 1 lines ahead and begin reading in Entries
-				i += 1;
-				String currLine;
-				String[] splitLine;
-				String currValue;
-				String currName;
-				String currDesc;
-				for (int j = 0; j < numLines; j++) {
-
-					// Grab the current line
-					currLine = reaLines.get(i + j);
-					splitLine = currLine.trim().split("\\s+");
-
-					currValue = "";
-					currName = "";
-					currDesc = "";
-					// Check if line contains passive scalar flags (ie. >1 flag)
-					if (splitLine.length > 2) {
-
-						// Create a NekEntry
-						entry = makeNekEntry(false);
-
-						// Define the current entry name depending on which line
-						// it is
-						if (currLine.contains("IFNAV & IFADVC")) {
-
-							currName = "IFNAV && IFADVC"; // Eclipse form bug
-															// where single
-															// ampersands shows
-															// up as a space
-							currValue = String.format("%s %s %s %s %s %s %s "
-									+ "%s %s %s %s", splitLine[0],
-									splitLine[1], splitLine[2], splitLine[3],
-									splitLine[4], splitLine[5], splitLine[6],
-									splitLine[7], splitLine[8], splitLine[9],
-									splitLine[10]);
-
-							for (int k = 14; k < splitLine.length; k++) {
-								if (k != splitLine.length - 1) {
-									currDesc += splitLine[k] + " ";
-								} else {
-									currDesc += splitLine[k];
-								}
-							}
-						} else if (currLine.contains("IFTMSH")) {
-
-							currName = "IFTMSH";
-							currValue = String.format("%s %s %s %s %s %s %s "
-									+ "%s %s %s %s %s", splitLine[0],
-									splitLine[1], splitLine[2], splitLine[3],
-									splitLine[4], splitLine[5], splitLine[6],
-									splitLine[7], splitLine[8], splitLine[9],
-									splitLine[10], splitLine[11]);
-							for (int k = 13; k < splitLine.length; k++) {
-								if (k != splitLine.length - 1) {
-									currDesc += splitLine[k] + " ";
-								} else {
-									currDesc += splitLine[k];
-								}
-							}
-						}
+		String currLine;
+		String[] splitLine;
+		String currValue;
+		String currName;
+		String currDesc;
+		for (int j = 0; j < numLines; j++) {
 
-					}
+			// Grab the current line
+			currLine = reader.requireLine();
+			splitLine = currLine.trim().split("\\s+");
+
+			currValue = "";
+			currName = "";
+			currDesc = "";
+			// Check if line contains passive scalar flags (ie. >1 flag)
+			if (splitLine.length > 2) {
 
-					// Otherwise it only contains one flag
-					else {
+				// Create a NekEntry
+				entry = makeNekEntry(false);
 
-						// Create a NekEntry
-						entry = makeNekEntry(true);
+				// Define the current entry name depending on which line it is
+				if (currLine.contains("IFNAV & IFADVC")) {
 
-						// Set the name and value
-						currValue = ("T".equals(splitLine[0]) ? "YES" : "NO");
-						currName = splitLine[1];
+					currName = "IFNAV && IFADVC"; // Eclipse form bug where
+													// single ampersands shows
+													// up as a space
+					currValue = String.format("%s %s %s %s %s %s %s "
+							+ "%s %s %s %s", splitLine[0], splitLine[1],
+							splitLine[2], splitLine[3], splitLine[4],
+							splitLine[5], splitLine[6], splitLine[7],
+							splitLine[8], splitLine[9], splitLine[10]);
 
-						// Flag if there are heat/fluid solutions
-						if (currLine.contains("IFFLOW")) {
-							ifFlow = ("T".equals(splitLine[0]) ? true : false);
+					for (int k = 14; k < splitLine.length; k++) {
+						if (k != splitLine.length - 1) {
+							currDesc += splitLine[k] + " ";
+						} else {
+							currDesc += splitLine[k];
 						}
-						if (currLine.contains("IFHEAT")) {
-							ifHeat = ("T".equals(splitLine[0]) ? true : false);
+					}
+				} else if (currLine.contains("IFTMSH")) {
+
+					currName = "IFTMSH";
+					currValue = String.format("%s %s %s %s %s %s %s "
+							+ "%s %s %s %s %s", splitLine[0], splitLine[1],
+							splitLine[2], splitLine[3], splitLine[4],
+							splitLine[5], splitLine[6], splitLine[7],
+							splitLine[8], splitLine[9], splitLine[10],
+							splitLine[11]);
+					for (int k = 13; k < splitLine.length; k++) {
+						if (k != splitLine.length - 1) {
+							currDesc += splitLine[k] + " ";
+						} else {
+							currDesc += splitLine[k];
 						}
 					}
+				}
 
-					// Set the name, value, and ID
-					entry.setName(currName);
-					entry.setValue(currValue);
-					entry.setId(j + 1);
+			}
 
-					// Append to the DataComponent
-					switches.addEntry(entry);
+			// Otherwise it only contains one flag
+			else {
+
+				// Create a NekEntry
+				entry = makeNekEntry(true);
+
+				// Set the name and value
+				currValue = ("T".equals(splitLine[0]) ? "YES" : "NO");
+				currName = splitLine[1];
+
+				// Flag if there are heat/fluid solutions
+				if (currLine.contains("IFFLOW")) {
+					ifFlow = ("T".equals(splitLine[0]) ? true : false);
+				}
+				if (currLine.contains("IFHEAT")) {
+					ifHeat = ("T".equals(splitLine[0]) ? true : false);
 				}
 			}
+
+			// Set the name, value, and ID
+			entry.setName(currName);
+			entry.setValue(currValue);
+			entry.setId(j + 1);
+
+			// Append to the DataComponent
+			switches.addEntry(entry);
 		}
 
-		// Return the DataComponent containing logical switch entries
-		return switches;
+		return;
 	}
 
 	/**
-	 * Loads the PRE-NEK AXES section of a reafile and returns the contents as a
-	 * DataComponent of Entries. Each line is set as an Entry. This
-	 * DataComponent will have no entries if NPSCAL = 0.
+	 * Loads the PRE-NEK AXES line of a reafile into a DataComponent of
+	 * Entries.
 	 * 
-	 * @param reaLines
-	 *            Lines of the reafile as an ArrayList of Strings.
-	 * @return A DataComponent of Entries representing the contents of the
-	 *         PRE-NEK AXES section.
+	 * @param currLine
+	 *            The Pre-Nek axes line
+	 * @param preNekAxes
+	 *            The DataComponent to which the Entry is added
 	 */
-	private DataComponent loadPreNekAxes(ArrayList<String> reaLines) {
-
-		// Create a PreNek Axes component to add entries
-		DataComponent preNekAxes = new DataComponent();
-		preNekAxes.setName("Pre-Nek Axes");
-		preNekAxes.setDescription("Entries contained in the Pre-Nek Axes "
-				+ "section of a Nek5000 reafile");
-		preNekAxes.setId(5);
+	private void loadPreNekAxes(String currLine, DataComponent preNekAxes) {
 
 		Entry entry;
 		String[] splitLine;
 		String currValue;
 		String currName;
-		for (int i = 0; i < reaLines.size(); i++) {
 
-			// Search for the Pre-Nek axes line
-			if (reaLines.get(i).contains("XFAC,YFAC,XZERO,YZERO")) {
-
-				// Grab the current line
-				String currLine = reaLines.get(i);
-				splitLine = currLine.trim().split("\\s+");
-
-				// Create a Nek Entry
-				entry = makeNekEntry(false);
+		// Split the line
+		splitLine = currLine.trim().split("\\s+");
 
-				// Construct the current value and name
-				currValue = "";
-				currName = "";
-				currValue = String.format("%-13s %-13s %-13s %-13s",
-						splitLine[0], splitLine[1], splitLine[2], splitLine[3]);
+		// Create a Nek Entry
+		entry = makeNekEntry(false);
 
-				for (int j = 4; j < splitLine.length; j++) {
-					if (j != splitLine.length - 1) {
-						currName += splitLine[j] + " ";
-					} else {
-						currName += splitLine[j];
-					}
-				}
+		// Construct the current value and name
+		currName = "";
+		currValue = String.format("%-13s %-13s %-13s %-13s", splitLine[0],
+				splitLine[1], splitLine[2], splitLine[3]);
 
-				// Set the name, value and ID
-				entry.setName(currName);
-				entry.setValue(currValue);
-				entry.setId(1); // There's only one Pre-Nek axes line
-				entry.setReady(false); // Don't need to expose this to user
-
-				// Append to the DataComponent
-				preNekAxes.addEntry(entry);
+		for (int j = 4; j < splitLine.length; j++) {
+			if (j != splitLine.length - 1) {
+				currName += splitLine[j] + " ";
+			} else {
+				currName += splitLine[j];
 			}
 		}
 
-		return preNekAxes;
+		// Set the name, value and ID
+		entry.setName(currName);
+		entry.setValue(currValue);
+		entry.setId(1); // There's only one Pre-Nek axes line
+		entry.setReady(false); // Don't need to expose this to user
+
+		// Append to the DataComponent
+		preNekAxes.addEntry(entry);
+
+		return;
 	}
 
 	/**
-	 * Loads the MESH DATA section of a reafile and returns the contents as a
-	 * MeshComponent of Quads. In the process of constructing elements (or
-	 * 'Quads' in ICE lexicon), the loadBoundaryConditions() method is called,
-	 * and each Quad is assigned a set of BoundaryCondition objects based on the
-	 * unique Edge IDs contained in that Quad.
+	 * Loads the MESH DATA section of a reafile. The Vertices, Edges and Quads
+	 * of each element are built as the element is read and the Quads are kept
+	 * in the order of their IDs. Each Quad is assigned its BoundaryConditions
+	 * later by loadBoundaryConditions(), as the boundary conditions follow the
+	 * mesh in a reafile, and the Quads are added to the MeshComponent at the
+	 * end of loadREAFile().
 	 * 
 	 * Each Quad should have a minimum of two BoundaryConditions associated to
 	 * it (fluid and thermal boundary conditions). A Quad may have N more sets
 	 * of BoundaryConditions, where N is the value defined by NPSCAL in the
 	 * PARAMETERS section (ie. this.numPassiveScalars)
 	 * 
-	 * @param reaLines
-	 *            Lines of the reafile as an ArrayList of Strings.
-	 * @return MeshComponent containing the definition of all mesh elements()
-	 *         defined in the problem, with a set of BoundaryConditions
-	 *         associated to each Quad.
+	 * @param numbersLine
+	 *            The line after the mesh header with NEL, NDIM and NELV
+	 * @param reader
+	 *            The reader, positioned at the first element
+	 * @throws IOException
 	 **/
-	private MeshComponent loadMesh(ArrayList<String> reaLines) {
-
-		// Local declarations for file reading
-		String currLine;
-		ArrayList<Float> nextLine = null;
-		ArrayList<String> numbersLine = null;
+	private void loadMesh(String numbersLine, ReaLineReader reader)
+			throws IOException {
+
+		// Grab the numbers on the line (NEL,NDIM,NELV)
+		String[] tokens = new String[8];
+		tokenize(numbersLine, tokens);
+
+		// NEL = number of (thermal) elements used
+		// NDIM = number of dimensions
+		// NELV = number of fluid elements used (doesn't have to be same as
+		// number of thermal elements
+		numThermalElements = Integer.parseInt(tokens[0]);
+		numDimensions = Integer.parseInt(tokens[1]);
+		numFluidElements = Integer.parseInt(tokens[2]);
+
+		// Start ID counters for edges and vertices, all IDs must be unique.
+		// The quad IDs are their position in the list.
+		int edgeId = 1;
+		int vertexId = 1;
+		quads.clear();
+		quads.ensureCapacity(numThermalElements);
 
 		// Local declarations for quad building
+		String currLine;
+		String materialId;
+		int groupNum;
+		int numTokens;
+		float[][] coordinates = new float[numDimensions][8];
+		int numVertices;
 		Vertex vertex;
 		Edge edge;
 		Quad quad;
-		ArrayList<Vertex> vertices = null;
-		ArrayList<Edge> edges = null;
-		ArrayList<Vertex> vertexCombo = null;
-
-		// Keeps track of the unique edge IDs associated to the current quad
-		// for the purpose of assigning boundary conditions keyed on edge IDs
-		ArrayList<Integer> edgeIdList = null;
-
-		// Create a mesh component, quad and edge
-		MeshComponent mesh = new MeshComponent();
-		mesh.setName("Mesh Data");
-		mesh.setDescription("Elements contained in the Mesh section of a "
-				+ "Nek5000 reafile");
-		mesh.setId(6);
-
-		// Create containers to hold/index all the different sets of boundary
-		// conditions
-		ArrayList<Object> boundaryConditions;
-		HashMap<Integer, BoundaryCondition> fluidBoundaryConditions = null;
-		HashMap<Integer, BoundaryCondition> thermalBoundaryConditions = null;
-		ArrayList<HashMap<Integer, BoundaryCondition>> scalarBoundaryConditions = null;
-
-		// Begin reading the input file lines
-		for (int i = 0; i < reaLines.size(); i++) {
-
-			// Search for the mesh data heading
-			if ((reaLines.get(i).contains("**MESH DATA**") || reaLines.get(i)
-					.contains("*** MESH DATA ***"))
-					&& reaLines.get(i + 1).contains("NEL,NDIM,NELV")) {
-
-				// Grab the numbers on the next line (NEL,NDIM,NELV)
-				numbersLine = (ArrayList<String>) parseLine(String.class,
-						reaLines.get(i + 1));
-
-				// NEL = number of (thermal) elements used
-				// NDIM = number of dimensions
-				// NELV = number of fluid elements used (doesn't have to be same
-				// as number of thermal elements
-
-				numThermalElements = Integer.parseInt(numbersLine.get(0));
-				numDimensions = Integer.parseInt(numbersLine.get(1));
-				numFluidElements = Integer.parseInt(numbersLine.get(2));
-
-				// Start ID counters for quads, edges and vertices, all IDs
-				// must be unique
-				int edgeId = 1;
-				int vertexId = 1;
-				int quadId = 1;
-
-				// Load boundary conditions that will be assigned to
-				// element/quad edges
-				boundaryConditions = loadBoundaryConditions(reaLines);
-
-				// Determine what position the fluid, thermal and passive scalar
-				// boundary conditions are in the loaded boundaryConditions list
-				int fluidPosition = 0, thermalPosition = 0, passiveScalPosition = 0;
-				if (ifFlow) {
-					fluidPosition = 0;
-				}
-				if (ifFlow && ifHeat) {
-					thermalPosition = 1;
-				} else if (!ifFlow && ifHeat) {
-					thermalPosition = 0;
-				}
-				if (numPassiveScalars > 0) {
-					passiveScalPosition = thermalPosition + 1;
-				}
-				if (ifFlow) {
-					fluidBoundaryConditions = (HashMap<Integer, BoundaryCondition>) boundaryConditions
-							.get(fluidPosition);
-				}
-				if (ifHeat) {
-					thermalBoundaryConditions = (HashMap<Integer, BoundaryCondition>) boundaryConditions
-							.get(thermalPosition);
+		ArrayList<Vertex> vertices;
+		ArrayList<Edge> edges;
+
+		// Each element is (1 header + # dimensions) lines. Lines that are not
+		// element headers are skipped, but they count against the size of the
+		// section.
+		int j = 0;
+		while (j < numThermalElements * (numDimensions + 1)) {
+
+			// Grab the current line
+			currLine = reader.requireLine();
+
+			// If current line is the beginning of a new element
+			if (currLine.contains("ELEMENT")) {
+
+				// Grab the material ID and group number
+				tokenize(currLine, tokens);
+				if (tokens[3].charAt(tokens[3].length() - 1) == ']') {
+					materialId = tokens[3].substring(0, tokens[3].length() - 1);
+					groupNum = Integer.parseInt(tokens[5]);
+				} else {
+					materialId = tokens[3];
+					groupNum = Integer.parseInt(tokens[6]);
 				}
 
-				if (numPassiveScalars > 0) {
-					scalarBoundaryConditions = (ArrayList<HashMap<Integer, BoundaryCondition>>) boundaryConditions
-							.get(passiveScalPosition);
+				// Parse as many lines as there are dimensions (ie. 2
+				// dimensions = 2 lines of coords)
+				numVertices = 0;
+				for (int k = 0; k < numDimensions; k++) {
+					numTokens = tokenize(reader.requireLine(), tokens);
+					for (int m = 0; m < numTokens; m++) {
+						coordinates[k][m] = Float.parseFloat(tokens[m]);
+					}
+					if (k == 0) {
+						numVertices = numTokens;
+					}
 				}
 
-				// Jump the iterator 2 lines ahead and begin reading in
-				// elements/quads
-				i += 2;
-
-				String materialId;
-				int groupNum;
-				String[] splitLine;
-				int j = 0;
-				while (j < numThermalElements * (numDimensions + 1)) { // Each
-																		// element
-																		// is (1
-																		// header
-																		// + #
-																		// dimensions)
-																		// lines
-
-					// Grab the current line
-					currLine = reaLines.get(i + j);
-
-					// If current line is the beginning of a new element
-					if (currLine.contains("ELEMENT")) {
-
-						// Grab the material ID and group number
-						splitLine = currLine.trim().split("\\s+");
-						if (splitLine[3].charAt(splitLine[3].length() - 1) == ']') {
-							materialId = splitLine[3].substring(0,
-									splitLine[3].length() - 1);
-							groupNum = Integer.parseInt(splitLine[5]);
-						} else {
-							materialId = splitLine[3];
-							groupNum = Integer.parseInt(splitLine[6]);
-						}
-
-						// Create a new current element
-						ArrayList<ArrayList<Float>> currElement = new ArrayList<ArrayList<Float>>();
-
-						// Jump to the next line and parse as many lines as
-						// there
-						// are dimensions (ie. 2 dimensions = 2 lines of coords)
-						for (int k = 0; k < numDimensions; k++) {
-
-							// Parse line into an ArrayList and add to current
-							// element
-							nextLine = (ArrayList<Float>) parseLine(
-									Float.class, reaLines.get(i + j + k + 1));
-							currElement.add(nextLine);
-						}
-
-						// Construct a set of vertices
-						float x, y, z;
-						vertices = new ArrayList<Vertex>();
-
-						for (int k = 0; k < currElement.get(0).size(); k++) {
-
-							// Define the x,y,z coordinates
-							x = currElement.get(0).get(k);
-							y = currElement.get(1).get(k);
-							z = 0f;
-
-							// Create new vertex and add to vertices ArrayList
-							vertex = new Vertex(x, y, z);
-							vertex.setId(vertexId); // Set unique ID
-							vertices.add(vertex);
-
-							vertexId++;
-						}
-
-						// Construct combinations of vertices
-						edges = new ArrayList<Edge>();
-						edgeIdList = new ArrayList<Integer>();
-
-						for (int k = 0; k < 4; k++) {
-
-							vertexCombo = new ArrayList<Vertex>();
-
-							// Edge 1 = Vertices 1 + 2
-							// Edge 2 = Vertices 2 + 3
-							// Edge 3 = Vertices 3 + 4
-							// Edge 4 = Vertices 4 + 1
-
-							// Create one of four possible combinations of
-							// vertices
-							switch (k) {
-							case 0:
-								vertexCombo.add(vertices.get(0));
-								vertexCombo.add(vertices.get(1));
-								break;
-							case 1:
-								vertexCombo.add(vertices.get(1));
-								vertexCombo.add(vertices.get(2));
-								break;
-							case 2:
-								vertexCombo.add(vertices.get(2));
-								vertexCombo.add(vertices.get(3));
-								break;
-							case 3:
-								vertexCombo.add(vertices.get(3));
-								vertexCombo.add(vertices.get(0));
-								break;
-							default:
-								break;
-							}
-
-							// Create a new edge and add to edges ArrayList
-							edge = new Edge(vertexCombo);
-							edge.setId(edgeId); // Set unique edge ID
-							edges.add(edge);
-
-							edgeIdList.add(edgeId);
-
-							edgeId++;
-						}
-
-						// Create new quad, add it to the MeshComponent
-						quad = new Quad(edges, vertices);
-						quad.setPolygonProperties(materialId, groupNum);
-
-						// Set the boundary conditions of the quad by edge ID
-						int currEdgeId;
-						for (int k = 0; k < 4; k++) { // k < 6 for
-														// three-dimensional
-														// cases
-
-							// Grab the ID of one of the edges contained in the
-							// quad
-							currEdgeId = edgeIdList.get(k);
-
-							// Set the fluid boundary condition for that edge
-							if (ifFlow) {
-								quad.setFluidBoundaryCondition(currEdgeId,
-										fluidBoundaryConditions.get(currEdgeId));
-							}
-
-							// Set the thermal boundary condition for that edge
-							if (ifHeat) {
-								quad.setThermalBoundaryCondition(currEdgeId,
-										thermalBoundaryConditions
-												.get(currEdgeId));
-							}
-
-							// Set the passive scalar boundary condition(s) for
-							// that edge (if any)
-							if (numPassiveScalars > 0) {
-
-								HashMap<Integer, BoundaryCondition> currSetScalars = new HashMap<Integer, BoundaryCondition>();
-
-								for (int ii = 1; ii <= numPassiveScalars; ii++) {
-
-									// Define the current set of scalar boundary
-									// conditions
-									currSetScalars = scalarBoundaryConditions
-											.get(ii);
-
-									// Set the passive scalar boundary condition
-									// for the current edge
-									quad.setOtherBoundaryCondition(currEdgeId,
-											ii, currSetScalars.get(currEdgeId));
-								}
-							}
-						}
+				// Construct a set of vertices
+				vertices = new ArrayList<Vertex>(numVertices);
+				for (int k = 0; k < numVertices; k++) {
+					vertex = new Vertex(coordinates[0][k], coordinates[1][k],
+							0f);
+					vertex.setId(vertexId++); // Set unique ID
+					vertices.add(vertex);
+				}
 
-						quad.setId(quadId); // Set unique quad ID
-						mesh.addPolygon(quad); // Add the quad to the mesh
-						edgeIdList.clear(); // Clear the quad edge list
+				// Construct the edges from the vertices: edge 1 = vertices
+				// 1 + 2, edge 2 = vertices 2 + 3, edge 3 = vertices 3 + 4 and
+				// edge 4 = vertices 4 + 1
+				edges = new ArrayList<Edge>(4);
+				for (int k = 0; k < 4; k++) {
+					edge = new Edge(vertices.get(k), vertices.get((k + 1) % 4));
+					edge.setId(edgeId++); // Set unique edge ID
+					edges.add(edge);
+				}
 
-						quadId++;
+				// Create the new quad
+				quad = new Quad(edges, vertices);
+				quad.setPolygonProperties(materialId, groupNum);
+				quads.add(quad);
+				quad.setId(quads.size()); // Set unique quad ID
 
-						// Jump ahead to the next element/quad (if there is one)
-						j += (numDimensions + 1);
-					}
+				// Jump ahead to the next element/quad (if there is one)
+				j += (numDimensions + 1);
+			}
 
-					else {
-						j++;
-					}
-				}
+			else {
+				j++;
 			}
 		}
 
-		// Return the Mesh Component containing mesh elements/quads with a
-		// set of (2 + NPSCAL) boundary conditions associated to each edge
-		return mesh;
+		return;
 	}
 
 	/**
 	 * Loads the CURVED SIDES section of a reafile and returns the contents as a
 	 * MeshComponent of Quads.
 	 * 
-	 * @param reaLines
-	 *            Lines of the reafile as an ArrayList of Strings.
 	 * @return A DataComponent of Entries representing the contents of the
 	 *         CURVED SIDE DATA section.
 	 */
-	private MeshComponent loadCurvedSideData(ArrayList<String> reaLines) {
+	private MeshComponent loadCurvedSideData() {
 
 		MeshComponent curvedSides = new MeshComponent();
 		curvedSides.setName("Curved Side Data");
@@ -893,617 +805,408 @@ public class NekReader {
 	}
 
 	/**
-	 * Reads in an ArrayList of Strings (lines read from a .rea file) and
-	 * returns an ArrayList of Objects containing the boundary conditions
-	 * extracted from the reafile. The returned ArrayList is of mixed type,
-	 * which necessitates it being of type Object. The contents are:
-	 * 
-	 * [0] : HashMap of fluid BoundaryCondition objects keyed on unique edge ID
-	 * [1] : HashMap of thermal BoundaryCondition objects keyed on unique edge
-	 * ID [2] : ArrayList of n HashMaps of passive scalar BoundaryCondition
-	 * objects keyed on unique edge ID, where n is an integer defined by the
-	 * NPSCAL parameter (ie. this.numPassiveScalars)
+	 * Loads one set of boundary conditions (fluid, thermal or one passive
+	 * scalar) from a reafile and assigns them to the Edges of the Quads that
+	 * were read by loadMesh(). Each line holds the BoundaryCondition of one
+	 * Edge, keyed on the element and side: edge ID = 4 * (element - 1) +
+	 * side. Fluid boundary conditions are only assigned if IFFLOW is set and
+	 * thermal boundary conditions only if IFHEAT is set, but the lines are
+	 * always read.
 	 * 
-	 * @param realLines
-	 *            Lines of the reafile as an ArrayList of Strings.
-	 * @return An ArrayList of BoundaryCondition HashMaps keyed on unique Edge
-	 *         IDs. Elements 0 and 1 are fluid and thermal boundary condition
-	 *         maps respecively. Elements 2 is an ArrayList of N HashMaps of
-	 *         passive scalar boundary conditions, where N is defined by NPSCAL
-	 *         in the PARAMETERS section (ie. this.numPassiveScalars)
+	 * @param reader
+	 *            The reader, positioned at the first boundary condition
+	 * @param numElements
+	 *            The number of elements with boundary conditions in the set
+	 * @param set
+	 *            0 for fluid boundary conditions, -1 for thermal boundary
+	 *            conditions or the number (starting at 1) of the passive
+	 *            scalar
+	 * @throws IOException
 	 **/
-	private ArrayList<Object> loadBoundaryConditions(ArrayList<String> reaLines) {
+	private void loadBoundaryConditions(ReaLineReader reader,
+			int numElements, int set) throws IOException {
 
 		// Local declarations
-		ArrayList<Object> currCondition;
-
-		// Create the HashMaps of thermal and fluid boundary conditions
-		HashMap<Integer, BoundaryCondition> thermalBoundaryConditions = new HashMap<Integer, BoundaryCondition>();
-		HashMap<Integer, BoundaryCondition> fluidBoundaryConditions = new HashMap<Integer, BoundaryCondition>();
-
-		// Create an ArrayList to hold all HashMaps of passive scalar
-		// boundary conditions
-		ArrayList<HashMap<Integer, BoundaryCondition>> scalarBoundaryConditions = new ArrayList<HashMap<Integer, BoundaryCondition>>();
-
-		// Create an ArrayList of Objects to hold all the HashMaps of
-		// boundary conditions (to return)
-		ArrayList<Object> allBoundaryConditions = new ArrayList<Object>();
-
-		// Begin reading the input file lines
-		for (int i = 0; i < reaLines.size(); i++) {
-
-			/** --- Load FLUID boundary conditions --- **/
-
-			// Search for the fluid boundary conditions header
-			if (reaLines.get(i).contains(
-					"***** FLUID   BOUNDARY CONDITIONS *****")) {
-
-				// Jump the iterator 1 line ahead and begin reading in boundary
-				// conditions
-				i += 1;
+		String[] tokens = new String[8];
+		float element, side;
+		int edgeId;
+		BoundaryCondition condition;
+		ArrayList<Float> values;
+		Quad quad;
 
-				for (int j = 0; j < numFluidElements * 4; j++) {
+		for (int j = 0; j < numElements * 4; j++) {
 
-					// Create the current boundary condition object
-					currCondition = buildBoundaryConditionPair(reaLines, i, j);
+			// Extract values from current boundary condition
+			tokenize(reader.requireLine(), tokens);
+			element = Float.parseFloat(tokens[1]);
+			side = Float.parseFloat(tokens[2]);
 
-					// Plug it (along with the unique edge ID it corresponds to)
-					// into the thermal boundary conditions HashMap
-					fluidBoundaryConditions.put((Integer) currCondition.get(0),
-							(BoundaryCondition) currCondition.get(1));
-				}
+			// Get the edge ID
+			edgeId = (int) (4 * (element - 1) + side);
 
-				allBoundaryConditions.add(fluidBoundaryConditions);
+			// Create the boundary condition object
+			condition = new BoundaryCondition();
+			condition.setType(BoundaryConditionType.fromId(tokens[0]));
+			values = new ArrayList<Float>(5);
+			for (int k = 3; k < 8; k++) {
+				values.add(Float.parseFloat(tokens[k]));
 			}
+			condition.setValues(values);
 
-			/** --- Load THERMAL boundary conditions --- **/
-
-			// Search for the thermal boundary conditions header
-			if (reaLines.get(i).contains(
-					"***** THERMAL BOUNDARY CONDITIONS *****")) {
-
-				// Jump the iterator 1 line ahead and begin reading in boundary
-				// conditions
-				i += 1;
-
-				for (int j = 0; j < numThermalElements * 4; j++) {
-
-					// Create the current boundary condition object
-					currCondition = buildBoundaryConditionPair(reaLines, i, j);
-
-					// Plug it (along with the unique edge ID it corresponds to)
-					// into the thermal boundary conditions HashMap
-					thermalBoundaryConditions.put(
-							(Integer) currCondition.get(0),
-							(BoundaryCondition) currCondition.get(1));
-				}
-
-				allBoundaryConditions.add(thermalBoundaryConditions);
+			// Assign it to the quad that owns the edge
+			int quadIndex = (int) element - 1;
+			if (quadIndex < 0 || quadIndex >= quads.size()) {
+				continue;
 			}
-
-			/** --- Load PASSIVE SCALAR boundary conditions (if any) --- **/
-			// Find the beginning of the passive scalar BC section
-			if (numPassiveScalars > 0
-					&& reaLines.get(i).contains(
-							"***** PASSIVE SCALAR           "
-									+ "1 BOUNDARY CONDITIONS *****")) {
-
-				// Repeat the following for as many sets of passive scalar
-				// BCs as there are
-				for (int currScalarNum = 1; currScalarNum <= numPassiveScalars; currScalarNum++) {
-
-					// Search for the current scalar header
-					String passiveScalarHeader = "***** PASSIVE SCALAR           "
-							+ currScalarNum + " BOUNDARY CONDITIONS *****";
-					if (reaLines.get(i).contains(passiveScalarHeader)) {
-
-						// Create a HashMap for the current passive scalar
-						// boundary
-						// conditions
-						HashMap<Integer, BoundaryCondition> scalarBoundaryCondition = new HashMap<Integer, BoundaryCondition>();
-
-						// Jump the iterator 1 line ahead and begin reading
-						// in boundary
-						// conditions
-						i += 1;
-
-						for (int j = 0; j < numThermalElements * 4; j++) {
-
-							// Create the current boundary condition object
-							currCondition = buildBoundaryConditionPair(
-									reaLines, i, j);
-
-							// Plug it (along with the unique edge ID it
-							// corresponds to)
-							// into the passive scalar boundary conditions
-							// HashMap
-							scalarBoundaryCondition.put(
-									(Integer) currCondition.get(0),
-									(BoundaryCondition) currCondition.get(1));
-						}
-
-						// Append the HashMap to the list of all passive
-						// scalar
-						// boundary conditions
-						scalarBoundaryConditions.add(scalarBoundaryCondition);
-					}
-
-					// Append the list of all passive scalar boundary
-					// condition
-					// sets to the list of all boundary conditions
-					allBoundaryConditions.add(scalarBoundaryConditions);
+			quad = quads.get(quadIndex);
+			if (set == 0) {
+				if (ifFlow) {
+					quad.setFluidBoundaryCondition(edgeId, condition);
 				}
+			} else if (set < 0) {
+				if (ifHeat) {
+					quad.setThermalBoundaryCondition(edgeId, condition);
+				}
+			} else if (set <= numPassiveScalars) {
+				quad.setOtherBoundaryCondition(edgeId, set, condition);
 			}
 		}
 
-		return allBoundaryConditions;
+		return;
 	}
 
 	/**
-	 * Loads the PRESOLVE/RESTART OPTIONS section of a reafile and returns the
-	 * contents as a DataComponent of Entries. Each line is set an Entry.
+	 * Returns the number of the passive scalar in a passive scalar boundary
+	 * condition header, such as 1 for "***** PASSIVE SCALAR 1 BOUNDARY
+	 * CONDITIONS *****".
 	 * 
-	 * @param reaLines
-	 *            Lines of the reafile as an ArrayList of Strings.
-	 * @return A DataComponent of Entries representing the contents of the
-	 *         PRESOLVE/RESTART OPTIONS section.
+	 * @param header
+	 *            The header line
+	 * @return The number of the passive scalar
 	 */
-	private DataComponent loadPresolveRestartOpts(ArrayList<String> reaLines) {
+	private int getPassiveScalarNumber(String header) {
 
-		// Create a presolve/restart component to add entries
-		DataComponent presolveRestart = new DataComponent();
-		presolveRestart.setName("Pre-solve/Restart Options");
-		presolveRestart.setDescription("Entries contained in the Pre-solve/"
-				+ "Restart Options section of a Nek5000 reafile");
-		presolveRestart.setId(8);
+		int start = header.indexOf("PASSIVE SCALAR") + "PASSIVE SCALAR".length();
+		int end = header.indexOf("BOUNDARY CONDITIONS", start);
 
-		Entry entry;
-		for (int i = 0; i < reaLines.size(); i++) {
-
-			// Search for the presolve/restart options heading
-			if (reaLines.get(i).contains("PRESOLVE/RESTART OPTIONS")) {
-
-				// Grab the number indicating the length of the presolve/restart
-				// options section (number of lines)
-				int strIndex = reaLines.get(i).indexOf("PRESOLVE/RESTART");
-				String numLinesStr = reaLines.get(i).substring(0, strIndex - 1)
-						.trim();
-				int numLines = Integer.parseInt(numLinesStr);
-
-				// Jump the iterator 1 line ahead (from the header) and begin
-				// reading in Entries
-				i += 1;
-				String currLine;
-				String[] splitLine;
-				String currValue;
-				for (int j = 0; j < numLines; j++) {
-
-					// Grab the current line
-					currLine = reaLines.get(i + j);
-					splitLine = currLine.trim().split("\\s+");
-
-					// Create a Nek Entry
-					entry = makeNekEntry(false);
-
-					// Construct the current value
-					currValue = "";
-					for (int k = 0; k < splitLine.length; k++) {
-						if (k != splitLine.length - 1) {
-							currValue += splitLine[k] + " ";
-						} else {
-							currValue += splitLine[k];
-						}
-					}
+		return Integer.parseInt(header.substring(start, end).trim());
+	}
+
+	/**
+	 * Loads the PRESOLVE/RESTART OPTIONS section of a reafile into a
+	 * DataComponent of Entries. Each line is set an Entry.
+	 * 
+	 * @param header
+	 *            The line of the section header
+	 * @param reader
+	 *            The reader, positioned at the first option
+	 * @param presolveRestart
+	 *            The DataComponent to which the Entries are added
+	 * @throws IOException
+	 */
+	private void loadPresolveRestartOpts(String header, ReaLineReader reader,
+			DataComponent presolveRestart) throws IOException {
 
-					// Set the name, value and ID
-					entry.setName("Restart Option " + (j + 1));
-					entry.setValue(currValue);
-					entry.setId(j + 1);
+		// Grab the number indicating the length of the presolve/restart
+		// options section (number of lines)
+		int numLines = parseCount(header, "PRESOLVE/RESTART");
 
-					// Append to the DataComponent
-					presolveRestart.addEntry(entry);
+		Entry entry;
+		String currLine;
+		String[] splitLine;
+		String currValue;
+		for (int j = 0; j < numLines; j++) {
+
+			// Grab the current line
+			currLine = reader.requireLine();
+			splitLine = currLine.trim().split("\\s+");
+
+			// Create a Nek Entry
+			entry = makeNekEntry(false);
+
+			// Construct the current value
+			currValue = "";
+			for (int k = 0; k < splitLine.length; k++) {
+				if (k != splitLine.length - 1) {
+					currValue += splitLine[k] + " ";
+				} else {
+					currValue += splitLine[k];
 				}
 			}
+
+			// Set the name, value and ID
+			entry.setName("Restart Option " + (j + 1));
+			entry.setValue(currValue);
+			entry.setId(j + 1);
+
+			// Append to the DataComponent
+			presolveRestart.addEntry(entry);
 		}
 
-		return presolveRestart;
+		return;
 	}
 
 	/**
-	 * Loads the INITIAL CONDITIONS section of a reafile and returns the
-	 * contents as a DataComponent of Entries. Each line is set as an Entry.
-	 * Since Nek5000 no longer uses the Initial Conditions section, Entries are
-	 * tagged as not ready and thus won't be exposed to the user.
+	 * Loads the INITIAL CONDITIONS section of a reafile into a DataComponent
+	 * of Entries. Each line is set as an Entry. Since Nek5000 no longer uses
+	 * the Initial Conditions section, Entries are tagged as not ready and thus
+	 * won't be exposed to the user.
 	 * 
-	 * @param reaLines
-	 *            Lines of the reafile as an ArrayList of Strings.
-	 * @return A DataComponent of Entries representing the contents of the
-	 *         INITIAL CONDITIONS section.
+	 * @param header
+	 *            The line of the section header
+	 * @param reader
+	 *            The reader, positioned at the first initial condition
+	 * @param initialConditions
+	 *            The DataComponent to which the Entries are added
+	 * @throws IOException
 	 */
-	private DataComponent loadInitialConditions(ArrayList<String> reaLines) {
+	private void loadInitialConditions(String header, ReaLineReader reader,
+			DataComponent initialConditions) throws IOException {
 
-		// Create an initial conditions component to add entries
-		DataComponent initialConditions = new DataComponent();
-		initialConditions.setName("Initial Conditions");
-		initialConditions.setDescription("Entries contained in the Initial "
-				+ "Conditions section of a Nek5000 reafile");
-		initialConditions.setId(9);
+		// Grab the number indicating the length of the initial conditions
+		// section (number of lines)
+		int numLines = parseCount(header, "INITIAL");
 
 		Entry entry;
-		for (int i = 0; i < reaLines.size(); i++) {
-
-			// Search for the initial conditions heading
-			if (reaLines.get(i).contains("INITIAL CONDITIONS")) {
-
-				// Grab the number indicating the length of the initial
-				// conditions section (number of lines)
-				int strIndex = reaLines.get(i).indexOf("INITIAL");
-				String numLinesStr = reaLines.get(i).substring(0, strIndex - 1)
-						.trim();
-				int numLines = Integer.parseInt(numLinesStr);
-
-				// Jump the iterator 1 line ahead (from the header) and begin
-				// reading in Entries
-				i += 1;
-				String currLine;
-				for (int j = 0; j < numLines; j++) {
-
-					// Grab the current line
-					currLine = reaLines.get(i + j);
-
-					// Create a Nek Entry
-					entry = makeNekEntry(false);
-
-					// Set the name, value and ID
-					entry.setName("Initial Condition " + (j + 1));
-					entry.setValue(currLine);
-					entry.setId(j + 1);
-					entry.setReady(false); // Don't need to expose to user
-
-					// Append to the DataComponent
-					initialConditions.addEntry(entry);
-				}
-			}
+		for (int j = 0; j < numLines; j++) {
+
+			// Create a Nek Entry
+			entry = makeNekEntry(false);
+
+			// Set the name, value and ID
+			entry.setName("Initial Condition " + (j + 1));
+			entry.setValue(reader.requireLine());
+			entry.setId(j + 1);
+			entry.setReady(false); // Don't need to expose to user
+
+			// Append to the DataComponent
+			initialConditions.addEntry(entry);
 		}
 
-		return initialConditions;
+		return;
 	}
 
 	/**
-	 * Loads the DRIVE FORCE DATA section of a reafile and returns the contents
-	 * as a DataComponent of Entries. Each line is set as an Entry.
+	 * Loads the DRIVE FORCE DATA section of a reafile into a DataComponent of
+	 * Entries. Each line is set as an Entry.
 	 * 
-	 * @param reaLines
-	 *            Lines of the reafile as an ArrayList of Strings.
-	 * @return A DataComponent of Entries representing the contents of the DRIVE
-	 *         FORCE DATA section.
+	 * @param header
+	 *            The line after the section header with the number of lines
+	 * @param reader
+	 *            The reader, positioned at the first line of data
+	 * @param driveForceData
+	 *            The DataComponent to which the Entries are added
+	 * @throws IOException
 	 */
-	private DataComponent loadDriveForceData(ArrayList<String> reaLines) {
+	private void loadDriveForceData(String header, ReaLineReader reader,
+			DataComponent driveForceData) throws IOException {
 
-		// Create a drive force data component to add entries
-		DataComponent driveForceData = new DataComponent();
-		driveForceData.setName("Drive Force Data");
-		driveForceData.setDescription("Entries contained in the Drive Force "
-				+ "Data section of a Nek5000 reafile");
-		driveForceData.setId(10);
+		// Grab the number indicating the length of the drive force data
+		// section (number of lines)
+		int numLines = parseCount(header, "Lines of Drive force data follow");
 
 		Entry entry;
-		for (int i = 0; i < reaLines.size(); i++) {
-
-			// Search for the drive force data heading
-			if (reaLines.get(i).contains("***** DRIVE FORCE DATA *****")
-					&& reaLines.get(i + 1).contains(
-							"Lines of Drive force data follow")) {
-
-				// Grab the number on the next line indicating the length of the
-				// drive force data section (number of lines)
-				int strIndex = reaLines.get(i + 1).indexOf(
-						"Lines of Drive force data follow");
-				String numLinesStr = reaLines.get(i + 1)
-						.substring(0, strIndex - 1).trim();
-				int numLines = Integer.parseInt(numLinesStr);
-
-				// Jump the iterator 2 lines ahead (from the header) and begin
-				// reading in Entries
-				i += 2;
-				String currLine;
-				for (int j = 0; j < numLines; j++) {
-
-					// Grab the current line
-					currLine = reaLines.get(i + j);
-
-					// Create a Nek Entry
-					entry = makeNekEntry(false);
-
-					// Set the name, value and ID
-					entry.setName("Drive Force Data " + (j + 1));
-					entry.setValue(currLine);
-					entry.setId(j + 1);
-					entry.setReady(false); // Don't need to expose to user
-
-					// Append to the DataComponent
-					driveForceData.addEntry(entry);
-				}
-			}
+		for (int j = 0; j < numLines; j++) {
+
+			// Create a Nek Entry
+			entry = makeNekEntry(false);
+
+			// Set the name, value and ID
+			entry.setName("Drive Force Data " + (j + 1));
+			entry.setValue(reader.requireLine());
+			entry.setId(j + 1);
+			entry.setReady(false); // Don't need to expose to user
+
+			// Append to the DataComponent
+			driveForceData.addEntry(entry);
 		}
 
-		return driveForceData;
+		return;
 	}
 
 	/**
-	 * Loads the VARIABLE PROPERTY DATA section of a reafile and returns the
-	 * contents as a DataComponent of Entries. Each line is set as an Entry.
+	 * Loads the VARIABLE PROPERTY DATA section of a reafile into a
+	 * DataComponent of Entries. Each line is set as an Entry.
 	 * 
-	 * @param reaLines
-	 *            Lines of the reafile as an ArrayList of Strings.
-	 * @return A DataComponent of Entries representing the contents of the
-	 *         VARIABLE PROPERTY DATA section.
+	 * @param header
+	 *            The line after the section header with the number of lines
+	 * @param reader
+	 *            The reader, positioned at the first line of data
+	 * @param varPropertyData
+	 *            The DataComponent to which the Entries are added
+	 * @throws IOException
 	 */
-	private DataComponent loadVarPropertyData(ArrayList<String> reaLines) {
+	private void loadVarPropertyData(String header, ReaLineReader reader,
+			DataComponent varPropertyData) throws IOException {
 
-		// Create a variable property data component to add entries
-		DataComponent varPropertyData = new DataComponent();
-		varPropertyData.setName("Variable Property Data");
-		varPropertyData.setDescription("Entries contained in the Variable "
-				+ "Property Data section of a Nek5000 reafile");
-		varPropertyData.setId(11);
+		// Grab the number indicating the length of the variable property data
+		// section (number of lines)
+		int numLines = parseCount(header, "Lines follow");
 
 		Entry entry;
-		for (int i = 0; i < reaLines.size(); i++) {
-
-			// Search for the initial conditions heading
-			if (reaLines.get(i).contains("***** Variable Property Data ****")
-					&& reaLines.get(i + 1).contains("Lines follow")) {
-
-				// Grab the number on the next line indicating the length of the
-				// variable property data section (number of lines)
-				int strIndex = reaLines.get(i + 1).indexOf("Lines follow");
-				String numLinesStr = reaLines.get(i + 1)
-						.substring(0, strIndex - 1).trim();
-				int numLines = Integer.parseInt(numLinesStr);
-
-				// Jump the iterator 2 lines ahead (from the header) and begin
-				// reading in Entries
-				i += 2;
-				String currLine;
-				for (int j = 0; j < numLines; j++) {
-
-					// Grab the current line
-					currLine = reaLines.get(i + j);
-
-					// Create a Nek Entry
-					entry = makeNekEntry(false);
-
-					// Set the name, value and ID
-					entry.setName("Variable Property Data " + (j + 1));
-					entry.setValue(currLine);
-					entry.setId(j + 1);
-
-					// Append to the DataComponent
-					varPropertyData.addEntry(entry);
-				}
-			}
+		for (int j = 0; j < numLines; j++) {
+
+			// Create a Nek Entry
+			entry = makeNekEntry(false);
+
+			// Set the name, value and ID
+			entry.setName("Variable Property Data " + (j + 1));
+			entry.setValue(reader.requireLine());
+			entry.setId(j + 1);
+
+			// Append to the DataComponent
+			varPropertyData.addEntry(entry);
 		}
 
-		return varPropertyData;
+		return;
 	}
 
 	/**
-	 * Loads the HISTORY AND INTEGRAL DATA section of a reafile and returns the
-	 * contents as a DataComponent of Entries. Each line is set as an Entry.
+	 * Loads the HISTORY AND INTEGRAL DATA section of a reafile into a
+	 * DataComponent of Entries. Each line is set as an Entry.
 	 * 
-	 * @param reaLines
-	 *            Lines of the reafile as an ArrayList of Strings.
-	 * @return A DataComponent of Entries representing the contents of the
-	 *         HISTORY AND INTEGRAL DATA section.
+	 * @param header
+	 *            The line after the section header with the number of points
+	 * @param reader
+	 *            The reader, positioned at the first point
+	 * @param historyIntegralData
+	 *            The DataComponent to which the Entries are added
+	 * @throws IOException
 	 */
-	private DataComponent loadHistoryIntegralData(ArrayList<String> reaLines) {
+	private void loadHistoryIntegralData(String header, ReaLineReader reader,
+			DataComponent historyIntegralData) throws IOException {
 
-		// Create a history and integral data component to add entries
-		DataComponent historyIntegralData = new DataComponent();
-		historyIntegralData.setName("History and Integral Data");
-		historyIntegralData.setDescription("Entries contained in the History "
-				+ "and Integral Data section of a Nek5000 reafile");
-		historyIntegralData.setId(12);
+		// Grab the number indicating the length of the History & Integral
+		// data section (number of lines)
+		int numLines = parseCount(header, "POINTS");
 
 		Entry entry;
-		for (int i = 0; i < reaLines.size(); i++) {
-
-			// Search for the initial conditions heading
-			if (reaLines.get(i).contains(
-					"***** HISTORY AND INTEGRAL DATA *****")
-					&& reaLines.get(i + 1).contains("POINTS")) {
-
-				// Grab the number on the next line indicating the length of the
-				// History & Integral data section (number of lines)
-				int strIndex = reaLines.get(i + 1).indexOf("POINTS");
-				String numLinesStr = reaLines.get(i + 1)
-						.substring(0, strIndex - 1).trim();
-				int numLines = Integer.parseInt(numLinesStr);
-
-				// Jump the iterator 2 lines ahead (from the header) and begin
-				// reading in Entries
-				i += 2;
-				String currLine;
-				for (int j = 0; j < numLines; j++) {
-
-					// Grab the current line
-					currLine = reaLines.get(i + j);
-
-					// Create a Nek Entry
-					entry = makeNekEntry(false);
-
-					/*
-					 * Format string for history and integral data points:
-					 * 
-					 * < 100,000 elements (1x, 11a1, 1x, 4i5) => 100,000
-					 * elements (1x, 11a1, 1x, 3i5, i10)
-					 * 
-					 * FIXME are no hist/int points for conj_ht example so this
-					 * doesn't matter for now, but the history/integral section
-					 * is formatting-sensitive and we will need to later figure
-					 * out a way so that it's not up to the user to get the
-					 * format correct
-					 */
-
-					// Set the name, value and ID
-					entry.setName("Point " + (j + 1));
-					entry.setValue(currLine);
-					entry.setId(j + 1);
-
-					// Append to the DataComponent
-					historyIntegralData.addEntry(entry);
-				}
-
-			}
-
+		for (int j = 0; j < numLines; j++) {
+
+			// Create a Nek Entry
+			entry = makeNekEntry(false);
+
+			/*
+			 * Format string for history and integral data points:
+			 * 
+			 * < 100,000 elements (1x, 11a1, 1x, 4i5) => 100,000 elements (1x,
+			 * 11a1, 1x, 3i5, i10)
+			 * 
+			 * FIXME are no hist/int points for conj_ht example so this doesn't
+			 * matter for now, but the history/integral section is
+			 * formatting-sensitive and we will need to later figure out a way
+			 * so that it's not up to the user to get the format correct
+			 */
+
+			// Set the name, value and ID
+			entry.setName("Point " + (j + 1));
+			entry.setValue(reader.requireLine());
+			entry.setId(j + 1);
+
+			// Append to the DataComponent
+			historyIntegralData.addEntry(entry);
 		}
 
-		return historyIntegralData;
+		return;
 	}
 
 	/**
-	 * Loads the OUTPUT FIELD SPECIFICATION section of a reafile and returns the
-	 * contents as a DataComponent of Entries. Each line is set as an Entry.
+	 * Loads the OUTPUT FIELD SPECIFICATION section of a reafile into a
+	 * DataComponent of Entries. Each line is set as an Entry.
 	 * 
-	 * @param reaLines
-	 *            Lines of the reafile as an ArrayList of Strings.
-	 * @return A DataComponent of Entries representing the contents of the
-	 *         OUTPUT FIELD SPECIFICATION section.
+	 * @param header
+	 *            The line after the section header with the number of lines
+	 * @param reader
+	 *            The reader, positioned at the first specification
+	 * @param outputFieldSpec
+	 *            The DataComponent to which the Entries are added
+	 * @throws IOException
 	 */
-	private DataComponent loadOutputFieldSpec(ArrayList<String> reaLines) {
+	private void loadOutputFieldSpec(String header, ReaLineReader reader,
+			DataComponent outputFieldSpec) throws IOException {
 
-		// Create a output field spec component to add entries
-		DataComponent outputFieldSpec = new DataComponent();
-		outputFieldSpec.setName("Output Field Specification");
-		outputFieldSpec.setDescription("Entries contained in the Output Field "
-				+ "Specification section of a Nek5000 reafile");
-		outputFieldSpec.setId(13);
+		// Grab the number indicating the length of the Output Field
+		// Specification section (number of lines)
+		int numLines = parseCount(header, "SPECIFICATIONS FOLLOW");
 
 		Entry entry;
 		boolean isDiscrete;
-		for (int i = 0; i < reaLines.size(); i++) {
-
-			// Search for the initial conditions heading
-			if (reaLines.get(i).contains(
-					"***** OUTPUT FIELD SPECIFICATION *****")
-					&& reaLines.get(i + 1).contains("SPECIFICATIONS FOLLOW")) {
-
-				// Grab the number on the next line indicating the length of the
-				// Output Field Specification section (number of lines)
-				int strIndex = reaLines.get(i + 1).indexOf(
-						"SPECIFICATIONS FOLLOW");
-				String numLinesStr = reaLines.get(i + 1)
-						.substring(0, strIndex - 1).trim();
-				int numLines = Integer.parseInt(numLinesStr);
-
-				// Jump the iterator 2 lines ahead (from the header) and begin
-				// reading in Entries
-				i += 2;
-				String currLine;
-				String[] splitLine;
-				String currValue;
-				String currName;
-				for (int j = 0; j < numLines; j++) {
-
-					// Grab the current line
-					currLine = reaLines.get(i + j);
-					splitLine = currLine.trim().split("\\s+");
-
-					// Determine if the entry will have discrete values or not
-					isDiscrete = (currLine.contains("COORDINATES")
-							|| currLine.contains("VELOCITY")
-							|| currLine.contains("PRESSURE") || currLine
-							.contains("TEMPERATURE"));
-
-					// Create a Nek Entry
-					entry = makeNekEntry(isDiscrete);
-
-					// Define the name and value
-					currValue = ("T".equals(splitLine[0]) ? "YES" : ("F"
-							.equals(splitLine[0]) ? "NO" : splitLine[0]));
-					currName = "";
-					for (int k = 1; k < splitLine.length; k++) {
-						if (k != splitLine.length - 1) {
-							currName += splitLine[k] + " ";
-						} else {
-							currName += splitLine[k];
-						}
-					}
-
-					// Set the name, value and ID
-					entry.setName(currName);
-					entry.setValue(currValue);
-					entry.setId(j + 1);
-
-					// Append to the DataComponent
-					outputFieldSpec.addEntry(entry);
+		String currLine;
+		String[] splitLine;
+		String currValue;
+		String currName;
+		for (int j = 0; j < numLines; j++) {
+
+			// Grab the current line
+			currLine = reader.requireLine();
+			splitLine = currLine.trim().split("\\s+");
+
+			// Determine if the entry will have discrete values or not
+			isDiscrete = (currLine.contains("COORDINATES")
+					|| currLine.contains("VELOCITY")
+					|| currLine.contains("PRESSURE") || currLine
+					.contains("TEMPERATURE"));
+
+			// Create a Nek Entry
+			entry = makeNekEntry(isDiscrete);
+
+			// Define the name and value
+			currValue = ("T".equals(splitLine[0]) ? "YES" : ("F"
+					.equals(splitLine[0]) ? "NO" : splitLine[0]));
+			currName = "";
+			for (int k = 1; k < splitLine.length; k++) {
+				if (k != splitLine.length - 1) {
+					currName += splitLine[k] + " ";
+				} else {
+					currName += splitLine[k];
 				}
-
 			}
 
+			// Set the name, value and ID
+			entry.setName(currName);
+			entry.setValue(currValue);
+			entry.setId(j + 1);
+
+			// Append to the DataComponent
+			outputFieldSpec.addEntry(entry);
 		}
 
-		return outputFieldSpec;
+		return;
 	}
 
 	/**
-	 * Loads the OBJECT SPECIFICATION section of a reafile and returns the
-	 * contents as a DataComponent of Entries. Each line is set as an Entry.
+	 * Loads the OBJECT SPECIFICATION section of a reafile into a DataComponent
+	 * of Entries. Each line is set as an Entry.
 	 * 
-	 * @param reaLines
-	 *            Lines of the reafile as an ArrayList of Strings.
-	 * @return A DataComponent of Entries representing the contents of the
-	 *         OBJECT SPECIFICATION section.
+	 * @param reader
+	 *            The reader, positioned at the first specification
+	 * @param objectSpec
+	 *            The DataComponent to which the Entries are added
+	 * @throws IOException
 	 */
-	private DataComponent loadObjectSpec(ArrayList<String> reaLines) {
-
-		// Create a object specification component to add entries
-		DataComponent objectSpec = new DataComponent();
-		objectSpec.setName("Object Specification");
-		objectSpec.setDescription("Entries contained in the Object "
-				+ "Specification section of a Nek5000 reafile");
-		objectSpec.setId(14);
+	private void loadObjectSpec(ReaLineReader reader, DataComponent objectSpec)
+			throws IOException {
 
 		Entry entry;
-		// Begin reading in the lines
-		for (int i = 0; i < reaLines.size(); i++) {
-
-			// Search for the object specification heading
-			if (reaLines.get(i).contains("***** OBJECT SPECIFICATION *****")) {
-
-				// Jump the iterator 1 line ahead (from the header) and begin
-				// reading in Entries
-				i += 1;
-				String currLine;
-				String[] splitLine;
-				String currValue;
-				String currName;
-				for (int j = 0; j < 4; j++) {
-
-					// Grab the current line
-					currLine = reaLines.get(i + j);
-					splitLine = currLine.trim().split("\\s+");
-
-					// Create a Nek Entry
-					entry = makeNekEntry(false);
-
-					// Specify the name and value
-					currValue = splitLine[0];
-					currName = splitLine[1];
-
-					// Set the name, value and ID
-					entry.setName(currName);
-					entry.setValue(currValue);
-					entry.setId(j + 1);
-
-					// Append to the DataComponent
-					objectSpec.addEntry(entry);
-				}
-			}
+		String[] splitLine;
+		for (int j = 0; j < 4; j++) {
+
+			// Grab the current line
+			splitLine = reader.requireLine().trim().split("\\s+");
+
+			// Create a Nek Entry
+			entry = makeNekEntry(false);
+
+			// Set the name, value and ID
+			entry.setName(splitLine[1]);
+			entry.setValue(splitLine[0]);
+			entry.setId(j + 1);
+
+			// Append to the DataComponent
+			objectSpec.addEntry(entry);
 		}
 
-		return objectSpec;
+		return;
 	}
 
 	/**
@@ -1619,71 +1322,39 @@ public class NekReader {
 	}
 
 	/**
-	 * Creates a pairing of a BoundaryCondition to its unique Edge ID, returned
-	 * as an ArrayList of Objects (edge ID and BoundaryCondition are mixed type,
-	 * necessitating the return to of type Object). The Edge ID is the first
-	 * element, the the BoundaryCondition is the second element. This method
-	 * works for all sets of BoundaryConditions (fluid, thermal, passive
-	 * scalars).
+	 * Splits a line into its whitespace separated tokens without the regular
+	 * expression of String.split(), which is too slow for the mesh and
+	 * boundary condition sections of large reafiles. Tokens past the end of
+	 * the array are ignored.
 	 * 
-	 * @param reaLines
-	 *            Lines of the reafile as an ArrayList of Strings.
-	 * @param i
-	 *            The reafile line at which the MESH DATA begins.
-	 * @param j
-	 *            The current line being read inside the MESH DATA section.
-	 * @return An ArrayList containing the unique Edge ID in the first element,
-	 *         and the associated BoundaryCondition in the second element.
+	 * @param line
+	 *            The line to split
+	 * @param tokens
+	 *            The array that is filled with the tokens
+	 * @return The number of tokens that were found
 	 */
-	private ArrayList<Object> buildBoundaryConditionPair(
-			ArrayList<String> reaLines, int i, int j) {
-
-		// Local declarations
-		String currLine;
-		ArrayList<Float> currBoundaryValues = new ArrayList<Float>();
-
-		int edgeId;
-		ArrayList<Float> values;
-		BoundaryCondition condition;
-		BoundaryConditionType type;
+	private static int tokenize(String line, String[] tokens) {
 
-		// Grab the current line
-		currLine = reaLines.get(i + j);
+		// Local Declarations
+		int count = 0, i = 0, start;
+		int length = line.length();
 
-		// Extract values from current boundary condition
-		String[] splitLine;
-		splitLine = currLine.trim().split("\\s+");
-
-		for (int k = 1; k <= 7; k++) {
-			currBoundaryValues.add(Float.parseFloat(splitLine[k]));
-		}
-
-		// Get the edge ID
-		edgeId = (int) (4 * (currBoundaryValues.get(0) - 1) + currBoundaryValues
-				.get(1));
-
-		// Create the boundary condition object
-		condition = new BoundaryCondition();
-
-		// Set the boundary condition type
-		String rawType = splitLine[0];
-		type = BoundaryConditionType.fromId(rawType);
-		condition.setType(type);
-
-		// Set the boundary condition values
-		values = new ArrayList<Float>();
-		for (int k = 2; k < 7; k++) {
-			values.add(currBoundaryValues.get(k));
+		while (i < length && count < tokens.length) {
+			// Skip the whitespace
+			while (i < length && line.charAt(i) <= ' ') {
+				i++;
+			}
+			// Find the end of the token
+			start = i;
+			while (i < length && line.charAt(i) > ' ') {
+				i++;
+			}
+			if (i > start) {
+				tokens[count++] = line.substring(start, i);
+			}
 		}
-		condition.setValues(values);
 
-		// Create an Array of Objects to return a unique edge ID and boundary
-		// condition object as a pair
-		ArrayList<Object> boundaryPair = new ArrayList<Object>();
-		boundaryPair.add(edgeId);
-		boundaryPair.add(condition);
-
-		return boundaryPair;
+		return count;
 	}
 
 	/**
@@ -1696,4 +1367,102 @@ public class NekReader {
 		return properties;
 	}
 
+	/**
+	 * This class reads the lines of a reafile one at a time through a
+	 * buffered reader. It can look a few lines ahead for the sections that
+	 * are identified by more than one header line.
+	 */
+	private static class ReaLineReader {
+
+		/**
+		 * The reader of the file.
+		 */
+		private final BufferedReader reader;
+
+		/**
+		 * The lines that were read ahead and not yet returned.
+		 */
+		private final ArrayList<String> lookahead = new ArrayList<String>();
+
+		/**
+		 * The number of the last line that was returned, starting at 1.
+		 */
+		private int lineNumber = 0;
+
+		/**
+		 * The constructor.
+		 * 
+		 * @param file
+		 *            The reafile
+		 * @throws FileNotFoundException
+		 */
+		public ReaLineReader(File file) throws FileNotFoundException {
+			reader = new BufferedReader(new FileReader(file), bufferSize);
+		}
+
+		/**
+		 * Returns the next line of the file.
+		 * 
+		 * @return The line or null if the end of the file was reached
+		 * @throws IOException
+		 */
+		public String nextLine() throws IOException {
+			String line = (lookahead.isEmpty()) ? reader.readLine()
+					: lookahead.remove(0);
+			if (line != null) {
+				lineNumber++;
+			}
+			return line;
+		}
+
+		/**
+		 * Returns the next line of a section, which must exist.
+		 * 
+		 * @return The line
+		 * @throws IOException
+		 *             Thrown if the file ends before the section
+		 */
+		public String requireLine() throws IOException {
+			String line = nextLine();
+			if (line == null) {
+				throw new IOException("NekReader Message: The reafile ended "
+						+ "in the middle of a section after line "
+						+ lineNumber + ".");
+			}
+			return line;
+		}
+
+		/**
+		 * Checks if a line after the last line that was returned contains
+		 * some text without moving past it.
+		 * 
+		 * @param offset
+		 *            The offset of the line, where 0 is the next line
+		 * @param text
+		 *            The text
+		 * @return True if the line exists and contains the text
+		 * @throws IOException
+		 */
+		public boolean peekContains(int offset, String text)
+				throws IOException {
+			String line;
+			while (lookahead.size() <= offset) {
+				if ((line = reader.readLine()) == null) {
+					return false;
+				}
+				lookahead.add(line);
+			}
+			return lookahead.get(offset).contains(text);
+		}
+
+		/**
+		 * Closes the file.
+		 * 
+		 * @throws IOException
+		 */
+		public void close() throws IOException {
+			reader.close();
+		}
+	}
+
 }
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.persistence.binary;
+
+import java.util.ArrayList;
+
+import org.eclipse.ice.datastructures.form.Form;
+import org.eclipse.ice.datastructures.form.FormStatus;
+import org.eclipse.ice.item.Item;
+import org.eclipse.ice.item.ItemType;
+
+/**
+ * This class is the Item that the BinaryPersistenceProvider returns for Items
+ * that were written in the native binary format. It only carries the state
+ * that JAXB would have restored on a plain Item. The ItemManager copies it
+ * into a new instance from the Item's builder, just like it does for the Items
+ * loaded from XML.
+ *
+ * @author Jay Jay Billings
+ */
+class BinaryItem extends Item {
+
+	/**
+	 * The constructor.
+	 *
+	 * @param id
+	 *            The id of the Item
+	 * @param name
+	 *            The name of the Item
+	 * @param description
+	 *            The description of the Item
+	 * @param builder
+	 *            The name of the ItemBuilder that created the Item
+	 * @param itemStatus
+	 *            The status of the Item
+	 * @param type
+	 *            The type of the Item
+	 * @param actions
+	 *            The allowed actions of the Item
+	 * @param itemForm
+	 *            The Form of the Item
+	 */
+	public BinaryItem(int id, String name, String description, String builder,
+			FormStatus itemStatus, ItemType type, ArrayList<String> actions,
+			Form itemForm) {
+
+		// Call the nullary constructor of Item to setup the default state
+		super(null);
+
+		// Replace it with the persisted state
+		uniqueId = id;
+		itemName = name;
+		itemDescription = description;
+		builderName = builder;
+		if (itemStatus != null) {
+			status = itemStatus;
+		}
+		if (type != null) {
+			itemType = type;
+		}
+		if (actions != null) {
+			allowedActions = actions;
+		}
+		form = itemForm;
+
+		return;
+	}
+
+}
@@ -0,0 +1,986 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.persistence.binary;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.ice.core.iCore.ILazyPersistenceProvider;
+import org.eclipse.ice.core.iCore.ItemHeader;
+import org.eclipse.ice.datastructures.form.BinaryFormHandler;
+import org.eclipse.ice.datastructures.form.Form;
+import org.eclipse.ice.datastructures.form.FormStatus;
+import org.eclipse.ice.datastructures.jaxbclassprovider.IJAXBClassProvider;
+import org.eclipse.ice.item.Item;
+import org.eclipse.ice.item.ItemBuilder;
+import org.eclipse.ice.item.ItemType;
+import org.eclipse.ice.item.persistence.PersistenceWorkQueue;
+import org.eclipse.ice.reactorAnalyzer.ReactorAnalyzer;
+
+/**
+ * This class implements the IPersistenceProvider interface with a compact
+ * binary format. Forms and their DataComponents, TableComponents,
+ * MatrixComponents and Entries are written by the BinaryFormHandler, which is
+ * much smaller and faster to read and write than the XML written by the
+ * XMLPersistenceProvider. Components that the handler does not know are
+ * embedded as XML, as are Items whose Form is currently provided by an Action.
+ *
+ * It stores items in the same "itemDB" project as the XMLPersistenceProvider
+ * and uses <itemName>_<itemId>.icb for the file names. Each file starts with
+ * the "ICEB" magic number and a format version, followed by the id, name,
+ * description, builder name, status and type of the Item so that the headers
+ * can be read without reading the Form. Enumeration literals are stored by
+ * name so that changes to the enumerations do not change the meaning of
+ * existing files. Version 1 files, which stored ordinals, can still be read.
+ *
+ * Writes are handled by the same PersistenceWorkQueue as the
+ * XMLPersistenceProvider: tasks for the same Item are processed in order and
+ * merged if they arrive before the Item is written, while tasks for different
+ * Items are processed in parallel. Loading operations are blocking.
+ *
+ * The provider can convert between the two formats. When it is started, every
+ * Item that was persisted by the XMLPersistenceProvider and does not have a
+ * binary file yet is imported on a worker thread, so an existing workspace is
+ * migrated the first time this provider is used without holding up the
+ * start. Loading operations wait until the migration is finished. The XML
+ * files are left in place so that the XMLPersistenceProvider can still be
+ * used. Individual Items can be imported from or exported to XML files with
+ * importXML() and exportXML().
+ *
+ * The provider is registered with a lower service ranking than the
+ * XMLPersistenceProvider, so the Core only uses it if it is given a higher
+ * ranking or selected with the target property of the Core's
+ * IPersistenceProvider reference.
+ *
+ * @author Jay Jay Billings
+ *
+ */
+public class BinaryPersistenceProvider implements ILazyPersistenceProvider {
+
+	/**
+	 * The magic number at the start of every file, "ICEB" in ASCII.
+	 */
+	static final int MAGIC = 0x49434542;
+
+	/**
+	 * The version of the file format. Version 1 stored enumeration literals as
+	 * ordinals and version 2 stores them by name.
+	 */
+	static final int VERSION = 2;
+
+	/**
+	 * The marker for Items that were written field by field.
+	 */
+	private static final int NATIVE_ITEM = 1;
+
+	/**
+	 * The marker for Items that were embedded as XML.
+	 */
+	private static final int EMBEDDED_ITEM = 0;
+
+	/**
+	 * The extension of the files written by the provider.
+	 */
+	public static final String FILE_EXTENSION = "icb";
+
+	/**
+	 * The queue that processes the tasks of the provider on its worker
+	 * threads.
+	 */
+	private final PersistenceWorkQueue workQueue = new PersistenceWorkQueue(
+			"BinaryPersistenceProvider");
+
+	/**
+	 * The migration of the XML Items that is started with the provider, or
+	 * null if none was started.
+	 */
+	private volatile Future<?> migration;
+
+	/**
+	 * The ids of the Items that were deleted since the provider started. The
+	 * migration must not bring them back from their old XML files.
+	 */
+	private final Set<Integer> deletedIds = Collections
+			.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+
+	/**
+	 * This is a private class used to store queue events. The Item is stored
+	 * along with one of the words "persist" or "delete" to denote which task
+	 * should be performed for the given item.
+	 *
+	 * @author Jay Jay Billings
+	 *
+	 */
+	private static class QueuedTask {
+		/**
+		 * The item that should be processed.
+		 */
+		public Item item;
+		/**
+		 * The task that should be performed; one of "persist" or "delete."
+		 */
+		public String task;
+	}
+
+	/**
+	 * The BinaryFormHandlers used by the threads that read and write Items.
+	 * Handlers are not thread safe, so each thread keeps its own.
+	 */
+	private final ThreadLocal<BinaryFormHandler> handlers = new ThreadLocal<BinaryFormHandler>() {
+		@Override
+		protected BinaryFormHandler initialValue() {
+			return new BinaryFormHandler(context);
+		}
+	};
+
+	/**
+	 * The Eclipse project used by the provider.
+	 */
+	private IProject project;
+
+	/**
+	 * A list of Items constructed from the ItemBuilders that were registered
+	 * with the persistence provider by calling addBuilder(). These Items are
+	 * used to create the list of classes passed to the JAXBContext.
+	 */
+	private ArrayList<Item> referenceItems = new ArrayList<Item>();
+
+	/**
+	 * A map of the ids of the Items that have persisted as its keys and the
+	 * file names of those Items as values.
+	 */
+	private Hashtable<Integer, String> itemIdMap = new Hashtable<Integer, String>();
+
+	/**
+	 * The list of IJAXBClassProviders to be used in the construction of the
+	 * JAXBContext.
+	 */
+	private List<IJAXBClassProvider> classProviders;
+
+	/**
+	 * The JAXBContext that is used for embedded Components and for converting
+	 * to and from XML.
+	 */
+	JAXBContext context;
+
+	/**
+	 * Empty default constructor. No work to do.
+	 */
+	public BinaryPersistenceProvider() {
+		classProviders = new ArrayList<IJAXBClassProvider>();
+	}
+
+	/**
+	 * An alternative constructor that allows the project space to be set for
+	 * testing.
+	 *
+	 * @param projectSpace
+	 *            The project space that should be used instead of the default.
+	 */
+	public BinaryPersistenceProvider(IProject projectSpace) {
+		classProviders = new ArrayList<IJAXBClassProvider>();
+		project = projectSpace;
+	}
+
+	/**
+	 * This operation registers an IJAXBClassProvider with the persistence
+	 * provider.
+	 *
+	 * @param provider
+	 *            The IJAXBClassProvider to be used in creation of the
+	 *            JAXBContext.
+	 */
+	public void registerClassProvider(IJAXBClassProvider provider) {
+		if (provider != null) {
+			System.out
+					.println("[BinaryPersistenceProvider] Adding Class Provider "
+							+ provider.getProviderName());
+			classProviders.add(provider);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation registers an ItemBuilder with the persistence provider so
+	 * that the classes of its Items can be added to the JAXBContext.
+	 *
+	 * @param builder
+	 */
+	public void addBuilder(ItemBuilder builder) {
+
+		System.out.println("BinaryPersistenceProvider Message: " + "Item "
+				+ builder.getItemName() + " registered.");
+
+		// Build an Item from this builder and store it so that we can get its
+		// class info later.
+		Item item = builder.build(null);
+		if (item != null) {
+			referenceItems.add(item);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation returns the names of the files in the project space that
+	 * match <itemName>_<itemId>.<extension>.
+	 *
+	 * @param extension
+	 *            The file extension
+	 * @return The file names keyed by Item id
+	 */
+	private Hashtable<Integer, String> findItemFiles(String extension) {
+
+		// Local Declarations
+		Hashtable<Integer, String> files = new Hashtable<Integer, String>();
+
+		try {
+			for (IResource resource : project.members()) {
+				String name = resource.getName();
+				if (resource.getType() == IResource.FILE
+						&& name.matches("^[a-zA-Z0-9_\\-]*_\\d+\\." + extension
+								+ "$")) {
+					// Get the id from the end of the name
+					String nameMinusExt = name.substring(0,
+							name.lastIndexOf('.'));
+					String idString = nameMinusExt.substring(nameMinusExt
+							.lastIndexOf('_') + 1);
+					files.put(Integer.valueOf(idString), name);
+				}
+			}
+		} catch (CoreException e) {
+			// Complain
+			e.printStackTrace();
+		}
+
+		return files;
+	}
+
+	/**
+	 * This operation is responsible for creating the project space used by the
+	 * provider.
+	 */
+	private void createProjectSpace() {
+
+		// Local Declarations
+		IWorkspaceRoot workspaceRoot = ResourcesPlugin.getWorkspace().getRoot();
+		String projectName = "itemDB";
+
+		try {
+			// Get the project handle
+			project = workspaceRoot.getProject(projectName);
+			// If the project does not exist, create it
+			if (!project.exists()) {
+				// Create the project description
+				IProjectDescription desc = ResourcesPlugin.getWorkspace()
+						.newProjectDescription(projectName);
+				// Create the project
+				project.create(desc, null);
+			}
+			// Open the project if it is not already open
+			if (project.exists() && !project.isOpen()) {
+				project.open(null);
+				// Refresh the project in case users manipulated files.
+				project.refreshLocal(IResource.DEPTH_INFINITE, null);
+			}
+		} catch (CoreException e) {
+			// Catch exception for creating the project
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * This operation creates the JAXBContext used for embedded Components and
+	 * XML conversion.
+	 *
+	 * @throws JAXBException
+	 *             An exception indicating that the JAXB Context could not be
+	 *             created.
+	 */
+	private void createJAXBContext() throws JAXBException {
+		// Create the list of classes for the JAXBContext
+		ArrayList<Class> classList = new ArrayList<Class>();
+		Class[] classArray = {};
+		for (Item refItem : referenceItems) {
+			classList.add(refItem.getClass());
+		}
+		for (IJAXBClassProvider provider : classProviders) {
+			classList.addAll(provider.getClasses());
+		}
+		context = JAXBContext.newInstance(classList.toArray(classArray));
+	}
+
+	/**
+	 * This operation is called to start the provider by the OSGi Declarative
+	 * Services engine. It sets up the project space, starts the worker pool
+	 * and starts importing any Items that have only been persisted as XML in
+	 * the background.
+	 *
+	 * @throws JAXBException
+	 *             An exception indicating that the JAXB Context could not be
+	 *             created.
+	 */
+	public void start() throws JAXBException {
+
+		// Debug information
+		System.out.println("BinaryPersistenceProvider Message: "
+				+ "Starting Provider!");
+
+		// Setup the project if needed
+		if (project == null) {
+			createProjectSpace();
+		}
+
+		// Create the JAXB context
+		createJAXBContext();
+
+		// Get the names and ids for all of the Items that have been persisted.
+		itemIdMap = findItemFiles(FILE_EXTENSION);
+
+		// Start the worker pool
+		workQueue.start();
+
+		// Migrate the Items that were persisted as XML on a worker
+		migration = workQueue.runInBackground(new Runnable() {
+			@Override
+			public void run() {
+				migrateXMLItems();
+			}
+		});
+
+		// Debug information
+		System.out.println("BinaryPersistenceProvider Message: "
+				+ "Provider started.");
+
+		return;
+	}
+
+	/**
+	 * This operation is called to stop the provider by the OSGi Declarative
+	 * Services engine. It stops accepting new tasks and waits until all of the
+	 * pending tasks have been processed or for one minute, whichever is
+	 * sooner.
+	 */
+	public void stop() {
+
+		// Debug information
+		System.out.println("BinaryPersistenceProvider Message: "
+				+ "Stopping Provider!");
+
+		// Drain the queue, including the migration, and shut down the workers
+		workQueue.stop();
+
+		// Debug information
+		System.out.println("BinaryPersistenceProvider Message: "
+				+ "Provider stopped.");
+
+		return;
+	}
+
+	/**
+	 * This operation imports every Item that was persisted by the
+	 * XMLPersistenceProvider and that does not have a binary file yet. Each
+	 * Item is imported under its key in the work queue so that the import
+	 * can not race a persist or delete of the same Item. Items that have a
+	 * task waiting or that were persisted or deleted since the provider
+	 * started are skipped because the XML file is older than that task.
+	 */
+	private void migrateXMLItems() {
+
+		Hashtable<Integer, String> xmlFiles = findItemFiles("xml");
+
+		for (final int id : xmlFiles.keySet()) {
+			final IFile xmlFile = project.getFile(xmlFiles.get(id));
+			workQueue.runIfIdle("item:" + id, new Runnable() {
+				@Override
+				public void run() {
+					// Skip Items that were already written in the binary
+					// format or deleted
+					if (!itemIdMap.containsKey(id) && !deletedIds.contains(id)) {
+						System.out.println("BinaryPersistenceProvider "
+								+ "Message: Migrating " + xmlFile.getName());
+						Item item = readXML(xmlFile);
+						if (item != null) {
+							writeItem(item);
+						}
+					}
+				}
+			});
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation waits for the migration of the XML Items to finish so
+	 * that the Items that it imports can be loaded. It returns immediately if
+	 * there is no migration or it is finished.
+	 */
+	private void awaitMigration() {
+
+		Future<?> pending = migration;
+
+		if (pending != null && !pending.isDone()) {
+			try {
+				pending.get();
+			} catch (InterruptedException e) {
+				// Complain
+				e.printStackTrace();
+			} catch (ExecutionException e) {
+				// Complain
+				e.printStackTrace();
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation reads an Item from an XML file written by the
+	 * XMLPersistenceProvider and persists it in the binary format. The Item
+	 * is written before this operation returns unless another task for the
+	 * same Item is waiting or being processed, in which case it is queued
+	 * after that task like any other persist.
+	 *
+	 * @param xmlFile
+	 *            The XML file
+	 * @return The Item or null if it could not be imported.
+	 */
+	public Item importXML(IFile xmlFile) {
+
+		// Local Declarations
+		final Item item = readXML(xmlFile);
+
+		if (item != null) {
+			boolean written = workQueue.runIfIdle("item:" + item.getId(),
+					new Runnable() {
+						@Override
+						public void run() {
+							writeItem(item);
+						}
+					});
+			if (!written) {
+				submitTask(item, "persist");
+			}
+		}
+
+		return item;
+	}
+
+	/**
+	 * This operation reads an Item from an XML file written by the
+	 * XMLPersistenceProvider.
+	 *
+	 * @param xmlFile
+	 *            The XML file
+	 * @return The Item or null if it could not be read.
+	 */
+	private Item readXML(IFile xmlFile) {
+
+		// Local Declarations
+		Item item = null;
+		InputStream stream = null;
+
+		try {
+			Unmarshaller unmarshaller = context.createUnmarshaller();
+			stream = xmlFile.getContents();
+			item = (Item) unmarshaller.unmarshal(stream);
+		} catch (JAXBException e) {
+			// Complain
+			e.printStackTrace();
+			item = null;
+		} catch (CoreException e) {
+			// Complain
+			e.printStackTrace();
+			item = null;
+		} finally {
+			closeStream(stream);
+		}
+
+		return item;
+	}
+
+	/**
+	 * This operation writes a persisted Item to a file in the XML format used
+	 * by the XMLPersistenceProvider.
+	 *
+	 * @param itemID
+	 *            The id of the Item
+	 * @param xmlFile
+	 *            The file that should be written
+	 * @return True if the file was written, false otherwise.
+	 */
+	public boolean exportXML(int itemID, IFile xmlFile) {
+
+		// Local Declarations
+		boolean retVal = false;
+		Item item = loadItem(itemID);
+
+		if (item != null) {
+			try {
+				ByteArrayOutputStream outputStream = new ByteArrayOutputStream(
+						8192);
+				context.createMarshaller().marshal(item, outputStream);
+				InputStream inputStream = new ByteArrayInputStream(
+						outputStream.toByteArray());
+				if (xmlFile.exists()) {
+					xmlFile.setContents(inputStream, IResource.FORCE, null);
+				} else {
+					xmlFile.create(inputStream, IResource.FORCE, null);
+				}
+				retVal = true;
+			} catch (JAXBException e) {
+				// Complain
+				e.printStackTrace();
+			} catch (CoreException e) {
+				// Complain
+				e.printStackTrace();
+			}
+		}
+
+		return retVal;
+	}
+
+	/**
+	 * This operation writes an Item to a byte array in the binary format.
+	 *
+	 * @param item
+	 *            The Item
+	 * @return The bytes or null if the Item could not be written.
+	 */
+	byte[] toBytes(Item item) {
+
+		// Local Declarations
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+		DataOutputStream out = new DataOutputStream(bytes);
+		BinaryFormHandler handler = handlers.get();
+		FormStatus status = item.getStatus();
+
+		try {
+			handler.reset();
+			// Write the header
+			out.writeInt(MAGIC);
+			out.writeByte(VERSION);
+			BinaryFormHandler.writeVarInt(item.getId(), out);
+			handler.writeString(item.getName(), out);
+			handler.writeString(item.getDescription(), out);
+			handler.writeString(item.getItemBuilderName(), out);
+			handler.writeEnum(status, out);
+			handler.writeEnum(item.getItemType(), out);
+			// The Form of an Item that needs information comes from its
+			// Action, so the Item is embedded to keep its own Form.
+			if (FormStatus.NeedsInfo.equals(status)) {
+				ByteArrayOutputStream xml = new ByteArrayOutputStream(8192);
+				context.createMarshaller().marshal(item, xml);
+				out.writeByte(EMBEDDED_ITEM);
+				BinaryFormHandler.writeVarInt(xml.size(), out);
+				xml.writeTo(out);
+			} else {
+				out.writeByte(NATIVE_ITEM);
+				handler.writeStringList(item.getAvailableActions(), out);
+				handler.writeForm(item.getForm(), out);
+			}
+			out.flush();
+		} catch (IOException e) {
+			// Complain
+			e.printStackTrace();
+			System.out.println("BinaryPersistenceProvider Message: "
+					+ "Failed to write " + item.getName());
+			return null;
+		} catch (JAXBException e) {
+			// Complain
+			e.printStackTrace();
+			return null;
+		}
+
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * This operation reads the header of an Item, which must be the first
+	 * thing in the stream.
+	 *
+	 * @param in
+	 *            The stream
+	 * @param handler
+	 *            The handler, which must have been reset
+	 * @return The header
+	 * @throws IOException
+	 *             An exception thrown if the stream is not a binary Item.
+	 */
+	private ItemHeader readHeader(DataInputStream in, BinaryFormHandler handler)
+			throws IOException {
+
+		// Local Declarations
+		ItemHeader header = new ItemHeader();
+
+		// Check the magic number and version
+		if (in.readInt() != MAGIC) {
+			throw new IOException("BinaryPersistenceProvider Message: "
+					+ "Not a binary ICE Item.");
+		}
+		int version = in.readUnsignedByte();
+		if (version > VERSION) {
+			throw new IOException("BinaryPersistenceProvider Message: "
+					+ "Unsupported format version " + version + ".");
+		}
+		// Version 1 stored the enumeration literals as ordinals
+		handler.setEnumOrdinals(version < 2);
+
+		header.setId(BinaryFormHandler.readVarInt(in));
+		header.setName(handler.readString(in));
+		header.setDescription(handler.readString(in));
+		header.setItemBuilderName(handler.readString(in));
+		header.setStatus(handler.readEnum(FormStatus.values(), in));
+
+		return header;
+	}
+
+	/**
+	 * This operation reads an Item in the binary format.
+	 *
+	 * @param stream
+	 *            The stream
+	 * @return The Item
+	 * @throws IOException
+	 *             An exception thrown if the stream can not be read or is not
+	 *             a binary Item.
+	 */
+	Item readItem(InputStream stream) throws IOException {
+
+		// Local Declarations
+		DataInputStream in = new DataInputStream(new BufferedInputStream(
+				stream, 65536));
+		BinaryFormHandler handler = handlers.get();
+		Item item = null;
+
+		handler.reset();
+		ItemHeader header = readHeader(in, handler);
+		ItemType type = handler.readEnum(ItemType.values(), in);
+		int body = in.readUnsignedByte();
+		if (body == EMBEDDED_ITEM) {
+			byte[] xml = new byte[BinaryFormHandler.readVarInt(in)];
+			in.readFully(xml);
+			try {
+				item = (Item) context.createUnmarshaller().unmarshal(
+						new ByteArrayInputStream(xml));
+			} catch (JAXBException e) {
+				throw new IOException(e);
+			}
+		} else {
+			ArrayList<String> actions = handler.readStringList(in);
+			Form form = handler.readForm(in);
+			item = new BinaryItem(header.getId(), header.getName(),
+					header.getDescription(), header.getItemBuilderName(),
+					header.getStatus(), type, actions, form);
+		}
+
+		return item;
+	}
+
+	/**
+	 * This operation writes an Item to its file in the project. The file is
+	 * written atomically with PersistenceWorkQueue.writeFile().
+	 *
+	 * @param item
+	 *            The Item
+	 */
+	private void writeItem(Item item) {
+
+		// Local Declarations
+		String name = getFileName(item);
+		byte[] bytes = toBytes(item);
+
+		// Don't clobber the old file if the Item could not be written
+		if (bytes == null) {
+			return;
+		}
+
+		try {
+			PersistenceWorkQueue.writeFile(project.getFile(name), bytes);
+			itemIdMap.put(item.getId(), name);
+		} catch (CoreException e) {
+			// Complain
+			e.printStackTrace();
+		} catch (IOException e) {
+			// Complain
+			e.printStackTrace();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation returns the name of the file for an Item.
+	 *
+	 * @param item
+	 *            The Item
+	 * @return The file name
+	 */
+	private String getFileName(Item item) {
+		return item.getName().replaceAll("\\s+", "_") + "_" + item.getId()
+				+ "." + FILE_EXTENSION;
+	}
+
+	/**
+	 * A utility operation for processing tasks on the worker threads.
+	 *
+	 * @param currentTask
+	 *            The current task to be processed.
+	 */
+	private void processTask(QueuedTask currentTask) {
+
+		try {
+			if ("persist".equals(currentTask.task)
+					&& !(currentTask.item instanceof ReactorAnalyzer)) {
+				writeItem(currentTask.item);
+			} else if ("delete".equals(currentTask.task)) {
+				IFile file = project.getFile(getFileName(currentTask.item));
+				deletedIds.add(currentTask.item.getId());
+				if (file.exists()) {
+					file.delete(true, null);
+				}
+				itemIdMap.remove(currentTask.item.getId());
+			}
+		} catch (CoreException e) {
+			// Complain
+			e.printStackTrace();
+		}
+
+		return;
+	}
+
+	/**
+	 * A private utility operation that submits a persistence task to the queue.
+	 * If a task for the same Item is still waiting, the new task replaces it.
+	 *
+	 * @param item
+	 *            The Item that is part of the persistence task.
+	 * @param taskName
+	 *            The name of the persistence task to perform.
+	 * @return True if the task was submitted, false if the provider is not
+	 *         running, too many tasks are waiting or the Item was null.
+	 */
+	private boolean submitTask(Item item, String taskName) {
+
+		// Local Declarations
+		final QueuedTask task = new QueuedTask();
+
+		if (item == null) {
+			return false;
+		}
+		task.item = item;
+		task.task = taskName;
+
+		return workQueue.submit("item:" + item.getId(), new Runnable() {
+			@Override
+			public void run() {
+				processTask(task);
+			}
+		});
+	}
+
+	/**
+	 * This operation persists the Item. It logs the persist order with the
+	 * queue.
+	 *
+	 * @param item
+	 *            The Item to persist.
+	 * @return true if the Item was queued for persistence, false otherwise.
+	 */
+	@Override
+	public boolean persistItem(Item item) {
+		return submitTask(item, "persist");
+	}
+
+	/**
+	 * This operation loads the Item.
+	 *
+	 * @param itemID
+	 *            id of the Item to load.
+	 * @return The loaded Item or null if it could not be loaded.
+	 */
+	@Override
+	public Item loadItem(int itemID) {
+
+		// Local Declarations
+		Item item = null;
+		String fileName = null;
+		InputStream stream = null;
+
+		// Make sure the XML Items have been imported
+		awaitMigration();
+		fileName = itemIdMap.get(itemID);
+
+		if (fileName != null) {
+			try {
+				stream = project.getFile(fileName).getContents();
+				item = readItem(stream);
+			} catch (CoreException e) {
+				// Complain
+				e.printStackTrace();
+				item = null;
+			} catch (IOException e) {
+				// Complain
+				e.printStackTrace();
+				item = null;
+			} finally {
+				closeStream(stream);
+			}
+		}
+
+		return item;
+	}
+
+	/**
+	 * This operation deletes the Item. It logs the delete order with the queue.
+	 *
+	 * @param item
+	 *            Item that should be deleted.
+	 * @return true if the Item was queued for deletion, false otherwise.
+	 */
+	@Override
+	public boolean deleteItem(Item item) {
+		return submitTask(item, "delete");
+	}
+
+	/**
+	 * This operation updates the Item. It is identical to persistItem().
+	 *
+	 * @param item
+	 *            Item to update.
+	 * @return true if the Item was queued for an update, false otherwise.
+	 */
+	@Override
+	public boolean updateItem(Item item) {
+		return submitTask(item, "persist");
+	}
+
+	/**
+	 * This operation loads all of the Items that this provider can find. The
+	 * Items are read in parallel.
+	 *
+	 * @return A list of all of the Items that this persistence provider was
+	 *         able to load from the project space.
+	 */
+	@Override
+	public ArrayList<Item> loadItems() {
+
+		// Local Declarations
+		ArrayList<Callable<Item>> tasks = new ArrayList<Callable<Item>>();
+
+		// Make sure the XML Items have been imported
+		awaitMigration();
+
+		for (final int id : new ArrayList<Integer>(itemIdMap.keySet())) {
+			tasks.add(new Callable<Item>() {
+				@Override
+				public Item call() {
+					return loadItem(id);
+				}
+			});
+		}
+
+		return workQueue.runInParallel(tasks);
+	}
+
+	/**
+	 * This operation loads the headers of all of the Items that this provider
+	 * can find. Only the start of each file is read.
+	 *
+	 * @return A list of the headers of all of the Items in the project space.
+	 */
+	@Override
+	public ArrayList<ItemHeader> loadItemHeaders() {
+
+		// Local Declarations
+		ArrayList<Callable<ItemHeader>> tasks = new ArrayList<Callable<ItemHeader>>();
+
+		// Make sure the XML Items have been imported
+		awaitMigration();
+
+		for (final int id : new ArrayList<Integer>(itemIdMap.keySet())) {
+			final String fileName = itemIdMap.get(id);
+			if (fileName != null) {
+				tasks.add(new Callable<ItemHeader>() {
+					@Override
+					public ItemHeader call() {
+						// Local Declarations
+						ItemHeader header = null;
+						InputStream stream = null;
+						BinaryFormHandler handler = handlers.get();
+						try {
+							stream = project.getFile(fileName).getContents();
+							handler.reset();
+							header = readHeader(new DataInputStream(
+									new BufferedInputStream(stream, 512)),
+									handler);
+						} catch (CoreException e) {
+							e.printStackTrace();
+						} catch (IOException e) {
+							e.printStackTrace();
+						} finally {
+							closeStream(stream);
+						}
+						return header;
+					}
+				});
+			}
+		}
+
+		return workQueue.runInParallel(tasks);
+	}
+
+	/**
+	 * This operation closes a stream and complains if it can't.
+	 *
+	 * @param stream
+	 *            The stream, which may be null
+	 */
+	private void closeStream(InputStream stream) {
+		if (stream != null) {
+			try {
+				stream.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+}
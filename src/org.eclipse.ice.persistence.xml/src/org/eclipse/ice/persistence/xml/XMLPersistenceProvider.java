@@ -12,21 +12,23 @@
  *******************************************************************************/
 package org.eclipse.ice.persistence.xml;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Hashtable;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.Callable;
 
 import javax.naming.OperationNotSupportedException;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -35,14 +37,17 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
-import org.eclipse.ice.core.iCore.IPersistenceProvider;
+import org.eclipse.ice.core.iCore.ILazyPersistenceProvider;
+import org.eclipse.ice.core.iCore.ItemHeader;
 import org.eclipse.ice.datastructures.form.Entry;
 import org.eclipse.ice.datastructures.form.Form;
+import org.eclipse.ice.datastructures.form.FormStatus;
 import org.eclipse.ice.datastructures.jaxbclassprovider.IJAXBClassProvider;
 import org.eclipse.ice.io.serializable.IReader;
 import org.eclipse.ice.io.serializable.IWriter;
 import org.eclipse.ice.item.Item;
 import org.eclipse.ice.item.ItemBuilder;
+import org.eclipse.ice.item.persistence.PersistenceWorkQueue;
 import org.eclipse.ice.reactorAnalyzer.ReactorAnalyzer;
 
 /**
@@ -55,10 +60,21 @@ import org.eclipse.ice.reactorAnalyzer.ReactorAnalyzer;
  * replaced with underscores.
  * 
  * All of the operations performed by this class except for those that load
- * Items are handled on a separate, non-blocking thread. Loading operations are
- * blocking.
+ * Items are handled on a small pool of worker threads, managed by a
+ * PersistenceWorkQueue, and are non-blocking.
+ * Loading operations are blocking. Tasks are keyed by the Item id (or by the
+ * file for IWriter requests) and tasks for the same key are always processed
+ * in order, one at a time, while tasks for different keys are processed in
+ * parallel. If an Item is updated several times before its pending task is
+ * processed, the updates are merged and the Item is only written once. Files
+ * are written to a temporary file first and then renamed over the original so
+ * that an interrupted write can not corrupt a persisted Item.
  * 
  * Items that are loaded by the provider are not constructed with a project.
+ * The provider is an ILazyPersistenceProvider: loadItemHeaders() only scans
+ * the root element of each file with StAX, in parallel, so that the full
+ * Items can be unmarshalled later when they are needed. loadItems() also
+ * unmarshals the files in parallel.
  * 
  * This provider should always be started AFTER all of the Items are registered
  * with it because registering Items while it is running would require stopping
@@ -74,14 +90,15 @@ import org.eclipse.ice.reactorAnalyzer.ReactorAnalyzer;
  * @author Jay Jay Billings
  * 
  */
-public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
+public class XMLPersistenceProvider implements ILazyPersistenceProvider,
 		IReader, IWriter {
 
 	/**
-	 * An atomic boolean used to manage the event loop. It is set to true when
-	 * start is called and false when stop is called.
+	 * The queue that processes the tasks of the provider on its worker
+	 * threads.
 	 */
-	AtomicBoolean runFlag = new AtomicBoolean();
+	private final PersistenceWorkQueue workQueue = new PersistenceWorkQueue(
+			"XMLPersistenceProvider");
 
 	/**
 	 * This is a private class used to store queue events. The Item or its id
@@ -111,21 +128,51 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 		 * The file to which the Form should be written.
 		 */
 		public IFile file;
+		/**
+		 * The key used to order and merge tasks. Tasks for the same Item id
+		 * or the same file share a key.
+		 */
+		public String key;
 	}
 
 	/**
-	 * The blocking queue that holds all of the persistence tasks that are left
-	 * to be processed.
+	 * The Marshallers used by the worker threads. Marshallers are not thread
+	 * safe, so each worker keeps its own and reuses it for every task.
 	 */
-	ArrayBlockingQueue<QueuedTask> taskQueue = new ArrayBlockingQueue<QueuedTask>(
-			1024);
+	private final ThreadLocal<Marshaller> marshallers = new ThreadLocal<Marshaller>() {
+		@Override
+		protected Marshaller initialValue() {
+			try {
+				return context.createMarshaller();
+			} catch (JAXBException e) {
+				// Complain
+				e.printStackTrace();
+				return null;
+			}
+		}
+	};
 
 	/**
-	 * A private thread on which the event loop is run. The runnable for this
-	 * thread is the current instance of this class. All work is processed on
-	 * this thread.
+	 * The Unmarshallers used by the threads that load Items. Like
+	 * Marshallers, they are not thread safe, so each thread keeps its own.
 	 */
-	private Thread eventLoop;
+	private final ThreadLocal<Unmarshaller> unmarshallers = new ThreadLocal<Unmarshaller>() {
+		@Override
+		protected Unmarshaller initialValue() {
+			try {
+				return context.createUnmarshaller();
+			} catch (JAXBException e) {
+				// Complain
+				e.printStackTrace();
+				return null;
+			}
+		}
+	};
+
+	/**
+	 * The factory used to create the StAX readers that scan Item headers.
+	 */
+	private final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
 
 	/**
 	 * The Eclipse project used by the provider.
@@ -314,7 +361,7 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	/**
 	 * This operation is called to start the XMLPersistenceProvider by the OSGi
 	 * Declarative Services engine. It sets up the project space and starts the
-	 * event loop.
+	 * worker pool.
 	 * 
 	 * @throws JAXBException
 	 *             An exception indicating that the JAXB Context could not be
@@ -338,10 +385,8 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 		// Get the names and ids for all of the Items that have been persisted.
 		loadItemIdMap();
 
-		// Start the event loop
-		runFlag.set(true);
-		eventLoop = new Thread(this);
-		eventLoop.start();
+		// Start the worker pool
+		workQueue.start();
 
 		// Debug information
 		System.out.println("XMLPersistenceProvider Message: "
@@ -352,42 +397,18 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 
 	/**
 	 * This operation is called to stop the XMLPersistenceProvider by the OSGi
-	 * Declarative Services engine. It throws the run flag to shut down the
-	 * event loop and waits until it has processed all of its request or for one
-	 * minute, whichever is sooner.
+	 * Declarative Services engine. It throws the run flag so that no new tasks
+	 * are accepted and waits until all of the pending tasks have been
+	 * processed or for one minute, whichever is sooner.
 	 */
 	public void stop() {
 
-		long counter = 0, maxPollCount = 60;
-
 		// Debug information
 		System.out.println("XMLPersistenceProvider Message: "
 				+ "Stopping Provider!");
 
-		// Shut down the thread if it was started
-		if (eventLoop != null) {
-			// Thrown the flag to shut down the thread
-			runFlag.set(false);
-			// Watch the thread until it shuts down or for one minute,
-			// whichever is sooner.
-			while (counter < maxPollCount) {
-				if (eventLoop.isAlive()) {
-					Thread.currentThread();
-					try {
-						// Sleep for a second if the event loop is still busy
-						Thread.sleep(1000);
-					} catch (InterruptedException e) {
-						// Complain if something interrupts naptime!
-						e.printStackTrace();
-					}
-					// Increment the counter
-					counter++;
-				} else {
-					// Just quit because the event loop has already died.
-					break;
-				}
-			}
-		}
+		// Drain the queue and shut down the workers
+		workQueue.stop();
 
 		// Debug information
 		System.out.println("XMLPersistenceProvider Message: "
@@ -422,62 +443,72 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 
 	/**
 	 * This operation returns an output stream containing the XML representation
-	 * of an Item stored in a QueuedTask.
+	 * of an Item stored in a QueuedTask. It uses the Marshaller that belongs
+	 * to the calling thread.
 	 * 
 	 * @param obj
 	 *            the object to write to the stream
-	 * @return the output stream containing the Item as XML
+	 * @param formatted
+	 *            true if the XML should be pretty-printed, false if it should
+	 *            be written as compactly as possible
+	 * @return the output stream containing the Item as XML or null if it could
+	 *         not be marshalled
 	 */
-	private ByteArrayOutputStream createXMLStream(Object obj) {
+	private ByteArrayOutputStream createXMLStream(Object obj, boolean formatted) {
 		// Get the XML
-		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-		// Create the marshaller and write the item
-		Marshaller marshaller;
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream(8192);
+		// Get this thread's marshaller and write the item
+		Marshaller marshaller = marshallers.get();
 		try {
-			marshaller = context.createMarshaller();
+			if (marshaller == null) {
+				throw new JAXBException("Unable to create a Marshaller.");
+			}
 			marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT,
-					Boolean.TRUE);
+					Boolean.valueOf(formatted));
 			marshaller.marshal(obj, outputStream);
 		} catch (JAXBException e) {
 			// Complain
 			e.printStackTrace();
 			System.out.println("XMLPersistenceProvider Message: "
 					+ "Failed to execute persistence task for " + obj);
+			outputStream = null;
 		}
 		return outputStream;
 	}
 
 	/**
-	 * This operation writes the specified object to the file in XML.
+	 * This operation writes the specified object to the file in XML. The file
+	 * is written atomically with PersistenceWorkQueue.writeFile(), so readers
+	 * never see a partially written file.
 	 * 
 	 * @param obj
 	 *            The object to be written
 	 * @param file
 	 *            The file to where it should be written
+	 * @param formatted
+	 *            true if the XML should be pretty-printed
 	 */
-	private void writeFile(Object obj, IFile file) {
+	private void writeFile(Object obj, IFile file, boolean formatted) {
 		// Create an output stream containing the XML.
-		ByteArrayOutputStream outputStream = createXMLStream(obj);
-		// Convert it to an input stream so it can be pushed to file
-		ByteArrayInputStream inputStream = new ByteArrayInputStream(
-				outputStream.toByteArray());
+		ByteArrayOutputStream outputStream = createXMLStream(obj, formatted);
+		// Don't clobber the old file if the object could not be marshalled
+		if (outputStream == null) {
+			return;
+		}
 		try {
-			// Update the output file if it already exists
-			if (file.exists()) {
-				file.setContents(inputStream, IResource.FORCE, null);
-			} else {
-				// Or create it from scratch
-				file.create(inputStream, IResource.FORCE, null);
-			}
+			PersistenceWorkQueue.writeFile(file, outputStream.toByteArray());
 		} catch (CoreException e) {
 			// Complain
 			e.printStackTrace();
+		} catch (IOException e) {
+			// Complain
+			e.printStackTrace();
 		}
 		return;
 	}
 
 	/**
-	 * A utility operation for processing tasks in the event loop.
+	 * A utility operation for processing tasks on the worker threads.
 	 * 
 	 * @param currentTask
 	 *            The current task to be processed.
@@ -503,8 +534,9 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 				// Process persists
 				if ("persist".equals(currentTask.task)
 						&& !(currentTask.item instanceof ReactorAnalyzer)) {
-					// Send the Item off to be written to the file
-					writeFile(currentTask.item, file);
+					// Send the Item off to be written to the file. Items are
+					// only read back by machines, so skip the formatting.
+					writeFile(currentTask.item, file, false);
 					// Update the item id map
 					itemIdMap.put(currentTask.item.getId(), file.getName());
 				} else if ("delete".equals(currentTask.task) && file.exists()) {
@@ -515,16 +547,9 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 				} else if ("write".equals(currentTask.task)) {
 					// Deal with simple Form write requests from the IWriter
 					// interface.
-					writeFile(currentTask.form, currentTask.file);
+					writeFile(currentTask.form, currentTask.file, true);
 				}
-			} else {
-				// Otherwise sleep for a bit
-				Thread.currentThread();
-				Thread.sleep(1000);
 			}
-		} catch (InterruptedException e) {
-			// Complain
-			e.printStackTrace();
 		} catch (CoreException e) {
 			// Complain
 			e.printStackTrace();
@@ -534,27 +559,22 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	}
 
 	/**
-	 * The event loop. When Items are persisted, loaded, deleted or updated,
-	 * they are added to the queue and those operations are processed on this
-	 * thread.
-	 */
-	@Override
-	public void run() {
-
-		// While the provider is set to run, just process tasks from the
-		// queue
-		while (runFlag.get()) {
-			try {
-				// Grab the next task
-				QueuedTask currentTask = taskQueue.poll(2, TimeUnit.SECONDS);
-				// Process it
-				processTask(currentTask);
-			} catch (InterruptedException e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
+	 * This operation queues a task. If a task for the same key is still
+	 * waiting, the new task replaces it because only the last state of the
+	 * Item or file matters.
+	 * 
+	 * @param task
+	 *            The task to queue
+	 * @return True if the task was queued, false if the provider is not
+	 *         running or too many tasks are waiting.
+	 */
+	private boolean queueTask(final QueuedTask task) {
+		return workQueue.submit(task.key, new Runnable() {
+			@Override
+			public void run() {
+				processTask(task);
 			}
-		}
-
+		});
 	}
 
 	/**
@@ -581,9 +601,10 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 			// Setup the task
 			task.item = item;
 			task.task = taskName;
+			task.key = "item:" + item.getId();
 			// Submit the task
 			try {
-				taskQueue.add(task);
+				retVal = queueTask(task);
 			} catch (Exception exception) {
 				// Complain
 				exception.printStackTrace();
@@ -595,9 +616,10 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 			task.task = taskName;
 			task.form = form;
 			task.file = file;
+			task.key = "file:" + file.getFullPath();
 			// Submit the task
 			try {
-				taskQueue.add(task);
+				retVal = queueTask(task);
 			} catch (Exception exception) {
 				// Complain
 				exception.printStackTrace();
@@ -644,11 +666,23 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 			// If the map contains the item, load it.
 			fileName = itemIdMap.get(itemID);
 			if (fileName != null) {
-				// Create the unmarshaller and load the item
-				Unmarshaller unmarshaller = context.createUnmarshaller();
-				item = (Item) unmarshaller.unmarshal(project.getFile(fileName)
-						.getContents());
+				// Get this thread's unmarshaller and load the item
+				Unmarshaller unmarshaller = unmarshallers.get();
+				if (unmarshaller == null) {
+					throw new JAXBException("Unable to create an Unmarshaller.");
+				}
+				InputStream stream = project.getFile(fileName).getContents();
+				try {
+					item = (Item) unmarshaller.unmarshal(stream);
+				} finally {
+					stream.close();
+				}
 			}
+		} catch (IOException e) {
+			// Complain
+			e.printStackTrace();
+			// Null out the Item so that it can't be returned uninitialized
+			item = null;
 		} catch (CoreException e) {
 			// Complain
 			e.printStackTrace();
@@ -684,7 +718,8 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	 * and only returns false if an exception is thrown.
 	 * 
 	 * This operation is identical to calling persistItem() because there is no
-	 * way to do an efficient merge of the XML files.
+	 * way to do an efficient merge of the XML files. Repeated updates of the
+	 * same Item that arrive before it is written are merged into one write.
 	 * 
 	 * @param item
 	 *            Item to update.
@@ -698,7 +733,8 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	}
 
 	/**
-	 * This operation loads all of the Items that this provider can find.
+	 * This operation loads all of the Items that this provider can find. The
+	 * Items are unmarshalled in parallel.
 	 * 
 	 * @return A list of all of the Items that this persistence provider was
 	 *         able to load from the project space.
@@ -707,17 +743,158 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	public ArrayList<Item> loadItems() {
 
 		// Local Declarations
-		ArrayList<Item> items = new ArrayList<Item>();
-		Set<Integer> keys = itemIdMap.keySet();
-		Item item = null;
+		ArrayList<Callable<Item>> tasks = new ArrayList<Callable<Item>>();
+
+		// Create a load task for each Item
+		for (final int id : new ArrayList<Integer>(itemIdMap.keySet())) {
+			tasks.add(new Callable<Item>() {
+				@Override
+				public Item call() {
+					return loadItem(id);
+				}
+			});
+		}
 
 		// Load them all
-		for (int id : keys) {
-			item = loadItem(id);
-			items.add(item);
+		return workQueue.runInParallel(tasks);
+	}
+
+	/**
+	 * This operation loads the headers of all of the Items that this provider
+	 * can find. Only the root element of each file is read, so this is much
+	 * faster than loadItems() for large Items. The files are scanned in
+	 * parallel.
+	 * 
+	 * @return A list of the headers of all of the Items in the project space.
+	 */
+	@Override
+	public ArrayList<ItemHeader> loadItemHeaders() {
+
+		// Local Declarations
+		ArrayList<Callable<ItemHeader>> tasks = new ArrayList<Callable<ItemHeader>>();
+
+		// Create a scan task for each Item
+		for (final int id : new ArrayList<Integer>(itemIdMap.keySet())) {
+			final String fileName = itemIdMap.get(id);
+			if (fileName != null) {
+				tasks.add(new Callable<ItemHeader>() {
+					@Override
+					public ItemHeader call() {
+						return loadItemHeader(id, fileName);
+					}
+				});
+			}
+		}
+
+		// Scan them all
+		return workQueue.runInParallel(tasks);
+	}
+
+	/**
+	 * This operation reads the header of an Item from the attributes of the
+	 * root element of its file. It stops reading as soon as the root element
+	 * has been found.
+	 * 
+	 * @param id
+	 *            The id of the Item from its file name
+	 * @param fileName
+	 *            The name of the file in the project
+	 * @return The header or null if the file could not be read.
+	 */
+	private ItemHeader loadItemHeader(int id, String fileName) {
+
+		// Local Declarations
+		ItemHeader header = null;
+		XMLStreamReader reader = null;
+		InputStream stream = null;
+
+		try {
+			stream = project.getFile(fileName).getContents();
+			reader = inputFactory.createXMLStreamReader(stream);
+			// Skip ahead to the root element
+			while (reader.hasNext()
+					&& reader.next() != XMLStreamConstants.START_ELEMENT) {
+				continue;
+			}
+			if (reader.isStartElement()) {
+				header = new ItemHeader();
+				header.setId(id);
+				// Pull the Item's attributes out of the root element
+				for (int i = 0; i < reader.getAttributeCount(); i++) {
+					String name = reader.getAttributeLocalName(i);
+					String value = reader.getAttributeValue(i);
+					if ("id".equals(name)) {
+						header.setId(Integer.parseInt(value));
+					} else if ("name".equals(name)) {
+						header.setName(value);
+					} else if ("description".equals(name)) {
+						header.setDescription(value);
+					} else if ("builderName".equals(name)) {
+						header.setItemBuilderName(value);
+					} else if ("status".equals(name)) {
+						header.setStatus(getStatus(value));
+					}
+				}
+			}
+		} catch (CoreException e) {
+			// Complain
+			e.printStackTrace();
+		} catch (XMLStreamException e) {
+			// Complain
+			e.printStackTrace();
+			header = null;
+		} catch (NumberFormatException e) {
+			// Complain
+			e.printStackTrace();
+			header = null;
+		} finally {
+			// Close everything
+			try {
+				if (reader != null) {
+					reader.close();
+				}
+				if (stream != null) {
+					stream.close();
+				}
+			} catch (XMLStreamException e) {
+				e.printStackTrace();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+
+		return header;
+	}
+
+	/**
+	 * This operation converts the XML value of a FormStatus, which is written
+	 * as its position in the enumeration starting at one, back to a FormStatus.
+	 * 
+	 * @param value
+	 *            The value of the status attribute
+	 * @return The status or null if the value is not valid
+	 */
+	private FormStatus getStatus(String value) {
+
+		// Local Declarations
+		FormStatus[] statuses = FormStatus.values();
+		FormStatus status = null;
+
+		try {
+			int index = Integer.parseInt(value.trim()) - 1;
+			if (index >= 0 && index < statuses.length) {
+				status = statuses[index];
+			}
+		} catch (NumberFormatException e) {
+			// Fall back to the name of the literal
+			try {
+				status = FormStatus.valueOf(value.trim());
+			} catch (IllegalArgumentException iae) {
+				status = null;
+			}
 		}
 
-		return items;
+		return status;
 	}
 
 	/*
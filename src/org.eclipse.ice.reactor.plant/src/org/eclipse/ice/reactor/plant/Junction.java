@@ -16,6 +16,8 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
+import org.eclipse.ice.datastructures.ICEObject.NotificationDispatcher;
+
 /**
  * <p>
  * Base class for junction-like components that connect objects, such as pipes.
@@ -466,9 +468,10 @@ public class Junction extends PlantComponent implements IJunction {
 			final boolean added) {
 
 		if (components != null && !components.isEmpty()) {
-			// Create a thread to notify IJunctionListeners that pipes were
-			// either added or removed.
-			Thread notifierThread = new Thread() {
+			// Notify IJunctionListeners that pipes were either added or
+			// removed. These notifications carry data, so they are delivered
+			// in order but never merged.
+			NotificationDispatcher.getDefault().dispatch(this, new Runnable() {
 				@Override
 				public void run() {
 					if (added) {
@@ -481,8 +484,7 @@ public class Junction extends PlantComponent implements IJunction {
 						}
 					}
 				}
-			};
-			notifierThread.start();
+			});
 		}
 
 		return;
@@ -18,6 +18,7 @@ import java.util.TreeMap;
 
 import org.eclipse.ice.datastructures.ICEObject.Component;
 import org.eclipse.ice.datastructures.ICEObject.Composite;
+import org.eclipse.ice.datastructures.ICEObject.NotificationDispatcher;
 
 /**
  * A PlantComposite is a container for {@link PlantComponent}s. Duplicate
@@ -236,9 +237,10 @@ public class PlantComposite extends PlantComponent implements Composite {
 			final List<PlantComponent> components, final boolean added) {
 
 		if (components != null && !components.isEmpty()) {
-			// Create a thread to notify IPlantCompositeListeners that
-			// PlantComponents were either added or removed.
-			Thread notifierThread = new Thread() {
+			// Notify IPlantCompositeListeners that PlantComponents were either
+			// added or removed. These notifications carry data, so they are
+			// delivered in order but never merged.
+			NotificationDispatcher.getDefault().dispatch(this, new Runnable() {
 				@Override
 				public void run() {
 					if (added) {
@@ -253,8 +255,7 @@ public class PlantComposite extends PlantComponent implements Composite {
 						}
 					}
 				}
-			};
-			notifierThread.start();
+			});
 		}
 
 		return;
@@ -27,6 +27,7 @@ import org.eclipse.ice.datastructures.ICEObject.Component;
 import org.eclipse.ice.datastructures.ICEObject.IUpdateable;
 import org.eclipse.ice.datastructures.ICEObject.IUpdateableListener;
 import org.eclipse.ice.datastructures.ICEObject.Identifiable;
+import org.eclipse.ice.datastructures.ICEObject.NotificationDispatcher;
 import org.eclipse.ice.datastructures.componentVisitor.IComponentVisitor;
 import org.eclipse.ice.datastructures.componentVisitor.IReactorComponent;
 
@@ -170,8 +171,9 @@ public class SFRComponent implements IReactorComponent, IDataProvider {
 		if (listeners.isEmpty()) {
 			return;
 		}
-		// Notify the listeners through a separate thread.
-		Thread notifierThread = new Thread() {
+		// Notify the listeners through the shared dispatcher, which merges
+		// this notification with any pending one from this component.
+		NotificationDispatcher.getDefault().coalesce(this, new Runnable() {
 			@Override
 			public void run() {
 
@@ -187,10 +189,7 @@ public class SFRComponent implements IReactorComponent, IDataProvider {
 
 				return;
 			}
-		};
-
-		// Start the thread to send out the notifications.
-		notifierThread.start();
+		});
 
 		return;
 	}
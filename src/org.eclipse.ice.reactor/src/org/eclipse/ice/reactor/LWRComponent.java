@@ -31,6 +31,7 @@ import ncsa.hdf.object.h5.H5Group;
 import org.eclipse.ice.analysistool.IData;
 import org.eclipse.ice.analysistool.IDataProvider;
 import org.eclipse.ice.datastructures.ICEObject.IUpdateableListener;
+import org.eclipse.ice.datastructures.ICEObject.NotificationDispatcher;
 import org.eclipse.ice.datastructures.componentVisitor.IComponentVisitor;
 import org.eclipse.ice.datastructures.componentVisitor.IReactorComponent;
 import org.eclipse.ice.io.hdf.HdfReaderFactory;
@@ -200,8 +201,9 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 		// Local Declarations
 		final LWRComponent compHandle = this;
 
-		// Create a thread on which to notify the listeners.
-		Thread notifierThread = new Thread() {
+		// Post the notification to the shared dispatcher, which merges it
+		// with any pending notification from this component.
+		NotificationDispatcher.getDefault().coalesce(this, new Runnable() {
 
 			@Override
 			public void run() {
@@ -213,10 +215,7 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 
 				return;
 			}
-		};
-
-		// Launch the thread and do the notifications
-		notifierThread.start();
+		});
 
 		return;
 
@@ -13,8 +13,10 @@
 package org.eclipse.ice.reactor;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.TreeMap;
 
 import org.eclipse.ice.analysistool.IData;
@@ -26,18 +28,55 @@ import org.eclipse.ice.analysistool.IDataProvider;
  * point data, usually for material decompositions or powers, that can be used
  * to store and display changes in value overtime across different features.
  * </p>
+ * <p>
+ * The data is stored in columns instead of individual LWRData objects. Each
+ * feature at each time has packed arrays for the values, uncertainties and
+ * positions of its data, and the names of the features and units are only
+ * stored once per provider. getDataAtCurrentTime() returns a read-only
+ * snapshot: a new list of new LWRData is created from the columns on every
+ * call, so changing the list or the LWRData in it does not change the data in
+ * the provider or the lists returned to other callers. The data of a feature
+ * is changed by removing it and adding it again. The packed arrays can be
+ * read and written directly with
+ * addData(String, double, double[], double[], double[], String[]) and the
+ * get*AtCurrentTime() operations that return arrays.
+ * </p>
  * 
  * @author Scott Forest Hull II
  */
 public class LWRDataProvider implements IDataProvider {
 	/**
 	 * <p>
-	 * A TreeMap implementation of IData and features. Keep in mind that there
+	 * A TreeMap of times to the columns of data for each feature at that time,
+	 * in the order in which the features were added. Keep in mind that there
 	 * can be multiple IData for the same feature.
 	 * </p>
 	 * 
 	 */
-	private TreeMap<Double, ArrayList<FeatureSet>> dataTree;
+	private TreeMap<Double, LinkedHashMap<String, FeatureColumn>> dataTree;
+	/**
+	 * <p>
+	 * The names of all of the features in the provider, in the order in which
+	 * they were added. Each name is mapped to itself so that all of the columns
+	 * share one instance of it.
+	 * </p>
+	 * 
+	 */
+	private LinkedHashMap<String, String> features;
+	/**
+	 * <p>
+	 * The table of units that the columns refer to by index.
+	 * </p>
+	 * 
+	 */
+	private ArrayList<String> units;
+	/**
+	 * <p>
+	 * The index of each of the units in the table.
+	 * </p>
+	 * 
+	 */
+	private HashMap<String, Integer> unitIndices;
 	/**
 	 * <p>
 	 * The current time step. Can not be less than 0, and must be strictly less
@@ -61,6 +100,14 @@ public class LWRDataProvider implements IDataProvider {
 	 * 
 	 */
 	private String timeUnit;
+	/**
+	 * <p>
+	 * The units of data that is added without units. It is the same as the
+	 * default units of an LWRData.
+	 * </p>
+	 * 
+	 */
+	private static final String defaultUnits = "seconds";
 
 	/**
 	 * <p>
@@ -69,8 +116,11 @@ public class LWRDataProvider implements IDataProvider {
 	 * 
 	 */
 	public LWRDataProvider() {
-		// Setup TreeMap
-		this.dataTree = new TreeMap<Double, ArrayList<FeatureSet>>();
+		// Setup TreeMap and the tables of names
+		this.dataTree = new TreeMap<Double, LinkedHashMap<String, FeatureColumn>>();
+		this.features = new LinkedHashMap<String, String>();
+		this.units = new ArrayList<String>();
+		this.unitIndices = new HashMap<String, Integer>();
 
 		// Setup Source
 		this.sourceInfo = "No Source Available";
@@ -102,6 +152,8 @@ public class LWRDataProvider implements IDataProvider {
 	 * <p>
 	 * Adds a IData piece, keyed on the feature and timeStep, to the dataTree.
 	 * If the feature exists in the tree, it will append to the end of the list.
+	 * The contents of the data are copied into the provider, so later changes
+	 * to the data are not stored.
 	 * </p>
 	 * 
 	 * @param data
@@ -113,61 +165,130 @@ public class LWRDataProvider implements IDataProvider {
 	public void addData(LWRData data, double time) {
 
 		// Local Declarations
-		ArrayList<FeatureSet> featureSetList;
-		FeatureSet set;
-		boolean featureExistsFlag = false;
+		FeatureColumn column;
+		ArrayList<Double> position;
 
 		// Return if the passed parameters are incorrect
 		if (data == null || time < 0) {
 			return;
 		}
 
-		featureSetList = this.dataTree.get(time);
+		// Get the column for the feature at the time and add the data to it
+		column = getColumn(data.getFeature(), time, true);
+		column.ensureCapacity(column.size + 1);
+		position = data.getPosition();
+		column.add(data.getValue(), data.getUncertainty(),
+				(position.size() > 0) ? position.get(0) : 0.0,
+				(position.size() > 1) ? position.get(1) : 0.0,
+				(position.size() > 2) ? position.get(2) : 0.0,
+				getUnitIndex(data.getUnits()));
+
+		return;
+	}
 
-		// If the timestep does not exist in the list, add it to the list
-		if (featureSetList == null) {
-			featureSetList = new ArrayList<FeatureSet>();
-			set = new FeatureSet(data.getFeature());
-			set.addIData(data);
-			featureSetList.add(set);
-			this.dataTree.put(time, featureSetList);
+	/**
+	 * <p>
+	 * Adds a block of data for one feature at a time without creating an
+	 * LWRData for each piece. The data is appended to any data that already
+	 * exists for the feature at that time.
+	 * </p>
+	 * 
+	 * @param feature
+	 *            <p>
+	 *            The feature. It can not be null or the empty string and it is
+	 *            trimmed like the feature of an LWRData.
+	 *            </p>
+	 * @param time
+	 *            <p>
+	 *            The time. It can not be negative.
+	 *            </p>
+	 * @param values
+	 *            <p>
+	 *            The values. The length of this array is the number of pieces
+	 *            of data that will be added and it can not be zero.
+	 *            </p>
+	 * @param uncertainties
+	 *            <p>
+	 *            The uncertainties of the values or null if they are all zero.
+	 *            </p>
+	 * @param positions
+	 *            <p>
+	 *            The x, y and z coordinates of each value, one after the
+	 *            other, or null if they are all at the origin.
+	 *            </p>
+	 * @param units
+	 *            <p>
+	 *            The units of each value or null to use the default units of
+	 *            an LWRData.
+	 *            </p>
+	 * @return <p>
+	 *         True if the data was added, false if one of the parameters was
+	 *         invalid.
+	 *         </p>
+	 */
+	public boolean addData(String feature, double time, double[] values,
+			double[] uncertainties, double[] positions, String[] units) {
 
+		// Local Declarations
+		FeatureColumn column;
+		int n, offset, unit;
+		String unitName;
+
+		// Check the parameters
+		if (feature == null || feature.trim().isEmpty() || time < 0
+				|| values == null || values.length == 0) {
+			return false;
+		}
+		n = values.length;
+		if ((uncertainties != null && uncertainties.length < n)
+				|| (positions != null && positions.length < 3 * n)
+				|| (units != null && units.length < n)) {
+			return false;
 		}
 
-		// Otherwise, the timestep exists and needs to append to the current
-		// running list
-		else {
-
-			// Append to the current FeatureSet if it exists
-			for (int i = 0; i < featureSetList.size(); i++) {
-				// IF the featureset is the same name as the data, add it
-				if (featureSetList.get(i).getName().equals(data.getFeature())) {
-					featureSetList.get(i).addIData(data);
-					featureExistsFlag = true;
-					break;
-				}
-			}
-
-			// If the featureSet does not exist, then add it
-			if (!featureExistsFlag) {
-				// If it does not, add it
-				set = new FeatureSet(data.getFeature());
-				set.addIData(data);
+		// Get the column and make room for the new data
+		column = getColumn(feature.trim(), time, true);
+		column.ensureCapacity(column.size + n);
+		offset = column.size;
+
+		// Copy the values, uncertainties and positions in bulk
+		System.arraycopy(values, 0, column.values, offset, n);
+		if (uncertainties != null) {
+			System.arraycopy(uncertainties, 0, column.uncertainties, offset, n);
+		} else {
+			Arrays.fill(column.uncertainties, offset, offset + n, 0.0);
+		}
+		if (positions != null) {
+			System.arraycopy(positions, 0, column.positions, 3 * offset, 3 * n);
+		} else {
+			Arrays.fill(column.positions, 3 * offset, 3 * (offset + n), 0.0);
+		}
 
-				// Add it to the list of sets
-				featureSetList.add(set);
+		// Set the units. Look up the index again only when the units change.
+		unitName = null;
+		unit = getUnitIndex(defaultUnits);
+		for (int i = 0; i < n; i++) {
+			if (units != null && units[i] != null && !units[i].trim().isEmpty()
+					&& !units[i].trim().equals(unitName)) {
+				unitName = units[i].trim();
+				unit = getUnitIndex(unitName);
 			}
-
+			column.units[offset + i] = unit;
 		}
 
+		// Update the size
+		column.size += n;
+
+		return true;
 	}
 
 	/**
 	 * <p>
 	 * Removes the feature and all associated IData from the dataTree at all
-	 * time steps. If a user wishes to remove a single piece of IData from the
-	 * tree, then use the appropriate getData operation on that feature and
-	 * manipulate the data that way.
+	 * time steps. The lists returned by getDataAtCurrentTime() are read-only
+	 * snapshots, so removing a single piece of IData from one of them does not
+	 * change the provider. To remove a single piece of IData, remove the
+	 * feature and add the rest of its data again.
 	 * </p>
 	 * 
 	 * @param feature
@@ -181,23 +302,14 @@ public class LWRDataProvider implements IDataProvider {
 		if (feature == null) {
 			return;
 		}
-		// Get the iterator
-		Iterator<Double> iter;
-		iter = this.dataTree.keySet().iterator();
 
-		// Iterate over the list of all timesteps and remove all the features
-		while (iter.hasNext()) {
-			ArrayList<FeatureSet> list = this.dataTree.get(iter.next());
-
-			// If the FeatureSet with the feature name exists, remove it
-			for (int i = 0; i < list.size(); i++) {
-				if (list.get(i).getName().equals(feature)) {
-					list.remove(i);
-					break; // Break from for loop, otherwise really bad things
-							// will happen
-				}
-			}
+		// Remove the feature from every time step and from the list of
+		// features
+		for (LinkedHashMap<String, FeatureColumn> columns : this.dataTree
+				.values()) {
+			columns.remove(feature);
 		}
+		this.features.remove(feature);
 
 	}
 
@@ -213,25 +325,26 @@ public class LWRDataProvider implements IDataProvider {
 	 */
 	public void copy(LWRDataProvider otherObject) {
 
-		// Local Declarations
-		Iterator<Double> iter;
-
 		// If null, return
 		if (otherObject == null) {
 			return;
 		}
-		// Copy dataTree
-		this.dataTree.clear();
 
-		// Setup the iterator
-		iter = otherObject.dataTree.keySet().iterator();
+		// Copy the tables of names. The columns use the same unit indices.
+		this.features = new LinkedHashMap<String, String>(otherObject.features);
+		this.units = new ArrayList<String>(otherObject.units);
+		this.unitIndices = new HashMap<String, Integer>(
+				otherObject.unitIndices);
 
-		// Currently, this will only shallow copy the ArrayList on value. IData
-		// will have to implement copy and clone routines for it to be a deep
-		// copy
-		while (iter.hasNext()) {
-			Double key = iter.next();
-			this.dataTree.put(key, otherObject.dataTree.get(key));
+		// Copy dataTree
+		this.dataTree.clear();
+		for (Map.Entry<Double, LinkedHashMap<String, FeatureColumn>> entry : otherObject.dataTree
+				.entrySet()) {
+			LinkedHashMap<String, FeatureColumn> columns = new LinkedHashMap<String, FeatureColumn>();
+			for (FeatureColumn column : entry.getValue().values()) {
+				columns.put(column.feature, column.copy());
+			}
+			this.dataTree.put(entry.getKey(), columns);
 		}
 
 		// Copy Time info
@@ -312,10 +425,9 @@ public class LWRDataProvider implements IDataProvider {
 			component = (LWRDataProvider) otherObject;
 
 			// Check values
-			retVal = (this.dataTree.equals(component.dataTree)
-					&& this.time == component.time
-					&& this.sourceInfo.equals(component.sourceInfo) && this.timeUnit
-					.equals(component.timeUnit));
+			retVal = (this.time == component.time
+					&& this.sourceInfo.equals(component.sourceInfo)
+					&& this.timeUnit.equals(component.timeUnit) && dataEquals(component));
 
 		}
 
@@ -337,8 +449,18 @@ public class LWRDataProvider implements IDataProvider {
 
 		int hash = 31;
 
+		// Calculate the hash of the data. The features at each time are
+		// added so that the order in which they were added does not matter.
+		for (Map.Entry<Double, LinkedHashMap<String, FeatureColumn>> entry : this.dataTree
+				.entrySet()) {
+			int timeHash = entry.getKey().hashCode();
+			for (FeatureColumn column : entry.getValue().values()) {
+				timeHash += column.hashCode(this.units);
+			}
+			hash += 31 * timeHash;
+		}
+
 		// Calculate IDataProvider info
-		hash += 31 * this.dataTree.hashCode();
 		hash += 31 * this.time;
 		hash += 31 * this.sourceInfo.hashCode();
 		hash += 31 * this.timeUnit.hashCode();
@@ -353,35 +475,7 @@ public class LWRDataProvider implements IDataProvider {
 	 */
 	@Override
 	public ArrayList<String> getFeatureList() {
-
-		// Local Declarations
-		ArrayList<String> featureList = new ArrayList<String>();
-		HashMap<String, Integer> map = new HashMap<String, Integer>();
-
-		// Get the iterator
-		Iterator<Double> iter;
-		iter = this.dataTree.keySet().iterator();
-
-		// Iterate over the list of all timesteps get one unique feature
-		while (iter.hasNext()) {
-			ArrayList<FeatureSet> list = this.dataTree.get(iter.next());
-
-			// If the map does not have the feature name, add it
-			for (int i = 0; i < list.size(); i++) {
-				if (map.get(list.get(i).getName()) == null) {
-					map.put(list.get(i).getName(), 1);
-				}
-			}
-		}
-
-		// Append to featureList
-		for (String name : map.keySet()) {
-			featureList.add(name);
-		}
-
-		// Return the featureList
-		return featureList;
-
+		return new ArrayList<String>(this.features.keySet());
 	}
 
 	/*
@@ -410,28 +504,112 @@ public class LWRDataProvider implements IDataProvider {
 	@Override
 	public ArrayList<IData> getDataAtCurrentTime(String feature) {
 
-		// If feature is null, return
-		if (feature == null) {
-			return new ArrayList<IData>();
-		}
-		// Locate the list
-		ArrayList<FeatureSet> list = this.dataTree.get(this.time);
-
-		if (list != null) {
-			// If the list exists, return the iData
-			for (int i = 0; i < list.size(); i++) {
-				if (list.get(i).getName().equals(feature)) {
+		// Locate the column
+		FeatureColumn column = getColumn(feature, this.time, false);
 
-					// Return the reference to the list of iData
-					return list.get(i).getIData();
-				}
-			}
+		// If the column exists, return a snapshot of its data
+		if (column != null) {
+			return column.createData(this.units);
 		}
 
 		return new ArrayList<IData>();
 
 	}
 
+	/**
+	 * <p>
+	 * Returns the values of the feature at the current time.
+	 * </p>
+	 * 
+	 * @param feature
+	 *            <p>
+	 *            The feature.
+	 *            </p>
+	 * @return <p>
+	 *         A copy of the values, which is empty if the feature does not
+	 *         exist at the current time.
+	 *         </p>
+	 */
+	public double[] getValuesAtCurrentTime(String feature) {
+		FeatureColumn column = getColumn(feature, this.time, false);
+		return (column != null) ? Arrays.copyOf(column.values, column.size)
+				: new double[0];
+	}
+
+	/**
+	 * <p>
+	 * Returns the uncertainties of the values of the feature at the current
+	 * time.
+	 * </p>
+	 * 
+	 * @param feature
+	 *            <p>
+	 *            The feature.
+	 *            </p>
+	 * @return <p>
+	 *         A copy of the uncertainties, which is empty if the feature does
+	 *         not exist at the current time.
+	 *         </p>
+	 */
+	public double[] getUncertaintiesAtCurrentTime(String feature) {
+		FeatureColumn column = getColumn(feature, this.time, false);
+		return (column != null) ? Arrays.copyOf(column.uncertainties,
+				column.size) : new double[0];
+	}
+
+	/**
+	 * <p>
+	 * Returns the positions of the values of the feature at the current time.
+	 * </p>
+	 * 
+	 * @param feature
+	 *            <p>
+	 *            The feature.
+	 *            </p>
+	 * @return <p>
+	 *         A copy of the x, y and z coordinates of each value, one after
+	 *         the other, which is empty if the feature does not exist at the
+	 *         current time.
+	 *         </p>
+	 */
+	public double[] getPositionsAtCurrentTime(String feature) {
+		FeatureColumn column = getColumn(feature, this.time, false);
+		return (column != null) ? Arrays.copyOf(column.positions,
+				3 * column.size) : new double[0];
+	}
+
+	/**
+	 * <p>
+	 * Returns the units of the values of the feature at the current time.
+	 * </p>
+	 * 
+	 * @param feature
+	 *            <p>
+	 *            The feature.
+	 *            </p>
+	 * @return <p>
+	 *         The units of each value, which is empty if the feature does not
+	 *         exist at the current time.
+	 *         </p>
+	 */
+	public String[] getUnitsAtCurrentTime(String feature) {
+
+		// Local Declarations
+		FeatureColumn column = getColumn(feature, this.time, false);
+		String[] unitNames;
+
+		// Look up the name of each unit
+		if (column == null) {
+			return new String[0];
+		}
+		unitNames = new String[column.size];
+		for (int i = 0; i < column.size; i++) {
+			unitNames[i] = this.units.get(column.units[i]);
+		}
+
+		return unitNames;
+	}
+
 	/*
 	 * Implements a method from IDataProvider.
 	 */
@@ -448,23 +626,16 @@ public class LWRDataProvider implements IDataProvider {
 	@Override
 	public ArrayList<String> getFeaturesAtCurrentTime() {
 
-		// Local Declarations
-		ArrayList<String> features = new ArrayList<String>();
-		ArrayList<FeatureSet> list = null;
-
-		// Get the list at the time
-		list = this.dataTree.get(this.time);
+		// Get the columns at the time
+		LinkedHashMap<String, FeatureColumn> columns = this.dataTree
+				.get(this.time);
 
 		// If the time does not exist, return empty
-		if (list == null) {
-			return features;
-		}
-		// Get the features
-		for (int i = 0; i < list.size(); i++) {
-			features.add(list.get(i).getName());
+		if (columns == null) {
+			return new ArrayList<String>();
 		}
 
-		return features;
+		return new ArrayList<String>(columns.keySet());
 
 	}
 
@@ -473,21 +644,7 @@ public class LWRDataProvider implements IDataProvider {
 	 */
 	@Override
 	public ArrayList<Double> getTimes() {
-
-		// Local Declarations
-		ArrayList<Double> times = new ArrayList<Double>();
-
-		// Get the iterator
-		Iterator<Double> iter = this.dataTree.keySet().iterator();
-
-		// Add the times to the arraylist
-		while (iter.hasNext()) {
-			times.add(iter.next());
-		}
-
-		// Return the list of times
-		return times;
-
+		return new ArrayList<Double>(this.dataTree.keySet());
 	}
 
 	/*
@@ -496,23 +653,13 @@ public class LWRDataProvider implements IDataProvider {
 	@Override
 	public int getTimeStep(double time) {
 
-		// Get the iterator
-		Iterator<Double> iter = this.dataTree.keySet().iterator();
-		int counter = 0;
-
-		// Iterate the list
-		while (iter.hasNext()) {
-
-			// If the time is there, return the index
-			if (iter.next().equals(time)) {
-				return counter;
-			}
-			counter++;
-
+		// Time not found!
+		if (!this.dataTree.containsKey(time)) {
+			return -1;
 		}
 
-		// Time not found!
-		return -1;
+		// The index is the number of times before it
+		return this.dataTree.headMap(time).size();
 
 	}
 
@@ -539,4 +686,340 @@ public class LWRDataProvider implements IDataProvider {
 
 		return this.time;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * <p>
+	 * This operation returns the column for a feature at a time.
+	 * </p>
+	 * 
+	 * @param feature
+	 *            <p>
+	 *            The feature.
+	 *            </p>
+	 * @param time
+	 *            <p>
+	 *            The time.
+	 *            </p>
+	 * @param create
+	 *            <p>
+	 *            True if the time and column should be created if they do not
+	 *            exist.
+	 *            </p>
+	 * @return <p>
+	 *         The column or null if it does not exist and create is false.
+	 *         </p>
+	 */
+	private FeatureColumn getColumn(String feature, double time, boolean create) {
+
+		// Local Declarations
+		LinkedHashMap<String, FeatureColumn> columns;
+		FeatureColumn column = null;
+		String name;
+
+		// Nothing to find for a null feature
+		if (feature == null) {
+			return null;
+		}
+
+		// Find the columns at the time
+		columns = this.dataTree.get(time);
+		if (columns == null && create) {
+			columns = new LinkedHashMap<String, FeatureColumn>();
+			this.dataTree.put(time, columns);
+		}
+
+		// Find the column
+		if (columns != null) {
+			column = columns.get(feature);
+			if (column == null && create) {
+				// Use the one copy of the feature name
+				name = this.features.get(feature);
+				if (name == null) {
+					name = feature;
+					this.features.put(name, name);
+				}
+				column = new FeatureColumn(name, 1);
+				columns.put(name, column);
+			}
+		}
+
+		return column;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the index of the units in the table of units,
+	 * adding them to the table if needed.
+	 * </p>
+	 * 
+	 * @param unitName
+	 *            <p>
+	 *            The units.
+	 *            </p>
+	 * @return <p>
+	 *         The index of the units.
+	 *         </p>
+	 */
+	private int getUnitIndex(String unitName) {
+
+		// Local Declarations
+		Integer index = this.unitIndices.get(unitName);
+
+		// Add the units if they are new
+		if (index == null) {
+			index = this.units.size();
+			this.units.add(unitName);
+			this.unitIndices.put(unitName, index);
+		}
+
+		return index;
+	}
+
+	/**
+	 * <p>
+	 * This operation checks that the data in this provider is equal to the
+	 * data in another provider. The units are compared by name since the
+	 * providers may have different tables of units.
+	 * </p>
+	 * 
+	 * @param other
+	 *            <p>
+	 *            The other provider.
+	 *            </p>
+	 * @return <p>
+	 *         True if the data is equal, false otherwise.
+	 *         </p>
+	 */
+	private boolean dataEquals(LWRDataProvider other) {
+
+		// The times must match
+		if (!this.dataTree.keySet().equals(other.dataTree.keySet())) {
+			return false;
+		}
+
+		// Check the columns at each time
+		for (Map.Entry<Double, LinkedHashMap<String, FeatureColumn>> entry : this.dataTree
+				.entrySet()) {
+			LinkedHashMap<String, FeatureColumn> columns = entry.getValue();
+			LinkedHashMap<String, FeatureColumn> otherColumns = other.dataTree
+					.get(entry.getKey());
+			if (!columns.keySet().equals(otherColumns.keySet())) {
+				return false;
+			}
+			for (FeatureColumn column : columns.values()) {
+				if (!column.equals(this.units,
+						otherColumns.get(column.feature), other.units)) {
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * This class stores the data for one feature at one time in packed arrays.
+	 * The arrays grow by half of their size when they are full. The units are
+	 * indices into the table of units of the provider.
+	 * </p>
+	 * 
+	 */
+	private static final class FeatureColumn {
+
+		/**
+		 * The name of the feature.
+		 */
+		private final String feature;
+
+		/**
+		 * The number of pieces of data in the column.
+		 */
+		private int size;
+
+		/**
+		 * The values.
+		 */
+		private double[] values;
+
+		/**
+		 * The uncertainties.
+		 */
+		private double[] uncertainties;
+
+		/**
+		 * The x, y and z coordinates of each value, one after the other.
+		 */
+		private double[] positions;
+
+		/**
+		 * The index of the units of each value.
+		 */
+		private int[] units;
+
+		/**
+		 * The constructor.
+		 * 
+		 * @param feature
+		 *            The name of the feature
+		 * @param capacity
+		 *            The number of pieces of data to make room for
+		 */
+		private FeatureColumn(String feature, int capacity) {
+			this.feature = feature;
+			this.values = new double[capacity];
+			this.uncertainties = new double[capacity];
+			this.positions = new double[3 * capacity];
+			this.units = new int[capacity];
+		}
+
+		/**
+		 * This operation makes sure that the arrays can hold at least the
+		 * given number of pieces of data.
+		 * 
+		 * @param capacity
+		 *            The number of pieces of data
+		 */
+		private void ensureCapacity(int capacity) {
+			if (values.length < capacity) {
+				int newCapacity = Math.max(capacity, values.length
+						+ (values.length >> 1) + 1);
+				values = Arrays.copyOf(values, newCapacity);
+				uncertainties = Arrays.copyOf(uncertainties, newCapacity);
+				positions = Arrays.copyOf(positions, 3 * newCapacity);
+				units = Arrays.copyOf(units, newCapacity);
+			}
+		}
+
+		/**
+		 * This operation adds one piece of data to the end of the column.
+		 * There must be room for it.
+		 * 
+		 * @param value
+		 *            The value
+		 * @param uncertainty
+		 *            The uncertainty
+		 * @param x
+		 *            The x coordinate
+		 * @param y
+		 *            The y coordinate
+		 * @param z
+		 *            The z coordinate
+		 * @param unit
+		 *            The index of the units
+		 */
+		private void add(double value, double uncertainty, double x, double y,
+				double z, int unit) {
+			values[size] = value;
+			uncertainties[size] = uncertainty;
+			positions[3 * size] = x;
+			positions[3 * size + 1] = y;
+			positions[3 * size + 2] = z;
+			units[size] = unit;
+			size++;
+		}
+
+		/**
+		 * This operation returns a new list of new LWRData with the data in
+		 * the column.
+		 * 
+		 * @param unitNames
+		 *            The table of units of the provider
+		 * @return The data
+		 */
+		private ArrayList<IData> createData(ArrayList<String> unitNames) {
+
+			// Local Declarations
+			ArrayList<IData> data = new ArrayList<IData>(size);
+			ArrayList<Double> position;
+
+			// Create the data
+			for (int i = 0; i < size; i++) {
+				LWRData piece = new LWRData(feature);
+				piece.setValue(values[i]);
+				piece.setUncertainty(uncertainties[i]);
+				piece.setUnits(unitNames.get(units[i]));
+				position = new ArrayList<Double>(3);
+				position.add(positions[3 * i]);
+				position.add(positions[3 * i + 1]);
+				position.add(positions[3 * i + 2]);
+				piece.setPosition(position);
+				data.add(piece);
+			}
+
+			return data;
+		}
+
+		/**
+		 * This operation returns a deep copy of the column without extra
+		 * capacity.
+		 * 
+		 * @return The copy
+		 */
+		private FeatureColumn copy() {
+			FeatureColumn column = new FeatureColumn(feature, 0);
+			column.size = size;
+			column.values = Arrays.copyOf(values, size);
+			column.uncertainties = Arrays.copyOf(uncertainties, size);
+			column.positions = Arrays.copyOf(positions, 3 * size);
+			column.units = Arrays.copyOf(units, size);
+			return column;
+		}
+
+		/**
+		 * This operation checks that this column is equal to another column.
+		 * 
+		 * @param unitNames
+		 *            The table of units of this column
+		 * @param other
+		 *            The other column
+		 * @param otherUnitNames
+		 *            The table of units of the other column
+		 * @return True if the columns are equal, false otherwise
+		 */
+		private boolean equals(ArrayList<String> unitNames,
+				FeatureColumn other, ArrayList<String> otherUnitNames) {
+
+			// Check the name and size
+			if (other == null || size != other.size
+					|| !feature.equals(other.feature)) {
+				return false;
+			}
+
+			// Check each piece of data
+			for (int i = 0; i < size; i++) {
+				if (values[i] != other.values[i]
+						|| uncertainties[i] != other.uncertainties[i]
+						|| positions[3 * i] != other.positions[3 * i]
+						|| positions[3 * i + 1] != other.positions[3 * i + 1]
+						|| positions[3 * i + 2] != other.positions[3 * i + 2]
+						|| !unitNames.get(units[i]).equals(
+								otherUnitNames.get(other.units[i]))) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+		/**
+		 * This operation returns the hash code of the column.
+		 * 
+		 * @param unitNames
+		 *            The table of units of this column
+		 * @return The hash
+		 */
+		private int hashCode(ArrayList<String> unitNames) {
+			int hash = feature.hashCode();
+			for (int i = 0; i < size; i++) {
+				// Adding zero makes -0.0 and 0.0 hash the same since they are
+				// equal
+				hash = 31 * hash + Double.valueOf(values[i] + 0.0).hashCode();
+				hash = 31 * hash
+						+ Double.valueOf(uncertainties[i] + 0.0).hashCode();
+				hash = 31 * hash + unitNames.get(units[i]).hashCode();
+			}
+			return hash;
+		}
+	}
+}
@@ -13,9 +13,13 @@
 package org.eclipse.ice.reactor;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.TreeSet;
 
 import ncsa.hdf.object.Dataset;
 import ncsa.hdf.object.Datatype;
@@ -24,7 +28,6 @@ import ncsa.hdf.object.h5.H5Datatype;
 import ncsa.hdf.object.h5.H5File;
 import ncsa.hdf.object.h5.H5Group;
 
-import org.eclipse.ice.analysistool.IData;
 import org.eclipse.ice.datastructures.ICEObject.Component;
 import org.eclipse.ice.io.hdf.HdfReaderFactory;
 import org.eclipse.ice.io.hdf.HdfWriterFactory;
@@ -58,6 +61,33 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 	 */
 	private int size;
 
+	/**
+	 * <p>
+	 * The GridLocations in lWRComponents indexed by row and then column so
+	 * that a location and its LWRDataProvider can be found without searching
+	 * the tree. It is size x size and kept in sync with lWRComponents.
+	 * </p>
+	 * 
+	 */
+	private GridLocation[][] locationGrid;
+
+	/**
+	 * <p>
+	 * The names in lWRComponents indexed by row and then column.
+	 * </p>
+	 * 
+	 */
+	private String[][] nameGrid;
+
+	/**
+	 * <p>
+	 * The GridLocations in lWRComponents keyed by component name. The
+	 * locations of each name are sorted in the same order as the tree.
+	 * </p>
+	 * 
+	 */
+	private HashMap<String, TreeSet<GridLocation>> nameIndex;
+
 	/**
 	 * <p>
 	 * A grid table suffix for reading the dataset.
@@ -67,10 +97,37 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 	protected String hdf5GridTableSuffix = "'s Grid Table";
 	// Names for groups
 	private String dataH5GroupName = "Positions";
-	private String timeStepNamePrefix = "TimeStep: ";
 
 	private String headTableString = " headTable";
 	private String dataTableString = " dataTable";
+	private String indexTableString = " indexTable";
+
+	/**
+	 * <p>
+	 * The version of the layout of the data in the Positions group, which is
+	 * written to the group's version attribute. Files without the attribute
+	 * use the original layout, which stores each time step at each location
+	 * in its own group.
+	 * </p>
+	 * 
+	 */
+	private static final int dataLayoutVersion = 2;
+
+	// Names of the version attribute and the tables in the Positions group
+	private static final String versionAttributeName = "version";
+	private static final String positionTableName = "Position Table";
+	private static final String timesTableName = "Times Table";
+	private static final String featureNamesTableName = "Feature Names Table";
+
+	/**
+	 * <p>
+	 * The maximum number of rows in each chunk of the feature tables and the
+	 * deflate level used to compress them.
+	 * </p>
+	 * 
+	 */
+	private static final int chunkSize = 4096;
+	private static final int compressionLevel = 6;
 
 	/**
 	 * <p>
@@ -101,6 +158,10 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 			this.size = size;
 		}
 
+		// Setup the location indices
+		nameIndex = new HashMap<String, TreeSet<GridLocation>>();
+		clearLocations();
+
 		// Setup the HDF5LWRTagType to correct type
 		this.HDF5LWRTag = HDF5LWRTagType.LWRGRIDMANAGER;
 
@@ -241,7 +302,7 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 		this.size = otherObject.size;
 
 		// Perform a deep copy of the tree
-		this.lWRComponents.clear();
+		clearLocations();
 
 		// Get the iterator
 		iter = otherObject.lWRComponents.keySet().iterator();
@@ -249,7 +310,7 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 		// Iterate over the list, deep copy the lWRComponents and values
 		while (iter.hasNext()) {
 			location = iter.next();
-			this.lWRComponents.put((GridLocation) location.clone(),
+			putLocation((GridLocation) location.clone(),
 					otherObject.lWRComponents.get(location));
 		}
 
@@ -288,7 +349,35 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 
 		// If the location is not null, return the component
 		if (location != null) {
-			return this.lWRComponents.get(location);
+			return getComponentName(location.getRow(), location.getColumn());
+		}
+		return null;
+	}
+
+	/**
+	 * <p>
+	 * Returns the name of the component at the row and column or null if
+	 * there is no component there. This is the same as
+	 * getComponentName(GridLocation), but it does not need a GridLocation.
+	 * </p>
+	 * 
+	 * @param row
+	 *            <p>
+	 *            The row.
+	 *            </p>
+	 * @param column
+	 *            <p>
+	 *            The column.
+	 *            </p>
+	 * @return <p>
+	 *         The name of the component or null if it does not exist.
+	 *         </p>
+	 */
+	public String getComponentName(int row, int column) {
+
+		// Check the grid if the location is on it
+		if (isOnGrid(row, column)) {
+			return this.nameGrid[row][column];
 		}
 		return null;
 	}
@@ -309,8 +398,8 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 				&& location.getRow() < this.size
 				&& location.getColumn() < this.size && location.getRow() >= 0
 				&& location.getColumn() >= 0
-				&& !this.lWRComponents.containsKey(location)) {
-			this.lWRComponents.put(location, component.getName());
+				&& this.locationGrid[location.getRow()][location.getColumn()] == null) {
+			putLocation(location, component.getName());
 		}
 
 	}
@@ -325,7 +414,7 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 
 		// If the location is not null, remove location
 		if (location != null) {
-			this.lWRComponents.remove(location);
+			removeLocation(location);
 		}
 
 	}
@@ -338,21 +427,14 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 	@Override
 	public void removeComponent(Component component) {
 
-		// If the component is not null, remove the associated component
+		// If the component is not null, remove the first location of the
+		// associated component
 		if (component != null) {
-
-			// Iterate over a map
-			for (Map.Entry<GridLocation, String> entry : this.lWRComponents
-					.entrySet()) {
-				String lComponent = entry.getValue();
-
-				// If the components are equal, remove the entry
-				if (lComponent.equals(component.getName())) {
-					this.lWRComponents.remove(entry.getKey());
-					return;
-				}
+			TreeSet<GridLocation> locations = this.nameIndex.get(component
+					.getName());
+			if (locations != null) {
+				removeLocation(locations.first());
 			}
-
 		}
 
 	}
@@ -392,7 +474,12 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 	}
 
 	/**
-	 * This writes the FeatureSets due to a given location
+	 * This writes the locations and the data at every location to the
+	 * Positions group. The data is written with the current layout (see
+	 * dataLayoutVersion): one table of locations, one table of times and, for
+	 * each feature, a (time x location) table with the number of values at
+	 * each time and location and one chunked, compressed table with all of
+	 * the values of the feature in time and then location order.
 	 * 
 	 * @param The
 	 *            H5File
@@ -407,283 +494,281 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 		if (h5File == null || h5Group == null) {
 			return false;
 		}
-		// Gather all units and put into a table later.
+		// Local Declarations
 		ArrayList<String> unitsList = new ArrayList<String>();
+		HashMap<String, Integer> unitIndices = new HashMap<String, Integer>();
 		ArrayList<String> positionNames = new ArrayList<String>();
+		ArrayList<LWRDataProvider> providers = new ArrayList<LWRDataProvider>();
+		double[] previousTimes;
+		TreeSet<Double> timeSet = new TreeSet<Double>();
+		LinkedHashSet<String> featureSet = new LinkedHashSet<String>();
 		H5Group mainH5Group = null;
-
-		// Setup the size of the String array Dataset
-		int maxLength = 0;
-		int maxPositionLength = 0;
+		int numLocations = this.lWRComponents.size(), numTimes;
+		boolean flag = true;
 
 		if (this.lWRComponents.isEmpty()) {
 			return true;
 		}
 
-		// Make the main group
+		// Make the main group and mark the layout
 		mainH5Group = HdfWriterFactory.createH5Group(h5File,
 				this.dataH5GroupName, h5Group);
+		if (!HdfWriterFactory.writeIntegerAttribute(h5File, mainH5Group,
+				versionAttributeName, dataLayoutVersion)) {
+			return false;
+		}
 
-		// Iterate over the GridLocations and add them to the list
-		// Iterate over a map
+		// Create the table of locations. Each row contains the row, the
+		// column and the index of the name in the positionNames table.
+		int[] positionData = new int[3 * numLocations];
+		int i = 0;
 		for (Map.Entry<GridLocation, String> entry : this.lWRComponents
 				.entrySet()) {
 
-			GridLocation location = entry.getKey();
-
-			// Local Declarations
-			H5Group dataH5Group;
-			double previousTime = 0;
-
-			// Create a HDF5Group for data
-			dataH5Group = HdfWriterFactory.createH5Group(h5File, "Position "
-					+ location.getRow() + " " + location.getColumn(),
-					mainH5Group);
-
-			// Create a Dataset. This contains Row, Column, and a position in
-			// the positionNames table.
-			long[] dimsPosition = { 3 };
-			int[] positionData = new int[3];
-
 			// Get the position
 			if (!positionNames.contains(entry.getValue())) {
 				positionNames.add(entry.getValue());
-				maxPositionLength = Math.max(entry.getValue().length(),
-						maxPositionLength);
 			}
 
 			// Store row, col, and the name at that position
-			positionData[0] = location.getRow();
-			positionData[1] = location.getColumn();
-			// Get the index of that that position
-			positionData[2] = positionNames.indexOf(entry.getValue());
-
-			// Get the datatype for integer
-			Datatype dataTypeInteger = HdfWriterFactory
-					.createIntegerH5Datatype(h5File);
-
-			// Create the simple dataset - dataList
-			try {
-				Dataset positionDataset = h5File.createScalarDS(
-						"Position Dataset", dataH5Group, dataTypeInteger,
-						dimsPosition, null, null, 0, positionData);
-
-				positionDataset.init();
-			} catch (Exception e1) {
-				e1.printStackTrace();
-				return false;
-			}
-
-			previousTime = location.getLWRDataProvider().getCurrentTime();
-
-			// Get the LWRDataProvider
-			LWRDataProvider provider = location.getLWRDataProvider();
-
-			// Write the data at the individual time steps. If false, return
-			if (!this.writeTimeAtFeatureSet(dataH5Group, h5File, provider,
-					unitsList)) {
-
-				// Reset time
-				location.getLWRDataProvider().setTime(previousTime);
-
-				return false;
-			}
-
-			// Reset time
-			location.getLWRDataProvider().setTime(previousTime);
+			positionData[3 * i] = entry.getKey().getRow();
+			positionData[3 * i + 1] = entry.getKey().getColumn();
+			positionData[3 * i + 2] = positionNames.indexOf(entry.getValue());
+
+			// Gather the times and features of the data at the location
+			LWRDataProvider provider = entry.getKey().getLWRDataProvider();
+			providers.add(provider);
+			timeSet.addAll(provider.getTimes());
+			featureSet.addAll(provider.getFeatureList());
+			i++;
 		}
-		try {
 
-			// Externalize names
-			if (!(positionNames.isEmpty())) {
-				// Externalize units
-				String[] arrayUnits = new String[positionNames.size()];
-				for (int w = 0; w < positionNames.size(); w++) {
-					arrayUnits[w] = positionNames.get(w);
-				}
-
-				// Setup dimensions
-				long[] dimsStrings = { positionNames.size() };
+		// Remember the current time of each provider
+		previousTimes = new double[numLocations];
+		for (i = 0; i < numLocations; i++) {
+			previousTimes[i] = providers.get(i).getCurrentTime();
+		}
 
-				// Setup string datatype
-				H5Datatype datatypeString = (H5Datatype) h5File.createDatatype(
-						Datatype.CLASS_STRING, maxPositionLength,
-						Datatype.NATIVE, Datatype.NATIVE);
-				Dataset dataSet3 = h5File.createScalarDS(
-						"Simple Position Names Table", mainH5Group,
-						datatypeString, dimsStrings, null, null, 0, null);
-				dataSet3.write(arrayUnits);
+		// Externalize the times
+		numTimes = timeSet.size();
+		double[] times = new double[numTimes];
+		i = 0;
+		for (Double time : timeSet) {
+			times[i++] = time;
+		}
 
-				dataSet3.init();
+		try {
 
+			// Write the locations and the times
+			long[] dimsPosition = { numLocations, 3 };
+			Dataset positionDataset = h5File.createScalarDS(
+					positionTableName, mainH5Group,
+					HdfWriterFactory.createIntegerH5Datatype(h5File),
+					dimsPosition, null, null, 0, positionData);
+			positionDataset.init();
+			if (numTimes > 0) {
+				long[] dimsTimes = { numTimes };
+				Dataset timesDataset = h5File.createScalarDS(timesTableName,
+						mainH5Group,
+						HdfWriterFactory.createFloatH5Datatype(h5File),
+						dimsTimes, null, null, 0, times);
+				timesDataset.init();
 			}
 
-			// Only write if there are units to write!
-			if (!(unitsList.isEmpty())) {
-				// Externalize the units
-				String[] arrayUnits = new String[unitsList.size()];
-				for (int w = 0; w < unitsList.size(); w++) {
-
-					// Get the length of the units
-					maxLength = Math.max(unitsList.get(w).length(), maxLength);
-					arrayUnits[w] = unitsList.get(w);
-				}
-
-				// Setup dimensions
-				long[] dimsStrings = { unitsList.size() };
-
-				// Setup string datatype
-				H5Datatype datatypeString = (H5Datatype) h5File.createDatatype(
-						Datatype.CLASS_STRING, maxLength, Datatype.NATIVE,
-						Datatype.NATIVE);
-				Dataset dataSet3 = h5File.createScalarDS("Units Table",
-						mainH5Group, datatypeString, dimsStrings, null, null,
-						0, null);
-				dataSet3.write(arrayUnits);
-
-				dataSet3.init();
+			// Write each feature
+			for (String feature : featureSet) {
+				flag &= writeFeature(h5File, mainH5Group, feature, times,
+						providers, unitsList, unitIndices);
 			}
 
+			// Write the feature names, position names and units
+			writeStringTable(h5File, mainH5Group, featureNamesTableName,
+					new ArrayList<String>(featureSet));
+			writeStringTable(h5File, mainH5Group,
+					"Simple Position Names Table", positionNames);
+			writeStringTable(h5File, mainH5Group, "Units Table", unitsList);
+
 		} catch (Exception e) {
 			// Break and return
 			e.printStackTrace();
-			return false;
+			flag = false;
+		}
 
+		// Reset the times
+		for (i = 0; i < numLocations; i++) {
+			providers.get(i).setTime(previousTimes[i]);
 		}
 
-		return true;
+		return flag;
 
 	}
 
 	/**
-	 * Writes the Datasets for all the time steps to the group. Returns true if
-	 * the operation was successful, false otherwise.
+	 * Writes the data of one feature at all of the times and locations to the
+	 * group. The feature is stored as three datasets: the (time x location)
+	 * number of values, the values, uncertainties and positions in a table
+	 * with five columns and the index of the units of each value in the
+	 * units table. Returns true if the operation was successful, false
+	 * otherwise.
 	 * 
-	 * @param dataH5Group
-	 *            The main data group
 	 * @param h5File
 	 *            The h5file
-	 * @param provider
-	 *            The LWRGridDataProvider @ Location
+	 * @param mainH5Group
+	 *            The main data group
+	 * @param feature
+	 *            The feature
+	 * @param times
+	 *            All of the times in ascending order
+	 * @param providers
+	 *            The LWRDataProviders in the order of the locations
 	 * @param unitsList
 	 *            The list of units. Must be passed to keep the list maintained!
+	 * @param unitIndices
+	 *            The index of each unit in the list of units
 	 * @return True if successful, false otherwise.
 	 */
-	private boolean writeTimeAtFeatureSet(H5Group dataH5Group, H5File h5File,
-			LWRDataProvider provider, ArrayList<String> unitsList) {
-
-		// Iterate over the dataTree and create timesteps for each key in
-		// the tree
-		for (int w = 0; w < provider.getTimes().size(); w++) {
-
-			// Get the time
-			double time = provider.getTimes().get(w);
-
-			// Set the time in order to get the FeatureSet
-			provider.setTime(time);
+	private boolean writeFeature(H5File h5File, H5Group mainH5Group,
+			String feature, double[] times,
+			ArrayList<LWRDataProvider> providers, ArrayList<String> unitsList,
+			HashMap<String, Integer> unitIndices) {
 
-			// Create a new timeStep group based on the prefix and the
-			// timeStep
-			H5Group timeStepH5Group = HdfWriterFactory.createH5Group(h5File,
-					timeStepNamePrefix + "" + w, dataH5Group);
-
-			// Add attributes to the timeStep group
-
-			// Create attribute: time as Double
-			HdfWriterFactory.writeDoubleAttribute(h5File, timeStepH5Group,
-					"time", time);
-
-			// Create a Compound Dataset for each timeStep to represent the
-			// collection of FeatureSets. This contains the list of Feature
-			// Sets
-			for (int i = 0; i < provider.getFeaturesAtCurrentTime().size(); i++) {
-
-				// Get the FeatureSet
-				ArrayList<IData> set = provider.getDataAtCurrentTime(provider
-						.getFeatureList().get(i));
-
-				// Get the number of IDatas stored on the FeatureSet
-				int iDataSize = set.size();
-
-				// Create a 2D array n x 5
-				double[][] dataList = new double[iDataSize][5];
+		// Local Declarations
+		int numLocations = providers.size();
+		int[] counts = new int[times.length * numLocations];
+		double[] dataList = new double[5 * 64];
+		int[] headData = new int[64];
+		int numData = 0;
+
+		// Gather the data at each time and then at each location
+		for (int t = 0; t < times.length; t++) {
+			for (int l = 0; l < numLocations; l++) {
+
+				// Get the columns of data for the feature
+				LWRDataProvider provider = providers.get(l);
+				provider.setTime(times[t]);
+				double[] values = provider.getValuesAtCurrentTime(feature);
+				double[] uncertainties = provider
+						.getUncertaintiesAtCurrentTime(feature);
+				double[] positions = provider
+						.getPositionsAtCurrentTime(feature);
+				String[] units = provider.getUnitsAtCurrentTime(feature);
+				int size = values.length;
+
+				// Grow the tables if needed
+				if (numData + size > headData.length) {
+					int capacity = Math.max(numData + size,
+							headData.length * 2);
+					dataList = Arrays.copyOf(dataList, 5 * capacity);
+					headData = Arrays.copyOf(headData, capacity);
+				}
 
-				// Create a head data table
-				long[][] headData = new long[iDataSize][2];
+				// Append each value, uncertainty and position and the index
+				// of its units
+				for (int j = 0; j < size; j++) {
+					int row = 5 * (numData + j);
+					dataList[row] = values[j];
+					dataList[row + 1] = uncertainties[j];
+					dataList[row + 2] = positions[3 * j];
+					dataList[row + 3] = positions[3 * j + 1];
+					dataList[row + 4] = positions[3 * j + 2];
 
-				// Iterate over the IDatas to fill out the arrays listed
-				// above
-				for (int j = 0; j < set.size(); j++) {
-					// Get the iData at the location
-					IData iData = set.get(j);
+					// If the unitsList does not contain the units, add them!
+					Integer unitIndex = unitIndices.get(units[j]);
+					if (unitIndex == null) {
+						unitIndex = unitsList.size();
+						unitsList.add(units[j]);
+						unitIndices.put(units[j], unitIndex);
+					}
+					headData[numData + j] = unitIndex;
+				}
+				counts[t * numLocations + l] = size;
+				numData += size;
+			}
+		}
 
-					// Set value and uncertainty
-					dataList[j][0] = iData.getValue();
-					dataList[j][1] = iData.getUncertainty();
+		try {
 
-					// Get the position
-					ArrayList<Double> pos = iData.getPosition();
-					dataList[j][2] = pos.get(0).doubleValue();
-					dataList[j][3] = pos.get(1);
-					dataList[j][4] = pos.get(2);
+			// Write the number of values at each time and location
+			long[] dimsCounts = { times.length, numLocations };
+			long[] chunksCounts = { Math.min(times.length, chunkSize),
+					numLocations };
+			Dataset countsSet = h5File.createScalarDS(feature
+					+ this.indexTableString, mainH5Group,
+					HdfWriterFactory.createIntegerH5Datatype(h5File),
+					dimsCounts, null, chunksCounts, compressionLevel, counts);
+			countsSet.init();
+
+			// Write the values and the units
+			long[] dimsData = { numData, 5 };
+			long[] chunksData = { Math.min(numData, chunkSize), 5 };
+			Dataset dataSet = h5File.createScalarDS(feature
+					+ this.dataTableString, mainH5Group,
+					HdfWriterFactory.createFloatH5Datatype(h5File), dimsData,
+					null, chunksData, compressionLevel,
+					Arrays.copyOf(dataList, 5 * numData));
+			dataSet.init();
+			long[] dimsHead = { numData };
+			long[] chunksHead = { Math.min(numData, chunkSize) };
+			Dataset headSet = h5File.createScalarDS(feature
+					+ this.headTableString, mainH5Group,
+					HdfWriterFactory.createIntegerH5Datatype(h5File),
+					dimsHead, null, chunksHead, compressionLevel,
+					Arrays.copyOf(headData, numData));
+			headSet.init();
 
-					// If the unitsList does not contain the units, add them!
-					if (!unitsList.contains(iData.getUnits())) {
-						unitsList.add(iData.getUnits());
+		} catch (Exception e) {
+			// Break and return
+			e.printStackTrace();
+			return false;
+		}
 
-					}
+		// Operation successful, return true
+		return true;
 
-					// Once this is done, append to the headList. Note that
-					// this is to be externalized out of this loop in the
-					// future
-					// Set the dataList id and the unitsList id
-					headData[j][0] = j;
-					headData[j][1] = unitsList.indexOf(iData.getUnits());
+	}
 
-				}
+	/**
+	 * Writes a table of strings to the group if it is not empty.
+	 * 
+	 * @param h5File
+	 *            The h5file
+	 * @param h5Group
+	 *            The group
+	 * @param name
+	 *            The name of the table
+	 * @param strings
+	 *            The strings
+	 * @throws Exception
+	 */
+	private void writeStringTable(H5File h5File, H5Group h5Group,
+			String name, ArrayList<String> strings) throws Exception {
 
-				try {
+		// Only write if there are strings to write!
+		if (strings.isEmpty()) {
+			return;
+		}
 
-					// Calculate the dimensions of the length of each
-					// dataSet by
-					// the number of IDatas in the FeatureSet
-					long[] dimsData = { iDataSize, 5 };
-					long[] dimsHead = { iDataSize, 2 };
-
-					// Get the datatype for integer and LONG (int)
-					Datatype dataTypeDouble = HdfWriterFactory
-							.createFloatH5Datatype(h5File);
-					Datatype dataTypeLong = h5File.createDatatype(
-							Datatype.CLASS_INTEGER, 8, Datatype.NATIVE,
-							Datatype.NATIVE);
-
-					// Create the simple dataset - dataList
-					Dataset dataSet1 = h5File.createScalarDS(set.get(0)
-							.getFeature() + this.dataTableString,
-							timeStepH5Group, dataTypeDouble, dimsData, null,
-							null, 0, dataList);
-
-					// Create the simple dataset - headData
-					Dataset dataSet2 = h5File.createScalarDS(set.get(0)
-							.getFeature() + this.headTableString,
-							timeStepH5Group, dataTypeLong, dimsHead, null,
-							null, 0, headData);
-
-					dataSet1.init();
-					dataSet2.init();
-				} catch (Exception e) {
-					// Break and return
-					e.printStackTrace();
+		// Externalize the strings and get the longest one
+		String[] array = strings.toArray(new String[strings.size()]);
+		int maxLength = 0;
+		for (String string : array) {
+			maxLength = Math.max(string.length(), maxLength);
+		}
 
-					return false;
-				}
-			}
+		// Setup dimensions
+		long[] dimsStrings = { array.length };
 
-		}
+		// Setup string datatype
+		H5Datatype datatypeString = (H5Datatype) h5File.createDatatype(
+				Datatype.CLASS_STRING, maxLength, Datatype.NATIVE,
+				Datatype.NATIVE);
+		Dataset dataSet = h5File.createScalarDS(name, h5Group, datatypeString,
+				dimsStrings, null, null, 0, null);
+		dataSet.write(array);
 
-		// Operation successful, return true
-		return true;
+		dataSet.init();
 
+		return;
 	}
 
 	/*
@@ -712,7 +797,7 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 			return true;
 		}
 		// Clear the tree
-		this.lWRComponents.clear();
+		clearLocations();
 
 		// If the dataGroup is 0, return
 		if (dataH5Group.getNumberOfMembersInFile() == 0) {
@@ -764,6 +849,19 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 			}
 		}
 
+		// Files with a version use the table layout. Older files store each
+		// location in its own group.
+		Integer version = HdfReaderFactory.readIntegerAttribute(dataH5Group,
+				versionAttributeName);
+		if (version != null) {
+			if (version > dataLayoutVersion) {
+				System.err.println("LWRGridManager: Unknown data layout "
+						+ "version " + version + ".");
+				return false;
+			}
+			return readFeatureTables(dataH5Group, arrayStrings, arrayPositions);
+		}
+
 		// Iterate over ONLY the groups
 		ArrayList<H5Group> positionsMemberList = HdfReaderFactory
 				.getChildH5Groups(dataH5Group);
@@ -798,7 +896,7 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 			String name = arrayPositions[positionInfo[2]];
 
 			// Put it in the tree
-			this.lWRComponents.put(location, name);
+			putLocation(location, name);
 
 			// This is important: If there is a units table with no data in it,
 			// then there should be no positions. Flag error and exit
@@ -824,6 +922,173 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 
 	}
 
+	/**
+	 * Reads the locations and the data at every location from the tables
+	 * written by writeFeatureSets(). Returns true if the operation was
+	 * successful, false otherwise.
+	 * 
+	 * @param dataH5Group
+	 *            The main data group
+	 * @param arrayStrings
+	 *            An array of strings used to specify the unit list.
+	 * @param arrayPositions
+	 *            An array of the names at the positions.
+	 * @return True if the operation was successful, false otherwise.
+	 */
+	private boolean readFeatureTables(H5Group dataH5Group,
+			String[] arrayStrings, String[] arrayPositions) {
+
+		// Local Declarations
+		ArrayList<LWRDataProvider> providers = new ArrayList<LWRDataProvider>();
+		Dataset featureNamesSet = HdfReaderFactory.getDataset(dataH5Group,
+				featureNamesTableName);
+		Dataset timesSet = HdfReaderFactory.getDataset(dataH5Group,
+				timesTableName);
+		String[] features;
+		double[] times;
+
+		try {
+
+			// Read the locations and put them in the tree
+			Dataset positionSet = HdfReaderFactory.getDataset(dataH5Group,
+					positionTableName);
+			if (positionSet == null) {
+				System.err.println("LWRGridManager: Can't find dataset for "
+						+ "reading the positions.");
+				return false;
+			}
+			positionSet.init();
+			int[] positionData = (int[]) positionSet.getData();
+			for (int i = 0; i + 2 < positionData.length; i += 3) {
+				GridLocation location = new GridLocation(positionData[i],
+						positionData[i + 1]);
+				putLocation(location, arrayPositions[positionData[i + 2]]);
+				providers.add(location.getLWRDataProvider());
+			}
+
+			// Return if there is no data at the locations
+			if (featureNamesSet == null || timesSet == null) {
+				return true;
+			}
+			// There must be units if there is data
+			if (arrayStrings == null) {
+				return false;
+			}
+
+			// Read the features and the times
+			featureNamesSet.init();
+			features = (String[]) featureNamesSet.getData();
+			timesSet.init();
+			times = (double[]) timesSet.getData();
+
+			// Read each feature
+			for (String feature : features) {
+				if (!readFeature(dataH5Group, feature, times, providers,
+						arrayStrings)) {
+					return false;
+				}
+			}
+
+		} catch (Exception e) {
+			e.printStackTrace();
+			return false;
+		}
+
+		// Operation successful. Return true
+		return true;
+
+	}
+
+	/**
+	 * Reads the data of one feature at all of the times and locations and
+	 * adds it to the providers. Returns true if the operation was successful,
+	 * false otherwise.
+	 * 
+	 * @param dataH5Group
+	 *            The main data group
+	 * @param feature
+	 *            The feature
+	 * @param times
+	 *            All of the times in ascending order
+	 * @param providers
+	 *            The LWRDataProviders in the order of the locations
+	 * @param arrayStrings
+	 *            An array of strings used to specify the unit list.
+	 * @return True if the operation was successful, false otherwise.
+	 * @throws Exception
+	 */
+	private boolean readFeature(H5Group dataH5Group, String feature,
+			double[] times, ArrayList<LWRDataProvider> providers,
+			String[] arrayStrings) throws Exception {
+
+		// Local Declarations
+		int numLocations = providers.size();
+		Dataset countsSet = HdfReaderFactory.getDataset(dataH5Group, feature
+				+ this.indexTableString);
+		Dataset dataSet = HdfReaderFactory.getDataset(dataH5Group, feature
+				+ this.dataTableString);
+		Dataset headSet = HdfReaderFactory.getDataset(dataH5Group, feature
+				+ this.headTableString);
+
+		// Make sure that all of the tables are there
+		if (countsSet == null || dataSet == null || headSet == null) {
+			System.err.println("LWRGridManager: Can't find the datasets for "
+					+ "feature " + feature + ".");
+			return false;
+		}
+
+		// Read the tables in bulk
+		countsSet.init();
+		dataSet.init();
+		headSet.init();
+		int[] counts = (int[]) countsSet.getData();
+		double[] dataArray = (double[]) dataSet.getData();
+		int[] headArray = (int[]) headSet.getData();
+
+		// Check the sizes of the tables
+		int numData = 0;
+		for (int count : counts) {
+			numData += count;
+		}
+		if (counts.length != times.length * numLocations
+				|| dataArray.length != 5 * numData
+				|| headArray.length != numData) {
+			System.err.println("LWRGridManager: The datasets for feature "
+					+ feature + " have the wrong size.");
+			return false;
+		}
+
+		// Split the rows at each time and location into the columns that the
+		// provider stores
+		int offset = 0;
+		for (int t = 0; t < times.length; t++) {
+			for (int l = 0; l < numLocations; l++) {
+				int size = counts[t * numLocations + l];
+				if (size == 0) {
+					continue;
+				}
+				double[] values = new double[size];
+				double[] uncertainties = new double[size];
+				double[] positions = new double[3 * size];
+				String[] units = new String[size];
+				for (int j = 0; j < size; j++) {
+					int row = 5 * (offset + j);
+					values[j] = dataArray[row];
+					uncertainties[j] = dataArray[row + 1];
+					positions[3 * j] = dataArray[row + 2];
+					positions[3 * j + 1] = dataArray[row + 3];
+					positions[3 * j + 2] = dataArray[row + 4];
+					units[j] = arrayStrings[headArray[offset + j]];
+				}
+				providers.get(l).addData(feature, times[t], values,
+						uncertainties, positions, units);
+				offset += size;
+			}
+		}
+
+		return true;
+	}
+
 	/**
 	 * Reads the time steps at a feature and adds the time steps to the
 	 * GridLocation. Returns true if the operation was successful, false
@@ -888,42 +1153,30 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 				double[] dataArray = (double[]) dataListData;
 				long[] headArray = (long[]) headListData;
 
-				// Iterate over the list and grab values as necessary
-
-				// Counts the iterations in the following value grabber
-				int counter = 0;
-
-				// Iterate over the values and create the correct LWRData
-				// Iterate by columnsize
-				for (int l = 0; l < dataArray.length; l += dataColSize) {
-
-					// Create the data and setup basic attributes
-					LWRData lwrdata = new LWRData(featureName);
-					lwrdata.setValue(dataArray[l]);
-					lwrdata.setUncertainty(dataArray[l + 1]);
-
-					// This states: At position X in the array of string
-					// units, give me the headArray's second (or last)
-					// column value for each row.
-					// The last column value should represent the unitsID,
-					// or the id to represent the units
-					lwrdata.setUnits(arrayStrings[(int) headArray[(int) ((counter) * headColSize) + 1]]);
-
-					// Setup position
-					ArrayList<Double> positionss = new ArrayList<Double>();
-					positionss.add(dataArray[l + 2]);
-					positionss.add(dataArray[l + 3]);
-					positionss.add(dataArray[l + 4]);
-
-					// Set position
-					lwrdata.setPosition(positionss);
-
-					// Add the lwrdata to the location
-					provider.addData(lwrdata, time);
-
-					counter++;
+				// Split the rows of the data and head tables into the columns
+				// that the provider stores. Each row of the data table is
+				// value, uncertainty, x, y, z. The last column of each row of
+				// the head table is the index of the units in the array of
+				// units.
+				int numData = (int) (dataArray.length / dataColSize);
+				double[] values = new double[numData];
+				double[] uncertainties = new double[numData];
+				double[] positions = new double[3 * numData];
+				String[] units = new String[numData];
+				for (int l = 0; l < numData; l++) {
+					int row = (int) (l * dataColSize);
+					values[l] = dataArray[row];
+					uncertainties[l] = dataArray[row + 1];
+					positions[3 * l] = dataArray[row + 2];
+					positions[3 * l + 1] = dataArray[row + 3];
+					positions[3 * l + 2] = dataArray[row + 4];
+					units[l] = arrayStrings[(int) headArray[(int) (l * headColSize) + 1]];
 				}
 
+				// Add the data to the location in one block
+				provider.addData(featureName, time, values, uncertainties,
+						positions, units);
+
 			}
 
 		}
@@ -956,7 +1209,7 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 		this.size = size.intValue();
 
 		// Reset map
-		this.lWRComponents.clear();
+		clearLocations();
 
 		return true;
 
@@ -981,15 +1234,34 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 		if (location == null) {
 			return null;
 		}
-		// Iterate over a map
-		for (Map.Entry<GridLocation, String> entry : this.lWRComponents
-				.entrySet()) {
+		return getDataProviderAtLocation(location.getRow(),
+				location.getColumn());
 
-			// If the key exists, return
-			if (location.getRow() == entry.getKey().getRow()
-					&& location.getColumn() == entry.getKey().getColumn()) {
-				return entry.getKey().getLWRDataProvider();
-			}
+	}
+
+	/**
+	 * <p>
+	 * Returns the data provider at the row and column or null if it does not
+	 * exist.
+	 * </p>
+	 * 
+	 * @param row
+	 *            <p>
+	 *            The row.
+	 *            </p>
+	 * @param column
+	 *            <p>
+	 *            The column.
+	 *            </p>
+	 * @return <p>
+	 *         The provider at that location
+	 *         </p>
+	 */
+	public LWRDataProvider getDataProviderAtLocation(int row, int column) {
+
+		// Look up the location on the grid
+		if (isOnGrid(row, column) && this.locationGrid[row][column] != null) {
+			return this.locationGrid[row][column].getLWRDataProvider();
 		}
 
 		// Not found!
@@ -1016,17 +1288,12 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 		// Local Declarations
 		ArrayList<GridLocation> locations = new ArrayList<GridLocation>();
 
-		if (name == null) {
+		if (name == null || !this.nameIndex.containsKey(name)) {
 			return locations;
 		}
-		// Iterate over a map
-		for (Map.Entry<GridLocation, String> entry : this.lWRComponents
-				.entrySet()) {
-
-			// If the key exists, return
-			if (name.equals(entry.getValue())) {
-				locations.add((GridLocation) entry.getKey().clone());
-			}
+		// Copy the locations from the index
+		for (GridLocation location : this.nameIndex.get(name)) {
+			locations.add((GridLocation) location.clone());
 		}
 
 		// Return list
@@ -1034,4 +1301,111 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 
 	}
 
+	/**
+	 * <p>
+	 * Returns true if the row and column are on the grid.
+	 * </p>
+	 * 
+	 * @param row
+	 *            <p>
+	 *            The row.
+	 *            </p>
+	 * @param column
+	 *            <p>
+	 *            The column.
+	 *            </p>
+	 * @return <p>
+	 *         True if the location is on the grid, false otherwise.
+	 *         </p>
+	 */
+	private boolean isOnGrid(int row, int column) {
+		return row >= 0 && row < this.size && column >= 0
+				&& column < this.size;
+	}
+
+	/**
+	 * <p>
+	 * Removes all of the locations from the tree and resets the location
+	 * indices to the current size of the grid.
+	 * </p>
+	 * 
+	 */
+	private void clearLocations() {
+
+		this.lWRComponents.clear();
+		this.nameIndex.clear();
+		this.locationGrid = new GridLocation[this.size][this.size];
+		this.nameGrid = new String[this.size][this.size];
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Puts a location in the tree and in the location indices. Locations that
+	 * are not on the grid are only stored in the tree, which can happen if
+	 * they are read from a file with a smaller size.
+	 * </p>
+	 * 
+	 * @param location
+	 *            <p>
+	 *            The location.
+	 *            </p>
+	 * @param name
+	 *            <p>
+	 *            The name of the component at the location.
+	 *            </p>
+	 */
+	private void putLocation(GridLocation location, String name) {
+
+		// Replace anything that is already at the location
+		removeLocation(location);
+
+		// Add it to the tree and the indices
+		this.lWRComponents.put(location, name);
+		TreeSet<GridLocation> locations = this.nameIndex.get(name);
+		if (locations == null) {
+			locations = new TreeSet<GridLocation>();
+			this.nameIndex.put(name, locations);
+		}
+		locations.add(location);
+		if (isOnGrid(location.getRow(), location.getColumn())) {
+			this.locationGrid[location.getRow()][location.getColumn()] = location;
+			this.nameGrid[location.getRow()][location.getColumn()] = name;
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Removes a location from the tree and from the location indices.
+	 * </p>
+	 * 
+	 * @param location
+	 *            <p>
+	 *            The location.
+	 *            </p>
+	 */
+	private void removeLocation(GridLocation location) {
+
+		// Remove it from the tree and find its name
+		String name = this.lWRComponents.remove(location);
+
+		// Remove it from the indices
+		if (name != null) {
+			TreeSet<GridLocation> locations = this.nameIndex.get(name);
+			locations.remove(location);
+			if (locations.isEmpty()) {
+				this.nameIndex.remove(name);
+			}
+		}
+		if (isOnGrid(location.getRow(), location.getColumn())) {
+			this.locationGrid[location.getRow()][location.getColumn()] = null;
+			this.nameGrid[location.getRow()][location.getColumn()] = null;
+		}
+
+		return;
+	}
+
 }
\ No newline at end of file
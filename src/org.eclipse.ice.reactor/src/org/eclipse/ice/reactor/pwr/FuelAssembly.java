@@ -350,8 +350,7 @@ public class FuelAssembly extends PWRAssembly {
 		String name = "";
 
 		// Get the component name
-		name = this.tubeGridManager.getComponentName(new GridLocation(row,
-				column));
+		name = this.tubeGridManager.getComponentName(row, column);
 
 		// Return the component by name
 		return (Tube) this.getTubeByName(name);
@@ -698,8 +697,7 @@ public class FuelAssembly extends PWRAssembly {
 	public LWRDataProvider getTubeDataProviderAtLocation(int row, int column) {
 
 		// Pass through
-		return this.tubeGridManager.getDataProviderAtLocation(new GridLocation(
-				row, column));
+		return this.tubeGridManager.getDataProviderAtLocation(row, column);
 
 	}
 
@@ -296,8 +296,7 @@ public class PWRAssembly extends LWRComposite {
 		String name = "";
 
 		// Get the name
-		name = this.lWRRodGridManager.getComponentName(new GridLocation(row,
-				column));
+		name = this.lWRRodGridManager.getComponentName(row, column);
 
 		// Return the component
 		return (LWRRod) this.getLWRRodByName(name);
@@ -703,8 +702,7 @@ public class PWRAssembly extends LWRComposite {
 	 */
 	public LWRDataProvider getLWRRodDataProviderAtLocation(int row, int column) {
 
-		return this.lWRRodGridManager
-				.getDataProviderAtLocation(new GridLocation(row, column));
+		return this.lWRRodGridManager.getDataProviderAtLocation(row, column);
 
 	}
 
@@ -827,7 +827,7 @@ public class PressurizedWaterReactor extends LWReactor {
 		String name = "";
 
 		// Get the name
-		name = manager.getComponentName(new GridLocation(row, column));
+		name = manager.getComponentName(row, column);
 
 		// Return the component
 		return getAssemblyByName(type, name);
@@ -960,7 +960,7 @@ public class PressurizedWaterReactor extends LWReactor {
 		LWRGridManager manager = managers.get(type);
 
 		// Return the provider
-		return manager.getDataProviderAtLocation(new GridLocation(row, column));
+		return manager.getDataProviderAtLocation(row, column);
 
 	}
 
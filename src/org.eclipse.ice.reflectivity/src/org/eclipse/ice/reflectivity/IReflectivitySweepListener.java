@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation -
+ *   Jay Jay Billings
+ *******************************************************************************/
+package org.eclipse.ice.reflectivity;
+
+/**
+ * This interface is implemented by classes that receive the reflectivity
+ * profiles of a {@link ReflectivitySweep} as they are calculated. The sweep
+ * never calls a listener from more than one thread at a time, but it does not
+ * call it in the order of the configurations.
+ *
+ * @author Jay Jay Billings
+ *
+ */
+public interface IReflectivitySweepListener {
+
+	/**
+	 * This operation is called when the reflectivity profile of one
+	 * configuration of the sweep has been calculated.
+	 *
+	 * @param configuration
+	 *            the index of the configuration in the sweep
+	 * @param parameterValues
+	 *            the values of the swept parameters for this configuration, in
+	 *            the order that the parameters were added to the sweep
+	 * @param profile
+	 *            the reflectivity and scattering density profile
+	 * @param chiSquared
+	 *            the mean squared weighted residual against the measured data,
+	 *            or NaN if there is no measured data
+	 */
+	public void profileCalculated(int configuration, double[] parameterValues,
+			ReflectivityProfile profile, double chiSquared);
+
+}
@@ -11,8 +11,11 @@
  *******************************************************************************/
 package org.eclipse.ice.reflectivity;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
 import org.apache.commons.math.MathException;
-import org.apache.commons.math.complex.Complex;
 import org.apache.commons.math.special.Erf;
 
 /**
@@ -43,6 +46,24 @@ public class ReflectivityCalculator {
 	 */
 	private static final double cE = 1.665;
 
+	/**
+	 * The number of tiles times the number of wave vector points at and above
+	 * which the reflectivity is computed in parallel.
+	 */
+	private static final int parallelThreshold = 1 << 15;
+
+	/**
+	 * The number of tiles times the number of wave vector points below which a
+	 * range of the wave vector is not split any further.
+	 */
+	private static final int taskSize = 1 << 12;
+
+	/**
+	 * The fork/join pool shared by all calculators. It is created the first
+	 * time that a wave vector is large enough to be split.
+	 */
+	private static ForkJoinPool pool;
+
 	/**
 	 * This operation returns the value of the squared modulus of the specular
 	 * reflectivity for a single wave vector Q.
@@ -63,61 +84,333 @@ public class ReflectivityCalculator {
 		double modSqrdSpecRef = 0.0;
 
 		if (wavelength > 0.0) {
-			// Variables only needed if we are going to do the work, i.e. -
-			// wavelength > 0.0.
-			Tile tile;
-			Complex aNm1Sq, fNm1N, rNm1N = new Complex(0.0, 0.0), one = new Complex(
-					1.0, 0.0), qN = new Complex(0.0, 0.0), rNNp1 = new Complex(
-					0.0, 0.0);
-			// Get the bottom tile
-			int nLayers = tiles.length;
-			tile = tiles[nLayers - 1];
-			// Starting point--no reflected beam in bottom-most (bulk) layer
-			double qCSq = 16.0 * Math.PI * tile.scatteringLength;
-			double muLAbs = tile.trueAbsLength;
-			double mulInc = tile.incAbsLength;
-			double thickness = tile.thickness;
-			// Setup other values for the problem
-			double betaNm1 = 4.0 * Math.PI * (muLAbs + mulInc / wavelength);
-			Complex qNm1 = new Complex(waveVectorQ * waveVectorQ - qCSq, -2.0
-					* betaNm1);
-			qNm1 = qNm1.sqrt();
-			// Loop through to calculate recursion formula described in Parratt.
-			// Start at the bottom and work up.
-			for (int i = nLayers - 1; i > 0; i--) {
-				// Get the tile above tile[i] (started at the bottom
-				tile = tiles[i - 1];
-				// Calculate the normal component of Q for layer and layer-1
-				qN = qNm1;
-				qCSq = 16.0 * Math.PI * tile.scatteringLength;
-				muLAbs = tile.trueAbsLength;
-				mulInc = tile.incAbsLength;
-				thickness = tile.thickness;
-				betaNm1 = 4.0 * Math.PI * (muLAbs + mulInc / wavelength);
-				qNm1 = new Complex(waveVectorQ * waveVectorQ - qCSq, -2.0
-						* betaNm1);
-				qNm1 = qNm1.sqrt();
-				// Calculate phase factor, e^(-0.5*d*qNm1)
-				aNm1Sq = (new Complex(qNm1.getImaginary(), qNm1.getReal())
-						.multiply(-0.5 * thickness)).exp();
-				// CDiv(qNm1-qN,qNm1+qN)
-				fNm1N = qNm1.subtract(qN).divide(qNm1.add(qN));
-				// Calculate the reflectivity amplitude.
-				// CMult(aNm1Sq, CMult(aNm1Sq, CDiv(CAdd(rNNp1, fNm1N),
-				// CAdd(CMult(rNNp1, fNm1N), CReal(1)))))
-				Complex y = rNNp1.multiply(fNm1N).add(one);
-				Complex z = rNNp1.add(fNm1N);
-				rNm1N = aNm1Sq.multiply(aNm1Sq).multiply(z.divide((y)));
-				// Carry over to the next iteration
-				rNNp1 = rNm1N;
+			double[][] layers = getLayerParameters(wavelength, tiles);
+			modSqrdSpecRef = getModSqrdSpecRef(waveVectorQ, layers[0],
+					layers[1], layers[2], new double[2]);
+		}
+
+		return modSqrdSpecRef;
+	}
+
+	/**
+	 * This operation returns the squared modulus of the specular reflectivity
+	 * for every value of a wave vector. The parameters of the tiles are only
+	 * computed once and large wave vectors are split across the available
+	 * processors. Each value is the same as the one returned by
+	 * {@link #getModSqrdSpecRef(double, double, Tile[])}.
+	 * 
+	 * @param waveVector
+	 *            the values of the wave vector
+	 * @param wavelength
+	 *            the wavelength of the incident neutrons
+	 * @param tiles
+	 *            the list of Tiles that contains the physical parameters needed
+	 *            for the calculation, including the scattering densities,
+	 *            absorption parameters and thicknesses.
+	 * @return the squared modulus of the specular reflectivity for each value
+	 *         of the wave vector
+	 */
+	public double[] getModSqrdSpecRef(double[] waveVector, double wavelength,
+			Tile[] tiles) {
+
+		double[] modSqrdSpecRef = new double[waveVector.length];
+
+		if (wavelength > 0.0 && waveVector.length > 0 && tiles.length > 0) {
+			double[][] layers = getLayerParameters(wavelength, tiles);
+			ParrattTask task = new ParrattTask(waveVector, modSqrdSpecRef,
+					layers, 0, waveVector.length, Math.max(1, taskSize
+							/ tiles.length));
+			if ((long) waveVector.length * tiles.length >= parallelThreshold
+					&& Runtime.getRuntime().availableProcessors() > 1) {
+				// Split the work in the pool of the caller if it already runs
+				// in one, such as during a parameter sweep
+				if (ForkJoinTask.inForkJoinPool()) {
+					task.invoke();
+				} else {
+					getPool().invoke(task);
+				}
+			} else {
+				task.compute();
 			}
-			modSqrdSpecRef = rNm1N.getReal() * rNm1N.getReal()
-					+ rNm1N.getImaginary() * rNm1N.getImaginary();
 		}
 
 		return modSqrdSpecRef;
 	}
 
+	/**
+	 * This operation computes the parameters of each tile that do not depend on
+	 * the wave vector: the square of the critical wave vector, the imaginary
+	 * part of the squared normal wave vector due to absorption and the factor
+	 * for the phase across the tile.
+	 * 
+	 * @param wavelength
+	 *            the wavelength of the incident neutrons
+	 * @param tiles
+	 *            the tiles
+	 * @return the three arrays of parameters, in that order
+	 */
+	private double[][] getLayerParameters(double wavelength, Tile[] tiles) {
+
+		int nLayers = tiles.length;
+		double[][] layers = new double[3][nLayers];
+
+		for (int i = 0; i < nLayers; i++) {
+			Tile tile = tiles[i];
+			double betaNm1 = 4.0 * Math.PI
+					* (tile.trueAbsLength + tile.incAbsLength / wavelength);
+			layers[0][i] = 16.0 * Math.PI * tile.scatteringLength;
+			layers[1][i] = -2.0 * betaNm1;
+			layers[2][i] = -0.5 * tile.thickness;
+		}
+
+		return layers;
+	}
+
+	/**
+	 * This operation computes the squared modulus of the specular reflectivity
+	 * for a single wave vector with the recursion formula described in Parratt.
+	 * The complex numbers are stored as pairs of doubles and each operation on
+	 * them is done in the same order as in
+	 * org.apache.commons.math.complex.Complex 2.1, including the special cases
+	 * of square roots of and division by zero, so that the results match those
+	 * computed with Complex for finite inputs.
+	 * 
+	 * @param waveVectorQ
+	 *            the value of the wave vector
+	 * @param qCSq
+	 *            the square of the critical wave vector of each tile
+	 * @param absorption
+	 *            the imaginary part of the squared normal wave vector of each
+	 *            tile
+	 * @param phase
+	 *            the phase factor of each tile, -0.5 times its thickness
+	 * @param result
+	 *            an array of length 2 for the results of the complex square
+	 *            roots and divisions
+	 * @return the squared modulus of the specular reflectivity
+	 */
+	private static double getModSqrdSpecRef(double waveVectorQ, double[] qCSq,
+			double[] absorption, double[] phase, double[] result) {
+
+		// Starting point--no reflected beam in bottom-most (bulk) layer
+		int nLayers = qCSq.length;
+		double qSq = waveVectorQ * waveVectorQ;
+		double rNNp1Re = 0.0, rNNp1Im = 0.0;
+		sqrt(qSq - qCSq[nLayers - 1], absorption[nLayers - 1], result);
+		double qNm1Re = result[0], qNm1Im = result[1];
+
+		// Loop through to calculate recursion formula described in Parratt.
+		// Start at the bottom and work up.
+		for (int i = nLayers - 1; i > 0; i--) {
+			// Calculate the normal component of Q for layer and layer-1
+			double qNRe = qNm1Re, qNIm = qNm1Im;
+			sqrt(qSq - qCSq[i - 1], absorption[i - 1], result);
+			qNm1Re = result[0];
+			qNm1Im = result[1];
+			// Calculate phase factor, e^(-0.5*d*qNm1)
+			double expReal = Math.exp(qNm1Im * phase[i - 1]);
+			double expImaginary = qNm1Re * phase[i - 1];
+			double aRe = expReal * Math.cos(expImaginary);
+			double aIm = expReal * Math.sin(expImaginary);
+			// CDiv(qNm1-qN,qNm1+qN)
+			divide(qNm1Re - qNRe, qNm1Im - qNIm, qNm1Re + qNRe, qNm1Im + qNIm,
+					result);
+			double fRe = result[0], fIm = result[1];
+			// Calculate the reflectivity amplitude.
+			// CMult(aNm1Sq, CMult(aNm1Sq, CDiv(CAdd(rNNp1, fNm1N),
+			// CAdd(CMult(rNNp1, fNm1N), CReal(1)))))
+			double yRe = (rNNp1Re * fRe - rNNp1Im * fIm) + 1.0;
+			double yIm = (rNNp1Re * fIm + rNNp1Im * fRe) + 0.0;
+			divide(rNNp1Re + fRe, rNNp1Im + fIm, yRe, yIm, result);
+			double aSqRe = aRe * aRe - aIm * aIm;
+			double aSqIm = aRe * aIm + aIm * aRe;
+			// Carry over to the next iteration
+			rNNp1Re = aSqRe * result[0] - aSqIm * result[1];
+			rNNp1Im = aSqRe * result[1] + aSqIm * result[0];
+		}
+
+		return rNNp1Re * rNNp1Re + rNNp1Im * rNNp1Im;
+	}
+
+	/**
+	 * This operation computes the square root of a complex number the same way
+	 * as Complex.sqrt().
+	 * 
+	 * @param real
+	 *            the real part of the number
+	 * @param imaginary
+	 *            the imaginary part of the number
+	 * @param result
+	 *            OUTPUT - the real and imaginary parts of the square root
+	 */
+	private static void sqrt(double real, double imaginary, double[] result) {
+
+		if (real == 0.0 && imaginary == 0.0) {
+			result[0] = 0.0;
+			result[1] = 0.0;
+			return;
+		}
+
+		// Compute the modulus without overflow
+		double abs;
+		if (Math.abs(real) < Math.abs(imaginary)) {
+			double q = real / imaginary;
+			abs = Math.abs(imaginary) * Math.sqrt(1 + q * q);
+		} else if (real == 0.0) {
+			abs = Math.abs(imaginary);
+		} else {
+			double q = imaginary / real;
+			abs = Math.abs(real) * Math.sqrt(1 + q * q);
+		}
+
+		double t = Math.sqrt((Math.abs(real) + abs) / 2.0);
+		if (real >= 0.0) {
+			result[0] = t;
+			result[1] = imaginary / (2.0 * t);
+		} else {
+			result[0] = Math.abs(imaginary) / (2.0 * t);
+			result[1] = (imaginary >= 0.0) ? t : -t;
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation divides two complex numbers the same way as
+	 * Complex.divide().
+	 * 
+	 * @param real
+	 *            the real part of the numerator
+	 * @param imaginary
+	 *            the imaginary part of the numerator
+	 * @param c
+	 *            the real part of the denominator
+	 * @param d
+	 *            the imaginary part of the denominator
+	 * @param result
+	 *            OUTPUT - the real and imaginary parts of the quotient
+	 */
+	private static void divide(double real, double imaginary, double c,
+			double d, double[] result) {
+
+		if (c == 0.0 && d == 0.0) {
+			result[0] = Double.NaN;
+			result[1] = Double.NaN;
+		} else if (Math.abs(c) < Math.abs(d)) {
+			double q = c / d;
+			double denominator = c * q + d;
+			result[0] = (real * q + imaginary) / denominator;
+			result[1] = (imaginary * q - real) / denominator;
+		} else {
+			double q = d / c;
+			double denominator = d * q + c;
+			result[0] = (imaginary * q + real) / denominator;
+			result[1] = (imaginary - real * q) / denominator;
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation returns the fork/join pool that is shared by all
+	 * calculators and sweeps, creating it the first time that it is needed.
+	 * 
+	 * @return the pool
+	 */
+	static synchronized ForkJoinPool getPool() {
+		if (pool == null) {
+			pool = new ForkJoinPool();
+		}
+		return pool;
+	}
+
+	/**
+	 * This class computes the squared modulus of the specular reflectivity for
+	 * a range of the wave vector, splitting the range in half until it is
+	 * small enough.
+	 * 
+	 * @author Jay Jay Billings
+	 *
+	 */
+	private static class ParrattTask extends RecursiveAction {
+
+		/**
+		 * The serial version ID
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The wave vector
+		 */
+		private final double[] waveVector;
+
+		/**
+		 * The array that holds the results for the whole wave vector
+		 */
+		private final double[] modSqrdSpecRef;
+
+		/**
+		 * The parameters of the tiles from getLayerParameters()
+		 */
+		private final double[][] layers;
+
+		/**
+		 * The first index and one past the last index of the range
+		 */
+		private final int first, last;
+
+		/**
+		 * The number of points below which the range is not split
+		 */
+		private final int grain;
+
+		/**
+		 * The constructor
+		 * 
+		 * @param waveVector
+		 *            the wave vector
+		 * @param modSqrdSpecRef
+		 *            the array for the results
+		 * @param layers
+		 *            the parameters of the tiles
+		 * @param first
+		 *            the first index of the range
+		 * @param last
+		 *            one past the last index of the range
+		 * @param grain
+		 *            the number of points below which the range is not split
+		 */
+		public ParrattTask(double[] waveVector, double[] modSqrdSpecRef,
+				double[][] layers, int first, int last, int grain) {
+			this.waveVector = waveVector;
+			this.modSqrdSpecRef = modSqrdSpecRef;
+			this.layers = layers;
+			this.first = first;
+			this.last = last;
+			this.grain = grain;
+		}
+
+		/**
+		 * This operation computes the range or splits it.
+		 */
+		@Override
+		protected void compute() {
+			if (last - first > grain) {
+				int middle = (first + last) >>> 1;
+				invokeAll(new ParrattTask(waveVector, modSqrdSpecRef, layers,
+						first, middle, grain), new ParrattTask(waveVector,
+						modSqrdSpecRef, layers, middle, last, grain));
+			} else {
+				double[] result = new double[2];
+				for (int i = first; i < last; i++) {
+					modSqrdSpecRef[i] = getModSqrdSpecRef(waveVector[i],
+							layers[0], layers[1], layers[2], result);
+				}
+			}
+			return;
+		}
+	}
+
 	/**
 	 * This operation convolutes the data in refFit with a Gaussian resolution
 	 * function in q, calculated from theta, delThe, and delLamOLam.
@@ -651,19 +944,19 @@ public class ReflectivityCalculator {
 					+ waveVecStep * ((double) i);
 		}
 
-		// Create a temporary array to hold the extended reflectivity.
-		double[] tempReflectivity = new double[numPoints + numLowPoints
-				+ numHighPoints];
 		// Generate reflectivity values for convolution.
 		// Calculate perfect-resolution reflectivity on extended wave vector
+		double[] effWaveVector = new double[tempWaveVector.length];
 		for (int i = 0; i < numPoints + numLowPoints + numHighPoints; i++) {
 			if (tempWaveVector[i] < 1.0e-10) {
 				qEff = 1.0e-10;
 			} else {
 				qEff = tempWaveVector[i];
 			}
-			tempReflectivity[i] = getModSqrdSpecRef(qEff, wavelength, tiles);
+			effWaveVector[i] = qEff;
 		}
+		double[] tempReflectivity = getModSqrdSpecRef(effWaveVector,
+				wavelength, tiles);
 
 		// Convolve with instrumental resolution
 		convolute(tempWaveVector, deltaQ0, deltaQ1ByQ, wavelength, numPoints,
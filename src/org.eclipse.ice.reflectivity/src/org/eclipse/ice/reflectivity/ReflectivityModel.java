@@ -12,14 +12,20 @@
  *******************************************************************************/
 package org.eclipse.ice.reflectivity;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.util.ArrayList;
 
 import javax.xml.bind.annotation.XmlRootElement;
 
 import org.eclipse.core.resources.IFile;
+import org.apache.commons.math.MathException;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.ice.datastructures.ICEObject.ListComponent;
 import org.eclipse.ice.datastructures.form.AllowedValueType;
@@ -48,6 +54,12 @@ public class ReflectivityModel extends Model {
 	 */
 	private final String processActionName = "Calculate Reflectivity";
 
+	/**
+	 * The process action name for sweeping the parameters of the slabs and
+	 * fitting them to measured data.
+	 */
+	private final String sweepActionName = "Sweep Reflectivity";
+
 	/**
 	 * Identification number for the component that contains the parameters.
 	 */
@@ -97,23 +109,8 @@ public class ReflectivityModel extends Model {
 
 			// Get and load the wave vector and related information
 
-			ListComponent<Material> matList = (ListComponent<Material>) form
-					.getComponent(2);
-			ArrayList<Slab> slabs = new ArrayList<Slab>();
-
 			// Create the slabs from the materials
-			for (Material mat : matList) {
-				Slab slab = new Slab();
-				slab.thickness = mat.getProperty("Thickness (A)");
-				slab.interfaceWidth = mat.getProperty("Roughness (A)");
-				slab.scatteringLength = mat
-						.getProperty(Material.SCAT_LENGTH_DENSITY);
-				slab.trueAbsLength = mat
-						.getProperty(Material.MASS_ABS_COHERENT);
-				slab.incAbsLength = mat
-						.getProperty(Material.MASS_ABS_INCOHERENT);
-				slabs.add(slab);
-			}
+			ArrayList<Slab> slabs = getSlabs();
 
 			// Calculate the reflectivity
 			ReflectivityCalculator calculator = new ReflectivityCalculator();
@@ -123,6 +120,8 @@ public class ReflectivityModel extends Model {
 			// Write the files
 
 			retVal = FormStatus.InfoError;
+		} else if (actionName.equals(sweepActionName)) {
+			retVal = sweep();
 		} else {
 			retVal = super.process(actionName);
 		}
@@ -194,6 +193,72 @@ public class ReflectivityModel extends Model {
 				+ "roughness per material layer.");
 		paramComponent.addEntry(numLayersEntry);
 
+		// Add an entry for the wavelength
+		Entry wavelengthEntry = new Entry() {
+			@Override
+			protected void setup() {
+				allowedValueType = AllowedValueType.Continuous;
+				allowedValues.add("0.01");
+				allowedValues.add("100.0");
+				defaultValue = "5.0";
+				return;
+			}
+		};
+		wavelengthEntry.setId(3);
+		wavelengthEntry.setName("Wavelength (A)");
+		wavelengthEntry.setDescription("The wavelength of the incident "
+				+ "neutrons.");
+		paramComponent.addEntry(wavelengthEntry);
+
+		// Add entries for the terms of the Q resolution
+		Entry deltaQ0Entry = new Entry() {
+			@Override
+			protected void setup() {
+				allowedValueType = AllowedValueType.Continuous;
+				allowedValues.add("0.0");
+				allowedValues.add("1.0");
+				defaultValue = "0.0";
+				return;
+			}
+		};
+		deltaQ0Entry.setId(4);
+		deltaQ0Entry.setName("dQ0");
+		deltaQ0Entry.setDescription("The zeroth order term of the Q "
+				+ "resolution.");
+		paramComponent.addEntry(deltaQ0Entry);
+		Entry deltaQ1ByQEntry = new Entry() {
+			@Override
+			protected void setup() {
+				allowedValueType = AllowedValueType.Continuous;
+				allowedValues.add("0.0");
+				allowedValues.add("1.0");
+				defaultValue = "0.0";
+				return;
+			}
+		};
+		deltaQ1ByQEntry.setId(5);
+		deltaQ1ByQEntry.setName("dQ1/Q");
+		deltaQ1ByQEntry.setDescription("The first order term of the Q "
+				+ "resolution.");
+		paramComponent.addEntry(deltaQ1ByQEntry);
+
+		// Add an entry for the parameters of the sweep
+		Entry sweepEntry = new Entry() {
+			@Override
+			protected void setup() {
+				allowedValueType = AllowedValueType.Undefined;
+				defaultValue = "";
+				return;
+			}
+		};
+		sweepEntry.setId(6);
+		sweepEntry.setName("Parameter Sweep");
+		sweepEntry.setDescription("The slab properties to sweep, separated "
+				+ "by semicolons. Each one is slab,property,min,max,count "
+				+ "where the property is Thickness, Roughness or "
+				+ "ScatteringLength and slab 0 is the top layer.");
+		paramComponent.addEntry(sweepEntry);
+
 		// Configure a list of property names for the materials
 		ArrayList<String> names = new ArrayList<String>();
 		names.add("Material ID");
@@ -275,10 +340,239 @@ public class ReflectivityModel extends Model {
 		// Put the action name in the form so that the reflectivity can be
 		// calculated.
 		allowedActions.add(0, processActionName);
+		allowedActions.add(1, sweepActionName);
 
 		return;
 	}
 
+	/**
+	 * This operation creates one slab for each material in the material list.
+	 *
+	 * @return the slabs, starting with the top layer
+	 */
+	private ArrayList<Slab> getSlabs() {
+
+		// Local Declarations
+		ListComponent<Material> matList = (ListComponent<Material>) form
+				.getComponent(matListId);
+		ArrayList<Slab> slabs = new ArrayList<Slab>();
+
+		// Create the slabs from the materials
+		for (Material mat : matList) {
+			Slab slab = new Slab();
+			slab.thickness = mat.getProperty("Thickness (A)");
+			slab.interfaceWidth = mat.getProperty("Roughness (A)");
+			slab.scatteringLength = mat
+					.getProperty(Material.SCAT_LENGTH_DENSITY);
+			slab.trueAbsLength = mat.getProperty(Material.MASS_ABS_COHERENT);
+			slab.incAbsLength = mat.getProperty(Material.MASS_ABS_INCOHERENT);
+			slabs.add(slab);
+		}
+
+		return slabs;
+	}
+
+	/**
+	 * This operation sweeps the slab properties listed in the parameters
+	 * component and writes the reflectivity of every configuration to a CSV
+	 * file in the project as it is calculated. If the wave vector file also
+	 * contains measured reflectivity in its second column, and optionally its
+	 * uncertainty in the third, each configuration is compared to it and the
+	 * best one is refined with a least squares fit that is written as the
+	 * last row of the file.
+	 *
+	 * @return FormStatus.Processed if the sweep was written, InfoError
+	 *         otherwise
+	 */
+	private FormStatus sweep() {
+
+		// Local Declarations
+		DataComponent params = (DataComponent) form.getComponent(paramsCompId);
+		ArrayList<Slab> slabList = getSlabs();
+		Slab[] slabs = slabList.toArray(new Slab[slabList.size()]);
+		ArrayList<double[]> rows = new ArrayList<double[]>();
+		BufferedWriter writer = null;
+
+		// The sweep needs a project to read the wave vector and write results
+		if (project == null) {
+			System.err.println("ReflectivityModel Error: "
+					+ "A project is required to sweep the reflectivity.");
+			return FormStatus.InfoError;
+		}
+
+		try {
+			// Get the roughness parameter, dQ, dQ/Q and the wavelength
+			int numRough = (int) Double.parseDouble(params.retrieveEntry(
+					"Roughness").getValue());
+			double wavelength = Double.parseDouble(params.retrieveEntry(
+					"Wavelength (A)").getValue());
+			double deltaQ0 = Double.parseDouble(params.retrieveEntry("dQ0")
+					.getValue());
+			double deltaQ1ByQ = Double.parseDouble(params.retrieveEntry(
+					"dQ1/Q").getValue());
+
+			// Load the wave vector and any measured data
+			IFile waveVectorFile = project.getFile(params.retrieveEntry(
+					"Wave Vector (Q) file").getValue());
+			BufferedReader reader = new BufferedReader(new InputStreamReader(
+					waveVectorFile.getContents()));
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (!line.isEmpty() && !line.startsWith("#")) {
+					String[] values = line.split(",");
+					double[] row = new double[values.length];
+					for (int i = 0; i < values.length; i++) {
+						row[i] = Double.parseDouble(values[i].trim());
+					}
+					rows.add(row);
+				}
+			}
+			reader.close();
+			if (rows.size() < 2) {
+				System.err.println("ReflectivityModel Error: "
+						+ "The wave vector file must have at least two "
+						+ "points.");
+				return FormStatus.InfoError;
+			}
+			double[] waveVector = new double[rows.size()];
+			double[] measured = new double[rows.size()];
+			double[] uncertainty = new double[rows.size()];
+			boolean hasMeasured = true, hasUncertainty = true;
+			for (int i = 0; i < rows.size(); i++) {
+				double[] row = rows.get(i);
+				waveVector[i] = row[0];
+				hasMeasured = hasMeasured && row.length > 1;
+				hasUncertainty = hasUncertainty && row.length > 2;
+				measured[i] = (row.length > 1) ? row[1] : 0.0;
+				uncertainty[i] = (row.length > 2) ? row[2] : 0.0;
+			}
+
+			// Create the sweep
+			ReflectivitySweep sweep = new ReflectivitySweep(slabs, numRough,
+					deltaQ0, deltaQ1ByQ, wavelength, waveVector);
+			String sweepValue = params.retrieveEntry("Parameter Sweep")
+					.getValue();
+			StringBuilder header = new StringBuilder("#configuration");
+			for (String parameter : sweepValue.split(";")) {
+				if (parameter.trim().isEmpty()) {
+					continue;
+				}
+				String[] values = parameter.split(",");
+				if (values.length != 5) {
+					System.err.println("ReflectivityModel Error: "
+							+ "Unable to read sweep parameter " + parameter);
+					return FormStatus.InfoError;
+				}
+				int slab = Integer.parseInt(values[0].trim());
+				ReflectivitySweep.Parameter property = ReflectivitySweep.Parameter
+						.valueOf(values[1].trim());
+				sweep.addParameter(slab, property, ReflectivitySweep.getRange(
+						Double.parseDouble(values[2].trim()),
+						Double.parseDouble(values[3].trim()),
+						Integer.parseInt(values[4].trim())));
+				header.append("," + property + " " + slab);
+			}
+			if (hasMeasured) {
+				sweep.setMeasuredData(measured, hasUncertainty ? uncertainty
+						: null);
+			}
+			header.append(",chi squared");
+			for (double q : waveVector) {
+				header.append("," + q);
+			}
+
+			// Write each profile as soon as it is calculated
+			IFile sweepFile = project.getFile("reflectivityModel_" + getId()
+					+ "_sweep.csv");
+			writer = new BufferedWriter(new FileWriter(sweepFile.getLocation()
+					.toFile()));
+			writer.write(header.toString());
+			writer.newLine();
+			final BufferedWriter sweepWriter = writer;
+			final IOException[] writeError = new IOException[1];
+			int best = sweep.run(new IReflectivitySweepListener() {
+				@Override
+				public void profileCalculated(int configuration,
+						double[] parameterValues, ReflectivityProfile profile,
+						double chiSquared) {
+					try {
+						writeRow(sweepWriter, String.valueOf(configuration),
+								parameterValues, chiSquared,
+								profile.reflectivity);
+					} catch (IOException e) {
+						writeError[0] = e;
+					}
+				}
+			});
+			if (writeError[0] != null) {
+				throw writeError[0];
+			}
+
+			// Refine the best configuration against the measured data
+			if (best >= 0 && sweep.getNumberOfParameters() > 0) {
+				double[] fit = sweep.fit(sweep.getParameterValues(best), 100);
+				writeRow(writer, "fit", fit, sweep.getFitChiSquared(),
+						sweep.getProfile(fit).reflectivity);
+			}
+			writer.close();
+			writer = null;
+
+			// Refresh the project space
+			project.refreshLocal(IResource.DEPTH_ONE, null);
+		} catch (IllegalArgumentException | MathException | IOException
+				| CoreException e) {
+			// Complain
+			System.err.println("ReflectivityModel Error: "
+					+ "Unable to sweep the reflectivity!");
+			e.printStackTrace();
+			return FormStatus.InfoError;
+		} finally {
+			if (writer != null) {
+				try {
+					writer.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		return FormStatus.Processed;
+	}
+
+	/**
+	 * This operation writes one configuration of a sweep as a row of a CSV
+	 * file.
+	 *
+	 * @param writer
+	 *            the writer of the file
+	 * @param name
+	 *            the name of the configuration
+	 * @param parameterValues
+	 *            the values of the swept parameters
+	 * @param chiSquared
+	 *            the chi squared of the configuration
+	 * @param reflectivity
+	 *            the reflectivity of the configuration
+	 * @throws IOException
+	 *             Thrown if the row cannot be written
+	 */
+	private void writeRow(BufferedWriter writer, String name,
+			double[] parameterValues, double chiSquared, double[] reflectivity)
+			throws IOException {
+		StringBuilder row = new StringBuilder(name);
+		for (double value : parameterValues) {
+			row.append(',').append(value);
+		}
+		row.append(',').append(chiSquared);
+		for (double value : reflectivity) {
+			row.append(',').append(value);
+		}
+		writer.write(row.toString());
+		writer.newLine();
+		return;
+	}
+
 	/**
 	 * This operation fills the material list with a default set of materials so
 	 * that the Item is immediately valid and can be processed.
@@ -0,0 +1,1025 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation -
+ *   Jay Jay Billings
+ *******************************************************************************/
+package org.eclipse.ice.reflectivity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+
+import org.apache.commons.math.MathException;
+
+/**
+ * This class calculates the reflectivity profiles of many configurations of a
+ * stack of slabs. The thickness, roughness and scattering length density of
+ * any slab can be swept over a list of values and every combination of the
+ * values is calculated. The configurations are calculated in parallel and each
+ * profile is passed to an {@link IReflectivitySweepListener} as soon as it is
+ * ready, so the profiles of large sweeps are never all held in memory.
+ *
+ * Everything that does not depend on the swept parameters is only calculated
+ * once for the whole sweep: the interfacial profile of the roughness, the
+ * extension of the wave vector for the convolution and the weights of the
+ * Gaussian resolution function. The tiles depend on every slab, so they are
+ * generated for each configuration. The profiles are the same as those
+ * returned by
+ * {@link ReflectivityCalculator#getReflectivityProfile(Slab[], int, double, double, double, double[], boolean)}
+ * .
+ *
+ * If measured reflectivity data is set, each configuration is compared to it
+ * and the best configuration can be refined with a Levenberg-Marquardt least
+ * squares fit of the swept parameters.
+ *
+ * @author Jay Jay Billings
+ *
+ */
+public class ReflectivitySweep {
+
+	/**
+	 * The properties of a slab that can be swept.
+	 */
+	public enum Parameter {
+		/**
+		 * The thickness of the slab
+		 */
+		Thickness,
+		/**
+		 * The interfacial width, or roughness, of the slab
+		 */
+		Roughness,
+		/**
+		 * The scattering length density of the slab
+		 */
+		ScatteringLength
+	}
+
+	/**
+	 * The largest relative decrease of chi squared at which the fit stops.
+	 */
+	private static final double fitTolerance = 1.0e-10;
+
+	/**
+	 * The calculator used for the tiles and the reflectivity. It does not have
+	 * any state, so it is shared by all of the threads.
+	 */
+	private final ReflectivityCalculator calculator;
+
+	/**
+	 * The slabs that define the system before the parameters are applied.
+	 */
+	private final Slab[] slabs;
+
+	/**
+	 * The number of layers of roughness
+	 */
+	private final int numRough;
+
+	/**
+	 * The wavelength of the incident neutrons
+	 */
+	private final double wavelength;
+
+	/**
+	 * The wave vector at which the reflectivity is calculated
+	 */
+	private final double[] waveVector;
+
+	/**
+	 * The interfacial profile, which is shared by all configurations.
+	 */
+	private final double[] zInt, rufInt;
+
+	/**
+	 * The wave vector extended for the convolution, with values below 1.0e-10
+	 * replaced by 1.0e-10.
+	 */
+	private final double[] effWaveVector;
+
+	/**
+	 * The number of points in the low-Q extension of the wave vector.
+	 */
+	private final int numLowPoints;
+
+	/**
+	 * The first entry of the resolution weights of each point of the wave
+	 * vector. The entries of point i end where those of point i + 1 start.
+	 */
+	private int[] resolutionStart;
+
+	/**
+	 * The index in the extended wave vector of each resolution weight.
+	 */
+	private int[] resolutionIndex;
+
+	/**
+	 * The resolution weights, in the order that the convolution adds them.
+	 */
+	private double[] resolutionWeight;
+
+	/**
+	 * The sum of the resolution weights of each point of the wave vector.
+	 */
+	private double[] resolutionNorm;
+
+	/**
+	 * The index of the slab of each swept parameter.
+	 */
+	private final ArrayList<Integer> sweptSlabs;
+
+	/**
+	 * The property of each swept parameter.
+	 */
+	private final ArrayList<Parameter> sweptParameters;
+
+	/**
+	 * The values of each swept parameter.
+	 */
+	private final ArrayList<double[]> sweptValues;
+
+	/**
+	 * The measured reflectivity, or null if there is none.
+	 */
+	private double[] measuredReflectivity;
+
+	/**
+	 * The uncertainties of the measured reflectivity, or null if they are not
+	 * known.
+	 */
+	private double[] measuredUncertainty;
+
+	/**
+	 * The chi squared of each configuration from the last run.
+	 */
+	private double[] chiSquared;
+
+	/**
+	 * The chi squared of the last fit.
+	 */
+	private double fitChiSquared;
+
+	/**
+	 * The lock that keeps listeners from being called by more than one thread
+	 * at a time.
+	 */
+	private final Object listenerLock;
+
+	/**
+	 * The first error from a calculation in the pool, if any.
+	 */
+	private volatile MathException failure;
+
+	/**
+	 * The constructor. It computes the parts of the calculation that are the
+	 * same for every configuration.
+	 *
+	 * @param slabs
+	 *            the slabs that define the system. They are copied before the
+	 *            parameters are applied, so they are never changed.
+	 * @param numRough
+	 *            the number of layers of roughness
+	 * @param deltaQ0
+	 *            the zeroth order term of the Q resolution
+	 * @param deltaQ1ByQ
+	 *            the first order term of the Q resolution
+	 * @param wavelength
+	 *            the wavelength of the incident neutrons
+	 * @param waveVector
+	 *            the wave vector at which the reflectivity is calculated
+	 * @throws MathException
+	 *             Thrown if the interfacial profile cannot be calculated
+	 */
+	public ReflectivitySweep(Slab[] slabs, int numRough, double deltaQ0,
+			double deltaQ1ByQ, double wavelength, double[] waveVector)
+			throws MathException {
+
+		// Local Declarations
+		int numPoints = waveVector.length;
+
+		calculator = new ReflectivityCalculator();
+		this.slabs = slabs;
+		this.numRough = numRough;
+		this.wavelength = wavelength;
+		this.waveVector = waveVector;
+		sweptSlabs = new ArrayList<Integer>();
+		sweptParameters = new ArrayList<Parameter>();
+		sweptValues = new ArrayList<double[]>();
+		listenerLock = new Object();
+		fitChiSquared = Double.NaN;
+
+		// Generate the interfacial profile
+		zInt = new double[ReflectivityCalculator.maxRoughSize];
+		rufInt = new double[ReflectivityCalculator.maxRoughSize];
+		calculator.getInterfacialProfile(numRough, zInt, rufInt);
+
+		// Extend the wave vector the same way as convoluteReflectivity()
+		numLowPoints = calculator.getLowExtensionLength(waveVector, deltaQ0,
+				deltaQ1ByQ, numPoints);
+		int numHighPoints = calculator.getHighExtensionLength(waveVector,
+				deltaQ0, deltaQ1ByQ, numPoints);
+		double[] tempWaveVector = new double[numLowPoints + numHighPoints
+				+ numPoints];
+		double waveVecStep = waveVector[1] - waveVector[0];
+		for (int i = 0; i < numLowPoints; i++) {
+			tempWaveVector[i] = waveVector[0] - waveVecStep
+					* ((double) numLowPoints + 1 - i);
+		}
+		for (int i = 0; i < numPoints; i++) {
+			tempWaveVector[numLowPoints + i] = waveVector[i];
+		}
+		waveVecStep = waveVector[numPoints - 1] - waveVector[numPoints - 2];
+		for (int i = 0; i < numHighPoints; i++) {
+			tempWaveVector[i + numLowPoints + numPoints] = waveVector[numPoints - 1]
+					+ waveVecStep * ((double) i);
+		}
+		effWaveVector = new double[tempWaveVector.length];
+		for (int i = 0; i < tempWaveVector.length; i++) {
+			effWaveVector[i] = (tempWaveVector[i] < 1.0e-10) ? 1.0e-10
+					: tempWaveVector[i];
+		}
+
+		// Compute the resolution weights
+		computeResolution(tempWaveVector, deltaQ0, deltaQ1ByQ, numPoints);
+
+		return;
+	}
+
+	/**
+	 * This operation records the weights that
+	 * {@link ReflectivityCalculator#convolute(double[], double, double, double, int, int, int, double[])}
+	 * applies to each point, in the same order, so that the convolution of
+	 * each configuration only has to add them up.
+	 *
+	 * @param tempWaveVector
+	 *            the extended wave vector
+	 * @param deltaQ0
+	 *            the zeroth order term of the Q resolution
+	 * @param deltaQ1ByQ
+	 *            the first order term of the Q resolution
+	 * @param numPoints
+	 *            the number of points in the wave vector
+	 */
+	private void computeResolution(double[] tempWaveVector, double deltaQ0,
+			double deltaQ1ByQ, int numPoints) {
+
+		// Local Declarations
+		double ln2 = Math.log(2.0);
+		double qEff = 0.0, qRes = 0.0, rExp = 0.0, rNorm = 0.0;
+		int count = 0;
+
+		resolutionStart = new int[numPoints + 1];
+		resolutionIndex = new int[16 * numPoints];
+		resolutionWeight = new double[16 * numPoints];
+		resolutionNorm = new double[numPoints];
+
+		for (int i = numLowPoints; i <= numLowPoints + numPoints - 1; i++) {
+			// Calculate resolution width
+			if (tempWaveVector[i] < 1.0e-10) {
+				qEff = 1.0e-10;
+			} else {
+				qEff = tempWaveVector[i];
+			}
+			double qDel = deltaQ0 + qEff * deltaQ1ByQ;
+			double twSgSq = 2.0 * qDel * qDel / (8.0 * ln2);
+			if (twSgSq < 1.0e-10) {
+				twSgSq = 1.0e-10;
+			}
+			rNorm = 1.0;
+			resolutionStart[i - numLowPoints] = count;
+			// Step out on both sides until either exponent becomes < 0.001
+			int nStep = 1;
+			boolean lFinish = false, hFinish = false;
+			while (!lFinish && !hFinish) {
+				// Make room for two more weights
+				if (count + 2 > resolutionIndex.length) {
+					resolutionIndex = Arrays.copyOf(resolutionIndex,
+							2 * resolutionIndex.length);
+					resolutionWeight = Arrays.copyOf(resolutionWeight,
+							2 * resolutionWeight.length);
+				}
+				// Evaluate the low-q side
+				qRes = tempWaveVector[i - nStep] - tempWaveVector[i];
+				if (qRes * qRes / twSgSq < 6.908) {
+					rExp = Math.exp(-qRes * qRes / twSgSq);
+					rNorm = rNorm + rExp;
+					resolutionIndex[count] = i - nStep;
+					resolutionWeight[count++] = rExp;
+				} else {
+					lFinish = true;
+				}
+				// Evaluate high-q side
+				qRes = tempWaveVector[i + nStep] - tempWaveVector[i];
+				if (qRes * qRes / twSgSq < 6.908) {
+					rExp = Math.exp(-qRes * qRes / twSgSq);
+					rNorm = rNorm + rExp;
+					resolutionIndex[count] = i + nStep;
+					resolutionWeight[count++] = rExp;
+				} else {
+					hFinish = true;
+				}
+				nStep++;
+			}
+			resolutionNorm[i - numLowPoints] = rNorm;
+		}
+		resolutionStart[numPoints] = count;
+
+		return;
+	}
+
+	/**
+	 * This operation adds a parameter to the sweep. Every value of the
+	 * parameter is combined with every value of the other parameters.
+	 *
+	 * @param slab
+	 *            the index of the slab
+	 * @param parameter
+	 *            the property of the slab that is swept
+	 * @param values
+	 *            the values of the property, which are not copied
+	 * @throws IllegalArgumentException
+	 *             Thrown if the slab does not exist, there are no values or the
+	 *             sweep would have too many configurations
+	 */
+	public void addParameter(int slab, Parameter parameter, double[] values)
+			throws IllegalArgumentException {
+
+		if (slab < 0 || slab >= slabs.length) {
+			throw new IllegalArgumentException("ReflectivitySweep Error: "
+					+ "There is no slab " + slab + ".");
+		} else if (values == null || values.length == 0) {
+			throw new IllegalArgumentException("ReflectivitySweep Error: "
+					+ "A parameter must have at least one value.");
+		} else if ((long) getNumberOfConfigurations() * values.length > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("ReflectivitySweep Error: "
+					+ "The sweep has too many configurations.");
+		}
+
+		sweptSlabs.add(slab);
+		sweptParameters.add(parameter);
+		sweptValues.add(values);
+
+		return;
+	}
+
+	/**
+	 * This operation returns evenly spaced values for a parameter.
+	 *
+	 * @param min
+	 *            the first value
+	 * @param max
+	 *            the last value
+	 * @param numValues
+	 *            the number of values. If it is 1, only the first value is
+	 *            returned.
+	 * @return the values
+	 */
+	public static double[] getRange(double min, double max, int numValues) {
+		double[] values = new double[Math.max(numValues, 1)];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = (values.length == 1) ? min : min + (max - min) * i
+					/ (values.length - 1);
+		}
+		return values;
+	}
+
+	/**
+	 * This operation sets the measured reflectivity that the configurations
+	 * are compared to. The residual of each point is weighted by its
+	 * uncertainty, or by the measured value itself if the uncertainties are
+	 * not known.
+	 *
+	 * @param reflectivity
+	 *            the measured reflectivity at each point of the wave vector, or
+	 *            null to remove the measured data
+	 * @param uncertainty
+	 *            the uncertainty of each measured value or null
+	 * @throws IllegalArgumentException
+	 *             Thrown if the arrays do not match the wave vector
+	 */
+	public void setMeasuredData(double[] reflectivity, double[] uncertainty)
+			throws IllegalArgumentException {
+
+		if ((reflectivity != null && reflectivity.length != waveVector.length)
+				|| (uncertainty != null && uncertainty.length != waveVector.length)) {
+			throw new IllegalArgumentException("ReflectivitySweep Error: "
+					+ "The measured data must have one value for each point "
+					+ "of the wave vector.");
+		}
+
+		measuredReflectivity = reflectivity;
+		measuredUncertainty = (reflectivity != null) ? uncertainty : null;
+
+		return;
+	}
+
+	/**
+	 * This operation returns the number of swept parameters.
+	 *
+	 * @return the number of parameters
+	 */
+	public int getNumberOfParameters() {
+		return sweptValues.size();
+	}
+
+	/**
+	 * This operation returns the number of configurations in the sweep, which
+	 * is the product of the numbers of values of all of the parameters.
+	 *
+	 * @return the number of configurations
+	 */
+	public int getNumberOfConfigurations() {
+		int numConfigurations = 1;
+		for (double[] values : sweptValues) {
+			numConfigurations *= values.length;
+		}
+		return numConfigurations;
+	}
+
+	/**
+	 * This operation returns the values of the parameters for a
+	 * configuration. The values of the last parameter change the fastest.
+	 *
+	 * @param configuration
+	 *            the index of the configuration
+	 * @return the values of the parameters in the order that they were added
+	 */
+	public double[] getParameterValues(int configuration) {
+		int numParameters = sweptValues.size();
+		double[] parameterValues = new double[numParameters];
+		for (int p = numParameters - 1; p >= 0; p--) {
+			double[] values = sweptValues.get(p);
+			parameterValues[p] = values[configuration % values.length];
+			configuration /= values.length;
+		}
+		return parameterValues;
+	}
+
+	/**
+	 * This operation returns the chi squared of each configuration from the
+	 * last run of the sweep.
+	 *
+	 * @return the chi squared values, or null if the sweep has not been run
+	 */
+	public double[] getChiSquared() {
+		return chiSquared;
+	}
+
+	/**
+	 * This operation returns the chi squared of the result of the last fit.
+	 *
+	 * @return the chi squared, or NaN if no fit has been done
+	 */
+	public double getFitChiSquared() {
+		return fitChiSquared;
+	}
+
+	/**
+	 * This operation calculates the reflectivity profile for one set of
+	 * parameter values.
+	 *
+	 * @param parameterValues
+	 *            the values of the parameters in the order that they were added
+	 * @return the profile
+	 * @throws MathException
+	 *             Thrown if the tiles cannot be generated
+	 */
+	public ReflectivityProfile getProfile(double[] parameterValues)
+			throws MathException {
+
+		// Local Declarations
+		ReflectivityProfile profile = new ReflectivityProfile();
+		Tile[] tiles = generateTiles(parameterValues);
+		ScatteringDensityProfile scatteringProfile = calculator
+				.getScatteringDensityProfile(tiles);
+
+		profile.reflectivity = calculateReflectivity(tiles);
+		profile.waveVector = waveVector;
+		profile.depth = scatteringProfile.depth;
+		profile.scatteringDensity = scatteringProfile.scatteringDensity;
+
+		return profile;
+	}
+
+	/**
+	 * This operation calculates the profile of every configuration in
+	 * parallel and passes each one to the listener.
+	 *
+	 * @param listener
+	 *            the listener that receives the profiles, or null
+	 * @return the index of the configuration with the lowest chi squared, or
+	 *         -1 if there is no measured data
+	 * @throws MathException
+	 *             Thrown if the tiles of a configuration cannot be generated
+	 */
+	public int run(IReflectivitySweepListener listener) throws MathException {
+
+		// Local Declarations
+		int numConfigurations = getNumberOfConfigurations();
+		int best = -1;
+
+		// Calculate the configurations
+		chiSquared = new double[numConfigurations];
+		failure = null;
+		SweepTask task = new SweepTask(0, numConfigurations, listener);
+		if (numConfigurations > 1
+				&& Runtime.getRuntime().availableProcessors() > 1) {
+			ReflectivityCalculator.getPool().invoke(task);
+		} else {
+			task.compute();
+		}
+		if (failure != null) {
+			throw failure;
+		}
+
+		// Find the best configuration
+		if (measuredReflectivity != null) {
+			for (int i = 0; i < numConfigurations; i++) {
+				if (best < 0 || chiSquared[i] < chiSquared[best]) {
+					best = i;
+				}
+			}
+		}
+
+		return best;
+	}
+
+	/**
+	 * This operation fits the swept parameters to the measured data with the
+	 * Levenberg-Marquardt method. The Jacobian is computed with finite
+	 * differences that are evaluated in parallel. Each parameter is kept
+	 * between the lowest and highest of its swept values.
+	 *
+	 * @param start
+	 *            the initial values of the parameters, usually those of the
+	 *            best configuration of the sweep
+	 * @param maxIterations
+	 *            the maximum number of iterations
+	 * @return the fitted values of the parameters
+	 * @throws MathException
+	 *             Thrown if the tiles cannot be generated
+	 * @throws IllegalStateException
+	 *             Thrown if there is no measured data
+	 */
+	public double[] fit(double[] start, int maxIterations)
+			throws MathException, IllegalStateException {
+
+		if (measuredReflectivity == null) {
+			throw new IllegalStateException("ReflectivitySweep Error: "
+					+ "Measured data is required for a fit.");
+		}
+
+		// Local Declarations
+		int numParameters = sweptValues.size();
+		int numPoints = waveVector.length;
+		double[] min = new double[numParameters];
+		double[] max = new double[numParameters];
+		double[] x = new double[numParameters];
+		double lambda = 1.0e-3;
+
+		// Find the bounds and start inside them
+		for (int p = 0; p < numParameters; p++) {
+			double[] values = sweptValues.get(p);
+			min[p] = Double.POSITIVE_INFINITY;
+			max[p] = Double.NEGATIVE_INFINITY;
+			for (double value : values) {
+				min[p] = Math.min(min[p], value);
+				max[p] = Math.max(max[p], value);
+			}
+			x[p] = Math.max(min[p], Math.min(max[p], start[p]));
+		}
+		double[] residuals = calculateResiduals(x);
+		double chi = getChiSquared(residuals);
+
+		for (int iteration = 0; iteration < maxIterations && chi > 0.0; iteration++) {
+
+			// Compute the Jacobian from all of the shifted parameters at once
+			double[] steps = new double[numParameters];
+			ArrayList<EvaluationTask> tasks = new ArrayList<EvaluationTask>();
+			for (int p = 0; p < numParameters; p++) {
+				double step = 1.0e-6 * Math.max(Math.abs(x[p]), max[p]
+						- min[p]);
+				if (step == 0.0) {
+					step = 1.0e-10;
+				}
+				steps[p] = (x[p] + step > max[p] && max[p] > min[p]) ? -step
+						: step;
+				double[] shifted = x.clone();
+				shifted[p] += steps[p];
+				tasks.add(new EvaluationTask(shifted));
+			}
+			evaluate(tasks);
+
+			// Form the normal equations
+			double[][] alpha = new double[numParameters][numParameters];
+			double[] beta = new double[numParameters];
+			double[][] jacobian = new double[numParameters][numPoints];
+			for (int p = 0; p < numParameters; p++) {
+				double[] shifted = tasks.get(p).residuals;
+				for (int i = 0; i < numPoints; i++) {
+					jacobian[p][i] = (shifted[i] - residuals[i]) / steps[p];
+				}
+			}
+			for (int p = 0; p < numParameters; p++) {
+				for (int i = 0; i < numPoints; i++) {
+					beta[p] -= jacobian[p][i] * residuals[i];
+				}
+				for (int q = 0; q <= p; q++) {
+					double sum = 0.0;
+					for (int i = 0; i < numPoints; i++) {
+						sum += jacobian[p][i] * jacobian[q][i];
+					}
+					alpha[p][q] = sum;
+					alpha[q][p] = sum;
+				}
+			}
+
+			// Increase the damping until a step lowers chi squared
+			boolean improved = false;
+			double decrease = 0.0;
+			while (!improved && lambda < 1.0e12) {
+				double[][] damped = new double[numParameters][];
+				for (int p = 0; p < numParameters; p++) {
+					damped[p] = alpha[p].clone();
+					damped[p][p] = (alpha[p][p] > 0.0) ? alpha[p][p]
+							* (1.0 + lambda) : lambda;
+				}
+				double[] delta = solve(damped, beta.clone());
+				if (delta != null) {
+					double[] trial = new double[numParameters];
+					for (int p = 0; p < numParameters; p++) {
+						trial[p] = Math.max(min[p],
+								Math.min(max[p], x[p] + delta[p]));
+					}
+					double[] trialResiduals = calculateResiduals(trial);
+					double trialChi = getChiSquared(trialResiduals);
+					if (trialChi < chi) {
+						decrease = (chi - trialChi) / chi;
+						x = trial;
+						residuals = trialResiduals;
+						chi = trialChi;
+						lambda = Math.max(lambda / 10.0, 1.0e-12);
+						improved = true;
+					}
+				}
+				if (!improved) {
+					lambda *= 10.0;
+				}
+			}
+
+			// Stop once the fit stops improving
+			if (!improved || decrease < fitTolerance) {
+				break;
+			}
+		}
+		fitChiSquared = chi;
+
+		return x;
+	}
+
+	/**
+	 * This operation creates the tiles for a set of parameter values. The
+	 * scattering lengths are corrected for the incident medium the same way as
+	 * in getReflectivityProfile().
+	 *
+	 * @param parameterValues
+	 *            the values of the parameters
+	 * @return the tiles
+	 * @throws MathException
+	 *             Thrown if the error function cannot be calculated
+	 */
+	private Tile[] generateTiles(double[] parameterValues)
+			throws MathException {
+
+		// Copy the slabs
+		Slab[] configuration = new Slab[slabs.length];
+		for (int i = 0; i < slabs.length; i++) {
+			Slab slab = new Slab();
+			slab.scatteringLength = slabs[i].scatteringLength;
+			slab.trueAbsLength = slabs[i].trueAbsLength;
+			slab.incAbsLength = slabs[i].incAbsLength;
+			slab.thickness = slabs[i].thickness;
+			slab.interfaceWidth = slabs[i].interfaceWidth;
+			configuration[i] = slab;
+		}
+
+		// Apply the parameters
+		for (int p = 0; p < parameterValues.length; p++) {
+			Slab slab = configuration[sweptSlabs.get(p)];
+			switch (sweptParameters.get(p)) {
+			case Thickness:
+				slab.thickness = parameterValues[p];
+				break;
+			case Roughness:
+				slab.interfaceWidth = parameterValues[p];
+				break;
+			case ScatteringLength:
+				slab.scatteringLength = parameterValues[p];
+				break;
+			}
+		}
+
+		// Correct the refractive indices for incident medium
+		double qCCorr = configuration[0].scatteringLength;
+		for (int i = 0; i < configuration.length; i++) {
+			configuration[i].scatteringLength -= qCCorr;
+		}
+
+		return calculator.generateTiles(configuration, numRough, zInt, rufInt);
+	}
+
+	/**
+	 * This operation calculates the reflectivity of a set of tiles and
+	 * convolutes it with the resolution function.
+	 *
+	 * @param tiles
+	 *            the tiles
+	 * @return the reflectivity at each point of the wave vector
+	 */
+	private double[] calculateReflectivity(Tile[] tiles) {
+
+		// Local Declarations
+		int numPoints = waveVector.length;
+		double[] reflectivity = new double[numPoints];
+
+		// Calculate the reflectivity on the extended wave vector
+		double[] extended = calculator.getModSqrdSpecRef(effWaveVector,
+				wavelength, tiles);
+
+		// Convolute it with the recorded weights
+		for (int i = 0; i < numPoints; i++) {
+			double value = extended[i + numLowPoints];
+			for (int j = resolutionStart[i]; j < resolutionStart[i + 1]; j++) {
+				value = value + resolutionWeight[j]
+						* extended[resolutionIndex[j]];
+			}
+			reflectivity[i] = value / resolutionNorm[i];
+		}
+
+		return reflectivity;
+	}
+
+	/**
+	 * This operation returns the residuals of the reflectivity of a set of
+	 * parameter values, weighted by the uncertainties of the measured data.
+	 *
+	 * @param parameterValues
+	 *            the values of the parameters
+	 * @return the weighted residuals
+	 * @throws MathException
+	 *             Thrown if the tiles cannot be generated
+	 */
+	private double[] calculateResiduals(double[] parameterValues)
+			throws MathException {
+		return getResiduals(calculateReflectivity(generateTiles(parameterValues)));
+	}
+
+	/**
+	 * This operation returns the residuals of a reflectivity, weighted by the
+	 * uncertainties of the measured data.
+	 *
+	 * @param reflectivity
+	 *            the calculated reflectivity
+	 * @return the weighted residuals
+	 */
+	private double[] getResiduals(double[] reflectivity) {
+		double[] residuals = new double[reflectivity.length];
+		for (int i = 0; i < reflectivity.length; i++) {
+			double sigma = (measuredUncertainty != null) ? measuredUncertainty[i]
+					: Math.abs(measuredReflectivity[i]);
+			if (!(sigma > 0.0)) {
+				sigma = 1.0;
+			}
+			residuals[i] = (reflectivity[i] - measuredReflectivity[i]) / sigma;
+		}
+		return residuals;
+	}
+
+	/**
+	 * This operation returns the mean of the squared residuals.
+	 *
+	 * @param residuals
+	 *            the weighted residuals
+	 * @return chi squared
+	 */
+	private double getChiSquared(double[] residuals) {
+		double sum = 0.0;
+		for (double residual : residuals) {
+			sum += residual * residual;
+		}
+		return sum / residuals.length;
+	}
+
+	/**
+	 * This operation solves a small linear system with Gaussian elimination
+	 * and partial pivoting. Both arguments are overwritten.
+	 *
+	 * @param matrix
+	 *            the matrix of the system
+	 * @param vector
+	 *            the right hand side
+	 * @return the solution, or null if the matrix is singular
+	 */
+	private double[] solve(double[][] matrix, double[] vector) {
+
+		int n = vector.length;
+
+		// Eliminate below the diagonal
+		for (int col = 0; col < n; col++) {
+			int pivot = col;
+			for (int row = col + 1; row < n; row++) {
+				if (Math.abs(matrix[row][col]) > Math.abs(matrix[pivot][col])) {
+					pivot = row;
+				}
+			}
+			if (matrix[pivot][col] == 0.0) {
+				return null;
+			}
+			double[] tempRow = matrix[col];
+			matrix[col] = matrix[pivot];
+			matrix[pivot] = tempRow;
+			double temp = vector[col];
+			vector[col] = vector[pivot];
+			vector[pivot] = temp;
+			for (int row = col + 1; row < n; row++) {
+				double factor = matrix[row][col] / matrix[col][col];
+				for (int k = col; k < n; k++) {
+					matrix[row][k] -= factor * matrix[col][k];
+				}
+				vector[row] -= factor * vector[col];
+			}
+		}
+
+		// Substitute back up
+		double[] solution = new double[n];
+		for (int row = n - 1; row >= 0; row--) {
+			double sum = vector[row];
+			for (int k = row + 1; k < n; k++) {
+				sum -= matrix[row][k] * solution[k];
+			}
+			solution[row] = sum / matrix[row][row];
+		}
+
+		return solution;
+	}
+
+	/**
+	 * This operation evaluates the residuals of a list of parameter values in
+	 * parallel.
+	 *
+	 * @param tasks
+	 *            the tasks to evaluate
+	 * @throws MathException
+	 *             Thrown if the tiles of one of the tasks cannot be generated
+	 */
+	private void evaluate(final ArrayList<EvaluationTask> tasks)
+			throws MathException {
+		failure = null;
+		if (tasks.size() > 1 && Runtime.getRuntime().availableProcessors() > 1) {
+			ReflectivityCalculator.getPool().invoke(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					invokeAll(tasks);
+				}
+			});
+		} else {
+			for (EvaluationTask task : tasks) {
+				task.compute();
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+		return;
+	}
+
+	/**
+	 * This class calculates a range of the configurations of the sweep,
+	 * splitting it in half until there is only one configuration.
+	 *
+	 * @author Jay Jay Billings
+	 *
+	 */
+	private class SweepTask extends RecursiveAction {
+
+		/**
+		 * The serial version ID
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The first configuration and one past the last configuration of the
+		 * range
+		 */
+		private final int first, last;
+
+		/**
+		 * The listener that receives the profiles, or null
+		 */
+		private final IReflectivitySweepListener listener;
+
+		/**
+		 * The constructor
+		 *
+		 * @param first
+		 *            the first configuration
+		 * @param last
+		 *            one past the last configuration
+		 * @param listener
+		 *            the listener or null
+		 */
+		public SweepTask(int first, int last,
+				IReflectivitySweepListener listener) {
+			this.first = first;
+			this.last = last;
+			this.listener = listener;
+		}
+
+		/**
+		 * This operation calculates the range or splits it.
+		 */
+		@Override
+		protected void compute() {
+			if (last - first > 1) {
+				int middle = (first + last) >>> 1;
+				invokeAll(new SweepTask(first, middle, listener),
+						new SweepTask(middle, last, listener));
+				return;
+			}
+			for (int i = first; i < last && failure == null; i++) {
+				try {
+					double[] parameterValues = getParameterValues(i);
+					ReflectivityProfile profile = getProfile(parameterValues);
+					chiSquared[i] = (measuredReflectivity != null) ? getChiSquared(getResiduals(profile.reflectivity))
+							: Double.NaN;
+					if (listener != null) {
+						synchronized (listenerLock) {
+							listener.profileCalculated(i, parameterValues,
+									profile, chiSquared[i]);
+						}
+					}
+				} catch (MathException e) {
+					failure = e;
+				}
+			}
+			return;
+		}
+	}
+
+	/**
+	 * This class calculates the weighted residuals of one set of parameter
+	 * values.
+	 *
+	 * @author Jay Jay Billings
+	 *
+	 */
+	private class EvaluationTask extends RecursiveAction {
+
+		/**
+		 * The serial version ID
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The values of the parameters
+		 */
+		private final double[] parameterValues;
+
+		/**
+		 * The weighted residuals, once they have been calculated
+		 */
+		private double[] residuals;
+
+		/**
+		 * The constructor
+		 *
+		 * @param parameterValues
+		 *            the values of the parameters
+		 */
+		public EvaluationTask(double[] parameterValues) {
+			this.parameterValues = parameterValues;
+		}
+
+		/**
+		 * This operation calculates the residuals.
+		 */
+		@Override
+		protected void compute() {
+			try {
+				residuals = calculateResiduals(parameterValues);
+			} catch (MathException e) {
+				failure = e;
+			}
+			return;
+		}
+	}
+
+}
@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.viz.service.csv;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.ice.analysistool.IData;
+
+/**
+ * This class stores all of the values of one feature at one time as a
+ * primitive column. It is a read-only list of IData so that it can be stored
+ * in the CSVDataProvider next to the series that are added one IData at a
+ * time. The CSVData returned by get() are created when they are requested and
+ * are not stored, so changes to them are not kept.
+ *
+ * Values can be appended to the end of the column while it is read by other
+ * threads, which is how a file that is still being written is followed.
+ *
+ * @author Jay Jay Billings
+ *
+ */
+class CSVColumn extends AbstractList<IData> {
+
+	/**
+	 * The feature of the column
+	 */
+	private final String feature;
+
+	/**
+	 * The values of the column. Only the first size values are used.
+	 */
+	private double[] values;
+
+	/**
+	 * The uncertainties of the values, or null if there are none
+	 */
+	private double[] uncertainties;
+
+	/**
+	 * The number of values in the column
+	 */
+	private int size;
+
+	/**
+	 * The units of the values, or null if there are none
+	 */
+	private final String units;
+
+	/**
+	 * The columns of the independent variables, in the order that they were
+	 * set, that are used as the positions of the values
+	 */
+	private final List<CSVColumn> positions;
+
+	/**
+	 * The constructor
+	 *
+	 * @param feature
+	 *            The feature of the column
+	 * @param values
+	 *            The values, which are not copied
+	 * @param uncertainties
+	 *            The uncertainties, which are not copied, or null
+	 * @param units
+	 *            The units, or null
+	 */
+	public CSVColumn(String feature, double[] values, double[] uncertainties,
+			String units) {
+		this.feature = feature;
+		this.values = values;
+		this.uncertainties = uncertainties;
+		this.units = units;
+		size = values.length;
+		positions = new CopyOnWriteArrayList<CSVColumn>();
+	}
+
+	/**
+	 * Adds the values of an independent variable as the next position of each
+	 * value in the column. The positions grow with the independent variable.
+	 *
+	 * @param position
+	 *            The column of the independent variable
+	 */
+	public void addPosition(CSVColumn position) {
+		positions.add(position);
+	}
+
+	/**
+	 * Appends values to the end of the column.
+	 *
+	 * @param newValues
+	 *            The values
+	 * @param newUncertainties
+	 *            The uncertainties of the values, or null if there are none
+	 */
+	public synchronized void append(double[] newValues,
+			double[] newUncertainties) {
+
+		// Make room for the new values
+		int newSize = size + newValues.length;
+		if (newSize > values.length) {
+			int capacity = Math.max(newSize, values.length + values.length
+					/ 2);
+			values = Arrays.copyOf(values, capacity);
+			if (uncertainties != null) {
+				uncertainties = Arrays.copyOf(uncertainties, capacity);
+			}
+		}
+		// The uncertainties of the existing values are zero if there were
+		// none before
+		if (uncertainties == null && newUncertainties != null) {
+			uncertainties = new double[values.length];
+		}
+
+		// Copy the new values
+		System.arraycopy(newValues, 0, values, size, newValues.length);
+		if (newUncertainties != null) {
+			System.arraycopy(newUncertainties, 0, uncertainties, size,
+					newValues.length);
+		} else if (uncertainties != null) {
+			Arrays.fill(uncertainties, size, newSize, 0.0);
+		}
+		size = newSize;
+
+		return;
+	}
+
+	/**
+	 * Returns a copy of the values of the column.
+	 *
+	 * @return The values
+	 */
+	public synchronized double[] getValues() {
+		return Arrays.copyOf(values, size);
+	}
+
+	/**
+	 * Returns a copy of the uncertainties of the column. The uncertainties are
+	 * zero if none were loaded, just like the default uncertainty of CSVData.
+	 *
+	 * @return The uncertainties
+	 */
+	public synchronized double[] getUncertainties() {
+		return (uncertainties != null) ? Arrays.copyOf(uncertainties, size)
+				: new double[size];
+	}
+
+	/**
+	 * Creates a CSVData for one value of the column.
+	 *
+	 * @see java.util.AbstractList#get(int)
+	 */
+	@Override
+	public IData get(int index) {
+
+		// Local Declarations
+		CSVData data;
+
+		// Create the data from this column
+		synchronized (this) {
+			if (index < 0 || index >= size) {
+				throw new IndexOutOfBoundsException("Index: " + index
+						+ ", Size: " + size);
+			}
+			data = new CSVData(feature, values[index]);
+			if (uncertainties != null) {
+				data.setUncertainty(uncertainties[index]);
+			}
+			data.setUnits(units);
+		}
+
+		// Add the positions. Only one column is locked at a time so that two
+		// columns that are each other's positions can not deadlock.
+		for (CSVColumn position : positions) {
+			synchronized (position) {
+				if (index < position.size) {
+					data.addPosition(position.values[index]);
+				}
+			}
+		}
+
+		return data;
+	}
+
+	/**
+	 * Returns the number of values in the column.
+	 *
+	 * @see java.util.AbstractCollection#size()
+	 */
+	@Override
+	public synchronized int size() {
+		return size;
+	}
+
+}
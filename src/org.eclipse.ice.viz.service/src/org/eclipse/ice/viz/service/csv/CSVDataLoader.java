@@ -14,12 +14,26 @@ package org.eclipse.ice.viz.service.csv;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -63,6 +77,61 @@ public class CSVDataLoader {
 	 */
 	private boolean boolVarComp;
 
+	/**
+	 * The number of data lines that are parsed together by load(File)
+	 */
+	private static final int chunkSize = 8192;
+
+	/**
+	 * The file that is followed by update(), or null if no file is followed
+	 */
+	private File followedFile;
+
+	/**
+	 * The provider of the followed file
+	 */
+	private CSVDataProvider followedProvider;
+
+	/**
+	 * The number of bytes of the followed file that have been read. It is
+	 * always the end of a complete line.
+	 */
+	private long followedLength;
+
+	/**
+	 * The columns of the followed file, which collect the new lines before
+	 * they are appended to the provider
+	 */
+	private ColumnAssembler followedColumns;
+
+	/**
+	 * The features of the followed file, including the error columns
+	 */
+	private List<String> followedFeatures;
+
+	/**
+	 * The size of the followed file when it was last read, including any
+	 * incomplete line at its end
+	 */
+	private long followedSize;
+
+	/**
+	 * The modification time of the followed file when it was last read
+	 */
+	private long followedModified;
+
+	/**
+	 * The first bytes of the followed file, which hold its header. A file
+	 * whose first bytes change has been rewritten.
+	 */
+	private byte[] followedHead;
+
+	/**
+	 * The number of bytes at the start of a followed file that are compared
+	 * to detect that it was rewritten
+	 */
+	private static final int headLength = 256;
+
 	/**
 	 * Default CSVDataLoader constructor
 	 */
@@ -119,6 +188,183 @@ public class CSVDataLoader {
 	 * @throws Exception
 	 */
 	public CSVDataProvider load(File csvInputFile) throws Exception {
+		return load(csvInputFile, false);
+	}
+
+	/**
+	 * This method loads a CSV input file that is still being written and
+	 * returns the contents as a CSVDataProvider object. Only complete lines
+	 * are loaded. Afterward, {@link #update()} appends the lines that are
+	 * written to the end of the file to the same provider.
+	 * 
+	 * @param csvInputFile
+	 *            The CSV input file to follow
+	 * @return The contents of the CSV file as a CSVDataProvider object
+	 * @throws Exception
+	 */
+	public CSVDataProvider follow(File csvInputFile) throws Exception {
+		return load(csvInputFile, true);
+	}
+
+	/**
+	 * This method parses the lines that were written to the end of the file
+	 * given to {@link #follow(File)} since it was last read and appends them
+	 * to the columns of its provider. Only the new bytes are read, and a line
+	 * is only read once it is complete. Empty lines and comments are skipped.
+	 * 
+	 * @return The number of lines that were appended
+	 * @throws Exception
+	 *             Thrown if the new lines could not be parsed or if the file
+	 *             was rewritten since it was last read (c.f.
+	 *             {@link #isRewritten()})
+	 */
+	public int update() throws Exception {
+
+		// Local Declarations
+		int numLines = 0;
+
+		// Make sure that a file is followed
+		if (followedFile == null) {
+			return numLines;
+		}
+
+		FileInputStream fileStream = new FileInputStream(followedFile);
+		try {
+			// Make sure that the file was only appended to
+			FileChannel channel = fileStream.getChannel();
+			long fileSize = channel.size();
+			long modified = followedFile.lastModified();
+			if (isRewritten(channel, fileSize, modified)) {
+				throw new IOException("CSVDataLoader Message: "
+						+ followedFile.getName() + " was rewritten since it "
+						+ "was last read and must be reloaded.");
+			}
+
+			// Find the end of the last complete line
+			long end = findEndOfLastLine(channel, followedLength, fileSize);
+
+			// Parse the new lines. The columns are emptied even if the lines
+			// can not be parsed so that the next update starts over cleanly.
+			if (end > followedLength) {
+				channel.position(followedLength);
+				BufferedReader reader = new BufferedReader(
+						new InputStreamReader(new LimitedInputStream(
+								fileStream, end - followedLength)));
+				try {
+					numLines = readData(reader, null, followedColumns, true);
+					followedColumns.appendTo(followedProvider, followedFeatures);
+				} finally {
+					followedColumns.reset();
+				}
+				followedLength = end;
+				if (followedHead.length < headLength) {
+					followedHead = readHead(channel, followedLength);
+				}
+			}
+			followedSize = fileSize;
+			followedModified = modified;
+		} finally {
+			fileStream.close();
+		}
+
+		return numLines;
+	}
+
+	/**
+	 * This method checks whether the file given to {@link #follow(File)} was
+	 * rewritten since it was last read, for example by a new run of the
+	 * simulation that writes it, instead of having lines appended to it. A
+	 * file is rewritten if it is shorter than before, if its header changed
+	 * or if it was modified without growing. A rewritten file must be loaded
+	 * again with {@link #follow(File)}.
+	 * 
+	 * @return True if the followed file was rewritten, false if it was not or
+	 *         if no file is followed
+	 * @throws IOException
+	 *             Thrown if the file can not be read
+	 */
+	public boolean isRewritten() throws IOException {
+
+		// Local Declarations
+		boolean rewritten = false;
+
+		if (followedFile != null) {
+			FileInputStream fileStream = new FileInputStream(followedFile);
+			try {
+				FileChannel channel = fileStream.getChannel();
+				rewritten = isRewritten(channel, channel.size(),
+						followedFile.lastModified());
+			} finally {
+				fileStream.close();
+			}
+		}
+
+		return rewritten;
+	}
+
+	/**
+	 * This method checks whether the followed file was rewritten.
+	 * 
+	 * @param channel
+	 *            The channel of the file
+	 * @param fileSize
+	 *            The current size of the file
+	 * @param modified
+	 *            The current modification time of the file
+	 * @return True if the file was rewritten, false otherwise
+	 * @throws IOException
+	 */
+	private boolean isRewritten(FileChannel channel, long fileSize,
+			long modified) throws IOException {
+		// Appending always makes the file longer and never changes the
+		// header. The size is compared to the whole file, including any
+		// incomplete line at its end.
+		return fileSize < followedLength
+				|| (fileSize == followedSize && modified != followedModified)
+				|| !Arrays.equals(followedHead,
+						readHead(channel, followedHead.length));
+	}
+
+	/**
+	 * Reads the first bytes of a file.
+	 * 
+	 * @param channel
+	 *            The channel of the file
+	 * @param length
+	 *            The maximum number of bytes to read. No more than
+	 *            {@link #headLength} bytes are read.
+	 * @return The bytes, which may be fewer than requested if the file is
+	 *         shorter
+	 * @throws IOException
+	 */
+	private static byte[] readHead(FileChannel channel, long length)
+			throws IOException {
+
+		ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(length,
+				headLength));
+		while (buffer.hasRemaining()
+				&& channel.read(buffer, buffer.position()) >= 0) {
+			// Keep reading until the buffer is full
+		}
+
+		return Arrays.copyOf(buffer.array(), buffer.position());
+	}
+
+	/**
+	 * This method loads a CSV input file and returns the contents as a
+	 * CSVDataProvider object.
+	 * 
+	 * @param csvInputFile
+	 *            The CSV input file to load
+	 * @param follow
+	 *            True if the file is still being written. Only complete lines
+	 *            are read, the file may not contain any data yet, and the
+	 *            file is remembered for {@link #update()}.
+	 * @return The contents of the CSV file as a CSVDataProvider object
+	 * @throws Exception
+	 */
+	private CSVDataProvider load(File csvInputFile, boolean follow)
+			throws Exception {
 		// Local Declarations
 		CSVDataProvider dataSet = new CSVDataProvider();
 		ArrayList<String> features = new ArrayList<String>();
@@ -133,12 +379,28 @@ public class CSVDataLoader {
 		int lineNumber = 1;
 		boolean hasHashFeature = false;
 		int elementOffset;
+		long end = Long.MAX_VALUE;
+		long size = 0;
+		long modified = 0;
+		byte[] head = null;
 		
 		// Reading in the data file line by line and passing to the provider
 		try {
 			
-			// Create a BufferedReader for reading the file
-			inputStream = new BufferedReader(new FileReader(csvInputFile));
+			// Create a BufferedReader for reading the file. A file that is
+			// followed is only read up to the end of its last complete line.
+			FileInputStream fileStream = new FileInputStream(csvInputFile);
+			if (follow) {
+				FileChannel channel = fileStream.getChannel();
+				// The size is read first so that a line appended between the
+				// two reads is not mistaken for a rewrite later
+				size = channel.size();
+				modified = csvInputFile.lastModified();
+				end = findEndOfLastLine(channel, 0, size);
+				head = readHead(channel, end);
+			}
+			inputStream = new BufferedReader(new InputStreamReader(
+					new LimitedInputStream(fileStream, end)));
 
 			// Begin reading the file. Find the line which contains the list
 			// of features, denoted either by the "#somefeature"-style label 
@@ -246,6 +508,13 @@ public class CSVDataLoader {
 				lineNumber++;
 			}
 			
+			// There must be at least one line of data unless the file is
+			// followed and its features are known
+			if (line == null && (!follow || features.isEmpty())) {
+				throw new Exception("CSV file in an unexpected format, "
+						+ "no data was found");
+			}
+
 			/**
 			 * If the file had no given features, create a set of features
 			 * x0,x1,x2,...,xn for the fakeDataSet
@@ -260,170 +529,25 @@ public class CSVDataLoader {
 					features.add("x" + i);
 				}
 			}
-			
-			// Create an IData object to store information
-			IData data;
-			String[] dataLines;
-			dataLines = line.trim().split(",");
-			// Set the minimum and maximum as the first value
-			dataSet.setDataMax(Double.parseDouble(dataLines[0]));
-			dataSet.setDataMin(Double.parseDouble(dataLines[0]));
-			/**
-			 * Loop handles the columns of the first line of data
-			 */
-			for (int i = 0; i < dataLines.length; i++) {
-				/**
-				 * Check if error/uncertainties are present in the data file
-				 */
-				if (!(featureErrorIndices.isEmpty())) {
-					// Checks if the column is not an error value
-					if (!featureErrorIndices.containsValue(i)) {
-						/**
-						 * Instantiate a new CSVData object
-						 */
-						data = new CSVData(features.get(i),
-								Double.parseDouble(dataLines[i]));
-						/**
-						 * Set the uncertainty using the HashMap by finding the
-						 * column of error associated with this data
-						 */
-						if (featureErrorIndices.containsKey(i)) {
-							((CSVData) data).setUncertainty(Double
-									.parseDouble(dataLines[featureErrorIndices
-											.get(i)]));
-						}
-						/**
-						 * Set the units if the units exist
-						 */
-						if (!(units.isEmpty())) {
-							((CSVData) data).setUnits(units.get(i));
-						}
-						/**
-						 * Add the data with a time if the times exist,otherwise
-						 * add without time
-						 */
-						if (!(times.isEmpty())) {
-							dataSet.addData(times.get(i), data);
-						} else {
-							dataSet.addData(data);
-						}
-					}
-				} else {
-					/**
-					 * Instantiate a new CSVData object
-					 */
-					if (features.size() == dataLines.length) {
-						data = new CSVData(features.get(i),
-								Double.parseDouble(dataLines[i]));
-					} else {
-						throw new Exception("CSV file in an unexpected format, "
-								+ "data must be a (m x n) matrix");
-					}
-					/**
-					 * Set the units if the units exist
-					 */
-					if (!(units.isEmpty())) {
-						((CSVData) data).setUnits(units.get(i));
-					}
-					/**
-					 * Add the data with a time if the times exist, otherwise
-					 * add with out time
-					 */
-					if (!(times.isEmpty())) {
-						dataSet.addData(times.get(i), data);
-					} else {
-						dataSet.addData(data);
-					}
-				}
-				// Finding the minimum and maximum for the contour plot
-				if (dataSet.getDataMin() > Double.parseDouble(dataLines[i])) {
-					dataSet.setDataMin(Double.parseDouble(dataLines[i]));
-				}
-				if (dataSet.getDataMax() < Double.parseDouble(dataLines[i])) {
-					dataSet.setDataMax(Double.parseDouble(dataLines[i]));
-				}
-			}
-
-			/**
-			 * While loop to read the rest of the data lines
-			 */
-			while ((line = inputStream.readLine()) != null && !line.isEmpty()
-					&& !line.startsWith("#")) {
-				/**
-				 * dataLines- for the split input line
-				 */
-				dataLines = line.trim().split(",");
 
-				/**
-				 * Loop through each data in the line
-				 */
-				for (int i = 0; i < dataLines.length; i++) {
-					/**
-					 * Check if error/uncertainties are present in the data file
-					 */
-					if (!(featureErrorIndices.isEmpty())) {
-						if (!featureErrorIndices.containsValue(i)) {
-							/**
-							 * Instantiate a new CSVData object
-							 */
-							data = new CSVData(features.get(i),
-									Double.parseDouble(dataLines[i]));
+			// Read the data lines into columns and add them to the provider
+			ColumnAssembler columns = new ColumnAssembler(features.size(),
+					featureErrorIndices);
+			if (line != null) {
+				readData(inputStream, line, columns, false);
+			}
+			columns.addTo(dataSet, features, units);
 
-							/**
-							 * Set the uncertainty using the hashmap
-							 */
-							if (featureErrorIndices.containsKey(i)) {
-								((CSVData) data)
-										.setUncertainty(Double
-												.parseDouble(dataLines[featureErrorIndices
-														.get(i)]));
-							}
-							/**
-							 * Set the units if the units exist
-							 */
-							if (!(units.isEmpty())) {
-								((CSVData) data).setUnits(units.get(i));
-							}
-							/**
-							 * Add the data with a time if the times exist,
-							 * otherwise add without time
-							 */
-							if (!(times.isEmpty())) {
-								dataSet.addData(times.get(i), data);
-							} else {
-								dataSet.addData(data);
-							}
-						}
-					} else {
-						/**
-						 * Instantiate a new CSVData object
-						 */
-						data = new CSVData(features.get(i),
-								Double.parseDouble(dataLines[i]));
-						/**
-						 * Set the units if the units exist
-						 */
-						if (!(units.isEmpty())) {
-							((CSVData) data).setUnits(units.get(i));
-						}
-						/**
-						 * Add the data with a time if the times exist,
-						 * otherwise add with out time
-						 */
-						if (!(times.isEmpty())) {
-							dataSet.addData(times.get(i), data);
-						} else {
-							dataSet.addData(data);
-						}
-					}
-					// Finding the minimum and maximum for the contour plot
-					if (dataSet.getDataMin() > Double.parseDouble(dataLines[i])) {
-						dataSet.setDataMin(Double.parseDouble(dataLines[i]));
-					}
-					if (dataSet.getDataMax() < Double.parseDouble(dataLines[i])) {
-						dataSet.setDataMax(Double.parseDouble(dataLines[i]));
-					}
-				}
+			// Remember the file if it is followed
+			if (follow) {
+				followedFile = csvInputFile;
+				followedProvider = dataSet;
+				followedLength = end;
+				followedSize = size;
+				followedModified = modified;
+				followedHead = head;
+				followedColumns = columns;
+				followedFeatures = features;
 			}
 		} catch (FileNotFoundException e) {
 			// TODO Auto-generated catch block
@@ -467,6 +591,145 @@ public class CSVDataLoader {
 		return dataSet;
 	}
 
+	/**
+	 * Reads data lines in chunks and adds them to columns. A chunk is parsed
+	 * by the calling thread if it is the only one. Otherwise, the chunks are
+	 * parsed by a pool of threads and added to the columns in the order of
+	 * the file. The number of chunks that are waiting is limited so that the
+	 * lines of a large file are never all in memory at once.
+	 * 
+	 * @param reader
+	 *            The reader of the data lines
+	 * @param firstLine
+	 *            The first data line, which was already read, or null
+	 * @param columns
+	 *            The columns
+	 * @param skipBreaks
+	 *            If true, empty lines and comments are skipped. Otherwise,
+	 *            they end the data.
+	 * @return The number of data lines that were read
+	 * @throws Exception
+	 */
+	private int readData(BufferedReader reader, String firstLine,
+			ColumnAssembler columns, boolean skipBreaks) throws Exception {
+
+		// Local Declarations
+		int numThreads = Runtime.getRuntime().availableProcessors();
+		ExecutorService executor = null;
+		LinkedList<Future<CSVChunk>> pendingChunks = new LinkedList<Future<CSVChunk>>();
+		ArrayList<String> chunkLines = new ArrayList<String>(chunkSize);
+		boolean lastLine = false;
+		int numLines = 0;
+		String line;
+
+		if (firstLine != null) {
+			chunkLines.add(firstLine);
+		}
+
+		try {
+			while (!lastLine) {
+				line = reader.readLine();
+				boolean isBreak = (line != null && (line.isEmpty() || line
+						.startsWith("#")));
+				lastLine = (line == null || (isBreak && !skipBreaks));
+				if (!lastLine && !isBreak) {
+					chunkLines.add(line);
+				}
+				// Parse the chunk if it is full or if the data has ended
+				if (chunkLines.size() == chunkSize
+						|| (lastLine && !chunkLines.isEmpty())) {
+					CSVChunk chunk = new CSVChunk(chunkLines,
+							columns.numFeatures);
+					numLines += chunkLines.size();
+					if (lastLine && executor == null) {
+						columns.add(chunk.call());
+					} else {
+						if (executor == null) {
+							executor = Executors.newFixedThreadPool(numThreads);
+						}
+						pendingChunks.add(executor.submit(chunk));
+						if (pendingChunks.size() >= 2 * numThreads) {
+							columns.add(getChunk(pendingChunks.removeFirst()));
+						}
+					}
+					chunkLines = new ArrayList<String>(chunkSize);
+				}
+			}
+			while (!pendingChunks.isEmpty()) {
+				columns.add(getChunk(pendingChunks.removeFirst()));
+			}
+		} finally {
+			// Stop the threads that parsed the chunks
+			if (executor != null) {
+				executor.shutdownNow();
+			}
+		}
+
+		return numLines;
+	}
+
+	/**
+	 * Finds the end of the last complete line in part of a file.
+	 * 
+	 * @param channel
+	 *            The channel of the file
+	 * @param start
+	 *            The position where the search stops
+	 * @param end
+	 *            The position where the search starts, usually the size of
+	 *            the file
+	 * @return The position after the last line break between start and end,
+	 *         or start if there is none
+	 * @throws IOException
+	 */
+	private static long findEndOfLastLine(FileChannel channel, long start,
+			long end) throws IOException {
+
+		// Read backward from the end one block at a time
+		ByteBuffer buffer = ByteBuffer.allocate(chunkSize);
+		long blockEnd = end;
+		while (blockEnd > start) {
+			long blockStart = Math.max(start, blockEnd - chunkSize);
+			buffer.clear();
+			buffer.limit((int) (blockEnd - blockStart));
+			while (buffer.hasRemaining()
+					&& channel.read(buffer, blockStart + buffer.position()) >= 0) {
+				// Keep reading until the block is full
+			}
+			for (int i = buffer.position() - 1; i >= 0; i--) {
+				if (buffer.get(i) == '\n') {
+					return blockStart + i + 1;
+				}
+			}
+			blockEnd = blockStart;
+		}
+
+		return start;
+	}
+
+	/**
+	 * Waits for a chunk of data lines to be parsed by the thread pool.
+	 * 
+	 * @param future
+	 *            The future of the chunk
+	 * @return The parsed chunk
+	 * @throws Exception
+	 *             The exception thrown while the chunk was parsed
+	 */
+	private CSVChunk getChunk(Future<CSVChunk> future) throws Exception {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			// Throw the original exception, which is usually a
+			// NumberFormatException or a malformed matrix
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			}
+			throw new Exception(cause);
+		}
+	}
+
 	/**
 	 * Checks the number of features
 	 * 
@@ -976,4 +1239,445 @@ public class CSVDataLoader {
 		return csvInputStringList;
 	}
 
+	/**
+	 * This class parses a chunk of data lines into a matrix of doubles with
+	 * one row per line. The cells are found with indexOf() instead of the
+	 * regular expression of String.split() and, just like split(), empty
+	 * cells at the end of a line are ignored.
+	 */
+	private static class CSVChunk implements Callable<CSVChunk> {
+
+		/**
+		 * The lines, which are released once they are parsed
+		 */
+		private List<String> lines;
+
+		/**
+		 * The maximum number of cells in a line
+		 */
+		private final int numColumns;
+
+		/**
+		 * The number of lines in the chunk
+		 */
+		private final int numRows;
+
+		/**
+		 * The number of cells in each line
+		 */
+		private final int[] rowLengths;
+
+		/**
+		 * The values of the cells, stored line by line with numColumns cells
+		 * per line
+		 */
+		private final double[] cells;
+
+		/**
+		 * The minimum value in the chunk
+		 */
+		private double min = Double.POSITIVE_INFINITY;
+
+		/**
+		 * The maximum value in the chunk
+		 */
+		private double max = Double.NEGATIVE_INFINITY;
+
+		/**
+		 * The constructor
+		 * 
+		 * @param lines
+		 *            The lines of the chunk
+		 * @param numColumns
+		 *            The maximum number of cells in a line
+		 */
+		public CSVChunk(List<String> lines, int numColumns) {
+			this.lines = lines;
+			this.numColumns = numColumns;
+			numRows = lines.size();
+			rowLengths = new int[numRows];
+			cells = new double[numRows * numColumns];
+		}
+
+		/**
+		 * Parses the lines.
+		 * 
+		 * @return This chunk
+		 * @throws Exception
+		 *             Thrown if a line has too many cells or a cell is not a
+		 *             number
+		 */
+		@Override
+		public CSVChunk call() throws Exception {
+			for (int row = 0; row < numRows; row++) {
+				String line = lines.get(row).trim();
+				// Skip the empty cells at the end of the line
+				int end = line.length();
+				while (end > 0 && line.charAt(end - 1) == ',') {
+					end--;
+				}
+				// Parse each cell
+				int offset = row * numColumns;
+				int column = 0, start = 0, comma;
+				while (start <= end && end > 0) {
+					comma = line.indexOf(',', start);
+					if (comma < 0 || comma > end) {
+						comma = end;
+					}
+					if (column == numColumns) {
+						throw new Exception("CSV file in an unexpected "
+								+ "format, data must be a (m x n) matrix");
+					}
+					double value = Double.parseDouble(line.substring(start,
+							comma));
+					cells[offset + column++] = value;
+					if (value < min) {
+						min = value;
+					}
+					if (value > max) {
+						max = value;
+					}
+					start = comma + 1;
+				}
+				rowLengths[row] = column;
+			}
+			lines = null;
+
+			return this;
+		}
+	}
+
+	/**
+	 * This class collects the parsed chunks into one column of values per
+	 * feature. The columns grow as the chunks are added and are trimmed when
+	 * they are added to the provider.
+	 */
+	private static class ColumnAssembler {
+
+		/**
+		 * The number of features, including the error columns
+		 */
+		private final int numFeatures;
+
+		/**
+		 * The index of the error column of each feature, or -1 if the feature
+		 * has no errors
+		 */
+		private final int[] errorColumns;
+
+		/**
+		 * True for the columns that are the errors of another feature
+		 */
+		private final boolean[] isError;
+
+		/**
+		 * The values of each feature
+		 */
+		private final double[][] values;
+
+		/**
+		 * The uncertainties of each feature that has an error column
+		 */
+		private final double[][] uncertainties;
+
+		/**
+		 * The number of values in each column
+		 */
+		private final int[] sizes;
+
+		/**
+		 * True if the first line of the data has not been added
+		 */
+		private boolean firstLine = true;
+
+		/**
+		 * The minimum value of all cells
+		 */
+		private double min = Double.POSITIVE_INFINITY;
+
+		/**
+		 * The maximum value of all cells
+		 */
+		private double max = Double.NEGATIVE_INFINITY;
+
+		/**
+		 * The constructor
+		 * 
+		 * @param numFeatures
+		 *            The number of features, including the error columns
+		 * @param featureErrorIndices
+		 *            The index of the error column for each feature that has
+		 *            one
+		 */
+		public ColumnAssembler(int numFeatures,
+				Map<Integer, Integer> featureErrorIndices) {
+			this.numFeatures = numFeatures;
+			errorColumns = new int[numFeatures];
+			isError = new boolean[numFeatures];
+			values = new double[numFeatures][];
+			uncertainties = new double[numFeatures][];
+			sizes = new int[numFeatures];
+			Arrays.fill(errorColumns, -1);
+			for (int feature : featureErrorIndices.keySet()) {
+				int errorColumn = featureErrorIndices.get(feature);
+				if (feature >= 0 && feature < numFeatures
+						&& errorColumn < numFeatures) {
+					errorColumns[feature] = errorColumn;
+					isError[errorColumn] = true;
+				}
+			}
+			reset();
+		}
+
+		/**
+		 * Empties the columns so that they can collect more lines.
+		 */
+		private void reset() {
+			for (int i = 0; i < numFeatures; i++) {
+				if (!isError[i]) {
+					values[i] = new double[16];
+					if (errorColumns[i] >= 0) {
+						uncertainties[i] = new double[16];
+					}
+				}
+				sizes[i] = 0;
+			}
+			min = Double.POSITIVE_INFINITY;
+			max = Double.NEGATIVE_INFINITY;
+		}
+
+		/**
+		 * Adds the lines of a parsed chunk to the columns.
+		 * 
+		 * @param chunk
+		 *            The chunk
+		 * @throws Exception
+		 *             Thrown if the first line of data does not have a value
+		 *             for every feature
+		 */
+		public void add(CSVChunk chunk) throws Exception {
+
+			// Without error columns, the first line must be complete
+			if (firstLine && chunk.numRows > 0) {
+				boolean hasErrors = false;
+				for (int i = 0; i < numFeatures; i++) {
+					hasErrors |= isError[i];
+				}
+				if (!hasErrors && chunk.rowLengths[0] != numFeatures) {
+					throw new Exception("CSV file in an unexpected format, "
+							+ "data must be a (m x n) matrix");
+				}
+				firstLine = false;
+			}
+
+			// Make room for the chunk
+			for (int i = 0; i < numFeatures; i++) {
+				if (values[i] != null
+						&& sizes[i] + chunk.numRows > values[i].length) {
+					int length = Math.max(2 * values[i].length, sizes[i]
+							+ chunk.numRows);
+					values[i] = Arrays.copyOf(values[i], length);
+					if (uncertainties[i] != null) {
+						uncertainties[i] = Arrays.copyOf(uncertainties[i],
+								length);
+					}
+				}
+			}
+
+			// Copy the cells of each line into the columns. Rows that are too
+			// short to contain an error have no uncertainty.
+			for (int row = 0; row < chunk.numRows; row++) {
+				int offset = row * numFeatures;
+				int length = chunk.rowLengths[row];
+				for (int i = 0; i < length; i++) {
+					if (!isError[i]) {
+						int errorColumn = errorColumns[i];
+						if (errorColumn >= 0) {
+							double uncertainty = (errorColumn < length) ? chunk.cells[offset
+									+ errorColumn]
+									: 0.0;
+							// CSVData ignores negative uncertainties
+							uncertainties[i][sizes[i]] = Math.max(uncertainty,
+									0.0);
+						}
+						values[i][sizes[i]++] = chunk.cells[offset + i];
+					}
+				}
+			}
+
+			// Update the bounds of the data
+			min = Math.min(min, chunk.min);
+			max = Math.max(max, chunk.max);
+
+			return;
+		}
+
+		/**
+		 * Adds the columns to a provider at its default time and empties
+		 * them. The columns are only added if they have values or if no lines
+		 * have been added at all, which is the case for a followed file that
+		 * does not have any data yet.
+		 * 
+		 * @param provider
+		 *            The provider
+		 * @param features
+		 *            The features of the columns
+		 * @param units
+		 *            The units of the columns, which may be empty
+		 */
+		public void addTo(CSVDataProvider provider, List<String> features,
+				List<String> units) {
+			for (int i = 0; i < numFeatures; i++) {
+				if (!isError[i] && (sizes[i] > 0 || firstLine)) {
+					provider.addColumn(features.get(i), getValues(i),
+							getUncertainties(i),
+							(i < units.size()) ? units.get(i) : null);
+				}
+			}
+			provider.setDataMin(min);
+			provider.setDataMax(max);
+			reset();
+
+			return;
+		}
+
+		/**
+		 * Appends the columns to the end of the columns of a provider at its
+		 * default time and empties them.
+		 * 
+		 * @param provider
+		 *            The provider
+		 * @param features
+		 *            The features of the columns
+		 */
+		public void appendTo(CSVDataProvider provider, List<String> features) {
+			for (int i = 0; i < numFeatures; i++) {
+				if (!isError[i] && sizes[i] > 0) {
+					provider.appendToColumn(features.get(i), getValues(i),
+							getUncertainties(i));
+				}
+			}
+			if (min <= max) {
+				provider.setDataMin(Math.min(provider.getDataMin(), min));
+				provider.setDataMax(Math.max(provider.getDataMax(), max));
+			}
+			reset();
+
+			return;
+		}
+
+		/**
+		 * Returns the values of a column trimmed to its size.
+		 * 
+		 * @param i
+		 *            The index of the column
+		 * @return The values
+		 */
+		private double[] getValues(int i) {
+			return (sizes[i] == values[i].length) ? values[i] : Arrays.copyOf(
+					values[i], sizes[i]);
+		}
+
+		/**
+		 * Returns the uncertainties of a column trimmed to its size.
+		 * 
+		 * @param i
+		 *            The index of the column
+		 * @return The uncertainties or null if the column has no error column
+		 */
+		private double[] getUncertainties(int i) {
+			if (uncertainties[i] == null) {
+				return null;
+			}
+			return (sizes[i] == uncertainties[i].length) ? uncertainties[i]
+					: Arrays.copyOf(uncertainties[i], sizes[i]);
+		}
+	}
+
+	/**
+	 * This class reads at most a given number of bytes from another stream. It
+	 * keeps the reader of a followed file from reading a line that has not
+	 * been completely written.
+	 */
+	private static class LimitedInputStream extends FilterInputStream {
+
+		/**
+		 * The number of bytes that can still be read
+		 */
+		private long remaining;
+
+		/**
+		 * The constructor
+		 * 
+		 * @param in
+		 *            The stream to read
+		 * @param limit
+		 *            The maximum number of bytes to read
+		 */
+		public LimitedInputStream(InputStream in, long limit) {
+			super(in);
+			remaining = limit;
+		}
+
+		/**
+		 * @see java.io.FilterInputStream#read()
+		 */
+		@Override
+		public int read() throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int value = super.read();
+			if (value >= 0) {
+				remaining--;
+			}
+			return value;
+		}
+
+		/**
+		 * @see java.io.FilterInputStream#read(byte[], int, int)
+		 */
+		@Override
+		public int read(byte[] bytes, int offset, int length)
+				throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int count = super.read(bytes, offset,
+					(int) Math.min(length, remaining));
+			if (count > 0) {
+				remaining -= count;
+			}
+			return count;
+		}
+
+		/**
+		 * @see java.io.FilterInputStream#skip(long)
+		 */
+		@Override
+		public long skip(long n) throws IOException {
+			long count = super.skip(Math.min(n, remaining));
+			remaining -= count;
+			return count;
+		}
+
+		/**
+		 * @see java.io.FilterInputStream#available()
+		 */
+		@Override
+		public int available() throws IOException {
+			return (int) Math.min(super.available(), remaining);
+		}
+
+		/**
+		 * Marks are not supported because they would not restore the limit.
+		 * 
+		 * @see java.io.FilterInputStream#markSupported()
+		 */
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+	}
+
 }
@@ -107,8 +107,15 @@ public class CSVDataProvider implements IDataProvider {
 		if (dataSet.containsKey(time)) {
 			// Check if the feature already exists for a given time
 			if (dataSet.get(time).containsKey(feature)) {
+				// Columns are read-only, so copy the column into an ArrayList
+				// before the data is added
+				List<IData> series = dataSet.get(time).get(feature);
+				if (series instanceof CSVColumn) {
+					series = new ArrayList<IData>(series);
+					dataSet.get(time).put(feature, series);
+				}
 				// Feature exists so add the data to the ArrayList
-				dataSet.get(time).get(feature).add(data);
+				series.add(data);
 			} else {
 				// Feature does not exist so create the ArrayList
 				dataSet.get(time).put(feature, new ArrayList<IData>());
@@ -181,6 +188,116 @@ public class CSVDataProvider implements IDataProvider {
 		addDataSeries(defaultTime, dataSeries);
 	}
 
+	/**
+	 * Adds all of the values of a feature at a specified time as a single
+	 * column. This is much smaller than adding a CSVData for each value, which
+	 * is created only when the data is requested with getDataAtCurrentTime().
+	 * The arrays are not copied and must not be changed afterward. At the
+	 * moment, if the feature already exists at the time, it does nothing.
+	 * 
+	 * @param time
+	 *            The time of the values
+	 * @param feature
+	 *            The feature of the values
+	 * @param values
+	 *            The values
+	 * @param uncertainties
+	 *            The uncertainties of the values, or null if there are none
+	 * @param units
+	 *            The units of the values, or null if there are none
+	 */
+	public void addColumn(double time, String feature, double[] values,
+			double[] uncertainties, String units) {
+		// Get the features at the time, creating them if the time is new
+		Map<String, List<IData>> dataSetComponent = dataSet.get(time);
+		if (dataSetComponent == null) {
+			dataSetComponent = new HashMap<String, List<IData>>();
+			dataSet.put(time, dataSetComponent);
+		}
+		// Add the column if the feature is new
+		if (!dataSetComponent.containsKey(feature)) {
+			dataSetComponent.put(feature, new CSVColumn(feature, values,
+					uncertainties, units));
+		}
+		return;
+	}
+
+	/**
+	 * Adds a column with no specified time. It calls addColumn with a
+	 * specified time and uses the defaultTime as the time.
+	 * 
+	 * @param feature
+	 *            The feature of the values
+	 * @param values
+	 *            The values
+	 * @param uncertainties
+	 *            The uncertainties of the values, or null if there are none
+	 * @param units
+	 *            The units of the values, or null if there are none
+	 */
+	public void addColumn(String feature, double[] values,
+			double[] uncertainties, String units) {
+		addColumn(defaultTime, feature, values, uncertainties, units);
+	}
+
+	/**
+	 * Appends values to the end of a feature's column at a specified time. If
+	 * the feature does not exist at the time, a new column is added. Only the
+	 * new values are copied, so the cost does not depend on the size of the
+	 * column. Columns may be appended to while they are read by other threads.
+	 * 
+	 * @param time
+	 *            The time of the values
+	 * @param feature
+	 *            The feature of the values
+	 * @param values
+	 *            The values
+	 * @param uncertainties
+	 *            The uncertainties of the values, or null if there are none
+	 */
+	public void appendToColumn(double time, String feature, double[] values,
+			double[] uncertainties) {
+		// Get the series of the feature, if it exists
+		Map<String, List<IData>> dataSetComponent = dataSet.get(time);
+		List<IData> series = (dataSetComponent != null) ? dataSetComponent
+				.get(feature) : null;
+		if (series instanceof CSVColumn) {
+			// Append the values to the column
+			((CSVColumn) series).append(values, uncertainties);
+		} else if (series != null) {
+			// Add a CSVData for each value to a series of IData
+			for (int i = 0; i < values.length; i++) {
+				CSVData data = new CSVData(feature, values[i]);
+				if (uncertainties != null) {
+					data.setUncertainty(uncertainties[i]);
+				}
+				series.add(data);
+			}
+		} else {
+			// Create the column
+			addColumn(time, feature, values.clone(),
+					(uncertainties != null) ? uncertainties.clone() : null, null);
+		}
+		return;
+	}
+
+	/**
+	 * Appends values to a feature's column with no specified time. It calls
+	 * appendToColumn with a specified time and uses the defaultTime as the
+	 * time.
+	 * 
+	 * @param feature
+	 *            The feature of the values
+	 * @param values
+	 *            The values
+	 * @param uncertainties
+	 *            The uncertainties of the values, or null if there are none
+	 */
+	public void appendToColumn(String feature, double[] values,
+			double[] uncertainties) {
+		appendToColumn(defaultTime, feature, values, uncertainties);
+	}
+
 	/**
 	 * Removes a data series at a specified time with a specified feature.
 	 * 
@@ -284,9 +401,15 @@ public class CSVDataProvider implements IDataProvider {
 				// Set the current time.
 				setTime(time);
 
-				// Get the data at the current time for the new independent
-				// feature.
-				List<IData> independentData = getDataAtCurrentTime(independent);
+				// Get the values at the current time for the new independent
+				// feature. Columns use the independent feature's column so
+				// that their positions grow with it.
+				double[] independentValues = getValuesAtCurrentTime(independent);
+				List<IData> independentData = dataSet.get(currentTime).get(
+						independent);
+				CSVColumn independentColumn = (independentData instanceof CSVColumn) ? (CSVColumn) independentData
+						: new CSVColumn(independent, independentValues, null,
+								null);
 				// Get all features at the current time.
 				List<String> featuresAtTime = getFeaturesAtCurrentTime();
 
@@ -299,11 +422,17 @@ public class CSVDataProvider implements IDataProvider {
 				// For each feature at the current time, add the independent
 				// variable's data as positional data.
 				for (String feature : featuresAtTime) {
-					List<IData> featureData = getDataAtCurrentTime(feature);
-					for (int i = 0; i < featureData.size(); i++) {
-						// set the position
-						((CSVData) featureData.get(i))
-								.addPosition(independentData.get(i).getValue());
+					List<IData> featureData = dataSet.get(currentTime).get(
+							feature);
+					if (featureData instanceof CSVColumn) {
+						// Columns share the column of positions
+						((CSVColumn) featureData).addPosition(independentColumn);
+					} else {
+						for (int i = 0; i < featureData.size(); i++) {
+							// set the position
+							((CSVData) featureData.get(i))
+									.addPosition(independentValues[i]);
+						}
 					}
 				}
 				// Do not remove the independent variable feature from the map
@@ -436,6 +565,12 @@ public class CSVDataProvider implements IDataProvider {
 	public double[] getValuesAtCurrentTime(String feature) {
 		// Create the double array
 		double[] values = null;
+		// Columns already store their values in an array
+		List<IData> sourceData = dataSet.get(currentTime).get(feature);
+		if (sourceData instanceof CSVColumn) {
+			return (sourceData.isEmpty()) ? null : ((CSVColumn) sourceData)
+					.getValues();
+		}
 		// Check that the dataSet at the current time has the specified feature
 		List<IData> data = getDataAtCurrentTime(feature);
 		if (data != null) {
@@ -460,10 +595,14 @@ public class CSVDataProvider implements IDataProvider {
 	public double[] getUncertaintiesAtCurrentTime(String feature) {
 		// Create the double array
 		double[] uncertainties = null;
+		// Columns already store their uncertainties in an array
+		List<IData> iDataSeries = dataSet.get(currentTime).get(feature);
+		if (iDataSeries instanceof CSVColumn) {
+			return (iDataSeries.isEmpty()) ? null : ((CSVColumn) iDataSeries)
+					.getUncertainties();
+		}
 		// Check that the dataSet at the current time has the specified feature
-		if (!dataSet.get(currentTime).get(feature).isEmpty()) {
-			// Get the ArrayList of IData
-			List<IData> iDataSeries = dataSet.get(currentTime).get(feature);
+		if (!iDataSeries.isEmpty()) {
 			// Initialize the Array
 			uncertainties = new double[iDataSeries.size()];
 			// Fill in the values
@@ -487,6 +626,13 @@ public class CSVDataProvider implements IDataProvider {
 		// Create the position array
 		double[] position = null;
 
+		// Columns already store their values in an array
+		List<IData> sourceData = dataSet.get(currentTime).get(independentVar);
+		if (sourceData instanceof CSVColumn) {
+			return (sourceData.isEmpty()) ? null : ((CSVColumn) sourceData)
+					.getValues();
+		}
+
 		// Get the data for the independent variable.
 		List<IData> independentVarData = getDataAtCurrentTime(independentVar);
 
@@ -18,10 +18,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.ice.client.common.ActionTree;
 import org.eclipse.ice.viz.service.IPlot;
 import org.eclipse.jface.action.Action;
+import org.eclipse.jface.action.IAction;
 import org.eclipse.jface.action.MenuManager;
 import org.eclipse.jface.action.Separator;
 import org.eclipse.swt.events.DisposeEvent;
@@ -29,6 +31,7 @@ import org.eclipse.swt.events.DisposeListener;
 import org.eclipse.swt.events.MenuEvent;
 import org.eclipse.swt.events.MenuListener;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Menu;
 
 /**
@@ -36,7 +39,9 @@ import org.eclipse.swt.widgets.Menu;
  * plot using the existing CSV infrastructure in ICE.
  * 
  * In addition to the IPlot operations it provides the load() operation that
- * should be called after construction.
+ * should be called after construction. The follow() operation loads the file
+ * and keeps appending the lines that are written to it. It can also be turned
+ * on and off from the context menu of a drawn plot.
  * 
  * @author Jay Jay Billings, Anna Wojtowicz
  *
@@ -61,17 +66,40 @@ public class CSVPlot implements IPlot {
 	/**
 	 * The CSVDataProvider used to store the loaded CSV data.
 	 */
-	private CSVDataProvider baseProvider;
+	private volatile CSVDataProvider baseProvider;
 
 	/**
 	 * A map of drawn plots, keyed on the parent {@code Composite}s. Only one
 	 * rendering should be created for a single parent. Subsequent calls to
 	 * {@link #draw(String, String, Composite)} with a parent already in the
 	 * map's key set should update the plot category and type for the associated
-	 * drawn plot.
+	 * drawn plot. It is a concurrent map because the thread that follows the
+	 * file refreshes the drawn plots while the UI thread adds and removes
+	 * them.
 	 */
 	private final Map<Composite, DrawnPlot> drawnPlots;
 
+	/**
+	 * The loader of the CSV data. It is kept so that a followed file can be
+	 * updated. It is also the lock that is held while it reads the file, so
+	 * that a follower that was just stopped can not read the file at the same
+	 * time as a new one.
+	 */
+	private final CSVDataLoader dataLoader;
+
+	/**
+	 * The thread that follows the source file for new lines or null if the
+	 * file is not followed. A follower stops as soon as it is no longer the
+	 * current one, even if following was started again in the meantime.
+	 */
+	private volatile Thread follower;
+
+	/**
+	 * The time between checks of a followed file for new lines, in
+	 * milliseconds
+	 */
+	private static final long followInterval = 1000;
+
 	/**
 	 * The Constructor
 	 * 
@@ -83,10 +111,14 @@ public class CSVPlot implements IPlot {
 		// Create the property map, empty by default
 		properties = new HashMap<String, String>();
 		// Create the plot type map and add empty arrays by default
-		types = new HashMap<String, String[]>();
+		types = new ConcurrentHashMap<String, String[]>();
 
 		// Create the map of drawn plots.
-		drawnPlots = new HashMap<Composite, DrawnPlot>();
+		drawnPlots = new ConcurrentHashMap<Composite, DrawnPlot>();
+
+		// Create the loader and do not follow the file until asked
+		dataLoader = new CSVDataLoader();
+		follower = null;
 
 		return;
 	}
@@ -98,6 +130,64 @@ public class CSVPlot implements IPlot {
 	 * 
 	 */
 	public void load() {
+		startLoading(false);
+	}
+
+	/**
+	 * This operation loads the data that will be plotted like {@link #load()}
+	 * and then follows the file as it is written, which is useful for the
+	 * output of a simulation that is still running. Only the lines that are
+	 * added to the end of the file are read, and they are appended to the
+	 * plotted series. The drawn plots are refreshed after each update. If
+	 * the file is rewritten, for example by a new run of the simulation, it
+	 * is loaded again. The file is followed until {@link #stopFollowing()} is
+	 * called or until the last drawn plot is disposed.
+	 */
+	public synchronized void follow() {
+		if (follower == null) {
+			startLoading(true);
+		}
+	}
+
+	/**
+	 * This operation stops following the file. The thread that follows it is
+	 * interrupted so that it does not wait for its next check.
+	 */
+	public synchronized void stopFollowing() {
+		Thread oldFollower = follower;
+		follower = null;
+		if (oldFollower != null) {
+			oldFollower.interrupt();
+		}
+	}
+
+	/**
+	 * This operation returns true if the file is being followed.
+	 * 
+	 * @return True if the file is being followed, false otherwise
+	 */
+	public boolean isFollowing() {
+		return follower != null;
+	}
+
+	/**
+	 * This operation returns true if the calling thread is the thread that
+	 * currently follows the file.
+	 * 
+	 * @return True if the calling thread should keep following the file
+	 */
+	private boolean isFollower() {
+		return follower == Thread.currentThread();
+	}
+
+	/**
+	 * This operation starts the thread that loads and, if requested, follows
+	 * the file.
+	 * 
+	 * @param follow
+	 *            True if the file should be followed after it is loaded
+	 */
+	private void startLoading(final boolean follow) {
 
 		if (source != null) {
 			// Only load the file if it is a CSV file.
@@ -107,15 +197,28 @@ public class CSVPlot implements IPlot {
 				Thread loadingThread = new Thread(new Runnable() {
 					@Override
 					public void run() {
-						load(file);
+						if (follow) {
+							followFile(file);
+						} else {
+							load(file, false);
+						}
 					}
 				});
+				// A thread that follows the file should not keep the
+				// application from exiting.
+				loadingThread.setDaemon(follow);
 
 				// Force the loading thread to report unhandled exceptions to
 				// this thread's exception handler.
 				loadingThread.setUncaughtExceptionHandler(Thread
 						.currentThread().getUncaughtExceptionHandler());
 
+				// Make it the current follower before it starts so that it
+				// does not stop right away
+				if (follow) {
+					follower = loadingThread;
+				}
+
 				// Start the thread
 				loadingThread.start();
 			}
@@ -131,13 +234,22 @@ public class CSVPlot implements IPlot {
 	 * 
 	 * @param file
 	 *            The file to load. This is assumed to be a valid file.
+	 * @param follow
+	 *            True if the file is still being written and will be
+	 *            followed
 	 */
-	private void load(File file) {
+	private void load(File file, boolean follow) {
 
 		// Load the file using the CSV utilities.
-		CSVDataLoader dataLoader = new CSVDataLoader();
 		try {
-			baseProvider = dataLoader.load(file);
+			synchronized (dataLoader) {
+				// A follower that was stopped must not replace the data
+				if (follow && !isFollower()) {
+					return;
+				}
+				baseProvider = (follow ? dataLoader.follow(file) : dataLoader
+						.load(file));
+			}
 		} catch (Exception e) {
 			throw new RuntimeException(e);
 		}
@@ -180,6 +292,107 @@ public class CSVPlot implements IPlot {
 		return;
 	}
 
+	/**
+	 * Loads the specified file and then checks it for new lines until it is
+	 * no longer followed. The file is only read if its size or modification
+	 * time has changed, and the drawn plots are only refreshed if lines were
+	 * added. A file that was rewritten is loaded again and the drawn plots
+	 * are switched to the new data. The thread stops as soon as it is no
+	 * longer the current follower.
+	 * 
+	 * @param file
+	 *            The file to follow. This is assumed to be a valid file.
+	 */
+	private void followFile(File file) {
+
+		try {
+			// Wait for the simulation to create the file
+			while (isFollower() && file.length() == 0) {
+				Thread.sleep(followInterval);
+			}
+			if (!isFollower()) {
+				return;
+			}
+			load(file, true);
+			refreshDrawnPlots(true);
+
+			// Check the file for new lines
+			long lastSize = file.length();
+			long lastModified = file.lastModified();
+			while (isFollower()) {
+				Thread.sleep(followInterval);
+				long size = file.length();
+				long modified = file.lastModified();
+				if (size != lastSize || modified != lastModified) {
+					lastSize = size;
+					lastModified = modified;
+					boolean reloaded = false;
+					int newLines = 0;
+					synchronized (dataLoader) {
+						if (!isFollower()) {
+							break;
+						} else if (dataLoader.isRewritten()) {
+							reloaded = true;
+						} else {
+							newLines = dataLoader.update();
+						}
+					}
+					if (reloaded) {
+						load(file, true);
+						refreshDrawnPlots(true);
+					} else if (newLines > 0) {
+						refreshDrawnPlots(false);
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			// Stop following when interrupted
+		} catch (Exception e) {
+			// Stop following if the file can not be read, unless the error
+			// was caused by stopping this follower
+			if (isFollower()) {
+				e.printStackTrace();
+			}
+		} finally {
+			synchronized (this) {
+				if (isFollower()) {
+					follower = null;
+				}
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * Refreshes all of the drawn plots on the UI thread after new data has
+	 * been appended to the provider or after the file was loaded again.
+	 * 
+	 * @param reloaded
+	 *            True if the file was loaded again, in which case the drawn
+	 *            plots are switched to the new provider before they are
+	 *            refreshed
+	 */
+	private void refreshDrawnPlots(final boolean reloaded) {
+		if (!drawnPlots.isEmpty()) {
+			final CSVDataProvider provider = baseProvider;
+			Display.getDefault().asyncExec(new Runnable() {
+				@Override
+				public void run() {
+					for (DrawnPlot drawnPlot : drawnPlots.values()) {
+						if (!drawnPlot.editor.getPlotCanvas().isDisposed()) {
+							if (reloaded) {
+								drawnPlot.setDataProvider(provider);
+							}
+							drawnPlot.refresh();
+						}
+					}
+				}
+			});
+		}
+		return;
+	}
+
 	/**
 	 * @see org.eclipse.ice.viz.service.IPlot#getPlotTypes()
 	 */
@@ -285,6 +498,10 @@ public class CSVPlot implements IPlot {
 					@Override
 					public void widgetDisposed(DisposeEvent e) {
 						drawnPlots.remove((Composite) e.widget).dispose();
+						// Nobody is watching the file any more
+						if (drawnPlots.isEmpty()) {
+							stopFollowing();
+						}
 					}
 				});
 			}
@@ -332,9 +549,10 @@ public class CSVPlot implements IPlot {
 		 */
 		public final CSVPlotEditor editor;
 		/**
-		 * The data provider containing the loaded CSV data.
+		 * The data provider containing the loaded CSV data. It is replaced
+		 * when a followed file is loaded again.
 		 */
-		public final CSVDataProvider dataProvider;
+		public CSVDataProvider dataProvider;
 		/**
 		 * The provider responsible for maintaining the plot configuration.
 		 */
@@ -407,31 +625,23 @@ public class CSVPlot implements IPlot {
 				}
 			});
 
-			// Fill out the add series tree. This tree will never need to be
-			// updated.
-			for (Entry<String, String[]> e : getPlotTypes().entrySet()) {
-				final String category = e.getKey();
-				String[] types = e.getValue();
-
-				if (category != null && types != null) {
-					// Create the tree for the category and all its types.
-					ActionTree catTree = new ActionTree(category);
-					addSeriesTree.add(catTree);
-					// Create Actions for all the types. Each Action should call
-					// addSeries(...) with the category and type.
-					for (final String type : types) {
-						if (type != null) {
-							catTree.add(new ActionTree(new Action(type) {
-								@Override
-								public void run() {
-									addSeries(category, type);
-									refresh();
-								}
-							}));
-						}
+			// Create the Action that turns following the file on and off.
+			final Action followAction = new Action("Follow File",
+					IAction.AS_CHECK_BOX) {
+				@Override
+				public void run() {
+					if (isChecked()) {
+						follow();
+					} else {
+						stopFollowing();
 					}
 				}
-			}
+			};
+			final ActionTree followTree = new ActionTree(followAction);
+
+			// Fill out the add series tree. This tree only needs to be updated
+			// if the file is loaded again.
+			fillAddSeriesTree();
 
 			// When the Menu is about to be shown, add the add/remove series
 			// actions to it.
@@ -449,6 +659,8 @@ public class CSVPlot implements IPlot {
 					removeSeriesTree.getContributionItem().fill(menu, -1);
 					separator.fill(menu, -1);
 					clearAction.getContributionItem().fill(menu, -1);
+					followAction.setChecked(isFollowing());
+					followTree.getContributionItem().fill(menu, -1);
 				}
 			});
 
@@ -459,6 +671,66 @@ public class CSVPlot implements IPlot {
 			return;
 		}
 
+		/**
+		 * Fills the tree of Actions for adding series with the current plot
+		 * types.
+		 */
+		private void fillAddSeriesTree() {
+			addSeriesTree.removeAll();
+			for (Entry<String, String[]> e : types.entrySet()) {
+				final String category = e.getKey();
+				String[] types = e.getValue();
+
+				if (category != null && types != null) {
+					// Create the tree for the category and all its types.
+					ActionTree catTree = new ActionTree(category);
+					addSeriesTree.add(catTree);
+					// Create Actions for all the types. Each Action should call
+					// addSeries(...) with the category and type.
+					for (final String type : types) {
+						if (type != null) {
+							catTree.add(new ActionTree(new Action(type) {
+								@Override
+								public void run() {
+									addSeries(category, type);
+									refresh();
+								}
+							}));
+						}
+					}
+				}
+			}
+			return;
+		}
+
+		/**
+		 * Switches the drawn plot to a new provider after the file was loaded
+		 * again. The plotted series are added again for the new provider if
+		 * it still has their features.
+		 * 
+		 * @param provider
+		 *            The new provider
+		 */
+		public void setDataProvider(CSVDataProvider provider) {
+			if (provider != null && provider != dataProvider) {
+				List<SeriesProvider> series = new ArrayList<SeriesProvider>(
+						seriesMap.keySet());
+				clear();
+				dataProvider = provider;
+				fillAddSeriesTree();
+				List<String> features = provider.getFeatureList();
+				for (SeriesProvider seriesProvider : series) {
+					String xAxis = seriesProvider.getXDataFeature();
+					String yAxis = seriesProvider.getYDataFeature();
+					if (features.contains(xAxis) && features.contains(yAxis)) {
+						addSeries(seriesProvider.getSeriesType(), yAxis
+								+ " vs. " + xAxis);
+					}
+				}
+			}
+			return;
+		}
+
 		/**
 		 * Adds a new series to the drawn plot.
 		 * 
@@ -13,7 +13,10 @@
 package org.eclipse.ice.viz.service.csv;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.draw2d.LightweightSystem;
@@ -21,11 +24,14 @@ import org.eclipse.nebula.visualization.widgets.datadefinition.ColorMap;
 import org.eclipse.nebula.visualization.widgets.datadefinition.ColorMap.PredefinedColorMap;
 import org.eclipse.nebula.visualization.widgets.figures.IntensityGraphFigure;
 import org.eclipse.nebula.visualization.xygraph.dataprovider.CircularBufferDataProvider;
+import org.eclipse.nebula.visualization.xygraph.figures.Axis;
+import org.eclipse.nebula.visualization.xygraph.figures.IAxisListener;
 import org.eclipse.nebula.visualization.xygraph.figures.ToolbarArmedXYGraph;
 import org.eclipse.nebula.visualization.xygraph.figures.Trace;
 import org.eclipse.nebula.visualization.xygraph.figures.Trace.PointStyle;
 import org.eclipse.nebula.visualization.xygraph.figures.Trace.TraceType;
 import org.eclipse.nebula.visualization.xygraph.figures.XYGraph;
+import org.eclipse.nebula.visualization.xygraph.linearscale.Range;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.SelectionAdapter;
 import org.eclipse.swt.events.SelectionEvent;
@@ -79,6 +85,12 @@ public class CSVPlotEditor extends EditorPart {
 	 */
 	private LightweightSystem lws;
 
+	/**
+	 * The width in pixels that is assumed for the plot before it has been
+	 * laid out
+	 */
+	private static final int defaultPlotWidth = 1000;
+
 	/**
 	 * The constructor
 	 */
@@ -300,15 +312,19 @@ public class CSVPlotEditor extends EditorPart {
 		if (seriesProviderList == null) {
 			seriesProviderList = new ArrayList<SeriesProvider>();
 		}
+		// The downsampled series of each trace
+		final Map<CircularBufferDataProvider, SeriesDownsampler> samplers = new HashMap<CircularBufferDataProvider, SeriesDownsampler>();
 		for (SeriesProvider series : seriesProviderList) {
 
+			// Compute the resolutions of the series. The whole series is
+			// plotted at first with one point per pixel at most.
+			SeriesDownsampler sampler = new SeriesDownsampler(
+					series.getXData(), series.getYData());
 			CircularBufferDataProvider traceDataProvider = new CircularBufferDataProvider(
 					false);
-			// Sets the size of the buffer
-			traceDataProvider.setBufferSize(series.getXData().length);
-			// Set the data to be plotted
-			traceDataProvider.setCurrentXDataArray(series.getXData());
-			traceDataProvider.setCurrentYDataArray(series.getYData());
+			setTraceData(traceDataProvider,
+					sampler.getPoints(getPlotWidth(null)));
+			samplers.put(traceDataProvider, sampler);
 
 			// Creates a new trace with the name, axis,and provider to plot
 			Trace trace = new Trace(series.getSeriesTitle(),
@@ -332,9 +348,69 @@ public class CSVPlotEditor extends EditorPart {
 		// Auto-scale the image
 		newXYGraph.performAutoScale();
 
+		// Only draw the points in the visible range of x values when the plot
+		// is zoomed or panned. The x axis can not scale itself to the data
+		// after that because the data depends on its range.
+		newXYGraph.primaryXAxis.setAutoScale(false);
+		newXYGraph.primaryXAxis.addListener(new IAxisListener() {
+			@Override
+			public void axisRevalidated(Axis axis) {
+				// Nothing to do
+			}
+
+			@Override
+			public void axisRangeChanged(Axis axis, Range old_range,
+					Range new_range) {
+				double xMin = Math.min(new_range.getLower(),
+						new_range.getUpper());
+				double xMax = Math.max(new_range.getLower(),
+						new_range.getUpper());
+				int width = getPlotWidth(axis);
+				for (Entry<CircularBufferDataProvider, SeriesDownsampler> e : samplers
+						.entrySet()) {
+					setTraceData(e.getKey(),
+							e.getValue().getPoints(xMin, xMax, width));
+				}
+			}
+		});
+
 		return;
 	}
 
+	/**
+	 * This operation replaces the points of a trace.
+	 * 
+	 * @param traceDataProvider
+	 *            The data provider of the trace
+	 * @param points
+	 *            The x values and the y values of the points
+	 */
+	private void setTraceData(CircularBufferDataProvider traceDataProvider,
+			double[][] points) {
+		// Sets the size of the buffer
+		traceDataProvider.setBufferSize(Math.max(points[0].length, 1));
+		// Set the data to be plotted
+		traceDataProvider.setCurrentXDataArray(points[0]);
+		traceDataProvider.setCurrentYDataArray(points[1]);
+	}
+
+	/**
+	 * This operation returns the number of pixels across the plot, which is
+	 * the most points that are worth drawing for a series.
+	 * 
+	 * @param xAxis
+	 *            The x axis of the plot, or null to use the width of the
+	 *            canvas
+	 * @return The width of the plot in pixels
+	 */
+	private int getPlotWidth(Axis xAxis) {
+		int width = (xAxis != null) ? xAxis.getBounds().width : 0;
+		if (width <= 0 && plotCanvas != null && !plotCanvas.isDisposed()) {
+			width = plotCanvas.getClientArea().width;
+		}
+		return (width > 0) ? width : defaultPlotWidth;
+	}
+
 	/**
 	 * This method implements the Composite to hold the slider for moving
 	 * through plotted file sets.
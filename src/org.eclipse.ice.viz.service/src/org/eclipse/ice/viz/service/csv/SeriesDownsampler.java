@@ -0,0 +1,267 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.viz.service.csv;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * This class reduces a series to the number of points that can actually be
+ * seen in a plot. The points are split into buckets of consecutive points and
+ * only the points with the minimum and maximum y values of each bucket are
+ * drawn, so peaks and dips in the series are never lost.
+ *
+ * The buckets are computed once for every power of two when the series is
+ * set, which forms a pyramid of resolutions. Each level stores the indices of
+ * the minimum and maximum points of its buckets and is computed from the level
+ * below it, so the pyramid takes O(n) time and memory. Requesting the points
+ * for a view only reads the buckets in the view.
+ *
+ * If the x values of the series are sorted, the points are limited to the
+ * visible range of x values. Otherwise, the whole series is reduced.
+ *
+ * @author Jay Jay Billings
+ *
+ */
+public class SeriesDownsampler {
+
+	/**
+	 * The x values of the series
+	 */
+	private final double[] xData;
+
+	/**
+	 * The y values of the series
+	 */
+	private final double[] yData;
+
+	/**
+	 * True if the x values never decrease
+	 */
+	private final boolean sorted;
+
+	/**
+	 * The indices of the minimum y value in each bucket of each level. The
+	 * buckets of the level at index k have 2^(k+1) points.
+	 */
+	private final ArrayList<int[]> minIndices;
+
+	/**
+	 * The indices of the maximum y value in each bucket of each level. The
+	 * buckets of the level at index k have 2^(k+1) points.
+	 */
+	private final ArrayList<int[]> maxIndices;
+
+	/**
+	 * The constructor. It computes the pyramid of buckets.
+	 *
+	 * @param xData
+	 *            The x values of the series, which are not copied
+	 * @param yData
+	 *            The y values of the series, which are not copied. Only as
+	 *            many points as there are values in both arrays are used.
+	 */
+	public SeriesDownsampler(double[] xData, double[] yData) {
+
+		// Local Declarations
+		int size = Math.min(xData.length, yData.length);
+
+		this.xData = (xData.length == size) ? xData : Arrays.copyOf(xData,
+				size);
+		this.yData = (yData.length == size) ? yData : Arrays.copyOf(yData,
+				size);
+		minIndices = new ArrayList<int[]>();
+		maxIndices = new ArrayList<int[]>();
+
+		// Check the order of the x values
+		boolean isSorted = true;
+		for (int i = 1; i < size && isSorted; i++) {
+			isSorted = (xData[i - 1] <= xData[i]);
+		}
+		sorted = isSorted;
+
+		// Compute the levels until one bucket holds all of the points
+		int numBuckets = size;
+		int[] lowerMin = null, lowerMax = null;
+		while (numBuckets > 1) {
+			numBuckets = (numBuckets + 1) / 2;
+			int[] levelMin = new int[numBuckets];
+			int[] levelMax = new int[numBuckets];
+			for (int j = 0; j < numBuckets; j++) {
+				// Get the two points or lower buckets that make up this
+				// bucket. The last bucket may only have one.
+				int first = 2 * j, second;
+				int firstMin, secondMin, firstMax, secondMax;
+				if (lowerMin == null) {
+					second = Math.min(first + 1, size - 1);
+					firstMin = firstMax = first;
+					secondMin = secondMax = second;
+				} else {
+					second = Math.min(first + 1, lowerMin.length - 1);
+					firstMin = lowerMin[first];
+					secondMin = lowerMin[second];
+					firstMax = lowerMax[first];
+					secondMax = lowerMax[second];
+				}
+				// Keep the extremes of the two
+				levelMin[j] = (yData[secondMin] < yData[firstMin]) ? secondMin
+						: firstMin;
+				levelMax[j] = (yData[secondMax] > yData[firstMax]) ? secondMax
+						: firstMax;
+			}
+			minIndices.add(levelMin);
+			maxIndices.add(levelMax);
+			lowerMin = levelMin;
+			lowerMax = levelMax;
+		}
+
+		return;
+	}
+
+	/**
+	 * Returns the number of points in the series.
+	 *
+	 * @return The number of points
+	 */
+	public int getSize() {
+		return yData.length;
+	}
+
+	/**
+	 * Returns the number of reduced levels in the pyramid.
+	 *
+	 * @return The number of levels
+	 */
+	public int getNumberOfLevels() {
+		return minIndices.size();
+	}
+
+	/**
+	 * Returns at most a given number of points for the whole series.
+	 *
+	 * @param maxPoints
+	 *            The maximum number of points, usually the width of the plot
+	 *            in pixels
+	 * @return An array that contains the x values and the y values of the
+	 *         points
+	 */
+	public double[][] getPoints(int maxPoints) {
+		return getIndexRange(0, yData.length - 1, maxPoints);
+	}
+
+	/**
+	 * Returns at most a given number of points for a range of x values. One
+	 * point on each side of the range is included so that lines reach the
+	 * edges of the plot. If the x values are not sorted, the range is ignored.
+	 *
+	 * @param xMin
+	 *            The lowest visible x value
+	 * @param xMax
+	 *            The highest visible x value
+	 * @param maxPoints
+	 *            The maximum number of points, usually the width of the plot
+	 *            in pixels
+	 * @return An array that contains the x values and the y values of the
+	 *         points
+	 */
+	public double[][] getPoints(double xMin, double xMax, int maxPoints) {
+
+		// Local Declarations
+		int first = 0, last = yData.length - 1;
+
+		// Find the visible points
+		if (sorted && last >= 0) {
+			first = Arrays.binarySearch(xData, xMin);
+			first = (first < 0) ? -first - 2 : first - 1;
+			last = Arrays.binarySearch(xData, xMax);
+			last = (last < 0) ? -last - 1 : last + 1;
+			first = Math.max(0, Math.min(first, yData.length - 1));
+			last = Math.max(first, Math.min(last, yData.length - 1));
+		}
+
+		return getIndexRange(first, last, maxPoints);
+	}
+
+	/**
+	 * Returns at most a given number of points for a range of indices.
+	 *
+	 * @param first
+	 *            The index of the first point
+	 * @param last
+	 *            The index of the last point
+	 * @param maxPoints
+	 *            The maximum number of points
+	 * @return An array that contains the x values and the y values of the
+	 *         points
+	 */
+	private double[][] getIndexRange(int first, int last, int maxPoints) {
+
+		// Local Declarations
+		int numPoints = last - first + 1;
+		double[][] points;
+
+		// Return all of the points if there are few enough
+		if (numPoints <= maxPoints || minIndices.isEmpty()) {
+			numPoints = Math.max(numPoints, 0);
+			points = new double[2][numPoints];
+			if (numPoints > 0) {
+				System.arraycopy(xData, first, points[0], 0, numPoints);
+				System.arraycopy(yData, first, points[1], 0, numPoints);
+			}
+			return points;
+		}
+
+		// Find the finest level whose buckets in the range have few enough
+		// minimums and maximums to fit with the first and last points
+		int level = 0, shift = 1;
+		int numLevels = minIndices.size();
+		while (level < numLevels - 1
+				&& 2 * ((last >> shift) - (first >> shift) + 1) + 2 > maxPoints) {
+			level++;
+			shift++;
+		}
+
+		// Add the minimum and maximum of each bucket in the order of the
+		// series. The first and last points of the range are added too so
+		// that lines reach the edges of the view.
+		int[] levelMin = minIndices.get(level);
+		int[] levelMax = maxIndices.get(level);
+		int firstBucket = first >> shift, lastBucket = last >> shift;
+		int[] indices = new int[2 * (lastBucket - firstBucket + 1) + 2];
+		int count = 0;
+		indices[count++] = first;
+		for (int j = firstBucket; j <= lastBucket; j++) {
+			int lower = Math.min(levelMin[j], levelMax[j]);
+			int upper = Math.max(levelMin[j], levelMax[j]);
+			if (lower > indices[count - 1]) {
+				indices[count++] = lower;
+			}
+			if (upper > indices[count - 1]) {
+				indices[count++] = upper;
+			}
+		}
+		if (last > indices[count - 1]) {
+			indices[count++] = last;
+		}
+
+		// Copy the points
+		points = new double[2][count];
+		for (int i = 0; i < count; i++) {
+			points[0][i] = xData[indices[i]];
+			points[1][i] = yData[indices[i]];
+		}
+
+		return points;
+	}
+
+}
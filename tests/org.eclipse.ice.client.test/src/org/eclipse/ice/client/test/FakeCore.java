@@ -19,10 +19,12 @@ import java.net.URI;
 import java.util.ArrayList;
 
 import org.eclipse.ice.core.iCore.ICore;
+import org.eclipse.ice.core.iCore.IItemStatusListener;
 import org.eclipse.ice.datastructures.ICEObject.ICEList;
 import org.eclipse.ice.datastructures.ICEObject.ICEObject;
 import org.eclipse.ice.datastructures.ICEObject.Identifiable;
 import org.eclipse.ice.datastructures.form.Form;
+import org.eclipse.ice.datastructures.form.FormPatch;
 import org.eclipse.ice.datastructures.form.FormStatus;
 import org.eclipse.ice.item.ICompositeItemBuilder;
 import org.eclipse.ice.item.ItemBuilder;
@@ -53,6 +55,12 @@ import org.eclipse.ice.item.ItemBuilder;
  * the process() operation can be retrieved by calling
  * FakeCore.getLastProcessStatus().
  * </p>
+ * <p>
+ * Subscriptions are refused unless they are enabled with
+ * enableSubscriptions(). If they are, a request to process an Item with the
+ * ActionName "Processing" returns FormStatus.Processing and the test can push
+ * events to the subscribed listener, which is returned by getListener().
+ * </p>
  * 
  * @author Jay Jay Billings
  */
@@ -63,7 +71,7 @@ public class FakeCore implements ICore {
 	 * </p>
 	 * 
 	 */
-	private FormStatus lastProcessStatus;
+	private volatile FormStatus lastProcessStatus;
 
 	/**
 	 * <p>
@@ -104,6 +112,21 @@ public class FakeCore implements ICore {
 	 */
 	private boolean deleted = false;
 
+	/**
+	 * True if subscriptions are accepted, false otherwise.
+	 */
+	private boolean subscriptionsEnabled = false;
+
+	/**
+	 * The listener that subscribed last or null if it unsubscribed.
+	 */
+	private volatile IItemStatusListener listener = null;
+
+	/**
+	 * True if the status of an Item was requested, false otherwise.
+	 */
+	private volatile boolean statusRequested = false;
+
 	/**
 	 * The Constructor
 	 */
@@ -139,11 +162,49 @@ public class FakeCore implements ICore {
 		updateItemCalled = false;
 		imported = false;
 		cancelled = false;
+		statusRequested = false;
 
 		return;
 
 	}
 
+	/**
+	 * This operation makes the FakeCore accept subscriptions.
+	 */
+	public void enableSubscriptions() {
+		subscriptionsEnabled = true;
+	}
+
+	/**
+	 * This operation sets the status that the FakeCore reports for its Items,
+	 * as if the Item changed its status while it was processed.
+	 * 
+	 * @param status
+	 *            The new status
+	 */
+	public void setItemStatus(FormStatus status) {
+		lastProcessStatus = status;
+	}
+
+	/**
+	 * This operation returns the listener that is subscribed to the FakeCore.
+	 * 
+	 * @return The listener or null if there is none
+	 */
+	public IItemStatusListener getListener() {
+		return listener;
+	}
+
+	/**
+	 * This operation returns true if the status of an Item was requested since
+	 * the FakeCore was created or reset.
+	 * 
+	 * @return True if getItemStatus() was called, false if not.
+	 */
+	public boolean statusRequested() {
+		return statusRequested;
+	}
+
 	/**
 	 * <p>
 	 * This operation returns true if updateItem() was called after a call to
@@ -287,9 +348,12 @@ public class FakeCore implements ICore {
 
 	@Override
 	public FormStatus getItemStatus(Integer id) {
+		statusRequested = true;
 		// Set the proper status message
 		if (this.lastProcessStatus.equals(FormStatus.NeedsInfo)) {
 			return FormStatus.NeedsInfo;
+		} else if (this.lastProcessStatus.equals(FormStatus.Processing)) {
+			return FormStatus.Processing;
 		} else {
 			return FormStatus.Processed;
 		}
@@ -366,6 +430,28 @@ public class FakeCore implements ICore {
 
 	}
 
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see ICore#patchItem(FormPatch patch)
+	 */
+	@Override
+	public FormPatch patchItem(FormPatch patch) {
+		// TODO Auto-generated method stub
+		return null;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see ICore#getItemChanges(int itemId, long revision)
+	 */
+	@Override
+	public FormPatch getItemChanges(int itemId, long revision) {
+		// TODO Auto-generated method stub
+		return null;
+	}
+
 	@Override
 	public FormStatus processItem(int itemId, String actionName,
 			int uniqueClientId) {
@@ -376,6 +462,8 @@ public class FakeCore implements ICore {
 			// Set the last status value and return it
 			if ("NeedsInfo".equals(actionName)) {
 				lastProcessStatus = FormStatus.NeedsInfo;
+			} else if (subscriptionsEnabled && "Processing".equals(actionName)) {
+				lastProcessStatus = FormStatus.Processing;
 			} else {
 				lastProcessStatus = FormStatus.Processed;
 			}
@@ -507,4 +595,31 @@ public class FakeCore implements ICore {
 		// TODO Auto-generated method stub
 		return null;
 	}
-}
\ No newline at end of file
+
+	@Override
+	public String getItemUpdates(int itemId, String type, int count) {
+		// TODO Auto-generated method stub
+		return null;
+	}
+
+	@Override
+	public boolean subscribe(int itemId, IItemStatusListener listener) {
+		if (subscriptionsEnabled) {
+			this.listener = listener;
+		}
+		return subscriptionsEnabled;
+	}
+
+	@Override
+	public void unsubscribe(int itemId, IItemStatusListener listener) {
+		if (this.listener == listener) {
+			this.listener = null;
+		}
+	}
+
+	@Override
+	public String getItemEvents(int itemId, long since, int timeout) {
+		// TODO Auto-generated method stub
+		return null;
+	}
+}
@@ -13,6 +13,7 @@
 package org.eclipse.ice.client.test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -20,6 +21,7 @@ import static org.junit.Assert.fail;
 
 import org.eclipse.ice.client.internal.ItemProcessor;
 import org.eclipse.ice.core.iCore.ICore;
+import org.eclipse.ice.core.iCore.IItemStatusListener;
 import org.eclipse.ice.datastructures.form.Form;
 import org.eclipse.ice.datastructures.form.FormStatus;
 import org.eclipse.ice.iclient.uiwidgets.IExtraInfoWidget;
@@ -279,4 +281,166 @@ public class ItemProcessorTester {
 
 		return;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * This operation checks that the ItemProcessor subscribes to the Core when
+	 * it can and that it reacts to the status and output that the Core pushes
+	 * without reading the output file.
+	 */
+	@Test
+	public void checkSubscription() {
+
+		// Local Declarations
+		FakeExtraInfoWidget infoWidget = new FakeExtraInfoWidget();
+		FakeStreamingTextWidget textWidget = new FakeStreamingTextWidget();
+		IFormWidget formWidget = new FakeFormWidget();
+		FakeCore core = new FakeCore();
+		IItemStatusListener listener = null;
+		Thread processThread = null;
+		final long sleepLimit = 5000;
+		final long sleepIncrement = 10;
+		long sleepTime;
+
+		// Configure the ItemProcessor to process an Item that is still
+		// processing when the Core returns
+		formWidget.setForm(new Form());
+		core.enableSubscriptions();
+		int itemId = Integer.parseInt(core.createItem("Red"));
+		itemProcessor = new ItemProcessor();
+		itemProcessor.setFormWidget(formWidget);
+		itemProcessor.setInfoWidget(infoWidget);
+		itemProcessor.setStreamingTextWidget(textWidget);
+		itemProcessor.setActionName("Processing");
+		itemProcessor.setItemId(itemId);
+		itemProcessor.setCore(core);
+		processThread = new Thread(itemProcessor);
+		processThread.start();
+
+		// Wait for the ItemProcessor to subscribe
+		sleepTime = 0;
+		while ((listener = core.getListener()) == null
+				&& sleepTime < sleepLimit) {
+			sleepTime += sleepIncrement;
+			try {
+				Thread.sleep(sleepIncrement);
+			} catch (InterruptedException e) {
+				fail("ItemProcessorTester error: "
+						+ "Cannot sleep while waiting for ItemProcessor to respond.");
+			}
+		}
+		assertNotNull(listener);
+		assertEquals(FormStatus.Processing, core.getLastProcessStatus());
+
+		// Push some output and check that it reaches the widget
+		listener.statusChanged(itemId, FormStatus.Processing);
+		listener.outputPosted(itemId, "Blending...");
+		sleepTime = 0;
+		while (!textWidget.textPushed() && sleepTime < sleepLimit) {
+			sleepTime += sleepIncrement;
+			try {
+				Thread.sleep(sleepIncrement);
+			} catch (InterruptedException e) {
+				fail("ItemProcessorTester error: "
+						+ "Cannot sleep while waiting for ItemProcessor to respond.");
+			}
+		}
+		assertTrue(textWidget.labelSet());
+		assertTrue(textWidget.widgetDisplayed());
+		assertTrue(textWidget.textPushed());
+
+		// Finish the process and check that the ItemProcessor stops and
+		// unsubscribes
+		core.setItemStatus(FormStatus.Processed);
+		listener.statusChanged(itemId, FormStatus.Processed);
+		try {
+			processThread.join(sleepLimit);
+		} catch (InterruptedException e) {
+			fail("ItemProcessorTester error: "
+					+ "Cannot wait for the ItemProcessor to finish.");
+		}
+		assertFalse(processThread.isAlive());
+		assertNull(core.getListener());
+
+		// The output should only have come from the pushes
+		assertTrue(core.statusRequested());
+		assertFalse(core.outputFileRetrieved());
+
+		return;
+	}
+
+	/**
+	 * This operation checks that the ItemProcessor notices a change of the
+	 * status that the Core did not push, such as a short change that the Core
+	 * missed between two of its checks.
+	 */
+	@Test
+	public void checkMissedStatusChange() {
+
+		// Local Declarations
+		FakeExtraInfoWidget infoWidget = new FakeExtraInfoWidget();
+		IFormWidget formWidget = new FakeFormWidget();
+		FakeCore core = new FakeCore();
+		IItemStatusListener listener = null;
+		Thread processThread = null;
+		final long sleepLimit = 5000;
+		final long sleepIncrement = 10;
+		long sleepTime;
+
+		// Configure the ItemProcessor to process an Item that is still
+		// processing when the Core returns
+		formWidget.setForm(new Form());
+		core.enableSubscriptions();
+		infoWidget.closeImmediately = false;
+		int itemId = Integer.parseInt(core.createItem("Red"));
+		itemProcessor = new ItemProcessor();
+		itemProcessor.setFormWidget(formWidget);
+		itemProcessor.setInfoWidget(infoWidget);
+		itemProcessor.setActionName("Processing");
+		itemProcessor.setItemId(itemId);
+		itemProcessor.setCore(core);
+		processThread = new Thread(itemProcessor);
+		processThread.start();
+
+		// Wait for the ItemProcessor to subscribe
+		sleepTime = 0;
+		while ((listener = core.getListener()) == null
+				&& sleepTime < sleepLimit) {
+			sleepTime += sleepIncrement;
+			try {
+				Thread.sleep(sleepIncrement);
+			} catch (InterruptedException e) {
+				fail("ItemProcessorTester error: "
+						+ "Cannot sleep while waiting for ItemProcessor to respond.");
+			}
+		}
+		assertNotNull(listener);
+
+		// Ask for more information without pushing the status. The
+		// ItemProcessor should still display the widget.
+		core.setItemStatus(FormStatus.NeedsInfo);
+		sleepTime = 0;
+		while (!infoWidget.widgetDisplayed() && sleepTime < sleepLimit) {
+			sleepTime += sleepIncrement;
+			try {
+				Thread.sleep(sleepIncrement);
+			} catch (InterruptedException e) {
+				fail("ItemProcessorTester error: "
+						+ "Cannot sleep while waiting for ItemProcessor to respond.");
+			}
+		}
+		assertTrue(infoWidget.widgetDisplayed());
+
+		// Finish the process without pushing the status either
+		core.setItemStatus(FormStatus.Processed);
+		try {
+			processThread.join(sleepLimit);
+		} catch (InterruptedException e) {
+			fail("ItemProcessorTester error: "
+					+ "Cannot wait for the ItemProcessor to finish.");
+		}
+		assertFalse(processThread.isAlive());
+		assertNull(core.getListener());
+
+		return;
+	}
+}
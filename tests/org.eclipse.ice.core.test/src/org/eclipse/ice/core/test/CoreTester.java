@@ -13,6 +13,7 @@
 package org.eclipse.ice.core.test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -552,6 +553,14 @@ public class CoreTester {
 		// Get the FakeItem and make sure it was updated
 		assertTrue(fakeGeometryBuilder.getLastFakeItem().wasUpdated());
 
+		// Make sure that the posts can be retrieved
+		String updates = iCECore.getItemUpdates(id, "FILE_MODIFIED", 0);
+		assertNotNull(updates);
+		assertTrue(updates.contains("/tmp/file"));
+		assertFalse(updates.contains("UPDATER_STARTED"));
+		assertTrue(iCECore.getItemUpdates(id, null, 0).contains(
+				"UPDATER_STARTED"));
+
 		// Make sure posting a null message fails
 		assertNull(iCECore.postUpdateMessage(null));
 
@@ -12,6 +12,8 @@
  *******************************************************************************/
 package org.eclipse.ice.core.test;
 
+import java.io.File;
+
 import org.eclipse.core.resources.IProject;
 import org.eclipse.ice.datastructures.form.Form;
 import org.eclipse.ice.datastructures.form.FormStatus;
@@ -162,6 +164,19 @@ public class FakeItem extends Item {
 		return updated;
 	}
 
+	/**
+	 * <p>
+	 * This operation sets the output file of the FakeItem so that tests can
+	 * write output without a project.
+	 * </p>
+	 * 
+	 * @param file
+	 *            The output file
+	 */
+	public void setOutputFile(File file) {
+		outputFile = file;
+	}
+
 	/**
 	 * (non-Javadoc)
 	 * 
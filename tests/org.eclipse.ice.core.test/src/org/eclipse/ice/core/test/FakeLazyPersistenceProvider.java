@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.core.test;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.ice.core.iCore.ILazyPersistenceProvider;
+import org.eclipse.ice.core.iCore.ItemHeader;
+import org.eclipse.ice.item.Item;
+
+/**
+ * This class is a FakePersistenceProvider that only returns the headers of its
+ * Items at start up and loads each Item when the ItemManager asks for it. It
+ * provides Items with ids 1 and 3, like the FakePersistenceProvider, and
+ * counts how many times Items are loaded. It can also be told to fail the next
+ * load, either by returning null or by throwing an exception.
+ *
+ * @author Jay Jay Billings
+ */
+public class FakeLazyPersistenceProvider extends FakePersistenceProvider
+		implements ILazyPersistenceProvider {
+
+	/**
+	 * The number of Items that have been loaded with loadItem().
+	 */
+	private final AtomicInteger numLoaded = new AtomicInteger();
+
+	/**
+	 * True if the next call to loadItem() should fail.
+	 */
+	private volatile boolean failNextLoad = false;
+
+	/**
+	 * True if the failed load should throw instead of returning null.
+	 */
+	private volatile boolean throwOnFailure = false;
+
+	/**
+	 * This operation makes the next call to loadItem() fail. Every call after
+	 * that one succeeds again.
+	 *
+	 * @param throwException
+	 *            True if the failed load should throw an
+	 *            IllegalStateException, false if it should return null.
+	 */
+	public void failNextLoad(boolean throwException) {
+		throwOnFailure = throwException;
+		failNextLoad = true;
+	}
+
+	/**
+	 * This operation returns the number of Items that have been loaded with
+	 * loadItem().
+	 *
+	 * @return The number of loaded Items
+	 */
+	public int getNumberOfLoadedItems() {
+		return numLoaded.get();
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see ILazyPersistenceProvider#loadItemHeaders()
+	 */
+	@Override
+	public ArrayList<ItemHeader> loadItemHeaders() {
+
+		// Local Declarations
+		ArrayList<ItemHeader> headers = new ArrayList<ItemHeader>();
+
+		for (int id : new int[] { 1, 3 }) {
+			ItemHeader header = new ItemHeader();
+			header.setId(id);
+			header.setName("Fake Item " + id);
+			headers.add(header);
+		}
+
+		return headers;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see IPersistenceProvider#loadItem(int itemID)
+	 */
+	@Override
+	public Item loadItem(int itemID) {
+
+		// Local Declarations
+		FakeItem item = null;
+
+		// Fail if requested
+		if (failNextLoad) {
+			failNextLoad = false;
+			if (throwOnFailure) {
+				throw new IllegalStateException("Unable to load Item "
+						+ itemID);
+			}
+			return null;
+		}
+
+		if (itemID == 1 || itemID == 3) {
+			item = new FakeItem(null);
+			item.setId(itemID);
+			item.setName("Fake Item " + itemID);
+			numLoaded.incrementAndGet();
+		}
+
+		return item;
+	}
+
+}
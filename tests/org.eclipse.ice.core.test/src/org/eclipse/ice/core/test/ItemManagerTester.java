@@ -32,10 +32,13 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.ice.core.internal.itemmanager.ItemManager;
 import org.eclipse.ice.datastructures.ICEObject.Identifiable;
 import org.eclipse.ice.datastructures.form.DataComponent;
+import org.eclipse.ice.datastructures.form.Entry;
 import org.eclipse.ice.datastructures.form.Form;
+import org.eclipse.ice.datastructures.form.FormPatch;
 import org.eclipse.ice.datastructures.form.FormStatus;
 import org.eclipse.ice.item.ItemType;
 import org.eclipse.ice.item.messaging.Message;
+import org.eclipse.ice.item.messaging.MessageHistory;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -405,6 +408,210 @@ public class ItemManagerTester {
 
 	}
 
+	/**
+	 * <p>
+	 * This operation checks that the ItemManager applies FormPatches to its
+	 * Items, persists the patched Items and returns the changes that the
+	 * caller has not seen, including those made by others.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkItemPatches() {
+
+		// Local Declarations
+		int itemId = -1;
+		Form testForm = null;
+		DataComponent dataComp = new DataComponent();
+		Entry entry = new Entry();
+		FormPatch patch = null, changes = null;
+
+		// Create a FakeGeometry and give it the two DataComponents that it
+		// needs to be ready
+		itemId = itemManager
+				.createItem(fakeGeometryBuilder.getItemName(), null);
+		testForm = itemManager.retrieveItem(itemId);
+		entry.setName("value");
+		entry.setValue("one");
+		dataComp.setId(1);
+		dataComp.addEntry(entry);
+		testForm.addComponent(dataComp);
+		DataComponent otherComp = new DataComponent();
+		otherComp.setId(2);
+		testForm.addComponent(otherComp);
+
+		// Patch the Entry and check that the Item was persisted
+		fakePersistenceProvider.reset();
+		patch = new FormPatch(testForm);
+		patch.addChange(1, "value", "two");
+		changes = itemManager.patchItem(patch);
+		assertNotNull(changes);
+		assertEquals(FormStatus.ReadyToProcess, changes.getStatus());
+		assertTrue(fakePersistenceProvider.itemUpdated());
+		assertEquals("two", entry.getValue());
+		assertEquals(1, changes.getChanges().size());
+		assertEquals("two", changes.getChanges().get(0).getValue());
+		assertEquals(testForm.getRevision(), changes.getRevision());
+
+		// Changes made directly to the Form should be returned too
+		long revision = testForm.getRevision();
+		entry.setValue("three");
+		changes = itemManager.getItemChanges(itemId, revision);
+		assertNotNull(changes);
+		assertEquals(1, changes.getChanges().size());
+		assertEquals("three", changes.getChanges().get(0).getValue());
+
+		// A patch that conflicts with that change should be refused, not
+		// persisted, and should bring the caller up to date
+		fakePersistenceProvider.reset();
+		patch = new FormPatch(testForm);
+		patch.setBaseRevision(revision);
+		patch.addChange(1, "value", "four");
+		changes = itemManager.patchItem(patch);
+		assertNotNull(changes);
+		assertEquals(FormStatus.Unacceptable, changes.getStatus());
+		assertFalse(fakePersistenceProvider.itemUpdated());
+		assertEquals("three", entry.getValue());
+		assertEquals(1, changes.getChanges().size());
+		assertEquals("three", changes.getChanges().get(0).getValue());
+
+		// Patches for Items that do not exist should be ignored
+		assertNull(itemManager.patchItem(null));
+		patch = new FormPatch(testForm);
+		patch.setItemID(itemId + 100);
+		assertNull(itemManager.patchItem(patch));
+		assertNull(itemManager.getItemChanges(itemId + 100, 0));
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation checks that Messages posted to the same Item by many
+	 * threads at once are all delivered to the Item and that the most recent
+	 * ones can be retrieved from the ItemManager.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkConcurrentUpdateMessages() {
+
+		// Local Declarations
+		final int numThreads = 8, numMessages = 100;
+		final int itemId = itemManager.createItem(
+				fakeGeometryBuilder.getItemName(), null);
+		final boolean[] accepted = new boolean[numThreads];
+		Thread[] threads = new Thread[numThreads];
+
+		// Post progress updates from every thread at once
+		for (int i = 0; i < numThreads; i++) {
+			final int thread = i;
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					boolean allAccepted = true;
+					for (int j = 0; j < numMessages; j++) {
+						Message msg = new Message();
+						msg.setId(thread * numMessages + j);
+						msg.setItemId(itemId);
+						msg.setType("PROGRESS_UPDATED");
+						msg.setMessage(thread + ":" + j);
+						allAccepted &= itemManager.postUpdateMessage(msg);
+					}
+					accepted[thread] = allAccepted;
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+				fail();
+			}
+		}
+
+		// Every message should have been delivered
+		for (boolean allAccepted : accepted) {
+			assertTrue(allAccepted);
+		}
+		ArrayList<Message> updates = itemManager.getItemUpdates(itemId,
+				"PROGRESS_UPDATED", 0);
+		assertNotNull(updates);
+		assertEquals(Math.min(numThreads * numMessages,
+				MessageHistory.defaultCapacity), updates.size());
+
+		// The messages of each thread must arrive in order
+		int[] last = new int[numThreads];
+		for (int i = 0; i < numThreads; i++) {
+			last[i] = -1;
+		}
+		for (Message msg : updates) {
+			String[] parts = msg.getMessage().split(":");
+			int thread = Integer.parseInt(parts[0]);
+			int j = Integer.parseInt(parts[1]);
+			assertTrue(j > last[thread]);
+			last[thread] = j;
+		}
+
+		// Only the requested number of updates should be returned and there
+		// are no updates for Items that do not exist
+		assertEquals(10,
+				itemManager.getItemUpdates(itemId, "PROGRESS_UPDATED", 10)
+						.size());
+		assertEquals(0, itemManager.getItemUpdates(itemId, "FILE_MODIFIED", 0)
+				.size());
+		assertNull(itemManager.getItemUpdates(itemId + 100, null, 0));
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation checks that a batch of Messages is either queued whole or
+	 * not at all, so that posting a rejected batch again does not deliver any
+	 * of its Messages twice.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkUpdateMessageBatches() {
+
+		// Local Declarations
+		int itemId = itemManager.createItem(fakeGeometryBuilder.getItemName(),
+				null);
+		ArrayList<Message> batch = new ArrayList<Message>();
+
+		// A batch that is larger than the queue should be rejected whole
+		for (int i = 0; i < 1025; i++) {
+			Message msg = new Message();
+			msg.setId(i);
+			msg.setItemId(itemId);
+			msg.setType("PROGRESS_UPDATED");
+			msg.setMessage(String.valueOf(i));
+			batch.add(msg);
+		}
+		assertFalse(itemManager.postUpdateMessages(batch));
+		assertEquals(0, itemManager.getItemUpdates(itemId, null, 0).size());
+
+		// A batch that fits should be delivered whole and in order
+		ArrayList<Message> smallBatch = new ArrayList<Message>(batch.subList(
+				0, 3));
+		assertTrue(itemManager.postUpdateMessages(smallBatch));
+		ArrayList<Message> updates = itemManager.getItemUpdates(itemId, null,
+				0);
+		assertEquals(3, updates.size());
+		for (int i = 0; i < 3; i++) {
+			assertEquals(i, updates.get(i).getId());
+		}
+
+		// Empty batches are rejected
+		assertFalse(itemManager.postUpdateMessages(new ArrayList<Message>()));
+
+		return;
+	}
+
 	/**
 	 * <p>
 	 * This operation checks the ItemManager to make sure that it can process
@@ -562,4 +769,131 @@ public class ItemManagerTester {
 		return;
 
 	}
-}
\ No newline at end of file
+	/**
+	 * <p>
+	 * This operation checks that the ItemManager only loads the headers of the
+	 * Items from an ILazyPersistenceProvider at start up, loads each Item the
+	 * first time that it is used and keeps the list of Items consistent while
+	 * Items are loaded by other threads.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkLazyItemLoading() {
+
+		// Local Declarations
+		final FakeLazyPersistenceProvider lazyProvider = new FakeLazyPersistenceProvider();
+		final ItemManager lazyManager = new ItemManager();
+		final int numThreads = 4;
+		final boolean[] failed = new boolean[1];
+		Thread[] threads = new Thread[numThreads];
+		ArrayList<Identifiable> allItems;
+
+		// Load the headers
+		lazyManager.registerBuilder(fakeGeometryBuilder);
+		lazyManager.setPersistenceProvider(lazyProvider);
+		lazyManager.loadItems(null);
+		assertEquals(0, lazyProvider.getNumberOfLoadedItems());
+		assertFalse(lazyProvider.allLoaded());
+
+		// The headers should be listed before anything is loaded
+		allItems = lazyManager.retrieveItemList();
+		assertEquals(2, allItems.size());
+		assertEquals(0, lazyProvider.getNumberOfLoadedItems());
+
+		// New Items should not reuse the ids of the unloaded ones
+		assertEquals(2, lazyManager.createItem(
+				fakeGeometryBuilder.getItemName(), null));
+
+		// Retrieve one of the Items while other threads list the Items. They
+		// should always see all three Items.
+		for (int i = 0; i < numThreads; i++) {
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int j = 0; j < 200; j++) {
+						if (lazyManager.retrieveItemList().size() != 3) {
+							failed[0] = true;
+						}
+					}
+				}
+			});
+			threads[i].start();
+		}
+		assertNotNull(lazyManager.retrieveItem(1));
+		for (Thread thread : threads) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+				fail();
+			}
+		}
+		assertFalse(failed[0]);
+		assertEquals(1, lazyProvider.getNumberOfLoadedItems());
+
+		// Retrieving it again should not load it again
+		assertNotNull(lazyManager.retrieveItem(1));
+		assertEquals(1, lazyProvider.getNumberOfLoadedItems());
+		allItems = lazyManager.retrieveItemList();
+		assertEquals(3, allItems.size());
+
+		// Delete the Item that has not been loaded and the one that has
+		assertTrue(lazyManager.deleteItem(3));
+		assertTrue(lazyProvider.itemDeleted());
+		assertTrue(lazyManager.deleteItem(1));
+		assertEquals(2, lazyProvider.getNumberOfLoadedItems());
+		allItems = lazyManager.retrieveItemList();
+		assertEquals(1, allItems.size());
+		assertEquals(2, allItems.get(0).getId());
+		assertNull(lazyManager.retrieveItem(1));
+
+		// Persisting should only update the Items that were loaded
+		lazyProvider.reset();
+		lazyManager.persistItems();
+		assertTrue(lazyProvider.itemUpdated());
+
+		return;
+
+	}
+
+	/**
+	 * This operation checks that an Item whose load fails stays in the list of
+	 * Items and is loaded the next time it is used.
+	 */
+	@Test
+	public void checkFailedLazyItemLoading() {
+
+		// Local Declarations
+		FakeLazyPersistenceProvider lazyProvider = new FakeLazyPersistenceProvider();
+		ItemManager lazyManager = new ItemManager();
+
+		// Load the headers
+		lazyManager.registerBuilder(fakeGeometryBuilder);
+		lazyManager.setPersistenceProvider(lazyProvider);
+		lazyManager.loadItems(null);
+
+		// The first load returns null. The Item should still be listed and
+		// still have a status.
+		lazyProvider.failNextLoad(false);
+		assertNull(lazyManager.retrieveItem(1));
+		assertEquals(2, lazyManager.retrieveItemList().size());
+		assertNotNull(lazyManager.getItemStatus(1));
+		assertEquals(0, lazyProvider.getNumberOfLoadedItems());
+
+		// The second load succeeds
+		assertNotNull(lazyManager.retrieveItem(1));
+		assertEquals(1, lazyProvider.getNumberOfLoadedItems());
+		assertEquals(2, lazyManager.retrieveItemList().size());
+
+		// A provider that throws should not lose the Item either
+		lazyProvider.failNextLoad(true);
+		assertNull(lazyManager.retrieveItem(3));
+		assertEquals(2, lazyManager.retrieveItemList().size());
+		assertNotNull(lazyManager.retrieveItem(3));
+		assertEquals(2, lazyProvider.getNumberOfLoadedItems());
+		assertEquals(2, lazyManager.retrieveItemList().size());
+
+		return;
+	}
+}
@@ -0,0 +1,418 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.core.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.ice.core.iCore.IItemStatusListener;
+import org.eclipse.ice.core.internal.itemmanager.ItemManager;
+import org.eclipse.ice.core.internal.itemmanager.ItemStatusMonitor;
+import org.eclipse.ice.core.internal.itemmanager.ItemStatusMonitor.Event;
+import org.eclipse.ice.datastructures.form.FormStatus;
+import org.junit.Test;
+
+/**
+ * <p>
+ * This class is responsible for testing the ItemStatusMonitor class.
+ * </p>
+ *
+ * @author Jay Jay Billings
+ */
+public class ItemStatusMonitorTester {
+
+	/**
+	 * The longest time to wait for the monitor in milliseconds.
+	 */
+	private static final long waitLimit = 5000;
+
+	/**
+	 * <p>
+	 * This operation checks that the status and the output of an Item are
+	 * pushed to the listeners in order and that they stop when the Item is
+	 * deleted.
+	 * </p>
+	 */
+	@Test
+	public void checkListeners() {
+
+		// Local Declarations
+		ItemManager itemManager = new ItemManager();
+		FakeGeometryBuilder builder = new FakeGeometryBuilder();
+		ItemStatusMonitor monitor = new ItemStatusMonitor(itemManager, 10);
+		RecordingListener listener = new RecordingListener();
+		File outputFile = null;
+
+		// Create an Item that is processing and give it an output file
+		itemManager.registerBuilder(builder);
+		int itemId = itemManager.createItem(builder.getItemName(), null);
+		FakeItem item = builder.getLastFakeItem();
+		item.process("setProcessing");
+		try {
+			outputFile = File.createTempFile("itemStatusMonitor", ".txt");
+			outputFile.deleteOnExit();
+		} catch (IOException e) {
+			e.printStackTrace();
+			fail();
+		}
+		item.setOutputFile(outputFile);
+
+		// Bad subscriptions should be refused
+		assertFalse(monitor.addListener(itemId + 100, listener));
+		assertFalse(monitor.addListener(itemId, null));
+
+		// The listener should get the current status right away
+		assertTrue(monitor.addListener(itemId, listener));
+		assertEquals("status Processing", listener.get(0));
+
+		// Write some output, finish the process and check that the output
+		// comes before the status
+		write(outputFile, "line 1\nline 2\n");
+		listener.waitFor(3);
+		item.process("blend");
+		listener.waitFor(4);
+		assertEquals("output line 1", listener.get(1));
+		assertEquals("output line 2", listener.get(2));
+		assertEquals("status Processed", listener.get(3));
+
+		// Deleting the Item should make it unacceptable
+		itemManager.deleteItem(itemId);
+		listener.waitFor(5);
+		assertEquals("status Unacceptable", listener.get(4));
+
+		// Nothing else should arrive after it is removed
+		monitor.removeListener(itemId, listener);
+		monitor.stop();
+		assertEquals(5, listener.size());
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation checks that remote clients get the same events with
+	 * getEvents() and that it waits for new events.
+	 * </p>
+	 */
+	@Test
+	public void checkEvents() {
+
+		// Local Declarations
+		ItemManager itemManager = new ItemManager();
+		FakeGeometryBuilder builder = new FakeGeometryBuilder();
+		ItemStatusMonitor monitor = new ItemStatusMonitor(itemManager, 10);
+		ArrayList<Event> events = new ArrayList<Event>();
+
+		// Create an Item that is processing
+		itemManager.registerBuilder(builder);
+		int itemId = itemManager.createItem(builder.getItemName(), null);
+		final FakeItem item = builder.getLastFakeItem();
+		item.process("setProcessing");
+
+		// Items that do not exist do not have events
+		assertEquals(-1, monitor.getEvents(itemId + 100, 0, 0, events));
+		assertTrue(events.isEmpty());
+
+		// The first request returns the status right away
+		long next = monitor.getEvents(itemId, 0, ItemStatusMonitor.maxTimeout,
+				events);
+		assertEquals(1, events.size());
+		assertEquals(FormStatus.Processing, events.get(0).status);
+		assertNull(events.get(0).output);
+		assertEquals(events.get(0).sequence + 1, next);
+
+		// Nothing new happens, so the next request times out
+		events.clear();
+		long start = System.currentTimeMillis();
+		assertEquals(next, monitor.getEvents(itemId, next, 50, events));
+		assertTrue(events.isEmpty());
+		assertTrue(System.currentTimeMillis() - start >= 50);
+
+		// Finish the process while the next request waits for it
+		Thread finisher = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(50);
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+				}
+				item.process("blend");
+			}
+		});
+		finisher.start();
+		next = monitor.getEvents(itemId, next, (int) waitLimit, events);
+		assertEquals(1, events.size());
+		assertEquals(FormStatus.Processed, events.get(0).status);
+		assertEquals(events.get(0).sequence + 1, next);
+
+		monitor.stop();
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation checks that unfinished lines are held back until they are
+	 * complete and that a rewritten output file starts a new run that is read
+	 * from the start and that new listeners do not see the old run.
+	 * </p>
+	 */
+	@Test
+	public void checkRewrittenOutput() {
+
+		// Local Declarations
+		ItemManager itemManager = new ItemManager();
+		FakeGeometryBuilder builder = new FakeGeometryBuilder();
+		ItemStatusMonitor monitor = new ItemStatusMonitor(itemManager, 10);
+		RecordingListener listener = new RecordingListener();
+		RecordingListener lateListener = new RecordingListener();
+		File outputFile = null;
+
+		// Create an Item that is processing and give it an output file
+		itemManager.registerBuilder(builder);
+		int itemId = itemManager.createItem(builder.getItemName(), null);
+		FakeItem item = builder.getLastFakeItem();
+		item.process("setProcessing");
+		try {
+			outputFile = File.createTempFile("itemStatusMonitor", ".txt");
+			outputFile.deleteOnExit();
+		} catch (IOException e) {
+			e.printStackTrace();
+			fail();
+		}
+		item.setOutputFile(outputFile);
+		assertTrue(monitor.addListener(itemId, listener));
+		assertEquals("status Processing", listener.get(0));
+
+		// The end of an unfinished line should be held back
+		write(outputFile, "line 1\npart");
+		listener.waitFor(2);
+		assertEquals("output line 1", listener.get(1));
+		try {
+			Thread.sleep(100);
+		} catch (InterruptedException e) {
+			fail();
+		}
+		assertEquals(2, listener.size());
+		write(outputFile, "ial\r\n");
+		listener.waitFor(3);
+		assertEquals("output partial", listener.get(2));
+
+		// Truncate the file the way the JobLauncher does for a new run
+		overwrite(outputFile, "new 1\n");
+		listener.waitFor(4);
+		assertEquals("output new 1", listener.get(3));
+
+		// A longer file with a different start is a new run too
+		overwrite(outputFile, "a second run that is longer\n");
+		listener.waitFor(5);
+		assertEquals("output a second run that is longer", listener.get(4));
+
+		// A new listener should only be caught up with the current run
+		assertTrue(monitor.addListener(itemId, lateListener));
+		assertEquals(2, lateListener.size());
+		assertEquals("output a second run that is longer",
+				lateListener.get(0));
+		assertEquals("status Processing", lateListener.get(1));
+
+		monitor.stop();
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation checks that a listener can wait for another thread that
+	 * asks the monitor for the events of the same Item, which means that the
+	 * listeners are not called under the lock of the Item.
+	 * </p>
+	 */
+	@Test
+	public void checkListenerCallsBack() {
+
+		// Local Declarations
+		ItemManager itemManager = new ItemManager();
+		FakeGeometryBuilder builder = new FakeGeometryBuilder();
+		final ItemStatusMonitor monitor = new ItemStatusMonitor(itemManager,
+				10);
+		final CountDownLatch requested = new CountDownLatch(1);
+		final CountDownLatch handled = new CountDownLatch(1);
+		final AtomicBoolean calledBack = new AtomicBoolean();
+
+		// Create an Item that is processing
+		itemManager.registerBuilder(builder);
+		final int itemId = itemManager.createItem(builder.getItemName(), null);
+		FakeItem item = builder.getLastFakeItem();
+		item.process("setProcessing");
+
+		// Create a listener that waits for another thread to read the events
+		// when the process finishes
+		IItemStatusListener listener = new IItemStatusListener() {
+			@Override
+			public void statusChanged(int id, FormStatus status) {
+				if (status == FormStatus.Processed) {
+					Thread reader = new Thread(new Runnable() {
+						@Override
+						public void run() {
+							monitor.getEvents(itemId, 0, 0,
+									new ArrayList<Event>());
+							requested.countDown();
+						}
+					});
+					reader.start();
+					try {
+						calledBack.set(requested.await(waitLimit,
+								TimeUnit.MILLISECONDS));
+					} catch (InterruptedException e) {
+						e.printStackTrace();
+					}
+					handled.countDown();
+				}
+			}
+
+			@Override
+			public void outputPosted(int id, String line) {
+				// Nothing to do
+			}
+		};
+		assertTrue(monitor.addListener(itemId, listener));
+
+		// Finish the process and check that the other thread got through
+		item.process("blend");
+		try {
+			assertTrue(handled.await(2 * waitLimit, TimeUnit.MILLISECONDS));
+		} catch (InterruptedException e) {
+			fail();
+		}
+		assertTrue(calledBack.get());
+
+		monitor.stop();
+
+		return;
+	}
+
+	/**
+	 * This operation replaces the contents of a file.
+	 *
+	 * @param file
+	 *            The file
+	 * @param text
+	 *            The text
+	 */
+	private void overwrite(File file, String text) {
+		try {
+			FileWriter writer = new FileWriter(file);
+			writer.write(text);
+			writer.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+			fail();
+		}
+	}
+
+	/**
+	 * This operation appends text to a file.
+	 *
+	 * @param file
+	 *            The file
+	 * @param text
+	 *            The text
+	 */
+	private void write(File file, String text) {
+		try {
+			FileWriter writer = new FileWriter(file, true);
+			writer.write(text);
+			writer.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+			fail();
+		}
+	}
+
+	/**
+	 * This class records the events that it receives as strings.
+	 *
+	 * @author Jay Jay Billings
+	 */
+	private static class RecordingListener implements IItemStatusListener {
+
+		/**
+		 * The events, such as "status Processing" or "output line 1"
+		 */
+		private final ArrayList<String> events = new ArrayList<String>();
+
+		@Override
+		public synchronized void statusChanged(int itemId, FormStatus status) {
+			events.add("status " + status);
+			notifyAll();
+		}
+
+		@Override
+		public synchronized void outputPosted(int itemId, String line) {
+			events.add("output " + line);
+			notifyAll();
+		}
+
+		/**
+		 * This operation waits until there are at least count events.
+		 *
+		 * @param count
+		 *            The number of events
+		 */
+		public synchronized void waitFor(int count) {
+			long deadline = System.currentTimeMillis() + waitLimit;
+			long remaining = waitLimit;
+			while (events.size() < count && remaining > 0) {
+				try {
+					wait(remaining);
+				} catch (InterruptedException e) {
+					fail();
+				}
+				remaining = deadline - System.currentTimeMillis();
+			}
+			assertTrue(events.size() >= count);
+		}
+
+		/**
+		 * This operation returns an event.
+		 *
+		 * @param index
+		 *            The index of the event
+		 * @return The event
+		 */
+		public synchronized String get(int index) {
+			return events.get(index);
+		}
+
+		/**
+		 * This operation returns the number of events.
+		 *
+		 * @return The number of events
+		 */
+		public synchronized int size() {
+			return events.size();
+		}
+	}
+}
@@ -0,0 +1,257 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import org.eclipse.ice.datastructures.form.AllowedValueType;
+import org.eclipse.ice.datastructures.form.BinaryFormHandler;
+import org.eclipse.ice.datastructures.form.DataComponent;
+import org.eclipse.ice.datastructures.form.Entry;
+import org.eclipse.ice.datastructures.form.Form;
+import org.eclipse.ice.datastructures.form.MatrixComponent;
+import org.eclipse.ice.datastructures.form.TableComponent;
+import org.junit.Test;
+
+/**
+ * This class is responsible for testing the BinaryFormHandler.
+ *
+ * @author Jay Jay Billings
+ */
+public class BinaryFormHandlerTester {
+
+	/**
+	 * This operation checks that a Form with a DataComponent, a
+	 * TableComponent and a MatrixComponent is read back exactly as it was
+	 * written.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void checkRoundTrip() throws IOException {
+
+		// Local Declarations
+		BinaryFormHandler handler = new BinaryFormHandler(null);
+		Form form = createForm(10, 5);
+
+		// Write the Form
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		handler.writeForm(form, out);
+		out.flush();
+
+		// Read it back with a fresh string table
+		handler.reset();
+		Form readForm = handler.readForm(new DataInputStream(
+				new ByteArrayInputStream(bytes.toByteArray())));
+
+		// Check the Form and each of its Components
+		assertEquals(form.getItemID(), readForm.getItemID());
+		assertEquals(form.getActionList(), readForm.getActionList());
+		assertEquals(3, readForm.getNumberOfComponents());
+		assertEquals(form.getComponent(1), readForm.getComponent(1));
+		assertEquals(form.getComponent(2), readForm.getComponent(2));
+		assertEquals(form.getComponent(3), readForm.getComponent(3));
+		assertEquals(form, readForm);
+
+		// Check the details of the Entries that equals() does not cover
+		Entry entry = ((DataComponent) form.getComponent(1))
+				.retrieveEntry("Entry 3");
+		Entry readEntry = ((DataComponent) readForm.getComponent(1))
+				.retrieveEntry("Entry 3");
+		assertEquals(entry.getValue(), readEntry.getValue());
+		assertEquals(entry.getAllowedValues(), readEntry.getAllowedValues());
+		assertEquals(entry.getValueType(), readEntry.getValueType());
+		assertEquals(entry.getTag(), readEntry.getTag());
+
+		// Check the table rows
+		TableComponent table = (TableComponent) readForm.getComponent(2);
+		assertEquals(5, table.numberOfRows());
+		assertEquals("value 3", table.getRow(3).get(1).getValue());
+		assertEquals(1, table.getSelectedRows().size());
+
+		// Check the matrix elements
+		MatrixComponent matrix = (MatrixComponent) readForm.getComponent(3);
+		assertEquals(3, matrix.numberOfRows());
+		assertEquals(4.0, matrix.getElementValue(2, 2), 0.0);
+
+		return;
+	}
+
+	/**
+	 * This operation checks that strings are only written once per stream
+	 * and that the string table is cleared by reset().
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void checkStrings() throws IOException {
+
+		// Local Declarations
+		BinaryFormHandler handler = new BinaryFormHandler(null);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		String value = "a reasonably long string that is repeated";
+
+		// Write the same string several times along with a null
+		handler.writeString(value, out);
+		int firstSize = out.size();
+		handler.writeString(value, out);
+		handler.writeString(null, out);
+		handler.writeString(value, out);
+		out.flush();
+		// Repeats should only take a single byte
+		assertEquals(firstSize + 3, out.size());
+
+		// Read them back
+		handler.reset();
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+				bytes.toByteArray()));
+		assertEquals(value, handler.readString(in));
+		assertEquals(value, handler.readString(in));
+		assertNull(handler.readString(in));
+		assertEquals(value, handler.readString(in));
+
+		return;
+	}
+
+	/**
+	 * This operation checks that integers of all sizes and signs survive the
+	 * variable length encoding and that small integers are short.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void checkVarInts() throws IOException {
+
+		// Local Declarations
+		int[] values = { 0, 1, -1, 63, -64, 64, 1000, -1000, 1 << 20,
+				Integer.MAX_VALUE, Integer.MIN_VALUE };
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+
+		// A small value should only take one byte
+		BinaryFormHandler.writeVarInt(-1, out);
+		assertEquals(1, out.size());
+		bytes.reset();
+		out = new DataOutputStream(bytes);
+
+		// Write and read all of them
+		for (int value : values) {
+			BinaryFormHandler.writeVarInt(value, out);
+		}
+		out.flush();
+		assertTrue(bytes.size() < 5 * values.length);
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+				bytes.toByteArray()));
+		for (int value : values) {
+			assertEquals(value, BinaryFormHandler.readVarInt(in));
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation creates a Form with a DataComponent, a TableComponent
+	 * and a MatrixComponent for the tests.
+	 *
+	 * @param numEntries
+	 *            The number of Entries in the DataComponent
+	 * @param numRows
+	 *            The number of rows in the table
+	 * @return The Form
+	 */
+	private Form createForm(int numEntries, int numRows) {
+
+		// Local Declarations
+		Form form = new Form();
+		DataComponent dataComp = new DataComponent();
+		TableComponent table = new TableComponent();
+		ArrayList<Entry> template = new ArrayList<Entry>();
+		ArrayList<String> actions = new ArrayList<String>();
+
+		// Setup the Form
+		form.setName("Binary Form");
+		form.setItemID(7);
+		actions.add("Write");
+		form.setActionList(actions);
+
+		// Setup the DataComponent with a few discrete Entries
+		dataComp.setId(1);
+		dataComp.setName("Data");
+		for (int i = 0; i < numEntries; i++) {
+			Entry entry = new Entry() {
+				@Override
+				protected void setup() {
+					allowedValueType = AllowedValueType.Discrete;
+					allowedValues.add("red");
+					allowedValues.add("blue");
+					defaultValue = "red";
+				}
+			};
+			entry.setId(i);
+			entry.setName("Entry " + i);
+			entry.setTag("tag");
+			entry.setComment("comment " + i);
+			entry.setValue((i % 2 == 0) ? "red" : "blue");
+			dataComp.addEntry(entry);
+		}
+		form.addComponent(dataComp);
+
+		// Setup the table
+		table.setId(2);
+		table.setName("Table");
+		for (int i = 0; i < 2; i++) {
+			Entry column = new Entry();
+			column.setName("Column " + i);
+			column.setValue("value");
+			template.add(column);
+		}
+		table.setRowTemplate(template);
+		for (int i = 0; i < numRows; i++) {
+			int row = table.addRow();
+			table.getRow(row).get(1).setValue("value " + i);
+		}
+		ArrayList<Integer> selected = new ArrayList<Integer>();
+		selected.add(2);
+		table.setSelectedRows(selected);
+		form.addComponent(table);
+
+		// Setup a 3x3 matrix
+		MatrixComponent matrix = new MatrixComponent(true,
+				AllowedValueType.Continuous);
+		ArrayList<Double> range = new ArrayList<Double>();
+		range.add(0.0);
+		range.add(10.0);
+		matrix.setId(3);
+		matrix.setName("Matrix");
+		matrix.setAllowedValues(range);
+		matrix.addRow();
+		matrix.addRow();
+		for (int i = 0; i < 3; i++) {
+			matrix.setElementValue(i, i, (double) (i * i));
+		}
+		form.addComponent(matrix);
+
+		return form;
+	}
+}
@@ -16,6 +16,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -224,6 +226,123 @@ public class DataComponentTester {
 
 	}
 
+	/**
+	 * <p>
+	 * This operation checks that Entries are still found by name after they
+	 * are renamed, deleted, copied or changed through the list from
+	 * retrieveAllEntries() and that the first Entry with a name is found.
+	 * </p>
+	 */
+	@Test
+	public void checkLookupByName() {
+
+		// Local Declarations
+		Entry first = new Entry(), second = new Entry(), third = new Entry();
+		DataComponent copy = null;
+
+		// Setup the DataComponent with two Entries that have the same name
+		first.setName("A");
+		second.setName("B");
+		third.setName("A");
+		dataComponent = new DataComponent();
+		dataComponent.addEntry(first);
+		dataComponent.addEntry(second);
+		dataComponent.addEntry(third);
+		assertSame(first, dataComponent.retrieveEntry("A"));
+		assertSame(second, dataComponent.retrieveEntry("B"));
+		assertNull(dataComponent.retrieveEntry("C"));
+		assertNull(dataComponent.retrieveEntry(null));
+
+		// Renamed Entries should be found by their new names only
+		first.setName("C");
+		assertSame(first, dataComponent.retrieveEntry("C"));
+		assertSame(third, dataComponent.retrieveEntry("A"));
+		second.setName("A");
+		assertSame(second, dataComponent.retrieveEntry("A"));
+		assertFalse(dataComponent.contains("B"));
+
+		// Deleting a name removes every Entry with it
+		dataComponent.deleteEntry("A");
+		assertEquals(1, dataComponent.retrieveAllEntries().size());
+		assertFalse(dataComponent.contains("A"));
+		assertTrue(dataComponent.contains("C"));
+
+		// Changes to the list should be picked up
+		dataComponent.retrieveAllEntries().add(third);
+		assertSame(third, dataComponent.retrieveEntry("A"));
+		dataComponent.retrieveAllEntries().remove(third);
+		assertNull(dataComponent.retrieveEntry("A"));
+
+		// Entries added through the list should be found after they are
+		// renamed, also after the DataComponent is changed again
+		dataComponent.retrieveAllEntries().add(third);
+		third.setName("E");
+		assertSame(third, dataComponent.retrieveEntry("E"));
+		dataComponent.addEntry(second);
+		third.setName("F");
+		assertSame(third, dataComponent.retrieveEntry("F"));
+		assertNull(dataComponent.retrieveEntry("E"));
+		dataComponent.deleteEntry("F");
+		dataComponent.deleteEntry("A");
+
+		// Copies should find their own Entries
+		copy = (DataComponent) dataComponent.clone();
+		assertNotNull(copy.retrieveEntry("C"));
+		assertNotSame(first, copy.retrieveEntry("C"));
+		copy.retrieveEntry("C").setName("D");
+		assertTrue(copy.contains("D"));
+		assertFalse(copy.contains("C"));
+		assertSame(first, dataComponent.retrieveEntry("C"));
+
+		// Nothing should be found after the Entries are cleared
+		dataComponent.clearEntries();
+		assertFalse(dataComponent.contains("C"));
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation checks that the structure change count of the
+	 * DataComponent changes when its Entries are added, replaced, renamed or
+	 * given new parents, but not when their values change.
+	 * </p>
+	 */
+	@Test
+	public void checkStructureChangeCount() {
+
+		// Local Declarations
+		Entry first = new Entry(), second = new Entry();
+		int count;
+
+		// Setup the DataComponent
+		first.setName("A");
+		second.setName("B");
+		dataComponent = new DataComponent();
+		count = dataComponent.getStructureChangeCount();
+		dataComponent.addEntry(first);
+		assertTrue(count != dataComponent.getStructureChangeCount());
+
+		// Values are not structure
+		count = dataComponent.getStructureChangeCount();
+		first.setValue("value");
+		assertEquals(count, dataComponent.getStructureChangeCount());
+
+		// Parents, names and replacements are
+		first.setParent("B");
+		assertTrue(count != dataComponent.getStructureChangeCount());
+		count = dataComponent.getStructureChangeCount();
+		first.setParent("B");
+		assertEquals(count, dataComponent.getStructureChangeCount());
+		first.setName("C");
+		assertTrue(count != dataComponent.getStructureChangeCount());
+		count = dataComponent.getStructureChangeCount();
+		dataComponent.retrieveAllEntries().set(0, second);
+		assertTrue(count != dataComponent.getStructureChangeCount());
+
+		return;
+	}
+
 	/**
 	 * <p>
 	 * This operation checks the ability of the DataComponent to update its
@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+
+import org.eclipse.ice.datastructures.form.DataComponent;
+import org.eclipse.ice.datastructures.form.Entry;
+import org.eclipse.ice.datastructures.form.Form;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * <p>
+ * This class times the lookups of Entries by name in a DataComponent and of
+ * Components by id in a Form with between 10^3 and 10^5 Entries. It only
+ * prints the timings, so it is not part of the normal test runs.
+ * </p>
+ *
+ * @author Jay Jay Billings
+ */
+@Ignore("Manual benchmark")
+public class FormLookupBenchmark {
+
+	/**
+	 * The numbers of Entries in the DataComponents that are measured.
+	 */
+	private static final int[] sizes = { 1000, 10000, 100000 };
+
+	/**
+	 * The number of lookups that are timed for each size.
+	 */
+	private static final int numLookups = 100000;
+
+	/**
+	 * The number of lookups that are timed for the search of the list, which
+	 * is much slower.
+	 */
+	private static final int numSearches = 200;
+
+	/**
+	 * The number of Entries in each DataComponent of the Forms that are
+	 * measured, so that the number of DataComponents grows with the size.
+	 */
+	private static final int entriesPerComponent = 10;
+
+	/**
+	 * The number of times that the lookups are repeated. The best time is
+	 * reported.
+	 */
+	private static final int numRuns = 5;
+
+	/**
+	 * This operation runs the benchmark.
+	 */
+	@Test
+	public void benchmark() {
+
+		for (int size : sizes) {
+			// Build a DataComponent and a Form with the same number of Entries
+			DataComponent component = createComponent(0, size);
+			Form form = new Form();
+			for (int i = 0; i < size / entriesPerComponent; i++) {
+				form.addComponent(createComponent(i, entriesPerComponent));
+			}
+
+			// Time the lookups and a search of the list
+			long entryTime = Long.MAX_VALUE, componentTime = Long.MAX_VALUE;
+			long searchTime = Long.MAX_VALUE;
+			for (int i = 0; i < numRuns; i++) {
+				entryTime = Math.min(entryTime, lookupEntries(component, size));
+				componentTime = Math.min(componentTime,
+						lookupComponents(form, size / entriesPerComponent));
+				searchTime = Math.min(searchTime,
+						searchEntries(component.retrieveAllEntries(), size));
+			}
+
+			// Report the results
+			System.out.println("FormLookupBenchmark Message: " + size
+					+ " Entries, retrieveEntry = " + entryTime / numLookups
+					+ " ns, getComponent = " + componentTime / numLookups
+					+ " ns, list search = " + searchTime / numSearches
+					+ " ns per lookup");
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation creates a DataComponent with Entries named "Entry 0",
+	 * "Entry 1" and so on.
+	 *
+	 * @param id
+	 *            The id of the DataComponent
+	 * @param numEntries
+	 *            The number of Entries
+	 * @return The DataComponent
+	 */
+	private DataComponent createComponent(int id, int numEntries) {
+
+		// Local Declarations
+		DataComponent component = new DataComponent();
+
+		component.setId(id);
+		for (int i = 0; i < numEntries; i++) {
+			Entry entry = new Entry();
+			entry.setName("Entry " + i);
+			component.addEntry(entry);
+		}
+
+		return component;
+	}
+
+	/**
+	 * This operation looks up Entries spread over a DataComponent by name.
+	 *
+	 * @param component
+	 *            The DataComponent
+	 * @param size
+	 *            The number of Entries in the DataComponent
+	 * @return The time in nanoseconds
+	 */
+	private long lookupEntries(DataComponent component, int size) {
+
+		// Local Declarations
+		String[] names = createNames(numLookups, size);
+		long start = System.nanoTime();
+
+		for (int i = 0; i < names.length; i++) {
+			Entry entry = component.retrieveEntry(names[i]);
+			assertEquals(names[i], entry.getName());
+		}
+
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * This operation looks up DataComponents spread over a Form by id.
+	 *
+	 * @param form
+	 *            The Form
+	 * @param numComponents
+	 *            The number of DataComponents in the Form
+	 * @return The time in nanoseconds
+	 */
+	private long lookupComponents(Form form, int numComponents) {
+
+		// Local Declarations
+		long start = System.nanoTime();
+
+		for (int i = 0; i < numLookups; i++) {
+			int id = (int) ((i * 7919L) % numComponents);
+			DataComponent component = (DataComponent) form.getComponent(id);
+			assertEquals(id, component.getId());
+		}
+
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * This operation looks up Entries spread over a list by searching it.
+	 *
+	 * @param entries
+	 *            The list of Entries
+	 * @param size
+	 *            The number of Entries in the list
+	 * @return The time in nanoseconds
+	 */
+	private long searchEntries(ArrayList<Entry> entries, int size) {
+
+		// Local Declarations
+		String[] names = createNames(numSearches, size);
+		long start = System.nanoTime();
+
+		for (int i = 0; i < names.length; i++) {
+			Entry found = null;
+			for (Entry entry : entries) {
+				if (entry.getName().equals(names[i])) {
+					found = entry;
+					break;
+				}
+			}
+			assertEquals(names[i], found.getName());
+		}
+
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * This operation creates the names of Entries spread over a
+	 * DataComponent. It is not timed.
+	 *
+	 * @param number
+	 *            The number of names
+	 * @param size
+	 *            The number of Entries in the DataComponent
+	 * @return The names
+	 */
+	private String[] createNames(int number, int size) {
+
+		// Local Declarations
+		String[] names = new String[number];
+
+		for (int i = 0; i < number; i++) {
+			names[i] = "Entry " + ((i * 7919L) % size);
+		}
+
+		return names;
+	}
+
+}
@@ -15,6 +15,8 @@ package org.eclipse.ice.datastructures.test;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -28,9 +30,12 @@ import javax.xml.bind.JAXBException;
 
 import org.eclipse.ice.datastructures.ICEObject.Component;
 import org.eclipse.ice.datastructures.ICEObject.ICEJAXBHandler;
+import org.eclipse.ice.datastructures.ICEObject.ListComponent;
+import org.eclipse.ice.datastructures.form.AllowedValueType;
 import org.eclipse.ice.datastructures.form.DataComponent;
 import org.eclipse.ice.datastructures.form.Entry;
 import org.eclipse.ice.datastructures.form.Form;
+import org.eclipse.ice.datastructures.form.FormPatch;
 import org.eclipse.ice.datastructures.form.ResourceComponent;
 import org.eclipse.ice.datastructures.jaxbclassprovider.ICEJAXBClassProvider;
 import org.eclipse.ice.datastructures.resource.ICEResource;
@@ -151,6 +156,45 @@ public class FormTester {
 		// Check component removal
 		form.removeComponent(2);
 		assertEquals(compList.size() - 1, form.getNumberOfComponents());
+		assertNull(form.getComponent(2));
+
+		// Changing an id to that of another Component should still find the
+		// first Component with the id
+		compList.get(5).setId(4);
+		assertSame(compList.get(4), form.getComponent(4));
+		assertNull(form.getComponent(5));
+		compList.get(4).setId(20);
+		assertSame(compList.get(5), form.getComponent(4));
+		assertSame(compList.get(4), form.getComponent(20));
+
+		// Removing a Component should find the one that it shadowed
+		compList.get(4).setId(4);
+		assertSame(compList.get(4), form.getComponent(4));
+		form.removeComponent(4);
+		assertSame(compList.get(5), form.getComponent(4));
+
+		// Components added through the list should be found, also after
+		// their ids change
+		form.getComponents().add(compList.get(2));
+		assertSame(compList.get(2), form.getComponent(2));
+		compList.get(2).setId(30);
+		assertSame(compList.get(2), form.getComponent(30));
+		form.addComponent(new DataComponent());
+		compList.get(2).setId(31);
+		assertSame(compList.get(2), form.getComponent(31));
+		assertNull(form.getComponent(30));
+
+		// Components that are not ICEObjects should be found after their ids
+		// change, even though the Form is not told about it
+		ListComponent<String> listComp = new ListComponent<String>();
+		listComp.setId(40);
+		form.addComponent(listComp);
+		assertSame(listComp, form.getComponent(40));
+		listComp.setId(41);
+		assertSame(listComp, form.getComponent(41));
+		assertNull(form.getComponent(40));
+		form.removeComponent(41);
+		assertNull(form.getComponent(41));
 
 	}
 
@@ -633,4 +677,143 @@ public class FormTester {
 		assertTrue(form.equals(loadedForm));
 
 	}
-}
\ No newline at end of file
+
+	/**
+	 * <p>
+	 * This operation checks that FormPatches are applied to the Form in place,
+	 * that the revisions of the Form and its Entries are kept, that the
+	 * changes since a revision can be retrieved and that patches that conflict
+	 * or carry bad values are rejected without changing anything.
+	 * </p>
+	 */
+	@Test
+	public void checkPatches() {
+
+		// Local Declarations
+		DataComponent dataComponent = new DataComponent();
+		Entry entry1 = new Entry();
+		Entry entry2 = new Entry() {
+			@Override
+			protected void setup() {
+				this.allowedValues = new ArrayList<String>();
+				this.allowedValues.add("True");
+				this.allowedValues.add("False");
+				this.allowedValueType = AllowedValueType.Discrete;
+				this.defaultValue = "True";
+				this.value = this.defaultValue;
+			}
+		};
+		FormPatch patch = null, undo = null, changes = null;
+
+		// Setup the Form
+		entry1.setName("Entry 1");
+		entry1.setValue("one");
+		entry2.setName("Entry 2");
+		dataComponent.setId(1);
+		dataComponent.addEntry(entry1);
+		dataComponent.addEntry(entry2);
+		form = new Form();
+		form.setId(5);
+		form.setItemID(5);
+		form.addComponent(dataComponent);
+
+		// Nothing has changed yet
+		assertEquals(0, form.getRevision());
+		assertTrue(form.getChanges(0).isEmpty());
+
+		// Patch the first Entry
+		patch = new FormPatch(form);
+		patch.addChange(1, "Entry 1", "two");
+		undo = form.applyPatch(patch);
+		assertNotNull(undo);
+		assertEquals("two", entry1.getValue());
+		assertEquals(1, form.getRevision());
+		assertEquals(1, entry1.getRevision());
+		assertEquals(0, entry2.getRevision());
+		assertEquals(1, dataComponent.getRevision());
+		assertEquals(1, undo.getChanges().size());
+		assertEquals("one", undo.getChanges().get(0).getValue());
+
+		// Only the first Entry should have changed since the start
+		changes = form.getChanges(0);
+		assertEquals(1, changes.getRevision());
+		assertEquals(1, changes.getChanges().size());
+		assertEquals("Entry 1", changes.getChanges().get(0).getEntryName());
+		assertEquals("two", changes.getChanges().get(0).getValue());
+		assertEquals(1, changes.getChanges().get(0).getRevision());
+		assertTrue(form.getChanges(1).isEmpty());
+
+		// A patch based on the old revision may change the other Entry...
+		patch = new FormPatch(form);
+		patch.setBaseRevision(0);
+		patch.addChange(1, "Entry 2", "False");
+		assertFalse(form.hasConflicts(patch));
+		assertNotNull(form.applyPatch(patch));
+		assertEquals("False", entry2.getValue());
+		assertEquals(2, form.getRevision());
+
+		// ...but not overwrite the first one
+		patch = new FormPatch(form);
+		patch.setBaseRevision(0);
+		patch.addChange(1, "Entry 1", "three");
+		assertTrue(form.hasConflicts(patch));
+		assertNull(form.applyPatch(patch));
+		assertEquals("two", entry1.getValue());
+		assertEquals(2, form.getRevision());
+
+		// A bad value should roll back the whole patch
+		patch = new FormPatch(form);
+		patch.addChange(1, "Entry 1", "three");
+		patch.addChange(1, "Entry 2", "Maybe");
+		assertNull(form.applyPatch(patch));
+		assertEquals("two", entry1.getValue());
+		assertEquals("False", entry2.getValue());
+		assertEquals(2, form.getRevision());
+
+		// Patches for other Forms or missing Entries should be rejected
+		patch = new FormPatch(form);
+		patch.setFormId(6);
+		assertNull(form.applyPatch(patch));
+		patch = new FormPatch(form);
+		patch.addChange(1, "Entry 3", "three");
+		assertNull(form.applyPatch(patch));
+		patch = new FormPatch(form);
+		patch.addChange(2, "Entry 1", "three");
+		assertNull(form.applyPatch(patch));
+
+		// Undoing the first patch restores the value in a new revision
+		assertNotNull(form.applyPatch(undo));
+		assertEquals("one", entry1.getValue());
+		assertEquals(3, form.getRevision());
+		assertEquals(1, form.getChanges(2).getChanges().size());
+
+		// Copies should keep the revisions
+		Form copy = (Form) form.clone();
+		assertEquals(3, copy.getRevision());
+		assertEquals(2, copy.getChanges(0).getChanges().size());
+
+		// Marking the Form as changed marks every Entry
+		form.markChanged(10);
+		assertEquals(10, form.getRevision());
+		assertEquals(2, form.getChanges(9).getChanges().size());
+
+		// Setting a value directly is a new revision too, so a patch that was
+		// based on the revision before it conflicts with it
+		patch = new FormPatch(form);
+		patch.addChange(1, "Entry 2", "False");
+		assertTrue(entry2.setValue("True"));
+		assertEquals(11, form.getRevision());
+		assertEquals(11, entry2.getRevision());
+		assertEquals(11, dataComponent.getRevision());
+		assertEquals(10, entry1.getRevision());
+		assertEquals(1, form.getChanges(10).getChanges().size());
+		assertTrue(form.hasConflicts(patch));
+
+		// Setting the same value again is not a change
+		assertTrue(entry2.setValue("True"));
+		assertEquals(11, form.getRevision());
+
+		return;
+	}
+}
+
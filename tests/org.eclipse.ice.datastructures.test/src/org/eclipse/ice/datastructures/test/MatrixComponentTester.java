@@ -2113,4 +2113,91 @@ public class MatrixComponentTester {
 		assertEquals(10.0, matrixComponent.getAllowedValues().get(3), 0.0);
 
 	}
-}
\ No newline at end of file
+
+	/**
+	 * <p>
+	 * This operation checks the operations that copy rows, columns and blocks
+	 * of the matrix into arrays and checks that the elements stay in place
+	 * when a large matrix is resized many times.
+	 * </p>
+	 */
+	@Test
+	public void checkBulkAccess() {
+
+		// Local Declarations
+		int size = 100;
+		double[] row = new double[size];
+		double[] column = new double[size];
+		double[] block = new double[6];
+
+		// Create a non-square 100x100 matrix where each element is
+		// 1000*row + column
+		matrixComponent = new MatrixComponent(false);
+		for (int i = 1; i < size; i++) {
+			assertEquals(i, matrixComponent.addRow());
+			assertEquals(i, matrixComponent.addColumn());
+		}
+		assertEquals(size, matrixComponent.numberOfRows());
+		assertEquals(size, matrixComponent.numberOfColumns());
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				assertTrue(matrixComponent.setElementValue(i, j,
+						(double) (1000 * i + j)));
+			}
+		}
+
+		// Check a row both ways
+		assertTrue(matrixComponent.getRow(7, row));
+		for (int j = 0; j < size; j++) {
+			assertEquals(7000.0 + j, row[j], 0.0);
+			assertEquals(7000.0 + j, matrixComponent.getRow(7).get(j), 0.0);
+		}
+
+		// Check a column both ways
+		assertTrue(matrixComponent.getColumn(3, column));
+		for (int i = 0; i < size; i++) {
+			assertEquals(1000.0 * i + 3, column[i], 0.0);
+			assertEquals(1000.0 * i + 3, matrixComponent.getColumn(3).get(i),
+					0.0);
+		}
+
+		// Check a 2x3 block
+		assertTrue(matrixComponent.getBlock(10, 20, 2, 3, block));
+		assertEquals(10020.0, block[0], 0.0);
+		assertEquals(10022.0, block[2], 0.0);
+		assertEquals(11020.0, block[3], 0.0);
+		assertEquals(11022.0, block[5], 0.0);
+
+		// Check bad indices and arrays
+		assertFalse(matrixComponent.getRow(-1, row));
+		assertFalse(matrixComponent.getRow(size, row));
+		assertFalse(matrixComponent.getRow(0, new double[size - 1]));
+		assertFalse(matrixComponent.getColumn(size, column));
+		assertFalse(matrixComponent.getColumn(0, null));
+		assertFalse(matrixComponent.getBlock(size - 1, 0, 2, 3, block));
+		assertFalse(matrixComponent.getBlock(0, 0, 3, 3, block));
+
+		// Delete a column and a row and make sure the remaining elements did
+		// not move
+		assertTrue(matrixComponent.deleteColumn());
+		assertTrue(matrixComponent.deleteRow());
+		assertEquals(size - 1, matrixComponent.numberOfRows());
+		assertEquals(size - 1, matrixComponent.numberOfColumns());
+		assertEquals(98097.0, matrixComponent.getElementValue(98, 97), 0.0);
+		assertNull(matrixComponent.getElementValue(0, size - 1));
+
+		// Add them back and check that the new elements are zero
+		matrixComponent.addColumn();
+		matrixComponent.addRow();
+		assertEquals(0.0, matrixComponent.getElementValue(5, size - 1), 0.0);
+		assertEquals(0.0, matrixComponent.getElementValue(size - 1, 5), 0.0);
+		assertEquals(5098.0, matrixComponent.getElementValue(5, 98), 0.0);
+
+		// A copy should be equal and have the same hash code
+		MatrixComponent copy = (MatrixComponent) matrixComponent.clone();
+		assertTrue(matrixComponent.equals(copy));
+		assertEquals(matrixComponent.hashCode(), copy.hashCode());
+
+		return;
+	}
+}
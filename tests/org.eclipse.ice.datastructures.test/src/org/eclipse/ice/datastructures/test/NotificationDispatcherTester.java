@@ -0,0 +1,246 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.ice.datastructures.ICEObject.NotificationDispatcher;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * This class is responsible for testing the NotificationDispatcher. It checks
+ * that notifications from one source are delivered in order, that pending
+ * change notifications are merged, that saturated workers never make the
+ * timer deliver notifications and that the counters are kept correctly.
+ *
+ * @author Jay Jay Billings
+ */
+public class NotificationDispatcherTester {
+
+	/**
+	 * The dispatcher used by the current test.
+	 */
+	private NotificationDispatcher dispatcher;
+
+	/**
+	 * This operation shuts down the dispatcher of the last test so that its
+	 * threads do not pile up.
+	 */
+	@After
+	public void afterEachTest() {
+		if (dispatcher != null) {
+			dispatcher.shutdown();
+			dispatcher = null;
+		}
+	}
+
+	/**
+	 * This operation checks that notifications posted with dispatch() are all
+	 * delivered, in order, for a single source.
+	 *
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void checkOrdering() throws InterruptedException {
+
+		// Local Declarations
+		dispatcher = new NotificationDispatcher(4, 16,
+				0);
+		final List<Integer> delivered = Collections
+				.synchronizedList(new ArrayList<Integer>());
+		final int count = 500;
+		final CountDownLatch latch = new CountDownLatch(count);
+		Object source = new Object();
+
+		// Post a long run of numbered notifications
+		for (int i = 0; i < count; i++) {
+			final int number = i;
+			dispatcher.dispatch(source, new Runnable() {
+				@Override
+				public void run() {
+					delivered.add(number);
+					latch.countDown();
+				}
+			});
+		}
+
+		// Make sure they were all delivered in order
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertEquals(count, delivered.size());
+		for (int i = 0; i < count; i++) {
+			assertEquals(i, delivered.get(i).intValue());
+		}
+		assertEquals(count, dispatcher.getQueuedCount());
+		assertEquals(0, dispatcher.getCoalescedCount());
+
+		return;
+	}
+
+	/**
+	 * This operation checks that change notifications posted within the
+	 * coalescing window are merged and that merged notifications are
+	 * counted.
+	 *
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void checkCoalescing() throws InterruptedException {
+
+		// Local Declarations
+		dispatcher = new NotificationDispatcher(2, 16,
+				200);
+		final CountDownLatch latch = new CountDownLatch(1);
+		Object source = new Object();
+		Runnable notification = new Runnable() {
+			@Override
+			public void run() {
+				latch.countDown();
+			}
+		};
+
+		// Post a burst of updates, which should all land in the window
+		for (int i = 0; i < 100; i++) {
+			dispatcher.coalesce(source, notification);
+		}
+
+		// Wait for the delivery and then give the workers a moment to update
+		// the counters.
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		Thread.sleep(100);
+
+		assertEquals(100, dispatcher.getQueuedCount());
+		assertEquals(99, dispatcher.getCoalescedCount());
+		assertEquals(1, dispatcher.getDeliveredCount());
+
+		return;
+	}
+
+	/**
+	 * This operation checks that a change notification is never merged with
+	 * a pending one when a data-carrying notification was posted between
+	 * them.
+	 *
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void checkMixedNotifications() throws InterruptedException {
+
+		// Local Declarations
+		dispatcher = new NotificationDispatcher(2, 16,
+				200);
+		final List<String> delivered = Collections
+				.synchronizedList(new ArrayList<String>());
+		final CountDownLatch latch = new CountDownLatch(3);
+		Object source = new Object();
+
+		// Post a change, a data-carrying notification and another change
+		dispatcher.coalesce(source, new Runnable() {
+			@Override
+			public void run() {
+				delivered.add("changed");
+				latch.countDown();
+			}
+		});
+		dispatcher.dispatch(source, new Runnable() {
+			@Override
+			public void run() {
+				delivered.add("added");
+				latch.countDown();
+			}
+		});
+		dispatcher.coalesce(source, new Runnable() {
+			@Override
+			public void run() {
+				delivered.add("changed");
+				latch.countDown();
+			}
+		});
+
+		// All three must be delivered in order
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertEquals(3, delivered.size());
+		assertEquals("changed", delivered.get(0));
+		assertEquals("added", delivered.get(1));
+		assertEquals("changed", delivered.get(2));
+		assertEquals(0, dispatcher.getCoalescedCount());
+
+		return;
+	}
+
+	/**
+	 * This operation checks that hand-offs that the saturated workers reject
+	 * are retried by the timer instead of being delivered on the timer
+	 * thread, and that they are all delivered once the workers are free.
+	 *
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void checkSaturatedWorkers() throws InterruptedException {
+
+		// Local Declarations
+		dispatcher = new NotificationDispatcher(1, 1, 20);
+		final List<String> threads = Collections
+				.synchronizedList(new ArrayList<String>());
+		final CountDownLatch release = new CountDownLatch(1);
+		final int count = 10;
+		final CountDownLatch latch = new CountDownLatch(count);
+
+		// Block the only worker with the first source
+		dispatcher.dispatch(new Object(), new Runnable() {
+			@Override
+			public void run() {
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+				}
+				threads.add(Thread.currentThread().getName());
+				latch.countDown();
+			}
+		});
+
+		// Post more sources than the workers can queue
+		for (int i = 1; i < count; i++) {
+			dispatcher.dispatch(new Object(), new Runnable() {
+				@Override
+				public void run() {
+					threads.add(Thread.currentThread().getName());
+					latch.countDown();
+				}
+			});
+		}
+
+		// Let the timer retry a few times, then free the worker
+		Thread.sleep(200);
+		assertEquals(count, latch.getCount());
+		release.countDown();
+
+		// Everything should be delivered by the worker, not the timer
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertEquals(count, threads.size());
+		for (String name : threads) {
+			assertFalse(name.contains("Timer"));
+		}
+
+		return;
+	}
+}
@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
 
 import javax.xml.bind.JAXBException;
 
@@ -920,6 +921,194 @@ public class TreeCompositeTester extends SelectiveComponentVisitor {
 		return;
 	}
 
+	/**
+	 * <p>
+	 * This operation checks that copies of a TreeComposite, which share the
+	 * nodes of the original until they are used, are independent of the
+	 * original and of each other.
+	 * </p>
+	 *
+	 */
+	@Test
+	public void checkCopyOnWrite() {
+
+		// Local Declarations
+		TreeComposite original = new TreeComposite();
+		TreeComposite child1 = new TreeComposite();
+		TreeComposite child2 = new TreeComposite();
+		TreeComposite grandChild = new TreeComposite();
+		TreeComposite exemplar = new TreeComposite();
+		TreeComposite copy, copyOfCopy;
+		DataComponent rootData = new DataComponent();
+		DataComponent grandChildData = new DataComponent();
+		TestComponentListener listener = new TestComponentListener();
+		ArrayList<TreeComposite> exemplars = new ArrayList<TreeComposite>();
+		Entry entry;
+
+		// Setup the original tree
+		entry = new Entry();
+		entry.setName("Warp factor");
+		entry.setValue("1");
+		rootData.addEntry(entry);
+		original.addComponent(rootData);
+		original.setActiveDataNode(rootData);
+		entry = new Entry();
+		entry.setName("Shields");
+		entry.setValue("Up");
+		grandChildData.addEntry(entry);
+		grandChild.addComponent(grandChildData);
+		child1.setName("Kirk");
+		child2.setName("Spock");
+		child2.setNextChild(grandChild);
+		exemplar.setName("Kirk");
+		exemplars.add(exemplar);
+		original.setNextChild(child1);
+		original.setNextChild(child2);
+		original.setChildExemplars(exemplars);
+
+		// Copy the tree and a copy of the copy. The second copy is made before
+		// anything in the first one is used.
+		copy = (TreeComposite) original.clone();
+		copyOfCopy = (TreeComposite) copy.clone();
+		assertEquals(original, copy);
+		assertEquals(original.hashCode(), copy.hashCode());
+		assertEquals(original, copyOfCopy);
+		assertEquals(2, copy.getNumberOfChildren());
+		assertEquals(1, copy.getNumberOfDataNodes());
+		assertTrue(copy.hasChildExemplars());
+
+		// Register a listener with the copy before its nodes are copied
+		copy.register(listener);
+		listener.reset();
+
+		// Change an Entry in the grandchild of the copy
+		TreeComposite copiedGrandChild = copy.getChildAtIndex(1)
+				.getChildAtIndex(0);
+		DataComponent copiedData = (DataComponent) copiedGrandChild
+				.getDataNodes().get(0);
+		assertTrue(copiedData != grandChildData);
+		copiedData.retrieveEntry("Shields").setValue("Down");
+
+		// The listener should have been registered with the copied nodes
+		copiedData.setName("Enterprise");
+		assertTrue(listener.wasNotified());
+
+		// The original and the other copy should not have changed
+		assertEquals("Up", grandChildData.retrieveEntry("Shields").getValue());
+		assertEquals("Up",
+				((DataComponent) copyOfCopy.getChildAtIndex(1)
+						.getChildAtIndex(0).getDataNodes().get(0))
+						.retrieveEntry("Shields").getValue());
+		assertFalse(original.equals(copy));
+		assertEquals(original, copyOfCopy);
+
+		// Change the original and check that the copies did not change
+		child1.setName("McCoy");
+		rootData.retrieveEntry("Warp factor").setValue("9");
+		assertEquals("Kirk", copy.getChildAtIndex(0).getName());
+		assertEquals("Kirk", copyOfCopy.getChildAtIndex(0).getName());
+		assertEquals("1", ((DataComponent) copy.getActiveDataNode())
+				.retrieveEntry("Warp factor").getValue());
+
+		// Check the links in the copy
+		assertTrue(copy.getChildAtIndex(0).getParent() == copy);
+		assertTrue(copy.getChildAtIndex(0).getNextSibling() == copy
+				.getChildAtIndex(1));
+		assertTrue(copy.getChildAtIndex(1).getPreviousSibling() == copy
+				.getChildAtIndex(0));
+		assertTrue(copiedGrandChild.getParent() == copy.getChildAtIndex(1));
+		assertTrue(copy.getActiveDataNode() == copy.getDataNodes().get(0));
+		assertTrue(copy.getActiveDataNode() != rootData);
+
+		// The exemplars should be equal, but not the same
+		assertEquals(original.getChildExemplars(), copy.getChildExemplars());
+		assertTrue(copy.getChildExemplars().get(0) != original
+				.getChildExemplars().get(0));
+
+		// Children can be added and removed from the copies
+		copyOfCopy.removeChild(copyOfCopy.getChildAtIndex(0));
+		assertEquals(1, copyOfCopy.getNumberOfChildren());
+		assertEquals("Spock", copyOfCopy.getChildAtIndex(0).getName());
+		assertNull(copyOfCopy.getChildAtIndex(0).getPreviousSibling());
+		assertEquals(2, copy.getNumberOfChildren());
+		assertEquals(2, original.getNumberOfChildren());
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation checks that several threads can read a copy of a
+	 * TreeComposite at the same time while its shared nodes are copied and
+	 * that they all get the same, complete copies.
+	 * </p>
+	 *
+	 */
+	@Test
+	public void checkConcurrentCopyOnWrite() throws InterruptedException {
+
+		// Local Declarations
+		final int numThreads = 4;
+		final int numChildren = 20;
+		TreeComposite original = new TreeComposite();
+
+		// Setup the original tree
+		for (int i = 0; i < numChildren; i++) {
+			TreeComposite child = new TreeComposite();
+			child.setName("Child " + i);
+			original.setNextChild(child);
+		}
+		original.addComponent(new DataComponent());
+
+		// Read many copies from several threads at once
+		for (int i = 0; i < 50; i++) {
+			final TreeComposite copy = (TreeComposite) original.clone();
+			final CyclicBarrier barrier = new CyclicBarrier(numThreads);
+			final ArrayList<ArrayList<Component>> results = new ArrayList<ArrayList<Component>>();
+			Thread[] threads = new Thread[numThreads];
+			for (int j = 0; j < numThreads; j++) {
+				final ArrayList<Component> result = new ArrayList<Component>();
+				results.add(result);
+				threads[j] = new Thread() {
+					@Override
+					public void run() {
+						try {
+							barrier.await();
+						} catch (Exception e) {
+							return;
+						}
+						for (int k = 0; k < numChildren; k++) {
+							result.add(copy.getChildAtIndex(k));
+						}
+						result.add(copy.getDataNodes().get(0));
+					}
+				};
+				threads[j].start();
+			}
+			for (Thread thread : threads) {
+				thread.join();
+			}
+
+			// Every thread should have found the same copies
+			for (ArrayList<Component> result : results) {
+				assertEquals(numChildren + 1, result.size());
+				for (int k = 0; k < result.size(); k++) {
+					assertTrue(result.get(k) == results.get(0).get(k));
+				}
+			}
+			assertEquals(numChildren, copy.getNumberOfChildren());
+			for (int k = 0; k < numChildren; k++) {
+				assertTrue(copy.getChildAtIndex(k).getParent() == copy);
+				assertEquals("Child " + k, copy.getChildAtIndex(k).getName());
+			}
+			assertTrue(copy.getChildAtIndex(numChildren - 1)
+					.getPreviousSibling() == copy
+					.getChildAtIndex(numChildren - 2));
+		}
+
+		return;
+	}
+
 	/**
 	 * This operation checks the ability of the TreeComposite to persist itself
 	 * to XML and to load itself from an XML input stream.
@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+
+import org.eclipse.ice.datastructures.form.DataComponent;
+import org.eclipse.ice.datastructures.form.Entry;
+import org.eclipse.ice.datastructures.form.TreeComposite;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * <p>
+ * This class is responsible for timing the copies of a large TreeComposite
+ * when each copy only changes a few of its nodes.
+ * </p>
+ *
+ * @author Jay Jay Billings
+ */
+@Ignore("Manual benchmark")
+public class TreeCopyBenchmark {
+
+	/**
+	 * The number of children of each node in the tree.
+	 */
+	private static final int numChildren = 8;
+
+	/**
+	 * The depth of the tree, so that it has 8^0 + ... + 8^3 = 585 nodes.
+	 */
+	private static final int depth = 3;
+
+	/**
+	 * The number of Entries in the DataComponent of each node.
+	 */
+	private static final int numEntries = 10;
+
+	/**
+	 * The number of copies that are made, like the number of Items.
+	 */
+	private static final int numCopies = 50;
+
+	/**
+	 * This operation runs the benchmark.
+	 */
+	@Test
+	public void benchmark() {
+
+		// Local Declarations. The specification is a copy of the tree so that
+		// it shares all of its nodes, like the specifications that are cached
+		// for MOOSE.
+		TreeComposite spec = (TreeComposite) createTree("Root", 0).clone();
+		ArrayList<TreeComposite> copies = new ArrayList<TreeComposite>();
+
+		// Copy the tree and change one Entry in each copy
+		long memory = usedMemory();
+		long start = System.nanoTime();
+		for (int i = 0; i < numCopies; i++) {
+			TreeComposite copy = (TreeComposite) spec.clone();
+			setValue(copy, i);
+			copies.add(copy);
+		}
+		long sharedTime = System.nanoTime() - start;
+		long sharedMemory = usedMemory() - memory;
+
+		// Check that the copies changed independently
+		for (int i = 0; i < numCopies; i++) {
+			assertEquals(String.valueOf(i), getEntry(copies.get(i)).getValue());
+		}
+		assertEquals("0", getEntry(spec).getValue());
+		copies.clear();
+
+		// Copy the tree again, but use every node of each copy
+		memory = usedMemory();
+		start = System.nanoTime();
+		for (int i = 0; i < numCopies; i++) {
+			TreeComposite copy = (TreeComposite) spec.clone();
+			visit(copy);
+			setValue(copy, i);
+			copies.add(copy);
+		}
+		long fullTime = System.nanoTime() - start;
+		long fullMemory = usedMemory() - memory;
+
+		// Report the results
+		System.out.println("TreeCopyBenchmark Message: " + numCopies
+				+ " copies, shared = " + sharedTime / 1000000 + " ms and "
+				+ sharedMemory / 1024 + " KB, fully used = " + fullTime
+				/ 1000000 + " ms and " + fullMemory / 1024 + " KB");
+
+		return;
+	}
+
+	/**
+	 * This operation creates a tree in which every node has a DataComponent
+	 * with Entries named "Entry 0", "Entry 1" and so on.
+	 *
+	 * @param name
+	 *            The name of the root of the tree
+	 * @param level
+	 *            The level of the root of the tree
+	 * @return The tree
+	 */
+	private TreeComposite createTree(String name, int level) {
+
+		// Local Declarations
+		TreeComposite tree = new TreeComposite();
+		DataComponent component = new DataComponent();
+
+		tree.setName(name);
+		component.setId(1);
+		for (int i = 0; i < numEntries; i++) {
+			Entry entry = new Entry();
+			entry.setName("Entry " + i);
+			entry.setValue("0");
+			component.addEntry(entry);
+		}
+		tree.addComponent(component);
+		if (level < depth) {
+			for (int i = 0; i < numChildren; i++) {
+				tree.setNextChild(createTree(name + "." + i, level + 1));
+			}
+		}
+
+		return tree;
+	}
+
+	/**
+	 * This operation returns the first Entry in the last node of the tree.
+	 *
+	 * @param tree
+	 *            The tree
+	 * @return The Entry
+	 */
+	private Entry getEntry(TreeComposite tree) {
+
+		// Local Declarations
+		TreeComposite node = tree;
+
+		while (node.getNumberOfChildren() > 0) {
+			node = node.getChildAtIndex(node.getNumberOfChildren() - 1);
+		}
+
+		return ((DataComponent) node.getDataNodes().get(0))
+				.retrieveEntry("Entry 0");
+	}
+
+	/**
+	 * This operation sets the value of the first Entry in the last node of the
+	 * tree.
+	 *
+	 * @param tree
+	 *            The tree
+	 * @param value
+	 *            The value
+	 */
+	private void setValue(TreeComposite tree, int value) {
+		getEntry(tree).setValue(String.valueOf(value));
+	}
+
+	/**
+	 * This operation uses every node of the tree.
+	 *
+	 * @param tree
+	 *            The tree
+	 */
+	private void visit(TreeComposite tree) {
+		tree.getDataNodes();
+		for (int i = 0; i < tree.getNumberOfChildren(); i++) {
+			visit(tree.getChildAtIndex(i));
+		}
+	}
+
+	/**
+	 * This operation returns the amount of memory that is used after a garbage
+	 * collection has been requested. It is only an estimate.
+	 *
+	 * @return The used memory in bytes
+	 */
+	private long usedMemory() {
+
+		// Local Declarations
+		Runtime runtime = Runtime.getRuntime();
+
+		runtime.gc();
+
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+}
@@ -41,6 +41,7 @@ import org.eclipse.ice.datastructures.ICEObject.ICEJAXBHandler;
 import org.eclipse.ice.datastructures.form.DataComponent;
 import org.eclipse.ice.datastructures.form.Entry;
 import org.eclipse.ice.datastructures.form.Form;
+import org.eclipse.ice.datastructures.form.FormPatch;
 import org.eclipse.ice.datastructures.form.FormStatus;
 import org.eclipse.ice.datastructures.jaxbclassprovider.ICEJAXBClassProvider;
 import org.eclipse.ice.datastructures.resource.ICEResource;
@@ -1229,6 +1230,147 @@ public class ItemTester implements ItemListener {
 		return;
 	}
 
+	/**
+	 * This operation checks that the Item registers its Entries again when
+	 * the structure of its Form changes without changing the number of
+	 * Components or Entries.
+	 */
+	@Test
+	public void checkDependencyRegistration() {
+
+		/**
+		 * An Item that reviews a Form that the test sets up.
+		 */
+		class ReviewedItem extends Item {
+			public ReviewedItem() {
+				super(null);
+			}
+
+			public FormStatus review(Form newForm) {
+				form = newForm;
+				return reviewEntries(newForm);
+			}
+		}
+
+		// Local Declarations
+		ReviewedItem reviewedItem = new ReviewedItem();
+		Form testForm = new Form();
+		DataComponent dataComp = new DataComponent();
+		Entry off = new Entry(), on = new Entry(), child = new Entry();
+
+		// Setup the Entries. The child depends on the Entry that is off.
+		off.setName("off");
+		off.setValue("false");
+		on.setName("on");
+		on.setValue("true");
+		child.setName("child");
+		child.setParent("off");
+		dataComp.addEntry(off);
+		dataComp.addEntry(on);
+		dataComp.addEntry(child);
+		testForm.addComponent(dataComp);
+
+		// The child should not be ready after the first review
+		reviewedItem.review(testForm);
+		assertFalse(child.isReady());
+
+		// Changing its parent must register it again
+		child.setParent("on");
+		reviewedItem.review(testForm);
+		assertTrue(child.isReady());
+
+		// So must replacing it with a new Entry
+		Entry newChild = new Entry();
+		newChild.setName("newChild");
+		newChild.setParent("off");
+		dataComp.retrieveAllEntries().set(2, newChild);
+		reviewedItem.review(testForm);
+		assertFalse(newChild.isReady());
+
+		return;
+	}
+
+	/**
+	 * This operation checks that the Item applies and reviews FormPatches and
+	 * that it undoes a patch that fails the review.
+	 */
+	@Test
+	public void checkPatching() {
+
+		/**
+		 * An Item whose review fails if its Entry is set to "bad".
+		 */
+		class PatchedItem extends Item {
+			public PatchedItem(Form newForm) {
+				super(null);
+				form = newForm;
+			}
+
+			@Override
+			protected FormStatus reviewEntries(Form preparedForm) {
+				DataComponent comp = (DataComponent) preparedForm
+						.getComponent(1);
+				return "bad".equals(comp.retrieveEntry("value").getValue()) ? FormStatus.InfoError
+						: FormStatus.ReadyToProcess;
+			}
+		}
+
+		// Local Declarations
+		Form testForm = new Form();
+		DataComponent dataComp = new DataComponent();
+		Entry entry = new Entry();
+		FormPatch patch = null;
+
+		// Setup the Item
+		entry.setName("value");
+		entry.setValue("good");
+		dataComp.setId(1);
+		dataComp.addEntry(entry);
+		testForm.setId(7);
+		testForm.setItemID(7);
+		testForm.addComponent(dataComp);
+		PatchedItem patchedItem = new PatchedItem(testForm);
+
+		// A good patch should be applied in place and reviewed
+		patch = new FormPatch(testForm);
+		patch.addChange(1, "value", "better");
+		assertEquals(FormStatus.ReadyToProcess, patchedItem.patchForm(patch));
+		assertEquals(FormStatus.ReadyToProcess, patchedItem.getStatus());
+		assertEquals("better", entry.getValue());
+		assertEquals(1, testForm.getRevision());
+
+		// A patch that fails the review should be undone
+		patch = new FormPatch(testForm);
+		patch.addChange(1, "value", "bad");
+		assertEquals(FormStatus.InfoError, patchedItem.patchForm(patch));
+		assertEquals(FormStatus.InfoError, patchedItem.getStatus());
+		assertEquals("better", entry.getValue());
+
+		// A patch that would overwrite a change that its author has not seen
+		// should be refused
+		patch = new FormPatch(testForm);
+		patch.addChange(1, "value", "other");
+		entry.setValue("changed");
+		assertEquals(FormStatus.Unacceptable, patchedItem.patchForm(patch));
+		assertEquals("changed", entry.getValue());
+
+		// Patches for other Forms should be refused
+		patch = new FormPatch(testForm);
+		patch.setFormId(8);
+		patch.addChange(1, "value", "other");
+		assertEquals(FormStatus.InfoError, patchedItem.patchForm(patch));
+		assertEquals("changed", entry.getValue());
+
+		// Disabled Items should refuse every patch
+		patchedItem.disable(true);
+		patch = new FormPatch(testForm);
+		patch.addChange(1, "value", "other");
+		assertEquals(FormStatus.Unacceptable, patchedItem.patchForm(patch));
+		assertEquals("changed", entry.getValue());
+
+		return;
+	}
+
 	/**
 	 * This method checks the Item's ability to get and use an IOService.
 	 */
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.StringWriter;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.ice.datastructures.form.FormStatus;
+import org.eclipse.ice.item.action.IJobOutputListener;
+import org.eclipse.ice.item.action.JobOutputLogger;
+import org.junit.Test;
+
+/**
+ * This class tests the JobOutputLogger.
+ *
+ * @author Jay Jay Billings
+ */
+public class JobOutputLoggerTester {
+
+	/**
+	 * This operation checks that both streams of a job can be read at the same
+	 * time and that the log and the listener receive all of the output. The
+	 * job writes more to stderr than fits in its pipe before it writes stdout,
+	 * which would stall if the streams were read one after the other.
+	 *
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void checkConcurrentLogging() throws IOException,
+			InterruptedException {
+
+		// Local Declarations
+		final int numLines = 5000;
+		final PipedOutputStream jobOut = new PipedOutputStream();
+		final PipedOutputStream jobErr = new PipedOutputStream();
+		PipedInputStream out = new PipedInputStream(jobOut, 1024);
+		PipedInputStream err = new PipedInputStream(jobErr, 1024);
+		StringWriter outLog = new StringWriter(), errLog = new StringWriter();
+		final StringBuffer outReceived = new StringBuffer();
+		final StringBuffer errReceived = new StringBuffer();
+		final AtomicInteger numBatches = new AtomicInteger();
+		IJobOutputListener listener = new IJobOutputListener() {
+			@Override
+			public void outputReceived(String output, boolean isError) {
+				numBatches.incrementAndGet();
+				if (isError) {
+					errReceived.append(output);
+				} else {
+					outReceived.append(output);
+				}
+			}
+
+			@Override
+			public void outputFinished(FormStatus status) {
+				// Nothing to do
+			}
+		};
+
+		// Create a fake job that fills stderr before writing to stdout
+		Thread job = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					for (int i = 0; i < numLines; i++) {
+						jobErr.write(("error " + i + "\n").getBytes());
+					}
+					jobErr.close();
+					for (int i = 0; i < numLines; i++) {
+						jobOut.write(("output " + i + "\n").getBytes());
+					}
+					jobOut.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		});
+
+		// Log both streams
+		JobOutputLogger outLogger = new JobOutputLogger(out, outLog, false,
+				listener);
+		JobOutputLogger errLogger = new JobOutputLogger(err, errLog, true,
+				listener);
+		Thread errThread = new Thread(errLogger);
+		job.start();
+		errThread.start();
+		outLogger.run();
+		errThread.join(10000);
+		job.join(10000);
+		assertFalse(errThread.isAlive());
+		assertFalse(outLogger.hasFailed());
+		assertFalse(errLogger.hasFailed());
+
+		// Check the logs and the output that was received
+		StringBuilder expectedOut = new StringBuilder();
+		StringBuilder expectedErr = new StringBuilder();
+		for (int i = 0; i < numLines; i++) {
+			expectedOut.append("output " + i + "\r\n");
+			expectedErr.append("error " + i + "\r\n");
+		}
+		assertEquals(expectedOut.toString(), outLog.toString());
+		assertEquals(expectedErr.toString(), errLog.toString());
+		assertEquals(expectedOut.toString(), outReceived.toString());
+		assertEquals(expectedErr.toString(), errReceived.toString());
+
+		// The output should have been batched instead of written line by line
+		assertTrue(numBatches.get() < 2 * numLines);
+
+		return;
+	}
+
+}
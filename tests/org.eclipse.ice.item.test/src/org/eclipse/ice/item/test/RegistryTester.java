@@ -13,6 +13,7 @@
 package org.eclipse.ice.item.test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
@@ -145,4 +146,72 @@ public class RegistryTester {
 		assertEquals(value, dc1.getUpdatedValue());
 		assertEquals(value, dc2.getUpdatedValue());
 	}
-}
\ No newline at end of file
+
+	/**
+	 * <p>
+	 * This operation checks that the Registry only updates the registrants of
+	 * keys that changed since the last dispatch and that dispatchAll() updates
+	 * all of them.
+	 * </p>
+	 */
+	@Test
+	public void checkIncrementalDispatching() {
+		// Some keys and values
+		String key1 = "Alice in Chains", value1 = "Rooster";
+		String key2 = "Soundgarden", value2 = "Outshined";
+
+		// Create a Registry to test
+		registry = new Registry();
+
+		// Register one DataComponent against each key
+		FakeDataComponent dc1 = new FakeDataComponent();
+		FakeDataComponent dc2 = new FakeDataComponent();
+		assertTrue(registry.register(dc1, key1));
+		assertTrue(registry.register(dc2, key2));
+		// Registering twice should not create a second registration
+		assertTrue(registry.register(dc1, key1));
+		assertEquals(2, registry.getDependencyKeys().size());
+
+		// Set the values and dispatch them
+		registry.setValue(key1, value1);
+		registry.setValue(key2, value2);
+		assertTrue(registry.hasChanges());
+		registry.dispatch();
+		assertFalse(registry.hasChanges());
+		assertEquals(value1, dc1.getUpdatedValue());
+		assertEquals(value2, dc2.getUpdatedValue());
+
+		// Clear the updated values
+		dc1.update(key1, null);
+		dc2.update(key2, null);
+
+		// Setting the same value again should not dispatch anything
+		assertTrue(registry.updateValue(key1, value1));
+		assertFalse(registry.hasChanges());
+		registry.dispatch();
+		assertNull(dc1.getUpdatedValue());
+
+		// Changing one value should only update its registrant
+		assertTrue(registry.updateValue(key2, "Black Hole Sun"));
+		assertTrue(registry.hasChanges());
+		registry.dispatch();
+		assertNull(dc1.getUpdatedValue());
+		assertEquals("Black Hole Sun", dc2.getUpdatedValue());
+
+		// A full dispatch should update everything
+		registry.dispatchAll();
+		assertEquals(value1, dc1.getUpdatedValue());
+
+		// Unregistered components should not be updated
+		dc1.update(key1, null);
+		assertTrue(registry.unregister(dc1, key1));
+		assertFalse(registry.unregister(dc1, key1));
+		registry.setValue(key1, "Would?");
+		registry.dispatch();
+		assertNull(dc1.getUpdatedValue());
+		assertEquals(1, registry.getDependencyKeys().size());
+		assertTrue(registry.containsKey(key1));
+
+		return;
+	}
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.test.messaging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+
+import org.eclipse.ice.item.messaging.Message;
+import org.eclipse.ice.item.messaging.MessageHistory;
+import org.junit.Test;
+
+/**
+ * <p>
+ * This class is responsible for testing the MessageHistory class.
+ * </p>
+ * 
+ * @author Jay Jay Billings
+ */
+public class MessageHistoryTester {
+
+	/**
+	 * <p>
+	 * This operation makes sure that the history keeps the most recent
+	 * Messages of each type in order.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkHistory() {
+
+		// Local Declarations
+		MessageHistory history = new MessageHistory(4);
+
+		// Add more progress messages than the history can hold and one
+		// convergence message
+		for (int i = 0; i < 10; i++) {
+			history.add(createMessage(i, "PROGRESS_UPDATED"));
+		}
+		history.add(createMessage(10, "CONVERGENCE_UPDATED"));
+		history.add(null);
+
+		// Only the last four progress messages should be left
+		ArrayList<Message> progress = history.getRecent("PROGRESS_UPDATED", 0);
+		assertEquals(4, progress.size());
+		for (int i = 0; i < 4; i++) {
+			assertEquals(6 + i, progress.get(i).getId());
+		}
+		assertEquals(10, history.getTotalCount("PROGRESS_UPDATED"));
+
+		// Check the count
+		progress = history.getRecent("PROGRESS_UPDATED", 2);
+		assertEquals(2, progress.size());
+		assertEquals(8, progress.get(0).getId());
+		assertEquals(9, progress.get(1).getId());
+
+		// The convergence message should not have been pushed out
+		assertEquals(1, history.getRecent("CONVERGENCE_UPDATED", 0).size());
+		assertEquals(5, history.getRecent(null, 0).size());
+		assertEquals(0, history.getRecent("FILE_MODIFIED", 0).size());
+		assertEquals(0, history.getTotalCount("FILE_MODIFIED"));
+
+		// Messages of every type should come back in the order they were added
+		history.clear();
+		String[] types = { "PROGRESS_UPDATED", "CONVERGENCE_UPDATED",
+				"FILE_MODIFIED" };
+		for (int i = 0; i < 9; i++) {
+			history.add(createMessage(i, types[(i * 7) % 3]));
+		}
+		ArrayList<Message> all = history.getRecent(null, 0);
+		assertEquals(9, all.size());
+		for (int i = 0; i < 9; i++) {
+			assertEquals(i, all.get(i).getId());
+		}
+		// The count applies to each type, but the order is still global
+		all = history.getRecent(null, 1);
+		assertEquals(3, all.size());
+		assertEquals(6, all.get(0).getId());
+		assertEquals(7, all.get(1).getId());
+		assertEquals(8, all.get(2).getId());
+
+		// Clear it
+		history.clear();
+		assertEquals(0, history.getRecent(null, 0).size());
+
+		// Bad capacities are rejected
+		try {
+			history = new MessageHistory(0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation creates a Message.
+	 * </p>
+	 * 
+	 * @param id
+	 *            The id of the Message
+	 * @param type
+	 *            The type of the Message
+	 * @return The Message
+	 */
+	private Message createMessage(int id, String type) {
+		Message msg = new Message();
+		msg.setId(id);
+		msg.setType(type);
+		msg.setMessage("Message " + id);
+		return msg;
+	}
+}
@@ -13,12 +13,15 @@
 package org.eclipse.ice.item.test.moose;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.util.ArrayList;
@@ -410,4 +413,122 @@ public class MOOSEFileHandlerTester {
 
 		return;
 	}
+
+	/**
+	 * This operation makes sure that YAML specifications are cached, that each
+	 * load gets its own copy of the specification and that the specification
+	 * is built again when the YAML file changes.
+	 */
+	@Test
+	public void checkYAMLCache() {
+
+		// Local Declarations
+		String tmpDir = System.getProperty("java.io.tmpdir");
+		String separator = System.getProperty("file.separator");
+		File yamlFile = new File(tmpDir + separator + "cache_test.yaml");
+		File syntaxFile = new File(tmpDir + separator + "cache_test.syntax");
+		MOOSEFileHandler handler = new MOOSEFileHandler();
+		ArrayList<TreeComposite> first = null, second = null, third = null;
+		long firstTime = 0, secondTime = 0;
+
+		try {
+			// Write a specification with many blocks
+			writeYAMLSpec(yamlFile, syntaxFile, 400);
+			MOOSEFileHandler.clearYAMLCache();
+
+			// Load it twice. The second load should come from the cache.
+			long start = System.nanoTime();
+			first = handler.loadYAML(yamlFile.getAbsolutePath());
+			firstTime = System.nanoTime() - start;
+			start = System.nanoTime();
+			second = new MOOSEFileHandler().loadYAML(yamlFile
+					.getAbsolutePath());
+			secondTime = System.nanoTime() - start;
+			System.out.println("MOOSEFileHandlerTester Message: "
+					+ "Parsed YAML in " + firstTime / 1000000
+					+ " ms, copied cached YAML in " + secondTime / 1000000
+					+ " ms.");
+
+			// The copies should be equal, but not the same trees
+			assertEquals(400, first.size());
+			assertEquals(first.size(), second.size());
+			for (int i = 0; i < first.size(); i++) {
+				assertNotSame(first.get(i), second.get(i));
+				assertEquals(first.get(i), second.get(i));
+			}
+
+			// Changing one copy must not change the cached specification
+			first.get(0).setName("Changed");
+			third = handler.loadYAML(yamlFile.getAbsolutePath());
+			assertEquals("Block0", third.get(0).getName());
+			assertFalse(first.get(0).equals(third.get(0)));
+
+			// Changing the file should build the specification again
+			writeYAMLSpec(yamlFile, syntaxFile, 3);
+			yamlFile.setLastModified(yamlFile.lastModified() + 2000);
+			third = handler.loadYAML(yamlFile.getAbsolutePath());
+			assertEquals(3, third.size());
+		} catch (IOException e) {
+			e.printStackTrace();
+			fail();
+		} finally {
+			MOOSEFileHandler.clearYAMLCache();
+			yamlFile.delete();
+			syntaxFile.delete();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation writes a simple YAML specification and action syntax
+	 * file with the given number of blocks. Each block has a few parameters
+	 * and one sub-block.
+	 * 
+	 * @param yamlFile
+	 *            The YAML file
+	 * @param syntaxFile
+	 *            The action syntax file
+	 * @param numBlocks
+	 *            The number of top level blocks
+	 * @throws IOException
+	 */
+	private void writeYAMLSpec(File yamlFile, File syntaxFile, int numBlocks)
+			throws IOException {
+
+		StringBuilder yaml = new StringBuilder();
+		StringBuilder syntax = new StringBuilder();
+		for (int i = 0; i < numBlocks; i++) {
+			yaml.append("- name: /Block" + i + "\n");
+			yaml.append("  description: Block number " + i + "\n");
+			yaml.append("  parameters:\n");
+			for (int j = 0; j < 5; j++) {
+				yaml.append("  - name: param" + j + "\n");
+				yaml.append("    required: " + (j == 0) + "\n");
+				yaml.append("    default: '" + j + "'\n");
+				yaml.append("    cpp_type: double\n");
+				yaml.append("    description: Parameter " + j + "\n");
+			}
+			yaml.append("  subblocks:\n");
+			yaml.append("  - name: /Block" + i + "/Sub\n");
+			yaml.append("    description: A sub-block\n");
+			yaml.append("    parameters:\n");
+			yaml.append("    - name: value\n");
+			yaml.append("      required: false\n");
+			yaml.append("      default: '1.0'\n");
+			yaml.append("      cpp_type: double\n");
+			yaml.append("      description: A value\n");
+			yaml.append("    subblocks:\n");
+			syntax.append("Block" + i + "\n");
+		}
+
+		FileWriter writer = new FileWriter(yamlFile);
+		writer.write(yaml.toString());
+		writer.close();
+		writer = new FileWriter(syntaxFile);
+		writer.write(syntax.toString());
+		writer.close();
+
+		return;
+	}
 }
@@ -20,6 +20,7 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import org.eclipse.ice.analysistool.IData;
 import org.eclipse.ice.analysistool.IDataProvider;
@@ -246,6 +247,101 @@ public class KDDMatrixTester {
 			}
 		}
 
+		// Perform column normalization on a matrix with different columns
+		for (int i = 0; i < nRows; i++) {
+			for (int j = 0; j < nCols; j++) {
+				assertTrue(refMatrix.setElement(i, j, (double) (j + 1)));
+			}
+		}
+		refMatrix.columnNormalize();
+
+		// Each column is constant, so each element should be 1/nRows
+		for (int i = 0; i < nRows; i++) {
+			for (int j = 0; j < nCols; j++) {
+				assertEquals(1.0 / nRows, refMatrix.getElement(i, j), 1.0e-15);
+			}
+		}
+
+	}
+
+	/**
+	 * <p>
+	 * Check that the operations give the same results for matrices that are
+	 * large enough to be processed in parallel.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkLargeMatrix() {
+
+		// Create two rectangular matrices with more than enough elements to
+		// split them between threads
+		int rows = 700, cols = 300;
+		double[] values = new double[rows * cols];
+		double[] others = new double[rows * cols];
+		for (int k = 0; k < values.length; k++) {
+			values[k] = (k % 97) + 1.0;
+			others[k] = (k % 13) + 1.0;
+		}
+		KDDMatrix large = new KDDMatrix(values.clone(), rows, cols);
+		KDDMatrix other = new KDDMatrix(others.clone(), rows, cols);
+
+		// Check addition, subtraction and scaling
+		assertTrue(large.add(other));
+		assertTrue(large.subtract(other));
+		assertTrue(large.scaleByUncertainty(other));
+		for (int k = 0; k < values.length; k++) {
+			assertEquals(values[k] / others[k],
+					large.getElement(k / cols, k % cols), 1.0e-12);
+		}
+
+		// Mismatched sizes are rejected
+		assertFalse(large.add(new KDDMatrix(rows, cols + 1)));
+		assertFalse(large.subtract(new KDDMatrix(rows + 1, cols)));
+
+		// Check the transpose of a rectangular matrix
+		large = new KDDMatrix(values.clone(), rows, cols);
+		large.transpose();
+		assertEquals(cols, large.numberOfRows());
+		assertEquals(rows, large.numberOfColumns());
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < cols; j++) {
+				assertTrue(large.getElement(j, i).equals(values[i * cols + j]));
+			}
+		}
+		large.transpose();
+		assertTrue(large.equals(new KDDMatrix(values.clone(), rows, cols)));
+
+		// Check the transpose of a square matrix
+		KDDMatrix square = new KDDMatrix(Arrays.copyOf(values, 400 * 400),
+				400, 400);
+		square.transpose();
+		for (int i = 0; i < 400; i++) {
+			for (int j = 0; j < 400; j++) {
+				assertTrue(square.getElement(j, i).equals(values[i * 400 + j]));
+			}
+		}
+
+		// Check row and column normalization
+		large = new KDDMatrix(values.clone(), rows, cols);
+		large.rowNormalize();
+		for (int i = 0; i < rows; i += 37) {
+			double sum = 0.0;
+			for (int j = 0; j < cols; j++) {
+				sum += large.getElement(i, j);
+			}
+			assertEquals(1.0, sum, 1.0e-12);
+		}
+		large = new KDDMatrix(values.clone(), rows, cols);
+		large.columnNormalize();
+		for (int j = 0; j < cols; j += 29) {
+			double sum = 0.0;
+			for (int i = 0; i < rows; i++) {
+				sum += large.getElement(i, j);
+			}
+			assertEquals(1.0, sum, 1.0e-12);
+		}
+
 	}
 
 	/**
@@ -548,8 +644,30 @@ public class KDDMatrixTester {
 	 * </p>
 	 * 
 	 */
+	@Test
 	public void checkGetRowColumn() {
-		// TODO Auto-generated method stub
+
+		// Create a 2x3 matrix
+		KDDMatrix m = new KDDMatrix(new double[] { 1.0, 2.0, 3.0, 4.0, 5.0,
+				6.0 }, 2, 3);
+
+		// Check the second row
+		KDDMatrix row = m.getRow(1);
+		assertEquals(1, row.numberOfRows());
+		assertEquals(3, row.numberOfColumns());
+		assertTrue(row.getElement(0, 0).equals(4.0));
+		assertTrue(row.getElement(0, 2).equals(6.0));
+
+		// Check the last column
+		KDDMatrix column = m.getColumn(2);
+		assertEquals(2, column.numberOfRows());
+		assertEquals(1, column.numberOfColumns());
+		assertTrue(column.getElement(0, 0).equals(3.0));
+		assertTrue(column.getElement(1, 0).equals(6.0));
+
+		// Invalid indices return null
+		assertNull(m.getRow(2));
+		assertNull(m.getColumn(-1));
 
 	}
 }
\ No newline at end of file
@@ -0,0 +1,247 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.kdd.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.eclipse.ice.kdd.kddmath.KDDMatrix;
+import org.eclipse.ice.kdd.kddstrategy.kmeansclustering.Cluster;
+import org.eclipse.ice.kdd.kddstrategy.kmeansclustering.ClusterKDDMatrix;
+import org.eclipse.ice.kdd.kddstrategy.kmeansclustering.EuclideanDistanceMeasure;
+import org.eclipse.ice.kdd.kddstrategy.kmeansclustering.KMeansClusterer;
+import org.junit.Test;
+
+/**
+ * <p>
+ * This class tests the KMeansClusterer and its use by the ClusterKDDMatrix.
+ * </p>
+ *
+ * @author Alex McCaskey
+ */
+public class KMeansClustererTester {
+
+	/**
+	 * <p>
+	 * Checks that well separated groups of points are found and that the
+	 * clustering stops once they are.
+	 * </p>
+	 *
+	 */
+	@Test
+	public void checkSeparatedClusters() {
+
+		// Create 4 tight groups of 250 points that are far apart
+		int nGroups = 4, groupSize = 250, dimension = 2;
+		double[] data = createGroups(nGroups, groupSize, dimension, 0.1,
+				new Random(12));
+
+		// Cluster them
+		KMeansClusterer clusterer = new KMeansClusterer(data, nGroups
+				* groupSize, dimension);
+		clusterer.setRandom(new Random(3));
+		int iterations = clusterer.cluster(nGroups, 100);
+		assertTrue(iterations < 100);
+
+		// Each group should be one whole cluster
+		int[] assignments = clusterer.getAssignments();
+		boolean[] used = new boolean[nGroups];
+		for (int g = 0; g < nGroups; g++) {
+			int cluster = assignments[g * groupSize];
+			for (int i = 0; i < groupSize; i++) {
+				assertEquals(cluster, assignments[g * groupSize + i]);
+			}
+			used[cluster] = true;
+		}
+		for (int g = 0; g < nGroups; g++) {
+			assertTrue(used[g]);
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Checks that the clusters of a large data set, which are assigned in
+	 * parallel with pruning, are the same clusters that a full search of all
+	 * the centroids finds.
+	 * </p>
+	 *
+	 */
+	@Test
+	public void checkLargeDataSet() {
+
+		// Create overlapping groups so that many points change clusters
+		int nGroups = 12, groupSize = 2000, dimension = 5;
+		int nPoints = nGroups * groupSize;
+		double[] data = createGroups(nGroups, groupSize, dimension, 2.0,
+				new Random(7));
+
+		// Cluster them until they converge
+		KMeansClusterer clusterer = new KMeansClusterer(data, nPoints,
+				dimension);
+		clusterer.setRandom(new Random(5));
+		int iterations = clusterer.cluster(nGroups, 1000);
+		assertTrue(iterations > 1);
+		assertTrue(iterations < 1000);
+		int[] assignments = clusterer.getAssignments();
+
+		// Every point must be in the cluster of its closest centroid and
+		// every centroid must be the mean of its points
+		double[][] centroids = new double[nGroups][];
+		double[][] sums = new double[nGroups][dimension];
+		int[] counts = new int[nGroups];
+		for (int j = 0; j < nGroups; j++) {
+			KDDMatrix centroid = clusterer.getCentroid(j);
+			centroids[j] = new double[dimension];
+			for (int d = 0; d < dimension; d++) {
+				centroids[j][d] = centroid.getElement(d, 0);
+			}
+		}
+		for (int i = 0; i < nPoints; i++) {
+			int closest = 0;
+			double closestDistance = Double.POSITIVE_INFINITY;
+			for (int j = 0; j < nGroups; j++) {
+				double sum = 0.0;
+				for (int d = 0; d < dimension; d++) {
+					double diff = data[i * dimension + d] - centroids[j][d];
+					sum += diff * diff;
+				}
+				if (sum < closestDistance) {
+					closestDistance = sum;
+					closest = j;
+				}
+			}
+			assertEquals(closest, assignments[i]);
+			for (int d = 0; d < dimension; d++) {
+				sums[closest][d] += data[i * dimension + d];
+			}
+			counts[closest]++;
+		}
+		for (int j = 0; j < nGroups; j++) {
+			for (int d = 0; d < dimension; d++) {
+				assertEquals(sums[j][d] / counts[j], centroids[j][d], 1.0e-9);
+			}
+		}
+
+		// A distance measure that is not computed directly must give the
+		// same clusters
+		KMeansClusterer measured = new KMeansClusterer(data, nPoints,
+				dimension);
+		measured.setRandom(new Random(5));
+		measured.setDistanceMeasure(new EuclideanDistanceMeasure());
+		measured.cluster(nGroups, 1000);
+		for (int i = 0; i < nPoints; i++) {
+			assertEquals(assignments[i], measured.getAssignments()[i]);
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Checks that the ClusterKDDMatrix stores the rows of each cluster instead
+	 * of copies of them.
+	 * </p>
+	 *
+	 */
+	@Test
+	public void checkClusterKDDMatrix() {
+
+		// Create a matrix with two groups of rows
+		int groupSize = 50, dimension = 3;
+		double[] data = createGroups(2, groupSize, dimension, 0.1, new Random(
+				1));
+		ClusterKDDMatrix matrix = new ClusterKDDMatrix();
+		matrix.copy(new KDDMatrix(data, 2 * groupSize, dimension));
+		matrix.cluster(2, 10);
+		assertEquals(2, matrix.getNumberOfClusters());
+		assertEquals(groupSize, matrix.getNumberOfClusterElements(0));
+		assertEquals(groupSize, matrix.getNumberOfClusterElements(1));
+
+		// The means should be column vectors near the group centers
+		for (KDDMatrix mean : matrix.getClusterMeans()) {
+			assertEquals(dimension, mean.numberOfRows());
+			assertEquals(1, mean.numberOfColumns());
+			double center = Math.round(mean.getElement(0, 0));
+			for (int d = 0; d < dimension; d++) {
+				assertEquals(center, mean.getElement(d, 0), 0.2);
+			}
+		}
+
+		// A Cluster of rows returns the rows as column vectors
+		Cluster cluster = new Cluster(0, matrix);
+		cluster.addRow(4);
+		cluster.addRow(7);
+		assertEquals(2, cluster.numberOfElements());
+		assertEquals(4, cluster.getRows()[0]);
+		KDDMatrix vector = cluster.getVector(1);
+		assertEquals(dimension, vector.numberOfRows());
+		for (int d = 0; d < dimension; d++) {
+			assertEquals(matrix.getElement(7, d), vector.getElement(d, 0));
+		}
+
+		// Adding a vector copies the rows instead of changing the matrix
+		int nRows = matrix.numberOfRows();
+		double original = matrix.getElement(4, 0);
+		KDDMatrix newVector = new KDDMatrix(dimension, 1);
+		for (int d = 0; d < dimension; d++) {
+			newVector.setElement(d, 0, 100.0 + d);
+		}
+		cluster.addVector(newVector);
+		assertEquals(nRows, matrix.numberOfRows());
+		assertEquals(original, matrix.getElement(4, 0));
+		assertEquals(3, cluster.numberOfElements());
+		for (int d = 0; d < dimension; d++) {
+			assertEquals(matrix.getElement(4, d), cluster.getVector(0)
+					.getElement(d, 0));
+			assertEquals(matrix.getElement(7, d), cluster.getVector(1)
+					.getElement(d, 0));
+			assertEquals(100.0 + d, cluster.getVector(2).getElement(d, 0));
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Creates groups of random points. The center of group g has every
+	 * coordinate equal to 10*g.
+	 * </p>
+	 *
+	 * @param nGroups
+	 * @param groupSize
+	 * @param dimension
+	 * @param spread
+	 *            The standard deviation of the points around their center
+	 * @param random
+	 * @return The points in row major order, one group after another
+	 */
+	private double[] createGroups(int nGroups, int groupSize, int dimension,
+			double spread, Random random) {
+		double[] data = new double[nGroups * groupSize * dimension];
+		for (int g = 0; g < nGroups; g++) {
+			for (int i = 0; i < groupSize; i++) {
+				int offset = (g * groupSize + i) * dimension;
+				for (int d = 0; d < dimension; d++) {
+					data[offset + d] = 10.0 * g + spread
+							* random.nextGaussian();
+				}
+			}
+		}
+		return data;
+	}
+
+}
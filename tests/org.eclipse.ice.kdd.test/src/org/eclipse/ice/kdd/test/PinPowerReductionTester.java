@@ -0,0 +1,322 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.kdd.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import org.eclipse.ice.analysistool.IData;
+import org.eclipse.ice.kdd.kddmath.IDataMatrix;
+import org.eclipse.ice.kdd.kddmath.KDDMatrix;
+import org.eclipse.ice.kdd.kddstrategy.godfreystrategy.PinPowerReduction;
+import org.eclipse.ice.kdd.test.fakeobjects.SimpleData;
+import org.junit.Test;
+
+/**
+ * <p>
+ * This class tests the PinPowerReduction against a direct calculation of the
+ * differences and the axial and radial power.
+ * </p>
+ *
+ * @author Alex McCaskey
+ */
+public class PinPowerReductionTester {
+
+	/**
+	 * <p>
+	 * The dimensions of the test data. There are enough pin powers for the
+	 * assemblies to be reduced in parallel.
+	 * </p>
+	 *
+	 */
+	private static final int nAssemblies = 48, nAxial = 5, nRows = 17,
+			nCols = 17;
+
+	/**
+	 * <p>
+	 * The tolerance of the comparisons.
+	 * </p>
+	 *
+	 */
+	private static final double tolerance = 1.0e-9;
+
+	/**
+	 * <p>
+	 * Checks the basic differences and the weighted axial and radial power.
+	 * </p>
+	 *
+	 */
+	@Test
+	public void checkReduction() {
+
+		// Create the pin powers and weights
+		Random random = new Random(17);
+		HashMap<Integer, ArrayList<IDataMatrix>> loaded = createPinPowers(random);
+		HashMap<Integer, ArrayList<IDataMatrix>> ref = createPinPowers(random);
+		HashMap<Integer, ArrayList<KDDMatrix>> weights = createWeights(random);
+
+		// Reduce them
+		PinPowerReduction reduction = new PinPowerReduction(loaded, ref,
+				weights, false);
+		assertFalse(reduction.isComplete());
+		reduction.run();
+		assertTrue(reduction.isComplete());
+		assertTrue(reduction.hasDifferences());
+		assertEquals(nAssemblies, reduction.getNumberOfAssemblies());
+		assertEquals(nAxial, reduction.getNumberOfAxialLevels());
+		checkResults(reduction, loaded, ref, weights, false);
+
+		// Running it again must give the same results
+		reduction.run();
+		checkResults(reduction, loaded, ref, weights, false);
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Checks the relative differences and the results without weights or
+	 * reference pin powers.
+	 * </p>
+	 *
+	 */
+	@Test
+	public void checkRelativeAndUnweighted() {
+
+		// Create the pin powers
+		Random random = new Random(5);
+		HashMap<Integer, ArrayList<IDataMatrix>> loaded = createPinPowers(random);
+		HashMap<Integer, ArrayList<IDataMatrix>> ref = createPinPowers(random);
+
+		// Relative differences with weights of 1
+		PinPowerReduction reduction = new PinPowerReduction(loaded, ref, null,
+				true);
+		reduction.run();
+		checkResults(reduction, loaded, ref, null, true);
+
+		// No differences at all
+		reduction = new PinPowerReduction(loaded, null, null, false);
+		reduction.run();
+		assertFalse(reduction.hasDifferences());
+		assertEquals(0, reduction.getDifference().length);
+		checkResults(reduction, loaded, null, null, false);
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Compares the results of a reduction with a direct calculation.
+	 * </p>
+	 *
+	 * @param reduction
+	 * @param loaded
+	 * @param ref
+	 *            The reference pin powers or null
+	 * @param weights
+	 *            The weights or null
+	 * @param relative
+	 */
+	private void checkResults(PinPowerReduction reduction,
+			HashMap<Integer, ArrayList<IDataMatrix>> loaded,
+			HashMap<Integer, ArrayList<IDataMatrix>> ref,
+			HashMap<Integer, ArrayList<KDDMatrix>> weights, boolean relative) {
+
+		// Local Declarations
+		int nPins = nRows * nCols;
+		double[][][][] diff = new double[nAssemblies][nAxial][nRows][nCols];
+		double sum, diffSum, weightSum;
+
+		// Check the differences
+		for (int l = 0; l < nAssemblies; l++) {
+			for (int k = 0; k < nAxial; k++) {
+				KDDMatrix diffMatrix = null, uncertaintyMatrix = null;
+				if (ref != null) {
+					diffMatrix = reduction.getMatrix(
+							reduction.getDifference(), k * nAssemblies + l);
+					uncertaintyMatrix = reduction.getMatrix(
+							reduction.getUncertaintyDifference(), k
+									* nAssemblies + l);
+				}
+				for (int i = 0; i < nRows; i++) {
+					for (int j = 0; j < nCols; j++) {
+						if (ref == null) {
+							continue;
+						}
+						IData data = loaded.get(l).get(k).getElement(i, j);
+						IData refData = ref.get(l).get(k).getElement(i, j);
+						double expected = data.getValue() - refData.getValue();
+						double uncertainty = data.getUncertainty()
+								- refData.getUncertainty();
+						if (relative) {
+							expected /= refData.getValue();
+							uncertainty /= refData.getUncertainty();
+						}
+						diff[l][k][i][j] = expected;
+						assertEquals(expected, diffMatrix.getElement(i, j),
+								tolerance);
+						assertEquals(uncertainty,
+								uncertaintyMatrix.getElement(i, j), tolerance);
+					}
+				}
+			}
+		}
+
+		// Check the axial power
+		for (int k = 0; k < nAxial; k++) {
+			sum = 0.0;
+			diffSum = 0.0;
+			weightSum = 0.0;
+			for (int l = 0; l < nAssemblies; l++) {
+				for (int i = 0; i < nRows; i++) {
+					for (int j = 0; j < nCols; j++) {
+						double w = getWeight(weights, l, k, i, j);
+						sum += loaded.get(l).get(k).getElementValue(i, j) * w;
+						diffSum += diff[l][k][i][j] * w;
+						weightSum += w;
+					}
+				}
+			}
+			assertEquals(Math.sqrt(Math.abs(sum / weightSum)),
+					reduction.getAxialPower()[k], tolerance);
+			if (ref != null) {
+				assertEquals(Math.sqrt(Math.abs(diffSum / weightSum)),
+						reduction.getAxialPowerDifference()[k], tolerance);
+			}
+		}
+
+		// Check the radial power and its averages
+		double powerSum = 0.0, rmsSum = 0.0, averageDiffSum = 0.0;
+		double diffRMSSum = 0.0, drSum = 0.0;
+		for (int l = 0; l < nAssemblies; l++) {
+			KDDMatrix radial = reduction.getMatrix(reduction.getRadialPower(),
+					l);
+			for (int i = 0; i < nRows; i++) {
+				for (int j = 0; j < nCols; j++) {
+					sum = 0.0;
+					diffSum = 0.0;
+					weightSum = 0.0;
+					for (int k = 0; k < nAxial; k++) {
+						double w = getWeight(weights, l, k, i, j);
+						sum += loaded.get(l).get(k).getElementValue(i, j) * w;
+						diffSum += diff[l][k][i][j] * w;
+						weightSum += w;
+					}
+					assertEquals(Math.sqrt(Math.abs(sum / weightSum)),
+							radial.getElement(i, j), tolerance);
+					if (ref != null) {
+						assertEquals(Math.sqrt(Math.abs(diffSum / weightSum)),
+								reduction.getRadialPowerDifference()[l * nPins
+										+ i * nCols + j], tolerance);
+					}
+					for (int k = 0; k < nAxial; k++) {
+						double value = loaded.get(l).get(k)
+								.getElementValue(i, j);
+						powerSum += value * weightSum;
+						rmsSum += value * value * weightSum;
+						averageDiffSum += diff[l][k][i][j] * weightSum;
+						diffRMSSum += diff[l][k][i][j] * diff[l][k][i][j]
+								* weightSum;
+						drSum += weightSum;
+					}
+				}
+			}
+		}
+		assertEquals(Math.abs(powerSum / drSum),
+				reduction.getRadialPowerAverage(), tolerance);
+		assertEquals(Math.sqrt(Math.abs(rmsSum / drSum)),
+				reduction.getRadialPowerRMS(), tolerance);
+		if (ref != null) {
+			assertEquals(Math.abs(averageDiffSum / drSum),
+					reduction.getRadialPowerDifferenceAverage(), tolerance);
+			assertEquals(Math.sqrt(Math.abs(diffRMSSum / drSum)),
+					reduction.getRadialPowerDifferenceRMS(), tolerance);
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Returns the weight of a pin, which is 1 if there are no weights.
+	 * </p>
+	 *
+	 * @return
+	 */
+	private double getWeight(HashMap<Integer, ArrayList<KDDMatrix>> weights,
+			int l, int k, int i, int j) {
+		return (weights != null) ? weights.get(l).get(k).getElement(i, j)
+				: 1.0;
+	}
+
+	/**
+	 * <p>
+	 * Creates random pin powers with uncertainties, keyed by assembly.
+	 * </p>
+	 *
+	 * @param random
+	 * @return
+	 */
+	private HashMap<Integer, ArrayList<IDataMatrix>> createPinPowers(
+			Random random) {
+		HashMap<Integer, ArrayList<IDataMatrix>> pinPowers = new HashMap<Integer, ArrayList<IDataMatrix>>();
+		for (int l = 0; l < nAssemblies; l++) {
+			ArrayList<IDataMatrix> levels = new ArrayList<IDataMatrix>();
+			for (int k = 0; k < nAxial; k++) {
+				ArrayList<IData> elements = new ArrayList<IData>();
+				for (int p = 0; p < nRows * nCols; p++) {
+					SimpleData data = new SimpleData("Pin Power",
+							0.5 + random.nextDouble());
+					data.setUncertainty(0.01 + 0.1 * random.nextDouble());
+					elements.add(data);
+				}
+				levels.add(new IDataMatrix(nRows, nCols, elements));
+			}
+			pinPowers.put(l, levels);
+		}
+		return pinPowers;
+	}
+
+	/**
+	 * <p>
+	 * Creates random weights. Every assembly shares the weights of each axial
+	 * level, as they do for symmetric cores.
+	 * </p>
+	 *
+	 * @param random
+	 * @return
+	 */
+	private HashMap<Integer, ArrayList<KDDMatrix>> createWeights(Random random) {
+		HashMap<Integer, ArrayList<KDDMatrix>> weights = new HashMap<Integer, ArrayList<KDDMatrix>>();
+		ArrayList<KDDMatrix> levels = new ArrayList<KDDMatrix>();
+		for (int k = 0; k < nAxial; k++) {
+			KDDMatrix matrix = new KDDMatrix(nRows, nCols);
+			for (int i = 0; i < nRows; i++) {
+				for (int j = 0; j < nCols; j++) {
+					matrix.setElement(i, j, 0.25 * (1 + random.nextInt(4)));
+				}
+			}
+			levels.add(matrix);
+		}
+		for (int l = 0; l < nAssemblies; l++) {
+			weights.put(l, levels);
+		}
+		return weights;
+	}
+
+}
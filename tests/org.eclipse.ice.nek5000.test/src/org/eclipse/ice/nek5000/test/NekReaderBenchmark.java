@@ -0,0 +1,287 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.nek5000.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import org.eclipse.ice.datastructures.ICEObject.Component;
+import org.eclipse.ice.datastructures.form.DataComponent;
+import org.eclipse.ice.datastructures.form.mesh.BoundaryCondition;
+import org.eclipse.ice.datastructures.form.mesh.BoundaryConditionType;
+import org.eclipse.ice.datastructures.form.mesh.MeshComponent;
+import org.eclipse.ice.datastructures.form.mesh.Quad;
+import org.eclipse.ice.nek5000.NekReader;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Times the NekReader on a large generated reafile that has the same sections
+ * as the conj_ht example.
+ * 
+ * @author Anna Wojtowicz
+ *
+ */
+@Ignore("Manual benchmark")
+public class NekReaderBenchmark {
+
+	/**
+	 * The number of rows and columns of elements in the grid.
+	 */
+	private static final int gridSize = 200;
+
+	/**
+	 * The number of times that the file is read. The best time is reported.
+	 */
+	private static final int numReads = 3;
+
+	/**
+	 * This operation runs the benchmark.
+	 */
+	@Test
+	public void benchmark() {
+
+		// Local Declarations
+		int numElements = gridSize * gridSize;
+		NekReader reader = new NekReader();
+		ArrayList<Component> components = null;
+		File reaFile = null;
+
+		try {
+			// Write the file
+			reaFile = File.createTempFile("nekBenchmark", ".rea");
+			reaFile.deleteOnExit();
+			writeREAFile(reaFile);
+
+			// Read it a few times and keep the best time
+			long readTime = Long.MAX_VALUE;
+			for (int i = 0; i < numReads; i++) {
+				components = null;
+				long start = System.nanoTime();
+				components = reader.loadREAFile(reaFile);
+				readTime = Math.min(readTime, System.nanoTime() - start);
+			}
+
+			// Report the results
+			System.out.println("NekReaderBenchmark Message: " + numElements
+					+ " elements, " + reaFile.length() / 1024 + " KB, read = "
+					+ readTime / 1000000 + " ms");
+		} catch (IOException e) {
+			e.printStackTrace();
+			fail();
+		} finally {
+			if (reaFile != null) {
+				reaFile.delete();
+			}
+		}
+
+		// Check the sections
+		assertNotNull(components);
+		assertEquals(13, components.size());
+		assertEquals(103, ((DataComponent) components.get(0))
+				.retrieveAllEntries().size());
+		assertEquals(0, ((DataComponent) components.get(1))
+				.retrieveAllEntries().size());
+		assertEquals(5, ((DataComponent) components.get(2))
+				.retrieveAllEntries().size());
+		assertEquals(1, ((DataComponent) components.get(3))
+				.retrieveAllEntries().size());
+		assertEquals(7, ((DataComponent) components.get(7))
+				.retrieveAllEntries().size());
+		assertEquals(4, ((DataComponent) components.get(8))
+				.retrieveAllEntries().size());
+		assertEquals(1, ((DataComponent) components.get(9))
+				.retrieveAllEntries().size());
+		assertEquals(6, ((DataComponent) components.get(11))
+				.retrieveAllEntries().size());
+		assertEquals(4, ((DataComponent) components.get(12))
+				.retrieveAllEntries().size());
+
+		// Check the mesh
+		MeshComponent mesh = (MeshComponent) components.get(4);
+		assertEquals(numElements, mesh.getPolygons().size());
+		assertEquals(4 * numElements, mesh.getEdges().size());
+		assertEquals(4 * numElements, mesh.getVertices().size());
+		assertEquals(2, reader.getLastProperties().getNumDimensions());
+		assertEquals(numElements, reader.getLastProperties()
+				.getNumThermalElements());
+		assertEquals(numElements / 2, reader.getLastProperties()
+				.getNumFluidElements());
+
+		// Check the boundary conditions of a few quads
+		int[] quadIds = { 1, numElements / 2, numElements / 2 + 1, numElements };
+		for (int quadId : quadIds) {
+			Quad quad = (Quad) mesh.getPolygon(quadId);
+			assertEquals(4, quad.getEdges().size());
+			for (int side = 1; side <= 4; side++) {
+				int edgeId = 4 * (quadId - 1) + side;
+				assertEquals(edgeId, quad.getEdges().get(side - 1).getId());
+				BoundaryCondition thermal = quad
+						.getThermalBoundaryCondition(edgeId);
+				assertEquals(BoundaryConditionType.UserFlux,
+						thermal.getType());
+				assertEquals(5, thermal.getValues().size());
+				BoundaryCondition fluid = quad
+						.getFluidBoundaryCondition(edgeId);
+				if (quadId <= numElements / 2) {
+					assertEquals(BoundaryConditionType.Wall, fluid.getType());
+				} else {
+					assertEquals(BoundaryConditionType.None, fluid.getType());
+				}
+				assertNull(quad.getOtherBoundaryCondition(1, edgeId));
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation writes the synthetic reafile.
+	 *
+	 * @param file
+	 *            The file
+	 * @throws IOException
+	 */
+	private void writeREAFile(File file) throws IOException {
+
+		// Local Declarations
+		BufferedWriter writer = new BufferedWriter(new FileWriter(file));
+		int numElements = gridSize * gridSize;
+
+		try {
+			// Parameters
+			writer.write(" ****** PARAMETERS *****\n"
+					+ "    2.6100000     NEKTON VERSION\n"
+					+ "            2 DIMENSIONAL RUN\n"
+					+ "          103 PARAMETERS FOLLOW\n");
+			for (int i = 1; i <= 103; i++) {
+				if (i == 23) {
+					writer.write("      0.00000            p23 NPSCAL\n");
+				} else {
+					writer.write("      1.00000            p" + i
+							+ " PARAMETER\n");
+				}
+			}
+			writer.write("      4  Lines of passive scalar data follows"
+					+ "2 CONDUCT; 2RHOCP\n");
+			for (int i = 0; i < 4; i++) {
+				writer.write("   1.00000       1.00000       1.00000\n");
+			}
+
+			// Logical switches
+			writer.write("            5  LOGICAL SWITCHES FOLLOW\n"
+					+ "  T     IFFLOW\n" + "  T     IFHEAT\n"
+					+ "  T     IFTRAN\n"
+					+ "  T F F F F F F F F F F  IFNAV & IFADVC "
+					+ "(convection in P.S. fields)\n"
+					+ "  F F T T T T T T T T T T  IFTMSH "
+					+ "(IF mesh for this field is T mesh)\n");
+			writer.write("   10.00000      10.00000     -1.000000     "
+					+ "-1.000000     XFAC,YFAC,XZERO,YZERO\n");
+
+			// Mesh
+			writer.write("  *** MESH DATA ***\n      " + numElements
+					+ "      2      " + numElements / 2
+					+ "           NEL,NDIM,NELV\n");
+			int id = 1;
+			for (int row = 0; row < gridSize; row++) {
+				for (int column = 0; column < gridSize; column++) {
+					writer.write("           ELEMENT " + id + " [    1]"
+							+ "  GROUP     0\n");
+					writer.write(" " + column + " " + (column + 1) + " "
+							+ (column + 1) + " " + column + "\n");
+					writer.write(" " + row + " " + row + " " + (row + 1)
+							+ " " + (row + 1) + "\n");
+					id++;
+				}
+			}
+
+			// Boundary conditions
+			writer.write("  ***** CURVED SIDE DATA *****\n"
+					+ "     0 Curved sides follow "
+					+ "IEDGE,IEL,CURVE(I),I=1,5, CCURVE\n"
+					+ "  ***** BOUNDARY CONDITIONS *****\n"
+					+ "  ***** FLUID   BOUNDARY CONDITIONS *****\n");
+			for (int element = 1; element <= numElements / 2; element++) {
+				writeBoundaryConditions(writer, element, "W");
+			}
+			writer.write("  ***** THERMAL BOUNDARY CONDITIONS *****\n");
+			for (int element = 1; element <= numElements; element++) {
+				writeBoundaryConditions(writer, element, "f");
+			}
+
+			// The rest
+			writer.write("  0 PRESOLVE/RESTART OPTIONS  *****\n"
+					+ "  7         INITIAL CONDITIONS *****\n");
+			for (int i = 0; i < 7; i++) {
+				writer.write("C Default\n");
+			}
+			writer.write("  ***** DRIVE FORCE DATA ***** BODY FORCE, FLOW, Q\n"
+					+ "            4                 "
+					+ "Lines of Drive force data follow\n");
+			for (int i = 0; i < 4; i++) {
+				writer.write("C\n");
+			}
+			writer.write("  ***** Variable Property Data ***** "
+					+ "Overrrides Parameter data.\n" + "  1 Lines follow.\n"
+					+ "  0 PACKETS OF DATA FOLLOW\n"
+					+ "  ***** HISTORY AND INTEGRAL DATA *****\n"
+					+ "    0   POINTS.  Hcode, I,J,H,IEL\n"
+					+ "  ***** OUTPUT FIELD SPECIFICATION *****\n"
+					+ "  6 SPECIFICATIONS FOLLOW\n"
+					+ "  T      COORDINATES\n" + "  T      VELOCITY\n"
+					+ "  T      PRESSURE\n" + "  T      TEMPERATURE\n"
+					+ "  F      TEMPERATURE GRADIENT\n"
+					+ "  0      PASSIVE SCALARS\n"
+					+ "  ***** OBJECT SPECIFICATION *****\n"
+					+ "       0 Surface Objects\n"
+					+ "       0 Volume  Objects\n"
+					+ "       0 Edge    Objects\n"
+					+ "       0 Point   Objects\n");
+		} finally {
+			writer.close();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation writes the boundary conditions of the four sides of an
+	 * element.
+	 *
+	 * @param writer
+	 *            The writer
+	 * @param element
+	 *            The element
+	 * @param type
+	 *            The type of the boundary conditions
+	 * @throws IOException
+	 */
+	private void writeBoundaryConditions(BufferedWriter writer, int element,
+			String type) throws IOException {
+		for (int side = 1; side <= 4; side++) {
+			writer.write(" " + type + "  " + element + "  " + side
+					+ "   0.00000       0.00000       0.00000       "
+					+ "0.00000       0.00000\n");
+		}
+	}
+
+}
@@ -0,0 +1,496 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package binarypp.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.bind.JAXBException;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.ice.core.iCore.ItemHeader;
+import org.eclipse.ice.datastructures.form.BinaryFormHandler;
+import org.eclipse.ice.datastructures.jaxbclassprovider.ICEJAXBClassProvider;
+import org.eclipse.ice.datastructures.jaxbclassprovider.IJAXBClassProvider;
+import org.eclipse.ice.item.Item;
+import org.eclipse.ice.persistence.binary.BinaryPersistenceProvider;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * This class tests the BinaryPersistenceProvider.
+ *
+ * @author Jay Jay Billings
+ *
+ */
+public class BinaryPersistenceProviderTester {
+
+	/**
+	 * The Eclipse project used in the test.
+	 */
+	private static IProject project;
+
+	/**
+	 * The BinaryPersistenceProvider that will be tested.
+	 */
+	private static BinaryPersistenceProvider provider;
+
+	/**
+	 * This operation sets up the tester and creates the project space.
+	 */
+	@BeforeClass
+	static public void setup() {
+
+		// Create the project
+		project = createProject("binaryItemDB");
+
+		// Setup and start the provider
+		provider = createProvider(project);
+
+		return;
+	}
+
+	/**
+	 * This operation cleans up after the test and removes the project space.
+	 */
+	@AfterClass
+	static public void teardown() {
+
+		// Stop the provider
+		provider.stop();
+
+		// Delete the project.
+		try {
+			project.delete(true, null);
+		} catch (CoreException e) {
+			// Complain
+			e.printStackTrace();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation creates and opens a project in the workspace for the
+	 * tests.
+	 *
+	 * @param projectName
+	 *            The name of the project
+	 * @return The project
+	 */
+	static IProject createProject(String projectName) {
+
+		// Local Declarations
+		IWorkspaceRoot workspaceRoot = ResourcesPlugin.getWorkspace().getRoot();
+		IProject newProject = workspaceRoot.getProject(projectName);
+
+		try {
+			if (!newProject.exists()) {
+				newProject.create(null);
+			}
+			if (!newProject.isOpen()) {
+				newProject.open(null);
+			}
+		} catch (CoreException e) {
+			// Complain
+			e.printStackTrace();
+			fail();
+		}
+
+		return newProject;
+	}
+
+	/**
+	 * This operation returns a class provider for the test Item.
+	 *
+	 * @return The class provider
+	 */
+	static IJAXBClassProvider createClassProvider() {
+		return new IJAXBClassProvider() {
+			@Override
+			public List<Class> getClasses() {
+				ArrayList<Class> classes = new ArrayList<Class>();
+				classes.add(LargeItem.class);
+				return classes;
+			}
+
+			@Override
+			public String getProviderName() {
+				return "Large Item Class Provider";
+			}
+		};
+	}
+
+	/**
+	 * This operation creates and starts a BinaryPersistenceProvider.
+	 *
+	 * @param projectSpace
+	 *            The project where the provider should store Items
+	 * @return The provider
+	 */
+	static BinaryPersistenceProvider createProvider(IProject projectSpace) {
+
+		BinaryPersistenceProvider newProvider = new BinaryPersistenceProvider(
+				projectSpace);
+		newProvider.registerClassProvider(new ICEJAXBClassProvider());
+		newProvider.registerClassProvider(createClassProvider());
+		try {
+			newProvider.start();
+		} catch (JAXBException e) {
+			e.printStackTrace();
+			fail();
+		}
+
+		return newProvider;
+	}
+
+	/**
+	 * This is a utility operation that just delays the execution of the program
+	 * for the specified number of seconds.
+	 *
+	 * @param seconds
+	 *            The time to delay.
+	 */
+	private void pause(int seconds) {
+		try {
+			Thread.sleep(seconds * 1000);
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+		}
+		return;
+	}
+
+	/**
+	 * This operation checks that Items are persisted, loaded and deleted and
+	 * that the loaded Form matches the one that was persisted.
+	 */
+	@Test
+	public void checkPersistAndLoad() {
+
+		// Local Declarations
+		LargeItem item = new LargeItem(100, 20, 10);
+		item.setId(1);
+		String name = "Large_Item_1."
+				+ BinaryPersistenceProvider.FILE_EXTENSION;
+
+		// Persist it and wait for it to be written
+		assertTrue(provider.persistItem(item));
+		pause(2);
+		assertTrue(project.getFile(name).exists());
+
+		// Load it and check the data that is stored
+		Item loadedItem = provider.loadItem(1);
+		assertNotNull(loadedItem);
+		assertEquals(item.getId(), loadedItem.getId());
+		assertEquals(item.getName(), loadedItem.getName());
+		assertEquals(item.getDescription(), loadedItem.getDescription());
+		assertEquals(item.getItemBuilderName(),
+				loadedItem.getItemBuilderName());
+		assertEquals(item.getStatus(), loadedItem.getStatus());
+		assertEquals(item.getAvailableActions(),
+				loadedItem.getAvailableActions());
+		assertEquals(item.getForm(), loadedItem.getForm());
+
+		// Load all of the Items
+		boolean found = false;
+		for (Item listItem : provider.loadItems()) {
+			found |= (listItem.getId() == 1);
+		}
+		assertTrue(found);
+
+		// Delete it
+		assertTrue(provider.deleteItem(item));
+		pause(2);
+		assertFalse(project.getFile(name).exists());
+
+		return;
+	}
+
+	/**
+	 * This operation checks that the headers of the persisted Items can be
+	 * read without loading the Items.
+	 */
+	@Test
+	public void checkLoadItemHeaders() {
+
+		// Local Declarations
+		LargeItem item = new LargeItem(10, 5, 3);
+		int passedCount = 0;
+
+		// Persist it
+		item.setId(2);
+		assertTrue(provider.persistItem(item));
+		pause(2);
+
+		// Load the headers and look for the Item
+		ArrayList<ItemHeader> headers = provider.loadItemHeaders();
+		assertNotNull(headers);
+		for (ItemHeader header : headers) {
+			if (header.getId() == 2) {
+				assertEquals(item.getName(), header.getName());
+				assertEquals(item.getDescription(), header.getDescription());
+				assertEquals(item.getItemBuilderName(),
+						header.getItemBuilderName());
+				assertEquals(item.getStatus(), header.getStatus());
+				passedCount++;
+			}
+		}
+		assertEquals(1, passedCount);
+
+		return;
+	}
+
+	/**
+	 * This operation checks that Items can be exported to XML and imported
+	 * from it without losing anything.
+	 */
+	@Test
+	public void checkXMLConversion() {
+
+		// Local Declarations
+		LargeItem item = new LargeItem(20, 5, 4);
+		IFile xmlFile = project.getFile("exported.xml");
+
+		// Persist the Item
+		item.setId(3);
+		assertTrue(provider.persistItem(item));
+		pause(2);
+
+		// Export it
+		assertTrue(provider.exportXML(3, xmlFile));
+		assertTrue(xmlFile.exists());
+
+		// Delete the binary file and import the Item again
+		assertTrue(provider.deleteItem(item));
+		pause(2);
+		Item importedItem = provider.importXML(xmlFile);
+		assertNotNull(importedItem);
+		assertEquals(item.getForm(), importedItem.getForm());
+
+		// The imported Item should now be available in the binary format
+		Item loadedItem = provider.loadItem(3);
+		assertNotNull(loadedItem);
+		assertEquals(item.getForm(), loadedItem.getForm());
+
+		return;
+	}
+
+	/**
+	 * This operation checks that the Items that were persisted as XML are
+	 * migrated when the provider starts and can be loaded right away.
+	 */
+	@Test
+	public void checkXMLMigration() {
+
+		// Local Declarations
+		LargeItem item = new LargeItem(20, 5, 4);
+		IProject migrationProject = createProject("binaryMigrationDB");
+		BinaryPersistenceProvider migrationProvider = null;
+
+		try {
+			// Persist the Item and export it to the new project
+			item.setId(7);
+			assertTrue(provider.persistItem(item));
+			pause(2);
+			assertTrue(provider.exportXML(7,
+					migrationProject.getFile("Large_Item_7.xml")));
+
+			// Start a provider on the new project. Loading the Item must wait
+			// for the migration instead of missing the Item.
+			migrationProvider = createProvider(migrationProject);
+			Item loadedItem = migrationProvider.loadItem(7);
+			assertNotNull(loadedItem);
+			assertEquals(item.getForm(), loadedItem.getForm());
+			assertTrue(migrationProject.getFile(
+					"Large_Item_7." + BinaryPersistenceProvider.FILE_EXTENSION)
+					.exists());
+		} finally {
+			// Clean up
+			if (migrationProvider != null) {
+				migrationProvider.stop();
+			}
+			try {
+				migrationProject.delete(true, null);
+			} catch (CoreException e) {
+				// Complain
+				e.printStackTrace();
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation checks that the migration of the XML Items does not
+	 * overwrite an Item that was persisted after the provider started and
+	 * does not bring back an Item that was deleted.
+	 */
+	@Test
+	public void checkMigrationOrder() {
+
+		// Local Declarations
+		LargeItem item = new LargeItem(20, 5, 4);
+		LargeItem deletedItem = new LargeItem(20, 5, 4);
+		IProject migrationProject = createProject("binaryMigrationOrderDB");
+		BinaryPersistenceProvider migrationProvider = null;
+
+		try {
+			// Persist the Items and export them to the new project
+			item.setId(8);
+			item.setDescription("From XML");
+			deletedItem.setId(9);
+			assertTrue(provider.persistItem(item));
+			assertTrue(provider.persistItem(deletedItem));
+			pause(2);
+			assertTrue(provider.exportXML(8,
+					migrationProject.getFile("Large_Item_8.xml")));
+			assertTrue(provider.exportXML(9,
+					migrationProject.getFile("Large_Item_9.xml")));
+
+			// Start a provider on the new project and change both Items while
+			// it migrates them
+			migrationProvider = createProvider(migrationProject);
+			item.setDescription("Newer");
+			assertTrue(migrationProvider.persistItem(item));
+			assertTrue(migrationProvider.deleteItem(deletedItem));
+			pause(2);
+
+			// The newer Item should win and the deleted one should stay gone
+			Item loadedItem = migrationProvider.loadItem(8);
+			assertNotNull(loadedItem);
+			assertEquals("Newer", loadedItem.getDescription());
+			assertNull(migrationProvider.loadItem(9));
+		} finally {
+			// Clean up
+			if (migrationProvider != null) {
+				migrationProvider.stop();
+			}
+			try {
+				migrationProject.delete(true, null);
+			} catch (CoreException e) {
+				// Complain
+				e.printStackTrace();
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation checks that files in version 1 of the format, which
+	 * stored the status and type of the Item as ordinals, can still be read.
+	 */
+	@Test
+	public void checkVersion1Files() {
+
+		// Local Declarations
+		LargeItem item = new LargeItem(20, 5, 4);
+		IProject oldProject = createProject("binaryVersion1DB");
+		IFile xmlFile = project.getFile("version1.xml");
+		BinaryPersistenceProvider oldProvider = null;
+		ByteArrayOutputStream xml = new ByteArrayOutputStream();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		BinaryFormHandler handler = new BinaryFormHandler(null);
+		InputStream stream = null;
+
+		try {
+			// Get the XML of the Item
+			item.setId(8);
+			assertTrue(provider.persistItem(item));
+			pause(2);
+			assertTrue(provider.exportXML(8, xmlFile));
+			stream = xmlFile.getContents();
+			byte[] buffer = new byte[8192];
+			for (int n = stream.read(buffer); n > 0; n = stream.read(buffer)) {
+				xml.write(buffer, 0, n);
+			}
+
+			// Write a version 1 file with the Item embedded as XML
+			out.writeInt(0x49434542);
+			out.writeByte(1);
+			BinaryFormHandler.writeVarInt(item.getId(), out);
+			handler.writeString(item.getName(), out);
+			handler.writeString(item.getDescription(), out);
+			handler.writeString(item.getItemBuilderName(), out);
+			out.writeByte(item.getStatus().ordinal() + 1);
+			out.writeByte((item.getItemType() != null) ? item.getItemType()
+					.ordinal() + 1 : 0);
+			out.writeByte(0);
+			BinaryFormHandler.writeVarInt(xml.size(), out);
+			xml.writeTo(out);
+			out.flush();
+			oldProject.getFile(
+					"Large_Item_8." + BinaryPersistenceProvider.FILE_EXTENSION)
+					.create(new ByteArrayInputStream(bytes.toByteArray()),
+							true, null);
+
+			// Read the header and the Item
+			oldProvider = createProvider(oldProject);
+			ArrayList<ItemHeader> headers = oldProvider.loadItemHeaders();
+			assertEquals(1, headers.size());
+			assertEquals(8, headers.get(0).getId());
+			assertEquals(item.getName(), headers.get(0).getName());
+			assertEquals(item.getStatus(), headers.get(0).getStatus());
+			Item loadedItem = oldProvider.loadItem(8);
+			assertNotNull(loadedItem);
+			assertEquals(item.getForm(), loadedItem.getForm());
+		} catch (CoreException e) {
+			// Complain
+			e.printStackTrace();
+			fail();
+		} catch (IOException e) {
+			// Complain
+			e.printStackTrace();
+			fail();
+		} finally {
+			// Clean up
+			if (stream != null) {
+				try {
+					stream.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+			if (oldProvider != null) {
+				oldProvider.stop();
+			}
+			try {
+				oldProject.delete(true, null);
+			} catch (CoreException e) {
+				// Complain
+				e.printStackTrace();
+			}
+		}
+
+		return;
+	}
+
+}
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package binarypp.test;
+
+import java.util.ArrayList;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+import org.eclipse.ice.datastructures.form.AllowedValueType;
+import org.eclipse.ice.datastructures.form.DataComponent;
+import org.eclipse.ice.datastructures.form.Entry;
+import org.eclipse.ice.datastructures.form.MatrixComponent;
+import org.eclipse.ice.datastructures.form.TableComponent;
+import org.eclipse.ice.item.Item;
+
+/**
+ * This class is an Item with a Form full of Entries, a TableComponent and a
+ * MatrixComponent that is used to test and benchmark the persistence
+ * providers.
+ * 
+ * @author Jay Jay Billings
+ */
+@XmlRootElement(name = "LargeItem")
+public class LargeItem extends Item {
+
+	/**
+	 * The nullary constructor used by JAXB. It creates a small Item.
+	 */
+	public LargeItem() {
+		this(10, 10, 3);
+	}
+
+	/**
+	 * The constructor.
+	 * 
+	 * @param numEntries
+	 *            The number of Entries in the DataComponent
+	 * @param numRows
+	 *            The number of rows in the TableComponent
+	 * @param matrixSize
+	 *            The number of rows and columns in the MatrixComponent
+	 */
+	public LargeItem(int numEntries, int numRows, int matrixSize) {
+
+		// Call the super constructor
+		super(null);
+
+		// Local Declarations
+		DataComponent dataComp = new DataComponent();
+		TableComponent table = new TableComponent();
+		ArrayList<Entry> template = new ArrayList<Entry>();
+		MatrixComponent matrix = new MatrixComponent(true,
+				AllowedValueType.Continuous);
+		ArrayList<Double> range = new ArrayList<Double>();
+
+		setName("Large Item");
+		setDescription("An Item with a large Form");
+
+		// Create the Entries
+		dataComp.setId(1);
+		dataComp.setName("Parameters");
+		for (int i = 0; i < numEntries; i++) {
+			Entry entry = new Entry() {
+				@Override
+				protected void setup() {
+					allowedValueType = AllowedValueType.Discrete;
+					allowedValues.add("true");
+					allowedValues.add("false");
+					defaultValue = "false";
+				}
+			};
+			entry.setId(i);
+			entry.setName("Parameter " + i);
+			entry.setDescription("The parameter with index " + i);
+			entry.setTag("parameter");
+			entry.setValue((i % 3 == 0) ? "true" : "false");
+			dataComp.addEntry(entry);
+		}
+		form.addComponent(dataComp);
+
+		// Create the table
+		table.setId(2);
+		table.setName("Table");
+		for (int i = 0; i < 4; i++) {
+			Entry column = new Entry();
+			column.setId(i);
+			column.setName("Column " + i);
+			column.setValue("0.0");
+			template.add(column);
+		}
+		table.setRowTemplate(template);
+		for (int i = 0; i < numRows; i++) {
+			int row = table.addRow();
+			for (Entry entry : table.getRow(row)) {
+				entry.setValue(String.valueOf(i * 0.5));
+			}
+		}
+		form.addComponent(table);
+
+		// Create the matrix
+		matrix.setId(3);
+		matrix.setName("Matrix");
+		range.add(0.0);
+		range.add(1.0e6);
+		matrix.setAllowedValues(range);
+		for (int i = 1; i < matrixSize; i++) {
+			matrix.addRow();
+		}
+		for (int i = 0; i < matrixSize; i++) {
+			for (int j = 0; j < matrixSize; j++) {
+				matrix.setElementValue(i, j, (double) (i * matrixSize + j));
+			}
+		}
+		form.addComponent(matrix);
+
+		return;
+	}
+
+}
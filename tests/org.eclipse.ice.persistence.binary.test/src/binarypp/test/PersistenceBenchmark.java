@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package binarypp.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+
+import javax.xml.bind.JAXBException;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.ice.core.iCore.IPersistenceProvider;
+import org.eclipse.ice.datastructures.jaxbclassprovider.ICEJAXBClassProvider;
+import org.eclipse.ice.item.Item;
+import org.eclipse.ice.persistence.binary.BinaryPersistenceProvider;
+import org.eclipse.ice.persistence.xml.XMLPersistenceProvider;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * This class compares the save times, load times and file sizes of the
+ * BinaryPersistenceProvider and the XMLPersistenceProvider for the same large
+ * Items.
+ *
+ * @author Jay Jay Billings
+ */
+@Ignore("Manual benchmark")
+public class PersistenceBenchmark {
+
+	/**
+	 * The number of Items to persist.
+	 */
+	private static final int numItems = 20;
+
+	/**
+	 * The number of times the Items are loaded. The best time is reported.
+	 */
+	private static final int numLoads = 3;
+
+	/**
+	 * This operation runs the benchmark.
+	 */
+	@Test
+	public void benchmark() {
+
+		// Create the Items. Each has a 1000 Entries, a 200 row table and a
+		// 50x50 matrix.
+		ArrayList<Item> items = new ArrayList<Item>();
+		for (int i = 0; i < numItems; i++) {
+			Item item = new LargeItem(1000, 200, 50);
+			item.setId(i + 1);
+			items.add(item);
+		}
+
+		// Run the XML provider
+		IProject xmlProject = BinaryPersistenceProviderTester
+				.createProject("xmlBenchmarkDB");
+		XMLPersistenceProvider xmlProvider = new XMLPersistenceProvider(
+				xmlProject);
+		xmlProvider.registerClassProvider(new ICEJAXBClassProvider());
+		xmlProvider.registerClassProvider(BinaryPersistenceProviderTester
+				.createClassProvider());
+		try {
+			xmlProvider.start();
+		} catch (JAXBException e) {
+			e.printStackTrace();
+			fail();
+		}
+		long[] xmlResults = run("XML", xmlProvider, items, xmlProject, "xml");
+
+		// Run the binary provider
+		IProject binaryProject = BinaryPersistenceProviderTester
+				.createProject("binaryBenchmarkDB");
+		BinaryPersistenceProvider binaryProvider = BinaryPersistenceProviderTester
+				.createProvider(binaryProject);
+		long[] binaryResults = run("Binary", binaryProvider, items,
+				binaryProject, BinaryPersistenceProvider.FILE_EXTENSION);
+
+		// Report the comparison
+		System.out.println("PersistenceBenchmark Message: " + "Binary/XML "
+				+ "save time = " + ratio(binaryResults[0], xmlResults[0])
+				+ ", load time = " + ratio(binaryResults[1], xmlResults[1])
+				+ ", size = " + ratio(binaryResults[2], xmlResults[2]));
+
+		// The binary files should always be smaller
+		assertTrue(binaryResults[2] < xmlResults[2]);
+
+		// Clean up
+		try {
+			xmlProject.delete(true, null);
+			binaryProject.delete(true, null);
+		} catch (CoreException e) {
+			e.printStackTrace();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation persists and loads the Items with one provider. The
+	 * provider is stopped after the Items are submitted, which waits until
+	 * they are all written, so the save time includes the writes.
+	 *
+	 * @param label
+	 *            The name of the provider for the report
+	 * @param provider
+	 *            The provider, which must be started
+	 * @param items
+	 *            The Items
+	 * @param project
+	 *            The project where the provider stores the Items
+	 * @param extension
+	 *            The extension of the provider's files
+	 * @return The save time and best load time in nanoseconds and the total
+	 *         size of the files in bytes
+	 */
+	private long[] run(String label, IPersistenceProvider provider,
+			ArrayList<Item> items, IProject project, String extension) {
+
+		// Local Declarations
+		long[] results = new long[3];
+		long start = System.nanoTime();
+
+		// Save the Items and wait for them to be written
+		for (Item item : items) {
+			assertTrue(provider.persistItem(item));
+		}
+		if (provider instanceof XMLPersistenceProvider) {
+			((XMLPersistenceProvider) provider).stop();
+		} else {
+			((BinaryPersistenceProvider) provider).stop();
+		}
+		results[0] = System.nanoTime() - start;
+
+		// Load them a few times and keep the best time
+		results[1] = Long.MAX_VALUE;
+		for (int i = 0; i < numLoads; i++) {
+			start = System.nanoTime();
+			int loaded = 0;
+			for (Item item : items) {
+				if (provider.loadItem(item.getId()) != null) {
+					loaded++;
+				}
+			}
+			results[1] = Math.min(results[1], System.nanoTime() - start);
+			assertEquals(items.size(), loaded);
+		}
+
+		// Add up the size of the files
+		try {
+			project.refreshLocal(IResource.DEPTH_ONE, null);
+			for (IResource resource : project.members()) {
+				if (resource.getType() == IResource.FILE
+						&& extension.equals(resource.getFileExtension())) {
+					results[2] += resource.getLocation().toFile().length();
+				}
+			}
+		} catch (CoreException e) {
+			e.printStackTrace();
+			fail();
+		}
+
+		System.out.println("PersistenceBenchmark Message: " + label + ": "
+				+ items.size() + " Items, save = " + results[0] / 1000000
+				+ " ms, load = " + results[1] / 1000000 + " ms, size = "
+				+ results[2] / 1024 + " KB");
+
+		return results;
+	}
+
+	/**
+	 * This operation formats the ratio of two values.
+	 *
+	 * @param value
+	 *            The numerator
+	 * @param reference
+	 *            The denominator
+	 * @return The ratio with two decimals
+	 */
+	private String ratio(long value, long reference) {
+		return String.format("%.2f", (double) value / (double) reference);
+	}
+
+}
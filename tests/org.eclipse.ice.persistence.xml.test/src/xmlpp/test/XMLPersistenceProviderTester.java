@@ -23,8 +23,15 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
@@ -41,10 +48,12 @@ import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
+import org.eclipse.ice.core.iCore.ItemHeader;
 import org.eclipse.ice.datastructures.form.Form;
 import org.eclipse.ice.datastructures.jaxbclassprovider.ICEJAXBClassProvider;
 import org.eclipse.ice.item.Item;
 import org.eclipse.ice.item.nuclear.MOOSEModelBuilder;
+import org.eclipse.ice.item.persistence.PersistenceWorkQueue;
 import org.eclipse.ice.persistence.xml.XMLPersistenceProvider;
 import org.eclipse.ice.vibe.launcher.VibeLauncherBuilder;
 import org.junit.AfterClass;
@@ -372,6 +381,43 @@ public class XMLPersistenceProviderTester {
 		return;
 	}
 
+	/**
+	 * This operation checks that the XMLPersistenceProvider can read the
+	 * headers of the persisted Items without loading the whole Items.
+	 */
+	@Test
+	public void checkLoadItemHeaders() {
+
+		// Create a MOOSE item
+		MOOSEModelBuilder builder = new MOOSEModelBuilder();
+		Item item = builder.build(project);
+		int passedCount = 0;
+
+		// Persist it
+		item.setId(6);
+		assertTrue(xmlpp.persistItem(item));
+
+		// Wait while the file is persisted.
+		pause(2);
+
+		// Load the headers and look for the Item
+		ArrayList<ItemHeader> headers = xmlpp.loadItemHeaders();
+		assertNotNull(headers);
+		for (ItemHeader header : headers) {
+			if (header.getId() == 6) {
+				assertEquals(item.getName(), header.getName());
+				assertEquals(item.getDescription(), header.getDescription());
+				assertEquals(item.getItemBuilderName(),
+						header.getItemBuilderName());
+				assertEquals(item.getStatus(), header.getStatus());
+				passedCount++;
+			}
+		}
+		assertEquals(1, passedCount);
+
+		return;
+	}
+
 	/**
 	 * This operation insures that IWriter interface is implemented as described
 	 * by the XML persistence provider and that the operations function.
@@ -449,4 +495,225 @@ public class XMLPersistenceProviderTester {
 		return;
 	}
 
+	/**
+	 * This operation checks that writes for the same Item are coalesced by the
+	 * work queue. Tasks submitted for a key while it is being processed replace
+	 * each other so that only the last one runs, while tasks for other keys
+	 * are unaffected.
+	 * 
+	 * @throws InterruptedException
+	 *             This exception is thrown if the test is interrupted while
+	 *             it waits for the queue.
+	 */
+	@Test
+	public void checkWriteCoalescing() throws InterruptedException {
+
+		// Local Declarations
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch blocker = new CountDownLatch(1);
+		final List<Integer> firstKeyRuns = Collections
+				.synchronizedList(new ArrayList<Integer>());
+		final AtomicInteger secondKeyRuns = new AtomicInteger();
+		PersistenceWorkQueue queue = new PersistenceWorkQueue(
+				"Coalescing Test");
+		queue.start();
+
+		// Submit a task for the first key that blocks until it is released so
+		// that everything submitted afterwards for that key has to wait.
+		assertTrue(queue.submit("1", new Runnable() {
+			@Override
+			public void run() {
+				firstKeyRuns.add(-1);
+				started.countDown();
+				try {
+					blocker.await();
+				} catch (InterruptedException e) {
+					// Complain
+					e.printStackTrace();
+				}
+			}
+		}));
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+
+		// Submit more tasks for the first key and one for the second key
+		for (int i = 0; i < 10; i++) {
+			final int index = i;
+			assertTrue(queue.submit("1", new Runnable() {
+				@Override
+				public void run() {
+					firstKeyRuns.add(index);
+				}
+			}));
+		}
+		assertTrue(queue.submit("2", new Runnable() {
+			@Override
+			public void run() {
+				secondKeyRuns.incrementAndGet();
+			}
+		}));
+
+		// Release the first task and let the queue drain
+		blocker.countDown();
+		queue.stop();
+
+		// Only the blocking task and the last task should have run for the
+		// first key and the second key should have run once.
+		assertEquals(2, firstKeyRuns.size());
+		assertEquals(-1, firstKeyRuns.get(0).intValue());
+		assertEquals(9, firstKeyRuns.get(1).intValue());
+		assertEquals(1, secondKeyRuns.get());
+
+		// Update an Item over and over through the provider and make sure that
+		// the last state is the one that was persisted.
+		MOOSEModelBuilder builder = new MOOSEModelBuilder();
+		Item item = builder.build(project);
+		item.setId(20);
+		for (int i = 0; i < 10; i++) {
+			item.setDescription("Revision " + i);
+			assertTrue(xmlpp.updateItem(item));
+		}
+
+		// Wait while the file is persisted.
+		pause(2);
+
+		// Load the Item and check it
+		Item loadedItem = xmlpp.loadItem(20);
+		assertNotNull(loadedItem);
+		assertEquals("Revision 9", loadedItem.getDescription());
+
+		return;
+	}
+
+	/**
+	 * This operation checks that files are written atomically. A successful
+	 * write must replace the whole file and a failed write must leave the old
+	 * file as it was. Neither may leave the temporary file behind.
+	 * 
+	 * @throws CoreException
+	 *             This exception is thrown if the workspace can not update
+	 *             the file.
+	 * @throws IOException
+	 *             This exception is thrown if the file can not be read.
+	 */
+	@Test
+	public void checkAtomicWrite() throws CoreException, IOException {
+
+		// Local Declarations
+		IFile file = project.getFile("atomic_write_test.txt");
+		File target = file.getLocation().toFile();
+		File tempFile = new File(target.getParentFile(), "." + target.getName()
+				+ ".tmp");
+
+		// Write the file from scratch
+		PersistenceWorkQueue.writeFile(file, "First version".getBytes("UTF-8"));
+		assertTrue(file.exists());
+		assertEquals("First version", readFile(target));
+		assertFalse(tempFile.exists());
+
+		// Replace it
+		PersistenceWorkQueue
+				.writeFile(file, "Second version".getBytes("UTF-8"));
+		assertEquals("Second version", readFile(target));
+		assertFalse(tempFile.exists());
+
+		// Put a directory where the temporary file goes so that the next
+		// write fails before the rename.
+		assertTrue(tempFile.mkdir());
+		try {
+			PersistenceWorkQueue.writeFile(file,
+					"Third version".getBytes("UTF-8"));
+			fail();
+		} catch (IOException e) {
+			// This is expected
+		}
+
+		// The old file should be complete and nothing should be left over
+		assertEquals("Second version", readFile(target));
+		assertFalse(tempFile.exists());
+
+		// Clean up
+		file.delete(true, null);
+
+		return;
+	}
+
+	/**
+	 * This operation checks that stopping the provider waits for the writes
+	 * that are still queued and that nothing is accepted afterwards.
+	 * 
+	 * @throws JAXBException
+	 *             This exception is thrown if the second provider can not be
+	 *             started.
+	 */
+	@Test
+	public void checkStopDrainsWrites() throws JAXBException {
+
+		// Local Declarations
+		final AtomicInteger runs = new AtomicInteger();
+		PersistenceWorkQueue queue = new PersistenceWorkQueue("Drain Test");
+		queue.start();
+
+		// Queue slow tasks for many keys and stop right away
+		for (int i = 0; i < 50; i++) {
+			assertTrue(queue.submit(String.valueOf(i), new Runnable() {
+				@Override
+				public void run() {
+					try {
+						Thread.sleep(10);
+					} catch (InterruptedException e) {
+						// Complain
+						e.printStackTrace();
+					}
+					runs.incrementAndGet();
+				}
+			}));
+		}
+		queue.stop();
+
+		// All of the tasks should have run and new ones should be rejected
+		assertEquals(50, runs.get());
+		assertFalse(queue.isRunning());
+		assertFalse(queue.submit("0", new Runnable() {
+			@Override
+			public void run() {
+				runs.incrementAndGet();
+			}
+		}));
+
+		// Setup a second provider on the same project
+		XMLPersistenceProvider provider = new XMLPersistenceProvider(project);
+		provider.addBuilder(new MOOSEModelBuilder());
+		provider.registerClassProvider(new ICEJAXBClassProvider());
+		provider.start();
+
+		// Persist an Item and stop the provider without waiting
+		MOOSEModelBuilder builder = new MOOSEModelBuilder();
+		Item item = builder.build(project);
+		item.setId(30);
+		String name = item.getName().replace(" ", "_") + "_" + item.getId()
+				+ ".xml";
+		assertTrue(provider.persistItem(item));
+		provider.stop();
+
+		// The file should be there as soon as stop returns
+		assertTrue(checkPersistedFile(name));
+		assertFalse(provider.persistItem(item));
+
+		return;
+	}
+
+	/**
+	 * This is a utility operation that reads a file from the file system into
+	 * a string.
+	 * 
+	 * @param file
+	 *            The file to read
+	 * @return The contents of the file
+	 * @throws IOException
+	 *             This exception is thrown if the file can not be read.
+	 */
+	private String readFile(File file) throws IOException {
+		return new String(Files.readAllBytes(file.toPath()), "UTF-8");
+	}
+
 }
@@ -14,9 +14,13 @@ package org.eclipse.ice.reactor.test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
+
+import org.eclipse.ice.analysistool.IData;
 import org.eclipse.ice.reactor.LWRData;
 import org.eclipse.ice.reactor.LWRDataProvider;
 import org.junit.Test;
@@ -379,4 +383,90 @@ public class LWRDataProviderTester {
 		assertFalse(object.hashCode() == unEqualObject.hashCode());
 
 	}
-}
\ No newline at end of file
+
+	/**
+	 * <p>
+	 * Checks that blocks of data can be added and read as packed arrays and
+	 * that they match the data that is returned as LWRData.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkColumns() {
+
+		// Local Declarations
+		LWRDataProvider provider = new LWRDataProvider();
+		LWRDataProvider copy;
+		String feature = "Pin Power";
+		double time = 2.0;
+		double[] values = { 1.0, 2.0, 3.0 };
+		double[] uncertainties = { 0.1, 0.2, 0.3 };
+		double[] positions = { 0.0, 0.0, 1.0, 0.0, 0.0, 2.0, 0.0, 0.0, 3.0 };
+		String[] units = { "W", "W", "kW" };
+
+		// Invalid blocks should be rejected
+		assertFalse(provider.addData(null, time, values, null, null, null));
+		assertFalse(provider.addData(feature, -1.0, values, null, null, null));
+		assertFalse(provider.addData(feature, time, null, null, null, null));
+		assertFalse(provider.addData(feature, time, values, new double[1],
+				null, null));
+		assertFalse(provider.addData(feature, time, values, null,
+				new double[3], null));
+		assertEquals(0, provider.getNumberOfTimeSteps());
+
+		// Add the block and a single LWRData after it
+		assertTrue(provider.addData(feature, time, values, uncertainties,
+				positions, units));
+		LWRData data = new LWRData(feature);
+		data.setValue(4.0);
+		provider.addData(data, time);
+		assertEquals(1, provider.getFeatureList().size());
+		assertEquals(1, provider.getNumberOfTimeSteps());
+
+		// Check the arrays
+		provider.setTime(time);
+		double[] readValues = provider.getValuesAtCurrentTime(feature);
+		assertEquals(4, readValues.length);
+		assertEquals(3.0, readValues[2], 0.0);
+		assertEquals(4.0, readValues[3], 0.0);
+		assertEquals(0.3, provider.getUncertaintiesAtCurrentTime(feature)[2],
+				0.0);
+		assertEquals(12, provider.getPositionsAtCurrentTime(feature).length);
+		assertEquals(2.0, provider.getPositionsAtCurrentTime(feature)[5], 0.0);
+		assertEquals("kW", provider.getUnitsAtCurrentTime(feature)[2]);
+		assertEquals(data.getUnits(), provider.getUnitsAtCurrentTime(feature)[3]);
+		assertEquals(0, provider.getValuesAtCurrentTime("Missing").length);
+
+		// Check that the LWRData snapshot matches
+		ArrayList<IData> snapshot = provider.getDataAtCurrentTime(feature);
+		assertEquals(4, snapshot.size());
+		assertEquals(2.0, snapshot.get(1).getValue(), 0.0);
+		assertEquals(0.2, snapshot.get(1).getUncertainty(), 0.0);
+		assertEquals("W", snapshot.get(1).getUnits());
+		assertEquals(2.0, snapshot.get(1).getPosition().get(2), 0.0);
+		assertTrue(data.equals(snapshot.get(3)));
+
+		// Changing the snapshot should not change the provider or the
+		// snapshots of other callers
+		((LWRData) snapshot.get(1)).setValue(20.0);
+		snapshot.remove(0);
+		ArrayList<IData> otherSnapshot = provider.getDataAtCurrentTime(feature);
+		assertNotSame(snapshot, otherSnapshot);
+		assertEquals(4, otherSnapshot.size());
+		assertEquals(2.0, otherSnapshot.get(1).getValue(), 0.0);
+		assertEquals(2.0, provider.getValuesAtCurrentTime(feature)[1], 0.0);
+
+		// Copies should be equal
+		copy = (LWRDataProvider) provider.clone();
+		assertTrue(provider.equals(copy));
+		assertEquals(provider.hashCode(), copy.hashCode());
+
+		// Removing the feature removes all of its data
+		provider.removeAllDataFromFeature(feature);
+		assertEquals(0, provider.getFeatureList().size());
+		assertEquals(0, provider.getDataAtCurrentTime(feature).size());
+		assertFalse(provider.equals(copy));
+
+		return;
+	}
+}
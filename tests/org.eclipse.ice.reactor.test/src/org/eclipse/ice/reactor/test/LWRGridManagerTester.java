@@ -22,6 +22,8 @@ import static org.junit.Assert.fail;
 import java.io.File;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import ncsa.hdf.object.Attribute;
 import ncsa.hdf.object.Dataset;
@@ -37,6 +39,7 @@ import org.eclipse.ice.reactor.GridLocation;
 import org.eclipse.ice.reactor.HDF5LWRTagType;
 import org.eclipse.ice.reactor.LWRComponent;
 import org.eclipse.ice.reactor.LWRData;
+import org.eclipse.ice.reactor.LWRDataProvider;
 import org.eclipse.ice.reactor.LWRGridManager;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -764,53 +767,34 @@ public class LWRGridManagerTester {
 
 		H5Group positions = (H5Group) h5Group.getMemberList().get(0);
 
-		// Check size
+		// Check the layout version
+		assertEquals(2, HdfReaderFactory.readIntegerAttribute(positions,
+				"version").intValue());
 
-		// There are two positions with the third and forth group handling the
-		// units
-		assertEquals(4, positions.getMemberList().size());
-
-		// Position 1
-		assertEquals(
-				"Position " + location1.getRow() + " " + location1.getColumn(),
-				positions.getMemberList().get(0).getName());
-
-		// Position 2
-		assertEquals(
-				"Position " + location2.getRow() + " " + location2.getColumn(),
-				positions.getMemberList().get(1).getName());
-
-		// Position Names table
-		assertEquals("Simple Position Names Table", positions.getMemberList()
-				.get(2).getName());
-
-		// Units table
-		assertEquals("Units Table", positions.getMemberList().get(3).getName());
-
-		// Check that they are an instance of group
-		assertTrue(positions.getMemberList().get(0) instanceof Group);
-		assertTrue(positions.getMemberList().get(1) instanceof Group);
-		assertTrue(positions.getMemberList().get(2) instanceof Dataset);
-		assertTrue(positions.getMemberList().get(3) instanceof Dataset);
+		// There are tables for the positions, times, features, names and
+		// units plus three tables for each of the two features
+		assertEquals(11, positions.getMemberList().size());
 
 		// Check internal information
 		try {
 
 			// Check the dataset
-			Dataset unitList = (Dataset) positions.getMemberList().get(3);
-			Dataset namesList = (Dataset) positions.getMemberList().get(2);
+			Dataset unitList = HdfReaderFactory.getDataset(positions,
+					"Units Table");
+			Dataset namesList = HdfReaderFactory.getDataset(positions,
+					"Simple Position Names Table");
+			Dataset featuresList = HdfReaderFactory.getDataset(positions,
+					"Feature Names Table");
 
 			// Check values
 			unitList.init();
 			namesList.init();
-
-			// Get data
-			Object unitListData = unitList.getData();
-			Object namesListData = namesList.getData();
+			featuresList.init();
 
 			// Cast to array of Strings
-			String[] arrayStrings = (String[]) unitListData;
-			String[] arrayNames = (String[]) namesListData;
+			String[] arrayStrings = (String[]) unitList.getData();
+			String[] arrayNames = (String[]) namesList.getData();
+			String[] arrayFeatures = (String[]) featuresList.getData();
 
 			// Check values
 			assertEquals(data1.getUnits(), arrayStrings[0]);
@@ -822,252 +806,107 @@ public class LWRGridManagerTester {
 			assertEquals(component1.getName(), arrayNames[0]);
 			assertEquals(component2.getName(), arrayNames[1]);
 
-			// Check the attributes - get the positions
-			H5Group h5Position1 = (H5Group) positions.getMemberList().get(0);
-			H5Group h5Position2 = (H5Group) positions.getMemberList().get(1);
-
-			assertEquals(0, h5Position1.getMetadata().size());
-			assertEquals(0, h5Position2.getMetadata().size());
-
-			// Check Data
-			Dataset positionsDataset1 = HdfReaderFactory.getDataset(
-					h5Position1, "Position Dataset");
-			Dataset positionsDataset2 = HdfReaderFactory.getDataset(
-					h5Position2, "Position Dataset");
-
-			// Convert data
-			int[] positionData1 = new int[3];
-			int[] positionData2 = new int[3];
-			positionData1 = (int[]) positionsDataset1.getData();
-			positionData2 = (int[]) positionsDataset2.getData();
-
-			// Check values
-			assertEquals(location1.getRow(), positionData1[0]);
-			assertEquals(location1.getColumn(), positionData1[1]);
-			assertEquals(location2.getRow(), positionData2[0]);
-			assertEquals(location2.getColumn(), positionData2[1]);
-			assertEquals(0, positionData1[2]);
-			assertEquals(1, positionData2[2]);
-
-			// Check for subgroups. These subgroups represent if they have
-			// LWRData or not
-			assertEquals(4, h5Position1.getMemberList().size());
-			assertEquals(1, h5Position2.getMemberList().size());
-
-			// Get the IDataGroup
-			H5Group dataGroup = (H5Group) h5Position1;
-
-			// Check the size of the data groups
-			assertEquals(4, dataGroup.getMemberList().size());
-
-			// Check the names of the groups. These should reflect the number of
-			// time steps
-			assertEquals("Position Dataset", h5Position2.getMemberList().get(0)
-					.getName());
-
-			assertEquals("Position Dataset", dataGroup.getMemberList().get(0)
-					.getName());
-			assertEquals("TimeStep: 0", dataGroup.getMemberList().get(1)
-					.getName());
-			assertEquals("TimeStep: 1", dataGroup.getMemberList().get(2)
-					.getName());
-			assertEquals("TimeStep: 2", dataGroup.getMemberList().get(3)
-					.getName());
-
-			// Get the TimeStep Groups and check contents
-			H5Group timeGroup1 = (H5Group) dataGroup.getMemberList().get(1);
-			H5Group timeGroup2 = (H5Group) dataGroup.getMemberList().get(2);
-			H5Group timeGroup3 = (H5Group) dataGroup.getMemberList().get(3);
-
-			// Check that there is a group and attributes
-			assertEquals(2, timeGroup1.getMemberList().size());
-			assertEquals(2, timeGroup2.getMemberList().size());
-			assertEquals(4, timeGroup3.getMemberList().size());
-			assertEquals(1, timeGroup1.getMetadata().size());
-			assertEquals(1, timeGroup2.getMetadata().size());
-			assertEquals(1, timeGroup3.getMetadata().size());
-
-			// Check Attributes on timeGroups
-
-			// Check timeGroup1
-			// Check time attribute
-			attribute = (Attribute) timeGroup1.getMetadata().get(0);
-			assertEquals(attribute.getName(), "time");
-			assertEquals(attribute.getType().getDatatypeClass(),
-					Datatype.CLASS_FLOAT);
-			assertEquals(time1, ((double[]) attribute.getValue())[0], 0.0);
-
-			// Check timeGroup2
-			// Check time attribute
-			attribute = (Attribute) timeGroup2.getMetadata().get(0);
-			assertEquals(attribute.getName(), "time");
-			assertEquals(attribute.getType().getDatatypeClass(),
-					Datatype.CLASS_FLOAT);
-			assertEquals(time2, ((double[]) attribute.getValue())[0], 0.0);
-
-			// Check timeGroup3
-			// Check time attribute
-			attribute = (Attribute) timeGroup3.getMetadata().get(0);
-			assertEquals(attribute.getName(), "time");
-			assertEquals(attribute.getType().getDatatypeClass(),
-					Datatype.CLASS_FLOAT);
-			assertEquals(time3, ((double[]) attribute.getValue())[0], 0.0);
-
-			// Get the Features off the timeGroups
-			Dataset featureGroup1Data = (Dataset) timeGroup1.getMemberList()
-					.get(0);
-			Dataset featureGroup1Head = (Dataset) timeGroup1.getMemberList()
-					.get(1);
-			Dataset featureGroup2Data = (Dataset) timeGroup2.getMemberList()
-					.get(0);
-			Dataset featureGroup2Head = (Dataset) timeGroup2.getMemberList()
-					.get(1);
-
-			// Feature Group 3 gets two SEPARATE compound datasets because of
-			// different features within the same time
-			Dataset featureGroup3aData = (Dataset) timeGroup3.getMemberList()
-					.get(0);
-			Dataset featureGroup3aHead = (Dataset) timeGroup3.getMemberList()
-					.get(1);
-			Dataset featureGroup3bData = (Dataset) timeGroup3.getMemberList()
-					.get(2);
-			Dataset featureGroup3bHead = (Dataset) timeGroup3.getMemberList()
-					.get(3);
-
-			// Check information on featureGroups
-			assertEquals("Feature 1 dataTable", featureGroup1Data.getName());
-			assertEquals("Feature 1 headTable", featureGroup1Head.getName());
-			assertEquals("Feature 1 dataTable", featureGroup2Data.getName());
-			assertEquals("Feature 1 headTable", featureGroup2Head.getName());
-			assertEquals("Feature 1 dataTable", featureGroup3aData.getName());
-			assertEquals("Feature 1 headTable", featureGroup3aHead.getName());
-			assertEquals("Feature 2 dataTable", featureGroup3bData.getName());
-			assertEquals("Feature 2 headTable", featureGroup3bHead.getName());
-
-			// Call init to get data
-			featureGroup1Data.init();
-			featureGroup1Head.init();
-			featureGroup2Data.init();
-			featureGroup2Head.init();
-			featureGroup3aData.init();
-			featureGroup3aHead.init();
-			featureGroup3bData.init();
-			featureGroup3bHead.init();
-
-			// Confirm the sizes of the data
-			assertEquals(featureGroup1Data.getDims()[0], 2);
-			assertEquals(featureGroup1Data.getDims()[1], 5);
-			assertEquals(featureGroup2Data.getDims()[0], 1);
-			assertEquals(featureGroup2Data.getDims()[1], 5);
-			assertEquals(featureGroup3aData.getDims()[0], 1);
-			assertEquals(featureGroup3aData.getDims()[1], 5);
-			assertEquals(featureGroup3bData.getDims()[0], 1);
-			assertEquals(featureGroup3bData.getDims()[1], 5);
-
-			// Confirm the sizes of the head
-			assertEquals(featureGroup1Head.getDims()[0], 2);
-			assertEquals(featureGroup1Head.getDims()[1], 2);
-			assertEquals(featureGroup2Head.getDims()[0], 1);
-			assertEquals(featureGroup2Head.getDims()[1], 2);
-			assertEquals(featureGroup3aHead.getDims()[0], 1);
-			assertEquals(featureGroup3aHead.getDims()[1], 2);
-			assertEquals(featureGroup3bHead.getDims()[0], 1);
-			assertEquals(featureGroup3bHead.getDims()[1], 2);
-
-			// Check the contents of those feature groups
+			assertEquals(2, arrayFeatures.length);
+			assertEquals(feature1, arrayFeatures[0]);
+			assertEquals(feature2, arrayFeatures[1]);
+
+			// Check the positions. Each row is the row, column and index of
+			// the name.
+			Dataset positionsDataset = HdfReaderFactory.getDataset(positions,
+					"Position Table");
+			positionsDataset.init();
+			assertEquals(2, positionsDataset.getDims()[0]);
+			assertEquals(3, positionsDataset.getDims()[1]);
+			int[] positionData = (int[]) positionsDataset.getData();
+			assertEquals(location1.getRow(), positionData[0]);
+			assertEquals(location1.getColumn(), positionData[1]);
+			assertEquals(0, positionData[2]);
+			assertEquals(location2.getRow(), positionData[3]);
+			assertEquals(location2.getColumn(), positionData[4]);
+			assertEquals(1, positionData[5]);
+
+			// Check the times
+			Dataset timesDataset = HdfReaderFactory.getDataset(positions,
+					"Times Table");
+			timesDataset.init();
+			double[] times = (double[]) timesDataset.getData();
+			assertEquals(3, times.length);
+			assertEquals(time1, times[0], 0.0);
+			assertEquals(time2, times[1], 0.0);
+			assertEquals(time3, times[2], 0.0);
+
+			// Get the tables of the features
+			Dataset feature1Index = HdfReaderFactory.getDataset(positions,
+					"Feature 1 indexTable");
+			Dataset feature1Data = HdfReaderFactory.getDataset(positions,
+					"Feature 1 dataTable");
+			Dataset feature1Head = HdfReaderFactory.getDataset(positions,
+					"Feature 1 headTable");
+			Dataset feature2Index = HdfReaderFactory.getDataset(positions,
+					"Feature 2 indexTable");
+			Dataset feature2Data = HdfReaderFactory.getDataset(positions,
+					"Feature 2 dataTable");
+			Dataset feature2Head = HdfReaderFactory.getDataset(positions,
+					"Feature 2 headTable");
+			feature1Index.init();
+			feature1Data.init();
+			feature1Head.init();
+			feature2Index.init();
+			feature2Data.init();
+			feature2Head.init();
+
+			// The index tables are (time x location)
+			assertEquals(3, feature1Index.getDims()[0]);
+			assertEquals(2, feature1Index.getDims()[1]);
+			assertEquals(3, feature2Index.getDims()[0]);
+			assertEquals(2, feature2Index.getDims()[1]);
+
+			// Confirm the sizes of the data and the head
+			assertEquals(4, feature1Data.getDims()[0]);
+			assertEquals(5, feature1Data.getDims()[1]);
+			assertEquals(4, feature1Head.getDims()[0]);
+			assertEquals(1, feature2Data.getDims()[0]);
+			assertEquals(5, feature2Data.getDims()[1]);
+			assertEquals(1, feature2Head.getDims()[0]);
+
+			// Check the number of values at each time and location. Only the
+			// first location has data.
+			int[] feature1Counts = (int[]) feature1Index.getData();
+			int[] feature2Counts = (int[]) feature2Index.getData();
+			int[] expectedCounts1 = { 2, 0, 1, 0, 1, 0 };
+			int[] expectedCounts2 = { 0, 0, 0, 0, 1, 0 };
+			for (int i = 0; i < 6; i++) {
+				assertEquals(expectedCounts1[i], feature1Counts[i]);
+				assertEquals(expectedCounts2[i], feature2Counts[i]);
+			}
 
 			// HDF5 java library converts the 2d data into 1 dimension on a
-			// read. luckily we know the width and length by dimensions passed.
-			double[] feature1Data1D = (double[]) featureGroup1Data.getData();
-			long[] feature1Head1D = (long[]) featureGroup1Head.getData();
-			double[] feature2Data1D = (double[]) featureGroup2Data.getData();
-			long[] feature2Head1D = (long[]) featureGroup2Head.getData();
-
-			double[] feature3aData1D = (double[]) featureGroup3aData.getData();
-			long[] feature3aHead1D = (long[]) featureGroup3aHead.getData();
-
-			double[] feature3bData1D = (double[]) featureGroup3bData.getData();
-			long[] feature3bHead1D = (long[]) featureGroup3bHead.getData();
-
-			// Confirm lengths are equivalent
-			assertEquals(
-					featureGroup1Data.getDims()[0]
-							* featureGroup1Data.getDims()[1],
-					feature1Data1D.length);
-			// Reads as Value, Uncertainity, xpos, ypos, zpos - Data1
-			assertEquals(feature1Data1D[0], data1.getValue(), 0.0);
-			assertEquals(feature1Data1D[1], data1.getUncertainty(), 0.0);
-			assertEquals(feature1Data1D[2], data1.getPosition().get(0), 0.0);
-			assertEquals(feature1Data1D[3], data1.getPosition().get(1), 0.0);
-			assertEquals(feature1Data1D[4], data1.getPosition().get(2), 0.0);
-
-			// Reads as Value, Uncertainity, xpos, ypos, zpos - Data2
-			assertEquals(feature1Data1D[5], data2.getValue(), 0.0);
-			assertEquals(feature1Data1D[6], data2.getUncertainty(), 0.0);
-			assertEquals(feature1Data1D[7], data2.getPosition().get(0), 0.0);
-			assertEquals(feature1Data1D[8], data2.getPosition().get(1), 0.0);
-			assertEquals(feature1Data1D[9], data2.getPosition().get(2), 0.0);
-
-			// Check Head data - reads DataTableId and then units
-			// Confirm the data length is correct
-			assertEquals(
-					featureGroup1Head.getDims()[0]
-							* featureGroup1Head.getDims()[1],
-					feature1Head1D.length);
-			assertEquals(feature1Head1D[0], 0);
-			assertEquals(feature1Head1D[1], 0); // Represents data1.getUnits()
-												// position
-			assertEquals(feature1Head1D[2], 1);
-			assertEquals(feature1Head1D[3], 1); // Represents data2.getUnits()
-												// position
-
-			// Reads as Value, Uncertainity, xpos, ypos, zpos - Data3
-			assertEquals(feature2Data1D[0], data3.getValue(), 0.0);
-			assertEquals(feature2Data1D[1], data3.getUncertainty(), 0.0);
-			assertEquals(feature2Data1D[2], data3.getPosition().get(0), 0.0);
-			assertEquals(feature2Data1D[3], data3.getPosition().get(1), 0.0);
-			assertEquals(feature2Data1D[4], data3.getPosition().get(2), 0.0);
-
-			// Confirm the data length is correct
-			assertEquals(
-					featureGroup2Head.getDims()[0]
-							* featureGroup2Head.getDims()[1],
-					feature2Head1D.length);
-			assertEquals(feature2Head1D[0], 0);
-			assertEquals(feature2Head1D[1], 2); // Represents data3.getUnits()
-												// position
-
-			// Reads as Value, Uncertainity, xpos, ypos, zpos - Data4
-			assertEquals(feature3aData1D[0], data4.getValue(), 0.0);
-			assertEquals(feature3aData1D[1], data4.getUncertainty(), 0.0);
-			assertEquals(feature3aData1D[2], data4.getPosition().get(0), 0.0);
-			assertEquals(feature3aData1D[3], data4.getPosition().get(1), 0.0);
-			assertEquals(feature3aData1D[4], data4.getPosition().get(2), 0.0);
-
-			// Confirm the data length is correct
-			assertEquals(
-					featureGroup3aHead.getDims()[0]
-							* featureGroup3aHead.getDims()[1],
-					feature3aHead1D.length);
-			assertEquals(feature3aHead1D[0], 0);
-			assertEquals(feature3aHead1D[1], 3); // Represents data3.getUnits()
-													// position
-
-			// Reads as Value, Uncertainity, xpos, ypos, zpos - Data5
-			assertEquals(feature3bData1D[0], data5.getValue(), 0.0);
-			assertEquals(feature3bData1D[1], data5.getUncertainty(), 0.0);
-			assertEquals(feature3bData1D[2], data5.getPosition().get(0), 0.0);
-			assertEquals(feature3bData1D[3], data5.getPosition().get(1), 0.0);
-			assertEquals(feature3bData1D[4], data5.getPosition().get(2), 0.0);
-
-			// Confirm the data length is correct
-			assertEquals(
-					featureGroup3bHead.getDims()[0]
-							* featureGroup3bHead.getDims()[1],
-					feature3aHead1D.length);
-			assertEquals(feature3bHead1D[0], 0);
-			assertEquals(feature3bHead1D[1], 4); // Represents data3.getUnits()
-													// position
+			// read. Each row is value, uncertainty, xpos, ypos, zpos.
+			double[] feature1Data1D = (double[]) feature1Data.getData();
+			int[] feature1Head1D = (int[]) feature1Head.getData();
+			double[] feature2Data1D = (double[]) feature2Data.getData();
+			int[] feature2Head1D = (int[]) feature2Head.getData();
+			LWRData[] feature1List = { data1, data2, data3, data4 };
+			for (int i = 0; i < feature1List.length; i++) {
+				LWRData data = feature1List[i];
+				assertEquals(data.getValue(), feature1Data1D[5 * i], 0.0);
+				assertEquals(data.getUncertainty(),
+						feature1Data1D[5 * i + 1], 0.0);
+				assertEquals(data.getPosition().get(0),
+						feature1Data1D[5 * i + 2], 0.0);
+				assertEquals(data.getPosition().get(1),
+						feature1Data1D[5 * i + 3], 0.0);
+				assertEquals(data.getPosition().get(2),
+						feature1Data1D[5 * i + 4], 0.0);
+				// The head is the position of the units in the units table
+				assertEquals(i, feature1Head1D[i]);
+			}
+			assertEquals(data5.getValue(), feature2Data1D[0], 0.0);
+			assertEquals(data5.getUncertainty(), feature2Data1D[1], 0.0);
+			assertEquals(data5.getPosition().get(0), feature2Data1D[2], 0.0);
+			assertEquals(data5.getPosition().get(1), feature2Data1D[3], 0.0);
+			assertEquals(data5.getPosition().get(2), feature2Data1D[4], 0.0);
+			assertEquals(4, feature2Head1D[0]);
 
 		} catch (Exception e) {
 			// Fail out of the test
@@ -1307,6 +1146,285 @@ public class LWRGridManagerTester {
 
 	}
 
+	/**
+	 * <p>
+	 * This operation checks that files written with the original layout of
+	 * the Positions group, which stores each time step at each location in
+	 * its own group and has no version attribute, can still be read. It also
+	 * checks that layout versions newer than the current one are refused.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkVersion1Layout() {
+
+		// Local Declarations
+		int size = 5;
+		LWRGridManager component = new LWRGridManager(size);
+		LWRGridManager newComponent = new LWRGridManager(size);
+		String name = "Version 1";
+		String description = "The original layout";
+		int id = 7;
+		double time1 = 1.0, time2 = 3.0;
+		LWRComponent component1 = new LWRComponent("Component 1");
+		LWRComponent component2 = new LWRComponent("Component 2");
+		GridLocation location1 = new GridLocation(0, 1);
+		GridLocation location2 = new GridLocation(2, 2);
+		String[] units = { "Units 1", "Units 2" };
+		String[] positionNames = { component1.getName(), component2.getName() };
+
+		// Setup the data. The first location has two values of the first
+		// feature at the first time and one value of each feature at the
+		// second time. The second location only has data at the first time.
+		LWRData data1 = createData("Feature 1", 1.0, 0.0, units[0]);
+		LWRData data2 = createData("Feature 1", 2.0, 1.0, units[1]);
+		LWRData data3 = createData("Feature 1", 3.0, 2.0, units[0]);
+		LWRData data4 = createData("Feature 2", 4.0, 3.0, units[1]);
+		LWRData data5 = createData("Feature 2", 5.0, 4.0, units[0]);
+
+		// Setup the expected component
+		component.setName(name);
+		component.setId(id);
+		component.setDescription(description);
+		component.addComponent(component1, location1);
+		component.addComponent(component2, location2);
+		location1.getLWRDataProvider().addData(data1, time1);
+		location1.getLWRDataProvider().addData(data2, time1);
+		location1.getLWRDataProvider().addData(data3, time2);
+		location1.getLWRDataProvider().addData(data4, time2);
+		location2.getLWRDataProvider().addData(data5, time1);
+
+		// Setup the HDF5 File
+		String separator = System.getProperty("file.separator");
+		File dataFile = new File(System.getProperty("user.dir") + separator
+				+ "testVersion1.h5");
+		URI uri = dataFile.toURI();
+		H5File h5File = HdfFileFactory.createH5File(uri);
+
+		try {
+			h5File.open();
+			H5Group parentH5Group = (H5Group) ((javax.swing.tree.DefaultMutableTreeNode) h5File
+					.getRootNode()).getUserObject();
+
+			// Write the attributes of the component
+			H5Group subGroup = (H5Group) h5File.createGroup(name,
+					parentH5Group);
+			HdfWriterFactory.writeStringAttribute(h5File, subGroup,
+					"HDF5LWRTag", component.getHDF5LWRTag().toString());
+			HdfWriterFactory.writeStringAttribute(h5File, subGroup, "name",
+					name);
+			HdfWriterFactory.writeIntegerAttribute(h5File, subGroup, "id", id);
+			HdfWriterFactory.writeStringAttribute(h5File, subGroup,
+					"description", description);
+			HdfWriterFactory.writeIntegerAttribute(h5File, subGroup, "size",
+					size);
+
+			// Write the Positions group with the original layout
+			H5Group positionsGroup = HdfWriterFactory.createH5Group(h5File,
+					"Positions", subGroup);
+			writeVersion1Location(h5File, positionsGroup, location1, 0,
+					new double[] { time1, time2 }, new LWRData[][] {
+							{ data1, data2 }, { data3, data4 } }, units);
+			writeVersion1Location(h5File, positionsGroup, location2, 1,
+					new double[] { time1 }, new LWRData[][] { { data5 } },
+					units);
+			writeVersion1Strings(h5File, positionsGroup,
+					"Simple Position Names Table", positionNames);
+			writeVersion1Strings(h5File, positionsGroup, "Units Table", units);
+
+			// Close the file and then reopen it
+			h5File.close();
+			h5File.open();
+			parentH5Group = (H5Group) ((javax.swing.tree.DefaultMutableTreeNode) h5File
+					.getRootNode()).getUserObject();
+			subGroup = (H5Group) parentH5Group.getMemberList().get(0);
+
+			// Read it and check it against the expected component
+			assertTrue(newComponent.readAttributes(subGroup));
+			assertTrue(newComponent.readDatasets(subGroup));
+			assertTrue(component.equals(newComponent));
+
+			// Check some of the values directly
+			LWRDataProvider provider = newComponent.getDataProviderAtLocation(
+					0, 1);
+			provider.setTime(time1);
+			assertEquals(2, provider.getValuesAtCurrentTime("Feature 1").length);
+			assertEquals(2.0, provider.getValuesAtCurrentTime("Feature 1")[1],
+					0.0);
+			assertEquals(units[1],
+					provider.getUnitsAtCurrentTime("Feature 1")[1]);
+			provider.setTime(time2);
+			assertEquals(4.0, provider.getValuesAtCurrentTime("Feature 2")[0],
+					0.0);
+			provider = newComponent.getDataProviderAtLocation(2, 2);
+			provider.setTime(time1);
+			assertEquals(5.0, provider.getValuesAtCurrentTime("Feature 2")[0],
+					0.0);
+
+			// Layouts from the future can not be read
+			positionsGroup = HdfReaderFactory.getChildH5Group(subGroup,
+					"Positions");
+			HdfWriterFactory.writeIntegerAttribute(h5File, positionsGroup,
+					"version", 3);
+			assertFalse(new LWRGridManager(size).readDatasets(subGroup));
+
+			h5File.close();
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail();
+		} finally {
+			dataFile.delete();
+		}
+
+		return;
+	}
+
+	/**
+	 * Creates a piece of LWRData at a position on the z axis.
+	 * 
+	 * @param feature
+	 *            The feature
+	 * @param value
+	 *            The value, which is also used for the uncertainty
+	 * @param z
+	 *            The z coordinate of the position
+	 * @param units
+	 *            The units
+	 * @return The data
+	 */
+	private LWRData createData(String feature, double value, double z,
+			String units) {
+		LWRData data = new LWRData(feature);
+		ArrayList<Double> position = new ArrayList<Double>();
+		position.add(0.0);
+		position.add(1.0);
+		position.add(z);
+		data.setPosition(position);
+		data.setValue(value);
+		data.setUncertainty(value + 0.5);
+		data.setUnits(units);
+		return data;
+	}
+
+	/**
+	 * Writes one location with the original layout of the Positions group: a
+	 * group per location with a position dataset and a group per time step
+	 * that holds a data table and a head table for each feature.
+	 * 
+	 * @param h5File
+	 *            The file
+	 * @param positionsGroup
+	 *            The Positions group
+	 * @param location
+	 *            The location
+	 * @param nameIndex
+	 *            The index of the name of the location in the position names
+	 *            table
+	 * @param times
+	 *            The times
+	 * @param data
+	 *            The data at each time
+	 * @param units
+	 *            The units table
+	 * @throws Exception
+	 */
+	private void writeVersion1Location(H5File h5File, H5Group positionsGroup,
+			GridLocation location, int nameIndex, double[] times,
+			LWRData[][] data, String[] units) throws Exception {
+
+		// Create the group of the location and its position dataset
+		H5Group locationGroup = HdfWriterFactory.createH5Group(h5File,
+				"Position " + location.getRow() + " " + location.getColumn(),
+				positionsGroup);
+		int[] positionData = { location.getRow(), location.getColumn(),
+				nameIndex };
+		h5File.createScalarDS("Position Dataset", locationGroup,
+				HdfWriterFactory.createIntegerH5Datatype(h5File),
+				new long[] { 3 }, null, null, 0, positionData).init();
+
+		// Write each time step
+		Datatype doubleType = HdfWriterFactory.createFloatH5Datatype(h5File);
+		Datatype longType = h5File.createDatatype(Datatype.CLASS_INTEGER, 8,
+				Datatype.NATIVE, Datatype.NATIVE);
+		for (int t = 0; t < times.length; t++) {
+			H5Group timeGroup = HdfWriterFactory.createH5Group(h5File,
+					"TimeStep: " + t, locationGroup);
+			HdfWriterFactory.writeDoubleAttribute(h5File, timeGroup, "time",
+					times[t]);
+
+			// Sort the data by feature
+			Map<String, ArrayList<LWRData>> features = new LinkedHashMap<String, ArrayList<LWRData>>();
+			for (LWRData datum : data[t]) {
+				if (!features.containsKey(datum.getFeature())) {
+					features.put(datum.getFeature(), new ArrayList<LWRData>());
+				}
+				features.get(datum.getFeature()).add(datum);
+			}
+
+			// Write the n x 5 data table and the n x 2 head table of each
+			// feature
+			for (Map.Entry<String, ArrayList<LWRData>> entry : features
+					.entrySet()) {
+				ArrayList<LWRData> featureData = entry.getValue();
+				int n = featureData.size();
+				double[] dataTable = new double[5 * n];
+				long[] headTable = new long[2 * n];
+				for (int j = 0; j < n; j++) {
+					LWRData datum = featureData.get(j);
+					dataTable[5 * j] = datum.getValue();
+					dataTable[5 * j + 1] = datum.getUncertainty();
+					for (int k = 0; k < 3; k++) {
+						dataTable[5 * j + 2 + k] = datum.getPosition().get(k);
+					}
+					headTable[2 * j] = j;
+					for (int k = 0; k < units.length; k++) {
+						if (units[k].equals(datum.getUnits())) {
+							headTable[2 * j + 1] = k;
+						}
+					}
+				}
+				h5File.createScalarDS(entry.getKey() + " dataTable",
+						timeGroup, doubleType, new long[] { n, 5 }, null,
+						null, 0, dataTable).init();
+				h5File.createScalarDS(entry.getKey() + " headTable",
+						timeGroup, longType, new long[] { n, 2 }, null, null,
+						0, headTable).init();
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * Writes a table of strings to a group.
+	 * 
+	 * @param h5File
+	 *            The file
+	 * @param h5Group
+	 *            The group
+	 * @param name
+	 *            The name of the table
+	 * @param strings
+	 *            The strings
+	 * @throws Exception
+	 */
+	private void writeVersion1Strings(H5File h5File, H5Group h5Group,
+			String name, String[] strings) throws Exception {
+
+		int maxLength = 0;
+		for (String string : strings) {
+			maxLength = Math.max(maxLength, string.length());
+		}
+		Datatype stringType = h5File.createDatatype(Datatype.CLASS_STRING,
+				maxLength, Datatype.NATIVE, Datatype.NATIVE);
+		Dataset dataSet = h5File.createScalarDS(name, h5Group, stringType,
+				new long[] { strings.length }, null, null, 0, null);
+		dataSet.write(strings);
+		dataSet.init();
+
+		return;
+	}
+
 	/**
 	 * <p>
 	 * Removes the test.h5 file after the tests fails (to keep the workspace
@@ -0,0 +1,304 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.reactor.test.pwr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.eclipse.ice.reactor.AssemblyType;
+import org.eclipse.ice.reactor.GridLocation;
+import org.eclipse.ice.reactor.LWRDataProvider;
+import org.eclipse.ice.reactor.LWRRod;
+import org.eclipse.ice.reactor.Tube;
+import org.eclipse.ice.reactor.pwr.FuelAssembly;
+import org.eclipse.ice.reactor.pwr.PressurizedWaterReactor;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * <p>
+ * This class times the rod location lookups of LWRGridManager over every
+ * assembly of a full PWR core.
+ * </p>
+ * 
+ * @author Scott Forest Hull II
+ */
+@Ignore("Manual benchmark")
+public class PWRLocationBenchmark {
+
+	/**
+	 * The number of rows and columns of assemblies in the core.
+	 */
+	private static final int coreSize = 15;
+
+	/**
+	 * The number of rows and columns of rods in each assembly.
+	 */
+	private static final int assemblySize = 17;
+
+	/**
+	 * The guide tube locations in a 17x17 assembly.
+	 */
+	private static final int[][] tubeLocations = { { 2, 5 }, { 2, 8 },
+			{ 2, 11 }, { 3, 3 }, { 3, 13 }, { 5, 2 }, { 5, 5 }, { 5, 8 },
+			{ 5, 11 }, { 5, 14 }, { 8, 2 }, { 8, 5 }, { 8, 8 }, { 8, 11 },
+			{ 8, 14 }, { 11, 2 }, { 11, 5 }, { 11, 8 }, { 11, 11 },
+			{ 11, 14 }, { 13, 3 }, { 13, 13 }, { 14, 5 }, { 14, 8 },
+			{ 14, 11 } };
+
+	/**
+	 * The number of times that the core is walked. The best time is
+	 * reported.
+	 */
+	private static final int numWalks = 5;
+
+	/**
+	 * This operation runs the benchmark.
+	 */
+	@Test
+	public void benchmark() {
+
+		// Local Declarations
+		long start = System.nanoTime();
+		PressurizedWaterReactor reactor = createCore();
+		long buildTime = System.nanoTime() - start;
+		long walkTime = Long.MAX_VALUE;
+		int numAssemblies = 0, numRods = 0;
+
+		// Walk the core a few times and keep the best time
+		for (int i = 0; i < numWalks; i++) {
+			start = System.nanoTime();
+			numAssemblies = 0;
+			numRods = 0;
+			for (int row = 0; row < coreSize; row++) {
+				for (int column = 0; column < coreSize; column++) {
+					FuelAssembly assembly = (FuelAssembly) reactor
+							.getAssemblyByLocation(AssemblyType.Fuel, row,
+									column);
+					if (assembly != null) {
+						numAssemblies++;
+						numRods += walkAssembly(assembly);
+					}
+				}
+			}
+			walkTime = Math.min(walkTime, System.nanoTime() - start);
+		}
+		assertEquals(193, numAssemblies);
+		assertEquals(193 * (assemblySize * assemblySize - tubeLocations.length),
+				numRods);
+
+		// Search the rod locations of an assembly once for every assembly in
+		// the core, which is the same number of comparisons as the old
+		// lookups.
+		ArrayList<GridLocation> locations = new ArrayList<GridLocation>();
+		for (int row = 0; row < assemblySize; row++) {
+			for (int column = 0; column < assemblySize; column++) {
+				if (!isTube(row, column)) {
+					locations.add(new GridLocation(row, column));
+				}
+			}
+		}
+		long searchTime = Long.MAX_VALUE;
+		for (int i = 0; i < numWalks; i++) {
+			start = System.nanoTime();
+			int found = 0;
+			for (int j = 0; j < numAssemblies; j++) {
+				found += searchAssembly(locations);
+			}
+			searchTime = Math.min(searchTime, System.nanoTime() - start);
+			assertEquals(numRods, found);
+		}
+
+		// Report the results
+		System.out.println("PWRLocationBenchmark Message: " + numAssemblies
+				+ " assemblies, " + numRods + " rods, build = " + buildTime
+				/ 1000000 + " ms, indexed walk = " + walkTime / 1000
+				+ " us, searched walk = " + searchTime / 1000 + " us");
+
+		// Check that the rods and tubes are where they belong
+		checkAssembly((FuelAssembly) reactor.getAssemblyByLocation(
+				AssemblyType.Fuel, coreSize / 2, coreSize / 2));
+
+		return;
+	}
+
+	/**
+	 * This operation looks up the data provider at every location in an
+	 * assembly.
+	 *
+	 * @param assembly
+	 *            The assembly
+	 * @return The number of rods that were found
+	 */
+	private int walkAssembly(FuelAssembly assembly) {
+
+		// Local Declarations
+		int found = 0;
+
+		for (int row = 0; row < assemblySize; row++) {
+			for (int column = 0; column < assemblySize; column++) {
+				if (assembly.getLWRRodDataProviderAtLocation(row, column) != null) {
+					found++;
+				}
+			}
+		}
+
+		return found;
+	}
+
+	/**
+	 * This operation checks that every rod location in an assembly has a rod
+	 * and a data provider and that the guide tube locations do not.
+	 *
+	 * @param assembly
+	 *            The assembly
+	 */
+	private void checkAssembly(FuelAssembly assembly) {
+
+		for (int row = 0; row < assemblySize; row++) {
+			for (int column = 0; column < assemblySize; column++) {
+				LWRRod rod = assembly.getLWRRodByLocation(row, column);
+				LWRDataProvider provider = assembly
+						.getLWRRodDataProviderAtLocation(row, column);
+				if (isTube(row, column)) {
+					assertNull(rod);
+					assertNull(provider);
+					assertNotNull(assembly.getTubeByLocation(row, column));
+				} else {
+					assertEquals("Rod", rod.getName());
+					assertNotNull(provider);
+					assertNull(assembly.getTubeByLocation(row, column));
+				}
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation searches a list of locations for every location in an
+	 * assembly.
+	 *
+	 * @param locations
+	 *            The locations of the rods
+	 * @return The number of locations that were found
+	 */
+	private int searchAssembly(ArrayList<GridLocation> locations) {
+
+		// Local Declarations
+		int found = 0;
+
+		for (int row = 0; row < assemblySize; row++) {
+			for (int column = 0; column < assemblySize; column++) {
+				for (GridLocation location : locations) {
+					if (location.getRow() == row
+							&& location.getColumn() == column) {
+						found++;
+						break;
+					}
+				}
+			}
+		}
+
+		return found;
+	}
+
+	/**
+	 * This operation creates a core with 193 fuel assemblies in the usual
+	 * circular layout. Each assembly has 264 rods and 25 guide tubes.
+	 *
+	 * @return The reactor
+	 */
+	private PressurizedWaterReactor createCore() {
+
+		// Local Declarations
+		PressurizedWaterReactor reactor = new PressurizedWaterReactor(coreSize);
+		// The number of assemblies in each row of the core
+		int[] rowWidths = { 7, 11, 13, 13, 15, 15, 15, 15, 15, 15, 15, 13, 13,
+				11, 7 };
+		int count = 0;
+
+		for (int row = 0; row < coreSize; row++) {
+			int first = (coreSize - rowWidths[row]) / 2;
+			for (int column = first; column < first + rowWidths[row]; column++) {
+				FuelAssembly assembly = createAssembly("Assembly " + count++);
+				assertTrue(reactor.addAssembly(AssemblyType.Fuel, assembly));
+				assertTrue(reactor.setAssemblyLocation(AssemblyType.Fuel,
+						assembly.getName(), row, column));
+				assertSame(assembly, reactor.getAssemblyByLocation(
+						AssemblyType.Fuel, row, column));
+			}
+		}
+
+		return reactor;
+	}
+
+	/**
+	 * This operation creates a 17x17 fuel assembly with one rod type at every
+	 * location except for the guide tubes.
+	 *
+	 * @param name
+	 *            The name of the assembly
+	 * @return The assembly
+	 */
+	private FuelAssembly createAssembly(String name) {
+
+		// Local Declarations
+		FuelAssembly assembly = new FuelAssembly(name, assemblySize);
+
+		// Add the guide tubes
+		assembly.addTube(new Tube("Tube"));
+		for (int[] location : tubeLocations) {
+			assembly.setTubeLocation("Tube", location[0], location[1]);
+		}
+
+		// Add the rods everywhere else
+		assembly.addLWRRod(new LWRRod("Rod"));
+		for (int row = 0; row < assemblySize; row++) {
+			for (int column = 0; column < assemblySize; column++) {
+				if (!isTube(row, column)) {
+					assembly.setLWRRodLocation("Rod", row, column);
+				}
+			}
+		}
+
+		return assembly;
+	}
+
+	/**
+	 * This operation checks if there is a guide tube at a location in an
+	 * assembly.
+	 *
+	 * @param row
+	 *            The row
+	 * @param column
+	 *            The column
+	 * @return True if there is a guide tube at the location
+	 */
+	private boolean isTube(int row, int column) {
+
+		for (int[] location : tubeLocations) {
+			if (location[0] == row && location[1] == column) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+}
@@ -0,0 +1,225 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation -
+ *   Jay Jay Billings, John Ankner
+ *******************************************************************************/
+package org.eclipse.ice.reflectivity.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.apache.commons.math.MathException;
+import org.apache.commons.math.complex.Complex;
+import org.eclipse.ice.reflectivity.ReflectivityCalculator;
+import org.eclipse.ice.reflectivity.Slab;
+import org.eclipse.ice.reflectivity.Tile;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * This class times
+ * {@link org.eclipse.ice.reflectivity.ReflectivityCalculator#getModSqrdSpecRef(double[], double, Tile[])}
+ * against the original calculation with Complex numbers.
+ * 
+ * @author Jay Jay Billings, John Ankner
+ *
+ */
+@Ignore("Manual benchmark")
+public class ReflectivityCalculatorBenchmark {
+
+	/**
+	 * The number of points in the wave vector.
+	 */
+	private static final int numPoints = 4000;
+
+	/**
+	 * The number of layers of roughness between the slabs.
+	 */
+	private static final int numRough = 41;
+
+	/**
+	 * The wavelength of the incident neutrons.
+	 */
+	private static final double wavelength = 5.0;
+
+	/**
+	 * The number of times that each calculation is run. The best time is
+	 * reported.
+	 */
+	private static final int numRuns = 5;
+
+	/**
+	 * This operation runs the benchmark.
+	 */
+	@Test
+	public void benchmark() {
+
+		// Local Declarations
+		ReflectivityCalculator calculator = new ReflectivityCalculator();
+		Tile[] tiles = createTiles(calculator);
+		double[] waveVector = new double[numPoints];
+		double[] reference = new double[numPoints];
+		double[] modSqrdSpecRef = null;
+		long referenceTime = Long.MAX_VALUE, batchTime = Long.MAX_VALUE;
+
+		// Create the wave vector. The first point is zero, where the squared
+		// normal wave vector of the top tile is zero.
+		for (int i = 0; i < numPoints; i++) {
+			waveVector[i] = 0.3 * i / (numPoints - 1);
+		}
+
+		// Time the original calculation and the batch calculation
+		for (int run = 0; run < numRuns; run++) {
+			long start = System.nanoTime();
+			for (int i = 0; i < numPoints; i++) {
+				reference[i] = getComplexModSqrdSpecRef(waveVector[i],
+						wavelength, tiles);
+			}
+			referenceTime = Math.min(referenceTime, System.nanoTime() - start);
+			start = System.nanoTime();
+			modSqrdSpecRef = calculator.getModSqrdSpecRef(waveVector,
+					wavelength, tiles);
+			batchTime = Math.min(batchTime, System.nanoTime() - start);
+		}
+
+		// Report the results
+		System.out.println("ReflectivityCalculatorBenchmark Message: "
+				+ numPoints + " points, " + tiles.length + " tiles, complex = "
+				+ referenceTime / 1000000 + " ms, batch = " + batchTime
+				/ 1000000 + " ms");
+
+		// Both calculations and the single point calculation must agree
+		// exactly
+		for (int i = 0; i < numPoints; i++) {
+			assertEquals(Double.doubleToLongBits(reference[i]),
+					Double.doubleToLongBits(modSqrdSpecRef[i]));
+			assertEquals(Double.doubleToLongBits(reference[i]),
+					Double.doubleToLongBits(calculator.getModSqrdSpecRef(
+							waveVector[i], wavelength, tiles)));
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation creates the tiles for a stack of nickel and silicon
+	 * oxide slabs.
+	 *
+	 * @param calculator
+	 *            the calculator used to generate the tiles
+	 * @return the tiles
+	 */
+	private Tile[] createTiles(ReflectivityCalculator calculator) {
+
+		// Create the slabs, starting with air
+		Slab[] slabs = new Slab[5];
+		for (int i = 0; i < slabs.length; i++) {
+			slabs[i] = new Slab();
+		}
+		slabs[0].thickness = 200.0;
+		// NiOx
+		slabs[1].scatteringLength = (0.00000686 + 0.00000715) / 2.0;
+		slabs[1].trueAbsLength = 2.27931868269305E-09;
+		slabs[1].incAbsLength = 4.74626235093697E-09;
+		slabs[1].thickness = 22.0;
+		slabs[1].interfaceWidth = 4.0 * 2.35;
+		// Ni
+		slabs[2].scatteringLength = 9.31e-6;
+		slabs[2].trueAbsLength = 2.27931868269305E-09;
+		slabs[2].incAbsLength = 4.74626235093697E-09;
+		slabs[2].thickness = 551.0;
+		slabs[2].interfaceWidth = 4.3 * 2.35;
+		// SiNiOx
+		slabs[3].scatteringLength = (0.00000554 + 0.00000585) / 2.0;
+		slabs[3].trueAbsLength = 2.27931868269305E-09;
+		slabs[3].incAbsLength = 4.74626235093697E-09;
+		slabs[3].thickness = 42.0;
+		slabs[3].interfaceWidth = 7.0 * 2.35;
+		// SiOx
+		slabs[4].scatteringLength = 2.070e-6;
+		slabs[4].trueAbsLength = 4.74981478870069E-11;
+		slabs[4].incAbsLength = 1.99769988072137E-12;
+		slabs[4].thickness = 100.0;
+		slabs[4].interfaceWidth = 17.5;
+
+		// Generate the tiles
+		Tile[] tiles = null;
+		try {
+			double[] zInt = new double[ReflectivityCalculator.maxRoughSize];
+			double[] rufInt = new double[ReflectivityCalculator.maxRoughSize];
+			calculator.getInterfacialProfile(numRough, zInt, rufInt);
+			tiles = calculator.generateTiles(slabs, numRough, zInt, rufInt);
+		} catch (MathException e) {
+			e.printStackTrace();
+			fail();
+		}
+
+		return tiles;
+	}
+
+	/**
+	 * This operation is the original calculation of the squared modulus of the
+	 * specular reflectivity for a single wave vector Q, which creates Complex
+	 * numbers for every tile.
+	 *
+	 * @param waveVectorQ
+	 *            the value of the wave vector
+	 * @param wavelength
+	 *            the wavelength of the incident neutrons
+	 * @param tiles
+	 *            the tiles
+	 * @return the squared modulus of the specular reflectivity
+	 */
+	private double getComplexModSqrdSpecRef(double waveVectorQ,
+			double wavelength, Tile[] tiles) {
+
+		double modSqrdSpecRef = 0.0;
+
+		if (wavelength > 0.0) {
+			Tile tile;
+			Complex aNm1Sq, fNm1N, rNm1N = new Complex(0.0, 0.0), one = new Complex(
+					1.0, 0.0), qN = new Complex(0.0, 0.0), rNNp1 = new Complex(
+					0.0, 0.0);
+			int nLayers = tiles.length;
+			tile = tiles[nLayers - 1];
+			double qCSq = 16.0 * Math.PI * tile.scatteringLength;
+			double muLAbs = tile.trueAbsLength;
+			double mulInc = tile.incAbsLength;
+			double thickness = tile.thickness;
+			double betaNm1 = 4.0 * Math.PI * (muLAbs + mulInc / wavelength);
+			Complex qNm1 = new Complex(waveVectorQ * waveVectorQ - qCSq, -2.0
+					* betaNm1);
+			qNm1 = qNm1.sqrt();
+			for (int i = nLayers - 1; i > 0; i--) {
+				tile = tiles[i - 1];
+				qN = qNm1;
+				qCSq = 16.0 * Math.PI * tile.scatteringLength;
+				muLAbs = tile.trueAbsLength;
+				mulInc = tile.incAbsLength;
+				thickness = tile.thickness;
+				betaNm1 = 4.0 * Math.PI * (muLAbs + mulInc / wavelength);
+				qNm1 = new Complex(waveVectorQ * waveVectorQ - qCSq, -2.0
+						* betaNm1);
+				qNm1 = qNm1.sqrt();
+				aNm1Sq = (new Complex(qNm1.getImaginary(), qNm1.getReal())
+						.multiply(-0.5 * thickness)).exp();
+				fNm1N = qNm1.subtract(qN).divide(qNm1.add(qN));
+				Complex y = rNNp1.multiply(fNm1N).add(one);
+				Complex z = rNNp1.add(fNm1N);
+				rNm1N = aNm1Sq.multiply(aNm1Sq).multiply(z.divide((y)));
+				rNNp1 = rNm1N;
+			}
+			modSqrdSpecRef = rNm1N.getReal() * rNm1N.getReal()
+					+ rNm1N.getImaginary() * rNm1N.getImaginary();
+		}
+
+		return modSqrdSpecRef;
+	}
+
+}
@@ -0,0 +1,252 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation -
+ *   Jay Jay Billings
+ *******************************************************************************/
+package org.eclipse.ice.reflectivity.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.apache.commons.math.MathException;
+import org.eclipse.ice.reflectivity.IReflectivitySweepListener;
+import org.eclipse.ice.reflectivity.ReflectivityCalculator;
+import org.eclipse.ice.reflectivity.ReflectivityProfile;
+import org.eclipse.ice.reflectivity.ReflectivitySweep;
+import org.eclipse.ice.reflectivity.ReflectivitySweep.Parameter;
+import org.eclipse.ice.reflectivity.Slab;
+import org.junit.Test;
+
+/**
+ * This class tests {@link ReflectivitySweep}.
+ *
+ * @author Jay Jay Billings
+ *
+ */
+public class ReflectivitySweepTester {
+
+	/**
+	 * The number of layers of roughness between the slabs.
+	 */
+	private static final int numRough = 41;
+
+	/**
+	 * The zeroth and first order terms of the Q resolution.
+	 */
+	private static final double deltaQ0 = 1.0e-4, deltaQ1ByQ = 0.025;
+
+	/**
+	 * The wavelength of the incident neutrons.
+	 */
+	private static final double wavelength = 5.0;
+
+	/**
+	 * This operation checks that every configuration of a sweep is the same
+	 * as the profile from the calculator and that each one is passed to the
+	 * listener once.
+	 */
+	@Test
+	public void checkProfiles() {
+
+		// Local Declarations
+		final double[] waveVector = createWaveVector();
+		final ReflectivityCalculator calculator = new ReflectivityCalculator();
+		final boolean[] calculated = new boolean[6];
+		final int[] calls = new int[1];
+
+		try {
+			// Sweep the thickness of the nickel and the roughness of its oxide
+			ReflectivitySweep sweep = new ReflectivitySweep(createSlabs(),
+					numRough, deltaQ0, deltaQ1ByQ, wavelength, waveVector);
+			sweep.addParameter(2, Parameter.Thickness,
+					ReflectivitySweep.getRange(540.0, 560.0, 3));
+			sweep.addParameter(1, Parameter.Roughness, new double[] { 5.0,
+					10.0 });
+			assertEquals(2, sweep.getNumberOfParameters());
+			assertEquals(6, sweep.getNumberOfConfigurations());
+			assertEquals(550.0, sweep.getParameterValues(2)[0], 0.0);
+			assertEquals(5.0, sweep.getParameterValues(2)[1], 0.0);
+
+			// Run it and compare every profile to the calculator
+			int best = sweep.run(new IReflectivitySweepListener() {
+				@Override
+				public void profileCalculated(int configuration,
+						double[] parameterValues, ReflectivityProfile profile,
+						double chiSquared) {
+					Slab[] slabs = createSlabs();
+					slabs[2].thickness = parameterValues[0];
+					slabs[1].interfaceWidth = parameterValues[1];
+					ReflectivityProfile expected = calculator
+							.getReflectivityProfile(slabs, numRough, deltaQ0,
+									deltaQ1ByQ, wavelength, waveVector, false);
+					for (int i = 0; i < waveVector.length; i++) {
+						assertEquals(
+								Double.doubleToLongBits(expected.reflectivity[i]),
+								Double.doubleToLongBits(profile.reflectivity[i]));
+					}
+					assertEquals(expected.depth.length, profile.depth.length);
+					for (int i = 0; i < expected.depth.length; i++) {
+						assertEquals(expected.depth[i], profile.depth[i], 0.0);
+						assertEquals(expected.scatteringDensity[i],
+								profile.scatteringDensity[i], 0.0);
+					}
+					assertTrue(Double.isNaN(chiSquared));
+					assertFalse(calculated[configuration]);
+					calculated[configuration] = true;
+					calls[0]++;
+				}
+			});
+			assertEquals(-1, best);
+			assertEquals(6, calls[0]);
+		} catch (MathException e) {
+			e.printStackTrace();
+			fail();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation checks that the sweep finds the configuration closest to
+	 * measured data and that the fit recovers the parameter that produced it.
+	 */
+	@Test
+	public void checkFit() {
+
+		// Local Declarations
+		double[] waveVector = createWaveVector();
+		ReflectivityCalculator calculator = new ReflectivityCalculator();
+
+		// Create the "measured" data with a nickel layer 551 A thick
+		Slab[] slabs = createSlabs();
+		slabs[2].thickness = 551.0;
+		double[] measured = calculator.getReflectivityProfile(slabs, numRough,
+				deltaQ0, deltaQ1ByQ, wavelength, waveVector, false).reflectivity;
+
+		try {
+			ReflectivitySweep sweep = new ReflectivitySweep(createSlabs(),
+					numRough, deltaQ0, deltaQ1ByQ, wavelength, waveVector);
+			sweep.addParameter(2, Parameter.Thickness,
+					ReflectivitySweep.getRange(530.0, 570.0, 5));
+			sweep.setMeasuredData(measured, null);
+
+			// The closest thickness of the sweep is 550 A
+			int best = sweep.run(null);
+			assertEquals(2, best);
+			assertEquals(5, sweep.getChiSquared().length);
+			for (double chiSquared : sweep.getChiSquared()) {
+				assertTrue(chiSquared >= sweep.getChiSquared()[best]);
+			}
+
+			// The fit should find the real thickness
+			double[] fit = sweep.fit(sweep.getParameterValues(best), 50);
+			assertEquals(551.0, fit[0], 1.0e-3);
+			assertTrue(sweep.getFitChiSquared() < sweep.getChiSquared()[best]);
+		} catch (MathException e) {
+			e.printStackTrace();
+			fail();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation checks that bad parameters are rejected.
+	 */
+	@Test
+	public void checkBadParameters() {
+
+		try {
+			ReflectivitySweep sweep = new ReflectivitySweep(createSlabs(),
+					numRough, deltaQ0, deltaQ1ByQ, wavelength,
+					createWaveVector());
+			try {
+				sweep.addParameter(5, Parameter.Thickness, new double[] { 1.0 });
+				fail();
+			} catch (IllegalArgumentException e) {
+				// Expected
+			}
+			try {
+				sweep.addParameter(0, Parameter.Thickness, new double[0]);
+				fail();
+			} catch (IllegalArgumentException e) {
+				// Expected
+			}
+			try {
+				sweep.fit(new double[0], 10);
+				fail();
+			} catch (IllegalStateException e) {
+				// Expected
+			}
+			assertEquals(1, sweep.getNumberOfConfigurations());
+		} catch (MathException e) {
+			e.printStackTrace();
+			fail();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation creates the wave vector.
+	 *
+	 * @return the wave vector
+	 */
+	private double[] createWaveVector() {
+		double[] waveVector = new double[200];
+		for (int i = 0; i < waveVector.length; i++) {
+			waveVector[i] = 0.005 + 0.001 * i;
+		}
+		return waveVector;
+	}
+
+	/**
+	 * This operation creates a stack of nickel and silicon oxide slabs,
+	 * starting with air.
+	 *
+	 * @return the slabs
+	 */
+	private Slab[] createSlabs() {
+
+		Slab[] slabs = new Slab[5];
+		for (int i = 0; i < slabs.length; i++) {
+			slabs[i] = new Slab();
+		}
+		slabs[0].thickness = 200.0;
+		// NiOx
+		slabs[1].scatteringLength = (0.00000686 + 0.00000715) / 2.0;
+		slabs[1].trueAbsLength = 2.27931868269305E-09;
+		slabs[1].incAbsLength = 4.74626235093697E-09;
+		slabs[1].thickness = 22.0;
+		slabs[1].interfaceWidth = 4.0 * 2.35;
+		// Ni
+		slabs[2].scatteringLength = 9.31e-6;
+		slabs[2].trueAbsLength = 2.27931868269305E-09;
+		slabs[2].incAbsLength = 4.74626235093697E-09;
+		slabs[2].thickness = 551.0;
+		slabs[2].interfaceWidth = 4.3 * 2.35;
+		// SiNiOx
+		slabs[3].scatteringLength = (0.00000554 + 0.00000585) / 2.0;
+		slabs[3].trueAbsLength = 2.27931868269305E-09;
+		slabs[3].incAbsLength = 4.74626235093697E-09;
+		slabs[3].thickness = 42.0;
+		slabs[3].interfaceWidth = 7.0 * 2.35;
+		// SiOx
+		slabs[4].scatteringLength = 2.070e-6;
+		slabs[4].trueAbsLength = 4.74981478870069E-11;
+		slabs[4].incAbsLength = 1.99769988072137E-12;
+		slabs[4].thickness = 100.0;
+		slabs[4].interfaceWidth = 17.5;
+
+		return slabs;
+	}
+
+}
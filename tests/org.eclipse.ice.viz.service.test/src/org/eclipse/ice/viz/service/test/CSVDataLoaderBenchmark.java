@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.viz.service.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+
+import org.eclipse.ice.analysistool.IData;
+import org.eclipse.ice.viz.service.csv.CSVDataLoader;
+import org.eclipse.ice.viz.service.csv.CSVDataProvider;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * This class times the CSVDataLoader on a large postprocessor file with
+ * uncertainties.
+ * 
+ * @author Jordan Deyton
+ *
+ */
+@Ignore("Manual benchmark")
+public class CSVDataLoaderBenchmark {
+
+	/**
+	 * The number of data lines in the file.
+	 */
+	private static final int numRows = 500000;
+
+	/**
+	 * The number of features in the file besides the time. Each one has an
+	 * error column.
+	 */
+	private static final int numFeatures = 8;
+
+	/**
+	 * The number of times that the file is loaded. The best time is reported.
+	 */
+	private static final int numLoads = 3;
+
+	/**
+	 * This operation runs the benchmark.
+	 */
+	@Test
+	public void benchmark() {
+
+		// Local Declarations
+		CSVDataLoader loader = new CSVDataLoader();
+		CSVDataProvider provider = null;
+		Runtime runtime = Runtime.getRuntime();
+		File csvFile = null;
+
+		try {
+			// Write the file
+			csvFile = File.createTempFile("csvBenchmark", ".csv");
+			csvFile.deleteOnExit();
+			writeCSVFile(csvFile);
+
+			// Load it a few times and keep the best time
+			long loadTime = Long.MAX_VALUE;
+			long heap = 0;
+			for (int i = 0; i < numLoads; i++) {
+				provider = null;
+				System.gc();
+				long usedBefore = runtime.totalMemory() - runtime.freeMemory();
+				long start = System.nanoTime();
+				provider = loader.load(csvFile);
+				loadTime = Math.min(loadTime, System.nanoTime() - start);
+				System.gc();
+				heap = runtime.totalMemory() - runtime.freeMemory()
+						- usedBefore;
+			}
+
+			// Report the results
+			System.out.println("CSVDataLoaderBenchmark Message: " + numRows
+					+ " rows, " + csvFile.length() / 1024 + " KB, load = "
+					+ loadTime / 1000000 + " ms, heap = " + heap / 1024
+					+ " KB");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail();
+		} finally {
+			if (csvFile != null) {
+				csvFile.delete();
+			}
+		}
+
+		// Check the features. The error columns are not features.
+		assertNotNull(provider);
+		ArrayList<String> features = provider.getFeatureList();
+		Collections.sort(features);
+		assertEquals(numFeatures + 1, features.size());
+		assertEquals("f0", features.get(0));
+		assertEquals("time", features.get(numFeatures));
+		assertEquals("s", provider.getTimeUnits());
+
+		// Check the values and the uncertainties
+		double[] times = provider.getValuesAtCurrentTime("time");
+		assertEquals(numRows, times.length);
+		for (int j = 0; j < numFeatures; j++) {
+			String feature = "f" + j;
+			double[] values = provider.getValuesAtCurrentTime(feature);
+			double[] uncertainties = provider
+					.getUncertaintiesAtCurrentTime(feature);
+			assertEquals(numRows, values.length);
+			assertEquals(numRows, uncertainties.length);
+			for (int i = 0; i < numRows; i += 997) {
+				assertEquals(0.001 * i, times[i], 1.0e-12);
+				assertEquals(getValue(i, j), values[i], 1.0e-9);
+				assertEquals(getUncertainty(i, j), uncertainties[i], 1.0e-12);
+			}
+		}
+		assertEquals(getValue(numRows - 1, numFeatures - 1),
+				provider.getDataMin(), 1.0e-9);
+		assertEquals(0.001 * (numRows - 1), provider.getDataMax(), 1.0e-12);
+
+		// Check the IData that are created for the existing API
+		provider.setFeatureAsIndependentVariable("time");
+		IData data = provider.getDataAtCurrentTime("f1").get(numRows - 1);
+		assertEquals("f1", data.getFeature());
+		assertEquals("J", data.getUnits());
+		assertEquals(getValue(numRows - 1, 1), data.getValue(), 1.0e-9);
+		assertEquals(getUncertainty(numRows - 1, 1), data.getUncertainty(),
+				1.0e-12);
+		assertEquals(1, data.getPosition().size());
+		assertEquals(0.001 * (numRows - 1), data.getPosition().get(0), 1.0e-12);
+
+		return;
+	}
+
+	/**
+	 * This operation returns the value of a feature in a row of the file.
+	 *
+	 * @param row
+	 *            The row
+	 * @param feature
+	 *            The index of the feature
+	 * @return The value
+	 */
+	private double getValue(int row, int feature) {
+		return (row % 2 == 0 ? 1.0 : -1.0) * (feature + 1)
+				* (1.0 + row / (double) numRows);
+	}
+
+	/**
+	 * This operation returns the uncertainty of a feature in a row of the
+	 * file.
+	 *
+	 * @param row
+	 *            The row
+	 * @param feature
+	 *            The index of the feature
+	 * @return The uncertainty
+	 */
+	private double getUncertainty(int row, int feature) {
+		return 0.01 * (feature + 1);
+	}
+
+	/**
+	 * This operation writes the synthetic CSV file.
+	 *
+	 * @param file
+	 *            The file
+	 * @throws IOException
+	 */
+	private void writeCSVFile(File file) throws IOException {
+
+		// Local Declarations
+		BufferedWriter writer = new BufferedWriter(new FileWriter(file));
+
+		try {
+			// The header
+			StringBuilder features = new StringBuilder("#features,time");
+			StringBuilder units = new StringBuilder("#units,s");
+			for (int j = 0; j < numFeatures; j++) {
+				features.append(",f" + j + ",f" + j + "_error");
+				units.append(",J,J");
+			}
+			writer.write(features + "\n" + units + "\n#time-units,s\n");
+
+			// The data
+			for (int i = 0; i < numRows; i++) {
+				StringBuilder line = new StringBuilder();
+				line.append(0.001 * i);
+				for (int j = 0; j < numFeatures; j++) {
+					line.append(',').append(getValue(i, j)).append(',')
+							.append(getUncertainty(i, j));
+				}
+				writer.write(line.append('\n').toString());
+			}
+		} finally {
+			writer.close();
+		}
+
+		return;
+	}
+
+}
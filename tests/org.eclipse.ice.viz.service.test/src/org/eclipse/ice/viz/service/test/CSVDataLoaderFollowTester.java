@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.viz.service.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import org.eclipse.ice.analysistool.IData;
+import org.eclipse.ice.viz.service.csv.CSVDataLoader;
+import org.eclipse.ice.viz.service.csv.CSVDataProvider;
+import org.junit.Test;
+
+/**
+ * This class tests the ability of the CSVDataLoader to follow a CSV file that
+ * is still being written.
+ *
+ * @author Jay Jay Billings
+ */
+public class CSVDataLoaderFollowTester {
+
+	/**
+	 * This operation checks that lines appended to a followed file are added
+	 * to the existing columns and that incomplete lines are not read until
+	 * they are finished.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void checkFollow() throws Exception {
+
+		// Local Declarations
+		CSVDataLoader loader = new CSVDataLoader();
+		File file = File.createTempFile("csvFollow", ".csv");
+		file.deleteOnExit();
+
+		try {
+			// Write the header, one line and half of the next line
+			append(file, "#features,t,y,y_error\n#units,s,m,m\n0,1,0.1\n1,2,",
+					false);
+
+			// Only the complete line should be loaded
+			CSVDataProvider provider = loader.follow(file);
+			provider.setFeatureAsIndependentVariable("t");
+			assertArrayEquals(new double[] { 0.0 },
+					provider.getValuesAtCurrentTime("t"), 0.0);
+			assertArrayEquals(new double[] { 1.0 },
+					provider.getValuesAtCurrentTime("y"), 0.0);
+			assertEquals(0, loader.update());
+
+			// Finish the line and add another one after a break
+			append(file, "0.2\n\n# restart\n2,3,0.3\n3,4", true);
+			assertEquals(2, loader.update());
+			assertArrayEquals(new double[] { 0.0, 1.0, 2.0 },
+					provider.getValuesAtCurrentTime("t"), 0.0);
+			assertArrayEquals(new double[] { 1.0, 2.0, 3.0 },
+					provider.getValuesAtCurrentTime("y"), 0.0);
+			assertArrayEquals(new double[] { 0.1, 0.2, 0.3 },
+					provider.getUncertaintiesAtCurrentTime("y"), 1.0e-15);
+			assertEquals(0.0, provider.getDataMin(), 0.0);
+			assertEquals(3.0, provider.getDataMax(), 0.0);
+
+			// The new values should have positions and units too
+			IData data = provider.getDataAtCurrentTime("y").get(2);
+			assertEquals("m", data.getUnits());
+			assertEquals(1, data.getPosition().size());
+			assertEquals(2.0, data.getPosition().get(0), 0.0);
+
+			// Finish the last line
+			append(file, ",0.4\n", true);
+			assertEquals(1, loader.update());
+			assertArrayEquals(new double[] { 1.0, 2.0, 3.0, 4.0 },
+					provider.getValuesAtCurrentTime("y"), 0.0);
+			assertEquals(4.0, provider.getDataMax(), 0.0);
+			assertEquals(0, loader.update());
+
+			// The file can not be followed once it is rewritten
+			append(file, "#features,t,y\n", false);
+			try {
+				loader.update();
+				fail();
+			} catch (IOException e) {
+				// Expected
+			}
+		} finally {
+			file.delete();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation checks that a file that only has a header can be
+	 * followed until its data is written.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void checkFollowHeader() throws Exception {
+
+		// Local Declarations
+		CSVDataLoader loader = new CSVDataLoader();
+		File file = File.createTempFile("csvFollow", ".csv");
+		file.deleteOnExit();
+
+		try {
+			// Follow a file with only a header
+			append(file, "t,y\n", false);
+			CSVDataProvider provider = loader.follow(file);
+			ArrayList<String> features = provider.getFeatureList();
+			assertEquals(2, features.size());
+			assertNull(provider.getValuesAtCurrentTime("y"));
+
+			// Add the data
+			append(file, "0,5\n1,6\n", true);
+			assertEquals(2, loader.update());
+			assertArrayEquals(new double[] { 5.0, 6.0 },
+					provider.getValuesAtCurrentTime("y"), 0.0);
+		} finally {
+			file.delete();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation checks that a followed file that is rewritten is
+	 * detected even if it does not become shorter.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void checkRewrittenFile() throws Exception {
+
+		// Local Declarations
+		CSVDataLoader loader = new CSVDataLoader();
+		File file = File.createTempFile("csvFollow", ".csv");
+		file.deleteOnExit();
+
+		try {
+			// Appending lines is not a rewrite
+			append(file, "#features,t,y\n0,1\n1,2\n", false);
+			loader.follow(file);
+			assertFalse(loader.isRewritten());
+			append(file, "2,3\n", true);
+			assertFalse(loader.isRewritten());
+			assertEquals(1, loader.update());
+
+			// Rewriting the same number of bytes is a rewrite if the file was
+			// modified without growing
+			long modified = file.lastModified();
+			append(file, "#features,t,y\n0,7\n1,8\n2,9\n", false);
+			assertTrue(file.setLastModified(modified + 2000));
+			assertTrue(loader.isRewritten());
+			try {
+				loader.update();
+				fail();
+			} catch (IOException e) {
+				// Expected
+			}
+
+			// A longer file with a new header is a rewrite too
+			loader.follow(file);
+			assertFalse(loader.isRewritten());
+			append(file, "#features,t,z\n0,1\n1,2\n2,3\n3,4\n", false);
+			assertTrue(loader.isRewritten());
+
+			// Following it again starts over with the new columns
+			CSVDataProvider provider = loader.follow(file);
+			provider.setFeatureAsIndependentVariable("t");
+			assertArrayEquals(new double[] { 1.0, 2.0, 3.0, 4.0 },
+					provider.getValuesAtCurrentTime("z"), 0.0);
+			assertFalse(loader.isRewritten());
+		} finally {
+			file.delete();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation writes text to a file.
+	 *
+	 * @param file
+	 *            The file
+	 * @param text
+	 *            The text
+	 * @param append
+	 *            True if the text is added to the end of the file, false if
+	 *            it replaces the contents of the file
+	 * @throws IOException
+	 */
+	private void append(File file, String text, boolean append)
+			throws IOException {
+		FileWriter writer = new FileWriter(file, append);
+		try {
+			writer.write(text);
+		} finally {
+			writer.close();
+		}
+	}
+
+}
@@ -266,4 +266,60 @@ public class CSVPlotTester extends SWTBotGefTestCase {
 		return;
 	}
 
+	/**
+	 * Test method for {@link org.eclipse.ice.viz.service.csv.CSVPlot#follow()}
+	 * and {@link org.eclipse.ice.viz.service.csv.CSVPlot#stopFollowing()}. It
+	 * checks that a follower that was stopped does not keep running if the
+	 * file is followed again right away.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testFollow() throws Exception {
+
+		// Follow the file, stop and follow it again right away
+		CSVPlot plot = new CSVPlot(file.toURI());
+		plot.follow();
+		assertTrue(plot.isFollowing());
+		plot.stopFollowing();
+		assertFalse(plot.isFollowing());
+		plot.follow();
+		assertTrue(plot.isFollowing());
+
+		// Only one thread should be following the file
+		Thread.sleep(2000);
+		assertEquals(1, countFollowers());
+
+		// Stopping it should end the thread
+		plot.stopFollowing();
+		assertFalse(plot.isFollowing());
+		Thread.sleep(500);
+		assertEquals(0, countFollowers());
+
+		return;
+	}
+
+	/**
+	 * This operation counts the threads that are following a CSV file.
+	 * 
+	 * @return The number of threads in CSVPlot.followFile()
+	 */
+	private int countFollowers() {
+
+		// Local Declarations
+		int count = 0;
+
+		for (StackTraceElement[] trace : Thread.getAllStackTraces().values()) {
+			for (StackTraceElement element : trace) {
+				if (CSVPlot.class.getName().equals(element.getClassName())
+						&& "followFile".equals(element.getMethodName())) {
+					count++;
+					break;
+				}
+			}
+		}
+
+		return count;
+	}
+
 }
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.viz.service.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.ice.viz.service.csv.SeriesDownsampler;
+import org.junit.Test;
+
+/**
+ * This class tests the SeriesDownsampler.
+ *
+ * @author Jay Jay Billings
+ */
+public class SeriesDownsamplerTester {
+
+	/**
+	 * This operation checks that small series and small ranges are returned
+	 * without changes.
+	 */
+	@Test
+	public void checkSmallSeries() {
+
+		// Create a short series
+		double[] x = { 0.0, 1.0, 2.0, 3.0, 4.0 };
+		double[] y = { 5.0, -1.0, 7.0, 2.0, 0.0 };
+		SeriesDownsampler sampler = new SeriesDownsampler(x, y);
+		assertEquals(5, sampler.getSize());
+		assertEquals(3, sampler.getNumberOfLevels());
+
+		// All of the points fit
+		double[][] points = sampler.getPoints(10);
+		assertArrayEquals(x, points[0], 0.0);
+		assertArrayEquals(y, points[1], 0.0);
+
+		// A range includes one point on each side
+		points = sampler.getPoints(1.5, 2.5, 10);
+		assertArrayEquals(new double[] { 1.0, 2.0, 3.0 }, points[0], 0.0);
+		assertArrayEquals(new double[] { -1.0, 7.0, 2.0 }, points[1], 0.0);
+
+		// An empty series has no points
+		sampler = new SeriesDownsampler(new double[0], new double[0]);
+		assertEquals(0, sampler.getPoints(10)[0].length);
+		assertEquals(0, sampler.getPoints(0.0, 1.0, 10)[0].length);
+
+		return;
+	}
+
+	/**
+	 * This operation checks that a large series is reduced to the number of
+	 * points requested without losing its extremes.
+	 */
+	@Test
+	public void checkDownsampling() {
+
+		// Create a noisy series with one spike and one dip
+		int size = 1000000;
+		double[] x = new double[size];
+		double[] y = new double[size];
+		for (int i = 0; i < size; i++) {
+			x[i] = 0.01 * i;
+			y[i] = Math.sin(0.0001 * i) + 0.01 * ((i * 7919) % 13);
+		}
+		y[123457] = 50.0;
+		y[876543] = -50.0;
+		SeriesDownsampler sampler = new SeriesDownsampler(x, y);
+
+		// Reduce the whole series
+		double[][] points = sampler.getPoints(800);
+		assertTrue(points[0].length <= 800);
+		assertTrue(points[0].length >= 400);
+		checkPoints(points, x[0], x[size - 1], 50.0, -50.0);
+
+		// Reduce a range that contains the spike
+		double xMin = x[100000], xMax = x[200000];
+		points = sampler.getPoints(xMin, xMax, 1000);
+		assertTrue(points[0].length <= 1000);
+		checkPoints(points, xMin, xMax, 50.0, Double.NaN);
+
+		// Zooming in far enough returns the original points
+		points = sampler.getPoints(x[500000], x[500100], 1000);
+		assertEquals(103, points[0].length);
+		assertEquals(x[499999], points[0][0], 0.0);
+		assertEquals(y[500101], points[1][102], 0.0);
+
+		return;
+	}
+
+	/**
+	 * This operation checks that the points are in order, cover the range and
+	 * contain the expected extremes.
+	 *
+	 * @param points
+	 *            The points
+	 * @param xMin
+	 *            The lowest x value in the range
+	 * @param xMax
+	 *            The highest x value in the range
+	 * @param max
+	 *            The expected maximum y value
+	 * @param min
+	 *            The expected minimum y value, or NaN to skip the check
+	 */
+	private void checkPoints(double[][] points, double xMin, double xMax,
+			double max, double min) {
+
+		// Local Declarations
+		double[] x = points[0], y = points[1];
+		double yMin = Double.POSITIVE_INFINITY;
+		double yMax = Double.NEGATIVE_INFINITY;
+
+		assertEquals(x.length, y.length);
+		for (int i = 0; i < x.length; i++) {
+			if (i > 0) {
+				assertTrue(x[i - 1] < x[i]);
+			}
+			yMin = Math.min(yMin, y[i]);
+			yMax = Math.max(yMax, y[i]);
+		}
+		assertTrue(x[0] <= xMin);
+		assertTrue(x[x.length - 1] >= xMax);
+		assertEquals(max, yMax, 0.0);
+		if (!Double.isNaN(min)) {
+			assertEquals(min, yMin, 0.0);
+		}
+
+		return;
+	}
+
+}